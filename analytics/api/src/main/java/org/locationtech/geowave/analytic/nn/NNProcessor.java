@@ -41,6 +41,14 @@ import org.slf4j.LoggerFactory;
  * inferred and, therefore, can be removed from the set of primaries to be inspected. This has no
  * effect on secondaries.
  *
+ * <p> Partitions that are large, such as those produced by a pass-through secondary partitioner in
+ * dense areas, can be sub-partitioned with a neighbor grid (see
+ * {@link #setNeighborGrid(Partitioner, int)}). Each item is also placed into the cells of the grid
+ * partitioner, which should partition by the max distance, and the neighbors of a primary within a
+ * partition that is larger than the grid threshold are only sought within the grid cells of that
+ * primary. As with any partitioner, the grid relies on each item being added to the cells within
+ * the max distance of the item.
+ *
  * <p> The processor can be called multiple times, as the 'process' algorithm does not alter its
  * internal state. The notification callback can be used to alter the internal state (e.g. calling
  * 'add' or 'remove' methods). Caution should used to alter internal state within the neighbor list.
@@ -56,6 +64,8 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
   final Map<ByteArray, Set<PartitionData>> idsToPartition = new HashMap<>();
   final Map<ByteArray, STORE_VALUE> primaries = new HashMap<>();
   final Map<ByteArray, STORE_VALUE> others = new HashMap<>();
+  final Map<PartitionData, Set<ByteArray>> cellsToIds = new HashMap<>();
+  final Map<ByteArray, Set<PartitionData>> idsToCells = new HashMap<>();
 
   protected final Partitioner<Object> partitioner;
   protected final TypeConverter<STORE_VALUE> typeConverter;
@@ -64,8 +74,17 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
   protected final double maxDistance;
   protected final PartitionData parentPartition;
   private int upperBoundPerPartition = DEFAULT_UPPER_BOUND_PARTIION_SIZE;
+  private Partitioner<Object> gridPartitioner = null;
+  private int gridThreshold = DEFAULT_GRID_THRESHOLD;
 
   public static final int DEFAULT_UPPER_BOUND_PARTIION_SIZE = 75000;
+  public static final int DEFAULT_GRID_THRESHOLD = 1000;
+
+  /** Metrics */
+  private long distanceComparisons = 0;
+
+  private int largestPartitionSize = 0;
+  private int griddedPartitions = 0;
 
   /** Run State */
   protected ByteArray startingPoint;
@@ -129,11 +148,50 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
     }
     primaries.remove(id);
     others.remove(id);
+    removeFromGrid(id);
     if (index != null) {
       index.empty(id);
     }
   }
 
+  private void removeFromGrid(final ByteArray id) {
+    final Set<PartitionData> cellSet = idsToCells.remove(id);
+    if (cellSet != null) {
+      for (final PartitionData cell : cellSet) {
+        final Set<ByteArray> idSet = cellsToIds.get(cell);
+        if (idSet != null) {
+          idSet.remove(id);
+        }
+      }
+    }
+  }
+
+  private void addToGrid(final ByteArray id, final PARTITION_VALUE partitionValue)
+      throws IOException {
+    try {
+      gridPartitioner.partition(partitionValue, new PartitionDataCallback() {
+
+        @Override
+        public void partitionWith(final PartitionData cell) throws Exception {
+          Set<ByteArray> idSet = cellsToIds.get(cell);
+          if (idSet == null) {
+            idSet = new HashSet<>();
+            cellsToIds.put(cell, idSet);
+          }
+          idSet.add(id);
+          Set<PartitionData> cellSet = idsToCells.get(id);
+          if (cellSet == null) {
+            cellSet = new HashSet<>();
+            idsToCells.put(id, cellSet);
+          }
+          cellSet.add(cell);
+        }
+      });
+    } catch (final Exception e) {
+      throw new IOException(e);
+    }
+  }
+
   public void add(final ByteArray id, final boolean isPrimary, final PARTITION_VALUE partitionValue)
       throws IOException {
 
@@ -160,6 +218,10 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
       throw new IOException(e);
     }
 
+    if ((gridPartitioner != null) && (primaries.containsKey(id) || others.containsKey(id))) {
+      addToGrid(id, partitionValue);
+    }
+
     if (isPrimary) {
       if (startingPoint == null) {
         startingPoint = id;
@@ -192,6 +254,7 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
           if (partitionsForId.isEmpty()) {
             this.primaries.remove(id);
             this.others.remove(id);
+            removeFromGrid(id);
           }
         }
         it.remove();
@@ -217,6 +280,24 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
             + " with sub-partitions = "
             + uniqueSetOfPartitions.size());
 
+    largestPartitionSize = 0;
+    griddedPartitions = 0;
+    for (final Set<ByteArray> partitionIds : partitionsToIds.values()) {
+      largestPartitionSize = Math.max(largestPartitionSize, partitionIds.size());
+      if (useGrid(partitionIds)) {
+        griddedPartitions++;
+      }
+    }
+    if (griddedPartitions > 0) {
+      LOGGER.info(
+          "Processing "
+              + parentPartition.toString()
+              + " with "
+              + griddedPartitions
+              + " sub-partitions searched by grid, largest = "
+              + largestPartitionSize);
+    }
+
     index = new NeighborIndex<>(listFactory);
 
     double farthestDistance = 0;
@@ -249,7 +330,9 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
       final NeighborList<STORE_VALUE> primaryList = index.init(primaryId, primary);
 
       for (final PartitionData pd : partition) {
-        for (final ByteArray neighborId : partitionsToIds.get(pd)) {
+        for (final ByteArray neighborId : getNeighborCandidates(
+            primaryId,
+            partitionsToIds.get(pd))) {
           if (neighborId.equals(primaryId)) {
             continue;
           }
@@ -268,6 +351,7 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
           }
           final InferType inferResult = primaryList.infer(neighborId, neighbor);
           if (inferResult == InferType.NONE) {
+            distanceComparisons++;
             final DistanceProfile<?> distanceProfile =
                 distanceProfileFn.computeProfile(primary, neighbor);
             final double distance = distanceProfile.getDistance();
@@ -296,6 +380,73 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE> {
     }
   }
 
+  private boolean useGrid(final Set<ByteArray> partitionIds) {
+    return (gridPartitioner != null) && (partitionIds.size() > gridThreshold);
+  }
+
+  /**
+   * @return the IDs of the partition that share a grid cell with the primary if the partition is
+   *         large enough to use the grid, otherwise all IDs of the partition
+   */
+  private Set<ByteArray> getNeighborCandidates(
+      final ByteArray primaryId,
+      final Set<ByteArray> partitionIds) {
+    if (!useGrid(partitionIds)) {
+      return partitionIds;
+    }
+    final Set<PartitionData> cells = idsToCells.get(primaryId);
+    if (cells == null) {
+      // the grid could not place the primary
+      return partitionIds;
+    }
+    final Set<ByteArray> candidates = new HashSet<>();
+    for (final PartitionData cell : cells) {
+      for (final ByteArray id : cellsToIds.get(cell)) {
+        if (partitionIds.contains(id)) {
+          candidates.add(id);
+        }
+      }
+    }
+    if (idsToCells.size() < size()) {
+      // items that the grid could not place may be anywhere in the partition
+      for (final ByteArray id : partitionIds) {
+        if (!idsToCells.containsKey(id)) {
+          candidates.add(id);
+        }
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Sub-partition partitions that are larger than the grid threshold with the grid partitioner, so
+   * that the neighbors of each primary are only sought in the grid cells of the primary. The grid
+   * is only populated for items added after it is set.
+   *
+   * @param gridPartitioner partitioner of the grid cells, which should partition by the max
+   *        distance
+   * @param gridThreshold the size of a partition above which the grid is used
+   */
+  public void setNeighborGrid(final Partitioner<Object> gridPartitioner, final int gridThreshold) {
+    this.gridPartitioner = gridPartitioner;
+    this.gridThreshold = gridThreshold;
+  }
+
+  /** @return the number of distances computed by {@link #process} */
+  public long getDistanceComparisons() {
+    return distanceComparisons;
+  }
+
+  /** @return the size of the largest partition at the start of the last {@link #process} */
+  public int getLargestPartitionSize() {
+    return largestPartitionSize;
+  }
+
+  /** @return the number of partitions that used the grid in the last {@link #process} */
+  public int getGriddedPartitions() {
+    return griddedPartitions;
+  }
+
   public int getUpperBoundPerPartition() {
     return upperBoundPerPartition;
   }
@@ -23,6 +23,9 @@ public class PartitionParameters {
         false, true),
     MAX_MEMBER_SELECTION(Integer.class, "pms",
         "Maximum number of members selected from a partition", false, true),
+    GRID_THRESHOLD(Integer.class, "pgt",
+        "Size of a partition above which neighbors are sought in a grid of the partition max distance, 0 disables the grid",
+        false, true),
     SECONDARY_PARTITIONER_CLASS(Partitioner.class, "psp",
         "Perform secondary partitioning with the provided class", true, false),
     PARTITIONER_CLASS(Partitioner.class, "pc", "Index Identifier for Centroids", true, true);
@@ -8,6 +8,7 @@
  */
 package org.locationtech.geowave.analytic.nn;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -21,6 +22,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.junit.Before;
@@ -30,6 +33,7 @@ import org.locationtech.geowave.analytic.nn.NNProcessor.CompleteNotifier;
 import org.locationtech.geowave.analytic.param.ParameterEnum;
 import org.locationtech.geowave.analytic.partitioner.Partitioner;
 import org.locationtech.geowave.analytic.partitioner.Partitioner.PartitionData;
+import org.locationtech.geowave.analytic.partitioner.Partitioner.PartitionDataCallback;
 import org.locationtech.geowave.core.index.ByteArray;
 
 public class NNProcessorTest {
@@ -48,7 +52,7 @@ public class NNProcessorTest {
   }
 
   NNProcessor<Integer, Integer> buildProcessor() {
-    return new NNProcessor<>(new Partitioner<Object>() {
+    return buildProcessor(new Partitioner<Object>() {
 
       /** */
       private static final long serialVersionUID = 1L;
@@ -86,7 +90,11 @@ public class NNProcessorTest {
           final PropertyManagement runTimeProperties,
           final Class<?> scope,
           final Configuration configuration) {}
-    }, new TypeConverter<Integer>() {
+    });
+  }
+
+  NNProcessor<Integer, Integer> buildProcessor(final Partitioner<Object> partitioner) {
+    return new NNProcessor<>(partitioner, new TypeConverter<Integer>() {
       @Override
       public Integer convert(final ByteArray id, final Object o) {
         return (Integer) o;
@@ -169,6 +177,69 @@ public class NNProcessorTest {
     });
   }
 
+  @Test
+  public void testGridOp() throws IOException, InterruptedException {
+    final Integer[] values = new Integer[] {293, 233, 533, 735, 833, 1033, 1833, 2033};
+    // a single partition with every value
+    final NNProcessor<Integer, Integer> allProcessor =
+        buildProcessor(new CellPartitioner(10000, 0));
+    final NNProcessor<Integer, Integer> gridProcessor =
+        buildProcessor(new CellPartitioner(10000, 0));
+    // cells of the max distance, with each value added to the adjacent cells within the distance
+    gridProcessor.setNeighborGrid(new CellPartitioner(200, 200), 2);
+
+    final Map<Integer, Set<Integer>> allResults = runAll(allProcessor, values);
+    final Map<Integer, Set<Integer>> gridResults = runAll(gridProcessor, values);
+
+    assertEquals(values.length, allResults.size());
+    for (final Integer value : values) {
+      final Set<Integer> expected = new TreeSet<>();
+      for (final Integer other : values) {
+        if (!other.equals(value) && (Math.abs(other - value) <= 200)) {
+          expected.add(other);
+        }
+      }
+      assertEquals(expected, allResults.get(value));
+      assertEquals(expected, gridResults.get(value));
+    }
+    assertEquals(0, allProcessor.getGriddedPartitions());
+    assertEquals(1, gridProcessor.getGriddedPartitions());
+    assertEquals(values.length, gridProcessor.getLargestPartitionSize());
+    assertTrue(gridProcessor.getDistanceComparisons() < allProcessor.getDistanceComparisons());
+  }
+
+  private Map<Integer, Set<Integer>> runAll(
+      final NNProcessor<Integer, Integer> processor,
+      final Integer[] values) throws IOException, InterruptedException {
+    for (final Integer value : values) {
+      addToProcess(processor, value);
+    }
+    final Map<Integer, Set<Integer>> results = new HashMap<>();
+    processor.process(new NeighborListFactory<Integer>() {
+
+      @Override
+      public NeighborList<Integer> buildNeighborList(
+          final ByteArray cnterId,
+          final Integer center) {
+        return new DefaultNeighborList<>();
+      }
+    }, new CompleteNotifier<Integer>() {
+
+      @Override
+      public void complete(
+          final ByteArray id,
+          final Integer value,
+          final NeighborList<Integer> list) throws IOException, InterruptedException {
+        final Set<Integer> neighbors = new TreeSet<>();
+        for (final Entry<ByteArray, Integer> entry : list) {
+          neighbors.add(entry.getValue());
+        }
+        results.put(value, neighbors);
+      }
+    });
+    return results;
+  }
+
   private void runProcess(
       final NNProcessor<Integer, Integer> processor,
       final CompleteNotifier<Integer> notifier) throws IOException, InterruptedException {
@@ -197,6 +268,55 @@ public class NNProcessorTest {
     return new ByteArray(Integer.toString((v.intValue() / 300)));
   }
 
+  /** Partitions a value into cells of a size, and the cells within a distance of the value */
+  private static class CellPartitioner implements Partitioner<Object> {
+    private static final long serialVersionUID = 1L;
+    private final int cellSize;
+    private final int distance;
+
+    private CellPartitioner(final int cellSize, final int distance) {
+      this.cellSize = cellSize;
+      this.distance = distance;
+    }
+
+    @Override
+    public void initialize(final JobContext context, final Class<?> scope) throws IOException {}
+
+    @Override
+    public List<PartitionData> getCubeIdentifiers(final Object entry) {
+      final int value = (Integer) entry;
+      final List<PartitionData> cells = new ArrayList<>();
+      for (int cell =
+          (value - distance) / cellSize; cell <= ((value + distance) / cellSize); cell++) {
+        cells.add(
+            new PartitionData(
+                new ByteArray(new byte[] {}),
+                new ByteArray(Integer.toString(cell)),
+                cell == (value / cellSize)));
+      }
+      return cells;
+    }
+
+    @Override
+    public void partition(final Object entry, final PartitionDataCallback callback)
+        throws Exception {
+      for (final PartitionData pd : getCubeIdentifiers(entry)) {
+        callback.partitionWith(pd);
+      }
+    }
+
+    @Override
+    public Collection<ParameterEnum<?>> getParameters() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public void setup(
+        final PropertyManagement runTimeProperties,
+        final Class<?> scope,
+        final Configuration configuration) {}
+  }
+
   private void addToProcess(final NNProcessor<Integer, Integer> processor, final Integer v)
       throws IOException {
     processor.add(new ByteArray(v.toString()), true, v);
@@ -71,6 +71,7 @@ public class NNJobRunner extends GeoWaveAnalyticJobRunner {
             Partition.SECONDARY_PARTITIONER_CLASS,
             Partition.MAX_DISTANCE,
             Partition.MAX_MEMBER_SELECTION,
+            Partition.GRID_THRESHOLD,
             Partition.GEOMETRIC_DISTANCE_UNIT,
             Partition.DISTANCE_THRESHOLDS,
             CommonParameters.Common.DISTANCE_FUNCTION_CLASS},
@@ -94,6 +95,7 @@ public class NNJobRunner extends GeoWaveAnalyticJobRunner {
                 Partition.MAX_DISTANCE,
                 Partition.SECONDARY_PARTITIONER_CLASS,
                 Partition.MAX_MEMBER_SELECTION,
+                Partition.GRID_THRESHOLD,
                 Partition.GEOMETRIC_DISTANCE_UNIT,
                 Partition.DISTANCE_THRESHOLDS,
                 CommonParameters.Common.DISTANCE_FUNCTION_CLASS}));
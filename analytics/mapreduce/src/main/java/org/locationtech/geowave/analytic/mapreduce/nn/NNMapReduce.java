@@ -94,6 +94,15 @@ import com.google.common.primitives.UnsignedBytes;
 public class NNMapReduce {
   protected static final Logger LOGGER = LoggerFactory.getLogger(NNMapReduce.class);
 
+  /** Counters that report the skew of the partitions processed by each reducer */
+  public static final String SKEW_COUNTER_GROUP = "NN Partition Skew";
+
+  public static final String PARTITIONS_COUNTER = "Partitions";
+  public static final String ENTRIES_COUNTER = "Entries";
+  public static final String DISTANCE_COMPARISONS_COUNTER = "Distance comparisons";
+  public static final String GRIDDED_PARTITIONS_COUNTER = "Partitions searched by grid";
+  public static final String LARGEST_PARTITION_COUNTER = "Largest partition size";
+
   /** Nearest neighbors...take one */
   public static class NNMapper<T> extends
       Mapper<GeoWaveInputKey, Object, PartitionDataWritable, AdapterWithObjectWritable> {
@@ -168,6 +177,15 @@ public class NNMapReduce {
     protected double maxDistance = 1.0;
     protected int maxNeighbors = Integer.MAX_VALUE;
     protected Partitioner<Object> partitioner;
+    protected Partitioner<Object> gridPartitioner = null;
+    protected int gridThreshold = NNProcessor.DEFAULT_GRID_THRESHOLD;
+
+    /** reducer wide skew metrics */
+    private int largestPartitionSize = 0;
+
+    private long partitionCount = 0;
+    private long entryCount = 0;
+    private long distanceComparisons = 0;
 
     protected TypeConverter<VALUEIN> typeConverter = new TypeConverter<VALUEIN>() {
 
@@ -197,6 +215,9 @@ public class NNMapReduce {
               key.partitionData);
 
       processor.setUpperBoundPerPartition(maxNeighbors);
+      if (gridPartitioner != null) {
+        processor.setNeighborGrid(gridPartitioner, gridThreshold);
+      }
 
       final PARTITION_SUMMARY summary = createSummary();
 
@@ -208,6 +229,8 @@ public class NNMapReduce {
         processor.add(inputValue.getDataId(), key.partitionData.isPrimary(), value);
       }
 
+      final int entries = processor.size();
+
       preprocess(context, processor, summary);
 
       processor.process(this.createNeighborsListFactory(summary), new CompleteNotifier<VALUEIN>() {
@@ -223,6 +246,44 @@ public class NNMapReduce {
       });
 
       processSummary(key.partitionData, summary, context);
+
+      reportSkew(key.partitionData, entries, processor, context);
+    }
+
+    private void reportSkew(
+        final PartitionData partitionData,
+        final int entries,
+        final NNProcessor<Object, VALUEIN> processor,
+        final Reducer<PartitionDataWritable, AdapterWithObjectWritable, KEYOUT, VALUEOUT>.Context context) {
+      partitionCount++;
+      entryCount += entries;
+      distanceComparisons += processor.getDistanceComparisons();
+      context.getCounter(SKEW_COUNTER_GROUP, PARTITIONS_COUNTER).increment(1);
+      context.getCounter(SKEW_COUNTER_GROUP, DISTANCE_COMPARISONS_COUNTER).increment(
+          processor.getDistanceComparisons());
+      context.getCounter(SKEW_COUNTER_GROUP, GRIDDED_PARTITIONS_COUNTER).increment(
+          processor.getGriddedPartitions());
+      if (entries > largestPartitionSize) {
+        // the counter holds the largest partition of this reducer
+        context.getCounter(SKEW_COUNTER_GROUP, LARGEST_PARTITION_COUNTER).increment(
+            entries - largestPartitionSize);
+        largestPartitionSize = entries;
+        LOGGER.info("Largest partition so far is {} with {} entries", partitionData, entries);
+      }
+    }
+
+    @Override
+    protected void cleanup(
+        final Reducer<PartitionDataWritable, AdapterWithObjectWritable, KEYOUT, VALUEOUT>.Context context)
+        throws IOException, InterruptedException {
+      context.getCounter(SKEW_COUNTER_GROUP, ENTRIES_COUNTER).increment(entryCount);
+      LOGGER.info(
+          "Processed {} partitions with {} entries, largest partition = {}, distance comparisons = {}",
+          partitionCount,
+          entryCount,
+          largestPartitionSize,
+          distanceComparisons);
+      super.cleanup(context);
     }
 
     public NeighborListFactory<VALUEIN> createNeighborsListFactory(
@@ -302,6 +363,28 @@ public class NNMapReduce {
         throw new IOException(e1);
       }
 
+      gridThreshold =
+          config.getInt(
+              PartitionParameters.Partition.GRID_THRESHOLD,
+              NNProcessor.DEFAULT_GRID_THRESHOLD);
+      if (gridThreshold > 0) {
+        try {
+          // the grid uses the primary partitioner at full precision, so that its cells are of the
+          // partition max distance
+          final Partitioner<Object> grid =
+              config.getInstance(
+                  PartitionParameters.Partition.PARTITIONER_CLASS,
+                  Partitioner.class,
+                  OrthodromicDistancePartitioner.class);
+          if (grid.getClass() != partitioner.getClass()) {
+            grid.initialize(context, NNMapReduce.class);
+            gridPartitioner = grid;
+          }
+        } catch (final Exception e1) {
+          throw new IOException(e1);
+        }
+      }
+
       maxNeighbors =
           config.getInt(
               PartitionParameters.Partition.MAX_MEMBER_SELECTION,
@@ -29,6 +29,12 @@ public class NearestNeighborOptions {
       description = "Maximum number of members selected from a partition")
   private String partitionMaxMemberSelection;
 
+  @PartitionParameter(PartitionParameters.Partition.GRID_THRESHOLD)
+  @Parameter(
+      names = {"-pgt", "--partitionGridThreshold"},
+      description = "Size of a partition above which neighbors are sought in a grid of the partition max distance, 0 disables the grid")
+  private String partitionGridThreshold;
+
   @PartitionParameter(PartitionParameters.Partition.PARTITIONER_CLASS)
   @Parameter(
       names = {"-pc", "--partitionPartitionerClass"},
@@ -80,6 +86,14 @@ public class NearestNeighborOptions {
     this.partitionMaxMemberSelection = partitionMaxMemberSelection;
   }
 
+  public String getPartitionGridThreshold() {
+    return partitionGridThreshold;
+  }
+
+  public void setPartitionGridThreshold(final String partitionGridThreshold) {
+    this.partitionGridThreshold = partitionGridThreshold;
+  }
+
   public String getPartitionPartitionerClass() {
     return partitionPartitionerClass;
   }
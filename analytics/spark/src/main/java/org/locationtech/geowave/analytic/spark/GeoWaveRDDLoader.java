@@ -97,6 +97,29 @@ public class GeoWaveRDDLoader {
       return null;
     }
 
+    final Configuration conf = createInputConfiguration(sc, storeOptions, rddOpts);
+
+    final RDD<Tuple2<GeoWaveInputKey, SimpleFeature>> rdd =
+        sc.newAPIHadoopRDD(
+            conf,
+            GeoWaveInputFormat.class,
+            GeoWaveInputKey.class,
+            SimpleFeature.class);
+
+    final JavaPairRDD<GeoWaveInputKey, SimpleFeature> javaRdd =
+        JavaPairRDD.fromJavaRDD(rdd.toJavaRDD());
+
+    return javaRdd;
+  }
+
+  /**
+   * Create the Hadoop configuration for a GeoWave input format that reads the given store with the
+   * query and split options of the given RDD options.
+   */
+  public static Configuration createInputConfiguration(
+      final SparkContext sc,
+      final DataStorePluginOptions storeOptions,
+      final RDDOptions rddOpts) {
     final Configuration conf = new Configuration(sc.hadoopConfiguration());
 
     GeoWaveInputFormat.setStoreOptions(conf, storeOptions);
@@ -123,18 +146,7 @@ public class GeoWaveRDDLoader {
         GeoWaveInputFormat.setMaximumSplitCount(conf, defaultSplitsSpark);
       }
     }
-
-    final RDD<Tuple2<GeoWaveInputKey, SimpleFeature>> rdd =
-        sc.newAPIHadoopRDD(
-            conf,
-            GeoWaveInputFormat.class,
-            GeoWaveInputKey.class,
-            SimpleFeature.class);
-
-    final JavaPairRDD<GeoWaveInputKey, SimpleFeature> javaRdd =
-        JavaPairRDD.fromJavaRDD(rdd.toJavaRDD());
-
-    return javaRdd;
+    return conf;
   }
 
   public static JavaPairRDD<GeoWaveInputKey, GridCoverage> loadRawRasterRDD(
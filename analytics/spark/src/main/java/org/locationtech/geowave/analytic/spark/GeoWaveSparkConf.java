@@ -13,6 +13,7 @@ import org.apache.spark.SparkConf;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.SparkSession.Builder;
 import org.locationtech.geowave.analytic.spark.sparksql.GeoWaveSpatialEncoders;
+import org.locationtech.geowave.analytic.spark.sparksql.datasource.GeoWaveSparkSessionExtensions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +25,7 @@ public class GeoWaveSparkConf implements Serializable {
    */
   private static final long serialVersionUID = 1L;
   private static final Logger LOGGER = LoggerFactory.getLogger(GeoWaveSparkConf.class);
+  private static final String SQL_EXTENSIONS_KEY = "spark.sql.extensions";
 
   // Returns a SparkConf with just the basic settings necessary for spark to
   // work with GeoWave
@@ -36,6 +38,8 @@ public class GeoWaveSparkConf implements Serializable {
         defaultConfig.set(
             "spark.kryo.registrator",
             "org.locationtech.geowave.analytic.spark.GeoWaveRegistrator");
+    defaultConfig =
+        defaultConfig.set(SQL_EXTENSIONS_KEY, GeoWaveSparkSessionExtensions.class.getName());
     return defaultConfig;
   }
 
@@ -48,6 +52,15 @@ public class GeoWaveSparkConf implements Serializable {
         newConf.set(
             "spark.kryo.registrator",
             "org.locationtech.geowave.analytic.spark.GeoWaveRegistrator");
+    // keep any extensions of the user configuration
+    final String extensions = newConf.get(SQL_EXTENSIONS_KEY, "");
+    if (!extensions.contains(GeoWaveSparkSessionExtensions.class.getName())) {
+      newConf =
+          newConf.set(
+              SQL_EXTENSIONS_KEY,
+              extensions.isEmpty() ? GeoWaveSparkSessionExtensions.class.getName()
+                  : extensions + "," + GeoWaveSparkSessionExtensions.class.getName());
+    }
     return newConf;
   }
 
@@ -16,8 +16,10 @@ import java.io.Serializable;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.spark.RangePartitioner;
 import org.apache.spark.api.java.JavaPairRDD;
@@ -79,6 +81,8 @@ public class KDERunner {
 
   protected static final double[] MINS_PER_BAND = new double[] {0, 0, 0};
   protected static final double[] MAXES_PER_BAND = new double[] {Double.MAX_VALUE, 1, 1};
+  // cells are computed as single pixel tiles, which are merged to the tile size when written
+  private static final int TILE_SIZE = 1;
   private String appName = "KDERunner";
   private String master = "yarn";
   private String host = "localhost";
@@ -100,6 +104,7 @@ public class KDERunner {
 
   private int minSplits = -1;
   private int maxSplits = -1;
+  private boolean singlePass = false;
 
   public KDERunner() {}
 
@@ -209,11 +214,6 @@ public class KDERunner {
     kdeOpts.setMinSplits(minSplits);
     kdeOpts.setMaxSplits(maxSplits);
     kdeOpts.setQuery(bldr.build());
-    final Function<Double, Double> identity = x -> x;
-
-    final Function2<Double, Double, Double> sum = (final Double x, final Double y) -> {
-      return x + y;
-    };
 
     final RasterDataAdapter adapter =
         RasterUtils.createDataAdapterTypeDouble(
@@ -226,94 +226,278 @@ public class KDERunner {
             new NoDataMergeStrategy());
     outputDataStore.createDataStore().addType(adapter, outputPrimaryIndex);
 
-    // The following "inner" variables are created to give access to member
-    // variables within lambda
-    // expressions
-    final int innerTileSize = 1;// tileSize;
-    final String innerCoverageName = coverageName;
+    if (singlePass) {
+      final GeoWaveRDD kdeRDD =
+          GeoWaveRDDLoader.loadRDD(session.sparkContext(), inputDataStore, kdeOpts);
+      // the input is scanned and shuffled once, with cells keyed by level and cell index
+      final JavaPairRDD<Tuple2<Integer, Long>, Double> cells =
+          computeCells(
+              kdeRDD.getRawRDD(),
+              minLevel,
+              maxLevel,
+              xMin,
+              xMax,
+              yMin,
+              yMax,
+              inputCrsCode,
+              outputCrsCode);
+      final JavaRDD<GridCoverage> rdd =
+          toCoverages(cells, minLevel, maxLevel, xMin, xMax, yMin, yMax, coverageName);
+      if (rdd != null) {
+        writeResults(rdd, adapter, outputPrimaryIndex);
+      }
+      cells.unpersist();
+      return;
+    }
     for (int level = minLevel; level <= maxLevel; level++) {
-      final int numXTiles = (int) Math.pow(2, level + 1);
-      final int numYTiles = (int) Math.pow(2, level);
-      final int numXPosts = numXTiles; // * tileSize;
-      final int numYPosts = numYTiles; // * tileSize;
       final GeoWaveRDD kdeRDD =
           GeoWaveRDDLoader.loadRDD(session.sparkContext(), inputDataStore, kdeOpts);
-      JavaPairRDD<Double, Long> cells =
-          kdeRDD.getRawRDD().flatMapToPair(
-              new GeoWaveCellMapper(
-                  numXPosts,
-                  numYPosts,
-                  xMin,
-                  xMax,
-                  yMin,
-                  yMax,
-                  inputCrsCode,
-                  outputCrsCode)).combineByKey(identity, sum, sum).mapToPair(item -> item.swap());
-      cells =
-          cells.partitionBy(
-              new RangePartitioner(
-                  cells.getNumPartitions(),
-                  cells.rdd(),
-                  true,
-                  scala.math.Ordering.Double$.MODULE$,
-                  scala.reflect.ClassTag$.MODULE$.apply(Double.class))).sortByKey(false).cache();
-      final long count = cells.count();
-      if (count == 0) {
-        LOGGER.warn("No cells produced by KDE");
-        continue;
+      final JavaRDD<GridCoverage> rdd =
+          computeLevel(
+              kdeRDD.getRawRDD(),
+              level,
+              xMin,
+              xMax,
+              yMin,
+              yMax,
+              inputCrsCode,
+              outputCrsCode,
+              coverageName);
+      if (rdd != null) {
+        writeResults(rdd, adapter, outputPrimaryIndex);
       }
-      final double max = cells.first()._1;
+    }
+
+  }
+
+  /**
+   * Computes the tiles of a single level, scanning the input once for the level.
+   *
+   * @return the tiles of the level, or null if no cells were produced
+   */
+  static JavaRDD<GridCoverage> computeLevel(
+      final JavaPairRDD<GeoWaveInputKey, SimpleFeature> features,
+      final int level,
+      final double xMin,
+      final double xMax,
+      final double yMin,
+      final double yMax,
+      final String inputCrsCode,
+      final String outputCrsCode,
+      final String coverageName) {
+    final Function<Double, Double> identity = x -> x;
 
-      JavaRDD<GridCoverage> rdd = cells.zipWithIndex().map(t -> {
-        final TileInfo tileInfo =
-            fromCellIndexToTileInfo(
-                t._1._2,
+    final Function2<Double, Double, Double> sum = (final Double x, final Double y) -> {
+      return x + y;
+    };
+    final int numXTiles = (int) Math.pow(2, level + 1);
+    final int numYTiles = (int) Math.pow(2, level);
+    final int numXPosts = numXTiles; // * tileSize;
+    final int numYPosts = numYTiles; // * tileSize;
+    JavaPairRDD<Double, Long> cells =
+        features.flatMapToPair(
+            new GeoWaveCellMapper(
                 numXPosts,
                 numYPosts,
-                numXTiles,
-                numYTiles,
                 xMin,
                 xMax,
                 yMin,
                 yMax,
-                innerTileSize);
-        final WritableRaster raster = RasterUtils.createRasterTypeDouble(NUM_BANDS, innerTileSize);
-
-        final double normalizedValue = t._1._1 / max;
-        // because we are using a Double as the key, the ordering
-        // isn't always completely reproducible as Double equals does not
-        // take into account an epsilon
-
-        final double percentile = (count - t._2) / ((double) count);
-        raster.setSample(tileInfo.x, tileInfo.y, 0, t._1._1);
-        raster.setSample(tileInfo.x, tileInfo.y, 1, normalizedValue);
-
-        raster.setSample(tileInfo.x, tileInfo.y, 2, percentile);
-        return RasterUtils.createCoverageTypeDouble(
-            innerCoverageName,
-            tileInfo.tileWestLon,
-            tileInfo.tileEastLon,
-            tileInfo.tileSouthLat,
-            tileInfo.tileNorthLat,
-            MINS_PER_BAND,
-            MAXES_PER_BAND,
-            NAME_PER_BAND,
-            raster,
-            GeometryUtils.DEFAULT_CRS_STR);
-      });
-      LOGGER.debug("Writing results to output store...");
-      if (tileSize > 1) {
-        // byte[] adapterBytes = PersistenceUtils.toBinary(adapter);
-        // byte[] indexBytes = PersistenceUtils.toBinary(outputPrimaryIndex);
-        rdd =
-            rdd.flatMapToPair(new TransformTileSize(adapter, outputPrimaryIndex)).groupByKey().map(
-                new MergeOverlappingTiles(adapter, outputPrimaryIndex));
+                inputCrsCode,
+                outputCrsCode)).combineByKey(identity, sum, sum).mapToPair(item -> item.swap());
+    cells =
+        cells.partitionBy(
+            new RangePartitioner(
+                cells.getNumPartitions(),
+                cells.rdd(),
+                true,
+                scala.math.Ordering.Double$.MODULE$,
+                scala.reflect.ClassTag$.MODULE$.apply(Double.class))).sortByKey(false).cache();
+    final long count = cells.count();
+    if (count == 0) {
+      LOGGER.warn("No cells produced by KDE");
+      return null;
+    }
+    final double max = cells.first()._1;
+
+    return cells.zipWithIndex().map(
+        t -> toCoverage(
+            t._1._2,
+            t._1._1,
+            max,
+            count,
+            t._2,
+            numXTiles,
+            numYTiles,
+            xMin,
+            xMax,
+            yMin,
+            yMax,
+            TILE_SIZE,
+            coverageName));
+  }
+
+  /**
+   * Computes the cells of every level from min to max level with a single scan and shuffle of the
+   * input, keyed by level and cell index. The cells are cached so that the caller can unpersist
+   * them once their tiles are written.
+   */
+  static JavaPairRDD<Tuple2<Integer, Long>, Double> computeCells(
+      final JavaPairRDD<GeoWaveInputKey, SimpleFeature> features,
+      final int minLevel,
+      final int maxLevel,
+      final double xMin,
+      final double xMax,
+      final double yMin,
+      final double yMax,
+      final String inputCrsCode,
+      final String outputCrsCode) {
+    final Function<Double, Double> identity = x -> x;
+
+    final Function2<Double, Double, Double> sum = (final Double x, final Double y) -> {
+      return x + y;
+    };
+    return features.flatMapToPair(
+        new GeoWaveMultiLevelCellMapper(
+            minLevel,
+            maxLevel,
+            xMin,
+            xMax,
+            yMin,
+            yMax,
+            inputCrsCode,
+            outputCrsCode)).combineByKey(identity, sum, sum).cache();
+  }
+
+  /**
+   * Computes the tiles of every level from the cells of {@link #computeCells}.
+   *
+   * @return the tiles of every level, or null if no cells were produced
+   */
+  static JavaRDD<GridCoverage> toCoverages(
+      final JavaPairRDD<Tuple2<Integer, Long>, Double> cells,
+      final int minLevel,
+      final int maxLevel,
+      final double xMin,
+      final double xMax,
+      final double yMin,
+      final double yMax,
+      final String coverageName) {
+    final Map<Integer, Tuple2<Long, Double>> countAndMaxPerLevel =
+        cells.mapToPair(t -> new Tuple2<>(t._1._1, new Tuple2<>(1L, t._2))).reduceByKey(
+            (a, b) -> new Tuple2<>(a._1 + b._1, Math.max(a._2, b._2))).collectAsMap();
+    if (countAndMaxPerLevel.isEmpty()) {
+      LOGGER.warn("No cells produced by KDE");
+      return null;
+    }
+    final int numLevels = (maxLevel - minLevel) + 1;
+    final long[] countPerLevel = new long[numLevels];
+    final double[] maxPerLevel = new double[numLevels];
+    // cells are sorted by level and then by descending weight, so the rank of a cell within
+    // its level is its overall index less the number of cells in all lower levels
+    final long[] offsetPerLevel = new long[numLevels];
+    long offset = 0;
+    for (int i = 0; i < numLevels; i++) {
+      final Tuple2<Long, Double> countAndMax = countAndMaxPerLevel.get(minLevel + i);
+      if (countAndMax == null) {
+        LOGGER.warn("No cells produced by KDE at level " + (minLevel + i));
+      } else {
+        countPerLevel[i] = countAndMax._1;
+        maxPerLevel[i] = countAndMax._2;
       }
-      RDDUtils.writeRasterToGeoWave(jsc.sc(), outputPrimaryIndex, outputDataStore, adapter, rdd);
+      offsetPerLevel[i] = offset;
+      offset += countPerLevel[i];
+    }
+    return cells.mapToPair(t -> new Tuple2<>(new Tuple2<>(t._1._1, t._2), t._1._2)).sortByKey(
+        new LevelAndWeightComparator()).zipWithIndex().map(t -> {
+          final int level = t._1._1._1;
+          final int levelIndex = level - minLevel;
+          final int numXTiles = (int) Math.pow(2, level + 1);
+          final int numYTiles = (int) Math.pow(2, level);
+          return toCoverage(
+              t._1._2,
+              t._1._1._2,
+              maxPerLevel[levelIndex],
+              countPerLevel[levelIndex],
+              t._2 - offsetPerLevel[levelIndex],
+              numXTiles,
+              numYTiles,
+              xMin,
+              xMax,
+              yMin,
+              yMax,
+              TILE_SIZE,
+              coverageName);
+        });
+  }
 
-      LOGGER.debug("Results successfully written!");
+  private void writeResults(
+      final JavaRDD<GridCoverage> rdd,
+      final RasterDataAdapter adapter,
+      final Index outputPrimaryIndex) throws IOException {
+    LOGGER.debug("Writing results to output store...");
+    JavaRDD<GridCoverage> tiles = rdd;
+    if (tileSize > 1) {
+      // byte[] adapterBytes = PersistenceUtils.toBinary(adapter);
+      // byte[] indexBytes = PersistenceUtils.toBinary(outputPrimaryIndex);
+      tiles =
+          rdd.flatMapToPair(new TransformTileSize(adapter, outputPrimaryIndex)).groupByKey().map(
+              new MergeOverlappingTiles(adapter, outputPrimaryIndex));
     }
+    RDDUtils.writeRasterToGeoWave(jsc.sc(), outputPrimaryIndex, outputDataStore, adapter, tiles);
 
+    LOGGER.debug("Results successfully written!");
+  }
+
+  private static GridCoverage toCoverage(
+      final long cellIndex,
+      final double weight,
+      final double max,
+      final long count,
+      final long rank,
+      final int numXTiles,
+      final int numYTiles,
+      final double xMin,
+      final double xMax,
+      final double yMin,
+      final double yMax,
+      final int tileSize,
+      final String coverageName) {
+    final TileInfo tileInfo =
+        fromCellIndexToTileInfo(
+            cellIndex,
+            numXTiles,
+            numYTiles,
+            numXTiles,
+            numYTiles,
+            xMin,
+            xMax,
+            yMin,
+            yMax,
+            tileSize);
+    final WritableRaster raster = RasterUtils.createRasterTypeDouble(NUM_BANDS, tileSize);
+
+    final double normalizedValue = weight / max;
+    // because we are using a Double as the key, the ordering
+    // isn't always completely reproducible as Double equals does not
+    // take into account an epsilon
+
+    final double percentile = (count - rank) / ((double) count);
+    raster.setSample(tileInfo.x, tileInfo.y, 0, weight);
+    raster.setSample(tileInfo.x, tileInfo.y, 1, normalizedValue);
+
+    raster.setSample(tileInfo.x, tileInfo.y, 2, percentile);
+    return RasterUtils.createCoverageTypeDouble(
+        coverageName,
+        tileInfo.tileWestLon,
+        tileInfo.tileEastLon,
+        tileInfo.tileSouthLat,
+        tileInfo.tileNorthLat,
+        MINS_PER_BAND,
+        MAXES_PER_BAND,
+        NAME_PER_BAND,
+        raster,
+        GeometryUtils.DEFAULT_CRS_STR);
   }
 
   private static class PartitionAndSortKey implements Serializable {
@@ -455,34 +639,36 @@ public class KDERunner {
     maxSplits = max;
   }
 
-  protected static class GeoWaveCellMapper implements
-      PairFlatMapFunction<Tuple2<GeoWaveInputKey, SimpleFeature>, Long, Double> {
+  /**
+   * @param singlePass whether to compute every level from a single scan and shuffle of the input
+   *        rather than scanning the input once per level
+   */
+  public void setSinglePass(final boolean singlePass) {
+    this.singlePass = singlePass;
+  }
+
+  protected abstract static class AbstractCellMapper<K> implements
+      PairFlatMapFunction<Tuple2<GeoWaveInputKey, SimpleFeature>, K, Double> {
 
     /**
      *
      */
     private static final long serialVersionUID = 1L;
-    private final int numXPosts;
-    private final int numYPosts;
-    private final double minX;
-    private final double maxX;
-    private final double minY;
-    private final double maxY;
+    protected final double minX;
+    protected final double maxX;
+    protected final double minY;
+    protected final double maxY;
     private final String inputCrsCode;
     private final String outputCrsCode;
     private MathTransform transform = null;
 
-    protected GeoWaveCellMapper(
-        final int numXPosts,
-        final int numYPosts,
+    protected AbstractCellMapper(
         final double minX,
         final double maxX,
         final double minY,
         final double maxY,
         final String inputCrsCode,
         final String outputCrsCode) {
-      this.numXPosts = numXPosts;
-      this.numYPosts = numYPosts;
       this.minX = minX;
       this.maxX = maxX;
       this.minY = minY;
@@ -492,9 +678,9 @@ public class KDERunner {
     }
 
     @Override
-    public Iterator<Tuple2<Long, Double>> call(final Tuple2<GeoWaveInputKey, SimpleFeature> t)
+    public Iterator<Tuple2<K, Double>> call(final Tuple2<GeoWaveInputKey, SimpleFeature> t)
         throws Exception {
-      final List<Tuple2<Long, Double>> cells = new ArrayList<>();
+      final List<Tuple2<K, Double>> cells = new ArrayList<>();
 
       Point pt = null;
       if ((t != null) && (t._2 != null)) {
@@ -526,26 +712,130 @@ public class KDERunner {
                   e);
             }
           }
-          GaussianFilter.incrementPtFast(
-              pt.getX(),
-              pt.getY(),
-              minX,
-              maxX,
-              minY,
-              maxY,
-              new CellCounter() {
-                @Override
-                public void increment(final long cellId, final double weight) {
-                  cells.add(new Tuple2<>(cellId, weight));
-
-                }
-              },
-              numXPosts,
-              numYPosts);
+          if (pt != null) {
+            addCells(pt, cells);
+          }
         }
       }
       return cells.iterator();
     }
+
+    protected abstract void addCells(Point pt, List<Tuple2<K, Double>> cells);
+  }
+
+  protected static class GeoWaveCellMapper extends AbstractCellMapper<Long> {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+    private final int numXPosts;
+    private final int numYPosts;
+
+    protected GeoWaveCellMapper(
+        final int numXPosts,
+        final int numYPosts,
+        final double minX,
+        final double maxX,
+        final double minY,
+        final double maxY,
+        final String inputCrsCode,
+        final String outputCrsCode) {
+      super(minX, maxX, minY, maxY, inputCrsCode, outputCrsCode);
+      this.numXPosts = numXPosts;
+      this.numYPosts = numYPosts;
+    }
+
+    @Override
+    protected void addCells(final Point pt, final List<Tuple2<Long, Double>> cells) {
+      GaussianFilter.incrementPtFast(
+          pt.getX(),
+          pt.getY(),
+          minX,
+          maxX,
+          minY,
+          maxY,
+          new CellCounter() {
+            @Override
+            public void increment(final long cellId, final double weight) {
+              cells.add(new Tuple2<>(cellId, weight));
+
+            }
+          },
+          numXPosts,
+          numYPosts);
+    }
+  }
+
+  /**
+   * Emits the cells of every level from min to max level for each feature, keyed by level and
+   * cell index, so that all levels can be computed from a single scan of the input.
+   */
+  protected static class GeoWaveMultiLevelCellMapper extends
+      AbstractCellMapper<Tuple2<Integer, Long>> {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+    private final int minLevel;
+    private final int maxLevel;
+
+    protected GeoWaveMultiLevelCellMapper(
+        final int minLevel,
+        final int maxLevel,
+        final double minX,
+        final double maxX,
+        final double minY,
+        final double maxY,
+        final String inputCrsCode,
+        final String outputCrsCode) {
+      super(minX, maxX, minY, maxY, inputCrsCode, outputCrsCode);
+      this.minLevel = minLevel;
+      this.maxLevel = maxLevel;
+    }
+
+    @Override
+    protected void addCells(
+        final Point pt,
+        final List<Tuple2<Tuple2<Integer, Long>, Double>> cells) {
+      for (int level = minLevel; level <= maxLevel; level++) {
+        final Integer cellLevel = level;
+        GaussianFilter.incrementPtFast(
+            pt.getX(),
+            pt.getY(),
+            minX,
+            maxX,
+            minY,
+            maxY,
+            new CellCounter() {
+              @Override
+              public void increment(final long cellId, final double weight) {
+                cells.add(new Tuple2<>(new Tuple2<>(cellLevel, cellId), weight));
+              }
+            },
+            (int) Math.pow(2, level + 1),
+            (int) Math.pow(2, level));
+      }
+    }
+  }
+
+  /**
+   * Orders cells by ascending level and then by descending weight.
+   */
+  private static class LevelAndWeightComparator implements
+      Comparator<Tuple2<Integer, Double>>,
+      Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public int compare(final Tuple2<Integer, Double> o1, final Tuple2<Integer, Double> o2) {
+      final int levelCompare = Integer.compare(o1._1, o2._1);
+      if (levelCompare != 0) {
+        return levelCompare;
+      }
+      return Double.compare(o2._2, o1._2);
+    }
   }
 
   private static class MergeOverlappingTiles implements
@@ -46,6 +46,11 @@ public class KDESparkOptions {
   @Parameter(names = "--maxSplits", description = "The max partitions for the input data")
   private Integer maxSplits = -1;
 
+  @Parameter(
+      names = "--singlePass",
+      description = "Compute every level from a single scan of the input data rather than scanning it once per level")
+  private boolean singlePass = false;
+
   @Parameter(names = "--coverageName", required = true, description = "The coverage name")
   private String coverageName;
 
@@ -54,6 +59,14 @@ public class KDESparkOptions {
       description = "An optional index for output datastore. Only spatial index type is supported")
   private String outputIndex;
 
+  public boolean isSinglePass() {
+    return singlePass;
+  }
+
+  public void setSinglePass(final boolean singlePass) {
+    this.singlePass = singlePass;
+  }
+
   public String getOutputIndex() {
     return outputIndex;
   }
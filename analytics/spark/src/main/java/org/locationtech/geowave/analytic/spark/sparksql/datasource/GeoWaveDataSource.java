@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import java.util.Map;
+import org.apache.spark.sql.connector.catalog.Table;
+import org.apache.spark.sql.connector.catalog.TableProvider;
+import org.apache.spark.sql.connector.expressions.Transform;
+import org.apache.spark.sql.sources.DataSourceRegister;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+
+/**
+ * A Spark data source for reading a GeoWave vector type as a DataFrame, for example:
+ *
+ * <pre>
+ * spark.read().format("geowave").option("typeName", "gdeltevent").option(
+ *     "store_name",
+ *     "accumulo").option("zookeeper", "localhost:2181").option("instance", "geowave").option(
+ *         "gwNamespace",
+ *         "gdelt").load();
+ * </pre>
+ *
+ * <p> The {@value GeoWaveTable#TYPE_NAME_OPTION} option is required and the
+ * {@value GeoWaveTable#INDEX_NAME_OPTION}, {@value GeoWaveTable#CQL_OPTION},
+ * {@value GeoWaveTable#MIN_SPLITS_OPTION} and {@value GeoWaveTable#MAX_SPLITS_OPTION} options are
+ * optional. Every other option is passed to GeoWave as a data store option. Attribute and temporal
+ * filters and column projections are pushed down to GeoWave. Spatial constraints can be given with
+ * the {@value GeoWaveTable#CQL_OPTION} option, and spatial UDFs that compare the geometry column
+ * with a constant geometry are pushed down by {@link SpatialPredicatePushDown} when the session
+ * uses {@link GeoWaveSparkSessionExtensions}.
+ */
+public class GeoWaveDataSource implements TableProvider, DataSourceRegister {
+  public static final String SHORT_NAME = "geowave";
+
+  @Override
+  public String shortName() {
+    return SHORT_NAME;
+  }
+
+  @Override
+  public StructType inferSchema(final CaseInsensitiveStringMap options) {
+    return new GeoWaveTable(options.asCaseSensitiveMap()).schema();
+  }
+
+  @Override
+  public Table getTable(
+      final StructType schema,
+      final Transform[] partitioning,
+      final Map<String, String> properties) {
+    return new GeoWaveTable(properties);
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.spark.sql.connector.read.InputPartition;
+
+/**
+ * A Spark input partition wrapping a GeoWave input split. Input splits aren't serializable so the
+ * split is kept in its writable form.
+ */
+public class GeoWaveInputPartition implements InputPartition {
+  private static final long serialVersionUID = 1L;
+  private final String splitClassName;
+  private final byte[] splitBytes;
+  private final String[] locations;
+
+  public GeoWaveInputPartition(final InputSplit split) {
+    splitClassName = split.getClass().getName();
+    try {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final DataOutputStream output = new DataOutputStream(bytes);
+      ((Writable) split).write(output);
+      output.flush();
+      splitBytes = bytes.toByteArray();
+      locations = split.getLocations();
+    } catch (final IOException | InterruptedException e) {
+      throw new RuntimeException("Unable to serialize GeoWave input split", e);
+    }
+  }
+
+  @Override
+  public String[] preferredLocations() {
+    return locations == null ? new String[0] : locations;
+  }
+
+  public InputSplit getSplit(final Configuration conf) throws IOException {
+    final Class<?> splitClass;
+    try {
+      splitClass = conf.getClassByName(splitClassName);
+    } catch (final ClassNotFoundException e) {
+      throw new IOException("Unable to find input split class '" + splitClassName + "'", e);
+    }
+    final InputSplit split = (InputSplit) ReflectionUtils.newInstance(splitClass, conf);
+    ((Writable) split).readFields(new DataInputStream(new ByteArrayInputStream(splitBytes)));
+    return split;
+  }
+}
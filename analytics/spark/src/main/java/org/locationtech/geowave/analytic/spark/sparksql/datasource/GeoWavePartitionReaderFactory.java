@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Date;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.encoders.ExpressionEncoder;
+import org.apache.spark.sql.catalyst.encoders.RowEncoder;
+import org.apache.spark.sql.catalyst.expressions.GenericRowWithSchema;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.PartitionReader;
+import org.apache.spark.sql.connector.read.PartitionReaderFactory;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.locationtech.geowave.mapreduce.input.GeoWaveInputFormat;
+import org.locationtech.geowave.mapreduce.input.GeoWaveInputKey;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Creates the readers that run on the executors, each reading the features of one GeoWave input
+ * split into Spark rows of the scan's schema.
+ */
+public class GeoWavePartitionReaderFactory implements PartitionReaderFactory {
+  private static final long serialVersionUID = 1L;
+  private final byte[] configurationBytes;
+  private final StructType schema;
+
+  public GeoWavePartitionReaderFactory(final Configuration conf, final StructType schema) {
+    this.schema = schema;
+    try {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final DataOutputStream output = new DataOutputStream(bytes);
+      conf.write(output);
+      output.flush();
+      configurationBytes = bytes.toByteArray();
+    } catch (final IOException e) {
+      throw new RuntimeException("Unable to serialize GeoWave input configuration", e);
+    }
+  }
+
+  @Override
+  public PartitionReader<InternalRow> createReader(final InputPartition partition) {
+    try {
+      final Configuration conf = new Configuration(false);
+      conf.readFields(new DataInputStream(new ByteArrayInputStream(configurationBytes)));
+      final InputSplit split = ((GeoWaveInputPartition) partition).getSplit(conf);
+      final TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+      final RecordReader<GeoWaveInputKey, SimpleFeature> reader =
+          new GeoWaveInputFormat<SimpleFeature>().createRecordReader(split, context);
+      reader.initialize(split, context);
+      return new FeaturePartitionReader(reader, schema);
+    } catch (final IOException | InterruptedException e) {
+      throw new RuntimeException("Unable to read GeoWave input split", e);
+    }
+  }
+
+  private static class FeaturePartitionReader implements PartitionReader<InternalRow> {
+    private final RecordReader<GeoWaveInputKey, SimpleFeature> reader;
+    private final StructType schema;
+    private final ExpressionEncoder.Serializer<Row> serializer;
+
+    private FeaturePartitionReader(
+        final RecordReader<GeoWaveInputKey, SimpleFeature> reader,
+        final StructType schema) {
+      this.reader = reader;
+      this.schema = schema;
+      serializer = RowEncoder.apply(schema).createSerializer();
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      try {
+        return reader.nextKeyValue();
+      } catch (final InterruptedException e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public InternalRow get() {
+      final SimpleFeature feature;
+      try {
+        feature = reader.getCurrentValue();
+      } catch (final IOException | InterruptedException e) {
+        throw new RuntimeException("Unable to get the current GeoWave feature", e);
+      }
+      // columns are matched by name because the scan may have pruned any of them
+      final Object[] fields = new Object[schema.size()];
+      for (int i = 0; i < fields.length; i++) {
+        final StructField structField = schema.apply(i);
+        final Object fieldObj =
+            GeoWaveScan.GEOMETRY_COLUMN.equals(structField.name()) ? feature.getDefaultGeometry()
+                : feature.getAttribute(structField.name());
+        if ((fieldObj != null) && (structField.dataType() == DataTypes.TimestampType)) {
+          fields[i] = new Timestamp(((Date) fieldObj).getTime());
+        } else {
+          fields[i] = fieldObj;
+        }
+      }
+      // the serializer reuses its row so it must be copied before it is handed to spark
+      return serializer.apply(new GenericRowWithSchema(fields, schema)).copy();
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.OptionalLong;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.connector.read.Batch;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.PartitionReaderFactory;
+import org.apache.spark.sql.connector.read.Scan;
+import org.apache.spark.sql.connector.read.Statistics;
+import org.apache.spark.sql.connector.read.SupportsReportStatistics;
+import org.apache.spark.sql.types.StructType;
+import org.locationtech.geowave.analytic.spark.GeoWaveRDDLoader;
+import org.locationtech.geowave.analytic.spark.RDDOptions;
+import org.locationtech.geowave.core.geotime.store.query.api.VectorQueryBuilder;
+import org.locationtech.geowave.core.store.api.StatisticQueryBuilder;
+import org.locationtech.geowave.mapreduce.input.GeoWaveInputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scan of a GeoWave vector type with the pushed down constraints and field subset. Each GeoWave
+ * input split becomes a Spark input partition.
+ */
+public class GeoWaveScan implements Scan, Batch, SupportsReportStatistics {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeoWaveScan.class);
+  public static final String GEOMETRY_COLUMN = "geom";
+
+  private final GeoWaveTable table;
+  private final StructType readSchema;
+  private final String cql;
+  private final String[] subsetFields;
+  private Configuration configuration = null;
+  private Statistics statistics = null;
+
+  public GeoWaveScan(
+      final GeoWaveTable table,
+      final StructType readSchema,
+      final String cql,
+      final String[] subsetFields) {
+    this.table = table;
+    this.readSchema = readSchema;
+    this.cql = cql;
+    this.subsetFields = subsetFields;
+  }
+
+  @Override
+  public StructType readSchema() {
+    return readSchema;
+  }
+
+  @Override
+  public String description() {
+    return "GeoWave " + table.getTypeName() + (cql == null ? "" : " [" + cql + "]");
+  }
+
+  @Override
+  public Batch toBatch() {
+    return this;
+  }
+
+  @Override
+  public InputPartition[] planInputPartitions() {
+    try {
+      final List<InputSplit> splits =
+          new GeoWaveInputFormat<>().getSplits(Job.getInstance(getConfiguration()));
+      final InputPartition[] partitions = new InputPartition[splits.size()];
+      for (int i = 0; i < partitions.length; i++) {
+        partitions[i] = new GeoWaveInputPartition(splits.get(i));
+      }
+      return partitions;
+    } catch (final IOException | InterruptedException e) {
+      throw new RuntimeException("Unable to get GeoWave input splits", e);
+    }
+  }
+
+  @Override
+  public PartitionReaderFactory createReaderFactory() {
+    return new GeoWavePartitionReaderFactory(getConfiguration(), readSchema);
+  }
+
+  @Override
+  public synchronized Statistics estimateStatistics() {
+    if (statistics == null) {
+      statistics = computeStatistics();
+    }
+    return statistics;
+  }
+
+  private Statistics computeStatistics() {
+    Long count = null;
+    if (cql == null) {
+      try {
+        count =
+            table.getDataStore().aggregateStatistics(
+                StatisticQueryBuilder.count().typeName(table.getTypeName()).build()).getValue();
+      } catch (final Exception e) {
+        LOGGER.warn("Unable to get the count statistic of '" + table.getTypeName() + "'", e);
+      }
+    }
+    // the count statistic is of the whole type, with constraints it can overestimate the rows of
+    // the scan by orders of magnitude, so the size is left unknown rather than guessed
+    final OptionalLong numRows = count == null ? OptionalLong.empty() : OptionalLong.of(count);
+    final OptionalLong sizeInBytes =
+        count == null ? OptionalLong.empty() : OptionalLong.of(count * readSchema.defaultSize());
+    return new Statistics() {
+      @Override
+      public OptionalLong sizeInBytes() {
+        return sizeInBytes;
+      }
+
+      @Override
+      public OptionalLong numRows() {
+        return numRows;
+      }
+    };
+  }
+
+  private synchronized Configuration getConfiguration() {
+    if (configuration == null) {
+      final VectorQueryBuilder bldr = VectorQueryBuilder.newBuilder();
+      bldr.addTypeName(table.getTypeName());
+      if (table.getIndexName() != null) {
+        bldr.indexName(table.getIndexName());
+      }
+      if (cql != null) {
+        bldr.constraints(bldr.constraintsFactory().cqlConstraints(cql));
+      }
+      if (subsetFields != null) {
+        bldr.subsetFields(table.getTypeName(), subsetFields);
+      }
+      final RDDOptions rddOptions = new RDDOptions();
+      rddOptions.setQuery(bldr.build());
+      rddOptions.setMinSplits(table.getMinSplits());
+      rddOptions.setMaxSplits(table.getMaxSplits());
+      configuration =
+          GeoWaveRDDLoader.createInputConfiguration(
+              SparkSession.active().sparkContext(),
+              table.getStoreOptions(),
+              rddOptions);
+    }
+    return configuration;
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.spark.sql.connector.read.Scan;
+import org.apache.spark.sql.connector.read.ScanBuilder;
+import org.apache.spark.sql.connector.read.SupportsPushDownFilters;
+import org.apache.spark.sql.connector.read.SupportsPushDownRequiredColumns;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ * Pushes the filters that can be expressed in CQL and the required columns of a Spark scan down
+ * into the GeoWave query.
+ */
+public class GeoWaveScanBuilder implements
+    ScanBuilder,
+    SupportsPushDownFilters,
+    SupportsPushDownRequiredColumns {
+  private final GeoWaveTable table;
+  private StructType requiredSchema;
+  private Filter[] pushedFilters = new Filter[0];
+  private final List<String> pushedCql = new ArrayList<>();
+
+  public GeoWaveScanBuilder(final GeoWaveTable table) {
+    this.table = table;
+    requiredSchema = table.schema();
+  }
+
+  @Override
+  public Filter[] pushFilters(final Filter[] filters) {
+    final List<Filter> pushed = new ArrayList<>();
+    pushedCql.clear();
+    for (final Filter filter : filters) {
+      final String cql = SparkFilterToCQL.toCQL(filter);
+      if (cql != null) {
+        pushed.add(filter);
+        pushedCql.add(cql);
+      }
+    }
+    pushedFilters = pushed.toArray(new Filter[pushed.size()]);
+    // pushed filters limit what GeoWave reads, but Spark still evaluates every filter on the rows
+    // that are returned so that results never depend on differences between CQL and Spark
+    // semantics
+    return filters;
+  }
+
+  @Override
+  public Filter[] pushedFilters() {
+    return pushedFilters;
+  }
+
+  @Override
+  public void pruneColumns(final StructType requiredSchema) {
+    this.requiredSchema = requiredSchema;
+  }
+
+  @Override
+  public Scan build() {
+    final List<String> cql = new ArrayList<>();
+    if ((table.getCql() != null) && !table.getCql().trim().isEmpty()) {
+      cql.add(table.getCql());
+    }
+    cql.addAll(table.getSpatialCql());
+    cql.addAll(pushedCql);
+    String[] subsetFields = null;
+    if (requiredSchema.size() < table.schema().size()) {
+      // the fields referenced by pushed filters must be read for GeoWave to apply the filters
+      final Set<String> columns = new LinkedHashSet<>(Arrays.asList(requiredSchema.fieldNames()));
+      for (final Filter filter : pushedFilters) {
+        columns.addAll(Arrays.asList(filter.references()));
+      }
+      if (!table.getSpatialCql().isEmpty()) {
+        columns.add(GeoWaveScan.GEOMETRY_COLUMN);
+      }
+      subsetFields =
+          columns.stream().map(table::getAttributeName).distinct().toArray(String[]::new);
+    }
+    return new GeoWaveScan(
+        table,
+        requiredSchema,
+        cql.isEmpty() ? null : "(" + String.join(") AND (", cql) + ")",
+        subsetFields);
+  }
+}
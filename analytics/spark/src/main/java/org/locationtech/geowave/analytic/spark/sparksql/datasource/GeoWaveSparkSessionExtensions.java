@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.SparkSessionExtensions;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.catalyst.rules.Rule;
+import scala.runtime.AbstractFunction1;
+import scala.runtime.BoxedUnit;
+
+/**
+ * Adds the GeoWave optimizer rules to a Spark session. Enable it with
+ * {@code spark.sql.extensions=org.locationtech.geowave.analytic.spark.sparksql.datasource.GeoWaveSparkSessionExtensions},
+ * which {@link org.locationtech.geowave.analytic.spark.GeoWaveSparkConf} sets on the sessions it
+ * creates.
+ */
+public class GeoWaveSparkSessionExtensions extends
+    AbstractFunction1<SparkSessionExtensions, BoxedUnit> {
+
+  @Override
+  public BoxedUnit apply(final SparkSessionExtensions extensions) {
+    extensions.injectOptimizerRule(new AbstractFunction1<SparkSession, Rule<LogicalPlan>>() {
+      @Override
+      public Rule<LogicalPlan> apply(final SparkSession session) {
+        return new SpatialPredicatePushDown();
+      }
+    });
+    return BoxedUnit.UNIT;
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.spark.sql.connector.catalog.SupportsRead;
+import org.apache.spark.sql.connector.catalog.TableCapability;
+import org.apache.spark.sql.connector.read.ScanBuilder;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.locationtech.geowave.adapter.vector.util.FeatureDataUtils;
+import org.locationtech.geowave.analytic.spark.sparksql.util.SchemaConverter;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.cli.store.DataStorePluginOptions;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * A GeoWave vector type that can be read by Spark.
+ */
+public class GeoWaveTable implements SupportsRead {
+  public static final String TYPE_NAME_OPTION = "typeName";
+  public static final String INDEX_NAME_OPTION = "indexName";
+  public static final String CQL_OPTION = "cql";
+  public static final String MIN_SPLITS_OPTION = "minSplits";
+  public static final String MAX_SPLITS_OPTION = "maxSplits";
+
+  private final DataStorePluginOptions storeOptions;
+  private final String typeName;
+  private final String indexName;
+  private final String cql;
+  private final int minSplits;
+  private final int maxSplits;
+  private final SimpleFeatureType featureType;
+  private final StructType schema;
+  private final List<String> spatialCql;
+  private DataStore dataStore = null;
+
+  public GeoWaveTable(final Map<String, String> options) {
+    final Map<String, String> storeOptionsMap = new HashMap<>(options);
+    typeName = storeOptionsMap.remove(TYPE_NAME_OPTION);
+    indexName = storeOptionsMap.remove(INDEX_NAME_OPTION);
+    cql = storeOptionsMap.remove(CQL_OPTION);
+    final String minSplitsOption = storeOptionsMap.remove(MIN_SPLITS_OPTION);
+    final String maxSplitsOption = storeOptionsMap.remove(MAX_SPLITS_OPTION);
+    minSplits = minSplitsOption == null ? -1 : Integer.parseInt(minSplitsOption);
+    maxSplits = maxSplitsOption == null ? -1 : Integer.parseInt(maxSplitsOption);
+    // spark adds the path option for load(path), it isn't a store option
+    storeOptionsMap.remove("path");
+    if (typeName == null) {
+      throw new IllegalArgumentException(
+          "The '" + TYPE_NAME_OPTION + "' option is required to read from GeoWave");
+    }
+    storeOptions = new DataStorePluginOptions(storeOptionsMap);
+    featureType = FeatureDataUtils.getFeatureType(storeOptions, typeName);
+    if (featureType == null) {
+      throw new IllegalArgumentException("Unable to find GeoWave vector type '" + typeName + "'");
+    }
+    schema = SchemaConverter.schemaFromFeatureType(featureType);
+    spatialCql = Collections.emptyList();
+  }
+
+  private GeoWaveTable(final GeoWaveTable other, final List<String> spatialCql) {
+    storeOptions = other.storeOptions;
+    typeName = other.typeName;
+    indexName = other.indexName;
+    cql = other.cql;
+    minSplits = other.minSplits;
+    maxSplits = other.maxSplits;
+    featureType = other.featureType;
+    schema = other.schema;
+    dataStore = other.dataStore;
+    this.spatialCql = Collections.unmodifiableList(spatialCql);
+  }
+
+  /**
+   * Get a copy of this table that also constrains its scans with spatial predicates. This is used
+   * by {@link SpatialPredicatePushDown} because spatial UDFs can't be pushed down as data source
+   * filters.
+   *
+   * @param additionalSpatialCql the ECQL of the spatial predicates to add
+   * @return the constrained table
+   */
+  public GeoWaveTable withSpatialCql(final List<String> additionalSpatialCql) {
+    final List<String> combined = new ArrayList<>(spatialCql);
+    combined.addAll(additionalSpatialCql);
+    return new GeoWaveTable(this, combined);
+  }
+
+  @Override
+  public String name() {
+    return typeName;
+  }
+
+  @Override
+  public StructType schema() {
+    return schema;
+  }
+
+  @Override
+  public Set<TableCapability> capabilities() {
+    return Collections.singleton(TableCapability.BATCH_READ);
+  }
+
+  @Override
+  public ScanBuilder newScanBuilder(final CaseInsensitiveStringMap options) {
+    return new GeoWaveScanBuilder(this);
+  }
+
+  public DataStorePluginOptions getStoreOptions() {
+    return storeOptions;
+  }
+
+  /**
+   * @return the data store of the table, it is created once and shared by every scan of the table
+   */
+  public synchronized DataStore getDataStore() {
+    if (dataStore == null) {
+      dataStore = storeOptions.createDataStore();
+    }
+    return dataStore;
+  }
+
+  public String getTypeName() {
+    return typeName;
+  }
+
+  public String getIndexName() {
+    return indexName;
+  }
+
+  public String getCql() {
+    return cql;
+  }
+
+  /**
+   * @return the ECQL of the spatial predicates that were pushed down to this table
+   */
+  public List<String> getSpatialCql() {
+    return spatialCql;
+  }
+
+  /**
+   * @param column a column of the schema
+   * @return the name of the attribute of the column
+   */
+  public String getAttributeName(final String column) {
+    // the schema always names the geometry column geom
+    if (GeoWaveScan.GEOMETRY_COLUMN.equals(column)
+        && (featureType.getGeometryDescriptor() != null)) {
+      return featureType.getGeometryDescriptor().getLocalName();
+    }
+    return column;
+  }
+
+  public int getMinSplits() {
+    return minSplits;
+  }
+
+  public int getMaxSplits() {
+    return maxSplits;
+  }
+
+  public SimpleFeatureType getFeatureType() {
+    return featureType;
+  }
+}
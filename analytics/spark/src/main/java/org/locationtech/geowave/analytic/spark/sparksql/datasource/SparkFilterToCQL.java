@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.spark.sql.sources.And;
+import org.apache.spark.sql.sources.EqualTo;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.sources.GreaterThan;
+import org.apache.spark.sql.sources.GreaterThanOrEqual;
+import org.apache.spark.sql.sources.In;
+import org.apache.spark.sql.sources.IsNotNull;
+import org.apache.spark.sql.sources.IsNull;
+import org.apache.spark.sql.sources.LessThan;
+import org.apache.spark.sql.sources.LessThanOrEqual;
+import org.apache.spark.sql.sources.Not;
+import org.apache.spark.sql.sources.Or;
+import org.apache.spark.sql.sources.StringContains;
+import org.apache.spark.sql.sources.StringEndsWith;
+import org.apache.spark.sql.sources.StringStartsWith;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTWriter;
+
+/**
+ * Translates Spark data source filters into ECQL so that they can be pushed down to GeoWave, where
+ * temporal and attribute predicates are used to constrain the query and the rest are applied as a
+ * filter while reading.
+ */
+public class SparkFilterToCQL {
+  private static final DateTimeFormatter DATE_TIME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+  /**
+   * @param filter the Spark filter
+   * @return the equivalent ECQL or null if the filter can't be translated
+   */
+  public static String toCQL(final Filter filter) {
+    if (filter instanceof And) {
+      return combine("AND", ((And) filter).left(), ((And) filter).right());
+    } else if (filter instanceof Or) {
+      return combine("OR", ((Or) filter).left(), ((Or) filter).right());
+    } else if (filter instanceof Not) {
+      final String child = toCQL(((Not) filter).child());
+      return child == null ? null : "NOT (" + child + ")";
+    } else if (filter instanceof IsNull) {
+      final String attribute = attribute(((IsNull) filter).attribute());
+      return attribute == null ? null : attribute + " IS NULL";
+    } else if (filter instanceof IsNotNull) {
+      final String attribute = attribute(((IsNotNull) filter).attribute());
+      return attribute == null ? null : attribute + " IS NOT NULL";
+    } else if (filter instanceof EqualTo) {
+      return compare(((EqualTo) filter).attribute(), "=", "TEQUALS", ((EqualTo) filter).value());
+    } else if (filter instanceof GreaterThan) {
+      return compare(
+          ((GreaterThan) filter).attribute(),
+          ">",
+          "AFTER",
+          ((GreaterThan) filter).value());
+    } else if (filter instanceof LessThan) {
+      return compare(((LessThan) filter).attribute(), "<", "BEFORE", ((LessThan) filter).value());
+    } else if (filter instanceof GreaterThanOrEqual) {
+      final GreaterThanOrEqual gte = (GreaterThanOrEqual) filter;
+      if (gte.value() instanceof Timestamp) {
+        return combine(
+            "OR",
+            compare(gte.attribute(), ">", "AFTER", gte.value()),
+            compare(gte.attribute(), "=", "TEQUALS", gte.value()));
+      }
+      return compare(gte.attribute(), ">=", null, gte.value());
+    } else if (filter instanceof LessThanOrEqual) {
+      final LessThanOrEqual lte = (LessThanOrEqual) filter;
+      if (lte.value() instanceof Timestamp) {
+        return combine(
+            "OR",
+            compare(lte.attribute(), "<", "BEFORE", lte.value()),
+            compare(lte.attribute(), "=", "TEQUALS", lte.value()));
+      }
+      return compare(lte.attribute(), "<=", null, lte.value());
+    } else if (filter instanceof In) {
+      final String attribute = attribute(((In) filter).attribute());
+      final Object[] values = ((In) filter).values();
+      if ((attribute == null) || (values.length == 0)) {
+        return null;
+      }
+      final List<String> literals = new ArrayList<>();
+      for (final Object value : values) {
+        final String literal = literal(value);
+        if ((literal == null) || (value instanceof Timestamp)) {
+          return null;
+        }
+        literals.add(literal);
+      }
+      return attribute + " IN (" + String.join(", ", literals) + ")";
+    } else if (filter instanceof StringStartsWith) {
+      return like(
+          ((StringStartsWith) filter).attribute(),
+          "",
+          ((StringStartsWith) filter).value(),
+          "%");
+    } else if (filter instanceof StringEndsWith) {
+      return like(
+          ((StringEndsWith) filter).attribute(),
+          "%",
+          ((StringEndsWith) filter).value(),
+          "");
+    } else if (filter instanceof StringContains) {
+      return like(
+          ((StringContains) filter).attribute(),
+          "%",
+          ((StringContains) filter).value(),
+          "%");
+    }
+    return null;
+  }
+
+  /**
+   * Translates a GeoWave spatial UDF that compares a geometry attribute with a constant geometry.
+   * UDFs without an equivalent ECQL predicate, such as GeomWithinDistance whose distance is not
+   * part of the call, are not translated.
+   *
+   * @param udfName the registered name of the UDF
+   * @param attributeName the name of the geometry attribute
+   * @param attributeFirst whether the attribute is the first argument of the UDF
+   * @param geometry the constant geometry
+   * @return the equivalent ECQL or null if the UDF can't be translated
+   */
+  public static String spatialPredicateToCQL(
+      final String udfName,
+      final String attributeName,
+      final boolean attributeFirst,
+      final Geometry geometry) {
+    if ((udfName == null)
+        || (attributeName == null)
+        || attributeName.contains("\"")
+        || (geometry == null)) {
+      return null;
+    }
+    final String operator;
+    switch (udfName) {
+      // symmetric predicates
+      case "GeomIntersects":
+        operator = "INTERSECTS";
+        break;
+      case "GeomDisjoint":
+        operator = "DISJOINT";
+        break;
+      case "GeomEquals":
+        operator = "EQUALS";
+        break;
+      case "GeomTouches":
+        operator = "TOUCHES";
+        break;
+      case "GeomOverlaps":
+        operator = "OVERLAPS";
+        break;
+      // predicates that are the converse of each other
+      case "GeomWithin":
+        operator = attributeFirst ? "WITHIN" : "CONTAINS";
+        break;
+      case "GeomContains":
+        operator = attributeFirst ? "CONTAINS" : "WITHIN";
+        break;
+      case "GeomCrosses":
+        operator = attributeFirst ? "CROSSES" : null;
+        break;
+      default:
+        operator = null;
+        break;
+    }
+    if (operator == null) {
+      return null;
+    }
+    return operator + "(\"" + attributeName + "\", " + new WKTWriter().write(geometry) + ")";
+  }
+
+  private static String combine(final String operator, final Filter left, final Filter right) {
+    return combine(operator, toCQL(left), toCQL(right));
+  }
+
+  private static String combine(final String operator, final String left, final String right) {
+    if ((left == null) || (right == null)) {
+      return null;
+    }
+    return "(" + left + ") " + operator + " (" + right + ")";
+  }
+
+  private static String compare(
+      final String name,
+      final String operator,
+      final String temporalOperator,
+      final Object value) {
+    final String attribute = attribute(name);
+    final String literal = literal(value);
+    if ((attribute == null) || (literal == null)) {
+      return null;
+    }
+    if (value instanceof Timestamp) {
+      // temporal predicates are what GeoWave uses to constrain a query by time
+      return temporalOperator == null ? null : attribute + " " + temporalOperator + " " + literal;
+    }
+    return attribute + " " + operator + " " + literal;
+  }
+
+  private static String like(
+      final String name,
+      final String prefix,
+      final String value,
+      final String suffix) {
+    final String attribute = attribute(name);
+    if (attribute == null) {
+      return null;
+    }
+    final String escaped =
+        value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_").replace("'", "''");
+    return attribute + " LIKE '" + prefix + escaped + suffix + "'";
+  }
+
+  private static String attribute(final String name) {
+    // the geometry column is renamed in the schema and geometries have no literal form
+    if ((name == null) || name.contains("\"") || GeoWaveScan.GEOMETRY_COLUMN.equals(name)) {
+      return null;
+    }
+    return "\"" + name + "\"";
+  }
+
+  private static String literal(final Object value) {
+    if (value instanceof String) {
+      return "'" + ((String) value).replace("'", "''") + "'";
+    } else if (value instanceof Timestamp) {
+      return DATE_TIME_FORMAT.format(((Timestamp) value).toInstant());
+    } else if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).toPlainString();
+    } else if ((value instanceof Double) || (value instanceof Float)) {
+      final double d = ((Number) value).doubleValue();
+      return Double.isNaN(d) || Double.isInfinite(d) ? null : value.toString();
+    } else if ((value instanceof Long)
+        || (value instanceof Integer)
+        || (value instanceof Short)
+        || (value instanceof Byte)) {
+      return value.toString();
+    }
+    return null;
+  }
+}
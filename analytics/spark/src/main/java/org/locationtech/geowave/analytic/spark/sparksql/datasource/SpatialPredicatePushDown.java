@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.spark.sql.catalyst.expressions.And;
+import org.apache.spark.sql.catalyst.expressions.AttributeReference;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.ScalaUDF;
+import org.apache.spark.sql.catalyst.plans.logical.Filter;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.catalyst.rules.Rule;
+import org.apache.spark.sql.execution.datasources.v2.DataSourceV2Relation;
+import org.locationtech.geowave.analytic.spark.sparksql.udt.AbstractGeometryUDT;
+import org.locationtech.jts.geom.Geometry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.collection.JavaConverters;
+import scala.runtime.AbstractPartialFunction;
+
+/**
+ * Pushes GeoWave spatial UDFs, such as {@code GeomIntersects(geom, GeomFromWKT('POLYGON ...'))},
+ * down into the query of a GeoWave table. Spark can only push data source filters into a scan, and
+ * those have no form for UDFs, so this rule finds the spatial UDFs of a filter directly above a
+ * GeoWave table and adds their ECQL to the table. The filter is kept so that Spark still evaluates
+ * the UDFs on the rows that are returned.
+ *
+ * <p> The rule is added to a session by {@link GeoWaveSparkSessionExtensions}.
+ */
+public class SpatialPredicatePushDown extends Rule<LogicalPlan> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpatialPredicatePushDown.class);
+
+  @Override
+  public LogicalPlan apply(final LogicalPlan plan) {
+    return plan.transformUp(new AbstractPartialFunction<LogicalPlan, LogicalPlan>() {
+      @Override
+      public boolean isDefinedAt(final LogicalPlan node) {
+        return (node instanceof Filter)
+            && (((Filter) node).child() instanceof DataSourceV2Relation)
+            && (((DataSourceV2Relation) ((Filter) node).child()).table() instanceof GeoWaveTable);
+      }
+
+      @Override
+      public LogicalPlan apply(final LogicalPlan node) {
+        return pushDown((Filter) node);
+      }
+    });
+  }
+
+  private static LogicalPlan pushDown(final Filter filter) {
+    final DataSourceV2Relation relation = (DataSourceV2Relation) filter.child();
+    final GeoWaveTable table = (GeoWaveTable) relation.table();
+    final List<String> spatialCql = new ArrayList<>();
+    for (final Expression predicate : splitConjunctivePredicates(filter.condition())) {
+      final String cql = toCQL(predicate, relation, table);
+      // the rule runs until the plan stops changing, so skip what was pushed down already
+      if ((cql != null) && !table.getSpatialCql().contains(cql) && !spatialCql.contains(cql)) {
+        spatialCql.add(cql);
+      }
+    }
+    if (spatialCql.isEmpty()) {
+      return filter;
+    }
+    return new Filter(
+        filter.condition(),
+        new DataSourceV2Relation(
+            table.withSpatialCql(spatialCql),
+            relation.output(),
+            relation.catalog(),
+            relation.identifier(),
+            relation.options()));
+  }
+
+  private static List<Expression> splitConjunctivePredicates(final Expression condition) {
+    final List<Expression> predicates = new ArrayList<>();
+    if (condition instanceof And) {
+      predicates.addAll(splitConjunctivePredicates(((And) condition).left()));
+      predicates.addAll(splitConjunctivePredicates(((And) condition).right()));
+    } else {
+      predicates.add(condition);
+    }
+    return predicates;
+  }
+
+  private static String toCQL(
+      final Expression predicate,
+      final DataSourceV2Relation relation,
+      final GeoWaveTable table) {
+    if (!(predicate instanceof ScalaUDF) || ((ScalaUDF) predicate).udfName().isEmpty()) {
+      return null;
+    }
+    final ScalaUDF udf = (ScalaUDF) predicate;
+    final List<Expression> arguments = JavaConverters.seqAsJavaList(udf.children());
+    if (arguments.size() != 2) {
+      return null;
+    }
+    final boolean attributeFirst = isGeometryColumn(arguments.get(0), relation);
+    if (!attributeFirst && !isGeometryColumn(arguments.get(1), relation)) {
+      return null;
+    }
+    final Geometry geometry = evaluateGeometry(arguments.get(attributeFirst ? 1 : 0));
+    return SparkFilterToCQL.spatialPredicateToCQL(
+        udf.udfName().get(),
+        table.getAttributeName(GeoWaveScan.GEOMETRY_COLUMN),
+        attributeFirst,
+        geometry);
+  }
+
+  private static boolean isGeometryColumn(
+      final Expression expression,
+      final DataSourceV2Relation relation) {
+    return (expression instanceof AttributeReference)
+        && GeoWaveScan.GEOMETRY_COLUMN.equals(((AttributeReference) expression).name())
+        && relation.outputSet().contains((AttributeReference) expression);
+  }
+
+  private static Geometry evaluateGeometry(final Expression expression) {
+    // the constant geometry is usually GeomFromWKT of a string literal, or its folded result
+    if (!expression.foldable() || !(expression.dataType() instanceof AbstractGeometryUDT)) {
+      return null;
+    }
+    try {
+      final Object value = expression.eval(null);
+      if (value == null) {
+        return null;
+      }
+      return ((AbstractGeometryUDT<?>) expression.dataType()).deserialize(value);
+    } catch (final Exception e) {
+      LOGGER.debug("Unable to evaluate constant geometry, it will not be pushed down", e);
+      return null;
+    }
+  }
+}
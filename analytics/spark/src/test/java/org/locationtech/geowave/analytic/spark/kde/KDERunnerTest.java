@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.kde;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.geowave.mapreduce.input.GeoWaveInputKey;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Point;
+import org.opengis.coverage.grid.GridCoverage;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.geometry.Envelope;
+import scala.Tuple2;
+
+public class KDERunnerTest {
+  private static final int MIN_LEVEL = 2;
+  private static final int MAX_LEVEL = 6;
+  private static final int NUM_FEATURES = 50;
+  private static final String CRS_CODE = GeometryUtils.DEFAULT_CRS_STR;
+  private static final String COVERAGE_NAME = "kde";
+  private static final double EPSILON = 1E-9;
+
+  private static JavaSparkContext jsc;
+
+  @BeforeClass
+  public static void startSpark() {
+    jsc = new JavaSparkContext(new SparkConf().setMaster("local[2]").setAppName("KDERunnerTest"));
+  }
+
+  @AfterClass
+  public static void stopSpark() {
+    jsc.close();
+  }
+
+  private static Tuple2<GeoWaveInputKey, SimpleFeature> createFeature(final int i) {
+    final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName("kdeTest");
+    typeBuilder.setCRS(GeometryUtils.getDefaultCRS());
+    typeBuilder.add("geometry", Point.class);
+    final SimpleFeatureBuilder featureBuilder =
+        new SimpleFeatureBuilder(typeBuilder.buildFeatureType());
+    // a cluster of points around one location plus a few far away, so that cells have distinct
+    // weights within a level
+    final Coordinate coordinate =
+        (i % 10) == 0 ? new Coordinate(-100 + (i * 1.3), -40 + (i * 0.7))
+            : new Coordinate(10 + ((i % 7) * 1.9), 20 + ((i % 5) * 2.3));
+    featureBuilder.set("geometry", GeometryUtils.GEOMETRY_FACTORY.createPoint(coordinate));
+    return new Tuple2<>(new GeoWaveInputKey(), featureBuilder.buildFeature("feature" + i));
+  }
+
+  private static JavaPairRDD<GeoWaveInputKey, SimpleFeature> createFeatures() {
+    final List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < NUM_FEATURES; i++) {
+      ids.add(i);
+    }
+    // features are built on the executors because simple features aren't java serializable
+    return jsc.parallelize(ids, 3).mapToPair(KDERunnerTest::createFeature);
+  }
+
+  /**
+   * Collects the weight, normalized and percentile bands of each single pixel tile keyed by its
+   * envelope, which includes the width of the tile and so identifies its level.
+   */
+  private static Map<String, double[]> collect(final JavaRDD<GridCoverage> coverages) {
+    final Map<String, double[]> tiles = new HashMap<>();
+    for (final Tuple2<String, double[]> tile : coverages.map(coverage -> {
+      final Envelope envelope = coverage.getEnvelope();
+      final Raster raster = ((GridCoverage2D) coverage).getRenderedImage().getData();
+      final double[] bands = new double[KDERunner.NUM_BANDS];
+      for (int b = 0; b < bands.length; b++) {
+        bands[b] = raster.getSampleDouble(raster.getMinX(), raster.getMinY(), b);
+      }
+      return new Tuple2<>(
+          envelope.getSpan(0) + "/" + envelope.getMinimum(0) + "/" + envelope.getMinimum(1),
+          bands);
+    }).collect()) {
+      assertFalse("Duplicate tile " + tile._1, tiles.containsKey(tile._1));
+      tiles.put(tile._1, tile._2);
+    }
+    return tiles;
+  }
+
+  @Test
+  public void testSinglePassMatchesMultiPass() {
+    final JavaPairRDD<GeoWaveInputKey, SimpleFeature> features = createFeatures();
+    final Map<String, double[]> multiPassTiles = new HashMap<>();
+    for (int level = MIN_LEVEL; level <= MAX_LEVEL; level++) {
+      final JavaRDD<GridCoverage> levelCoverages =
+          KDERunner.computeLevel(
+              features,
+              level,
+              -180,
+              180,
+              -90,
+              90,
+              CRS_CODE,
+              CRS_CODE,
+              COVERAGE_NAME);
+      assertNotNull(levelCoverages);
+      multiPassTiles.putAll(collect(levelCoverages));
+    }
+
+    final JavaPairRDD<Tuple2<Integer, Long>, Double> cells =
+        KDERunner.computeCells(
+            features,
+            MIN_LEVEL,
+            MAX_LEVEL,
+            -180,
+            180,
+            -90,
+            90,
+            CRS_CODE,
+            CRS_CODE);
+    final JavaRDD<GridCoverage> coverages =
+        KDERunner.toCoverages(cells, MIN_LEVEL, MAX_LEVEL, -180, 180, -90, 90, COVERAGE_NAME);
+    assertNotNull(coverages);
+    final Map<String, double[]> singlePassTiles = collect(coverages);
+    cells.unpersist();
+
+    assertEquals(multiPassTiles.keySet(), singlePassTiles.keySet());
+    // the rank of cells with equal weights depends on the order of the sort, so the percentile is
+    // only compared for cells whose weight is unique in their level
+    final Map<String, Integer> weightsPerLevel = new HashMap<>();
+    for (final Entry<String, double[]> tile : multiPassTiles.entrySet()) {
+      weightsPerLevel.merge(weightKey(tile.getKey(), tile.getValue()[0]), 1, Integer::sum);
+    }
+    int uniqueWeights = 0;
+    for (final Entry<String, double[]> tile : multiPassTiles.entrySet()) {
+      final double[] expected = tile.getValue();
+      final double[] actual = singlePassTiles.get(tile.getKey());
+      assertEquals(tile.getKey(), expected[0], actual[0], EPSILON);
+      assertEquals(tile.getKey(), expected[1], actual[1], EPSILON);
+      if (weightsPerLevel.get(weightKey(tile.getKey(), expected[0])) == 1) {
+        assertEquals(tile.getKey(), expected[2], actual[2], EPSILON);
+        uniqueWeights++;
+      }
+    }
+    assertTrue(uniqueWeights > 0);
+  }
+
+  private static String weightKey(final String tileKey, final double weight) {
+    // the tile width followed by the weight, rounded so that sums in a different order match
+    return tileKey.substring(0, tileKey.indexOf('/')) + "/" + Math.round(weight / EPSILON);
+  }
+}
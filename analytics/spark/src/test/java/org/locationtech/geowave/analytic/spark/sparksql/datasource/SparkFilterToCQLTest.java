@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.analytic.spark.sparksql.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.apache.spark.sql.sources.And;
+import org.apache.spark.sql.sources.EqualNullSafe;
+import org.apache.spark.sql.sources.EqualTo;
+import org.apache.spark.sql.sources.GreaterThan;
+import org.apache.spark.sql.sources.GreaterThanOrEqual;
+import org.apache.spark.sql.sources.In;
+import org.apache.spark.sql.sources.IsNotNull;
+import org.apache.spark.sql.sources.IsNull;
+import org.apache.spark.sql.sources.LessThan;
+import org.apache.spark.sql.sources.LessThanOrEqual;
+import org.apache.spark.sql.sources.Not;
+import org.apache.spark.sql.sources.Or;
+import org.apache.spark.sql.sources.StringContains;
+import org.apache.spark.sql.sources.StringEndsWith;
+import org.apache.spark.sql.sources.StringStartsWith;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+
+public class SparkFilterToCQLTest {
+  private static final Timestamp TIME = Timestamp.from(Instant.parse("2020-01-02T03:04:05.678Z"));
+  private static final String TIME_LITERAL = "2020-01-02T03:04:05.678Z";
+  private static final Geometry POINT =
+      GeometryUtils.GEOMETRY_FACTORY.createPoint(new Coordinate(1.5, -2));
+
+  @Test
+  public void testComparisons() {
+    assertEquals("\"name\" = 'bob'", SparkFilterToCQL.toCQL(new EqualTo("name", "bob")));
+    assertEquals("\"name\" = 'o''neil'", SparkFilterToCQL.toCQL(new EqualTo("name", "o'neil")));
+    assertEquals("\"count\" = 5", SparkFilterToCQL.toCQL(new EqualTo("count", 5)));
+    assertEquals("\"value\" > 1.5", SparkFilterToCQL.toCQL(new GreaterThan("value", 1.5)));
+    assertEquals("\"value\" < 10", SparkFilterToCQL.toCQL(new LessThan("value", 10L)));
+    assertEquals(
+        "\"value\" >= 3",
+        SparkFilterToCQL.toCQL(new GreaterThanOrEqual("value", (short) 3)));
+    assertEquals(
+        "\"value\" <= 2.50",
+        SparkFilterToCQL.toCQL(new LessThanOrEqual("value", new BigDecimal("2.50"))));
+  }
+
+  @Test
+  public void testTemporalComparisons() {
+    assertEquals(
+        "\"time\" TEQUALS " + TIME_LITERAL,
+        SparkFilterToCQL.toCQL(new EqualTo("time", TIME)));
+    assertEquals(
+        "\"time\" AFTER " + TIME_LITERAL,
+        SparkFilterToCQL.toCQL(new GreaterThan("time", TIME)));
+    assertEquals(
+        "\"time\" BEFORE " + TIME_LITERAL,
+        SparkFilterToCQL.toCQL(new LessThan("time", TIME)));
+    assertEquals(
+        "(\"time\" AFTER " + TIME_LITERAL + ") OR (\"time\" TEQUALS " + TIME_LITERAL + ")",
+        SparkFilterToCQL.toCQL(new GreaterThanOrEqual("time", TIME)));
+    assertEquals(
+        "(\"time\" BEFORE " + TIME_LITERAL + ") OR (\"time\" TEQUALS " + TIME_LITERAL + ")",
+        SparkFilterToCQL.toCQL(new LessThanOrEqual("time", TIME)));
+  }
+
+  @Test
+  public void testNullChecks() {
+    assertEquals("\"name\" IS NULL", SparkFilterToCQL.toCQL(new IsNull("name")));
+    assertEquals("\"name\" IS NOT NULL", SparkFilterToCQL.toCQL(new IsNotNull("name")));
+  }
+
+  @Test
+  public void testIn() {
+    assertEquals(
+        "\"name\" IN ('a', 'b')",
+        SparkFilterToCQL.toCQL(new In("name", new Object[] {"a", "b"})));
+    assertEquals(
+        "\"count\" IN (1, 2)",
+        SparkFilterToCQL.toCQL(new In("count", new Object[] {1, 2})));
+    assertNull(SparkFilterToCQL.toCQL(new In("name", new Object[0])));
+    assertNull(SparkFilterToCQL.toCQL(new In("time", new Object[] {TIME})));
+  }
+
+  @Test
+  public void testStringMatches() {
+    assertEquals(
+        "\"name\" LIKE 'a\\%b\\_%'",
+        SparkFilterToCQL.toCQL(new StringStartsWith("name", "a%b_")));
+    assertEquals(
+        "\"name\" LIKE '%it''s'",
+        SparkFilterToCQL.toCQL(new StringEndsWith("name", "it's")));
+    assertEquals("\"name\" LIKE '%x%'", SparkFilterToCQL.toCQL(new StringContains("name", "x")));
+  }
+
+  @Test
+  public void testNestedFilters() {
+    assertEquals(
+        "(\"a\" = 1) AND ((\"b\" < 2) OR (NOT (\"c\" IS NULL)))",
+        SparkFilterToCQL.toCQL(
+            new And(new EqualTo("a", 1), new Or(new LessThan("b", 2), new Not(new IsNull("c"))))));
+    assertEquals(
+        "NOT ((\"a\" = 1) OR (\"b\" = 2))",
+        SparkFilterToCQL.toCQL(new Not(new Or(new EqualTo("a", 1), new EqualTo("b", 2)))));
+  }
+
+  @Test
+  public void testUntranslatableFilters() {
+    // unsupported filter types
+    assertNull(SparkFilterToCQL.toCQL(new EqualNullSafe("a", 1)));
+    // geometries have no literal form
+    assertNull(SparkFilterToCQL.toCQL(new IsNull(GeoWaveScan.GEOMETRY_COLUMN)));
+    // attribute names that can't be quoted
+    assertNull(SparkFilterToCQL.toCQL(new EqualTo("a\"b", 1)));
+    // values without a literal form
+    assertNull(SparkFilterToCQL.toCQL(new EqualTo("a", Double.NaN)));
+    assertNull(SparkFilterToCQL.toCQL(new EqualTo("a", Float.POSITIVE_INFINITY)));
+    assertNull(SparkFilterToCQL.toCQL(new EqualTo("a", true)));
+    assertNull(SparkFilterToCQL.toCQL(new In("a", new Object[] {1, true})));
+    // a combination is only translated if every part of it is
+    final EqualNullSafe untranslatable = new EqualNullSafe("b", 2);
+    assertNull(SparkFilterToCQL.toCQL(new And(new EqualTo("a", 1), untranslatable)));
+    assertNull(SparkFilterToCQL.toCQL(new Or(untranslatable, new EqualTo("a", 1))));
+    assertNull(SparkFilterToCQL.toCQL(new Not(untranslatable)));
+    assertNull(
+        SparkFilterToCQL.toCQL(
+            new And(new EqualTo("a", 1), new Or(new EqualTo("c", 3), new Not(untranslatable)))));
+  }
+
+  @Test
+  public void testSpatialPredicates() {
+    assertEquals(
+        "INTERSECTS(\"the_geom\", POINT (1.5 -2))",
+        SparkFilterToCQL.spatialPredicateToCQL("GeomIntersects", "the_geom", true, POINT));
+    // symmetric predicates don't depend on the argument order
+    assertEquals(
+        "INTERSECTS(\"the_geom\", POINT (1.5 -2))",
+        SparkFilterToCQL.spatialPredicateToCQL("GeomIntersects", "the_geom", false, POINT));
+    assertEquals(
+        "DISJOINT(\"the_geom\", POINT (1.5 -2))",
+        SparkFilterToCQL.spatialPredicateToCQL("GeomDisjoint", "the_geom", false, POINT));
+    assertEquals(
+        "TOUCHES(\"the_geom\", POINT (1.5 -2))",
+        SparkFilterToCQL.spatialPredicateToCQL("GeomTouches", "the_geom", true, POINT));
+    // the converse predicate is used when the geometry is the first argument
+    assertEquals(
+        "WITHIN(\"the_geom\", POINT (1.5 -2))",
+        SparkFilterToCQL.spatialPredicateToCQL("GeomWithin", "the_geom", true, POINT));
+    assertEquals(
+        "CONTAINS(\"the_geom\", POINT (1.5 -2))",
+        SparkFilterToCQL.spatialPredicateToCQL("GeomWithin", "the_geom", false, POINT));
+    assertEquals(
+        "WITHIN(\"the_geom\", POINT (1.5 -2))",
+        SparkFilterToCQL.spatialPredicateToCQL("GeomContains", "the_geom", false, POINT));
+    assertEquals(
+        "CROSSES(\"the_geom\", POINT (1.5 -2))",
+        SparkFilterToCQL.spatialPredicateToCQL("GeomCrosses", "the_geom", true, POINT));
+    assertNull(SparkFilterToCQL.spatialPredicateToCQL("GeomCrosses", "the_geom", false, POINT));
+    // the distance of GeomWithinDistance is not part of the call
+    assertNull(
+        SparkFilterToCQL.spatialPredicateToCQL("GeomWithinDistance", "the_geom", true, POINT));
+    assertNull(SparkFilterToCQL.spatialPredicateToCQL("GeomCovers", "the_geom", true, POINT));
+    assertNull(SparkFilterToCQL.spatialPredicateToCQL("GeomIntersects", "a\"b", true, POINT));
+    assertNull(SparkFilterToCQL.spatialPredicateToCQL("GeomIntersects", "the_geom", true, null));
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.benchmarks.geotime;
+
+import java.util.concurrent.TimeUnit;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.geowave.core.geotime.util.TWKBReader;
+import org.locationtech.geowave.core.geotime.util.TWKBWriter;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures TWKB geometry encoding and decoding, which is the per-entry cost of the default geometry
+ * field serialization. A vertex count of 1 benchmarks a point, otherwise a polygon ring with the
+ * given number of vertices is used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TWKBBenchmark {
+  @Param({"1", "16", "256"})
+  public int vertices;
+
+  private Geometry geometry;
+  private byte[] encoded;
+  private final TWKBWriter writer = new TWKBWriter();
+  private final TWKBReader reader = new TWKBReader();
+
+  @Setup
+  public void setup() {
+    if (vertices <= 1) {
+      geometry = GeometryUtils.GEOMETRY_FACTORY.createPoint(new Coordinate(-77.0365, 38.8977));
+    } else {
+      final Coordinate[] ring = new Coordinate[vertices + 1];
+      for (int i = 0; i < vertices; i++) {
+        final double angle = (2 * Math.PI * i) / vertices;
+        ring[i] = new Coordinate(-77.0365 + Math.cos(angle), 38.8977 + Math.sin(angle));
+      }
+      ring[vertices] = ring[0];
+      geometry = GeometryUtils.GEOMETRY_FACTORY.createPolygon(ring);
+    }
+    encoded = writer.write(geometry);
+  }
+
+  @Benchmark
+  public byte[] write() {
+    return writer.write(geometry);
+  }
+
+  @Benchmark
+  public Geometry read() throws ParseException {
+    return reader.read(encoded);
+  }
+}
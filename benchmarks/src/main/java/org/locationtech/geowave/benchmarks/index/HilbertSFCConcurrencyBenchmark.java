@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.benchmarks.index;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.SFCDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.SFCFactory;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.SpaceFillingCurve;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of HilbertSFC.getId() when a single curve is shared by many ingest
+ * threads. Comparing the per-thread-count results shows how getId scales with concurrency.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HilbertSFCConcurrencyBenchmark {
+  private static final int NUM_VALUES = 1024;
+
+  @State(Scope.Benchmark)
+  public static class SharedCurve {
+    @Param({"2", "3"})
+    public int dimensions;
+
+    public SpaceFillingCurve sfc;
+
+    @Setup
+    public void setup() {
+      final SFCDimensionDefinition[] definitions = new SFCDimensionDefinition[dimensions];
+      for (int d = 0; d < dimensions; d++) {
+        definitions[d] =
+            new SFCDimensionDefinition(new BasicDimensionDefinition(-180, 180), 62 / dimensions);
+      }
+      sfc = SFCFactory.createSpaceFillingCurve(definitions, SFCType.HILBERT);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadValues {
+    private Double[][] values;
+    private int next = 0;
+
+    @Setup
+    public void setup(final SharedCurve curve) {
+      final Random random = new Random(Thread.currentThread().getId());
+      values = new Double[NUM_VALUES][curve.dimensions];
+      for (int i = 0; i < NUM_VALUES; i++) {
+        for (int d = 0; d < curve.dimensions; d++) {
+          values[i][d] = (random.nextDouble() * 360) - 180;
+        }
+      }
+    }
+
+    public Double[] nextValue() {
+      next = (next + 1) % NUM_VALUES;
+      return values[next];
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public byte[] getId1Thread(final SharedCurve curve, final ThreadValues values) {
+    return curve.sfc.getId(values.nextValue());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public byte[] getId4Threads(final SharedCurve curve, final ThreadValues values) {
+    return curve.sfc.getId(values.nextValue());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public byte[] getId16Threads(final SharedCurve curve, final ThreadValues values) {
+    return curve.sfc.getId(values.nextValue());
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public byte[] getIdMaxThreads(final SharedCurve curve, final ThreadValues values) {
+    return curve.sfc.getId(values.nextValue());
+  }
+}
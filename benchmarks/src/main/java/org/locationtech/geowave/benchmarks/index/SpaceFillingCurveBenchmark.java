@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.benchmarks.index;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.numeric.BasicNumericDataset;
+import org.locationtech.geowave.core.index.numeric.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.numeric.NumericData;
+import org.locationtech.geowave.core.index.numeric.NumericRange;
+import org.locationtech.geowave.core.index.sfc.RangeDecomposition;
+import org.locationtech.geowave.core.index.sfc.SFCDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.SFCFactory;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.SpaceFillingCurve;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures ID generation and query range decomposition for the Hilbert and XZ-order space filling
+ * curves over a two dimensional longitude/latitude-like space.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SpaceFillingCurveBenchmark {
+  private static final int NUM_VALUES = 8192;
+
+  @Param({"HILBERT", "XZORDER"})
+  public SFCType sfcType;
+
+  @Param({"62"})
+  public int totalBits;
+
+  @Param({"0.01", "1"})
+  public double queryExtent;
+
+  @Param({"250", "-1"})
+  public int maxRanges;
+
+  private SpaceFillingCurve sfc;
+  private Double[][] values;
+  private MultiDimensionalNumericData[] queries;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    final SFCDimensionDefinition[] definitions =
+        new SFCDimensionDefinition[] {
+            new SFCDimensionDefinition(new BasicDimensionDefinition(-180, 180), totalBits / 2),
+            new SFCDimensionDefinition(new BasicDimensionDefinition(-90, 90), totalBits / 2)};
+    sfc = SFCFactory.createSpaceFillingCurve(definitions, sfcType);
+    final Random random = new Random(0);
+    values = new Double[NUM_VALUES][];
+    queries = new MultiDimensionalNumericData[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      final double x = (random.nextDouble() * (360 - queryExtent)) - 180;
+      final double y = (random.nextDouble() * (180 - queryExtent)) - 90;
+      values[i] = new Double[] {x, y};
+      queries[i] =
+          new BasicNumericDataset(
+              new NumericData[] {
+                  new NumericRange(x, x + queryExtent),
+                  new NumericRange(y, y + queryExtent)});
+    }
+  }
+
+  @Benchmark
+  public byte[] getId() {
+    next = (next + 1) % NUM_VALUES;
+    return sfc.getId(values[next]);
+  }
+
+  @Benchmark
+  public RangeDecomposition decomposeRange() {
+    next = (next + 1) % NUM_VALUES;
+    // the hilbert SFC caches recent decompositions, so cycle through enough distinct queries that
+    // this measures the decomposition itself
+    return sfc.decomposeRange(queries[next], true, maxRanges);
+  }
+}
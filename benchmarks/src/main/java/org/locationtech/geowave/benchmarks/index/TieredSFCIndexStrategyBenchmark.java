@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.benchmarks.index;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
+import org.locationtech.geowave.core.index.numeric.BasicNumericDataset;
+import org.locationtech.geowave.core.index.numeric.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.numeric.NumericData;
+import org.locationtech.geowave.core.index.numeric.NumericRange;
+import org.locationtech.geowave.core.index.numeric.NumericValue;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import org.locationtech.geowave.core.index.sfc.tiered.TieredSFCIndexStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures TieredSFCIndexStrategy.getInsertionIds for points and for extents of varying size, which
+ * is the per-entry index cost of ingesting into a tiered (ie. spatial or spatial-temporal) index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TieredSFCIndexStrategyBenchmark {
+  private static final int NUM_VALUES = 1024;
+
+  @Param({"HILBERT", "ZORDER"})
+  public SFCType sfcType;
+
+  @Param({"0", "0.001", "0.1"})
+  public double extent;
+
+  private TieredSFCIndexStrategy strategy;
+  private MultiDimensionalNumericData[] entries;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    strategy =
+        TieredSFCIndexFactory.createFullIncrementalTieredStrategy(
+            new NumericDimensionDefinition[] {
+                new BasicDimensionDefinition(-180, 180),
+                new BasicDimensionDefinition(-90, 90)},
+            new int[] {31, 31},
+            sfcType);
+    final Random random = new Random(0);
+    entries = new MultiDimensionalNumericData[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      final double x = (random.nextDouble() * (360 - extent)) - 180;
+      final double y = (random.nextDouble() * (180 - extent)) - 90;
+      if (extent <= 0) {
+        entries[i] =
+            new BasicNumericDataset(new NumericData[] {new NumericValue(x), new NumericValue(y)});
+      } else {
+        entries[i] =
+            new BasicNumericDataset(
+                new NumericData[] {
+                    new NumericRange(x, x + extent),
+                    new NumericRange(y, y + extent)});
+      }
+    }
+  }
+
+  @Benchmark
+  public InsertionIds getInsertionIds() {
+    next = (next + 1) % NUM_VALUES;
+    return strategy.getInsertionIds(entries[next]);
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.benchmarks.store;
+
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+
+/**
+ * A simple data type used by the store benchmarks so that they do not depend on any particular
+ * adapter implementation.
+ */
+@GeoWaveDataType
+public class BenchmarkEntry {
+  public static final String TYPE_NAME = "benchmark";
+  public static final String VALUE_FIELD = "value";
+  public static final String NAME_FIELD = "name";
+
+  @GeoWaveField
+  private String id;
+
+  @GeoWaveField
+  private Double value;
+
+  @GeoWaveField
+  private Integer count;
+
+  @GeoWaveField
+  private String name;
+
+  public BenchmarkEntry() {}
+
+  public BenchmarkEntry(
+      final String id,
+      final Double value,
+      final Integer count,
+      final String name) {
+    this.id = id;
+    this.value = value;
+    this.count = count;
+    this.name = name;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Double getValue() {
+    return value;
+  }
+
+  public Integer getCount() {
+    return count;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public static BenchmarkEntry create(final int i) {
+    // spread values evenly over [0, 1) so that range queries have a predictable selectivity
+    return new BenchmarkEntry(
+        "entry" + i,
+        ((i * 0.618033988749895) % 1.0),
+        i,
+        ((i % 2) == 0) ? "alpha" + i : "beta" + i);
+  }
+
+  public static DataTypeAdapter<BenchmarkEntry> createAdapter() {
+    return BasicDataTypeAdapter.newAdapter(TYPE_NAME, BenchmarkEntry.class, "id");
+  }
+
+  public static Index createValueIndex(final DataTypeAdapter<BenchmarkEntry> adapter) {
+    return AttributeDimensionalityTypeProvider.createIndexForDescriptor(
+        adapter,
+        adapter.getFieldDescriptor(VALUE_FIELD),
+        null);
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.benchmarks.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.StoreFactoryOptions;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.DataStoreFactory;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full ingest and query round trip through the public DataStore API, covering adapter
+ * encoding, index writes, statistics, query planning, scanning, filtering and decoding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class DataStoreRoundTripBenchmark {
+  @Param({"memory", "rocksdb"})
+  public String storeType;
+
+  @Param({"10000"})
+  public int numEntries;
+
+  private DataStore dataStore;
+  private File directory;
+
+  @Setup(Level.Invocation)
+  public void setup() throws IOException {
+    StoreFactoryOptions options;
+    if ("rocksdb".equals(storeType)) {
+      directory = Files.createTempDirectory("geowave-benchmark").toFile();
+      final RocksDBOptions rocksDBOptions = new RocksDBOptions();
+      rocksDBOptions.setDirectory(directory.getAbsolutePath());
+      options = rocksDBOptions;
+    } else {
+      options = new MemoryRequiredOptions();
+    }
+    options.setGeoWaveNamespace("benchmark_" + System.nanoTime());
+    dataStore = DataStoreFactory.createDataStore(options);
+    final DataTypeAdapter<BenchmarkEntry> adapter = BenchmarkEntry.createAdapter();
+    dataStore.addType(adapter, BenchmarkEntry.createValueIndex(adapter));
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDown() throws IOException {
+    dataStore.deleteAll();
+    if (directory != null) {
+      try (Stream<Path> paths = Files.walk(directory.toPath())) {
+        paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+      directory = null;
+    }
+  }
+
+  @Benchmark
+  public long ingestAndQuery() {
+    try (Writer<BenchmarkEntry> writer = dataStore.createWriter(BenchmarkEntry.TYPE_NAME)) {
+      for (int i = 0; i < numEntries; i++) {
+        writer.write(BenchmarkEntry.create(i));
+      }
+    }
+    long count = 0;
+    try (CloseableIterator<BenchmarkEntry> it =
+        dataStore.query(
+            QueryBuilder.newBuilder(BenchmarkEntry.class).addTypeName(
+                BenchmarkEntry.TYPE_NAME).filter(
+                    NumericFieldValue.of(BenchmarkEntry.VALUE_FIELD).isBetween(
+                        0.25,
+                        0.5)).build())) {
+      while (it.hasNext()) {
+        it.next();
+        count++;
+      }
+    }
+    return count;
+  }
+}
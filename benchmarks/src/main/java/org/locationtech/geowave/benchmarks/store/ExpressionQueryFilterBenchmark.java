@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.benchmarks.store;
+
+import java.util.concurrent.TimeUnit;
+import org.locationtech.geowave.core.store.AdapterToIndexMapping;
+import org.locationtech.geowave.core.store.adapter.AdapterPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.base.BaseDataStoreUtils;
+import org.locationtech.geowave.core.store.query.filter.ExpressionQueryFilter;
+import org.locationtech.geowave.core.store.query.filter.expression.Filter;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.core.store.query.filter.expression.text.TextFieldValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures ExpressionQueryFilter.accept, which is evaluated for every candidate row of a query with
+ * a filter expression, both client-side and within server-side iterators.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionQueryFilterBenchmark {
+  private static final int NUM_VALUES = 1024;
+
+  private Index index;
+  private ExpressionQueryFilter<BenchmarkEntry> indexedFieldFilter;
+  private ExpressionQueryFilter<BenchmarkEntry> compoundFilter;
+  private AdapterPersistenceEncoding[] encodings;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    final DataTypeAdapter<BenchmarkEntry> dataAdapter = BenchmarkEntry.createAdapter();
+    final InternalDataAdapter<BenchmarkEntry> adapter = dataAdapter.asInternalAdapter((short) 0);
+    index = BenchmarkEntry.createValueIndex(dataAdapter);
+    final AdapterToIndexMapping indexMapping = BaseDataStoreUtils.mapAdapterToIndex(adapter, index);
+    // only references the indexed field
+    final Filter indexedFilter = NumericFieldValue.of(BenchmarkEntry.VALUE_FIELD).isLessThan(0.5);
+    // also references a field that is not part of the index
+    final Filter filter =
+        indexedFilter.and(TextFieldValue.of(BenchmarkEntry.NAME_FIELD).startsWith("alpha"));
+    indexedFieldFilter = new ExpressionQueryFilter<>(indexedFilter, adapter, indexMapping);
+    compoundFilter = new ExpressionQueryFilter<>(filter, adapter, indexMapping);
+    encodings = new AdapterPersistenceEncoding[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      encodings[i] = adapter.encode(BenchmarkEntry.create(i), indexMapping, index);
+    }
+  }
+
+  @Benchmark
+  public boolean acceptIndexedField() {
+    next = (next + 1) % NUM_VALUES;
+    return indexedFieldFilter.accept(index.getIndexModel(), encodings[next]);
+  }
+
+  @Benchmark
+  public boolean acceptCompound() {
+    next = (next + 1) % NUM_VALUES;
+    return compoundFilter.accept(index.getIndexModel(), encodings[next]);
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.benchmarks.store;
+
+import java.util.concurrent.TimeUnit;
+import org.locationtech.geowave.core.store.AdapterToIndexMapping;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.base.BaseDataStoreUtils;
+import org.locationtech.geowave.core.store.data.visibility.UnconstrainedVisibilityHandler;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the conversion of an entry into GeoWave rows (BaseDataStoreUtils.getWriteInfo), which is
+ * the per-entry encoding cost of every writer regardless of the backing store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WriteInfoBenchmark {
+  private static final int NUM_VALUES = 1024;
+
+  private InternalDataAdapter<BenchmarkEntry> adapter;
+  private AdapterToIndexMapping indexMapping;
+  private Index index;
+  private final UnconstrainedVisibilityHandler visibilityHandler =
+      new UnconstrainedVisibilityHandler();
+  private BenchmarkEntry[] entries;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    final DataTypeAdapter<BenchmarkEntry> dataAdapter = BenchmarkEntry.createAdapter();
+    adapter = dataAdapter.asInternalAdapter((short) 0);
+    index = BenchmarkEntry.createValueIndex(dataAdapter);
+    indexMapping = BaseDataStoreUtils.mapAdapterToIndex(adapter, index);
+    entries = new BenchmarkEntry[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      entries[i] = BenchmarkEntry.create(i);
+    }
+  }
+
+  @Benchmark
+  public GeoWaveRow[] getWriteInfo() {
+    next = (next + 1) % NUM_VALUES;
+    return BaseDataStoreUtils.getGeoWaveRows(
+        entries[next],
+        adapter,
+        indexMapping,
+        index,
+        visibilityHandler);
+  }
+}
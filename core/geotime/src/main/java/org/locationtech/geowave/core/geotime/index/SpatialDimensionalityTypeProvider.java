@@ -22,6 +22,7 @@ import org.locationtech.geowave.core.geotime.store.dimension.CustomCRSUnboundedS
 import org.locationtech.geowave.core.geotime.store.dimension.CustomCrsIndexModel;
 import org.locationtech.geowave.core.geotime.store.dimension.LatitudeField;
 import org.locationtech.geowave.core.geotime.store.dimension.LongitudeField;
+import org.locationtech.geowave.core.geotime.store.dimension.SpatialField;
 import org.locationtech.geowave.core.geotime.store.dimension.TimeField;
 import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.core.geotime.util.SpatialIndexUtils;
@@ -33,6 +34,7 @@ import org.locationtech.geowave.core.store.api.DataStore;
 import org.locationtech.geowave.core.store.api.Index;
 import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
 import org.locationtech.geowave.core.store.index.BasicIndexModel;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
 import org.locationtech.geowave.core.store.index.CustomNameIndex;
 import org.locationtech.geowave.core.store.spi.DimensionalityTypeProviderSpi;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
@@ -203,6 +205,9 @@ public class SpatialDimensionalityTypeProvider implements
 
       indexModel = new CustomCrsIndexModel(options.storeTime ? fields_temporal : fields, crsCode);
     }
+    if (options.isEnvelopePrefix()) {
+      setEnvelopePrefix(indexModel, true);
+    }
 
     return new CustomNameIndex(
         XZHierarchicalIndexFactory.createFullIncrementalTieredStrategy(
@@ -223,6 +228,22 @@ public class SpatialDimensionalityTypeProvider implements
                 + crsCode.substring(crsCode.indexOf(":") + 1));
   }
 
+  /**
+   * Sets whether the spatial fields of an index model prefix geometries with their envelope.
+   *
+   * @param indexModel the index model
+   * @param envelopePrefix whether to prefix geometries with their envelope
+   */
+  public static void setEnvelopePrefix(
+      final CommonIndexModel indexModel,
+      final boolean envelopePrefix) {
+    for (final NumericDimensionField<?> field : indexModel.getDimensions()) {
+      if (field instanceof SpatialField) {
+        ((SpatialField) field).setEnvelopePrefix(envelopePrefix);
+      }
+    }
+  }
+
   private static boolean isUnbounded(final CoordinateSystemAxis csa) {
     final double min = csa.getMinimumValue();
     final double max = csa.getMaximumValue();
@@ -164,6 +164,9 @@ public class SpatialTemporalDimensionalityTypeProvider implements
     } else {
       indexModel = new CustomCrsIndexModel(fields, crsCode);
     }
+    if (options.isEnvelopePrefix()) {
+      SpatialDimensionalityTypeProvider.setEnvelopePrefix(indexModel, true);
+    }
 
     String combinedArrayID;
     if (isDefaultCRS) {
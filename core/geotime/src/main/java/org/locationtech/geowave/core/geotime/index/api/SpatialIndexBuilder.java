@@ -32,6 +32,11 @@ public class SpatialIndexBuilder extends BaseIndexBuilder<SpatialIndexBuilder> {
     return this;
   }
 
+  public SpatialIndexBuilder setEnvelopePrefix(final boolean envelopePrefix) {
+    options.setEnvelopePrefix(envelopePrefix);
+    return this;
+  }
+
   public SpatialIndexBuilder setCrs(final String crs) {
     options.setCrs(crs);
     return this;
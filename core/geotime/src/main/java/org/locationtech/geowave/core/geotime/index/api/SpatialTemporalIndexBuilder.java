@@ -37,6 +37,11 @@ public class SpatialTemporalIndexBuilder extends BaseIndexBuilder<SpatialTempora
     return this;
   }
 
+  public SpatialTemporalIndexBuilder setEnvelopePrefix(final boolean envelopePrefix) {
+    options.setEnvelopePrefix(envelopePrefix);
+    return this;
+  }
+
   public SpatialTemporalIndexBuilder setCrs(final String crs) {
     options.setCrs(crs);
     return this;
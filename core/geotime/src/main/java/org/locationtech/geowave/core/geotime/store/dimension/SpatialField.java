@@ -42,7 +42,11 @@ public abstract class SpatialField implements NumericDimensionField<Geometry> {
   protected NumericDimensionDefinition baseDefinition;
   private FieldReader<Geometry> geometryReader;
   private FieldWriter<Geometry> geometryWriter;
+  // written before the CRS when geometries are prefixed with their envelope, an SRS never starts
+  // with this byte so fields persisted without the flag can still be read
+  private static final byte ENVELOPE_PREFIX_FLAG = 0;
   private Integer geometryPrecision;
+  private boolean envelopePrefix = false;
   private CoordinateReferenceSystem crs = GeometryUtils.getDefaultCRS();
 
   protected SpatialField() {
@@ -82,6 +86,25 @@ public abstract class SpatialField implements NumericDimensionField<Geometry> {
     return geometryPrecision;
   }
 
+  public boolean isEnvelopePrefix() {
+    return envelopePrefix;
+  }
+
+  /**
+   * Sets whether geometries are written with a fixed-width envelope prefix, which allows spatial
+   * filters to reject geometries by their envelope without decoding them. Geometries are read
+   * correctly regardless of this setting.
+   *
+   * @param envelopePrefix whether to prefix geometries with their envelope
+   */
+  public void setEnvelopePrefix(final boolean envelopePrefix) {
+    this.envelopePrefix = envelopePrefix;
+    final GeometrySerializationProvider serialization =
+        new GeometrySerializationProvider(geometryPrecision, envelopePrefix);
+    geometryReader = serialization.getFieldReader();
+    geometryWriter = serialization.getFieldWriter();
+  }
+
   @Override
   public IndexFieldOptions getIndexFieldOptions() {
     return new SpatialIndexFieldOptions(crs);
@@ -161,6 +184,7 @@ public abstract class SpatialField implements NumericDimensionField<Geometry> {
             VarintUtils.unsignedShortByteLength((short) dimensionBinary.length)
                 + dimensionBinary.length
                 + 1
+                + (envelopePrefix ? 1 : 0)
                 + crsBinary.length);
     VarintUtils.writeUnsignedShort((short) dimensionBinary.length, buf);
     buf.put(dimensionBinary);
@@ -169,6 +193,9 @@ public abstract class SpatialField implements NumericDimensionField<Geometry> {
     } else {
       buf.put((byte) geometryPrecision.intValue());
     }
+    if (envelopePrefix) {
+      buf.put(ENVELOPE_PREFIX_FLAG);
+    }
     buf.put(crsBinary);
     return buf.array();
   }
@@ -185,8 +212,12 @@ public abstract class SpatialField implements NumericDimensionField<Geometry> {
     } else {
       geometryPrecision = Integer.valueOf(precision);
     }
+    envelopePrefix = buf.hasRemaining() && (buf.get(buf.position()) == ENVELOPE_PREFIX_FLAG);
+    if (envelopePrefix) {
+      buf.get();
+    }
     final GeometrySerializationProvider serialization =
-        new GeometrySerializationProvider(geometryPrecision);
+        new GeometrySerializationProvider(geometryPrecision, envelopePrefix);
     geometryReader = serialization.getFieldReader();
     geometryWriter = serialization.getFieldWriter();
     final byte[] crsBinary = new byte[buf.remaining()];
@@ -207,6 +238,7 @@ public abstract class SpatialField implements NumericDimensionField<Geometry> {
     result = (prime * result) + ((className == null) ? 0 : className.hashCode());
     result = (prime * result) + ((baseDefinition == null) ? 0 : baseDefinition.hashCode());
     result = (prime * result) + ((geometryPrecision == null) ? 0 : geometryPrecision.hashCode());
+    result = (prime * result) + (envelopePrefix ? 1231 : 1237);
     return result;
   }
 
@@ -236,6 +268,9 @@ public abstract class SpatialField implements NumericDimensionField<Geometry> {
     } else if (!geometryPrecision.equals(other.geometryPrecision)) {
       return false;
     }
+    if (envelopePrefix != other.envelopePrefix) {
+      return false;
+    }
     return true;
   }
 
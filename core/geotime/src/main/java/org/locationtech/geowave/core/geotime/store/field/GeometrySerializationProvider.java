@@ -9,6 +9,7 @@
 package org.locationtech.geowave.core.geotime.store.field;
 
 import javax.annotation.Nullable;
+import org.locationtech.geowave.core.geotime.util.EnvelopeGeometryUtils;
 import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.core.store.data.field.FieldReader;
 import org.locationtech.geowave.core.store.data.field.FieldSerializationProviderSpi;
@@ -18,6 +19,7 @@ import org.locationtech.jts.geom.Geometry;
 
 public class GeometrySerializationProvider implements FieldSerializationProviderSpi<Geometry> {
   private Integer geometryPrecision;
+  private boolean envelopePrefix = false;
 
   public GeometrySerializationProvider() {
     geometryPrecision = GeometryUtils.MAX_GEOMETRY_PRECISION;
@@ -28,6 +30,18 @@ public class GeometrySerializationProvider implements FieldSerializationProvider
     this.geometryPrecision = geometryPrecision;
   }
 
+  /**
+   * @param geometryPrecision the precision of the geometry, or null for full precision
+   * @param envelopePrefix whether to prefix the geometry with its envelope when writing, see
+   *        {@link EnvelopeGeometryUtils}
+   */
+  public GeometrySerializationProvider(
+      @Nullable final Integer geometryPrecision,
+      final boolean envelopePrefix) {
+    this(geometryPrecision);
+    this.envelopePrefix = envelopePrefix;
+  }
+
   @Override
   public FieldReader<Geometry> getFieldReader() {
     return new GeometryReader(geometryPrecision);
@@ -35,7 +49,7 @@ public class GeometrySerializationProvider implements FieldSerializationProvider
 
   @Override
   public FieldWriter<Geometry> getFieldWriter() {
-    return new GeometryWriter(geometryPrecision);
+    return new GeometryWriter(geometryPrecision, envelopePrefix);
   }
 
   protected static class GeometryReader implements FieldReader<Geometry> {
@@ -58,6 +72,9 @@ public class GeometrySerializationProvider implements FieldSerializationProvider
       if ((fieldData == null) || (fieldData.length < 1)) {
         return null;
       }
+      if (EnvelopeGeometryUtils.hasEnvelope(fieldData)) {
+        return EnvelopeGeometryUtils.geometryFromBinary(fieldData, geometryPrecision);
+      }
       return GeometryUtils.geometryFromBinary(
           fieldData,
           geometryPrecision,
@@ -69,12 +86,22 @@ public class GeometrySerializationProvider implements FieldSerializationProvider
       if ((fieldData == null) || (fieldData.length < 1)) {
         return null;
       }
+      if (EnvelopeGeometryUtils.hasEnvelope(fieldData)) {
+        return EnvelopeGeometryUtils.geometryFromBinary(fieldData, geometryPrecision);
+      }
       return GeometryUtils.geometryFromBinary(fieldData, geometryPrecision, serializationVersion);
     }
+
+    @Override
+    public boolean isDeferrable(final byte[] fieldData) {
+      // the envelope can be tested before the geometry is decoded
+      return EnvelopeGeometryUtils.hasEnvelope(fieldData);
+    }
   }
 
   protected static class GeometryWriter implements FieldWriter<Geometry> {
     private Integer geometryPrecision;
+    private boolean envelopePrefix = false;
 
     public GeometryWriter() {
       geometryPrecision = GeometryUtils.MAX_GEOMETRY_PRECISION;
@@ -84,6 +111,11 @@ public class GeometrySerializationProvider implements FieldSerializationProvider
       this.geometryPrecision = geometryPrecision;
     }
 
+    public GeometryWriter(@Nullable final Integer geometryPrecision, final boolean envelopePrefix) {
+      this.geometryPrecision = geometryPrecision;
+      this.envelopePrefix = envelopePrefix;
+    }
+
     public void setPrecision(@Nullable final Integer geometryPrecision) {
       this.geometryPrecision = geometryPrecision;
     }
@@ -93,6 +125,9 @@ public class GeometrySerializationProvider implements FieldSerializationProvider
       if (fieldValue == null) {
         return new byte[] {};
       }
+      if (envelopePrefix) {
+        return EnvelopeGeometryUtils.geometryToBinary(fieldValue, geometryPrecision);
+      }
       return GeometryUtils.geometryToBinary(fieldValue, geometryPrecision);
     }
   }
@@ -14,6 +14,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.locationtech.geowave.core.geotime.util.EnvelopeGeometryUtils;
 import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.index.StringUtils;
@@ -22,9 +23,11 @@ import org.locationtech.geowave.core.index.numeric.BasicNumericDataset;
 import org.locationtech.geowave.core.index.numeric.MultiDimensionalNumericData;
 import org.locationtech.geowave.core.index.numeric.NumericData;
 import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.data.PersistentDataset;
 import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
 import org.locationtech.geowave.core.store.query.filter.BasicQueryFilter;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.prep.PreparedGeometry;
 import com.google.common.collect.Interner;
@@ -37,6 +40,7 @@ import com.google.common.collect.Interners;
 public class SpatialQueryFilter extends BasicQueryFilter {
   private static final Interner<GeometryImage> geometryImageInterner = Interners.newWeakInterner();
   private GeometryImage preparedGeometryImage;
+  private Envelope queryEnvelope = null;
 
   protected interface SpatialQueryCompareOp {
     public boolean compare(final Geometry dataGeometry, final PreparedGeometry constraintGeometry);
@@ -261,8 +265,13 @@ public class SpatialQueryFilter extends BasicQueryFilter {
     // we can actually get the geometry for the data and test the
     // intersection of the query geometry with that
     boolean geometryPasses = false;
+    final PersistentDataset<?> commonData = persistenceEncoding.getCommonData();
     for (final String fieldName : geometryFieldNames) {
-      final Object geomObj = persistenceEncoding.getCommonData().getValue(fieldName);
+      if (!envelopePasses(commonData.getUnreadValue(fieldName))) {
+        // the geometry was rejected by its envelope without decoding it
+        continue;
+      }
+      final Object geomObj = commonData.getValue(fieldName);
       if (persistenceEncoding.isAsync()) {
         return false;
       }
@@ -286,6 +295,18 @@ public class SpatialQueryFilter extends BasicQueryFilter {
     return super.accept(indexModel, persistenceEncoding);
   }
 
+  private boolean envelopePasses(final byte[] geometryBinary) {
+    if ((compareOperation == CompareOperation.DISJOINT)
+        || !EnvelopeGeometryUtils.hasEnvelope(geometryBinary)) {
+      return true;
+    }
+    // every other comparison requires the envelopes to intersect
+    if (queryEnvelope == null) {
+      queryEnvelope = preparedGeometryImage.preparedGeometry.getGeometry().getEnvelopeInternal();
+    }
+    return EnvelopeGeometryUtils.envelopeIntersects(geometryBinary, queryEnvelope);
+  }
+
   private boolean geometryPasses(final Geometry dataGeometry) {
     if (dataGeometry == null) {
       return false;
@@ -337,6 +358,7 @@ public class SpatialQueryFilter extends BasicQueryFilter {
     final byte[] theRest = new byte[buf.remaining()];
     buf.get(theRest);
     preparedGeometryImage = geometryImageInterner.intern(new GeometryImage(geometryBinary));
+    queryEnvelope = null;
     // build the the PreparedGeometry and underling Geometry if not
     // reconstituted yet; most likely occurs if this thread constructed the
     // image.
@@ -10,11 +10,13 @@ package org.locationtech.geowave.core.geotime.store.query.gwql;
 
 import java.util.Calendar;
 import java.util.Date;
+import org.locationtech.geowave.core.geotime.binning.SpatialBinningType;
 import org.locationtech.geowave.core.geotime.store.query.filter.expression.spatial.SpatialFieldValue;
 import org.locationtech.geowave.core.geotime.store.query.filter.expression.temporal.TemporalFieldValue;
 import org.locationtech.geowave.core.store.query.gwql.CastableType;
 import org.locationtech.geowave.core.store.query.gwql.GWQLExtensionRegistrySpi;
 import org.locationtech.geowave.core.store.query.gwql.function.aggregation.AggregationFunction;
+import org.locationtech.geowave.core.store.query.gwql.function.binning.BinningFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.expression.ExpressionFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.operator.OperatorFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.predicate.PredicateFunction;
@@ -31,6 +33,14 @@ public class GWQLSpatialTemporalExtensions implements GWQLExtensionRegistrySpi {
     return new AggregationFunction<?>[] {new BboxFunction()};
   }
 
+  @Override
+  public BinningFunction<?>[] getBinningFunctions() {
+    return new BinningFunction<?>[] {
+        new SpatialBinningFunction(SpatialBinningType.GEOHASH),
+        new SpatialBinningFunction(SpatialBinningType.H3),
+        new SpatialBinningFunction(SpatialBinningType.S2)};
+  }
+
   @Override
   public PredicateFunction[] getPredicateFunctions() {
     return new PredicateFunction[] {
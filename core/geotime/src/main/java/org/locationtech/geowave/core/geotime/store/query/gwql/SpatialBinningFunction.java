@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.gwql;
+
+import org.locationtech.geowave.core.geotime.binning.SpatialBinningType;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.SpatialFieldBinningStrategy;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.store.adapter.FieldDescriptor;
+import org.locationtech.geowave.core.store.api.BinningStrategy;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.query.gwql.function.binning.BinningFunction;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Binning function that groups entries by the spatial bin (GeoHash, H3 or S2 cell) of the centroid
+ * of a geometry column. The function accepts the geometry column name and the precision of the
+ * bins, for example `GEOHASH(geom, 5)`, and the bin is represented by its cell identifier.
+ */
+public class SpatialBinningFunction implements BinningFunction<String> {
+
+  private final SpatialBinningType type;
+
+  public SpatialBinningFunction(final SpatialBinningType type) {
+    this.type = type;
+  }
+
+  @Override
+  public String getName() {
+    return type.name();
+  }
+
+  @Override
+  public Class<String> getReturnType() {
+    return String.class;
+  }
+
+  @Override
+  public <T> BinningStrategy getBinningStrategy(
+      final DataTypeAdapter<T> adapter,
+      final String[] functionArgs) {
+    if ((functionArgs == null) || (functionArgs.length != 2)) {
+      throw new RuntimeException(getName() + " takes exactly 2 parameters");
+    }
+    final FieldDescriptor<?> descriptor = adapter.getFieldDescriptor(functionArgs[0]);
+    if (descriptor == null) {
+      throw new RuntimeException(
+          "No attribute called '" + functionArgs[0] + "' was found in the given type.");
+    }
+    if (!Geometry.class.isAssignableFrom(descriptor.bindingClass())) {
+      throw new RuntimeException(
+          getName()
+              + " binning only works on geometry fields, given field was of type "
+              + descriptor.bindingClass().getName()
+              + ".");
+    }
+    final int precision;
+    try {
+      precision = Integer.parseInt(functionArgs[1]);
+    } catch (final NumberFormatException e) {
+      throw new RuntimeException(getName() + " precision must be an integer.");
+    }
+    // a single bin per entry is used so that each entry is only counted in one group
+    return new SpatialFieldBinningStrategy<>(type, precision, true, functionArgs[0]);
+  }
+
+  @Override
+  public String getBinValue(final BinningStrategy binningStrategy, final ByteArray bin) {
+    return type.binToString(bin.getBytes());
+  }
+}
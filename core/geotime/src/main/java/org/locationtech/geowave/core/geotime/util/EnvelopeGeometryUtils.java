@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.locationtech.geowave.core.index.GeoWaveSerializationException;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+
+/**
+ * Utility methods for a geometry encoding that prefixes the geometry binary with a fixed-width
+ * envelope. The envelope can be tested against query bounds directly on the binary, so that only
+ * geometries that pass the test need to be decoded.
+ *
+ * <p> The encoding consists of a marker byte, followed by the minimum x, minimum y, maximum x and
+ * maximum y of the envelope as doubles, followed by the geometry binary as written by
+ * {@link GeometryUtils#geometryToBinary(Geometry, Integer)}. The marker byte is never the first
+ * byte of a WKB or TWKB geometry, so the encoding can be detected when it is read.
+ */
+public class EnvelopeGeometryUtils {
+  public static final byte ENVELOPE_MARKER = (byte) 0xE0;
+  private static final int ENVELOPE_LENGTH = 1 + (4 * Double.BYTES);
+
+  /**
+   * Converts a JTS geometry to binary with an envelope prefix.
+   *
+   * @param geometry The JTS geometry
+   * @param precision The precision of the geometry binary, or null for full precision
+   * @return The binary representation of the geometry
+   */
+  public static byte[] geometryToBinary(
+      final Geometry geometry,
+      final @Nullable Integer precision) {
+    final byte[] geometryBinary = GeometryUtils.geometryToBinary(geometry, precision);
+    final Envelope envelope = geometry.getEnvelopeInternal();
+    final ByteBuffer buffer = ByteBuffer.allocate(ENVELOPE_LENGTH + geometryBinary.length);
+    buffer.put(ENVELOPE_MARKER);
+    if (envelope.isNull()) {
+      buffer.putDouble(Double.NaN);
+      buffer.putDouble(Double.NaN);
+      buffer.putDouble(Double.NaN);
+      buffer.putDouble(Double.NaN);
+    } else {
+      // coordinates are rounded to the precision when encoded, so the envelope is grown by one
+      // unit of precision to always contain the decoded geometry
+      final double tolerance = precision == null ? 0 : Math.pow(10, -precision);
+      buffer.putDouble(envelope.getMinX() - tolerance);
+      buffer.putDouble(envelope.getMinY() - tolerance);
+      buffer.putDouble(envelope.getMaxX() + tolerance);
+      buffer.putDouble(envelope.getMaxY() + tolerance);
+    }
+    buffer.put(geometryBinary);
+    return buffer.array();
+  }
+
+  /**
+   * Converts binary with an envelope prefix to a JTS geometry.
+   *
+   * @param binary The binary representation of the geometry
+   * @param precision The precision of the geometry binary, or null for full precision
+   * @return The JTS geometry
+   */
+  public static Geometry geometryFromBinary(
+      final byte[] binary,
+      final @Nullable Integer precision) {
+    try {
+      if (precision == null) {
+        return new WKBReader().read(Arrays.copyOfRange(binary, ENVELOPE_LENGTH, binary.length));
+      }
+      // TWKB coordinates are decoded directly from the buffer without copying the binary
+      return new TWKBReader().read(
+          ByteBuffer.wrap(binary, ENVELOPE_LENGTH, binary.length - ENVELOPE_LENGTH));
+    } catch (final ParseException e) {
+      throw new GeoWaveSerializationException("Unable to deserialize geometry data", e);
+    }
+  }
+
+  /**
+   * @param binary The binary representation of a geometry
+   * @return true if the binary is prefixed with an envelope
+   */
+  public static boolean hasEnvelope(final byte[] binary) {
+    return (binary != null) && (binary.length > ENVELOPE_LENGTH) && (binary[0] == ENVELOPE_MARKER);
+  }
+
+  /**
+   * Reads the envelope from binary with an envelope prefix without decoding the geometry.
+   *
+   * @param binary The binary representation of the geometry
+   * @return The envelope of the geometry, a null envelope if the geometry is empty
+   */
+  public static Envelope getEnvelope(final byte[] binary) {
+    final ByteBuffer buffer = ByteBuffer.wrap(binary);
+    final double minX = buffer.getDouble(1);
+    if (Double.isNaN(minX)) {
+      return new Envelope();
+    }
+    return new Envelope(
+        minX,
+        buffer.getDouble(1 + (2 * Double.BYTES)),
+        buffer.getDouble(1 + Double.BYTES),
+        buffer.getDouble(1 + (3 * Double.BYTES)));
+  }
+
+  /**
+   * Tests whether the envelope of binary with an envelope prefix intersects the given envelope
+   * without decoding the geometry.
+   *
+   * @param binary The binary representation of the geometry
+   * @param envelope The envelope to test against
+   * @return false if the geometry cannot intersect the envelope
+   */
+  public static boolean envelopeIntersects(final byte[] binary, final Envelope envelope) {
+    final ByteBuffer buffer = ByteBuffer.wrap(binary);
+    final double minX = buffer.getDouble(1);
+    if (Double.isNaN(minX)) {
+      // empty geometries do not intersect anything
+      return false;
+    }
+    return (minX <= envelope.getMaxX())
+        && (buffer.getDouble(1 + Double.BYTES) <= envelope.getMaxY())
+        && (buffer.getDouble(1 + (2 * Double.BYTES)) >= envelope.getMinX())
+        && (buffer.getDouble(1 + (3 * Double.BYTES)) >= envelope.getMinY());
+  }
+}
@@ -9,6 +9,12 @@
 package org.locationtech.geowave.core.geotime.index.sfc.hilbert;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Assert;
 import org.junit.Test;
 import org.locationtech.geowave.core.geotime.index.dimension.LatitudeDefinition;
@@ -179,5 +185,47 @@ public class HilbertSFCTest {
     Assert.assertEquals(20, rangeDecomposition.getRanges().length);
   }
 
+  @Test
+  public void testGetId_2DSpatialConcurrent() throws Exception {
+
+    final int LATITUDE_BITS = 31;
+    final int LONGITUDE_BITS = 31;
+
+    final SFCDimensionDefinition[] SPATIAL_DIMENSIONS =
+        new SFCDimensionDefinition[] {
+            new SFCDimensionDefinition(new LatitudeDefinition(), LATITUDE_BITS),
+            new SFCDimensionDefinition(new LongitudeDefinition(), LONGITUDE_BITS)};
+
+    final SpaceFillingCurve hilbertSFC =
+        SFCFactory.createSpaceFillingCurve(SPATIAL_DIMENSIONS, SFCType.HILBERT);
+    final int numValues = 1000;
+    final Double[][] testValues = new Double[numValues][];
+    final byte[][] expectedIds = new byte[numValues][];
+    for (int i = 0; i < numValues; i++) {
+      testValues[i] = new Double[] {((i * 0.17) % 180) - 90, ((i * 0.31) % 360) - 180};
+      expectedIds[i] = hilbertSFC.getId(testValues[i]);
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < numValues; i++) {
+            if (!Arrays.equals(expectedIds[i], hilbertSFC.getId(testValues[i]))) {
+              return false;
+            }
+            hilbertSFC.getCoordinates(expectedIds[i]);
+          }
+          return true;
+        }));
+      }
+      for (final Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   /* public void testDecomposeQuery_2DSpatialRanges() {} */
 }
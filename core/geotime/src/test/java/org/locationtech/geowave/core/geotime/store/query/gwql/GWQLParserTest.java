@@ -47,6 +47,7 @@ import org.locationtech.geowave.core.store.api.DataStore;
 import org.locationtech.geowave.core.store.api.DataTypeAdapter;
 import org.locationtech.geowave.core.store.query.filter.expression.Filter;
 import org.locationtech.geowave.core.store.query.gwql.AbstractGWQLTest;
+import org.locationtech.geowave.core.store.query.gwql.BinningSelector;
 import org.locationtech.geowave.core.store.query.gwql.parse.GWQLParser;
 import org.locationtech.geowave.core.store.query.gwql.statement.SelectStatement;
 import org.locationtech.geowave.core.store.query.gwql.statement.Statement;
@@ -472,4 +473,23 @@ public class GWQLParserTest extends AbstractGWQLTest {
     assertEquals("geometry", ((SpatialFieldValue) equals.getExpression1()).getFieldName());
     assertTrue(equals.getExpression2() instanceof SpatialLiteral);
   }
+
+  @Test
+  public void testGroupByBinningFunction() {
+    final DataStore dataStore = createDataStore();
+    final String statement = "SELECT COUNT(*) FROM type GROUP BY GEOHASH(geometry, 4) AS cell";
+    final Statement gwStatement = GWQLParser.parseStatement(dataStore, statement);
+    assertTrue(gwStatement instanceof SelectStatement);
+    final SelectStatement<?> selectStatement = (SelectStatement<?>) gwStatement;
+    assertTrue(selectStatement.isAggregation());
+    assertTrue(selectStatement.isGrouped());
+    assertEquals(1, selectStatement.getGroupBy().size());
+    assertTrue(selectStatement.getGroupBy().get(0) instanceof BinningSelector);
+    final BinningSelector selector = (BinningSelector) selectStatement.getGroupBy().get(0);
+    assertEquals("GEOHASH", selector.functionName());
+    assertEquals(2, selector.functionArgs().length);
+    assertEquals("geometry", selector.functionArgs()[0]);
+    assertEquals("4", selector.functionArgs()[1]);
+    assertEquals("cell", selector.alias());
+  }
 }
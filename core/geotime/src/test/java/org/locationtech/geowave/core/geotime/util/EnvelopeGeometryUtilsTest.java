@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.store.field.GeometrySerializationProvider;
+import org.locationtech.geowave.core.store.data.field.FieldReader;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygon;
+
+public class EnvelopeGeometryUtilsTest {
+  private static final Polygon POLYGON =
+      GeometryUtils.GEOMETRY_FACTORY.createPolygon(
+          new Coordinate[] {
+              new Coordinate(10.123456789, 20.5),
+              new Coordinate(12.25, 20.5),
+              new Coordinate(12.25, 24.987654321),
+              new Coordinate(10.123456789, 20.5)});
+
+  @Test
+  public void testRoundTrip() {
+    final byte[] full = EnvelopeGeometryUtils.geometryToBinary(POLYGON, null);
+    assertTrue(EnvelopeGeometryUtils.hasEnvelope(full));
+    assertEquals(POLYGON, EnvelopeGeometryUtils.geometryFromBinary(full, null));
+    assertEquals(POLYGON.getEnvelopeInternal(), EnvelopeGeometryUtils.getEnvelope(full));
+
+    final byte[] reduced = EnvelopeGeometryUtils.geometryToBinary(POLYGON, 3);
+    final Geometry decoded = EnvelopeGeometryUtils.geometryFromBinary(reduced, 3);
+    assertEquals(
+        GeometryUtils.geometryFromBinary(GeometryUtils.geometryToBinary(POLYGON, 3), 3),
+        decoded);
+    // the envelope must contain the geometry after it was rounded to the precision
+    assertTrue(EnvelopeGeometryUtils.getEnvelope(reduced).contains(decoded.getEnvelopeInternal()));
+  }
+
+  @Test
+  public void testEnvelopeIntersects() {
+    final byte[] binary = EnvelopeGeometryUtils.geometryToBinary(POLYGON, 7);
+    assertTrue(EnvelopeGeometryUtils.envelopeIntersects(binary, new Envelope(11, 11.5, 21, 22)));
+    assertTrue(EnvelopeGeometryUtils.envelopeIntersects(binary, new Envelope(0, 10.5, 0, 20.5)));
+    assertFalse(EnvelopeGeometryUtils.envelopeIntersects(binary, new Envelope(0, 10, 0, 30)));
+    assertFalse(EnvelopeGeometryUtils.envelopeIntersects(binary, new Envelope(11, 12, 25, 30)));
+
+    final byte[] empty =
+        EnvelopeGeometryUtils.geometryToBinary(GeometryUtils.GEOMETRY_FACTORY.createPolygon(), 7);
+    assertTrue(EnvelopeGeometryUtils.getEnvelope(empty).isNull());
+    assertFalse(EnvelopeGeometryUtils.envelopeIntersects(empty, new Envelope(-180, 180, -90, 90)));
+  }
+
+  @Test
+  public void testSerializationProvider() {
+    final FieldReader<Geometry> reader = new GeometrySerializationProvider(7).getFieldReader();
+    final byte[] prefixed =
+        new GeometrySerializationProvider(7, true).getFieldWriter().writeField(POLYGON);
+    final byte[] plain = new GeometrySerializationProvider(7).getFieldWriter().writeField(POLYGON);
+    assertTrue(reader.isDeferrable(prefixed));
+    assertFalse(reader.isDeferrable(plain));
+    // geometries are read the same way regardless of the encoding
+    assertEquals(reader.readField(plain), reader.readField(prefixed));
+  }
+}
@@ -98,7 +98,9 @@ public class HilbertSFC implements SpaceFillingCurve {
   private final static Cache<QueryCacheKey, RangeDecomposition> QUERY_DECOMPOSITION_CACHE =
       Caffeine.newBuilder().maximumSize(MAX_CACHED_QUERIES).initialCapacity(
           MAX_CACHED_QUERIES).build();
-  protected CompactHilbertCurve compactHilbertCurve;
+  // the compact hilbert curve keeps mutable scratch state, so rather than serializing all threads
+  // on a single shared instance each thread gets its own confined instance
+  protected ThreadLocal<CompactHilbertCurve> compactHilbertCurve;
   protected SFCDimensionDefinition[] dimensionDefinitions;
   protected int totalPrecision;
 
@@ -124,7 +126,8 @@ public class HilbertSFC implements SpaceFillingCurve {
       totalPrecision += dimension.getBitsOfPrecision();
     }
 
-    compactHilbertCurve = new CompactHilbertCurve(new MultiDimensionalSpec(bitsPerDimension));
+    final MultiDimensionalSpec spec = new MultiDimensionalSpec(bitsPerDimension);
+    compactHilbertCurve = ThreadLocal.withInitial(() -> new CompactHilbertCurve(spec));
 
     dimensionDefinitions = dimensionDefs;
     setOptimalOperations(totalPrecision, bitsPerDimension, dimensionDefs);
@@ -172,7 +175,10 @@ public class HilbertSFC implements SpaceFillingCurve {
   /** * {@inheritDoc} */
   @Override
   public byte[] getId(final Double[] values) {
-    return getIdOperations.convertToHilbert(values, compactHilbertCurve, dimensionDefinitions);
+    return getIdOperations.convertToHilbert(
+        values,
+        compactHilbertCurve.get(),
+        dimensionDefinitions);
   }
 
   /** * {@inheritDoc} */
@@ -202,7 +208,7 @@ public class HilbertSFC implements SpaceFillingCurve {
         key,
         k -> decomposeQueryOperations.decomposeRange(
             query.getDataPerDimension(),
-            compactHilbertCurve,
+            compactHilbertCurve.get(),
             dimensionDefinitions,
             totalPrecision,
             maxRanges,
@@ -298,7 +304,7 @@ public class HilbertSFC implements SpaceFillingCurve {
 
   @Override
   public MultiDimensionalNumericData getRanges(final byte[] id) {
-    return getIdOperations.convertFromHilbert(id, compactHilbertCurve, dimensionDefinitions);
+    return getIdOperations.convertFromHilbert(id, compactHilbertCurve.get(), dimensionDefinitions);
   }
 
   @Override
@@ -312,7 +318,7 @@ public class HilbertSFC implements SpaceFillingCurve {
 
   @Override
   public long[] getCoordinates(final byte[] id) {
-    return getIdOperations.indicesFromHilbert(id, compactHilbertCurve, dimensionDefinitions);
+    return getIdOperations.indicesFromHilbert(id, compactHilbertCurve.get(), dimensionDefinitions);
   }
 
   @Override
@@ -19,7 +19,9 @@ import com.google.uzaygezen.core.CompactHilbertCurve;
  * This interface is used to abstract the details of operations used by the hilbert space filling
  * curve, in particular to enable both primitive-based operations for performance (in cases where
  * the bits of precision can be adequately represented by primitives) and non-primitive based
- * operations for unbounded bits of precision.
+ * operations for unbounded bits of precision. Implementations do not synchronize on the given
+ * compact Hilbert curve, which is mutated by every conversion, so it must be confined to the
+ * calling thread.
  */
 public interface HilbertSFCOperations {
   /**
@@ -69,7 +69,7 @@ public class PrimitiveHilbertSFCOperations implements HilbertSFCOperations {
       final CompactHilbertCurve compactHilbertCurve,
       final SFCDimensionDefinition[] dimensionDefinitions) {
 
-    final List<Long> dimensionValues = new ArrayList<>();
+    final long[] dimensionValues = new long[dimensionDefinitions.length];
 
     // Compare the number of dimensions to the number of values sent in
     if (dimensionDefinitions.length != values.length) {
@@ -84,13 +84,8 @@ public class PrimitiveHilbertSFCOperations implements HilbertSFCOperations {
     // Loop through each value, then normalize the value based on the
     // dimension definition
     for (int i = 0; i < dimensionDefinitions.length; i++) {
-      dimensionValues.add(
-          normalizeDimension(
-              dimensionDefinitions[i],
-              values[i],
-              binsPerDimension[i],
-              false,
-              false));
+      dimensionValues[i] =
+          normalizeDimension(dimensionDefinitions[i], values[i], binsPerDimension[i], false, false);
     }
 
     // Convert the normalized values to a BitVector
@@ -108,22 +103,20 @@ public class PrimitiveHilbertSFCOperations implements HilbertSFCOperations {
    * @return point on hilbert SFC
    */
   private BitVector convertToHilbert(
-      final List<Long> values,
+      final long[] values,
       final CompactHilbertCurve compactHilbertCurve,
       final SFCDimensionDefinition[] dimensionDefinitions) {
-    final BitVector[] bitVectors = new BitVector[values.size()];
+    final BitVector[] bitVectors = new BitVector[values.length];
 
     final BitVector hilbertBitVector =
         BitVectorFactories.OPTIMAL.apply(compactHilbertCurve.getSpec().sumBitsPerDimension());
 
-    for (int i = 0; i < values.size(); i++) {
+    for (int i = 0; i < values.length; i++) {
       bitVectors[i] =
           BitVectorFactories.OPTIMAL.apply(dimensionDefinitions[i].getBitsOfPrecision());
-      bitVectors[i].copyFrom(values.get(i));
-    }
-    synchronized (compactHilbertCurve) {
-      compactHilbertCurve.index(bitVectors, 0, hilbertBitVector);
+      bitVectors[i].copyFrom(values[i]);
     }
+    compactHilbertCurve.index(bitVectors, 0, hilbertBitVector);
     return hilbertBitVector;
   }
 
@@ -186,9 +179,7 @@ public class PrimitiveHilbertSFCOperations implements HilbertSFCOperations {
           BitVectorFactories.OPTIMAL.apply(dimensionDefinitions[i].getBitsOfPrecision());
     }
 
-    synchronized (compactHilbertCurve) {
-      compactHilbertCurve.indexInverse(hilbertBitVector, perDimensionBitVectors);
-    }
+    compactHilbertCurve.indexInverse(hilbertBitVector, perDimensionBitVectors);
     return perDimensionBitVectors;
   }
 
@@ -340,9 +331,7 @@ public class PrimitiveHilbertSFCOperations implements HilbertSFCOperations {
             removeVacuum,
             LongRangeHome.INSTANCE,
             zero);
-    synchronized (compactHilbertCurve) {
-      compactHilbertCurve.accept(new ZoomingSpaceVisitorAdapter(compactHilbertCurve, queryBuilder));
-    }
+    compactHilbertCurve.accept(new ZoomingSpaceVisitorAdapter(compactHilbertCurve, queryBuilder));
     final List<FilteredIndexRange<LongRange, LongRange>> hilbertRanges =
         queryBuilder.get().getFilteredIndexRanges();
 
@@ -121,9 +121,7 @@ public class UnboundedHilbertSFCOperations implements HilbertSFCOperations {
       bitVectors[i].copyFrom(values.get(i));
     }
 
-    synchronized (compactHilbertCurve) {
-      compactHilbertCurve.index(bitVectors, 0, hilbertBitVector);
-    }
+    compactHilbertCurve.index(bitVectors, 0, hilbertBitVector);
 
     return hilbertBitVector;
   }
@@ -322,9 +320,7 @@ public class UnboundedHilbertSFCOperations implements HilbertSFCOperations {
             BigIntegerRangeHome.INSTANCE,
             zero);
 
-    synchronized (compactHilbertCurve) {
-      compactHilbertCurve.accept(new ZoomingSpaceVisitorAdapter(compactHilbertCurve, queryBuilder));
-    }
+    compactHilbertCurve.accept(new ZoomingSpaceVisitorAdapter(compactHilbertCurve, queryBuilder));
 
     // com.google.uzaygezen.core.Query<LongRange, LongRange> hilbertQuery =
     // queryBuilder.get();
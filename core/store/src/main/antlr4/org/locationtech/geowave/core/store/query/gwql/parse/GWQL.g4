@@ -15,11 +15,14 @@ import org.locationtech.geowave.core.store.query.gwql.ErrorListener;
 import org.locationtech.geowave.core.store.query.gwql.GWQLParseHelper;
 import org.locationtech.geowave.core.store.query.gwql.GWQLParseException;
 import org.locationtech.geowave.core.store.query.gwql.AggregationSelector;
+import org.locationtech.geowave.core.store.query.gwql.BinningSelector;
 import org.locationtech.geowave.core.store.query.gwql.ColumnSelector;
+import org.locationtech.geowave.core.store.query.gwql.OrderBy;
 import org.locationtech.geowave.core.store.query.gwql.Selector;
 import org.locationtech.geowave.core.store.query.gwql.statement.Statement;
 import org.locationtech.geowave.core.store.query.gwql.statement.SelectStatement;
 import org.locationtech.geowave.core.store.query.gwql.statement.DeleteStatement;
+import org.locationtech.geowave.core.store.query.gwql.statement.ExplainStatement;
 import org.locationtech.geowave.core.store.query.filter.expression.Filter;
 import org.locationtech.geowave.core.store.query.filter.expression.Predicate;
 import org.locationtech.geowave.core.store.query.filter.expression.Expression;
@@ -70,6 +73,20 @@ statement
  	{
  		$stmt = $deleteStatement.stmt;
  	}
+ 	| explainStatement
+ 	{
+ 		$stmt = $explainStatement.stmt;
+ 	}
+;
+
+explainStatement
+	returns [
+		ExplainStatement stmt
+	]
+	: K_EXPLAIN selectStatement
+	{
+		$stmt = new ExplainStatement(dataStore, $selectStatement.stmt);
+	}
 ;
 
 deleteStatement
@@ -93,14 +110,18 @@ selectStatement
 	locals [
 		Filter f = null,
 		Integer limit = null,
-		List<Selector> selectorList = Lists.newArrayList()
+		List<Selector> selectorList = Lists.newArrayList(),
+		List<Selector> groupByList = Lists.newArrayList(),
+		List<OrderBy> orderByList = Lists.newArrayList()
 	]
  	: K_SELECT selectors[$selectorList]
 	  K_FROM adapterName
 	( K_WHERE filter { $f = $filter.value; })?
+	( K_GROUP K_BY groupBy[$groupByList] )?
+	( K_ORDER K_BY orderBy[$orderByList] )?
 	( K_LIMIT INTEGER { $limit = $INTEGER.int; })?
 	{
-		$stmt = new SelectStatement(dataStore, adapter, $selectorList, $f, $limit);
+		$stmt = new SelectStatement(dataStore, adapter, $selectorList, $f, $groupByList, $orderByList, $limit);
 	}
 ;
  
@@ -146,6 +167,63 @@ aggregate
 	}
 ;
 
+groupBy [List<Selector> groupByList]
+	: g1=groupBySelector { $groupByList.add($g1.sel); } (COMMA gN=groupBySelector { $groupByList.add($gN.sel); } )*
+;
+
+groupBySelector
+	returns [
+		Selector sel
+	]
+	locals [
+		String alias = null,
+		List<String> args = Lists.newArrayList()
+	]
+	: functionName LPAREN a1=binningArg { $args.add($a1.text); } (COMMA aN=binningArg { $args.add($aN.text); } )* RPAREN
+	( K_AS columnAlias { $alias = $columnAlias.text; } )?
+	{
+		$sel = new BinningSelector($functionName.text, $args.toArray(new String[$args.size()]), $alias);
+	}
+	| columnName
+	( K_AS columnAlias { $alias = $columnAlias.text; } )?
+	{
+		$sel = new ColumnSelector($columnName.text, $alias);
+	}
+;
+
+binningArg
+	: columnName
+	| number
+;
+
+orderBy [List<OrderBy> orderByList]
+	: o1=sortKey { $orderByList.add($o1.value); } (COMMA oN=sortKey { $orderByList.add($oN.value); } )*
+;
+
+sortKey
+	returns [
+		OrderBy value
+	]
+	locals [
+		boolean ascending = true
+	]
+	: columnName
+	( K_ASC | K_DESC { $ascending = false; } )?
+	{
+		$value = new OrderBy($columnName.text, $ascending);
+	}
+	| functionName LPAREN functionArg RPAREN
+	( K_ASC | K_DESC { $ascending = false; } )?
+	{
+		$value = GWQLParseHelper.getFunctionSortKey(adapter, $functionName.text, $functionArg.text, $ascending);
+	}
+	| expression
+	( K_ASC | K_DESC { $ascending = false; } )?
+	{
+		$value = new OrderBy($expression.value, $expression.text, $ascending);
+	}
+;
+
 functionArg
 	: '*'
 	| columnName
@@ -161,20 +239,23 @@ adapterName
 	}
 ;
  
+// keywords that are only meaningful in specific clauses (ASC, BY, DESC, GROUP and ORDER) can still
+// be used as identifiers, they are listed as single tokens so that a missing identifier is reported
+// as one token, and ErrorListener reports them as IDENTIFIER
 columnName
-	: IDENTIFIER
+	: IDENTIFIER | K_ASC | K_BY | K_DESC | K_GROUP | K_ORDER
 ;
 
 columnAlias
-	: IDENTIFIER
+	: IDENTIFIER | K_ASC | K_BY | K_DESC | K_GROUP | K_ORDER
 ;
  
 tableName
- 	: IDENTIFIER
+ 	: IDENTIFIER | K_ASC | K_BY | K_DESC | K_GROUP | K_ORDER
 ;
  
 functionName
-	: IDENTIFIER
+	: IDENTIFIER | K_ASC | K_BY | K_DESC | K_GROUP | K_ORDER
 ;
 
 filter
@@ -310,10 +391,16 @@ SEMICOLON: ';';
 
 K_AND : A N D;
 K_AS : A S;
+K_ASC : A S C;
+K_BY : B Y;
 K_DELETE : D E L E T E;
+K_DESC : D E S C;
+K_EXPLAIN : E X P L A I N;
 K_FROM : F R O M;
+K_GROUP : G R O U P;
 K_LIMIT : L I M I T;
 K_OR : O R;
+K_ORDER : O R D E R;
 K_SELECT : S E L E C T;
 K_WHERE : W H E R E;
 K_NOT : N O T;
@@ -17,9 +17,10 @@ import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.store.api.Index;
 import org.locationtech.geowave.core.store.api.IndexFieldMapper;
 import org.locationtech.geowave.core.store.index.IndexStore;
+import org.locationtech.geowave.core.store.server.ServerSideShareable;
 
 /** Meta-data for retaining Adapter to Index association */
-public class AdapterToIndexMapping implements Persistable {
+public class AdapterToIndexMapping implements Persistable, ServerSideShareable {
   private short adapterId;
   private String indexName;
   private List<IndexFieldMapper<?, ?>> fieldMappers;
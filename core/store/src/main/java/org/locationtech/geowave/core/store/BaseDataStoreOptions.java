@@ -11,6 +11,8 @@ package org.locationtech.geowave.core.store;
 import com.beust.jcommander.Parameter;
 
 public class BaseDataStoreOptions implements DataStoreOptions {
+  public static final int DEFAULT_MAX_RANGE_DECOMPOSITION = 2000;
+
   @Parameter(names = "--persistDataStatistics", hidden = true, arity = 1)
   protected boolean persistDataStatistics = true;
 
@@ -26,6 +28,34 @@ public class BaseDataStoreOptions implements DataStoreOptions {
   @Parameter(names = "--enableVisibility", arity = 1)
   protected Boolean configuredEnableVisibility = null;
 
+  @Parameter(
+      names = "--concurrentStatistics",
+      arity = 1,
+      description = "Accumulate statistics in per-thread stripes and flush them in the background, useful when many threads write through the same writer")
+  protected boolean concurrentStatistics = false;
+
+  @Parameter(
+      names = "--dedupeMemoryBudget",
+      description = "The size in MB of the data IDs each query keeps in memory for deduplication before spilling them to disk, 0 keeps all of them in memory")
+  protected int dedupeMemoryBudget = 128;
+
+  @Parameter(
+      names = "--adaptiveRangeDecomposition",
+      arity = 1,
+      description = "Choose the number of ranges of each query from the row range histograms, using the max range decomposition as an upper bound")
+  protected boolean adaptiveRangeDecomposition = false;
+
+  @Parameter(
+      names = "--rangeCost",
+      description = "The cost of scanning a range relative to reading a row, used by adaptive range decomposition, 0 measures it from the queries of the data store")
+  protected int rangeCost = 0;
+
+  @Parameter(
+      names = "--costBasedIndexSelection",
+      arity = 1,
+      description = "Choose among the indices that can answer a query by the cost estimated from their statistics")
+  protected boolean costBasedIndexSelection = false;
+
   @Parameter(names = "--dataIndexBatchSize")
   protected int configuredDataIndexBatchSize = Integer.MIN_VALUE;
 
@@ -54,6 +84,51 @@ public class BaseDataStoreOptions implements DataStoreOptions {
     this.enableSecondaryIndexing = enableSecondaryIndexing;
   }
 
+  @Override
+  public boolean isConcurrentStatistics() {
+    return concurrentStatistics;
+  }
+
+  public void setConcurrentStatistics(final boolean concurrentStatistics) {
+    this.concurrentStatistics = concurrentStatistics;
+  }
+
+  @Override
+  public int getDedupeMemoryBudget() {
+    return dedupeMemoryBudget;
+  }
+
+  public void setDedupeMemoryBudget(final int dedupeMemoryBudget) {
+    this.dedupeMemoryBudget = dedupeMemoryBudget;
+  }
+
+  @Override
+  public boolean isAdaptiveRangeDecomposition() {
+    return adaptiveRangeDecomposition;
+  }
+
+  public void setAdaptiveRangeDecomposition(final boolean adaptiveRangeDecomposition) {
+    this.adaptiveRangeDecomposition = adaptiveRangeDecomposition;
+  }
+
+  @Override
+  public boolean isCostBasedIndexSelection() {
+    return costBasedIndexSelection;
+  }
+
+  public void setCostBasedIndexSelection(final boolean costBasedIndexSelection) {
+    this.costBasedIndexSelection = costBasedIndexSelection;
+  }
+
+  @Override
+  public int getRangeCost() {
+    return rangeCost;
+  }
+
+  public void setRangeCost(final int rangeCost) {
+    this.rangeCost = rangeCost;
+  }
+
   @Override
   public boolean isEnableBlockCache() {
     return enableBlockCache;
@@ -79,7 +154,7 @@ public class BaseDataStoreOptions implements DataStoreOptions {
   }
 
   protected int defaultMaxRangeDecomposition() {
-    return 2000;
+    return DEFAULT_MAX_RANGE_DECOMPOSITION;
   }
 
   protected boolean defaultEnableVisibility() {
@@ -29,5 +29,15 @@ public interface DataStoreOptions {
 
   boolean isSecondaryIndexing();
 
+  boolean isConcurrentStatistics();
+
+  int getDedupeMemoryBudget();
+
+  boolean isAdaptiveRangeDecomposition();
+
+  int getRangeCost();
+
+  boolean isCostBasedIndexSelection();
+
   void setSecondaryIndexing(boolean se);
 }
@@ -34,6 +34,10 @@ import org.locationtech.geowave.core.store.index.NullIndex;
 import org.locationtech.geowave.core.store.index.TextAttributeIndexProvider.AdapterFieldTextIndexEntryConverter;
 import org.locationtech.geowave.core.store.query.aggregate.BinningAggregation;
 import org.locationtech.geowave.core.store.query.aggregate.BinningAggregationOptions;
+import org.locationtech.geowave.core.store.query.aggregate.FieldBinningStrategy;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByBinningStrategy;
+import org.locationtech.geowave.core.store.query.aggregate.TopKAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.TopKAggregationOptions;
 import org.locationtech.geowave.core.store.query.aggregate.CountAggregation;
 import org.locationtech.geowave.core.store.query.aggregate.FieldMinAggregation;
 import org.locationtech.geowave.core.store.query.aggregate.FieldMaxAggregation;
@@ -224,6 +228,10 @@ public class StorePersistableRegistry implements
         new PersistableIdAndConstructor((short) 3003, FieldMaxAggregation::new),
         new PersistableIdAndConstructor((short) 3004, FieldMinAggregation::new),
         new PersistableIdAndConstructor((short) 3005, FieldSumAggregation::new),
-        new PersistableIdAndConstructor((short) 3006, CompositeAggregation::new)};
+        new PersistableIdAndConstructor((short) 3006, CompositeAggregation::new),
+        new PersistableIdAndConstructor((short) 3007, FieldBinningStrategy::new),
+        new PersistableIdAndConstructor((short) 3008, GroupByBinningStrategy::new),
+        new PersistableIdAndConstructor((short) 3009, TopKAggregationOptions::new),
+        new PersistableIdAndConstructor((short) 3010, TopKAggregation::new)};
   }
 }
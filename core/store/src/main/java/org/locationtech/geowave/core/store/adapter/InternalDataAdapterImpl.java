@@ -11,7 +11,6 @@ package org.locationtech.geowave.core.store.adapter;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +29,7 @@ import org.locationtech.geowave.core.store.data.PersistentDataset;
 import org.locationtech.geowave.core.store.data.field.FieldReader;
 import org.locationtech.geowave.core.store.data.field.FieldWriter;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.server.ServerSideShareable;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,20 +44,23 @@ import com.google.common.collect.Maps;
  * if there are multiple ways of encoding/decoding the same type). Otherwise the type matching
  * handlers will simply match any field with the same type as its generic field type.
  *
+ * <p> Once deserialized the internal adapter is only lazily initialized, so it can be shared by
+ * server-side scans when the adapter it wraps can be.
+ *
  * @param <T> The type for the entries handled by this adapter
  */
-public class InternalDataAdapterImpl<T> implements InternalDataAdapter<T> {
+public class InternalDataAdapterImpl<T> implements InternalDataAdapter<T>, ServerSideShareable {
   private static final Logger LOGGER = LoggerFactory.getLogger(InternalDataAdapterImpl.class);
 
-  // this is not thread-safe, but should be ok given the only modification is on initialization
-  // which is a synchronized operation
   /** Map of Field Readers associated with a Field ID */
-  private final Map<String, FieldReader<Object>> mapOfFieldNameToReaders = new HashMap<>();
+  private final Map<String, FieldReader<Object>> mapOfFieldNameToReaders =
+      new ConcurrentHashMap<>();
   /** Map of Field Writers associated with a Field ID */
-  private final Map<String, FieldWriter<Object>> mapOfFieldNameToWriters = new HashMap<>();
+  private final Map<String, FieldWriter<Object>> mapOfFieldNameToWriters =
+      new ConcurrentHashMap<>();
   private transient Map<String, Integer> fieldToPositionMap = null;
   private transient Map<Integer, String> positionToFieldMap = null;
-  private transient Map<String, List<String>> modelToDimensionsMap = null;
+  private transient volatile Map<String, List<String>> modelToDimensionsMap = null;
   private transient volatile boolean positionMapsInitialized = false;
   private Object MUTEX = new Object();
   protected DataTypeAdapter<T> adapter;
@@ -221,35 +224,16 @@ public class InternalDataAdapterImpl<T> implements InternalDataAdapter<T> {
 
   @Override
   public FieldReader<Object> getReader(final String fieldName) {
-    FieldReader<Object> reader = mapOfFieldNameToReaders.get(fieldName);
-
-    // Check the map to see if a reader has already been found.
-    if (reader == null) {
-      // Reader not in Map, go to the adapter and get the reader
-      reader = adapter.getReader(fieldName);
-
-      // Add it to map for the next time
-      mapOfFieldNameToReaders.put(fieldName, reader);
-    }
-
-    return reader;
+    // Check the map to see if a reader has already been found, otherwise go to the adapter and get
+    // the reader
+    return mapOfFieldNameToReaders.computeIfAbsent(fieldName, adapter::getReader);
   }
 
   @Override
   public FieldWriter<Object> getWriter(final String fieldName) {
-    // Go to the map to get a writer for given fieldId
-
-    FieldWriter<Object> writer = mapOfFieldNameToWriters.get(fieldName);
-
-    // Check the map to see if a writer has already been found.
-    if (writer == null) {
-      // Writer not in Map, go to the adapter and get the writer
-      writer = adapter.getWriter(fieldName);
-
-      // Add it to map for the next time
-      mapOfFieldNameToWriters.put(fieldName, writer);
-    }
-    return writer;
+    // Check the map to see if a writer has already been found, otherwise go to the adapter and get
+    // the writer
+    return mapOfFieldNameToWriters.computeIfAbsent(fieldName, adapter::getWriter);
   }
 
   @Override
@@ -272,24 +256,20 @@ public class InternalDataAdapterImpl<T> implements InternalDataAdapter<T> {
     return adapter.getDataClass();
   }
 
-  private ThreadLocal<RowBuilder<T>> builder = null;
+  // row builders depend on the index mapping, which differs between indices
+  private final Map<String, ThreadLocal<RowBuilder<T>>> builders = new ConcurrentHashMap<>();
 
   public RowBuilder<T> getRowBuilder(final AdapterToIndexMapping indexMapping) {
-    if (builder == null) {
-      final FieldDescriptor<?>[] outputFieldDescriptors = adapter.getFieldDescriptors();
+    final String indexName = indexMapping == null ? "" : indexMapping.getIndexName();
+    return builders.computeIfAbsent(indexName, k -> {
+      // the mappers replace descriptors in place, so don't let them change the adapter's own
+      final FieldDescriptor<?>[] outputFieldDescriptors = adapter.getFieldDescriptors().clone();
       if (indexMapping != null) {
         indexMapping.getIndexFieldMappers().forEach(
             mapping -> mapping.transformFieldDescriptors(outputFieldDescriptors));
       }
-
-      builder = new ThreadLocal<RowBuilder<T>>() {
-        @Override
-        protected RowBuilder<T> initialValue() {
-          return adapter.newRowBuilder(outputFieldDescriptors);
-        }
-      };
-    }
-    return builder.get();
+      return ThreadLocal.withInitial(() -> adapter.newRowBuilder(outputFieldDescriptors));
+    }).get();
   }
 
   @Override
@@ -184,8 +184,7 @@ public class LazyReadPersistenceEncoding extends IndexedAdapterPersistenceEncodi
           indexFieldReader = indexModel.getReader(fieldName);
         }
         if (indexFieldReader != null) {
-          final Object indexValue = indexFieldReader.readField(fieldInfo.getValue());
-          commonData.addValue(fieldName, indexValue);
+          commonData.addValue(fieldName, fieldInfo.getValue(), indexFieldReader);
         } else {
           final FieldReader<?> extFieldReader = dataAdapter.getReader(fieldName);
           if (extFieldReader != null) {
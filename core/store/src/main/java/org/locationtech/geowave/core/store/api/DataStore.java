@@ -15,6 +15,7 @@ import org.locationtech.geowave.core.index.ByteArray;
 import org.locationtech.geowave.core.index.persist.Persistable;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.query.gwql.ResultSet;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
 import org.locationtech.geowave.core.store.statistics.StatisticType;
 
 /**
@@ -95,6 +96,16 @@ public interface DataStore {
    */
   ResultSet query(final String queryStr, final String... authorizations);
 
+  /**
+   * Explain how a query would be executed without executing it. The plan contains the index that
+   * would be queried for each data type, and the estimated number of rows and duplicates that each
+   * candidate index would scan based on its statistics.
+   *
+   * @param query the query to explain
+   * @return the plan of the query
+   */
+  QueryPlan explain(final Query<?> query);
+
   /**
    * Perform an aggregation on the data and just return the aggregated result. The query criteria is
    * very similar to querying the individual entries except in this case it defines the input to the
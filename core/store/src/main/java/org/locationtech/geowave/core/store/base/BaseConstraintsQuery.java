@@ -11,6 +11,7 @@ package org.locationtech.geowave.core.store.base;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -41,6 +42,9 @@ import org.locationtech.geowave.core.store.query.filter.CoordinateRangeQueryFilt
 import org.locationtech.geowave.core.store.query.filter.DedupeFilter;
 import org.locationtech.geowave.core.store.query.filter.FilterList;
 import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+import org.locationtech.geowave.core.store.query.plan.AdaptiveRangeDecomposer;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimator;
+import org.locationtech.geowave.core.store.query.plan.RangeCostModel;
 import org.locationtech.geowave.core.store.statistics.index.DifferingVisibilityCountStatistic.DifferingVisibilityCountValue;
 import org.locationtech.geowave.core.store.statistics.index.DuplicateEntryCountStatistic.DuplicateEntryCountValue;
 import org.locationtech.geowave.core.store.statistics.index.FieldVisibilityCountStatistic.FieldVisibilityCountValue;
@@ -60,6 +64,10 @@ public class BaseConstraintsQuery extends BaseFilteredIndexQuery {
 
   public final IndexMetaData[] indexMetaData;
   private final Index index;
+  private AdaptiveRangeDecomposer rangeDecomposer = null;
+  private RangeCostModel rangeCostModel = null;
+  private IndexCostEstimator costEstimator = null;
+  private String typeName = null;
 
   public BaseConstraintsQuery(
       final short[] adapterIds,
@@ -133,6 +141,33 @@ public class BaseConstraintsQuery extends BaseFilteredIndexQuery {
     queryFiltersEnabled = true;
   }
 
+  /**
+   * Decompose the constraints of the query adaptively rather than into the maximum number of
+   * ranges.
+   *
+   * @param rangeDecomposer the adaptive range decomposer
+   * @param rangeCostModel the model to record the scans of the query in, or {@code null} if the
+   *        cost of a range is not measured
+   */
+  public void setRangeDecomposer(
+      final AdaptiveRangeDecomposer rangeDecomposer,
+      final @Nullable RangeCostModel rangeCostModel) {
+    this.rangeDecomposer = rangeDecomposer;
+    this.rangeCostModel = rangeCostModel;
+  }
+
+  /**
+   * Use the query ranges that the constraints were decomposed into to estimate the cost of the
+   * index, if they were decomposed the same way this query would decompose them.
+   *
+   * @param costEstimator the cost estimator that chose the index
+   * @param typeName the data type that is queried
+   */
+  public void setCostEstimator(final IndexCostEstimator costEstimator, final String typeName) {
+    this.costEstimator = costEstimator;
+    this.typeName = typeName;
+  }
+
   @Override
   public QueryFilter getServerFilter(final DataStoreOptions options) {
     // TODO GEOWAVE-1018 is options necessary? is this correct?
@@ -328,10 +363,43 @@ public class BaseConstraintsQuery extends BaseFilteredIndexQuery {
     }
   }
 
+  @Override
+  protected <C> RowReader<C> trackReader(final RowReader<C> reader, final QueryRanges queryRanges) {
+    // server side aggregations return too few rows to tell the cost of a range, and the scanned
+    // rows are estimated because the reader only sees the rows left after filtering on the server
+    if ((rangeCostModel != null) && !isAggregation() && (rangeDecomposer.getEstimatedRows() >= 0)) {
+      return rangeCostModel.track(
+          reader,
+          queryRanges,
+          Math.round(rangeDecomposer.getEstimatedRows()));
+    }
+    return reader;
+  }
+
   @Override
   protected QueryRanges getRanges(
       final int maxRangeDecomposition,
       final double[] targetResolutionPerDimensionForHierarchicalIndex) {
+    if (rangeDecomposer != null) {
+      return rangeDecomposer.decompose(
+          constraints,
+          index,
+          targetResolutionPerDimensionForHierarchicalIndex,
+          maxRangeDecomposition,
+          indexMetaData);
+    }
+    if (costEstimator != null) {
+      final QueryRanges queryRanges =
+          costEstimator.getQueryRanges(
+              typeName,
+              index,
+              constraints,
+              maxRangeDecomposition,
+              targetResolutionPerDimensionForHierarchicalIndex);
+      if (queryRanges != null) {
+        return queryRanges;
+      }
+    }
     return DataStoreUtils.constraintsToQueryRanges(
         constraints,
         index,
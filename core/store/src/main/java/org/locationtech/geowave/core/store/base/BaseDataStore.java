@@ -21,6 +21,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.locationtech.geowave.core.index.ByteArray;
@@ -94,6 +95,12 @@ import org.locationtech.geowave.core.store.query.filter.DedupeFilter;
 import org.locationtech.geowave.core.store.query.gwql.ResultSet;
 import org.locationtech.geowave.core.store.query.gwql.parse.GWQLParser;
 import org.locationtech.geowave.core.store.query.gwql.statement.Statement;
+import org.locationtech.geowave.core.store.query.plan.AdaptiveRangeDecomposer;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimate;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimator;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan.Selection;
+import org.locationtech.geowave.core.store.query.plan.RangeCostModel;
 import org.locationtech.geowave.core.store.statistics.DataStatisticsStore;
 import org.locationtech.geowave.core.store.statistics.DefaultStatisticsProvider;
 import org.locationtech.geowave.core.store.statistics.InternalStatisticsHelper;
@@ -128,6 +135,7 @@ public class BaseDataStore implements DataStore {
   protected final DataStoreOptions baseOptions;
   protected final InternalAdapterStore internalAdapterStore;
   protected final PropertyStore propertyStore;
+  private final RangeCostModel rangeCostModel = new RangeCostModel(IndexCostEstimate.RANGE_COST);
 
   protected enum DeletionMode {
     DONT_DELETE, DELETE, DELETE_WITH_DUPLICATES;
@@ -305,6 +313,37 @@ public class BaseDataStore implements DataStore {
     return statement.execute(authorizations);
   }
 
+  @Override
+  public QueryPlan explain(final Query<?> query) {
+    final BaseQueryOptions queryOptions =
+        new BaseQueryOptions(query, adapterStore, internalAdapterStore);
+    final QueryConstraints constraints =
+        (query.getQueryConstraints() == null) ? new EverythingQuery() : query.getQueryConstraints();
+    final QueryPlan plan = new QueryPlan();
+    if (baseOptions.isSecondaryIndexing()
+        && ((constraints instanceof DataIdQuery)
+            || (constraints instanceof DataIdRangeQuery)
+            || (constraints instanceof EverythingQuery))) {
+      for (final InternalDataAdapter<?> adapter : queryOptions.getAdaptersArray(adapterStore)) {
+        plan.select(
+            adapter.getTypeName(),
+            DataIndexUtils.DATA_ID_INDEX.getName(),
+            Selection.DATA_INDEX);
+      }
+      return plan;
+    }
+    queryOptions.getBestQueryIndices(
+        new MemoryPersistentAdapterStore(queryOptions.getAdaptersArray(adapterStore)),
+        indexMappingStore,
+        indexStore,
+        statisticsStore,
+        constraints,
+        createCostEstimator(queryOptions),
+        baseOptions.isCostBasedIndexSelection(),
+        plan);
+    return plan;
+  }
+
   protected <T> CloseableIterator<T> internalQuery(
       final Query<T> query,
       final DeletionMode delete) {
@@ -371,6 +410,7 @@ public class BaseDataStore implements DataStore {
     final QueryConstraints sanitizedConstraints =
         (constraints == null) ? new EverythingQuery() : constraints;
     final List<DataStoreCallbackManager> deleteCallbacks = new ArrayList<>();
+    final List<DedupeFilter> dedupeFilters = new ArrayList<>();
     final Map<Short, Set<ByteArray>> dataIdsToDelete;
     if (DeletionMode.DELETE_WITH_DUPLICATES.equals(deleteMode)
         && (baseOptions.isSecondaryIndexing())) {
@@ -488,7 +528,8 @@ public class BaseDataStore implements DataStore {
       // all queries will use the same instance of the dedupe filter for
       // client side filtering because the filter needs to be applied across
       // indices
-      DedupeFilter dedupeFilter = new DedupeFilter();
+      DedupeFilter dedupeFilter = createDedupeFilter();
+      dedupeFilters.add(dedupeFilter);
       MemoryPersistentAdapterStore tempAdapterStore =
           new MemoryPersistentAdapterStore(queryOptions.getAdaptersArray(adapterStore));
       MemoryAdapterIndexMappingStore memoryMappingStore = new MemoryAdapterIndexMappingStore();
@@ -501,6 +542,9 @@ public class BaseDataStore implements DataStore {
           ((delete
               && ((constraints == null) || !constraints.indexMustBeSpecified())
               && !baseOptions.isSecondaryIndexing()));
+      // the estimator that chooses the index keeps the query ranges it decomposed, so the query of
+      // the chosen index reuses them
+      final IndexCostEstimator costEstimator = createCostEstimator(queryOptions);
       final List<Pair<Index, List<InternalDataAdapter<?>>>> indexAdapterPairList =
           (deleteAllIndicesByConstraints)
               ? queryOptions.getIndicesForAdapters(tempAdapterStore, indexMappingStore, indexStore)
@@ -509,7 +553,10 @@ public class BaseDataStore implements DataStore {
                   indexMappingStore,
                   indexStore,
                   statisticsStore,
-                  sanitizedConstraints);
+                  sanitizedConstraints,
+                  costEstimator,
+                  baseOptions.isCostBasedIndexSelection(),
+                  null);
       Map<Short, List<Index>> additionalIndicesToDelete = null;
       if (DeletionMode.DELETE_WITH_DUPLICATES.equals(deleteMode)
           && !deleteAllIndicesByConstraints) {
@@ -755,7 +802,8 @@ public class BaseDataStore implements DataStore {
                     queryOptions,
                     tempAdapterStore,
                     memoryMappingStore,
-                    delete));
+                    delete,
+                    baseOptions.isCostBasedIndexSelection() ? costEstimator : null));
             continue;
           }
           // finally just add it to a list to query multiple adapters
@@ -774,12 +822,14 @@ public class BaseDataStore implements DataStore {
                   queryOptions,
                   tempAdapterStore,
                   memoryMappingStore,
-                  delete));
+                  delete,
+                  baseOptions.isCostBasedIndexSelection() ? costEstimator : null));
         }
         if (DeletionMode.DELETE_WITH_DUPLICATES.equals(deleteMode)) {
           // Make sure each index query has a clean dedupe filter so that entries from other indices
           // get deleted
-          dedupeFilter = new DedupeFilter();
+          dedupeFilter = createDedupeFilter();
+          dedupeFilters.add(dedupeFilter);
         }
       }
 
@@ -791,6 +841,9 @@ public class BaseDataStore implements DataStore {
         for (final CloseableIterator<Object> result : results) {
           result.close();
         }
+        for (final DedupeFilter dedupeFilter : dedupeFilters) {
+          dedupeFilter.close();
+        }
         for (final DataStoreCallbackManager c : deleteCallbacks) {
           c.close();
         }
@@ -805,6 +858,19 @@ public class BaseDataStore implements DataStore {
     }, Iterators.concat(new CastIterator<T>(results.iterator())));
   }
 
+  private DedupeFilter createDedupeFilter() {
+    return new DedupeFilter(baseOptions.getDedupeMemoryBudget() * 1024L * 1024L);
+  }
+
+  private IndexCostEstimator createCostEstimator(final BaseQueryOptions queryOptions) {
+    return new IndexCostEstimator(
+        statisticsStore,
+        queryOptions.getMaxRangeDecomposition() != null ? queryOptions.getMaxRangeDecomposition()
+            : baseOptions.getMaxRangeDecomposition(),
+        queryOptions.getTargetResolutionPerDimensionForHierarchicalIndex(),
+        queryOptions.getAuthorizations());
+  }
+
   protected void deleteFromDataIndex(
       final Map<Short, Set<ByteArray>> dataIdsToDelete,
       final String... authorizations) {
@@ -975,6 +1041,28 @@ public class BaseDataStore implements DataStore {
       final PersistentAdapterStore tempAdapterStore,
       final AdapterIndexMappingStore mappingStore,
       final boolean delete) {
+    return queryConstraints(
+        adapterIdsToQuery,
+        index,
+        sanitizedQuery,
+        filter,
+        sanitizedQueryOptions,
+        tempAdapterStore,
+        mappingStore,
+        delete,
+        null);
+  }
+
+  protected CloseableIterator<Object> queryConstraints(
+      final List<Short> adapterIdsToQuery,
+      final Index index,
+      final QueryConstraints sanitizedQuery,
+      final DedupeFilter filter,
+      final BaseQueryOptions sanitizedQueryOptions,
+      final PersistentAdapterStore tempAdapterStore,
+      final AdapterIndexMappingStore mappingStore,
+      final boolean delete,
+      final @Nullable IndexCostEstimator costEstimator) {
     final BaseConstraintsQuery constraintsQuery =
         new BaseConstraintsQuery(
             ArrayUtils.toPrimitive(adapterIdsToQuery.toArray(new Short[0])),
@@ -1019,6 +1107,22 @@ public class BaseDataStore implements DataStore {
                 sanitizedQueryOptions.getAuthorizations(),
                 baseOptions.getDataIndexBatchSize()),
             sanitizedQueryOptions.getAuthorizations());
+    if (baseOptions.isAdaptiveRangeDecomposition()) {
+      final boolean measureRangeCost = baseOptions.getRangeCost() <= 0;
+      constraintsQuery.setRangeDecomposer(
+          new AdaptiveRangeDecomposer(
+              statisticsStore,
+              adapterIdsToQuery.stream().map(internalAdapterStore::getTypeName).collect(
+                  Collectors.toList()),
+              measureRangeCost ? rangeCostModel.getRangeCost() : baseOptions.getRangeCost(),
+              sanitizedQueryOptions.getAuthorizations()),
+          measureRangeCost ? rangeCostModel : null);
+    } else if ((costEstimator != null) && (adapterIdsToQuery.size() == 1)) {
+      // a scan of several types decomposes with the merged index metadata of all of them
+      constraintsQuery.setCostEstimator(
+          costEstimator,
+          internalAdapterStore.getTypeName(adapterIdsToQuery.get(0)));
+    }
 
     return constraintsQuery.query(
         baseOperations,
@@ -92,6 +92,10 @@ import org.locationtech.geowave.core.store.query.aggregate.CommonIndexAggregatio
 import org.locationtech.geowave.core.store.query.constraints.AdapterAndIndexBasedQueryConstraints;
 import org.locationtech.geowave.core.store.query.constraints.QueryConstraints;
 import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimate;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimator;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan.Selection;
 import org.locationtech.geowave.core.store.statistics.DefaultStatisticsProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -1008,13 +1012,75 @@ public class BaseDataStoreUtils {
     return chooseBestIndex(indexAdapterPairList, mappingStore, query, Function.identity());
   }
 
+  /**
+   * Choose the best index for each adapter. If a cost estimator is given, the index with the lowest
+   * estimated cost is chosen, otherwise or when the statistics of any candidate index are not
+   * sufficient to estimate its cost, the index that best matches the dimensions of the query is
+   * chosen.
+   *
+   * @param indexAdapterPairList the candidate indices and the adapters they contain
+   * @param query the query constraints
+   * @param mappingStore the adapter index mapping store
+   * @param costEstimator the cost estimator, or {@code null} to only use the heuristic
+   * @param plan the plan to add the estimates and the chosen indices to, or {@code null}
+   * @return the chosen indices and the adapters to query them for
+   */
+  public static List<Pair<Index, List<InternalDataAdapter<?>>>> chooseBestIndex(
+      final List<Pair<Index, List<InternalDataAdapter<?>>>> indexAdapterPairList,
+      final QueryConstraints query,
+      final AdapterIndexMappingStore mappingStore,
+      final @Nullable IndexCostEstimator costEstimator,
+      final @Nullable QueryPlan plan) {
+    return chooseBestIndex(
+        indexAdapterPairList,
+        mappingStore,
+        query,
+        Function.identity(),
+        costEstimator,
+        plan);
+  }
+
   public static <T> List<Pair<Index, List<T>>> chooseBestIndex(
       final List<Pair<Index, List<T>>> indexAdapterPairList,
       final AdapterIndexMappingStore mappingStore,
       final QueryConstraints query,
       final Function<T, ? extends InternalDataAdapter<?>> adapterLookup)
       throws IllegalArgumentException {
+    return chooseBestIndex(indexAdapterPairList, mappingStore, query, adapterLookup, null, null);
+  }
+
+  public static <T> List<Pair<Index, List<T>>> chooseBestIndex(
+      final List<Pair<Index, List<T>>> indexAdapterPairList,
+      final AdapterIndexMappingStore mappingStore,
+      final QueryConstraints query,
+      final Function<T, ? extends InternalDataAdapter<?>> adapterLookup,
+      final @Nullable IndexCostEstimator costEstimator,
+      final @Nullable QueryPlan plan) throws IllegalArgumentException {
     if (indexAdapterPairList.size() <= 1) {
+      if (plan != null) {
+        for (final Pair<Index, List<T>> pair : indexAdapterPairList) {
+          if (pair.getLeft() == null) {
+            continue;
+          }
+          for (final T adapterKey : pair.getRight()) {
+            final InternalDataAdapter<?> adapter = adapterLookup.apply(adapterKey);
+            if (adapter == null) {
+              continue;
+            }
+            if (costEstimator != null) {
+              final IndexCostEstimate estimate =
+                  estimateCost(pair.getLeft(), query, adapter, mappingStore, costEstimator);
+              if (estimate != null) {
+                plan.addEstimate(estimate);
+              }
+            }
+            plan.select(
+                adapter.getTypeName(),
+                pair.getLeft().getName(),
+                Selection.SINGLE_CANDIDATE);
+          }
+        }
+      }
       return indexAdapterPairList;
     }
     if ((query != null) && query.indexMustBeSpecified()) {
@@ -1039,7 +1105,9 @@ public class BaseDataStoreUtils {
                   e.getValue().toArray(new Index[0]),
                   query,
                   adapterLookup.apply(e.getKey()),
-                  mappingStore);
+                  mappingStore,
+                  costEstimator,
+                  plan);
       List<T> adapters = retVal.get(index);
       if (adapters == null) {
         adapters = new ArrayList<>();
@@ -1051,6 +1119,99 @@ public class BaseDataStoreUtils {
         Collectors.toList());
   }
 
+  /**
+   * Choose the best index for an adapter. If a cost estimator is given, the index with the lowest
+   * estimated cost is chosen, otherwise or when the statistics of any candidate index are not
+   * sufficient to estimate its cost, the index that best matches the dimensions of the query is
+   * chosen.
+   *
+   * @param indices the candidate indices
+   * @param query the query constraints
+   * @param adapter the adapter to query
+   * @param mappingStore the adapter index mapping store
+   * @param costEstimator the cost estimator, or {@code null} to only use the heuristic
+   * @param plan the plan to add the estimates and the chosen index to, or {@code null}
+   * @return the chosen index
+   */
+  public static Index chooseBestIndex(
+      final Index[] indices,
+      final QueryConstraints query,
+      final InternalDataAdapter<?> adapter,
+      final AdapterIndexMappingStore mappingStore,
+      final @Nullable IndexCostEstimator costEstimator,
+      final @Nullable QueryPlan plan) {
+    final Index heuristicIndex = chooseBestIndex(indices, query, adapter, mappingStore);
+    if (heuristicIndex == null) {
+      return null;
+    }
+    Index bestIndex = heuristicIndex;
+    Selection selection = Selection.HEURISTIC;
+    if (costEstimator != null) {
+      final List<IndexCostEstimate> estimates = new ArrayList<>();
+      for (final Index index : indices) {
+        final IndexCostEstimate estimate =
+            estimateCost(index, query, adapter, mappingStore, costEstimator);
+        if (estimate != null) {
+          estimates.add(estimate);
+          if (plan != null) {
+            plan.addEstimate(estimate);
+          }
+        }
+      }
+      final IndexCostEstimate cheapest =
+          IndexCostEstimator.cheapest(estimates, heuristicIndex.getName());
+      if (cheapest != null) {
+        for (final Index index : indices) {
+          if ((index != null) && index.getName().equals(cheapest.getIndexName())) {
+            bestIndex = index;
+            selection = Selection.COST;
+            break;
+          }
+        }
+      }
+    }
+    if (plan != null) {
+      plan.select(adapter.getTypeName(), bestIndex.getName(), selection);
+    }
+    return bestIndex;
+  }
+
+  private static IndexCostEstimate estimateCost(
+      final Index index,
+      final QueryConstraints query,
+      final InternalDataAdapter<?> adapter,
+      final AdapterIndexMappingStore mappingStore,
+      final IndexCostEstimator costEstimator) {
+    if ((index == null)
+        || (index.getIndexStrategy() == null)
+        || (index.getIndexStrategy().getOrderedDimensionDefinitions() == null)
+        || (index.getIndexStrategy().getOrderedDimensionDefinitions().length == 0)) {
+      return null;
+    }
+    if (query == null) {
+      return costEstimator.estimateFullScan(adapter.getTypeName(), index);
+    }
+    QueryConstraints adapterIndexConstraints = query;
+    if (query instanceof AdapterAndIndexBasedQueryConstraints) {
+      adapterIndexConstraints =
+          ((AdapterAndIndexBasedQueryConstraints) query).createQueryConstraints(
+              adapter,
+              index,
+              mappingStore.getMapping(adapter.getAdapterId(), index.getName()));
+      if (adapterIndexConstraints == null) {
+        return null;
+      }
+    }
+    final List<MultiDimensionalNumericData> queryRanges =
+        adapterIndexConstraints.getIndexConstraints(index);
+    if (!queryRangeDimensionsMatch(
+        index.getIndexStrategy().getOrderedDimensionDefinitions().length,
+        queryRanges)) {
+      return costEstimator.estimateFullScan(adapter.getTypeName(), index);
+    }
+    return costEstimator.estimate(adapter.getTypeName(), index, queryRanges);
+  }
+
   public static Index chooseBestIndex(
       final Index[] indices,
       final QueryConstraints query,
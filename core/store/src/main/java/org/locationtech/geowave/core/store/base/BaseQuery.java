@@ -113,6 +113,8 @@ abstract class BaseQuery {
               : options.getMaxRangeDecomposition();
     }
 
+    final QueryRanges queryRanges =
+        getRanges(maxRangeDecomposition, targetResolutionPerDimensionForHierarchicalIndex);
     final ReaderParams<C> readerParams =
         new ReaderParamsBuilder<>(
             index,
@@ -128,10 +130,7 @@ abstract class BaseQuery {
                 .isAuthorizationsLimiting(isAuthorizationsLimiting()) //
                 .isServersideAggregation(isServerSideAggregation(options)) //
                 .isClientsideRowMerging(isRowMerging(adapterStore)) //
-                .queryRanges(
-                    getRanges(
-                        maxRangeDecomposition,
-                        targetResolutionPerDimensionForHierarchicalIndex)) //
+                .queryRanges(queryRanges) //
                 .filter(getServerFilter(options)) //
                 .limit(limit) //
                 .maxRangeDecomposition(maxRangeDecomposition) //
@@ -146,7 +145,11 @@ abstract class BaseQuery {
       scanCallback.addScanCallback((ScanCallback) deleter);
       return deleter;
     }
-    return operations.createReader(readerParams);
+    return trackReader(operations.createReader(readerParams), queryRanges);
+  }
+
+  protected <C> RowReader<C> trackReader(final RowReader<C> reader, final QueryRanges queryRanges) {
+    return reader;
   }
 
   public boolean isRowMerging(final PersistentAdapterStore adapterStore) {
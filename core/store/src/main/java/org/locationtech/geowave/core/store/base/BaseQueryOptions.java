@@ -14,6 +14,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -37,6 +38,8 @@ import org.locationtech.geowave.core.store.query.options.CommonQueryOptions;
 import org.locationtech.geowave.core.store.query.options.DataTypeQueryOptions;
 import org.locationtech.geowave.core.store.query.options.FilterByTypeQueryOptions;
 import org.locationtech.geowave.core.store.query.options.IndexQueryOptions;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimator;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
 import org.locationtech.geowave.core.store.statistics.DataStatisticsStore;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.slf4j.Logger;
@@ -418,19 +421,60 @@ public class BaseQueryOptions {
       final IndexStore indexStore,
       final DataStatisticsStore statisticsStore,
       final QueryConstraints query) {
+    return getBestQueryIndices(
+        adapterStore,
+        adapterIndexMappingStore,
+        indexStore,
+        statisticsStore,
+        query,
+        null,
+        false,
+        null);
+  }
+
+  /**
+   * This will get all relevant adapter index pairs and then select the best index for each adapter
+   * given the constraint. If cost-based index selection is enabled, the index with the lowest
+   * estimated cost is selected as long as the statistics of every candidate index are sufficient to
+   * estimate it. Filter queries always use the cost estimator to choose among the indices that
+   * constrain every field of the filter.
+   *
+   * @param adapterStore the adapter store
+   * @param adapterIndexMappingStore the adapter index mapping store
+   * @param indexStore the index store
+   * @param statisticsStore the statistics store
+   * @param query the query constraints
+   * @param costEstimator the cost estimator, or {@code null} to select indices by heuristic
+   * @param costBasedIndexSelection whether to select among every candidate index by estimated cost
+   * @param plan the plan to add the estimates and the selected indices to, or {@code null}
+   * @return the selected indices and the adapters to query them for
+   */
+  public List<Pair<Index, List<InternalDataAdapter<?>>>> getBestQueryIndices(
+      final PersistentAdapterStore adapterStore,
+      final AdapterIndexMappingStore adapterIndexMappingStore,
+      final IndexStore indexStore,
+      final DataStatisticsStore statisticsStore,
+      final QueryConstraints query,
+      final @Nullable IndexCostEstimator costEstimator,
+      final boolean costBasedIndexSelection,
+      final @Nullable QueryPlan plan) {
     if (query instanceof OptimalExpressionQuery) {
       return ((OptimalExpressionQuery) query).determineBestIndices(
           this,
           getAdaptersArray(adapterStore),
           adapterIndexMappingStore,
           indexStore,
-          statisticsStore);
+          statisticsStore,
+          costEstimator,
+          plan);
     }
     return BaseDataStoreUtils.chooseBestIndex(
         BaseDataStoreUtils.combineByIndex(
             compileIndicesForAdapters(adapterStore, adapterIndexMappingStore, indexStore, true)),
         query,
-        adapterIndexMappingStore);
+        adapterIndexMappingStore,
+        costBasedIndexSelection ? costEstimator : null,
+        plan);
   }
 
   public boolean isAllIndices() {
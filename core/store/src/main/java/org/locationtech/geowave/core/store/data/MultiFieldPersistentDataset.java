@@ -10,6 +10,8 @@ package org.locationtech.geowave.core.store.data;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
+import org.locationtech.geowave.core.store.data.field.FieldReader;
 
 /**
  * This is a basic mapping of field ID to native field type. "Native" in this sense can be to either
@@ -20,6 +22,7 @@ import java.util.Map;
  */
 public class MultiFieldPersistentDataset<T> implements PersistentDataset<T> {
   private final Map<String, T> fieldNameToValueMap;
+  private Map<String, DeferredValue<T>> deferredValues = null;
 
   public MultiFieldPersistentDataset() {
     fieldNameToValueMap = new HashMap<>();
@@ -41,9 +44,28 @@ public class MultiFieldPersistentDataset<T> implements PersistentDataset<T> {
    */
   @Override
   public void addValue(final String fieldName, final T value) {
+    if (deferredValues != null) {
+      deferredValues.remove(fieldName);
+    }
     fieldNameToValueMap.put(fieldName, value);
   }
 
+  @Override
+  public void addValue(
+      final String fieldName,
+      final byte[] fieldData,
+      final FieldReader<? extends T> reader) {
+    if ((fieldData != null) && reader.isDeferrable(fieldData)) {
+      if (deferredValues == null) {
+        deferredValues = new HashMap<>();
+      }
+      fieldNameToValueMap.remove(fieldName);
+      deferredValues.put(fieldName, new DeferredValue<>(fieldData, reader));
+    } else {
+      addValue(fieldName, reader.readField(fieldData));
+    }
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -51,6 +73,9 @@ public class MultiFieldPersistentDataset<T> implements PersistentDataset<T> {
    */
   @Override
   public void addValues(final Map<String, T> values) {
+    if (deferredValues != null) {
+      deferredValues.keySet().removeAll(values.keySet());
+    }
     fieldNameToValueMap.putAll(values);
   }
 
@@ -61,9 +86,28 @@ public class MultiFieldPersistentDataset<T> implements PersistentDataset<T> {
    */
   @Override
   public T getValue(final String fieldName) {
+    if ((deferredValues != null) && !deferredValues.isEmpty()) {
+      final DeferredValue<T> deferred = deferredValues.remove(fieldName);
+      if (deferred != null) {
+        final T value = deferred.read();
+        fieldNameToValueMap.put(fieldName, value);
+        return value;
+      }
+    }
     return fieldNameToValueMap.get(fieldName);
   }
 
+  @Override
+  public byte[] getUnreadValue(final String fieldName) {
+    if (deferredValues != null) {
+      final DeferredValue<T> deferred = deferredValues.get(fieldName);
+      if (deferred != null) {
+        return deferred.fieldData;
+      }
+    }
+    return null;
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -71,6 +115,26 @@ public class MultiFieldPersistentDataset<T> implements PersistentDataset<T> {
    */
   @Override
   public Map<String, T> getValues() {
+    if ((deferredValues != null) && !deferredValues.isEmpty()) {
+      for (final Entry<String, DeferredValue<T>> deferred : deferredValues.entrySet()) {
+        fieldNameToValueMap.put(deferred.getKey(), deferred.getValue().read());
+      }
+      deferredValues.clear();
+    }
     return fieldNameToValueMap;
   }
+
+  private static class DeferredValue<T> {
+    private final byte[] fieldData;
+    private final FieldReader<? extends T> reader;
+
+    private DeferredValue(final byte[] fieldData, final FieldReader<? extends T> reader) {
+      this.fieldData = fieldData;
+      this.reader = reader;
+    }
+
+    private T read() {
+      return reader.readField(fieldData);
+    }
+  }
 }
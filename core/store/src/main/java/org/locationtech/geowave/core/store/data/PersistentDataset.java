@@ -9,6 +9,7 @@
 package org.locationtech.geowave.core.store.data;
 
 import java.util.Map;
+import org.locationtech.geowave.core.store.data.field.FieldReader;
 
 
 public interface PersistentDataset<T> {
@@ -20,6 +21,21 @@ public interface PersistentDataset<T> {
    */
   void addValue(String fieldName, T value);
 
+  /**
+   * Add the binary data of a field along with the reader to deserialize it. The binary data may be
+   * kept and read only when the value is first retrieved if the reader allows it.
+   *
+   * @param fieldName the field ID
+   * @param fieldData the binary data of the field
+   * @param reader the reader to deserialize the field with
+   */
+  default void addValue(
+      final String fieldName,
+      final byte[] fieldData,
+      final FieldReader<? extends T> reader) {
+    addValue(fieldName, reader.readField(fieldData));
+  }
+
   /** Add several values to the data set. */
   void addValues(Map<String, T> values);
 
@@ -31,6 +47,17 @@ public interface PersistentDataset<T> {
    */
   T getValue(String fieldName);
 
+  /**
+   * Given a field ID, get the binary data of the field if it has been added but has not been read
+   * yet.
+   *
+   * @param fieldName the field ID
+   * @return the binary data of the field, or null if the value is not deferred
+   */
+  default byte[] getUnreadValue(final String fieldName) {
+    return null;
+  }
+
   /**
    * Get all of the values from this persistent data set
    *
@@ -29,6 +29,19 @@ public interface FieldReader<FieldType> extends Function<byte[], FieldType> {
     return readField(fieldData);
   }
 
+  /**
+   * Whether reading the given binary data can be deferred until the value is first needed. Readers
+   * of encodings that allow inspecting the binary data directly, such as testing a bounding box
+   * before decoding a geometry, can return true so that the binary data remains available until
+   * then.
+   *
+   * @param fieldData The binary serialization of the data object
+   * @return true if reading the field can be deferred
+   */
+  public default boolean isDeferrable(final byte[] fieldData) {
+    return false;
+  }
+
   @Override
   default FieldType apply(final byte[] fieldData) {
     return readField(fieldData, FieldUtils.SERIALIZATION_VERSION);
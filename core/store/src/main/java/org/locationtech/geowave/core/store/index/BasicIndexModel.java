@@ -21,6 +21,7 @@ import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.store.data.field.FieldReader;
 import org.locationtech.geowave.core.store.data.field.FieldWriter;
 import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
+import org.locationtech.geowave.core.store.server.ServerSideShareable;
 
 /**
  * This class is a concrete implementation of a common index model. Data adapters will map their
@@ -28,7 +29,7 @@ import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
  * filters will not need to handle any adapter-specific transformation, but can use the common index
  * fields.
  */
-public class BasicIndexModel implements CommonIndexModel {
+public class BasicIndexModel implements CommonIndexModel, ServerSideShareable {
   protected NumericDimensionField<?>[] dimensions;
   // the first dimension of a particular field ID will be the persistence
   // model used
@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.logging.log4j.LogManager;
@@ -41,6 +42,7 @@ import org.locationtech.geowave.core.store.data.DeferredReadCommonIndexedPersist
 import org.locationtech.geowave.core.store.data.MultiFieldPersistentDataset;
 import org.locationtech.geowave.core.store.data.PersistentDataset;
 import org.locationtech.geowave.core.store.data.UnreadFieldDataList;
+import org.locationtech.geowave.core.store.entities.GeoWaveKey;
 import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
 import org.locationtech.geowave.core.store.entities.GeoWaveMetadata;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
@@ -64,13 +66,11 @@ import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Ordering;
-import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
 
 public class MemoryDataStoreOperations implements DataStoreOperations {
   private static final Logger LOGGER = LogManager.getLogger(MemoryDataStoreOperations.class);
-  private final Map<String, SortedSet<MemoryStoreEntry>> storeData =
-      Collections.synchronizedMap(new HashMap<String, SortedSet<MemoryStoreEntry>>());
+  private final Map<String, MemoryIndexTable> storeData = new ConcurrentHashMap<>();
   private final Map<MetadataType, SortedSet<MemoryMetadataEntry>> metadataStore =
       Collections.synchronizedMap(new HashMap<MetadataType, SortedSet<MemoryMetadataEntry>>());
   private final DataStoreOptions options;
@@ -126,123 +126,95 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
     return new MyIndexDeleter(indexName, authorizations);
   }
 
-  protected SortedSet<MemoryStoreEntry> getRowsForIndex(final String id) {
-    SortedSet<MemoryStoreEntry> set = storeData.get(id);
-    if (set == null) {
-      set = Collections.synchronizedSortedSet(new TreeSet<MemoryStoreEntry>());
-      storeData.put(id, set);
-    }
-    return set;
+  protected MemoryIndexTable getRowsForIndex(final String id) {
+    return storeData.computeIfAbsent(id, k -> new MemoryIndexTable());
   }
 
   @Override
   public <T> RowReader<T> createReader(final ReaderParams<T> readerParams) {
-    final SortedSet<MemoryStoreEntry> internalData =
-        storeData.get(readerParams.getIndex().getName());
-    int counter = 0;
-    List<MemoryStoreEntry> retVal = new ArrayList<>();
+    final MemoryIndexTable internalData = storeData.get(readerParams.getIndex().getName());
+    if (internalData == null) {
+      return new MyIndexReader<>(
+          null,
+          Collections.emptyIterator(),
+          readerParams.getRowTransformer());
+    }
+    // rows are read lazily from a snapshot so that concurrent writes are not seen and nothing has
+    // to be copied
+    final MemoryIndexTable.Snapshot snapshot = internalData.snapshot();
+    Iterator<GeoWaveRow> retVal;
     final Collection<SinglePartitionQueryRanges> partitionRanges =
         readerParams.getQueryRanges().getPartitionQueryRanges();
     if ((partitionRanges == null) || partitionRanges.isEmpty()) {
-      retVal.addAll(internalData);
-      // remove unauthorized
-      final Iterator<MemoryStoreEntry> it = retVal.iterator();
-      while (it.hasNext()) {
-        if (!isAuthorized(it.next(), readerParams.getAdditionalAuthorizations())) {
-          it.remove();
-        }
-      }
-      if ((readerParams.getLimit() != null)
-          && (readerParams.getLimit() > 0)
-          && (retVal.size() > readerParams.getLimit())) {
-        retVal = retVal.subList(0, readerParams.getLimit());
-      }
+      retVal =
+          Iterators.filter(
+              snapshot.rows(),
+              row -> isAuthorized(row, readerParams.getAdditionalAuthorizations()));
     } else {
+      final List<Iterator<GeoWaveRow>> rangeIterators = new ArrayList<>();
       for (final SinglePartitionQueryRanges p : partitionRanges) {
         for (final ByteArrayRange r : p.getSortKeyRanges()) {
-          final SortedSet<MemoryStoreEntry> set;
+          final Iterator<GeoWaveRow> rows;
           if (r.isSingleValue()) {
-            set =
-                Sets.newTreeSet(
-                    internalData.subSet(
-                        new MemoryStoreEntry(p.getPartitionKey(), r.getStart()),
-                        new MemoryStoreEntry(
-                            p.getPartitionKey(),
-                            ByteArrayUtils.getNextPrefix(r.getStart()))));
-          } else {
-            set =
-                Sets.newTreeSet(
-                    internalData.tailSet(
-                        new MemoryStoreEntry(p.getPartitionKey(), r.getStart())).headSet(
-                            new MemoryStoreEntry(p.getPartitionKey(), r.getEndAsNextPrefix())));
-          }
-          // remove unauthorized
-          final Iterator<MemoryStoreEntry> it = set.iterator();
-          while (it.hasNext()) {
-            final MemoryStoreEntry entry = it.next();
-            if (!isAuthorized(entry, readerParams.getAdditionalAuthorizations())) {
-              it.remove();
-            } else if (!ArrayUtils.contains(
-                readerParams.getAdapterIds(),
-                entry.row.getAdapterId())) {
-              it.remove();
-            }
-          }
-          if ((readerParams.getLimit() != null)
-              && (readerParams.getLimit() > 0)
-              && ((counter + set.size()) > readerParams.getLimit())) {
-            final List<MemoryStoreEntry> subset = new ArrayList<>(set);
-            retVal.addAll(subset.subList(0, readerParams.getLimit() - counter));
-            break;
+            rows =
+                snapshot.rows(
+                    new MemoryStoreEntry(p.getPartitionKey(), r.getStart()),
+                    new MemoryStoreEntry(
+                        p.getPartitionKey(),
+                        ByteArrayUtils.getNextPrefix(r.getStart())));
           } else {
-            retVal.addAll(set);
-            counter += set.size();
-            if ((readerParams.getLimit() != null)
-                && (readerParams.getLimit() > 0)
-                && (counter >= readerParams.getLimit())) {
-              break;
-            }
+            rows =
+                snapshot.rows(
+                    new MemoryStoreEntry(p.getPartitionKey(), r.getStart()),
+                    new MemoryStoreEntry(p.getPartitionKey(), r.getEndAsNextPrefix()));
           }
+          rangeIterators.add(
+              Iterators.filter(
+                  rows,
+                  row -> isAuthorized(row, readerParams.getAdditionalAuthorizations())
+                      && ArrayUtils.contains(readerParams.getAdapterIds(), row.getAdapterId())));
         }
       }
+      retVal = Iterators.concat(rangeIterators.iterator());
     }
-    return new MyIndexReader<>(
-        Iterators.filter(retVal.iterator(), new Predicate<MemoryStoreEntry>() {
-          @Override
-          public boolean apply(final MemoryStoreEntry input) {
-            if ((readerParams.getFilter() != null) && options.isServerSideLibraryEnabled()) {
-              final PersistentDataset<Object> commonData = new MultiFieldPersistentDataset<>();
-              final List<FlattenedUnreadData> unreadData = new ArrayList<>();
-              final List<String> commonIndexFieldNames =
-                  DataStoreUtils.getUniqueDimensionFields(readerParams.getIndex().getIndexModel());
-              for (final GeoWaveValue v : input.getRow().getFieldValues()) {
-                unreadData.add(
-                    DataStoreUtils.aggregateFieldData(
-                        input.getRow(),
-                        v,
-                        commonData,
-                        readerParams.getIndex().getIndexModel(),
-                        commonIndexFieldNames));
-              }
-              return readerParams.getFilter().accept(
-                  readerParams.getIndex().getIndexModel(),
-                  new DeferredReadCommonIndexedPersistenceEncoding(
-                      input.getRow().getAdapterId(),
-                      input.getRow().getDataId(),
-                      input.getRow().getPartitionKey(),
-                      input.getRow().getSortKey(),
-                      input.getRow().getNumberOfDuplicates(),
-                      commonData,
-                      unreadData.isEmpty() ? null : new UnreadFieldDataList(unreadData)));
-            }
-            return true;
+    if ((readerParams.getLimit() != null) && (readerParams.getLimit() > 0)) {
+      retVal = Iterators.limit(retVal, readerParams.getLimit());
+    }
+    return new MyIndexReader<>(snapshot, Iterators.filter(retVal, new Predicate<GeoWaveRow>() {
+      @Override
+      public boolean apply(final GeoWaveRow input) {
+        if ((readerParams.getFilter() != null) && options.isServerSideLibraryEnabled()) {
+          final PersistentDataset<Object> commonData = new MultiFieldPersistentDataset<>();
+          final List<FlattenedUnreadData> unreadData = new ArrayList<>();
+          final List<String> commonIndexFieldNames =
+              DataStoreUtils.getUniqueDimensionFields(readerParams.getIndex().getIndexModel());
+          for (final GeoWaveValue v : input.getFieldValues()) {
+            unreadData.add(
+                DataStoreUtils.aggregateFieldData(
+                    input,
+                    v,
+                    commonData,
+                    readerParams.getIndex().getIndexModel(),
+                    commonIndexFieldNames));
           }
-        }),
-        readerParams.getRowTransformer());
+          return readerParams.getFilter().accept(
+              readerParams.getIndex().getIndexModel(),
+              new DeferredReadCommonIndexedPersistenceEncoding(
+                  input.getAdapterId(),
+                  input.getDataId(),
+                  input.getPartitionKey(),
+                  input.getSortKey(),
+                  input.getNumberOfDuplicates(),
+                  commonData,
+                  unreadData.isEmpty() ? null : new UnreadFieldDataList(unreadData)));
+        }
+        return true;
+      }
+    }), readerParams.getRowTransformer());
   }
 
-  private boolean isAuthorized(final MemoryStoreEntry row, final String... authorizations) {
-    for (final GeoWaveValue value : row.getRow().getFieldValues()) {
+  private boolean isAuthorized(final GeoWaveRow row, final String... authorizations) {
+    for (final GeoWaveValue value : row.getFieldValues()) {
       if (!MemoryStoreUtils.isAuthorized(value.getVisibility(), authorizations)) {
         return false;
       }
@@ -251,21 +223,33 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
   }
 
   private static class MyIndexReader<T> implements RowReader<T> {
+    private final MemoryIndexTable.Snapshot snapshot;
     private final Iterator<T> it;
 
     public MyIndexReader(
-        final Iterator<MemoryStoreEntry> it,
+        final MemoryIndexTable.Snapshot snapshot,
+        final Iterator<GeoWaveRow> it,
         final GeoWaveRowIteratorTransformer<T> rowTransformer) {
       super();
-      this.it = rowTransformer.apply(Iterators.transform(it, e -> e.row));
+      this.snapshot = snapshot;
+      this.it = rowTransformer.apply(it);
     }
 
     @Override
-    public void close() {}
+    public void close() {
+      if (snapshot != null) {
+        snapshot.close();
+      }
+    }
 
     @Override
     public boolean hasNext() {
-      return it.hasNext();
+      if (!it.hasNext()) {
+        // release the snapshot as soon as it's exhausted in case the reader is never closed
+        close();
+        return false;
+      }
+      return true;
     }
 
     @Override
@@ -303,17 +287,7 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
 
     @Override
     public void write(final GeoWaveRow row) {
-      SortedSet<MemoryStoreEntry> rowTreeSet = storeData.get(indexName);
-      if (rowTreeSet == null) {
-        rowTreeSet = new TreeSet<>();
-        storeData.put(indexName, rowTreeSet);
-      }
-      if (rowTreeSet.contains(new MemoryStoreEntry(row))) {
-        rowTreeSet.remove(new MemoryStoreEntry(row));
-      }
-      if (!rowTreeSet.add(new MemoryStoreEntry(row))) {
-        LOGGER.warn("Unable to add new entry");
-      }
+      getRowsForIndex(indexName).put(row);
     }
   }
 
@@ -331,11 +305,10 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
 
     @Override
     public void delete(final GeoWaveRow row) {
-      final MemoryStoreEntry entry = new MemoryStoreEntry(row);
-      if (isAuthorized(entry, authorizations)) {
-        final SortedSet<MemoryStoreEntry> rowTreeSet = storeData.get(indexName);
-        if (rowTreeSet != null) {
-          if (!rowTreeSet.remove(entry)) {
+      if (isAuthorized(row, authorizations)) {
+        final MemoryIndexTable table = storeData.get(indexName);
+        if (table != null) {
+          if (!table.delete(row)) {
             LOGGER.warn("Unable to remove entry");
           }
         }
@@ -350,6 +323,7 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
 
   public static class MemoryStoreEntry implements Comparable<MemoryStoreEntry> {
     private final GeoWaveRow row;
+    private final byte[] compositeInsertionId;
 
     public MemoryStoreEntry(final byte[] comparisonPartitionKey, final byte[] comparisonSortKey) {
       row =
@@ -361,10 +335,20 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
                   comparisonSortKey,
                   0),
               null);
+      compositeInsertionId = getCompositeInsertionId(row);
     }
 
     public MemoryStoreEntry(final GeoWaveRow row) {
       this.row = row;
+      compositeInsertionId = getCompositeInsertionId(row);
+    }
+
+    private static byte[] getCompositeInsertionId(final GeoWaveRow row) {
+      if (row instanceof GeoWaveRowImpl) {
+        return ((GeoWaveKeyImpl) ((GeoWaveRowImpl) row).getKey()).getCompositeInsertionId();
+      }
+      // rows such as those written to the data ID index can wrap another row's key
+      return GeoWaveKey.getCompositeId(row);
     }
 
     public GeoWaveRow getRow() {
@@ -372,7 +356,7 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
     }
 
     public byte[] getCompositeInsertionId() {
-      return ((GeoWaveKeyImpl) ((GeoWaveRowImpl) row).getKey()).getCompositeInsertionId();
+      return compositeInsertionId;
     }
 
     @Override
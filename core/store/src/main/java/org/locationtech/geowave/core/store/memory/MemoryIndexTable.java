@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.memory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.memory.MemoryDataStoreOperations.MemoryStoreEntry;
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * The rows of one index of the memory data store. Rows are kept in a concurrent skip list so that
+ * writers, deleters and readers never block each other.
+ *
+ * <p> Every write or delete is stamped with a version from a counter, and a row keeps a short chain
+ * of versions, newest first, with a delete being a version without a row. A version is committed
+ * once its write has been applied, and the committed version of the table is the newest version up
+ * to which every write has been applied. It is advanced with compare-and-set by whichever writer
+ * completes the next version, so writers never wait on each other. A reader takes a snapshot of the
+ * committed version and for each row returns the newest version at or before the snapshot, so it
+ * sees the table exactly as of the snapshot without copying anything, regardless of what is written
+ * while it iterates. Older versions are only kept while an open snapshot may still need them, and
+ * are pruned the next time the row is written or read.
+ *
+ * <p> Snapshots should be closed, but a snapshot that is garbage collected without being closed is
+ * released the next time the table is written or a snapshot is taken, so it can not keep old
+ * versions forever.
+ */
+public class MemoryIndexTable {
+  private final ConcurrentSkipListMap<MemoryStoreEntry, Version> rows =
+      new ConcurrentSkipListMap<>();
+  private final AtomicLong clock = new AtomicLong(0);
+  // the newest version up to which every write has been applied
+  private final AtomicLong committedVersion = new AtomicLong(0);
+  // versions newer than the committed version whose writes have already been applied
+  private final Set<Long> appliedVersions = ConcurrentHashMap.newKeySet();
+  // the number of open snapshots registered at each version
+  private final ConcurrentSkipListMap<Long, Integer> openSnapshots = new ConcurrentSkipListMap<>();
+  private final ReferenceQueue<Snapshot> abandonedSnapshots = new ReferenceQueue<>();
+  private final Set<SnapshotReference> snapshotReferences = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Write a row, replacing any existing row with the same key.
+   *
+   * @param row the row
+   */
+  public void put(final GeoWaveRow row) {
+    write(new MemoryStoreEntry(row), row);
+  }
+
+  /**
+   * Delete a row.
+   *
+   * @param row the row
+   * @return whether the row existed
+   */
+  public boolean delete(final GeoWaveRow row) {
+    return write(new MemoryStoreEntry(row), null);
+  }
+
+  private boolean write(final MemoryStoreEntry key, final GeoWaveRow row) {
+    releaseAbandonedSnapshots();
+    final long version = clock.incrementAndGet();
+    final AtomicBoolean existed = new AtomicBoolean(false);
+    try {
+      rows.compute(key, (k, versions) -> {
+        // this may be applied more than once, but only the last application is kept
+        existed.set((versions != null) && (versions.row != null));
+        return prune(Version.insert(versions, version, row));
+      });
+    } finally {
+      commit(version);
+    }
+    return existed.get();
+  }
+
+  /**
+   * Mark a version as applied and advance the committed version past every applied version that
+   * directly follows it. A version is always added before the committed version is read, so
+   * whichever of two writers finishes last sees the other's version and advances past both.
+   */
+  private void commit(final long version) {
+    appliedVersions.add(version);
+    long committed;
+    while (appliedVersions.contains((committed = committedVersion.get()) + 1)) {
+      if (committedVersion.compareAndSet(committed, committed + 1)) {
+        appliedVersions.remove(committed + 1);
+      }
+    }
+  }
+
+  /**
+   * @return the newest version up to which every write has been applied
+   */
+  long getCommittedVersion() {
+    return committedVersion.get();
+  }
+
+  /**
+   * Drop the versions that no open snapshot can see. The committed version is read before the open
+   * snapshots, and a snapshot only reads the version it reads rows at once it is registered (see
+   * {@link #snapshot()}), so a snapshot this does not see reads at a version no older than the one
+   * this keeps.
+   */
+  private Version prune(final Version versions) {
+    final long committed = getCommittedVersion();
+    final Entry<Long, Integer> oldest = openSnapshots.firstEntry();
+    final long oldestSnapshot = oldest == null ? committed : Math.min(oldest.getKey(), committed);
+    final Version pruned = versions.prune(oldestSnapshot);
+    if ((pruned.older == null) && (pruned.row == null)) {
+      // nothing can see the row anymore
+      return null;
+    }
+    return pruned;
+  }
+
+  /**
+   * Open a snapshot of the table, which must be closed to release the row versions it holds on to.
+   *
+   * @return the snapshot
+   */
+  public Snapshot snapshot() {
+    releaseAbandonedSnapshots();
+    // a write may prune the versions of the committed version read here before the snapshot is
+    // registered, so the snapshot reads at the committed version as of after its registration
+    final long registered = getCommittedVersion();
+    openSnapshots.merge(registered, 1, Integer::sum);
+    final long version = getCommittedVersion();
+    if (version != registered) {
+      openSnapshots.merge(version, 1, Integer::sum);
+      unregister(registered);
+    }
+    final Snapshot snapshot = new Snapshot(version);
+    snapshotReferences.add(snapshot.reference);
+    return snapshot;
+  }
+
+  /**
+   * @return the number of snapshots that have not been released
+   */
+  int getOpenSnapshotCount() {
+    return snapshotReferences.size();
+  }
+
+  private void unregister(final long version) {
+    openSnapshots.computeIfPresent(version, (k, count) -> count == 1 ? null : count - 1);
+  }
+
+  private void releaseAbandonedSnapshots() {
+    Reference<? extends Snapshot> abandoned;
+    while ((abandoned = abandonedSnapshots.poll()) != null) {
+      ((SnapshotReference) abandoned).release();
+    }
+  }
+
+  public class Snapshot implements AutoCloseable {
+    private final long version;
+    private final SnapshotReference reference;
+
+    private Snapshot(final long version) {
+      this.version = version;
+      reference = new SnapshotReference(this, version);
+    }
+
+    /**
+     * @return all rows as of the snapshot in sort order
+     */
+    public Iterator<GeoWaveRow> rows() {
+      return rows(MemoryIndexTable.this.rows);
+    }
+
+    /**
+     * @param fromInclusive the first key
+     * @param toExclusive the key to end before
+     * @return the rows between the keys as of the snapshot in sort order
+     */
+    public Iterator<GeoWaveRow> rows(
+        final MemoryStoreEntry fromInclusive,
+        final MemoryStoreEntry toExclusive) {
+      if (fromInclusive.compareTo(toExclusive) >= 0) {
+        return Collections.emptyIterator();
+      }
+      return rows(MemoryIndexTable.this.rows.subMap(fromInclusive, true, toExclusive, false));
+    }
+
+    private Iterator<GeoWaveRow> rows(final NavigableMap<MemoryStoreEntry, Version> range) {
+      final Iterator<Entry<MemoryStoreEntry, Version>> it = range.entrySet().iterator();
+      return new AbstractIterator<GeoWaveRow>() {
+        @Override
+        protected GeoWaveRow computeNext() {
+          while (it.hasNext()) {
+            final Entry<MemoryStoreEntry, Version> e = it.next();
+            final Version versions = e.getValue();
+            if ((versions.older != null) || (versions.row == null)) {
+              MemoryIndexTable.this.rows.computeIfPresent(e.getKey(), (k, v) -> prune(v));
+            }
+            final GeoWaveRow row = versions.get(version);
+            if (row != null) {
+              return row;
+            }
+          }
+          return endOfData();
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      reference.release();
+    }
+  }
+
+  /**
+   * Tracks the registration of a snapshot separately from the snapshot, so it can be released once
+   * the snapshot has been garbage collected.
+   */
+  private class SnapshotReference extends PhantomReference<Snapshot> {
+    private final long version;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private SnapshotReference(final Snapshot snapshot, final long version) {
+      super(snapshot, abandonedSnapshots);
+      this.version = version;
+    }
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        unregister(version);
+        snapshotReferences.remove(this);
+        clear();
+      }
+    }
+  }
+
+  /**
+   * An immutable chain of the versions of a row, newest first.
+   */
+  private static class Version {
+    private final long version;
+    // null if the row was deleted at this version
+    private final GeoWaveRow row;
+    private final Version older;
+
+    private Version(final long version, final GeoWaveRow row, final Version older) {
+      this.version = version;
+      this.row = row;
+      this.older = older;
+    }
+
+    private static Version insert(
+        final Version versions,
+        final long version,
+        final GeoWaveRow row) {
+      // concurrent writes to a row can be applied out of version order
+      if ((versions == null) || (versions.version < version)) {
+        return new Version(version, row, versions);
+      }
+      return new Version(versions.version, versions.row, insert(versions.older, version, row));
+    }
+
+    private GeoWaveRow get(final long snapshot) {
+      Version v = this;
+      while ((v != null) && (v.version > snapshot)) {
+        v = v.older;
+      }
+      return v == null ? null : v.row;
+    }
+
+    /**
+     * Keep every version newer than the oldest snapshot and the newest version the oldest snapshot
+     * can see.
+     */
+    private Version prune(final long oldestSnapshot) {
+      if (version <= oldestSnapshot) {
+        return older == null ? this : new Version(version, row, null);
+      }
+      if (older == null) {
+        return this;
+      }
+      final Version prunedOlder = older.prune(oldestSnapshot);
+      return prunedOlder == older ? this : new Version(version, row, prunedOlder);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.operations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.store.base.dataidx.DataIndexUtils;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.Bytes;
+
+/**
+ * Reads explicit data IDs from the data ID index for data stores that have no native multi-get.
+ * Rather than one scan per data ID, the data IDs are read in batches, each batch being a single
+ * scan of all of its data IDs in sort order. Rows are returned in the order the data IDs were
+ * requested, and data IDs that aren't found are skipped.
+ */
+public class DataIndexMultiGetReader implements RowReader<GeoWaveRow> {
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final DataStoreOperations operations;
+  private final DataIndexReaderParams readerParams;
+  private final byte[][] dataIds;
+  private final int batchSize;
+  private int nextBatchStart = 0;
+  private Iterator<GeoWaveRow> batch = Collections.emptyIterator();
+
+  public DataIndexMultiGetReader(
+      final DataStoreOperations operations,
+      final DataIndexReaderParams readerParams) {
+    this(operations, readerParams, DEFAULT_BATCH_SIZE);
+  }
+
+  public DataIndexMultiGetReader(
+      final DataStoreOperations operations,
+      final DataIndexReaderParams readerParams,
+      final int batchSize) {
+    this.operations = operations;
+    this.readerParams = readerParams;
+    this.dataIds = readerParams.getDataIds();
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!batch.hasNext() && (nextBatchStart < dataIds.length)) {
+      batch = readNextBatch();
+    }
+    return batch.hasNext();
+  }
+
+  @Override
+  public GeoWaveRow next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return batch.next();
+  }
+
+  private Iterator<GeoWaveRow> readNextBatch() {
+    final byte[][] batchIds =
+        Arrays.copyOfRange(
+            dataIds,
+            nextBatchStart,
+            Math.min(nextBatchStart + batchSize, dataIds.length));
+    nextBatchStart += batchIds.length;
+    // sorting the keys lets the store read them in one forward pass
+    final TreeSet<ByteArray> sortKeys = new TreeSet<>();
+    for (final byte[] dataId : batchIds) {
+      sortKeys.add(new ByteArray(getSortKey(dataId)));
+    }
+    final Map<ByteArray, GeoWaveRow> rows = new HashMap<>();
+    try (RowReader<GeoWaveRow> reader =
+        operations.createReader(
+            getDataIndexScanParams(
+                readerParams,
+                new QueryRanges(
+                    Collections.singletonList(
+                        new SinglePartitionQueryRanges(
+                            sortKeys.stream().map(
+                                k -> new ByteArrayRange(k.getBytes(), k.getBytes(), false)).collect(
+                                    Collectors.toList())))),
+                null))) {
+      reader.forEachRemaining(row -> rows.put(new ByteArray(row.getDataId()), row));
+    }
+    return Iterators.filter(
+        Iterators.transform(Iterators.forArray(batchIds), id -> rows.get(new ByteArray(id))),
+        r -> r != null);
+  }
+
+  @Override
+  public void close() {
+    // each batch is fully read and closed before it is returned
+  }
+
+  /**
+   * @param dataId the data ID
+   * @return the sort key of the data ID within the data ID index
+   */
+  public static byte[] getSortKey(final byte[] dataId) {
+    return Bytes.concat(new byte[] {(byte) dataId.length}, dataId);
+  }
+
+  /**
+   * Get the parameters for a scan of the data ID index.
+   *
+   * @param readerParams the data index reader parameters
+   * @param queryRanges the sort key ranges to scan
+   * @param limit the maximum number of rows to read or null for no limit
+   * @return the reader parameters for the scan
+   */
+  public static ReaderParams<GeoWaveRow> getDataIndexScanParams(
+      final DataIndexReaderParams readerParams,
+      final QueryRanges queryRanges,
+      final Integer limit) {
+    return new ReaderParams<>(
+        DataIndexUtils.DATA_ID_INDEX,
+        readerParams.getAdapterStore(),
+        readerParams.getAdapterIndexMappingStore(),
+        readerParams.getInternalAdapterStore(),
+        new short[] {readerParams.getAdapterId()},
+        null,
+        readerParams.getAggregation(),
+        readerParams.getFieldSubsets(),
+        false,
+        false,
+        false,
+        false,
+        queryRanges,
+        null,
+        limit,
+        null,
+        null,
+        null,
+        GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER,
+        new String[0]);
+  }
+}
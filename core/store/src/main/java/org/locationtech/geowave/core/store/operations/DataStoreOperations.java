@@ -8,15 +8,9 @@
  */
 package org.locationtech.geowave.core.store.operations;
 
-import java.io.Closeable;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
 import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.index.QueryRanges;
-import org.locationtech.geowave.core.store.CloseableIteratorWrapper;
 import org.locationtech.geowave.core.store.adapter.AdapterIndexMappingStore;
 import org.locationtech.geowave.core.store.adapter.InternalAdapterStore;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
@@ -25,11 +19,8 @@ import org.locationtech.geowave.core.store.api.Index;
 import org.locationtech.geowave.core.store.base.dataidx.DataIndexUtils;
 import org.locationtech.geowave.core.store.base.dataidx.DefaultDataIndexRowWriterWrapper;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
-import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
 import org.locationtech.geowave.core.store.statistics.DataStatisticsStore;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
-import com.google.common.collect.Iterators;
-import com.google.common.primitives.Bytes;
 
 public interface DataStoreOperations {
 
@@ -69,75 +60,17 @@ public interface DataStoreOperations {
   <T> RowReader<T> createReader(ReaderParams<T> readerParams);
 
   default RowReader<GeoWaveRow> createReader(final DataIndexReaderParams readerParams) {
-    final List<RowReader<GeoWaveRow>> readers;
     if (readerParams.getDataIds() != null) {
-      readers = Arrays.stream(readerParams.getDataIds()).map(dataId -> {
-        final byte[] sortKey = Bytes.concat(new byte[] {(byte) dataId.length}, dataId);
-        return createReader(
-            new ReaderParams<>(
-                DataIndexUtils.DATA_ID_INDEX,
-                readerParams.getAdapterStore(),
-                readerParams.getAdapterIndexMappingStore(),
-                readerParams.getInternalAdapterStore(),
-                new short[] {readerParams.getAdapterId()},
-                null,
-                readerParams.getAggregation(),
-                readerParams.getFieldSubsets(),
-                false,
-                false,
-                false,
-                false,
-                new QueryRanges(new ByteArrayRange(sortKey, sortKey, false)),
-                null,
-                1,
-                null,
-                null,
-                null,
-                GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER,
-                new String[0]));
-      }).collect(Collectors.toList());
-    } else {
-      final byte[] startKey =
-          Bytes.concat(
-              new byte[] {(byte) readerParams.getStartInclusiveDataId().length},
-              readerParams.getStartInclusiveDataId());
-      final byte[] endKey =
-          Bytes.concat(
-              new byte[] {(byte) readerParams.getEndInclusiveDataId().length},
-              readerParams.getEndInclusiveDataId());
-      readers =
-          Collections.singletonList(
-              createReader(
-                  new ReaderParams<>(
-                      DataIndexUtils.DATA_ID_INDEX,
-                      readerParams.getAdapterStore(),
-                      readerParams.getAdapterIndexMappingStore(),
-                      readerParams.getInternalAdapterStore(),
-                      new short[] {readerParams.getAdapterId()},
-                      null,
-                      readerParams.getAggregation(),
-                      readerParams.getFieldSubsets(),
-                      false,
-                      false,
-                      false,
-                      false,
-                      new QueryRanges(new ByteArrayRange(startKey, endKey, false)),
-                      null,
-                      1,
-                      null,
-                      null,
-                      null,
-                      GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER,
-                      new String[0])));
+      return new DataIndexMultiGetReader(this, readerParams);
     }
-    return new RowReaderWrapper<>(new CloseableIteratorWrapper(new Closeable() {
-      @Override
-      public void close() {
-        for (final RowReader<GeoWaveRow> r : readers) {
-          r.close();
-        }
-      }
-    }, Iterators.concat(readers.iterator())));
+    final byte[] startKey =
+        DataIndexMultiGetReader.getSortKey(readerParams.getStartInclusiveDataId());
+    final byte[] endKey = DataIndexMultiGetReader.getSortKey(readerParams.getEndInclusiveDataId());
+    return createReader(
+        DataIndexMultiGetReader.getDataIndexScanParams(
+            readerParams,
+            new QueryRanges(new ByteArrayRange(startKey, endKey, false)),
+            1));
   }
 
   default <T> Deleter<T> createDeleter(final ReaderParams<T> readerParams) {
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.operations;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded thread pool that is shared by every {@link ParallelDecoder} in the JVM, so that the
+ * number of decode threads does not grow with the number of concurrent queries. The size of the
+ * pool can be configured with the {@value #THREADS_PROPERTY} system property and defaults to twice
+ * the number of available processors. Idle threads are released after a minute. Decoders never
+ * block a pool thread while waiting for their consumer, so a slow or nested query cannot hold on to
+ * the threads that other queries need.
+ *
+ * <p> This class also keeps track of metrics across all decoders, such as the number of decoded
+ * entries, the total time spent decoding, and the number of entries that are currently buffered
+ * waiting to be consumed.
+ */
+public class DecodeExecutor {
+  public static final String THREADS_PROPERTY = "geowave.decode.threads";
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private static DecodeExecutor instance = null;
+
+  private final ThreadPoolExecutor threadPool;
+  private final AtomicLong decodedCount = new AtomicLong(0);
+  private final AtomicLong decodeNanos = new AtomicLong(0);
+  private final AtomicLong bufferedCount = new AtomicLong(0);
+
+  protected DecodeExecutor(final int numThreads) {
+    final AtomicInteger threadCount = new AtomicInteger(0);
+    threadPool =
+        new ThreadPoolExecutor(
+            numThreads,
+            numThreads,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "geowave-decode-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    threadPool.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * @return the shared decode executor
+   */
+  public static synchronized DecodeExecutor getInstance() {
+    if (instance == null) {
+      instance = new DecodeExecutor(getConfiguredThreads());
+    }
+    return instance;
+  }
+
+  private static int getConfiguredThreads() {
+    final String threads = System.getProperty(THREADS_PROPERTY);
+    if (threads != null) {
+      try {
+        return Math.max(1, Integer.parseInt(threads.trim()));
+      } catch (final NumberFormatException e) {
+        // fall through to the default
+      }
+    }
+    return Runtime.getRuntime().availableProcessors() * 2;
+  }
+
+  protected Future<?> submit(final Runnable task) {
+    return threadPool.submit(task);
+  }
+
+  protected void recordDecode(final long count, final long nanos) {
+    decodedCount.addAndGet(count);
+    decodeNanos.addAndGet(nanos);
+  }
+
+  protected void recordBuffered(final long delta) {
+    bufferedCount.addAndGet(delta);
+  }
+
+  /**
+   * @return the maximum number of decode threads
+   */
+  public int getMaxThreads() {
+    return threadPool.getMaximumPoolSize();
+  }
+
+  /**
+   * @return the number of threads that are currently decoding
+   */
+  public int getActiveThreads() {
+    return threadPool.getActiveCount();
+  }
+
+  /**
+   * @return the number of decode tasks that are waiting for a thread
+   */
+  public int getQueuedTasks() {
+    return threadPool.getQueue().size();
+  }
+
+  /**
+   * @return the number of decoded entries that are waiting to be consumed across all decoders
+   */
+  public long getBufferedEntries() {
+    return bufferedCount.get();
+  }
+
+  /**
+   * @return the total number of entries decoded by all decoders
+   */
+  public long getDecodedEntries() {
+    return decodedCount.get();
+  }
+
+  /**
+   * @return the average time spent decoding a single entry in nanoseconds
+   */
+  public double getAverageDecodeNanos() {
+    final long count = decodedCount.get();
+    return count == 0 ? 0 : (double) decodeNanos.get() / count;
+  }
+}
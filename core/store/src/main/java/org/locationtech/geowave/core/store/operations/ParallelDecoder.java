@@ -10,15 +10,20 @@ package org.locationtech.geowave.core.store.operations;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
@@ -28,18 +33,43 @@ import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransforme
  * the data store implementation to provide implementations of {@link ParallelDecoder.RowProvider}
  * to be used for providing rows from the underlying database.
  *
+ * <p> Row providers are decoded on the shared {@link DecodeExecutor}, and at most
+ * {@link #getNumThreads()} row providers of a single decoder are decoded at the same time. Decoded
+ * results are handed off to the consuming thread in batches through a bounded buffer. Decode tasks
+ * never block a shared thread on a slow consumer: when the buffer is full the task is parked with
+ * its progress and resumed as a continuation once the consumer has taken a batch. The consuming
+ * thread blocks when the buffer is empty.
+ *
+ * <p> Row providers should not block a shared thread while waiting for rows either. A decoder whose
+ * rows arrive over time can instead add a row provider with {@link #addRowProvider(RowProvider)}
+ * whenever rows are available, and it is only submitted to the executor then.
+ *
  * <p> Note: The row transformer passed in MUST be thread-safe, as decoding happens in parallel.
  *
  * @param <T> the type of the decoded rows
  */
 public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
-  private BlockingQueue<Object> results;
-  private ExecutorService threadPool;
+  private static final int RESULT_BUFFER_SIZE = 10000;
+  protected static final int BATCH_SIZE = 100;
+  protected static final long POLL_TIMEOUT_MILLIS = 100;
+  private static final List<Object> TASK_END_MARKER = new ArrayList<>(0);
+
+  private final BlockingQueue<List<Object>> results =
+      new ArrayBlockingQueue<>(RESULT_BUFFER_SIZE / BATCH_SIZE);
+  private final DecodeExecutor executor;
   private final GeoWaveRowIteratorTransformer<T> rowTransformer;
-  private static int RESULT_BUFFER_SIZE = 10000;
-  private int remainingTasks = 0;
   private final int numThreads;
-  private static Object TASK_END_MARKER = new Object();
+  private final Queue<RowProvider> pendingProviders = new ArrayDeque<>();
+  private final Queue<DecodeTask<T>> parkedTasks = new ArrayDeque<>();
+  private final Set<DecodeTask<T>> liveTasks = new HashSet<>();
+  private final List<Future<?>> tasks = new ArrayList<>();
+  private final AtomicLong remainingTasks = new AtomicLong(0);
+  private volatile boolean rowProvidersComplete = true;
+  private volatile boolean closed = false;
+
+  private final AtomicLong bufferedCount = new AtomicLong(0);
+  private final AtomicLong decodedCount = new AtomicLong(0);
+  private final AtomicLong decodeNanos = new AtomicLong(0);
 
   private Exception exception = null;
 
@@ -56,26 +86,31 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
    * Create a parallel decoder with the given row transformer and number of threads.
    *
    * @param rowTransformer the thread-safe row transformer to use for decoding rows
-   * @param numThreads the number of threads to allow in the thread pool
+   * @param numThreads the maximum number of row providers to decode at the same time
    */
   public ParallelDecoder(
       final GeoWaveRowIteratorTransformer<T> rowTransformer,
       final int numThreads) {
+    this(rowTransformer, numThreads, DecodeExecutor.getInstance());
+  }
+
+  /**
+   * Create a parallel decoder with the given row transformer, number of threads and executor.
+   *
+   * @param rowTransformer the thread-safe row transformer to use for decoding rows
+   * @param numThreads the maximum number of row providers to decode at the same time
+   * @param executor the executor to decode rows with
+   */
+  protected ParallelDecoder(
+      final GeoWaveRowIteratorTransformer<T> rowTransformer,
+      final int numThreads,
+      final DecodeExecutor executor) {
     this.numThreads = numThreads;
     this.rowTransformer = rowTransformer;
-    this.threadPool =
-        new ThreadPoolExecutor(
-            numThreads,
-            numThreads,
-            60,
-            TimeUnit.SECONDS,
-            new LinkedBlockingQueue<Runnable>(),
-            Executors.defaultThreadFactory());
-    ((ThreadPoolExecutor) this.threadPool).allowCoreThreadTimeOut(true);
-    results = new ArrayBlockingQueue<>(RESULT_BUFFER_SIZE);
-  }
-
-  /** @return the number of threads allowed in the thread pool */
+    this.executor = executor;
+  }
+
+  /** @return the maximum number of row providers that are decoded at the same time */
   protected int getNumThreads() {
     return numThreads;
   }
@@ -86,14 +121,47 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
    */
   protected abstract List<RowProvider> getRowProviders() throws Exception;
 
+  /**
+   * @return {@code true} if row providers are added with {@link #addRowProvider(RowProvider)} after
+   *         the decode has started, in which case {@link #completeRowProviders()} must be called
+   *         once the last one has been added
+   */
+  protected boolean addsRowProviders() {
+    return false;
+  }
+
+  /**
+   * Add a row provider to decode after the decode has started.
+   *
+   * @param rowProvider the row provider
+   * @return {@code false} if the decoder was closed or failed and the row provider is not decoded
+   */
+  protected synchronized boolean addRowProvider(final RowProvider rowProvider) {
+    if (closed || (exception != null)) {
+      return false;
+    }
+    // counted before it is submitted, so the consumer can not see its end before its start
+    remainingTasks.incrementAndGet();
+    pendingProviders.add(rowProvider);
+    submitNextTasks();
+    return true;
+  }
+
+  /**
+   * Signal that no more row providers will be added with {@link #addRowProvider(RowProvider)}.
+   */
+  protected void completeRowProviders() {
+    rowProvidersComplete = true;
+  }
+
   protected synchronized void setDecodeException(final Exception e) {
     if (exception == null) {
       this.exception = e;
-      this.threadPool.shutdownNow();
+      cancelTasks();
     }
   }
 
-  private synchronized boolean hasException() {
+  protected synchronized boolean hasException() {
     return this.exception != null;
   }
 
@@ -101,21 +169,116 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
     return this.exception;
   }
 
+  /**
+   * @return {@code true} if the decoder has been closed
+   */
+  protected boolean isClosed() {
+    return closed;
+  }
+
+  private void cancelTasks() {
+    pendingProviders.clear();
+    parkedTasks.clear();
+    for (final Future<?> task : tasks) {
+      task.cancel(true);
+    }
+    tasks.clear();
+    // tasks that are not on a thread right now are parked or were cancelled before they could
+    // resume, so nothing else will close their row providers
+    for (final DecodeTask<T> task : new ArrayList<>(liveTasks)) {
+      if (!task.running) {
+        task.finish();
+      }
+    }
+  }
+
   /**
    * Start the parallel decode.
    *
    * @throws Exception
    */
   public void startDecode() throws Exception {
+    rowProvidersComplete = !addsRowProviders();
     final List<RowProvider> rowProviders = getRowProviders();
-    remainingTasks = rowProviders.size();
-    for (final RowProvider rowProvider : rowProviders) {
-      threadPool.submit(new DecodeTask<>(rowProvider, this));
+    remainingTasks.addAndGet(rowProviders.size());
+    synchronized (this) {
+      pendingProviders.addAll(rowProviders);
+      submitNextTasks();
     }
   }
 
   /**
-   * Task to decode the rows from a single row provider.
+   * Submit pending row providers while fewer than {@link #getNumThreads()} tasks of this decoder
+   * are running or parked.
+   */
+  private synchronized void submitNextTasks() {
+    while (!closed
+        && (exception == null)
+        && !pendingProviders.isEmpty()
+        && (liveTasks.size() < numThreads)) {
+      final DecodeTask<T> task = new DecodeTask<>(pendingProviders.poll(), this);
+      liveTasks.add(task);
+      submit(task);
+    }
+  }
+
+  private void submit(final DecodeTask<T> task) {
+    tasks.removeIf(Future::isDone);
+    tasks.add(executor.submit(task));
+  }
+
+  /**
+   * Park a task that could not add its results because the buffer is full, it is resumed when the
+   * consumer takes a batch.
+   */
+  private synchronized void park(final DecodeTask<T> task) {
+    if (closed || (exception != null)) {
+      task.finish();
+      return;
+    }
+    parkedTasks.add(task);
+    if (results.remainingCapacity() > 0) {
+      // the consumer took a batch after the task found the buffer full
+      resumeParkedTask();
+    }
+  }
+
+  private synchronized void resumeParkedTask() {
+    if (!closed && (exception == null) && !parkedTasks.isEmpty()) {
+      submit(parkedTasks.poll());
+    }
+  }
+
+  private boolean shouldTerminate() {
+    return closed || Thread.currentThread().isInterrupted() || hasException();
+  }
+
+  /**
+   * Add a batch of results to the result buffer without waiting for space.
+   *
+   * @return {@code false} if the buffer is full
+   */
+  private boolean offerBatch(final List<Object> batch) {
+    if (!results.offer(batch)) {
+      return false;
+    }
+    if (batch != TASK_END_MARKER) {
+      bufferedCount.addAndGet(batch.size());
+      executor.recordBuffered(batch.size());
+    }
+    return true;
+  }
+
+  private void recordDecode(final int count, final long nanos) {
+    decodedCount.addAndGet(count);
+    decodeNanos.addAndGet(nanos);
+    executor.recordDecode(count, nanos);
+  }
+
+  /**
+   * Task to decode the rows from a single row provider. The task keeps its progress, so that it can
+   * give up its thread when the result buffer is full and continue where it left off when it is
+   * resumed.
    *
    * @param <T> the type of the decoded rows
    */
@@ -123,39 +286,71 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
 
     private final RowProvider rowProvider;
     private final ParallelDecoder<T> parent;
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private volatile boolean running = false;
+    private boolean started = false;
+    private Iterator<T> transformed = null;
+    private List<Object> batch = new ArrayList<>(BATCH_SIZE);
+    private long batchNanos = 0;
+    private boolean exhausted = false;
 
     public DecodeTask(final RowProvider rowProvider, final ParallelDecoder<T> parent) {
       this.rowProvider = rowProvider;
       this.parent = parent;
     }
 
-    private boolean shouldTerminate() {
-      return Thread.currentThread().isInterrupted();
+    private boolean offerBatch() {
+      if (batch.isEmpty()) {
+        return true;
+      }
+      if (!parent.offerBatch(batch)) {
+        return false;
+      }
+      parent.recordDecode(batch.size(), batchNanos);
+      batch = new ArrayList<>(BATCH_SIZE);
+      batchNanos = 0;
+      return true;
     }
 
-    private void offerResult(final Object result) throws InterruptedException {
-      while (!shouldTerminate() && !parent.results.offer(result)) {
-        // Results buffer is full, wait until there is some space
-        Thread.sleep(1);
+    /**
+     * Decode rows until the row provider is exhausted or the result buffer is full.
+     *
+     * @return {@code false} if the result buffer is full and the task has to be resumed later
+     */
+    private boolean decode() {
+      if (!started) {
+        started = true;
+        rowProvider.init();
+        transformed = parent.rowTransformer.apply(rowProvider);
+      }
+      while (!exhausted && !parent.shouldTerminate()) {
+        if ((batch.size() >= BATCH_SIZE) && !offerBatch()) {
+          return false;
+        }
+        final long start = System.nanoTime();
+        if (!transformed.hasNext()) {
+          exhausted = true;
+          break;
+        }
+        batch.add(transformed.next());
+        batchNanos += System.nanoTime() - start;
+      }
+      if (parent.shouldTerminate()) {
+        return true;
       }
+      // No more rows, signal the end of this task.
+      return offerBatch() && parent.offerBatch(TASK_END_MARKER);
     }
 
-    @Override
-    public void run() {
-      try {
-        rowProvider.init();
-        final Iterator<T> transformed = parent.rowTransformer.apply(rowProvider);
-        while (transformed.hasNext() && !shouldTerminate()) {
-          offerResult(transformed.next());
+    private void finish() {
+      if (finished.compareAndSet(false, true)) {
+        synchronized (parent) {
+          parent.liveTasks.remove(this);
         }
-        // No more rows, signal the end of this task.
-        offerResult(TASK_END_MARKER);
-      } catch (final Exception e) {
-        // Don't overwrite the original exception if there is one
-        if (!parent.hasException()) {
-          parent.setDecodeException(e);
+        if (!started) {
+          // the row provider was never initialized
+          return;
         }
-      } finally {
         try {
           rowProvider.close();
         } catch (final IOException e) {
@@ -163,31 +358,92 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
         }
       }
     }
+
+    @Override
+    public void run() {
+      running = true;
+      try {
+        if (parent.shouldTerminate()) {
+          finish();
+          return;
+        }
+        if (!decode()) {
+          // give up the thread so that other decoders can make progress
+          running = false;
+          parent.park(this);
+          return;
+        }
+      } catch (final Exception e) {
+        // Don't overwrite the original exception if there is one, and don't report the
+        // interruption of a closed decoder
+        if (!parent.closed && !parent.hasException()) {
+          parent.setDecodeException(e);
+        }
+      }
+      running = false;
+      finish();
+      parent.submitNextTasks();
+    }
   }
 
   @Override
   public void close() {
-    threadPool.shutdownNow();
+    closed = true;
+    synchronized (this) {
+      cancelTasks();
+    }
+    results.clear();
+    executor.recordBuffered(-bufferedCount.getAndSet(0));
   }
 
-  Object nextResult = null;
+  /**
+   * @return the number of decoded entries that are buffered and waiting to be consumed
+   */
+  public long getBufferedEntries() {
+    return bufferedCount.get();
+  }
+
+  /**
+   * @return the number of entries that have been decoded
+   */
+  public long getDecodedEntries() {
+    return decodedCount.get();
+  }
+
+  /**
+   * @return the average time spent decoding a single entry in nanoseconds, this includes the time
+   *         spent reading the row from the row provider
+   */
+  public double getAverageDecodeNanos() {
+    final long count = decodedCount.get();
+    return count == 0 ? 0 : (double) decodeNanos.get() / count;
+  }
+
+  private Iterator<Object> currentBatch = Collections.emptyIterator();
+  private Object nextResult = null;
 
   private void computeNext() {
     try {
       nextResult = null;
-      while (remainingTasks > 0) {
-        while (!hasException() && ((nextResult = results.poll()) == null)) {
-          // No results available, but there are still tasks running,
-          // wait for more results.
-          Thread.sleep(1);
+      // row providers are counted before they are complete, so read that first
+      while (!currentBatch.hasNext()
+          && (!rowProvidersComplete || (remainingTasks.get() > 0))
+          && !hasException()
+          && !closed) {
+        // wait for more results while there are still tasks running or to be added
+        final List<Object> batch = results.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (batch == TASK_END_MARKER) {
+          // task end was signaled, reduce remaining task count.
+          remainingTasks.decrementAndGet();
+        } else if (batch != null) {
+          bufferedCount.addAndGet(-batch.size());
+          executor.recordBuffered(-batch.size());
+          currentBatch = batch.iterator();
         }
-        // task end was signaled, reduce remaining task count.
-        if (nextResult == TASK_END_MARKER) {
-          remainingTasks--;
-          nextResult = null;
-          continue;
+        if (batch != null) {
+          // there is room in the buffer again
+          resumeParkedTask();
         }
-        break;
       }
     } catch (final InterruptedException e) {
       setDecodeException(e);
@@ -195,6 +451,9 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
     if (hasException()) {
       throw new RuntimeException(getException());
     }
+    if (currentBatch.hasNext()) {
+      nextResult = currentBatch.next();
+    }
   }
 
   @Override
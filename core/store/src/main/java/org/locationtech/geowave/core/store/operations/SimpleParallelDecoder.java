@@ -10,58 +10,96 @@ package org.locationtech.geowave.core.store.operations;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
 
 /**
  * An implementation of {@link ParallelDecoder} that consumes a single {@link GeoWaveRow} iterator
- * and decodes it in parallel.
+ * and decodes it in parallel. Rows are read from the source iterator on a dedicated thread, and
+ * every batch of rows it reads is added as its own row provider. A decode task therefore never
+ * waits on a shared thread for the source iterator, it is only submitted once its rows have been
+ * read. The reader thread blocks while too many batches are waiting to be decoded.
  *
  * @param <T> the type of the decoded rows
  */
 public class SimpleParallelDecoder<T> extends ParallelDecoder<T> {
-  private ArrayBlockingQueue<GeoWaveRow> consumedRows;
-  private Thread consumerThread;
-  private volatile boolean isTerminating = false;
+  private final Semaphore batchPermits;
+  private final Thread consumerThread;
   private static final int CONSUMED_ROW_BUFFER_SIZE = 10000;
 
   public SimpleParallelDecoder(
       final GeoWaveRowIteratorTransformer<T> rowTransformer,
       final Iterator<GeoWaveRow> sourceIterator) {
-    super(rowTransformer);
-    consumedRows = new ArrayBlockingQueue<>(CONSUMED_ROW_BUFFER_SIZE);
+    this(rowTransformer, sourceIterator, DecodeExecutor.getInstance());
+  }
+
+  protected SimpleParallelDecoder(
+      final GeoWaveRowIteratorTransformer<T> rowTransformer,
+      final Iterator<GeoWaveRow> sourceIterator,
+      final DecodeExecutor executor) {
+    super(rowTransformer, 8, executor);
+    batchPermits = new Semaphore(CONSUMED_ROW_BUFFER_SIZE / BATCH_SIZE);
     consumerThread = new Thread(new Runnable() {
       @Override
       public void run() {
         try {
-          while (sourceIterator.hasNext() && !Thread.interrupted()) {
-            final GeoWaveRow next = sourceIterator.next();
-            while (!consumedRows.offer(next)) {
-              // queue is full, wait for space
-              try {
-                Thread.sleep(1);
-              } catch (final InterruptedException e) {
-                isTerminating = true;
+          List<GeoWaveRow> batch = new ArrayList<>(BATCH_SIZE);
+          while (sourceIterator.hasNext() && !Thread.currentThread().isInterrupted()) {
+            batch.add(sourceIterator.next());
+            if (batch.size() >= BATCH_SIZE) {
+              if (!addBatch(batch)) {
                 return;
               }
+              batch = new ArrayList<>(BATCH_SIZE);
             }
           }
+          if (!batch.isEmpty()) {
+            addBatch(batch);
+          }
+        } catch (final InterruptedException e) {
+          // the decoder was closed
         } catch (final Exception e) {
           setDecodeException(e);
+        } finally {
+          completeRowProviders();
         }
-        isTerminating = true;
       }
     });
     consumerThread.setDaemon(true);
   }
 
+  /**
+   * Add a batch of rows to be decoded, waiting while too many batches have not been decoded yet.
+   *
+   * @return {@code false} if the decoder was closed or failed
+   */
+  private boolean addBatch(final List<GeoWaveRow> batch) throws InterruptedException {
+    while (!batchPermits.tryAcquire(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+      if (isClosed() || hasException()) {
+        return false;
+      }
+    }
+    if (!addRowProvider(new BatchRowProvider(batch, batchPermits))) {
+      batchPermits.release();
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean addsRowProviders() {
+    return true;
+  }
+
   @Override
   public void startDecode() throws Exception {
-    consumerThread.start();
     super.startDecode();
+    consumerThread.start();
   }
 
   @Override
@@ -74,62 +112,40 @@ public class SimpleParallelDecoder<T> extends ParallelDecoder<T> {
 
   @Override
   protected List<RowProvider> getRowProviders() throws Exception {
-    final int numThreads = getNumThreads();
-    final List<RowProvider> rowProviders = new ArrayList<>(numThreads);
-    for (int i = 0; i < numThreads; i++) {
-      rowProviders.add(new BlockingQueueRowProvider<>(this));
-    }
-    return rowProviders;
+    // row providers are added as batches are read from the source iterator
+    return Collections.emptyList();
   }
 
   /*
-   * Simple row provider that provides the next result from the blocking queue.
+   * Row provider for a single batch of rows that have already been read from the source iterator.
    */
-  private static class BlockingQueueRowProvider<T> extends ParallelDecoder.RowProvider {
+  private static class BatchRowProvider extends ParallelDecoder.RowProvider {
 
-    private final SimpleParallelDecoder<T> source;
+    private final Iterator<GeoWaveRow> batch;
+    private final Semaphore batchPermits;
+    private boolean released = false;
 
-    public BlockingQueueRowProvider(final SimpleParallelDecoder<T> source) {
-      this.source = source;
+    public BatchRowProvider(final List<GeoWaveRow> batch, final Semaphore batchPermits) {
+      this.batch = batch.iterator();
+      this.batchPermits = batchPermits;
     }
 
     @Override
     public void close() throws IOException {
-      // Do nothing
-    }
-
-    private GeoWaveRow next = null;
-
-    private void computeNext() {
-      while ((next = source.consumedRows.poll()) == null) {
-        if (source.isTerminating) {
-          next = source.consumedRows.poll();
-          break;
-        }
-        try {
-          Thread.sleep(1);
-        } catch (final InterruptedException e) {
-          return;
-        }
+      if (!released) {
+        released = true;
+        batchPermits.release();
       }
     }
 
     @Override
     public boolean hasNext() {
-      if (next == null) {
-        computeNext();
-      }
-      return next != null;
+      return batch.hasNext();
     }
 
     @Override
     public GeoWaveRow next() {
-      if (next == null) {
-        computeNext();
-      }
-      final GeoWaveRow retVal = next;
-      next = null;
-      return retVal;
+      return batch.next();
     }
 
     @Override
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.store.api.BinningStrategy;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+
+/**
+ * Binning strategy that bins entries by the value of a single field. Unlike the statistic
+ * {@link org.locationtech.geowave.core.store.statistics.binning.FieldValueBinningStrategy}, the bin
+ * is the serialized field value, so it can be read back as a value of the field's type using
+ * {@link #getBinValue(DataTypeAdapter, ByteArray)}. Entries with a {@code null} value share a bin.
+ */
+public class FieldBinningStrategy implements BinningStrategy {
+  private static final byte NULL_VALUE = 0;
+  private static final byte NON_NULL_VALUE = 1;
+
+  private String fieldName;
+
+  public FieldBinningStrategy() {}
+
+  /**
+   * @param fieldName the field to bin on
+   */
+  public FieldBinningStrategy(final String fieldName) {
+    this.fieldName = fieldName;
+  }
+
+  public String getFieldName() {
+    return fieldName;
+  }
+
+  @Override
+  public <T> ByteArray[] getBins(
+      final DataTypeAdapter<T> adapter,
+      final T entry,
+      final GeoWaveRow... rows) {
+    final Object value = adapter.getFieldValue(entry, fieldName);
+    if (value == null) {
+      return new ByteArray[] {new ByteArray(new byte[] {NULL_VALUE})};
+    }
+    final byte[] valueBytes = adapter.getWriter(fieldName).writeField(value);
+    final byte[] bin = new byte[valueBytes.length + 1];
+    bin[0] = NON_NULL_VALUE;
+    System.arraycopy(valueBytes, 0, bin, 1, valueBytes.length);
+    return new ByteArray[] {new ByteArray(bin)};
+  }
+
+  /**
+   * Read the field value of a bin produced by this strategy.
+   *
+   * @param adapter the adapter that the bin was produced for
+   * @param bin the bin
+   * @return the field value of the entries in the bin
+   */
+  public Object getBinValue(final DataTypeAdapter<?> adapter, final ByteArray bin) {
+    final byte[] bytes = bin.getBytes();
+    if ((bytes.length == 0) || (bytes[0] == NULL_VALUE)) {
+      return null;
+    }
+    final byte[] valueBytes = new byte[bytes.length - 1];
+    System.arraycopy(bytes, 1, valueBytes, 0, valueBytes.length);
+    return adapter.getReader(fieldName).readField(valueBytes);
+  }
+
+  @Override
+  public byte[] toBinary() {
+    return StringUtils.stringToBinary(fieldName);
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    fieldName = StringUtils.stringFromBinary(bytes);
+  }
+}
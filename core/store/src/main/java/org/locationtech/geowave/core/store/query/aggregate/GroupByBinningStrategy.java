@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.api.BinningStrategy;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+
+/**
+ * Binning strategy that bins entries by a combination of grouping keys, each of which is binned by
+ * its own strategy. An entry produces a bin for every combination of its key bins, and entries that
+ * do not produce a bin for one of the keys are not binned at all. The key bins of a combined bin
+ * can be retrieved with {@link #getKeyBins(ByteArray)}.
+ */
+public class GroupByBinningStrategy implements BinningStrategy {
+
+  private BinningStrategy[] keyStrategies;
+
+  public GroupByBinningStrategy() {
+    keyStrategies = new BinningStrategy[0];
+  }
+
+  /**
+   * @param keyStrategies the binning strategy of each grouping key
+   */
+  public GroupByBinningStrategy(final BinningStrategy... keyStrategies) {
+    this.keyStrategies = keyStrategies;
+  }
+
+  public BinningStrategy[] getKeyStrategies() {
+    return keyStrategies;
+  }
+
+  @Override
+  public <T> ByteArray[] getBins(
+      final DataTypeAdapter<T> adapter,
+      final T entry,
+      final GeoWaveRow... rows) {
+    ByteArray[] bins = new ByteArray[] {new ByteArray()};
+    for (final BinningStrategy strategy : keyStrategies) {
+      final ByteArray[] keyBins = strategy.getBins(adapter, entry, rows);
+      if ((keyBins == null) || (keyBins.length == 0)) {
+        return new ByteArray[0];
+      }
+      final ByteArray[] combined = new ByteArray[bins.length * keyBins.length];
+      int i = 0;
+      for (final ByteArray bin : bins) {
+        for (final ByteArray keyBin : keyBins) {
+          combined[i++] = append(bin, keyBin);
+        }
+      }
+      bins = combined;
+    }
+    return bins;
+  }
+
+  private static ByteArray append(final ByteArray bin, final ByteArray keyBin) {
+    final byte[] binBytes = bin.getBytes();
+    final byte[] keyBytes = keyBin.getBytes();
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(
+            binBytes.length + VarintUtils.unsignedIntByteLength(keyBytes.length) + keyBytes.length);
+    buffer.put(binBytes);
+    VarintUtils.writeUnsignedInt(keyBytes.length, buffer);
+    buffer.put(keyBytes);
+    return new ByteArray(buffer.array());
+  }
+
+  /**
+   * Split a bin produced by this strategy into the bins of each grouping key.
+   *
+   * @param bin the bin
+   * @return the bin of each key, in the order of the key strategies
+   */
+  public ByteArray[] getKeyBins(final ByteArray bin) {
+    final ByteBuffer buffer = ByteBuffer.wrap(bin.getBytes());
+    final ByteArray[] keyBins = new ByteArray[keyStrategies.length];
+    for (int i = 0; i < keyStrategies.length; i++) {
+      final byte[] keyBytes = new byte[VarintUtils.readUnsignedInt(buffer)];
+      buffer.get(keyBytes);
+      keyBins[i] = new ByteArray(keyBytes);
+    }
+    return keyBins;
+  }
+
+  @Override
+  public byte[] toBinary() {
+    return PersistenceUtils.toBinary(Arrays.asList(keyStrategies));
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    final List<Persistable> strategies = PersistenceUtils.fromBinaryAsList(bytes);
+    keyStrategies = strategies.toArray(new BinningStrategy[strategies.size()]);
+  }
+}
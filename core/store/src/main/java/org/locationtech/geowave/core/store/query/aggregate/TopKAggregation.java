@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.apache.commons.lang3.tuple.Pair;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.geowave.core.store.adapter.FieldDescriptor;
+import org.locationtech.geowave.core.store.api.Aggregation;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.RowBuilder;
+import org.locationtech.geowave.core.store.data.field.FieldReader;
+import org.locationtech.geowave.core.store.data.field.FieldWriter;
+import org.locationtech.geowave.core.store.query.filter.expression.Expression;
+
+/**
+ * Aggregation that retains the first {@code k} entries in the order of a set of sort expressions.
+ * When executed server-side, each scan only keeps a bounded heap of its best {@code k} entries, and
+ * the sorted partial results are merged on the client. Sort expressions must evaluate to
+ * {@link Comparable} values, {@code null} values are sorted last.
+ *
+ * @param <T> the data type of the entries being sorted
+ */
+public class TopKAggregation<T> implements Aggregation<TopKAggregationOptions<T>, List<T>, T> {
+
+  private TopKAggregationOptions<T> options;
+  private PriorityQueue<Pair<Object[], T>> heap = null;
+  private Comparator<Object[]> comparator = null;
+
+  public TopKAggregation() {
+    this(null);
+  }
+
+  /**
+   * @param options the sort expressions, limit and adapter of the aggregation
+   */
+  public TopKAggregation(final TopKAggregationOptions<T> options) {
+    this.options = options;
+  }
+
+  /**
+   * @param adapter the adapter of the entries
+   * @param fieldNames the fields to include in the results, these must include any fields used by
+   *        the sort expressions
+   * @param sortExpressions the expressions to sort by, in order of precedence
+   * @param ascending whether each sort expression is sorted in ascending order
+   * @param k the maximum number of entries to retain, or -1 to retain all entries
+   */
+  public TopKAggregation(
+      final DataTypeAdapter<T> adapter,
+      final String[] fieldNames,
+      final Expression<?>[] sortExpressions,
+      final boolean[] ascending,
+      final int k) {
+    this(new TopKAggregationOptions<>(adapter, fieldNames, sortExpressions, ascending, k));
+  }
+
+  @Override
+  public TopKAggregationOptions<T> getParameters() {
+    return options;
+  }
+
+  @Override
+  public void setParameters(final TopKAggregationOptions<T> parameters) {
+    options = parameters;
+    heap = null;
+    comparator = null;
+  }
+
+  private Comparator<Object[]> getComparator() {
+    if (comparator == null) {
+      comparator = (keys1, keys2) -> {
+        for (int i = 0; i < keys1.length; i++) {
+          final int result = compareKey(keys1[i], keys2[i], options.ascending[i]);
+          if (result != 0) {
+            return result;
+          }
+        }
+        return 0;
+      };
+    }
+    return comparator;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int compareKey(final Object key1, final Object key2, final boolean ascending) {
+    if (key1 == null) {
+      return key2 == null ? 0 : 1;
+    } else if (key2 == null) {
+      return -1;
+    }
+    final int result = ((Comparable) key1).compareTo(key2);
+    return ascending ? result : -result;
+  }
+
+  private <A> Object[] getSortKeys(final DataTypeAdapter<A> adapter, final A entry) {
+    final Object[] keys = new Object[options.sortExpressions.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = options.sortExpressions[i].evaluateValue(adapter, entry);
+    }
+    return keys;
+  }
+
+  @Override
+  public void aggregate(final DataTypeAdapter<T> adapter, final T entry) {
+    if (heap == null) {
+      // the head of the heap is the worst retained entry so it can be evicted first
+      heap = new PriorityQueue<>((e1, e2) -> getComparator().compare(e2.getKey(), e1.getKey()));
+    }
+    final Object[] keys = getSortKeys(adapter, entry);
+    if ((options.k < 0) || (heap.size() < options.k)) {
+      heap.add(Pair.of(keys, entry));
+    } else if ((options.k > 0) && (getComparator().compare(keys, heap.peek().getKey()) < 0)) {
+      heap.poll();
+      heap.add(Pair.of(keys, entry));
+    }
+  }
+
+  @Override
+  public List<T> getResult() {
+    if (heap == null) {
+      return Collections.emptyList();
+    }
+    final List<Pair<Object[], T>> sorted = new ArrayList<>(heap);
+    sorted.sort((e1, e2) -> getComparator().compare(e1.getKey(), e2.getKey()));
+    final List<T> result = new ArrayList<>(sorted.size());
+    sorted.forEach(e -> result.add(e.getValue()));
+    return result;
+  }
+
+  @Override
+  public List<T> merge(final List<T> result1, final List<T> result2) {
+    if ((result1 == null) || result1.isEmpty()) {
+      return result2;
+    } else if ((result2 == null) || result2.isEmpty()) {
+      return result1;
+    }
+    // both results are sorted, so only the head of each needs to be compared
+    final int size = result1.size() + result2.size();
+    final List<T> merged = new ArrayList<>(options.k < 0 ? size : Math.min(size, options.k));
+    int i1 = 0;
+    int i2 = 0;
+    Object[] keys1 = getSortKeys(options.adapter, result1.get(0));
+    Object[] keys2 = getSortKeys(options.adapter, result2.get(0));
+    while (((options.k < 0) || (merged.size() < options.k))
+        && ((i1 < result1.size()) || (i2 < result2.size()))) {
+      if ((i2 >= result2.size())
+          || ((i1 < result1.size()) && (getComparator().compare(keys1, keys2) <= 0))) {
+        merged.add(result1.get(i1++));
+        if (i1 < result1.size()) {
+          keys1 = getSortKeys(options.adapter, result1.get(i1));
+        }
+      } else {
+        merged.add(result2.get(i2++));
+        if (i2 < result2.size()) {
+          keys2 = getSortKeys(options.adapter, result2.get(i2));
+        }
+      }
+    }
+    return merged;
+  }
+
+  @Override
+  public byte[] resultToBinary(final List<T> result) {
+    final DataTypeAdapter<T> adapter = options.adapter;
+    final FieldWriter<Object>[] writers = getWriters(adapter);
+    final List<byte[]> entryBytes = new ArrayList<>(result.size());
+    int length = VarintUtils.unsignedIntByteLength(result.size());
+    for (final T entry : result) {
+      final byte[] dataId = adapter.getDataId(entry);
+      entryBytes.add(dataId);
+      length += VarintUtils.unsignedIntByteLength(dataId.length) + dataId.length;
+      for (int i = 0; i < writers.length; i++) {
+        final Object value = adapter.getFieldValue(entry, options.fieldNames[i]);
+        // a length of 0 is reserved for null values
+        final byte[] valueBytes = value == null ? null : writers[i].writeField(value);
+        entryBytes.add(valueBytes);
+        length +=
+            valueBytes == null ? 1
+                : VarintUtils.unsignedIntByteLength(valueBytes.length + 1) + valueBytes.length;
+      }
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+    VarintUtils.writeUnsignedInt(result.size(), buffer);
+    for (int i = 0; i < entryBytes.size(); i++) {
+      final byte[] bytes = entryBytes.get(i);
+      if ((i % (writers.length + 1)) == 0) {
+        VarintUtils.writeUnsignedInt(bytes.length, buffer);
+        buffer.put(bytes);
+      } else if (bytes == null) {
+        VarintUtils.writeUnsignedInt(0, buffer);
+      } else {
+        VarintUtils.writeUnsignedInt(bytes.length + 1, buffer);
+        buffer.put(bytes);
+      }
+    }
+    return buffer.array();
+  }
+
+  @Override
+  public List<T> resultFromBinary(final byte[] binary) {
+    final DataTypeAdapter<T> adapter = options.adapter;
+    final FieldReader<Object>[] readers = getReaders(adapter);
+    final FieldDescriptor<?>[] descriptors = adapter.getFieldDescriptors();
+    final ByteBuffer buffer = ByteBuffer.wrap(binary);
+    final int count = VarintUtils.readUnsignedInt(buffer);
+    final List<T> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final byte[] dataId = ByteArrayUtils.safeRead(buffer, VarintUtils.readUnsignedInt(buffer));
+      final RowBuilder<T> builder = adapter.newRowBuilder(descriptors);
+      for (int f = 0; f < readers.length; f++) {
+        final int length = VarintUtils.readUnsignedInt(buffer);
+        if (length > 0) {
+          builder.setField(
+              options.fieldNames[f],
+              readers[f].readField(ByteArrayUtils.safeRead(buffer, length - 1)));
+        }
+      }
+      result.add(builder.buildRow(dataId));
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private FieldWriter<Object>[] getWriters(final DataTypeAdapter<T> adapter) {
+    final FieldWriter<Object>[] writers = new FieldWriter[options.fieldNames.length];
+    for (int i = 0; i < writers.length; i++) {
+      writers[i] = adapter.getWriter(options.fieldNames[i]);
+    }
+    return writers;
+  }
+
+  @SuppressWarnings("unchecked")
+  private FieldReader<Object>[] getReaders(final DataTypeAdapter<T> adapter) {
+    final FieldReader<Object>[] readers = new FieldReader[options.fieldNames.length];
+    for (int i = 0; i < readers.length; i++) {
+      readers[i] = adapter.getReader(options.fieldNames[i]);
+    }
+    return readers;
+  }
+
+  @Override
+  public void clearResult() {
+    heap = null;
+  }
+}
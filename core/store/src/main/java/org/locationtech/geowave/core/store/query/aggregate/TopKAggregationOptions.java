@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.query.filter.expression.Expression;
+
+/**
+ * The configuration parameters of a {@link TopKAggregation}.
+ *
+ * @param <T> the data type of the entries being sorted
+ */
+public class TopKAggregationOptions<T> implements Persistable {
+
+  /**
+   * The adapter of the entries, used to serialize the retained entries when results are sent from
+   * the server.
+   */
+  DataTypeAdapter<T> adapter;
+
+  /**
+   * The fields of the retained entries that are included in the result. Fields used by the sort
+   * expressions must be included so that results can be merged.
+   */
+  String[] fieldNames;
+
+  /**
+   * The expressions to sort by, in order of precedence.
+   */
+  Expression<?>[] sortExpressions;
+
+  /**
+   * Whether each sort expression is sorted in ascending order.
+   */
+  boolean[] ascending;
+
+  /**
+   * The maximum number of entries to retain, or -1 to retain all entries.
+   */
+  int k;
+
+  public TopKAggregationOptions() {}
+
+  public TopKAggregationOptions(
+      final DataTypeAdapter<T> adapter,
+      final String[] fieldNames,
+      final Expression<?>[] sortExpressions,
+      final boolean[] ascending,
+      final int k) {
+    this.adapter = adapter;
+    this.fieldNames = fieldNames;
+    this.sortExpressions = sortExpressions;
+    this.ascending = ascending;
+    this.k = k;
+  }
+
+  @Override
+  public byte[] toBinary() {
+    final byte[] adapterBytes = PersistenceUtils.toBinary(adapter);
+    final byte[] fieldNameBytes = StringUtils.stringsToBinary(fieldNames);
+    final byte[] expressionBytes = PersistenceUtils.toBinary(sortExpressions);
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(
+            VarintUtils.unsignedIntByteLength(adapterBytes.length)
+                + adapterBytes.length
+                + VarintUtils.unsignedIntByteLength(fieldNameBytes.length)
+                + fieldNameBytes.length
+                + VarintUtils.unsignedIntByteLength(expressionBytes.length)
+                + expressionBytes.length
+                + ascending.length
+                + VarintUtils.signedIntByteLength(k));
+    VarintUtils.writeUnsignedInt(adapterBytes.length, buffer);
+    buffer.put(adapterBytes);
+    VarintUtils.writeUnsignedInt(fieldNameBytes.length, buffer);
+    buffer.put(fieldNameBytes);
+    VarintUtils.writeUnsignedInt(expressionBytes.length, buffer);
+    buffer.put(expressionBytes);
+    for (final boolean asc : ascending) {
+      buffer.put((byte) (asc ? 1 : 0));
+    }
+    VarintUtils.writeSignedInt(k, buffer);
+    return buffer.array();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    adapter =
+        (DataTypeAdapter<T>) PersistenceUtils.fromBinary(
+            ByteArrayUtils.safeRead(buffer, VarintUtils.readUnsignedInt(buffer)));
+    fieldNames =
+        StringUtils.stringsFromBinary(
+            ByteArrayUtils.safeRead(buffer, VarintUtils.readUnsignedInt(buffer)));
+    final List<Persistable> expressions =
+        PersistenceUtils.fromBinaryAsList(
+            ByteArrayUtils.safeRead(buffer, VarintUtils.readUnsignedInt(buffer)));
+    sortExpressions = expressions.toArray(new Expression<?>[expressions.size()]);
+    ascending = new boolean[sortExpressions.length];
+    for (int i = 0; i < ascending.length; i++) {
+      ascending[i] = buffer.get() != 0;
+    }
+    k = VarintUtils.readSignedInt(buffer);
+  }
+}
@@ -14,21 +14,22 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.locationtech.geowave.core.index.QueryRanges;
 import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.geowave.core.index.numeric.MultiDimensionalNumericData;
 import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.index.text.ExplicitTextSearch;
 import org.locationtech.geowave.core.index.text.TextIndexStrategy;
 import org.locationtech.geowave.core.store.AdapterToIndexMapping;
+import org.locationtech.geowave.core.store.BaseDataStoreOptions;
 import org.locationtech.geowave.core.store.adapter.AdapterIndexMappingStore;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.api.AttributeIndex;
 import org.locationtech.geowave.core.store.api.DataTypeAdapter;
 import org.locationtech.geowave.core.store.api.Index;
 import org.locationtech.geowave.core.store.api.IndexFieldMapper;
-import org.locationtech.geowave.core.store.api.IndexStatistic;
-import org.locationtech.geowave.core.store.api.Statistic;
 import org.locationtech.geowave.core.store.base.BaseQueryOptions;
 import org.locationtech.geowave.core.store.index.CustomIndex;
 import org.locationtech.geowave.core.store.index.IndexFilter;
@@ -38,11 +39,11 @@ import org.locationtech.geowave.core.store.query.filter.ExpressionQueryFilter;
 import org.locationtech.geowave.core.store.query.filter.QueryFilter;
 import org.locationtech.geowave.core.store.query.filter.expression.Filter;
 import org.locationtech.geowave.core.store.query.filter.expression.FilterConstraints;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimate;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimator;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan.Selection;
 import org.locationtech.geowave.core.store.statistics.DataStatisticsStore;
-import org.locationtech.geowave.core.store.statistics.StatisticId;
-import org.locationtech.geowave.core.store.statistics.index.RowRangeHistogramStatistic;
-import org.locationtech.geowave.core.store.statistics.index.RowRangeHistogramStatistic.RowRangeHistogramValue;
-import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.beust.jcommander.internal.Sets;
@@ -73,13 +74,56 @@ public class OptimalExpressionQuery implements
 
   private final Map<String, FilterConstraints<?>> constraintCache = Maps.newHashMap();
 
-  @SuppressWarnings({"rawtypes", "unchecked"})
   public List<Pair<Index, List<InternalDataAdapter<?>>>> determineBestIndices(
       final BaseQueryOptions baseOptions,
       final InternalDataAdapter<?>[] adapters,
       final AdapterIndexMappingStore adapterIndexMappingStore,
       final IndexStore indexStore,
       final DataStatisticsStore statisticsStore) {
+    return determineBestIndices(
+        baseOptions,
+        adapters,
+        adapterIndexMappingStore,
+        indexStore,
+        statisticsStore,
+        null,
+        null);
+  }
+
+  /**
+   * Determine the best index for each adapter. Indices that constrain every indexed field of the
+   * filter are preferred, and if there are multiple such indices, the one with the lowest estimated
+   * cost is chosen. Indices that cannot be estimated are skipped, and if none of them can be
+   * estimated, the first constrained index in mapping order is chosen.
+   *
+   * @param baseOptions the query options
+   * @param adapters the adapters to query
+   * @param adapterIndexMappingStore the adapter index mapping store
+   * @param indexStore the index store
+   * @param statisticsStore the statistics store
+   * @param costEstimator the cost estimator built from the data store options, or {@code null} to
+   *        create one from the query options
+   * @param plan the plan to add the estimates and the chosen indices to, or {@code null}
+   * @return the chosen indices and the adapters to query them for
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public List<Pair<Index, List<InternalDataAdapter<?>>>> determineBestIndices(
+      final BaseQueryOptions baseOptions,
+      final InternalDataAdapter<?>[] adapters,
+      final AdapterIndexMappingStore adapterIndexMappingStore,
+      final IndexStore indexStore,
+      final DataStatisticsStore statisticsStore,
+      final @Nullable IndexCostEstimator costEstimator,
+      final @Nullable QueryPlan plan) {
+    final IndexCostEstimator estimator =
+        costEstimator != null ? costEstimator
+            : new IndexCostEstimator(
+                statisticsStore,
+                baseOptions.getMaxRangeDecomposition() != null
+                    ? baseOptions.getMaxRangeDecomposition()
+                    : BaseDataStoreOptions.DEFAULT_MAX_RANGE_DECOMPOSITION,
+                baseOptions.getTargetResolutionPerDimensionForHierarchicalIndex(),
+                baseOptions.getAuthorizations());
     final Map<Index, List<InternalDataAdapter<?>>> bestIndices = Maps.newHashMap();
     final Set<String> referencedFields = Sets.newHashSet();
     filter.addReferencedFields(referencedFields);
@@ -89,7 +133,8 @@ public class OptimalExpressionQuery implements
       }
       final AdapterToIndexMapping[] adapterIndices =
           adapterIndexMappingStore.getIndicesForAdapter(adapter.getAdapterId());
-      final Map<Index, FilterConstraints<?>> indexConstraints = Maps.newHashMap();
+      final Map<Index, FilterConstraints<?>> indexConstraints = Maps.newLinkedHashMap();
+      final List<Index> unconstrainedIndices = Lists.newArrayList();
       Index bestIndex = null;
       for (final AdapterToIndexMapping mapping : adapterIndices) {
         if ((baseOptions.getIndexName() != null)
@@ -153,43 +198,65 @@ public class OptimalExpressionQuery implements
                   indexedFields);
           if (constraints.constrainsAllFields(indexedFields)) {
             indexConstraints.put(index, constraints);
+            continue;
           }
         }
+        unconstrainedIndices.add(index);
       }
+      Selection selection = Selection.HEURISTIC;
       if (indexConstraints.size() == 1) {
         final Entry<Index, FilterConstraints<?>> bestEntry =
             indexConstraints.entrySet().iterator().next();
         bestIndex = bestEntry.getKey();
         constraintCache.put(adapter.getTypeName(), bestEntry.getValue());
+        if (plan != null) {
+          final IndexCostEstimate estimate =
+              estimate(
+                  estimator,
+                  adapter,
+                  bestIndex,
+                  bestEntry.getValue(),
+                  baseOptions,
+                  statisticsStore);
+          if (estimate != null) {
+            plan.addEstimate(estimate);
+          }
+        }
       } else if (indexConstraints.size() > 1) {
-        // determine which constraint is the best
-        double bestCardinality = Double.MAX_VALUE;
-        Index bestConstrainedIndex = null;
+        // determine which constraint is the cheapest
+        final List<IndexCostEstimate> estimates = Lists.newArrayList();
+        Index firstConstrainedIndex = null;
         for (final Entry<Index, FilterConstraints<?>> entry : indexConstraints.entrySet()) {
-          final QueryRanges ranges = entry.getValue().getQueryRanges(baseOptions, statisticsStore);
-          if (ranges.isEmpty()) {
+          final IndexCostEstimate estimate =
+              estimate(
+                  estimator,
+                  adapter,
+                  entry.getKey(),
+                  entry.getValue(),
+                  baseOptions,
+                  statisticsStore);
+          if (estimate == null) {
             continue;
           }
-          // TODO: A future optimization would be to add a default numeric histogram for any numeric
-          // index dimensions and just use the index data ranges to determine cardinality rather
-          // than decomposing query ranges.
-          final StatisticId<RowRangeHistogramValue> statisticId =
-              IndexStatistic.generateStatisticId(
-                  entry.getKey().getName(),
-                  RowRangeHistogramStatistic.STATS_TYPE,
-                  Statistic.INTERNAL_TAG);
-          final RowRangeHistogramStatistic histogram =
-              (RowRangeHistogramStatistic) statisticsStore.getStatisticById(statisticId);
-          final double cardinality =
-              DataStoreUtils.cardinality(
-                  statisticsStore,
-                  histogram,
-                  adapter,
-                  bestConstrainedIndex,
-                  ranges);
-          if ((bestConstrainedIndex == null) || (cardinality < bestCardinality)) {
-            bestConstrainedIndex = entry.getKey();
-            bestCardinality = cardinality;
+          if (firstConstrainedIndex == null) {
+            firstConstrainedIndex = entry.getKey();
+          }
+          if (estimate.isEstimated()) {
+            estimates.add(estimate);
+          }
+          if (plan != null) {
+            plan.addEstimate(estimate);
+          }
+        }
+        Index bestConstrainedIndex = firstConstrainedIndex;
+        final IndexCostEstimate cheapest = IndexCostEstimator.cheapest(estimates, null);
+        if (cheapest != null) {
+          for (final Index index : indexConstraints.keySet()) {
+            if (index.getName().equals(cheapest.getIndexName())) {
+              bestConstrainedIndex = index;
+              selection = Selection.COST;
+              break;
+            }
           }
         }
         if (bestConstrainedIndex != null) {
@@ -200,6 +267,15 @@ public class OptimalExpressionQuery implements
       if (bestIndex == null) {
         continue;
       }
+      if (plan != null) {
+        for (final Index index : unconstrainedIndices) {
+          plan.addEstimate(estimator.estimateFullScan(adapter.getTypeName(), index));
+        }
+        if ((indexConstraints.size() + unconstrainedIndices.size()) == 1) {
+          selection = Selection.SINGLE_CANDIDATE;
+        }
+        plan.select(adapter.getTypeName(), bestIndex.getName(), selection);
+      }
       if (!bestIndices.containsKey(bestIndex)) {
         bestIndices.put(bestIndex, Lists.newArrayList());
       }
@@ -209,6 +285,29 @@ public class OptimalExpressionQuery implements
         Collectors.toList());
   }
 
+  /**
+   * Estimate the cost of querying an index with the given constraints. The constraints of a numeric
+   * index are decomposed by the estimator, which keeps the query ranges so that the query of the
+   * chosen index does not decompose them again.
+   *
+   * @return the estimate, or {@code null} if the constraints have no query ranges on the index
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static IndexCostEstimate estimate(
+      final IndexCostEstimator estimator,
+      final InternalDataAdapter<?> adapter,
+      final Index index,
+      final FilterConstraints<?> constraints,
+      final BaseQueryOptions baseOptions,
+      final DataStatisticsStore statisticsStore) {
+    if (index instanceof CustomIndex) {
+      final QueryRanges ranges = constraints.getQueryRanges(baseOptions, statisticsStore);
+      return ranges.isEmpty() ? null : estimator.estimate(adapter.getTypeName(), index, ranges);
+    }
+    final List<MultiDimensionalNumericData> indexData = (List) constraints.getIndexData();
+    return indexData.isEmpty() ? null : estimator.estimate(adapter.getTypeName(), index, indexData);
+  }
+
   private boolean adapterMatchesFilter(
       final DataTypeAdapter<?> adapter,
       final Set<String> filteredFields) {
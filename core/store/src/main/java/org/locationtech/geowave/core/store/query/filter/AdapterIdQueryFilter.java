@@ -21,6 +21,11 @@ public class AdapterIdQueryFilter implements QueryFilter {
     this.adapterId = adapterId;
   }
 
+  @Override
+  public boolean isStateless() {
+    return true;
+  }
+
   @Override
   public boolean accept(
       final CommonIndexModel indexModel,
@@ -200,6 +200,12 @@ public class BasicQueryFilter implements QueryFilter {
     return ok;
   }
 
+  @Override
+  public boolean isStateless() {
+    // the binned constraints are only built when the filter is created or deserialized
+    return true;
+  }
+
   @Override
   public boolean accept(
       final CommonIndexModel indexModel,
@@ -39,6 +39,12 @@ public class CoordinateRangeQueryFilter implements QueryFilter {
     rangeCache = RangeLookupFactory.createMultiRangeLookup(coordinateRanges);
   }
 
+  @Override
+  public boolean isStateless() {
+    // the range lookups are only built when the filter is created or deserialized
+    return true;
+  }
+
   @Override
   public boolean accept(
       final CommonIndexModel indexModel,
@@ -28,6 +28,11 @@ public class DataIdQueryFilter implements QueryFilter {
     this.dataIds = Arrays.stream(dataIds).map(i -> new ByteArray(i)).collect(Collectors.toSet());
   }
 
+  @Override
+  public boolean isStateless() {
+    return true;
+  }
+
   @Override
   public boolean accept(
       final CommonIndexModel indexModel,
@@ -28,6 +28,11 @@ public class DataIdRangeQueryFilter implements QueryFilter {
     this.endDataIdInclusive = endDataIdInclusive;
   }
 
+  @Override
+  public boolean isStateless() {
+    return true;
+  }
+
   @Override
   public boolean accept(
       final CommonIndexModel indexModel,
@@ -8,25 +8,41 @@
  */
 package org.locationtech.geowave.core.store.query.filter;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.io.Closeable;
 import org.locationtech.geowave.core.index.ByteArray;
 import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This filter will perform de-duplication using the combination of data adapter ID and data ID to
- * determine uniqueness. It can be performed client-side and/or distributed.
+ * determine uniqueness. It can be performed client-side and/or distributed. Only rows that are
+ * duplicated are tracked, unless deduplication is across indices, and the visited data IDs are kept
+ * in a {@link FingerprintDedupeSet} that can spill to disk beyond a memory budget.
  */
-public class DedupeFilter implements QueryFilter {
-  private final Map<Short, Set<ByteArray>> adapterIdToVisitedDataIdMap;
+public class DedupeFilter implements QueryFilter, Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DedupeFilter.class);
+  private final FingerprintDedupeSet visitedDataIds;
 
   private boolean dedupAcrossIndices = false;
 
   public DedupeFilter() {
-    adapterIdToVisitedDataIdMap = new HashMap<>();
+    this(0);
+  }
+
+  /**
+   * @param memoryBudget the number of bytes of visited data IDs to keep in memory before spilling
+   *        them to disk, a value of 0 or less keeps all visited data IDs in memory
+   */
+  public DedupeFilter(final long memoryBudget) {
+    visitedDataIds = new FingerprintDedupeSet(memoryBudget);
+  }
+
+  @Override
+  public boolean isStateless() {
+    // the visited data IDs are tracked per instance
+    return false;
   }
 
   @Override
@@ -46,23 +62,13 @@ public class DedupeFilter implements QueryFilter {
       return true;
     }
 
-    return applyDedupeFilter(
+    return visitedDataIds.add(
         persistenceEncoding.getInternalAdapterId(),
-        new ByteArray(persistenceEncoding.getDataId()));
+        persistenceEncoding.getDataId());
   }
 
   public boolean applyDedupeFilter(final short adapterId, final ByteArray dataId) {
-    synchronized (adapterIdToVisitedDataIdMap) {
-      Set<ByteArray> visitedDataIds = adapterIdToVisitedDataIdMap.get(adapterId);
-      if (visitedDataIds == null) {
-        visitedDataIds = new HashSet<>();
-        adapterIdToVisitedDataIdMap.put(adapterId, visitedDataIds);
-      } else if (visitedDataIds.contains(dataId)) {
-        return false;
-      }
-      visitedDataIds.add(dataId);
-      return true;
-    }
+    return visitedDataIds.add(adapterId, dataId.getBytes());
   }
 
   public void setDedupAcrossIndices(final boolean dedupAcrossIndices) {
@@ -73,6 +79,39 @@ public class DedupeFilter implements QueryFilter {
     return dedupAcrossIndices;
   }
 
+  /**
+   * @return the number of visited data IDs that are tracked
+   */
+  public long getTrackedDataIds() {
+    return visitedDataIds.size();
+  }
+
+  /**
+   * @return the approximate number of bytes of memory used to track visited data IDs
+   */
+  public long getMemoryUsage() {
+    return visitedDataIds.getMemoryUsage();
+  }
+
+  /**
+   * @return the number of bytes of visited data IDs that have been spilled to disk
+   */
+  public long getSpilledBytes() {
+    return visitedDataIds.getSpilledBytes();
+  }
+
+  @Override
+  public void close() {
+    if (LOGGER.isDebugEnabled() && (visitedDataIds.size() > 0)) {
+      LOGGER.debug(
+          "Deduplication tracked {} data IDs using {} bytes of memory and {} bytes on disk",
+          visitedDataIds.size(),
+          visitedDataIds.getMemoryUsage(),
+          visitedDataIds.getSpilledBytes());
+    }
+    visitedDataIds.close();
+  }
+
   @Override
   public byte[] toBinary() {
     return new byte[] {};
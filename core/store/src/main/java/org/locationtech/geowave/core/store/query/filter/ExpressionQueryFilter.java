@@ -9,6 +9,7 @@
 package org.locationtech.geowave.core.store.query.filter;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
@@ -17,15 +18,17 @@ import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.store.AdapterToIndexMapping;
 import org.locationtech.geowave.core.store.adapter.AbstractAdapterPersistenceEncoding;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
-import org.locationtech.geowave.core.store.adapter.MapRowBuilder;
 import org.locationtech.geowave.core.store.api.IndexFieldMapper;
+import org.locationtech.geowave.core.store.api.RowBuilder;
 import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
 import org.locationtech.geowave.core.store.data.MultiFieldPersistentDataset;
 import org.locationtech.geowave.core.store.data.PersistentDataset;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.query.filter.expression.CompiledFilter;
 import org.locationtech.geowave.core.store.query.filter.expression.Filter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -37,9 +40,7 @@ public class ExpressionQueryFilter<T> implements QueryFilter {
   private InternalDataAdapter<T> adapter;
   private AdapterToIndexMapping indexMapping;
   private Filter filter;
-  private Set<String> referencedFields = null;
-  private Map<String, IndexFieldMapper<?, ?>> fieldToIndexFieldMap = null;
-  private boolean referencedFieldsInitialized = false;
+  private transient volatile Binding binding = null;
 
   public ExpressionQueryFilter() {
     super();
@@ -62,20 +63,20 @@ public class ExpressionQueryFilter<T> implements QueryFilter {
     return filter;
   }
 
-  private void initReferencedFields() {
-    synchronized (indexMapping) {
-      if (!referencedFieldsInitialized) {
-        this.referencedFields = Sets.newHashSet();
-        this.fieldToIndexFieldMap = Maps.newHashMap();
-        filter.addReferencedFields(referencedFields);
-        for (final IndexFieldMapper<?, ?> mapper : indexMapping.getIndexFieldMappers()) {
-          for (final String field : mapper.getAdapterFields()) {
-            fieldToIndexFieldMap.put(field, mapper);
-          }
-        }
-        referencedFieldsInitialized = true;
-      }
+  private Binding getBinding() {
+    Binding b = binding;
+    if (b == null) {
+      // compiling is idempotent, so concurrent callers may each compile without locking
+      b = new Binding(filter, indexMapping);
+      binding = b;
     }
+    return b;
+  }
+
+  @Override
+  public boolean isStateless() {
+    // the binding is published once and each thread evaluates rows in its own buffer
+    return true;
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -84,47 +85,44 @@ public class ExpressionQueryFilter<T> implements QueryFilter {
       final CommonIndexModel indexModel,
       final IndexedPersistenceEncoding<?> persistenceEncoding) {
     if ((filter != null) && (indexModel != null) && (adapter != null) && (indexMapping != null)) {
-      final Map<String, Object> fieldValues = Maps.newHashMap();
-      if (!referencedFieldsInitialized) {
-        initReferencedFields();
-      }
+      final Binding b = getBinding();
+      final RowValues rowValues = b.rows.get();
+      final CompiledFilter.Row row = rowValues.row;
+      row.clear();
       final PersistentDataset<?> commonData = persistenceEncoding.getCommonData();
+      for (final IndexFieldMapper<?, ?> mapper : b.mappers) {
+        final Object indexValue = commonData.getValue(mapper.indexFieldName());
+        ((IndexFieldMapper) mapper).toAdapter(indexValue, rowValues);
+      }
       PersistentDataset<Object> adapterExtendedValues = null;
-      for (final String field : referencedFields) {
-        if (fieldValues.containsKey(field)) {
-          continue;
-        }
-        if (fieldToIndexFieldMap.containsKey(field)) {
-          final IndexFieldMapper<?, ?> mapper = fieldToIndexFieldMap.get(field);
-          final Object indexValue = commonData.getValue(mapper.indexFieldName());
-          ((IndexFieldMapper) mapper).toAdapter(indexValue, new MapRowBuilder(fieldValues));
+      for (int i = 0; i < b.unmappedFields.length; i++) {
+        final Object value = commonData.getValue(b.unmappedFields[i]);
+        if (value != null) {
+          row.setValue(b.unmappedFieldIndices[i], value);
         } else {
-          final Object value = commonData.getValue(field);
-          if (value != null) {
-            fieldValues.put(field, value);
-          } else {
-            if (adapterExtendedValues == null) {
-              adapterExtendedValues = new MultiFieldPersistentDataset<>();
-              if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
-                ((AbstractAdapterPersistenceEncoding) persistenceEncoding).convertUnknownValues(
-                    adapter,
-                    indexModel);
-                final PersistentDataset<Object> existingExtValues =
-                    ((AbstractAdapterPersistenceEncoding) persistenceEncoding).getAdapterExtendedData();
-
-                if (persistenceEncoding.isAsync()) {
-                  return false;
-                }
-                if (existingExtValues != null) {
-                  adapterExtendedValues.addValues(existingExtValues.getValues());
-                }
+          if (adapterExtendedValues == null) {
+            adapterExtendedValues = new MultiFieldPersistentDataset<>();
+            if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
+              ((AbstractAdapterPersistenceEncoding) persistenceEncoding).convertUnknownValues(
+                  adapter,
+                  indexModel);
+              final PersistentDataset<Object> existingExtValues =
+                  ((AbstractAdapterPersistenceEncoding) persistenceEncoding).getAdapterExtendedData();
+
+              if (persistenceEncoding.isAsync()) {
+                return false;
+              }
+              if (existingExtValues != null) {
+                adapterExtendedValues = existingExtValues;
               }
             }
-            fieldValues.put(field, adapterExtendedValues.getValue(field));
           }
+          row.setValue(
+              b.unmappedFieldIndices[i],
+              adapterExtendedValues.getValue(b.unmappedFields[i]));
         }
       }
-      return filter.evaluate(fieldValues);
+      return b.filter.evaluate(row);
     }
     return true;
   }
@@ -210,5 +208,74 @@ public class ExpressionQueryFilter<T> implements QueryFilter {
       LOGGER.warn("Adapter to index mapping is empty bytes");
       indexMapping = null;
     }
+    binding = null;
+  }
+
+  /**
+   * The filter compiled against the referenced fields, along with where each field is read from.
+   * Rows are sized for the fields of the compiled filter, so each binding keeps its own.
+   */
+  private static class Binding {
+    private final CompiledFilter filter;
+    // rows are reused for every entry a thread evaluates
+    private final ThreadLocal<RowValues> rows;
+    // the index field mappers that produce any of the referenced fields
+    private final IndexFieldMapper<?, ?>[] mappers;
+    // the referenced fields that are read directly from the common or extended data
+    private final String[] unmappedFields;
+    private final int[] unmappedFieldIndices;
+
+    private Binding(final Filter filter, final AdapterToIndexMapping indexMapping) {
+      this.filter = CompiledFilter.compile(filter);
+      rows = ThreadLocal.withInitial(() -> new RowValues(this.filter.newRow()));
+      final Map<String, IndexFieldMapper<?, ?>> fieldToIndexFieldMap = Maps.newHashMap();
+      for (final IndexFieldMapper<?, ?> mapper : indexMapping.getIndexFieldMappers()) {
+        for (final String field : mapper.getAdapterFields()) {
+          fieldToIndexFieldMap.put(field, mapper);
+        }
+      }
+      final Set<IndexFieldMapper<?, ?>> referencedMappers = Sets.newLinkedHashSet();
+      final List<String> unmapped = Lists.newArrayList();
+      for (final String field : this.filter.getFields()) {
+        final IndexFieldMapper<?, ?> mapper = fieldToIndexFieldMap.get(field);
+        if (mapper != null) {
+          referencedMappers.add(mapper);
+        } else {
+          unmapped.add(field);
+        }
+      }
+      mappers = referencedMappers.toArray(new IndexFieldMapper<?, ?>[referencedMappers.size()]);
+      unmappedFields = unmapped.toArray(new String[unmapped.size()]);
+      unmappedFieldIndices = new int[unmappedFields.length];
+      for (int i = 0; i < unmappedFields.length; i++) {
+        unmappedFieldIndices[i] = this.filter.getFieldIndex(unmappedFields[i]);
+      }
+    }
+  }
+
+  /**
+   * Collects the adapter field values produced by index field mappers into a row.
+   */
+  private static class RowValues implements RowBuilder<Object> {
+    private final CompiledFilter.Row row;
+
+    private RowValues(final CompiledFilter.Row row) {
+      this.row = row;
+    }
+
+    @Override
+    public void setField(final String fieldName, final Object fieldValue) {
+      row.setValue(fieldName, fieldValue);
+    }
+
+    @Override
+    public void setFields(final Map<String, Object> values) {
+      values.forEach(row::setValue);
+    }
+
+    @Override
+    public Object buildRow(final byte[] dataId) {
+      return null;
+    }
   }
 }
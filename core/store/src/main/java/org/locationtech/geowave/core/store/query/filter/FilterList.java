@@ -40,6 +40,11 @@ public class FilterList implements QueryFilter {
     this.filters = filters;
   }
 
+  @Override
+  public boolean isStateless() {
+    return (filters == null) || filters.stream().allMatch(QueryFilter::isStateless);
+  }
+
   @Override
   public boolean accept(
       final CommonIndexModel indexModel,
@@ -0,0 +1,378 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.filter;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A concurrent set of adapter ID and data ID pairs that is used for deduplication. Each pair is
+ * tracked by a 64-bit fingerprint in an open addressing hash table, and the exact pair is appended
+ * to a byte arena so that a fingerprint collision never causes a distinct pair to be treated as a
+ * duplicate. The set is split into stripes by fingerprint, each with its own lock, so that
+ * concurrent decode threads rarely contend.
+ *
+ * <p> If a memory budget is given, the arena of a stripe is spilled to a temporary file when the
+ * arena and the fingerprint table of the stripe exceed its share of the budget, and the exact pairs
+ * are then read back from the file only when their fingerprint matches. The fingerprint tables
+ * always stay in memory, at 16 bytes per slot, so once they alone exceed the budget only a minimal
+ * arena is kept and memory grows with the number of distinct pairs. The file is deleted when the
+ * set is closed.
+ */
+public class FingerprintDedupeSet implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FingerprintDedupeSet.class);
+  private static final int STRIPE_BITS = 4;
+  private static final int STRIPES = 1 << STRIPE_BITS;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int INITIAL_ARENA_SIZE = 256;
+  private static final int MIN_ARENA_BUDGET = 4096;
+  // the adapter ID followed by the length of the data ID
+  private static final int ENTRY_HEADER_LENGTH = 6;
+  // a fingerprint and a location per slot
+  private static final int SLOT_LENGTH = 16;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  private final long stripeMemoryBudget;
+  private volatile SpillFile spillFile = null;
+  private boolean spillFailed = false;
+
+  /**
+   * Create a set that keeps all data IDs in memory.
+   */
+  public FingerprintDedupeSet() {
+    this(0);
+  }
+
+  /**
+   * @param memoryBudget the number of bytes of fingerprint tables and data IDs to keep in memory
+   *        before spilling data IDs to disk, a value of 0 or less keeps all data IDs in memory
+   */
+  public FingerprintDedupeSet(final long memoryBudget) {
+    stripeMemoryBudget =
+        memoryBudget <= 0 ? Long.MAX_VALUE : Math.max(MIN_ARENA_BUDGET, memoryBudget / STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  /**
+   * Add a data ID to the set.
+   *
+   * @param adapterId the internal adapter ID
+   * @param dataId the data ID
+   * @return {@code true} if the data ID was not already in the set for the adapter
+   */
+  public boolean add(final short adapterId, final byte[] dataId) {
+    final long fingerprint = fingerprint(adapterId, dataId);
+    final Stripe stripe = stripes[(int) (fingerprint >>> (64 - STRIPE_BITS))];
+    synchronized (stripe) {
+      return stripe.add(fingerprint == 0 ? 1 : fingerprint, adapterId, dataId);
+    }
+  }
+
+  /**
+   * Compute the fingerprint of an adapter ID and data ID. Equal pairs must always have the same
+   * fingerprint, distinct pairs should rarely share one.
+   */
+  protected long fingerprint(final short adapterId, final byte[] dataId) {
+    // FNV-1a followed by the murmur3 finalizer so that all bits are well distributed
+    long hash = 0xcbf29ce484222325L;
+    hash = (hash ^ (adapterId & 0xFFFF)) * 0x100000001b3L;
+    for (final byte b : dataId) {
+      hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * @return the number of data IDs in the set
+   */
+  public long size() {
+    long size = 0;
+    for (final Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return the approximate number of bytes of memory used by the set
+   */
+  public long getMemoryUsage() {
+    long memory = 0;
+    for (final Stripe stripe : stripes) {
+      synchronized (stripe) {
+        if (stripe.fingerprints != null) {
+          memory += stripe.fingerprints.length * (long) SLOT_LENGTH;
+        }
+        if (stripe.arena != null) {
+          memory += stripe.arena.length;
+        }
+      }
+    }
+    return memory;
+  }
+
+  /**
+   * @return the number of bytes of data IDs that have been spilled to disk
+   */
+  public synchronized long getSpilledBytes() {
+    return spillFile == null ? 0 : spillFile.length;
+  }
+
+  private synchronized SpillFile getSpillFile() {
+    if ((spillFile == null) && !spillFailed) {
+      try {
+        spillFile = new SpillFile();
+      } catch (final IOException e) {
+        LOGGER.warn("Unable to create dedupe spill file, data IDs will be kept in memory", e);
+        spillFailed = true;
+      }
+    }
+    return spillFile;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (spillFile != null) {
+      try {
+        spillFile.close();
+      } catch (final IOException e) {
+        LOGGER.warn("Unable to close dedupe spill file", e);
+      }
+      spillFile = null;
+    }
+    // never create another spill file once closed
+    spillFailed = true;
+  }
+
+  private class Stripe {
+    // a fingerprint of 0 marks an empty slot
+    private long[] fingerprints;
+    // a non-negative location is an offset in the arena, a negative location is -(offset + 1) in
+    // the spill file
+    private long[] locations;
+    private int size = 0;
+    private byte[] arena;
+    private int arenaLength = 0;
+    private long stripeBudget = stripeMemoryBudget;
+
+    private boolean add(final long fingerprint, final short adapterId, final byte[] dataId) {
+      if (fingerprints == null) {
+        fingerprints = new long[INITIAL_CAPACITY];
+        locations = new long[INITIAL_CAPACITY];
+      }
+      final int mask = fingerprints.length - 1;
+      int slot = (int) fingerprint & mask;
+      while (fingerprints[slot] != 0) {
+        if ((fingerprints[slot] == fingerprint) && matches(locations[slot], adapterId, dataId)) {
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      locations[slot] = append(adapterId, dataId);
+      fingerprints[slot] = fingerprint;
+      if (++size > ((fingerprints.length * 3) / 4)) {
+        resize();
+        // the larger table leaves less of the budget for the arena
+        final long arenaLimit = getArenaLimit();
+        if ((arena != null) && (arena.length > arenaLimit)) {
+          spill(arenaLimit);
+        }
+      }
+      return true;
+    }
+
+    private long getArenaLimit() {
+      // the fingerprint table counts against the budget of the stripe, but it can't be spilled
+      return Math.max(MIN_ARENA_BUDGET, stripeBudget - (fingerprints.length * (long) SLOT_LENGTH));
+    }
+
+    private void resize() {
+      final long[] oldFingerprints = fingerprints;
+      final long[] oldLocations = locations;
+      fingerprints = new long[oldFingerprints.length * 2];
+      locations = new long[oldFingerprints.length * 2];
+      final int mask = fingerprints.length - 1;
+      for (int i = 0; i < oldFingerprints.length; i++) {
+        if (oldFingerprints[i] != 0) {
+          int slot = (int) oldFingerprints[i] & mask;
+          while (fingerprints[slot] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          fingerprints[slot] = oldFingerprints[i];
+          locations[slot] = oldLocations[i];
+        }
+      }
+    }
+
+    private long append(final short adapterId, final byte[] dataId) {
+      final int entryLength = ENTRY_HEADER_LENGTH + dataId.length;
+      final long arenaLimit = getArenaLimit();
+      if (((arenaLength + entryLength) > arenaLimit) && (arenaLength > 0)) {
+        spill(arenaLimit);
+      }
+      if (arena == null) {
+        arena = new byte[(int) Math.max(Math.min(arenaLimit, INITIAL_ARENA_SIZE), entryLength)];
+      } else if ((arenaLength + entryLength) > arena.length) {
+        final long newLength =
+            Math.min(arenaLimit, Math.max((long) arena.length * 2, arenaLength + entryLength));
+        final byte[] newArena = new byte[(int) Math.max(newLength, arenaLength + entryLength)];
+        System.arraycopy(arena, 0, newArena, 0, arenaLength);
+        arena = newArena;
+      }
+      final int offset = arenaLength;
+      arena[offset] = (byte) (adapterId >>> 8);
+      arena[offset + 1] = (byte) adapterId;
+      arena[offset + 2] = (byte) (dataId.length >>> 24);
+      arena[offset + 3] = (byte) (dataId.length >>> 16);
+      arena[offset + 4] = (byte) (dataId.length >>> 8);
+      arena[offset + 5] = (byte) dataId.length;
+      System.arraycopy(dataId, 0, arena, offset + ENTRY_HEADER_LENGTH, dataId.length);
+      arenaLength += entryLength;
+      return offset;
+    }
+
+    private void spill(final long arenaLimit) {
+      final SpillFile file = getSpillFile();
+      long fileOffset = -1;
+      if (file != null) {
+        try {
+          fileOffset = file.append(arena, arenaLength);
+        } catch (final IOException e) {
+          LOGGER.warn("Unable to spill data IDs to disk, data IDs will be kept in memory", e);
+        }
+      }
+      if (fileOffset < 0) {
+        // keep everything in memory from now on
+        stripeBudget = Long.MAX_VALUE;
+        return;
+      }
+      for (int i = 0; i < fingerprints.length; i++) {
+        if ((fingerprints[i] != 0) && (locations[i] >= 0)) {
+          locations[i] = -(fileOffset + locations[i]) - 1;
+        }
+      }
+      arenaLength = 0;
+      if (arena.length > arenaLimit) {
+        arena = null;
+      }
+    }
+
+    private boolean matches(final long location, final short adapterId, final byte[] dataId) {
+      if (location >= 0) {
+        return matches(arena, (int) location, adapterId, dataId, true);
+      }
+      final SpillFile file = spillFile;
+      if (file == null) {
+        return false;
+      }
+      try {
+        final long position = -(location + 1);
+        final byte[] header = file.read(position, ENTRY_HEADER_LENGTH);
+        if (!matches(header, 0, adapterId, dataId, false)) {
+          return false;
+        }
+        final byte[] storedDataId = file.read(position + ENTRY_HEADER_LENGTH, dataId.length);
+        for (int i = 0; i < dataId.length; i++) {
+          if (storedDataId[i] != dataId[i]) {
+            return false;
+          }
+        }
+        return true;
+      } catch (final IOException e) {
+        // returning a duplicate is preferable to dropping a distinct row
+        LOGGER.warn("Unable to read spilled data ID, treating the row as unique", e);
+        return false;
+      }
+    }
+
+    private boolean matches(
+        final byte[] bytes,
+        final int offset,
+        final short adapterId,
+        final byte[] dataId,
+        final boolean compareDataId) {
+      final short storedAdapterId =
+          (short) (((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF));
+      final int storedLength =
+          ((bytes[offset + 2] & 0xFF) << 24)
+              | ((bytes[offset + 3] & 0xFF) << 16)
+              | ((bytes[offset + 4] & 0xFF) << 8)
+              | (bytes[offset + 5] & 0xFF);
+      if ((storedAdapterId != adapterId) || (storedLength != dataId.length)) {
+        return false;
+      }
+      if (compareDataId) {
+        final int dataOffset = offset + ENTRY_HEADER_LENGTH;
+        for (int i = 0; i < dataId.length; i++) {
+          if (bytes[dataOffset + i] != dataId[i]) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+  }
+
+  private static class SpillFile implements Closeable {
+    private final FileChannel channel;
+    private volatile long length = 0;
+
+    private SpillFile() throws IOException {
+      channel =
+          FileChannel.open(
+              Files.createTempFile("geowave-dedupe", ".spill"),
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    private synchronized long append(final byte[] bytes, final int count) throws IOException {
+      final long position = length;
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, count);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, position + buffer.position());
+      }
+      length += count;
+      return position;
+    }
+
+    private byte[] read(final long position, final int count) throws IOException {
+      final byte[] bytes = new byte[count];
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      while (buffer.hasRemaining()) {
+        // positional reads are safe while other threads append to the channel
+        if (channel.read(buffer, position + buffer.position()) < 0) {
+          throw new EOFException("Unexpected end of dedupe spill file");
+        }
+      }
+      return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -31,6 +31,11 @@ public class InsertionIdQueryFilter implements QueryFilter {
     this.dataId = dataId;
   }
 
+  @Override
+  public boolean isStateless() {
+    return true;
+  }
+
   @Override
   public boolean accept(
       final CommonIndexModel indexModel,
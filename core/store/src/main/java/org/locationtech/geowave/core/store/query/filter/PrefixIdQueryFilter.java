@@ -26,6 +26,11 @@ public class PrefixIdQueryFilter implements QueryFilter {
     this.sortKeyPrefix = sortKeyPrefix;
   }
 
+  @Override
+  public boolean isStateless() {
+    return true;
+  }
+
   @Override
   public boolean accept(
       final CommonIndexModel indexModel,
@@ -21,4 +21,16 @@ public interface QueryFilter extends Persistable {
   public boolean accept(
       CommonIndexModel indexModel,
       IndexedPersistenceEncoding<?> persistenceEncoding);
+
+  /**
+   * Filters are assumed to keep state unless they declare otherwise, only filters that report
+   * {@code true} are shared by the
+   * {@link org.locationtech.geowave.core.store.server.ServerSideObjectCache}.
+   *
+   * @return {@code true} if this filter is not modified once it has been deserialized and can be
+   *         used by concurrent scans
+   */
+  default boolean isStateless() {
+    return false;
+  }
 }
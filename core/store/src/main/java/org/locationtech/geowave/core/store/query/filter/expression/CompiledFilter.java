@@ -0,0 +1,460 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.filter.expression;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.locationtech.geowave.core.index.FloatCompareUtils;
+import org.locationtech.geowave.core.store.query.filter.expression.ComparisonOperator.CompareOp;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.Abs;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.Add;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.Divide;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.Multiply;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericBetween;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericComparisonOperator;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericExpression;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericLiteral;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.Subtract;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * A filter that has been bound to the fields it references so that it can be evaluated repeatedly
+ * against an array of field values instead of a map. Logical operators and numeric comparisons are
+ * compiled into a tree that reads fields by position and compares primitive doubles. Any other
+ * predicate is evaluated with its own {@link Filter#evaluate(Map)} using a map view of the row.
+ *
+ * <p> A compiled filter is immutable and can be shared between threads. Each thread should create
+ * its own {@link Row} with {@link #newRow()} and reuse it for every entry it evaluates.
+ */
+public class CompiledFilter {
+  private final String[] fields;
+  private final Map<String, Integer> fieldIndices;
+  private final Condition condition;
+
+  private CompiledFilter(final Filter filter) {
+    final Set<String> referencedFields = Sets.newLinkedHashSet();
+    filter.addReferencedFields(referencedFields);
+    fields = referencedFields.toArray(new String[referencedFields.size()]);
+    fieldIndices = Maps.newHashMapWithExpectedSize(fields.length);
+    for (int i = 0; i < fields.length; i++) {
+      fieldIndices.put(fields[i], i);
+    }
+    condition = bind(filter);
+  }
+
+  /**
+   * Compile a filter.
+   *
+   * @param filter the filter to compile
+   * @return the compiled filter
+   */
+  public static CompiledFilter compile(final Filter filter) {
+    return new CompiledFilter(filter);
+  }
+
+  /**
+   * @return the fields referenced by the filter, the position of a field in this array is its
+   *         position in a row
+   */
+  public String[] getFields() {
+    return fields;
+  }
+
+  /**
+   * @param fieldName the field name
+   * @return the position of the field in a row, or -1 if the filter doesn't reference the field
+   */
+  public int getFieldIndex(final String fieldName) {
+    final Integer index = fieldIndices.get(fieldName);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * @return a new empty row for this filter
+   */
+  public Row newRow() {
+    return new Row();
+  }
+
+  /**
+   * Evaluate the filter against the field values of a row.
+   *
+   * @param row the row
+   * @return {@code true} if the filter passes
+   */
+  public boolean evaluate(final Row row) {
+    return condition.test(row);
+  }
+
+  private Condition bind(final Filter filter) {
+    if (filter instanceof And) {
+      final Condition[] children = bindAll(((And) filter).getChildren());
+      return row -> {
+        for (final Condition c : children) {
+          if (!c.test(row)) {
+            return false;
+          }
+        }
+        return true;
+      };
+    } else if (filter instanceof Or) {
+      final Condition[] children = bindAll(((Or) filter).getChildren());
+      return row -> {
+        for (final Condition c : children) {
+          if (c.test(row)) {
+            return true;
+          }
+        }
+        return false;
+      };
+    } else if (filter instanceof Not) {
+      final Condition child = bind(((Not) filter).getFilter());
+      return row -> !child.test(row);
+    } else if (filter instanceof Include) {
+      return row -> true;
+    } else if (filter instanceof Exclude) {
+      return row -> false;
+    } else if (filter instanceof NumericComparisonOperator) {
+      final NumericComparisonOperator comparison = (NumericComparisonOperator) filter;
+      return bindComparison(
+          bind(comparison.getExpression1()),
+          bind(comparison.getExpression2()),
+          comparison.getCompareOp());
+    } else if (filter instanceof NumericBetween) {
+      final NumericBetween between = (NumericBetween) filter;
+      final NumericValue value = bind(between.getValue());
+      final NumericValue lowerBound = bind(between.getLowerBound());
+      final NumericValue upperBound = bind(between.getUpperBound());
+      return row -> {
+        if (value.isNull(row) || lowerBound.isNull(row) || upperBound.isNull(row)) {
+          return false;
+        }
+        final double v = value.value(row);
+        return (v >= lowerBound.value(row)) && (v <= upperBound.value(row));
+      };
+    } else if ((filter instanceof IsNull)
+        && (((IsNull) filter).getExpression() instanceof NumericExpression)) {
+      final NumericValue value = bind((NumericExpression) ((IsNull) filter).getExpression());
+      return row -> value.isNull(row);
+    } else if ((filter instanceof IsNotNull)
+        && (((IsNotNull) filter).getExpression() instanceof NumericExpression)) {
+      final NumericValue value = bind((NumericExpression) ((IsNotNull) filter).getExpression());
+      return row -> !value.isNull(row);
+    }
+    return row -> filter.evaluate(row.asMap());
+  }
+
+  private Condition[] bindAll(final Filter[] filters) {
+    return Arrays.stream(filters).map(this::bind).toArray(Condition[]::new);
+  }
+
+  private static Condition bindComparison(
+      final NumericValue value1,
+      final NumericValue value2,
+      final CompareOp compareOp) {
+    // null handling matches ComparisonOperator
+    switch (compareOp) {
+      case EQUAL_TO:
+        return row -> {
+          final boolean null1 = value1.isNull(row);
+          final boolean null2 = value2.isNull(row);
+          if (null1 || null2) {
+            return null1 && null2;
+          }
+          return FloatCompareUtils.checkDoublesEqual(value1.value(row), value2.value(row));
+        };
+      case NOT_EQUAL_TO:
+        return row -> {
+          final boolean null1 = value1.isNull(row);
+          final boolean null2 = value2.isNull(row);
+          if (null1 || null2) {
+            return null1 != null2;
+          }
+          return !FloatCompareUtils.checkDoublesEqual(value1.value(row), value2.value(row));
+        };
+      case LESS_THAN:
+        return row -> !value1.isNull(row)
+            && !value2.isNull(row)
+            && (value1.value(row) < value2.value(row));
+      case LESS_THAN_OR_EQUAL:
+        return row -> !value1.isNull(row)
+            && !value2.isNull(row)
+            && (value1.value(row) <= value2.value(row));
+      case GREATER_THAN:
+        return row -> !value1.isNull(row)
+            && !value2.isNull(row)
+            && (value1.value(row) > value2.value(row));
+      case GREATER_THAN_OR_EQUAL:
+        return row -> !value1.isNull(row)
+            && !value2.isNull(row)
+            && (value1.value(row) >= value2.value(row));
+      default:
+        return row -> false;
+    }
+  }
+
+  private NumericValue bind(final NumericExpression expression) {
+    if (expression instanceof NumericLiteral) {
+      final Double literal = ((NumericLiteral) expression).getValue();
+      if (literal == null) {
+        return new NumericValue() {
+          @Override
+          public boolean isNull(final Row row) {
+            return true;
+          }
+
+          @Override
+          public double value(final Row row) {
+            return Double.NaN;
+          }
+        };
+      }
+      final double value = literal;
+      return new NumericValue() {
+        @Override
+        public boolean isNull(final Row row) {
+          return false;
+        }
+
+        @Override
+        public double value(final Row row) {
+          return value;
+        }
+      };
+    } else if (expression.getClass().equals(NumericFieldValue.class)) {
+      final int index = getFieldIndex(((NumericFieldValue) expression).getFieldName());
+      return new NumericValue() {
+        @Override
+        public boolean isNull(final Row row) {
+          return row.values[index] == null;
+        }
+
+        @Override
+        public double value(final Row row) {
+          final Object value = row.values[index];
+          if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+          }
+          throw new RuntimeException(
+              "Field value did not evaluate to a number: " + value.getClass().toString());
+        }
+      };
+    } else if (expression instanceof Abs) {
+      final NumericValue base = bind(((Abs) expression).getExpression());
+      return new NumericValue() {
+        @Override
+        public boolean isNull(final Row row) {
+          return base.isNull(row);
+        }
+
+        @Override
+        public double value(final Row row) {
+          return Math.abs(base.value(row));
+        }
+      };
+    } else if (expression instanceof Add) {
+      final NumericValue value1 = bind(((Add) expression).getExpression1());
+      final NumericValue value2 = bind(((Add) expression).getExpression2());
+      return new BinaryNumericValue(value1, value2) {
+        @Override
+        public double value(final Row row) {
+          return value1.value(row) + value2.value(row);
+        }
+      };
+    } else if (expression instanceof Subtract) {
+      final NumericValue value1 = bind(((Subtract) expression).getExpression1());
+      final NumericValue value2 = bind(((Subtract) expression).getExpression2());
+      return new BinaryNumericValue(value1, value2) {
+        @Override
+        public double value(final Row row) {
+          return value1.value(row) - value2.value(row);
+        }
+      };
+    } else if (expression instanceof Multiply) {
+      final NumericValue value1 = bind(((Multiply) expression).getExpression1());
+      final NumericValue value2 = bind(((Multiply) expression).getExpression2());
+      return new BinaryNumericValue(value1, value2) {
+        @Override
+        public double value(final Row row) {
+          return value1.value(row) * value2.value(row);
+        }
+      };
+    } else if (expression instanceof Divide) {
+      final NumericValue value1 = bind(((Divide) expression).getExpression1());
+      final NumericValue value2 = bind(((Divide) expression).getExpression2());
+      return new BinaryNumericValue(value1, value2) {
+        @Override
+        public double value(final Row row) {
+          return value1.value(row) / value2.value(row);
+        }
+      };
+    }
+    // any other numeric expression is evaluated as is
+    return new NumericValue() {
+      @Override
+      public boolean isNull(final Row row) {
+        return expression.evaluateValue(row.asMap()) == null;
+      }
+
+      @Override
+      public double value(final Row row) {
+        return expression.evaluateValue(row.asMap());
+      }
+    };
+  }
+
+  private static interface Condition {
+    boolean test(Row row);
+  }
+
+  private static interface NumericValue {
+    boolean isNull(Row row);
+
+    /**
+     * @param row the row
+     * @return the value, only valid if {@link #isNull(Row)} is {@code false}
+     */
+    double value(Row row);
+  }
+
+  private abstract static class BinaryNumericValue implements NumericValue {
+    private final NumericValue value1;
+    private final NumericValue value2;
+
+    private BinaryNumericValue(final NumericValue value1, final NumericValue value2) {
+      this.value1 = value1;
+      this.value2 = value2;
+    }
+
+    @Override
+    public boolean isNull(final Row row) {
+      return value1.isNull(row) || value2.isNull(row);
+    }
+  }
+
+  /**
+   * The field values of one entry, in the positions given by {@link CompiledFilter#getFields()}. A
+   * row is not thread-safe and is meant to be cleared and reused for each entry.
+   */
+  public class Row {
+    private final Object[] values = new Object[fields.length];
+    private Map<String, Object> map = null;
+
+    private Row() {}
+
+    /**
+     * @param index the position of the field
+     * @param value the value of the field
+     */
+    public void setValue(final int index, final Object value) {
+      values[index] = value;
+    }
+
+    /**
+     * Set a field value by name, fields that the filter doesn't reference are ignored.
+     *
+     * @param fieldName the field name
+     * @param value the value of the field
+     */
+    public void setValue(final String fieldName, final Object value) {
+      final Integer index = fieldIndices.get(fieldName);
+      if (index != null) {
+        values[index] = value;
+      }
+    }
+
+    public Object getValue(final int index) {
+      return values[index];
+    }
+
+    /**
+     * Set every field value to null.
+     */
+    public void clear() {
+      Arrays.fill(values, null);
+    }
+
+    private Map<String, Object> asMap() {
+      if (map == null) {
+        map = new RowMap();
+      }
+      return map;
+    }
+
+    /**
+     * A read-only map view of the row for predicates that aren't compiled.
+     */
+    private class RowMap extends AbstractMap<String, Object> {
+      @Override
+      public Object get(final Object key) {
+        final Integer index = fieldIndices.get(key);
+        return index == null ? null : values[index];
+      }
+
+      @Override
+      public boolean containsKey(final Object key) {
+        final Integer index = fieldIndices.get(key);
+        return (index != null) && (values[index] != null);
+      }
+
+      @Override
+      public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+          @Override
+          public Iterator<Entry<String, Object>> iterator() {
+            return new Iterator<Entry<String, Object>>() {
+              private int next = advance(0);
+
+              private int advance(int index) {
+                while ((index < values.length) && (values[index] == null)) {
+                  index++;
+                }
+                return index;
+              }
+
+              @Override
+              public boolean hasNext() {
+                return next < values.length;
+              }
+
+              @Override
+              public Entry<String, Object> next() {
+                if (!hasNext()) {
+                  throw new NoSuchElementException();
+                }
+                final Entry<String, Object> entry =
+                    new SimpleImmutableEntry<>(fields[next], values[next]);
+                next = advance(next + 1);
+                return entry;
+              }
+            };
+          }
+
+          @Override
+          public int size() {
+            int size = 0;
+            for (final Object value : values) {
+              if (value != null) {
+                size++;
+              }
+            }
+            return size;
+          }
+        };
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.gwql;
+
+/**
+ * Selector that groups the results of an aggregation by the bins of a binning function.
+ */
+public class BinningSelector extends Selector {
+  private final String functionName;
+  private final String[] functionArgs;
+  private final String name;
+
+  /**
+   * @param functionName the name of the function
+   * @param functionArgs the function arguments
+   */
+  public BinningSelector(final String functionName, final String[] functionArgs) {
+    this(functionName, functionArgs, null);
+  }
+
+  /**
+   * @param functionName the name of the function
+   * @param functionArgs the function arguments
+   * @param alias the column alias of this selector
+   */
+  public BinningSelector(
+      final String functionName,
+      final String[] functionArgs,
+      final String alias) {
+    super(SelectorType.BINNING, alias);
+    this.functionName = functionName;
+    this.functionArgs = functionArgs;
+    name = functionName.toUpperCase() + "(" + String.join(",", functionArgs) + ")";
+  }
+
+  /**
+   * @return the function name
+   */
+  public String functionName() {
+    return functionName;
+  }
+
+  /**
+   * @return the function arguments
+   */
+  public String[] functionArgs() {
+    return functionArgs;
+  }
+
+  /**
+   * @return the display name of this selector
+   */
+  @Override
+  public String selectorName() {
+    return name;
+  }
+}
@@ -8,14 +8,32 @@
  */
 package org.locationtech.geowave.core.store.query.gwql;
 
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import com.google.common.collect.Sets;
 
 /**
  * Error listener that wraps ANTLR syntax errors in our own exception class.
  */
 public class ErrorListener extends BaseErrorListener {
+  private static final String IDENTIFIER = "IDENTIFIER";
+
+  /**
+   * Keywords that can also be used as identifiers. They are hidden from the expected tokens of a
+   * message when IDENTIFIER is expected as well.
+   */
+  private static final Set<String> NON_RESERVED_KEYWORDS =
+      Sets.newHashSet("K_ASC", "K_BY", "K_DESC", "K_GROUP", "K_ORDER");
+
+  private static final Pattern TOKEN_SET = Pattern.compile("\\{([^}]*)\\}");
+
   @Override
   public void syntaxError(
       Recognizer<?, ?> recognizer,
@@ -24,6 +42,27 @@ public class ErrorListener extends BaseErrorListener {
       int position,
       String message,
       RecognitionException e) throws GWQLParseException {
-    throw new GWQLParseException(line, position, message.replace(" K_", " "));
+    throw new GWQLParseException(
+        line,
+        position,
+        collapseIdentifiers(message).replace(" K_", " ").replace("{K_", "{"));
+  }
+
+  private static String collapseIdentifiers(final String message) {
+    final Matcher matcher = TOKEN_SET.matcher(message);
+    final StringBuffer collapsed = new StringBuffer();
+    while (matcher.find()) {
+      List<String> tokens = Stream.of(matcher.group(1).split(", ")).collect(Collectors.toList());
+      if (tokens.contains(IDENTIFIER)) {
+        tokens =
+            tokens.stream().filter(t -> !NON_RESERVED_KEYWORDS.contains(t)).collect(
+                Collectors.toList());
+      }
+      final String replacement =
+          tokens.size() == 1 ? tokens.get(0) : "{" + String.join(", ", tokens) + "}";
+      matcher.appendReplacement(collapsed, Matcher.quoteReplacement(replacement));
+    }
+    matcher.appendTail(collapsed);
+    return collapsed.toString();
   }
 }
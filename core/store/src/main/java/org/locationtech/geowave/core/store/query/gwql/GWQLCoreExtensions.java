@@ -16,6 +16,7 @@ import org.locationtech.geowave.core.store.query.gwql.function.aggregation.Count
 import org.locationtech.geowave.core.store.query.gwql.function.aggregation.MaxFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.aggregation.MinFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.aggregation.SumFunction;
+import org.locationtech.geowave.core.store.query.gwql.function.binning.BinningFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.expression.AbsFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.expression.ConcatFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.expression.ExpressionFunction;
@@ -40,6 +41,11 @@ public class GWQLCoreExtensions implements GWQLExtensionRegistrySpi {
         new SumFunction()};
   }
 
+  @Override
+  public BinningFunction<?>[] getBinningFunctions() {
+    return null;
+  }
+
   @Override
   public PredicateFunction[] getPredicateFunctions() {
     return new PredicateFunction[] {
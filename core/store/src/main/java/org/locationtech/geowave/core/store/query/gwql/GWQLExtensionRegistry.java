@@ -16,6 +16,7 @@ import org.locationtech.geowave.core.index.SPIServiceRegistry;
 import org.locationtech.geowave.core.store.query.filter.expression.FieldValue;
 import org.locationtech.geowave.core.store.query.gwql.GWQLExtensionRegistrySpi.FieldValueBuilder;
 import org.locationtech.geowave.core.store.query.gwql.function.aggregation.AggregationFunction;
+import org.locationtech.geowave.core.store.query.gwql.function.binning.BinningFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.expression.ExpressionFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.operator.OperatorFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.predicate.PredicateFunction;
@@ -32,6 +33,7 @@ public class GWQLExtensionRegistry {
 
   private List<FieldValueBuilder> fieldValueBuilders = Lists.newArrayList();
   private Map<String, AggregationFunction<?>> aggregationFunctions = Maps.newHashMap();
+  private Map<String, BinningFunction<?>> binningFunctions = Maps.newHashMap();
   private Map<String, PredicateFunction> predicateFunctions = Maps.newHashMap();
   private Map<String, OperatorFunction> operatorFunctions = Maps.newHashMap();
   private Map<String, ExpressionFunction<?>> expressionFunctions = Maps.newHashMap();
@@ -46,6 +48,10 @@ public class GWQLExtensionRegistry {
       if (aggregations != null) {
         Arrays.stream(aggregations).forEach(f -> registerFunction(f, aggregationFunctions));
       }
+      final BinningFunction<?>[] binnings = functionSet.getBinningFunctions();
+      if (binnings != null) {
+        Arrays.stream(binnings).forEach(f -> registerFunction(f, binningFunctions));
+      }
       final PredicateFunction[] predicates = functionSet.getPredicateFunctions();
       if (predicates != null) {
         Arrays.stream(predicates).forEach(f -> registerFunction(f, predicateFunctions));
@@ -104,6 +110,16 @@ public class GWQLExtensionRegistry {
     return aggregationFunctions.get(functionName.toUpperCase());
   }
 
+  /**
+   * Retrieves the binning function with the given name.
+   * 
+   * @param functionName the function name
+   * @return the function that matches the given name, or {@code null} if it could not be found
+   */
+  public BinningFunction<?> getBinningFunction(final String functionName) {
+    return binningFunctions.get(functionName.toUpperCase());
+  }
+
   /**
    * Retrieves the predicate function with the given name.
    * 
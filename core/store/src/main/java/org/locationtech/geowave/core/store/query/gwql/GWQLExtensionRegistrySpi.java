@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.function.Function;
 import org.locationtech.geowave.core.store.query.filter.expression.FieldValue;
 import org.locationtech.geowave.core.store.query.gwql.function.aggregation.AggregationFunction;
+import org.locationtech.geowave.core.store.query.gwql.function.binning.BinningFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.expression.ExpressionFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.operator.OperatorFunction;
 import org.locationtech.geowave.core.store.query.gwql.function.predicate.PredicateFunction;
@@ -36,6 +37,11 @@ public interface GWQLExtensionRegistrySpi {
    */
   AggregationFunction<?>[] getAggregationFunctions();
 
+  /**
+   * @return the binning functions to add
+   */
+  BinningFunction<?>[] getBinningFunctions();
+
   /**
    * @return the predicate functions to add
    */
@@ -8,6 +8,7 @@
  */
 package org.locationtech.geowave.core.store.query.gwql;
 
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.text.StringEscapeUtils;
 import org.locationtech.geowave.core.store.adapter.FieldDescriptor;
@@ -285,6 +286,39 @@ public class GWQLParseHelper {
     throw new GWQLParseException("No expression function was found with the name: " + functionName);
   }
 
+  /**
+   * Gets the sort key for a function with a single column argument. Aggregation functions refer to
+   * an aggregation of the select list, any other function is an expression on the fields of the
+   * type.
+   *
+   * @param adapter the data type adapter
+   * @param functionName the name of the function
+   * @param functionArg the argument of the function
+   * @param ascending {@code true} to sort in ascending order
+   * @return the sort key
+   */
+  public static OrderBy getFunctionSortKey(
+      final DataTypeAdapter<?> adapter,
+      final String functionName,
+      final String functionArg,
+      final boolean ascending) {
+    if (GWQLExtensionRegistry.instance().getAggregationFunction(functionName) != null) {
+      return new OrderBy(
+          new AggregationSelector(functionName, new String[] {functionArg}),
+          ascending);
+    }
+    if ("*".equals(functionArg)) {
+      throw new GWQLParseException(
+          "No aggregation function was found with the name: " + functionName);
+    }
+    return new OrderBy(
+        getExpressionFunction(
+            functionName,
+            Collections.singletonList(getFieldValue(adapter, functionArg))),
+        functionName + "(" + functionArg + ")",
+        ascending);
+  }
+
   /**
    * Gets a predicate that matches the given function name and arguments.
    * 
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.gwql;
+
+import org.locationtech.geowave.core.store.query.filter.expression.Expression;
+
+/**
+ * A single sort key of the ORDER BY clause of a select statement. The key is either a column name,
+ * which can refer to a field, a column alias or a column of an aggregation, an aggregation of the
+ * select list, or an expression on the fields of the type.
+ */
+public class OrderBy {
+  private final String columnName;
+  private final Expression<?> expression;
+  private final AggregationSelector aggregation;
+  private final String name;
+  private final boolean ascending;
+
+  /**
+   * @param columnName the column to sort by
+   * @param ascending {@code true} to sort in ascending order
+   */
+  public OrderBy(final String columnName, final boolean ascending) {
+    this(columnName, null, null, columnName, ascending);
+  }
+
+  /**
+   * @param expression the expression to sort by
+   * @param name the display name of the expression
+   * @param ascending {@code true} to sort in ascending order
+   */
+  public OrderBy(final Expression<?> expression, final String name, final boolean ascending) {
+    this(null, expression, null, name, ascending);
+  }
+
+  /**
+   * @param aggregation the aggregation to sort by
+   * @param ascending {@code true} to sort in ascending order
+   */
+  public OrderBy(final AggregationSelector aggregation, final boolean ascending) {
+    this(null, null, aggregation, aggregation.selectorName(), ascending);
+  }
+
+  private OrderBy(
+      final String columnName,
+      final Expression<?> expression,
+      final AggregationSelector aggregation,
+      final String name,
+      final boolean ascending) {
+    this.columnName = columnName;
+    this.expression = expression;
+    this.aggregation = aggregation;
+    this.name = name;
+    this.ascending = ascending;
+  }
+
+  /**
+   * @return the column to sort by, or {@code null} if this does not sort by a column
+   */
+  public String columnName() {
+    return columnName;
+  }
+
+  /**
+   * @return the expression to sort by, or {@code null} if this does not sort by an expression
+   */
+  public Expression<?> expression() {
+    return expression;
+  }
+
+  /**
+   * @return the aggregation to sort by, or {@code null} if this does not sort by an aggregation
+   */
+  public AggregationSelector aggregation() {
+    return aggregation;
+  }
+
+  /**
+   * @return the display name of the sort key
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * @return {@code true} if this sorts in ascending order
+   */
+  public boolean isAscending() {
+    return ascending;
+  }
+}
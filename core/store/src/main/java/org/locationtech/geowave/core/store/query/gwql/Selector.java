@@ -16,7 +16,7 @@ public abstract class Selector {
   private final SelectorType type;
 
   public enum SelectorType {
-    AGGREGATION, SIMPLE
+    AGGREGATION, SIMPLE, BINNING
   }
 
   /**
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.gwql.function.binning;
+
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.store.api.BinningStrategy;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.query.gwql.QLFunction;
+
+/**
+ * A function that can be used in the GROUP BY clause of a select statement to group entries into
+ * bins that are computed server-side by a {@link BinningStrategy}.
+ */
+public interface BinningFunction<R> extends QLFunction<R> {
+  /**
+   * Gets the {@link BinningStrategy} associated with this function.
+   *
+   * @param adapter the adapter to bin the entries of
+   * @param functionArgs the function arguments
+   * @return the binning strategy for this function
+   */
+  public <T> BinningStrategy getBinningStrategy(
+      final DataTypeAdapter<T> adapter,
+      final String[] functionArgs);
+
+  /**
+   * Gets the value of a bin to use as the value of the grouping column.
+   *
+   * @param binningStrategy the binning strategy that produced the bin
+   * @param bin the bin
+   * @return the column value of the bin
+   */
+  public R getBinValue(final BinningStrategy binningStrategy, final ByteArray bin);
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.gwql.statement;
+
+import java.util.List;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.query.gwql.ListResultSet;
+import org.locationtech.geowave.core.store.query.gwql.Result;
+import org.locationtech.geowave.core.store.query.gwql.ResultSet;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimate;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
+import com.google.common.collect.Lists;
+
+/**
+ * Explains how a select statement would be executed without executing it. The result contains a row
+ * for each index that was considered for the queried type with its estimated cost, and whether it
+ * was selected. Estimates that could not be computed from the statistics of the index are
+ * {@code null}.
+ */
+public class ExplainStatement implements Statement {
+  private static final List<String> COLUMN_NAMES =
+      Lists.newArrayList(
+          "TYPE",
+          "INDEX",
+          "SELECTED",
+          "SELECTION",
+          "FULL_SCAN",
+          "RANGES",
+          "ESTIMATED_ROWS",
+          "ESTIMATED_DUPLICATES",
+          "COST");
+  private static final List<Class<?>> COLUMN_TYPES =
+      Lists.newArrayList(
+          String.class,
+          String.class,
+          Boolean.class,
+          String.class,
+          Boolean.class,
+          Integer.class,
+          Long.class,
+          Long.class,
+          Double.class);
+
+  private final DataStore dataStore;
+  private final SelectStatement<?> statement;
+
+  /**
+   * @param dataStore the data store to explain the statement with
+   * @param statement the select statement to explain
+   */
+  public ExplainStatement(final DataStore dataStore, final SelectStatement<?> statement) {
+    this.dataStore = dataStore;
+    this.statement = statement;
+  }
+
+  @Override
+  public ResultSet execute(final String... authorizations) {
+    final QueryBuilder<?, ?> bldr =
+        QueryBuilder.newBuilder().addTypeName(statement.getAdapter().getTypeName());
+    bldr.setAuthorizations(authorizations);
+    if (statement.getFilter() != null) {
+      bldr.filter(statement.getFilter());
+    }
+    final QueryPlan plan = dataStore.explain(bldr.build());
+    final List<Result> results = Lists.newArrayList();
+    for (final String typeName : plan.getTypeNames()) {
+      final String selectedIndex = plan.getSelectedIndex(typeName);
+      final String selection =
+          plan.getSelection(typeName) == null ? null : plan.getSelection(typeName).name();
+      final List<IndexCostEstimate> estimates = plan.getEstimates(typeName);
+      if (estimates.isEmpty()) {
+        results.add(
+            new Result(
+                Lists.<Object>newArrayList(
+                    typeName,
+                    selectedIndex,
+                    selectedIndex != null,
+                    selection,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null)));
+      }
+      for (final IndexCostEstimate estimate : estimates) {
+        final boolean selected = estimate.getIndexName().equals(selectedIndex);
+        results.add(
+            new Result(
+                Lists.<Object>newArrayList(
+                    typeName,
+                    estimate.getIndexName(),
+                    selected,
+                    selected ? selection : null,
+                    estimate.isFullScan(),
+                    estimate.getRangeCount(),
+                    estimate.isEstimated() ? estimate.getEstimatedRows() : null,
+                    estimate.isEstimated() ? estimate.getEstimatedDuplicates() : null,
+                    estimate.isEstimated() ? estimate.getCost() : null)));
+      }
+    }
+    return new ListResultSet(COLUMN_NAMES, COLUMN_TYPES, results);
+  }
+
+  /**
+   * @return the select statement to explain
+   */
+  public SelectStatement<?> getStatement() {
+    return statement;
+  }
+}
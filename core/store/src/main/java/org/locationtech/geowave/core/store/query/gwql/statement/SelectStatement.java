@@ -9,30 +9,58 @@
 package org.locationtech.geowave.core.store.query.gwql.statement;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Function;
 import javax.annotation.Nullable;
+import org.apache.commons.lang3.tuple.Pair;
+import org.locationtech.geowave.core.index.ByteArray;
 import org.locationtech.geowave.core.index.persist.PersistableList;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.FieldDescriptor;
 import org.locationtech.geowave.core.store.api.AggregationQueryBuilder;
+import org.locationtech.geowave.core.store.api.BinningStrategy;
 import org.locationtech.geowave.core.store.api.DataStore;
 import org.locationtech.geowave.core.store.api.DataTypeAdapter;
 import org.locationtech.geowave.core.store.api.QueryBuilder;
 import org.locationtech.geowave.core.store.query.aggregate.CompositeAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.FieldBinningStrategy;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByBinningStrategy;
+import org.locationtech.geowave.core.store.query.aggregate.TopKAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.TopKAggregationOptions;
+import org.locationtech.geowave.core.store.query.filter.expression.Expression;
 import org.locationtech.geowave.core.store.query.filter.expression.Filter;
+import org.locationtech.geowave.core.store.query.filter.expression.GenericFieldValue;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericExpression;
+import org.locationtech.geowave.core.store.query.filter.expression.text.TextExpression;
 import org.locationtech.geowave.core.store.query.gwql.AdapterEntryResultSet;
 import org.locationtech.geowave.core.store.query.gwql.AggregationSelector;
+import org.locationtech.geowave.core.store.query.gwql.BinningSelector;
 import org.locationtech.geowave.core.store.query.gwql.ColumnSelector;
 import org.locationtech.geowave.core.store.query.gwql.GWQLExtensionRegistry;
+import org.locationtech.geowave.core.store.query.gwql.ListResultSet;
+import org.locationtech.geowave.core.store.query.gwql.OrderBy;
+import org.locationtech.geowave.core.store.query.gwql.Result;
 import org.locationtech.geowave.core.store.query.gwql.ResultSet;
 import org.locationtech.geowave.core.store.query.gwql.Selector;
 import org.locationtech.geowave.core.store.query.gwql.Selector.SelectorType;
 import org.locationtech.geowave.core.store.query.gwql.SingletonResultSet;
 import org.locationtech.geowave.core.store.query.gwql.function.aggregation.AggregationFunction;
+import org.locationtech.geowave.core.store.query.gwql.function.binning.BinningFunction;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
- * Select data from a GeoWave type. This can be an aggregation or a plain query.
+ * Select data from a GeoWave type. This can be an aggregation or a plain query. Aggregations can be
+ * grouped by field values or binning functions, in which case the grouping is done server-side with
+ * a binning aggregation and the result contains a row for each group, with the grouping columns
+ * first. Plain queries that are ordered and limited are executed as a top-k aggregation so that
+ * each scan only returns its best entries, which are merged on the client. Without a limit every
+ * entry is returned, so the entries are sorted on the client instead.
  */
 public class SelectStatement<T> implements Statement {
 
@@ -40,6 +68,8 @@ public class SelectStatement<T> implements Statement {
   private final DataTypeAdapter<T> adapter;
   private List<Selector> selectors;
   private final Filter filter;
+  private final List<Selector> groupBy;
+  private final List<OrderBy> orderBy;
   private final Integer limit;
 
   /**
@@ -54,10 +84,39 @@ public class SelectStatement<T> implements Statement {
       final List<Selector> selectors,
       final @Nullable Filter filter,
       final @Nullable Integer limit) {
+    this(
+        dataStore,
+        adapter,
+        selectors,
+        filter,
+        Collections.emptyList(),
+        Collections.emptyList(),
+        limit);
+  }
+
+  /**
+   * @param adapter the adapter to select data from
+   * @param selectors the selectors to use
+   * @param filter the filter to use
+   * @param groupBy the column and binning selectors to group aggregations by
+   * @param orderBy the sort keys to order results by
+   * @param limit the limit to use, when the statement is grouped or ordered this limits the number
+   *        of results rather than the number of entries that are queried
+   */
+  public SelectStatement(
+      final DataStore dataStore,
+      final DataTypeAdapter<T> adapter,
+      final List<Selector> selectors,
+      final @Nullable Filter filter,
+      final List<Selector> groupBy,
+      final List<OrderBy> orderBy,
+      final @Nullable Integer limit) {
     this.dataStore = dataStore;
     this.adapter = adapter;
     this.selectors = selectors;
     this.filter = filter;
+    this.groupBy = groupBy;
+    this.orderBy = orderBy;
     this.limit = limit;
   }
 
@@ -72,9 +131,6 @@ public class SelectStatement<T> implements Statement {
       if (filter != null) {
         bldr.filter(filter);
       }
-      if (limit != null) {
-        bldr.limit(limit);
-      }
 
       final CompositeAggregation<T> composite = new CompositeAggregation<>();
       final List<String> columnNames = Lists.newArrayListWithCapacity(selectors.size());
@@ -92,8 +148,20 @@ public class SelectStatement<T> implements Statement {
         columnTypes.add(function.getReturnType());
       }
       bldr.aggregate(typeName, composite);
+      if (!groupBy.isEmpty()) {
+        return executeGroupBy(bldr, columnNames, columnTypes);
+      }
+      if (!orderBy.isEmpty()) {
+        throw new RuntimeException("ORDER BY can only be used on aggregations with GROUP BY.");
+      }
+      if (limit != null) {
+        bldr.limit(limit);
+      }
       return new SingletonResultSet(columnNames, columnTypes, dataStore.aggregate(bldr.build()));
     } else {
+      if (!groupBy.isEmpty()) {
+        throw new RuntimeException("GROUP BY can only be used with aggregation selectors.");
+      }
       final QueryBuilder<T, ?> bldr =
           QueryBuilder.newBuilder(adapter.getDataClass()).addTypeName(typeName);
       bldr.setAuthorizations(authorizations);
@@ -101,8 +169,9 @@ public class SelectStatement<T> implements Statement {
         bldr.filter(filter);
       }
 
-      if ((selectors != null) && !selectors.isEmpty()) {
-        final Set<String> usedAttributes = Sets.newHashSet();
+      final Set<String> usedAttributes = Sets.newHashSet();
+      final boolean subset = (selectors != null) && !selectors.isEmpty();
+      if (subset) {
         selectors.forEach(s -> usedAttributes.add(((ColumnSelector) s).columnName()));
         if (filter != null) {
           filter.addReferencedFields(usedAttributes);
@@ -113,12 +182,18 @@ public class SelectStatement<T> implements Statement {
                 "No column named " + attribute + " was found in " + typeName);
           }
         }
-        bldr.subsetFields(typeName, usedAttributes.toArray(new String[usedAttributes.size()]));
       } else {
         selectors =
             Lists.transform(
                 Arrays.asList(adapter.getFieldDescriptors()),
                 f -> new ColumnSelector(f.fieldName()));
+        selectors.forEach(s -> usedAttributes.add(((ColumnSelector) s).columnName()));
+      }
+      if (!orderBy.isEmpty()) {
+        return executeOrderBy(usedAttributes, authorizations);
+      }
+      if (subset) {
+        bldr.subsetFields(typeName, usedAttributes.toArray(new String[usedAttributes.size()]));
       }
       if (limit != null) {
         bldr.limit(limit);
@@ -127,6 +202,215 @@ public class SelectStatement<T> implements Statement {
     }
   }
 
+  private ResultSet executeGroupBy(
+      final AggregationQueryBuilder<PersistableList, List<Object>, T, ?> bldr,
+      final List<String> aggregationColumnNames,
+      final List<Class<?>> aggregationColumnTypes) {
+    final BinningStrategy[] keyStrategies = new BinningStrategy[groupBy.size()];
+    final List<Function<ByteArray, Object>> keyValues =
+        Lists.newArrayListWithCapacity(groupBy.size());
+    final List<String> columnNames = Lists.newArrayList();
+    final List<Class<?>> columnTypes = Lists.newArrayList();
+    for (int i = 0; i < keyStrategies.length; i++) {
+      final Selector selector = groupBy.get(i);
+      if (selector instanceof BinningSelector) {
+        final BinningSelector binning = (BinningSelector) selector;
+        final BinningFunction<?> function =
+            GWQLExtensionRegistry.instance().getBinningFunction(binning.functionName());
+        if (function == null) {
+          throw new RuntimeException(
+              "No binning function called '" + binning.functionName() + "' was found.");
+        }
+        final BinningStrategy strategy =
+            function.getBinningStrategy(adapter, binning.functionArgs());
+        keyStrategies[i] = strategy;
+        keyValues.add(bin -> function.getBinValue(strategy, bin));
+        columnTypes.add(function.getReturnType());
+      } else {
+        final String columnName = ((ColumnSelector) selector).columnName();
+        final FieldDescriptor<?> descriptor = adapter.getFieldDescriptor(columnName);
+        if (descriptor == null) {
+          throw new RuntimeException(
+              "No column named " + columnName + " was found in " + adapter.getTypeName());
+        }
+        final FieldBinningStrategy strategy = new FieldBinningStrategy(columnName);
+        keyStrategies[i] = strategy;
+        keyValues.add(bin -> strategy.getBinValue(adapter, bin));
+        columnTypes.add(descriptor.bindingClass());
+      }
+      columnNames.add(selector.name());
+    }
+    columnNames.addAll(aggregationColumnNames);
+    columnTypes.addAll(aggregationColumnTypes);
+
+    final GroupByBinningStrategy binningStrategy = new GroupByBinningStrategy(keyStrategies);
+    final Map<ByteArray, List<Object>> bins =
+        dataStore.aggregate(bldr.buildWithBinningStrategy(binningStrategy, -1));
+    final List<Result> results = Lists.newArrayList();
+    if (bins != null) {
+      for (final Entry<ByteArray, List<Object>> bin : bins.entrySet()) {
+        final ByteArray[] keyBins = binningStrategy.getKeyBins(bin.getKey());
+        final List<Object> values = Lists.newArrayListWithCapacity(columnNames.size());
+        for (int i = 0; i < keyBins.length; i++) {
+          values.add(keyValues.get(i).apply(keyBins[i]));
+        }
+        values.addAll(bin.getValue());
+        results.add(new Result(values));
+      }
+    }
+    if (!orderBy.isEmpty()) {
+      // the number of groups is small enough to sort on the client
+      Comparator<Result> comparator = null;
+      for (final OrderBy sortKey : orderBy) {
+        final int index = getGroupedColumnIndex(sortKey, columnNames);
+        if (index < 0) {
+          throw new RuntimeException(
+              "Grouped results can only be ordered by their columns, '"
+                  + sortKey.name()
+                  + "' is not a column.");
+        }
+        final Comparator<Result> keyComparator =
+            (r1, r2) -> compareValues(
+                r1.columnValue(index),
+                r2.columnValue(index),
+                sortKey.isAscending());
+        comparator = comparator == null ? keyComparator : comparator.thenComparing(keyComparator);
+      }
+      results.sort(comparator);
+    }
+    return new ListResultSet(
+        columnNames,
+        columnTypes,
+        (limit != null) && (limit < results.size()) ? results.subList(0, limit) : results);
+  }
+
+  private int getGroupedColumnIndex(final OrderBy sortKey, final List<String> columnNames) {
+    if (sortKey.columnName() != null) {
+      return columnNames.indexOf(sortKey.name());
+    }
+    if (sortKey.aggregation() != null) {
+      // match the aggregation against the select list, which may have given it an alias
+      final String aggregationName = sortKey.aggregation().selectorName();
+      for (int i = 0; i < selectors.size(); i++) {
+        if (aggregationName.equals(((AggregationSelector) selectors.get(i)).selectorName())) {
+          return groupBy.size() + i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int compareValues(final Object value1, final Object value2, final boolean asc) {
+    if (value1 == null) {
+      return value2 == null ? 0 : 1;
+    } else if (value2 == null) {
+      return -1;
+    }
+    final int result = ((Comparable) value1).compareTo(value2);
+    return asc ? result : -result;
+  }
+
+  private ResultSet executeOrderBy(
+      final Set<String> usedAttributes,
+      final String... authorizations) {
+    final Expression<?>[] sortExpressions = new Expression<?>[orderBy.size()];
+    final boolean[] ascending = new boolean[orderBy.size()];
+    for (int i = 0; i < sortExpressions.length; i++) {
+      final OrderBy sortKey = orderBy.get(i);
+      if (sortKey.columnName() != null) {
+        String columnName = sortKey.columnName();
+        for (final Selector selector : selectors) {
+          if (columnName.equals(selector.alias())) {
+            columnName = ((ColumnSelector) selector).columnName();
+            break;
+          }
+        }
+        final FieldDescriptor<?> descriptor = adapter.getFieldDescriptor(columnName);
+        if (descriptor == null) {
+          throw new RuntimeException(
+              "No column named " + columnName + " was found in " + adapter.getTypeName());
+        }
+        if (!Comparable.class.isAssignableFrom(descriptor.bindingClass())) {
+          throw new RuntimeException("Column " + columnName + " cannot be used to order results.");
+        }
+        sortExpressions[i] = GenericFieldValue.of(columnName);
+      } else if (sortKey.aggregation() != null) {
+        throw new RuntimeException("Only grouped aggregations can be ordered by an aggregation.");
+      } else if ((sortKey.expression() instanceof NumericExpression)
+          || (sortKey.expression() instanceof TextExpression)) {
+        sortExpressions[i] = sortKey.expression();
+      } else {
+        throw new RuntimeException(
+            "Only numeric and text expressions can be used to order results.");
+      }
+      sortExpressions[i].addReferencedFields(usedAttributes);
+      ascending[i] = sortKey.isAscending();
+    }
+    final List<T> entries;
+    if (limit == null) {
+      // there is nothing for a top-k aggregation to leave out
+      entries = sortEntries(sortExpressions, ascending, usedAttributes, authorizations);
+    } else {
+      final AggregationQueryBuilder<TopKAggregationOptions<T>, List<T>, T, ?> bldr =
+          AggregationQueryBuilder.newBuilder();
+      bldr.setAuthorizations(authorizations);
+      if (filter != null) {
+        bldr.filter(filter);
+      }
+      bldr.aggregate(
+          adapter.getTypeName(),
+          new TopKAggregation<>(
+              adapter,
+              usedAttributes.toArray(new String[usedAttributes.size()]),
+              sortExpressions,
+              ascending,
+              limit));
+      entries = dataStore.aggregate(bldr.build());
+    }
+    return new AdapterEntryResultSet<>(
+        selectors,
+        adapter,
+        new CloseableIterator.Wrapper<>(
+            entries == null ? Collections.emptyIterator() : entries.iterator()));
+  }
+
+  private List<T> sortEntries(
+      final Expression<?>[] sortExpressions,
+      final boolean[] ascending,
+      final Set<String> usedAttributes,
+      final String... authorizations) {
+    final String typeName = adapter.getTypeName();
+    final QueryBuilder<T, ?> bldr =
+        QueryBuilder.newBuilder(adapter.getDataClass()).addTypeName(typeName);
+    bldr.setAuthorizations(authorizations);
+    if (filter != null) {
+      bldr.filter(filter);
+    }
+    bldr.subsetFields(typeName, usedAttributes.toArray(new String[usedAttributes.size()]));
+    final List<Pair<Object[], T>> entries = Lists.newArrayList();
+    try (CloseableIterator<T> iterator = dataStore.query(bldr.build())) {
+      while (iterator.hasNext()) {
+        final T entry = iterator.next();
+        final Object[] keys = new Object[sortExpressions.length];
+        for (int i = 0; i < keys.length; i++) {
+          keys[i] = sortExpressions[i].evaluateValue(adapter, entry);
+        }
+        entries.add(Pair.of(keys, entry));
+      }
+    }
+    entries.sort((e1, e2) -> {
+      for (int i = 0; i < ascending.length; i++) {
+        final int result = compareValues(e1.getKey()[i], e2.getKey()[i], ascending[i]);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    });
+    return Lists.transform(entries, Pair::getValue);
+  }
+
   /**
    * @return {@code true} if this select statement represents an aggregation, {@code false}
    *         otherwise
@@ -137,6 +421,13 @@ public class SelectStatement<T> implements Statement {
         && (selectors.get(0).type() == SelectorType.AGGREGATION);
   }
 
+  /**
+   * @return {@code true} if this select statement is a grouped aggregation, {@code false} otherwise
+   */
+  public boolean isGrouped() {
+    return !groupBy.isEmpty();
+  }
+
   /**
    * @return the type to select data from
    */
@@ -151,6 +442,20 @@ public class SelectStatement<T> implements Statement {
     return filter;
   }
 
+  /**
+   * @return the column and binning selectors to group the aggregation by
+   */
+  public List<Selector> getGroupBy() {
+    return groupBy;
+  }
+
+  /**
+   * @return the sort keys to order the results by
+   */
+  public List<OrderBy> getOrderBy() {
+    return orderBy;
+  }
+
   /**
    * @return the limit for the query
    */
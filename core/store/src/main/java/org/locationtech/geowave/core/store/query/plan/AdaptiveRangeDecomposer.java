@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.plan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import javax.annotation.Nullable;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.IndexMetaData;
+import org.locationtech.geowave.core.index.IndexUtils;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
+import org.locationtech.geowave.core.index.numeric.BasicNumericDataset;
+import org.locationtech.geowave.core.index.numeric.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.numeric.NumericData;
+import org.locationtech.geowave.core.index.numeric.NumericRange;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.index.CustomIndex;
+import org.locationtech.geowave.core.store.statistics.DataStatisticsStore;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
+
+/**
+ * Decomposes query constraints into ranges using the row range histograms of the index to decide
+ * where more ranges are worth scanning. The maximum range decomposition is treated as an upper
+ * bound on the number of ranges of each constraint rather than a fixed number of ranges.
+ *
+ * <p> Each constraint is first decomposed into a small number of ranges. The constraint is then
+ * refined incrementally, densest part first: the part whose ranges the histograms estimate to cover
+ * the most rows is split in half along its widest dimension, and each half is decomposed into the
+ * same small number of ranges. A split that does not skip enough rows to pay for its additional
+ * ranges may still be what isolates a dense region in a later split, so a part is refined up to a
+ * few splits past the last split that paid for itself. Parts that cover fewer rows than a range
+ * costs are not refined. Once refinement ends, the parts are chosen bottom up: a part is replaced
+ * by its refined halves only if the rows the halves skip outweigh the cost of their ranges.
+ *
+ * <p> The ranges of all the decompositions of a constraint are bounded by the maximum range
+ * decomposition, so refinement never costs more planning time than decomposing the constraint into
+ * the maximum number of ranges, and costs far less when only a few dense parts need refining. Row
+ * counts only come from the histograms, so skewed data is refined where it is dense.
+ *
+ * <p> If the statistics of the index are not sufficient to estimate the rows in the ranges, the
+ * constraints are decomposed with the maximum range decomposition.
+ */
+public class AdaptiveRangeDecomposer {
+  private static final int INITIAL_RANGES = 16;
+  // the number of splits that do not pay for themselves that a part is refined past
+  private static final int LOOKAHEAD_SPLITS = 4;
+
+  private final DataStatisticsStore statisticsStore;
+  private final List<String> typeNames;
+  private final double rangeCost;
+  private final String[] authorizations;
+  private double estimatedRows = -1;
+
+  /**
+   * @param statisticsStore the statistics store
+   * @param typeNames the data types that are queried
+   * @param rangeCost the cost of scanning a range, in rows
+   * @param authorizations authorizations for the statistics
+   */
+  public AdaptiveRangeDecomposer(
+      final DataStatisticsStore statisticsStore,
+      final List<String> typeNames,
+      final double rangeCost,
+      final String... authorizations) {
+    this.statisticsStore = statisticsStore;
+    this.typeNames = typeNames;
+    this.rangeCost = rangeCost;
+    this.authorizations = authorizations;
+  }
+
+  /**
+   * Decompose the constraints into query ranges.
+   *
+   * @param constraints the constraints on the index
+   * @param index the index to query
+   * @param targetResolutionPerDimensionForHierarchicalIndex the target resolution of the query, or
+   *        {@code null} to use the finest resolution
+   * @param maxRanges the maximum number of ranges to decompose each constraint into, if < 0 it will
+   *        be unlimited
+   * @param hints index metadata hints
+   * @return the query ranges
+   */
+  public QueryRanges decompose(
+      final List<MultiDimensionalNumericData> constraints,
+      final Index index,
+      final @Nullable double[] targetResolutionPerDimensionForHierarchicalIndex,
+      final int maxRanges,
+      final IndexMetaData... hints) {
+    final int rangeLimit = maxRanges < 0 ? Integer.MAX_VALUE : maxRanges;
+    estimatedRows = -1;
+    if ((index instanceof CustomIndex)
+        || typeNames.isEmpty()
+        || IndexUtils.isFullTableScan(constraints)
+        || (rangeLimit <= INITIAL_RANGES)) {
+      return DataStoreUtils.constraintsToQueryRanges(
+          constraints,
+          index,
+          targetResolutionPerDimensionForHierarchicalIndex,
+          maxRanges,
+          hints);
+    }
+    final IndexCostEstimator estimator =
+        new IndexCostEstimator(
+            statisticsStore,
+            maxRanges,
+            targetResolutionPerDimensionForHierarchicalIndex,
+            authorizations);
+    final NumericDimensionDefinition[] dimensions =
+        index.getIndexStrategy().getOrderedDimensionDefinitions();
+    // the densest part is refined first
+    final PriorityQueue<Decomposition> refinable =
+        new PriorityQueue<>((d1, d2) -> Double.compare(d2.rows, d1.rows));
+    final Decomposition[] roots = new Decomposition[constraints.size()];
+    // the number of ranges decomposed so far for each constraint
+    final long[] decomposedRanges = new long[constraints.size()];
+    for (int i = 0; i < constraints.size(); i++) {
+      roots[i] =
+          decompose(
+              estimator,
+              constraints.get(i),
+              i,
+              index,
+              targetResolutionPerDimensionForHierarchicalIndex,
+              hints);
+      if (roots[i] == null) {
+        return DataStoreUtils.constraintsToQueryRanges(
+            constraints,
+            index,
+            targetResolutionPerDimensionForHierarchicalIndex,
+            maxRanges,
+            hints);
+      }
+      decomposedRanges[i] = roots[i].rangeCount;
+      refinable.add(roots[i]);
+    }
+    while (!refinable.isEmpty()) {
+      final Decomposition coarse = refinable.poll();
+      if ((coarse.unpaidSplits >= LOOKAHEAD_SPLITS)
+          || ((decomposedRanges[coarse.constraintIndex] + (2 * INITIAL_RANGES)) > rangeLimit)) {
+        continue;
+      }
+      final Decomposition[] halves =
+          refine(
+              estimator,
+              coarse,
+              dimensions,
+              index,
+              targetResolutionPerDimensionForHierarchicalIndex,
+              hints);
+      if (halves == null) {
+        continue;
+      }
+      decomposedRanges[coarse.constraintIndex] += halves[0].rangeCount + halves[1].rangeCount;
+      coarse.halves = halves;
+      final boolean paid = coarse.getCost() > (halves[0].getCost() + halves[1].getCost());
+      for (final Decomposition half : halves) {
+        half.unpaidSplits = paid ? 0 : coarse.unpaidSplits + 1;
+        refinable.add(half);
+      }
+    }
+    final List<Decomposition> refined = new ArrayList<>();
+    for (final Decomposition root : roots) {
+      choose(root, refined);
+    }
+    final QueryRanges queryRanges;
+    if (refined.size() == 1) {
+      queryRanges = refined.get(0).queryRanges;
+    } else {
+      final List<QueryRanges> queryRangesList = new ArrayList<>(refined.size());
+      for (final Decomposition decomposition : refined) {
+        queryRangesList.add(decomposition.queryRanges);
+      }
+      // merges the ranges that the adjacent parts of a constraint share
+      queryRanges = new QueryRanges(queryRangesList);
+    }
+    final Decomposition total = estimate(estimator, index, queryRanges, null, -1);
+    estimatedRows = total == null ? -1 : total.rows;
+    return queryRanges;
+  }
+
+  /**
+   * @return the number of rows that the ranges of the last decomposition are estimated to cover, or
+   *         -1 if the statistics of the index were not sufficient to estimate it
+   */
+  public double getEstimatedRows() {
+    return estimatedRows;
+  }
+
+  /**
+   * Choose the cheapest parts to query a part of a constraint with, either the part itself or the
+   * cheapest parts of its refined halves.
+   *
+   * @return the cost of the chosen parts
+   */
+  private double choose(final Decomposition decomposition, final List<Decomposition> chosen) {
+    if (decomposition.halves == null) {
+      chosen.add(decomposition);
+      return decomposition.getCost();
+    }
+    final int chosenParts = chosen.size();
+    final double refinedCost =
+        choose(decomposition.halves[0], chosen) + choose(decomposition.halves[1], chosen);
+    if (refinedCost < decomposition.getCost()) {
+      return refinedCost;
+    }
+    chosen.subList(chosenParts, chosen.size()).clear();
+    chosen.add(decomposition);
+    return decomposition.getCost();
+  }
+
+  /**
+   * Split a part of a constraint in half along its widest dimension and decompose both halves.
+   *
+   * @return the decompositions of both halves, or {@code null} if the part can not be refined
+   */
+  private Decomposition[] refine(
+      final IndexCostEstimator estimator,
+      final Decomposition coarse,
+      final NumericDimensionDefinition[] dimensions,
+      final Index index,
+      final double[] targetResolutionPerDimensionForHierarchicalIndex,
+      final IndexMetaData... hints) {
+    if (coarse.rows < Math.max(1, rangeCost)) {
+      // a split can not skip more rows than the part covers, which can not pay for a range
+      return null;
+    }
+    final NumericData[] dataPerDimension = coarse.constraint.getDataPerDimension();
+    int widest = -1;
+    double widestRatio = 0;
+    for (int d = 0; d < dataPerDimension.length; d++) {
+      final double width = dataPerDimension[d].getMax() - dataPerDimension[d].getMin();
+      if (Double.isNaN(width) || Double.isInfinite(width) || (width <= 0)) {
+        continue;
+      }
+      double ratio = width;
+      if (dataPerDimension.length == dimensions.length) {
+        // compare dimensions relative to their bounds
+        final NumericData bounds = dimensions[d].getFullRange();
+        final double boundsWidth = bounds.getMax() - bounds.getMin();
+        if (!Double.isNaN(boundsWidth) && !Double.isInfinite(boundsWidth) && (boundsWidth > 0)) {
+          ratio = width / boundsWidth;
+        }
+      }
+      if (ratio > widestRatio) {
+        widest = d;
+        widestRatio = ratio;
+      }
+    }
+    if (widest < 0) {
+      return null;
+    }
+    final double min = dataPerDimension[widest].getMin();
+    final double max = dataPerDimension[widest].getMax();
+    final double mid = min + ((max - min) / 2);
+    if ((mid <= min) || (mid >= max)) {
+      return null;
+    }
+    final Decomposition[] halves = new Decomposition[2];
+    for (int h = 0; h < 2; h++) {
+      final NumericData[] half = dataPerDimension.clone();
+      half[widest] = h == 0 ? new NumericRange(min, mid) : new NumericRange(mid, max);
+      halves[h] =
+          decompose(
+              estimator,
+              new BasicNumericDataset(half),
+              coarse.constraintIndex,
+              index,
+              targetResolutionPerDimensionForHierarchicalIndex,
+              hints);
+      if (halves[h] == null) {
+        return null;
+      }
+    }
+    return halves;
+  }
+
+  private Decomposition decompose(
+      final IndexCostEstimator estimator,
+      final MultiDimensionalNumericData constraint,
+      final int constraintIndex,
+      final Index index,
+      final double[] targetResolutionPerDimensionForHierarchicalIndex,
+      final IndexMetaData... hints) {
+    final QueryRanges queryRanges =
+        DataStoreUtils.constraintsToQueryRanges(
+            Collections.singletonList(constraint),
+            index,
+            targetResolutionPerDimensionForHierarchicalIndex,
+            INITIAL_RANGES,
+            hints);
+    return estimate(estimator, index, queryRanges, constraint, constraintIndex);
+  }
+
+  private Decomposition estimate(
+      final IndexCostEstimator estimator,
+      final Index index,
+      final QueryRanges queryRanges,
+      final MultiDimensionalNumericData constraint,
+      final int constraintIndex) {
+    int rangeCount = 0;
+    double rows = 0;
+    for (final SinglePartitionQueryRanges partitionRanges : queryRanges.getPartitionQueryRanges()) {
+      final byte[] partitionKey = partitionRanges.getPartitionKey();
+      final Collection<ByteArrayRange> sortKeyRanges = partitionRanges.getSortKeyRanges();
+      if ((sortKeyRanges == null) || sortKeyRanges.isEmpty()) {
+        final double partitionRows = estimateRows(estimator, index, partitionKey, null);
+        if (partitionRows < 0) {
+          return null;
+        }
+        rows += partitionRows;
+        rangeCount++;
+        continue;
+      }
+      for (final ByteArrayRange range : sortKeyRanges) {
+        final double rangeRows = estimateRows(estimator, index, partitionKey, range);
+        if (rangeRows < 0) {
+          return null;
+        }
+        rows += rangeRows;
+      }
+      rangeCount += sortKeyRanges.size();
+    }
+    return new Decomposition(queryRanges, constraint, constraintIndex, rangeCount, rows);
+  }
+
+  private double estimateRows(
+      final IndexCostEstimator estimator,
+      final Index index,
+      final byte[] partitionKey,
+      final ByteArrayRange range) {
+    double rows = 0;
+    for (final String typeName : typeNames) {
+      final double typeRows = estimator.estimateRows(typeName, index, partitionKey, range);
+      if (typeRows < 0) {
+        return -1;
+      }
+      rows += typeRows;
+    }
+    return rows;
+  }
+
+  private class Decomposition {
+    private final QueryRanges queryRanges;
+    // the part of a constraint that was decomposed
+    private final MultiDimensionalNumericData constraint;
+    private final int constraintIndex;
+    private final int rangeCount;
+    private final double rows;
+    private Decomposition[] halves = null;
+    // the number of splits since the last split that paid for itself
+    private int unpaidSplits = 0;
+
+    private Decomposition(
+        final QueryRanges queryRanges,
+        final MultiDimensionalNumericData constraint,
+        final int constraintIndex,
+        final int rangeCount,
+        final double rows) {
+      this.queryRanges = queryRanges;
+      this.constraint = constraint;
+      this.constraintIndex = constraintIndex;
+      this.rangeCount = rangeCount;
+      this.rows = rows;
+    }
+
+    private double getCost() {
+      return rows + (rangeCount * rangeCost);
+    }
+  }
+}
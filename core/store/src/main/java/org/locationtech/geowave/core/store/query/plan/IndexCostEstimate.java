@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.plan;
+
+/**
+ * The estimated cost of answering a query for a single data type with a single index. The cost is
+ * expressed in rows: every row that is scanned costs one, every duplicate row that has to be
+ * removed on the client costs an additional {@value #DUPLICATE_COST} and every range that has to be
+ * seeked to costs {@value #RANGE_COST}.
+ */
+public class IndexCostEstimate {
+  /** The cost of seeking to a range, in rows. */
+  public static final double RANGE_COST = 10;
+  /** The additional cost of removing a duplicate row on the client, in rows. */
+  public static final double DUPLICATE_COST = 1;
+
+  private final String typeName;
+  private final String indexName;
+  private final boolean fullScan;
+  private final int rangeCount;
+  private final long estimatedRows;
+  private final long estimatedDuplicates;
+
+  /**
+   * @param typeName the data type being queried
+   * @param indexName the index being estimated
+   * @param fullScan whether the query results in a full scan of the index
+   * @param rangeCount the number of ranges the query is decomposed into
+   * @param estimatedRows the estimated number of rows that will be scanned, or -1 if the statistics
+   *        of the index are not sufficient to estimate it
+   * @param estimatedDuplicates the estimated number of scanned rows that are duplicates
+   */
+  public IndexCostEstimate(
+      final String typeName,
+      final String indexName,
+      final boolean fullScan,
+      final int rangeCount,
+      final long estimatedRows,
+      final long estimatedDuplicates) {
+    this.typeName = typeName;
+    this.indexName = indexName;
+    this.fullScan = fullScan;
+    this.rangeCount = rangeCount;
+    this.estimatedRows = estimatedRows;
+    this.estimatedDuplicates = estimatedDuplicates;
+  }
+
+  /**
+   * @return the data type being queried
+   */
+  public String getTypeName() {
+    return typeName;
+  }
+
+  /**
+   * @return the index being estimated
+   */
+  public String getIndexName() {
+    return indexName;
+  }
+
+  /**
+   * @return {@code true} if the query results in a full scan of the index
+   */
+  public boolean isFullScan() {
+    return fullScan;
+  }
+
+  /**
+   * @return the number of ranges the query is decomposed into
+   */
+  public int getRangeCount() {
+    return rangeCount;
+  }
+
+  /**
+   * @return {@code true} if the statistics of the index were sufficient to estimate the cost
+   */
+  public boolean isEstimated() {
+    return estimatedRows >= 0;
+  }
+
+  /**
+   * @return the estimated number of rows that will be scanned, or -1 if it could not be estimated
+   */
+  public long getEstimatedRows() {
+    return estimatedRows;
+  }
+
+  /**
+   * @return the estimated number of scanned rows that are duplicates
+   */
+  public long getEstimatedDuplicates() {
+    return estimatedDuplicates;
+  }
+
+  /**
+   * @return the estimated cost, or {@link Double#POSITIVE_INFINITY} if it could not be estimated
+   */
+  public double getCost() {
+    if (!isEstimated()) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return estimatedRows + (estimatedDuplicates * DUPLICATE_COST) + (rangeCount * RANGE_COST);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder str = new StringBuilder();
+    str.append(typeName).append(" on ").append(indexName).append(": ");
+    if (fullScan) {
+      str.append("full scan, ");
+    }
+    str.append(rangeCount).append(rangeCount == 1 ? " range" : " ranges");
+    if (isEstimated()) {
+      str.append(", ").append(estimatedRows).append(" rows, ");
+      str.append(estimatedDuplicates).append(" duplicates, cost ");
+      str.append(String.format("%.1f", getCost()));
+    } else {
+      str.append(", no statistics");
+    }
+    return str.toString();
+  }
+}
@@ -0,0 +1,425 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.plan;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.tuple.Pair;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.IndexMetaData;
+import org.locationtech.geowave.core.index.IndexUtils;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.index.numeric.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.IndexStatistic;
+import org.locationtech.geowave.core.store.api.Statistic;
+import org.locationtech.geowave.core.store.api.StatisticBinningStrategy;
+import org.locationtech.geowave.core.store.statistics.DataStatisticsStore;
+import org.locationtech.geowave.core.store.statistics.InternalStatisticsHelper;
+import org.locationtech.geowave.core.store.statistics.binning.CompositeBinningStrategy;
+import org.locationtech.geowave.core.store.statistics.binning.DataTypeBinningStrategy;
+import org.locationtech.geowave.core.store.statistics.binning.PartitionBinningStrategy;
+import org.locationtech.geowave.core.store.statistics.index.DuplicateEntryCountStatistic;
+import org.locationtech.geowave.core.store.statistics.index.DuplicateEntryCountStatistic.DuplicateEntryCountValue;
+import org.locationtech.geowave.core.store.statistics.index.IndexMetaDataSetStatistic;
+import org.locationtech.geowave.core.store.statistics.index.IndexMetaDataSetStatistic.IndexMetaDataSetValue;
+import org.locationtech.geowave.core.store.statistics.index.PartitionsStatistic;
+import org.locationtech.geowave.core.store.statistics.index.PartitionsStatistic.PartitionsValue;
+import org.locationtech.geowave.core.store.statistics.index.RowRangeHistogramStatistic;
+import org.locationtech.geowave.core.store.statistics.index.RowRangeHistogramStatistic.RowRangeHistogramValue;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Estimates the cost of answering a query with an index from the internal statistics of the index.
+ * The query is decomposed into ranges the same way it would be when it is executed, and the number
+ * of rows in each range is estimated from the row range histogram of its partition. Partitions that
+ * the partitions statistic shows have no rows for the data type are not expected to return
+ * anything, and the share of duplicate rows is estimated from the duplicate entry count statistic.
+ *
+ * <p> Statistics are cached per data type and index, so an estimator should only be used for the
+ * planning of a single query. The query ranges of each estimate are kept, so the query does not
+ * have to decompose its constraints again for the index that was chosen.
+ */
+public class IndexCostEstimator {
+  private final DataStatisticsStore statisticsStore;
+  private final int maxRangeDecomposition;
+  private final double[] targetResolutionPerDimensionForHierarchicalIndex;
+  private final String[] authorizations;
+  private final Map<Pair<String, String>, IndexTypeStatistics> statisticsCache = Maps.newHashMap();
+  private final Map<Pair<String, String>, Pair<List<MultiDimensionalNumericData>, QueryRanges>> queryRangesCache =
+      Maps.newHashMap();
+
+  /**
+   * @param statisticsStore the statistics store
+   * @param maxRangeDecomposition the maximum number of ranges to decompose queries into
+   * @param targetResolutionPerDimensionForHierarchicalIndex the target resolution of the query, or
+   *        {@code null} to use the finest resolution
+   * @param authorizations authorizations for the statistics
+   */
+  public IndexCostEstimator(
+      final DataStatisticsStore statisticsStore,
+      final int maxRangeDecomposition,
+      final @Nullable double[] targetResolutionPerDimensionForHierarchicalIndex,
+      final String... authorizations) {
+    this.statisticsStore = statisticsStore;
+    this.maxRangeDecomposition = maxRangeDecomposition;
+    this.targetResolutionPerDimensionForHierarchicalIndex =
+        targetResolutionPerDimensionForHierarchicalIndex;
+    this.authorizations = authorizations;
+  }
+
+  /**
+   * Estimate the cost of querying a data type with the given index constraints.
+   *
+   * @param typeName the data type to query
+   * @param index the index to query
+   * @param constraints the constraints of the query on the index
+   * @return the estimate
+   */
+  public IndexCostEstimate estimate(
+      final String typeName,
+      final Index index,
+      final List<MultiDimensionalNumericData> constraints) {
+    if (IndexUtils.isFullTableScan(constraints)) {
+      return estimateFullScan(typeName, index);
+    }
+    final Pair<String, String> key = Pair.of(typeName, index.getName());
+    final Pair<List<MultiDimensionalNumericData>, QueryRanges> cached = queryRangesCache.get(key);
+    if ((cached != null) && cached.getLeft().equals(constraints)) {
+      return estimate(typeName, index, cached.getRight());
+    }
+    // decompose with the same index metadata hints the query of this type would use
+    final QueryRanges queryRanges =
+        DataStoreUtils.constraintsToQueryRanges(
+            constraints,
+            index,
+            targetResolutionPerDimensionForHierarchicalIndex,
+            maxRangeDecomposition,
+            getStatistics(typeName, index).getIndexMetaData());
+    queryRangesCache.put(key, Pair.of(constraints, queryRanges));
+    return estimate(typeName, index, queryRanges);
+  }
+
+  /**
+   * Get the query ranges that the constraints of a data type were decomposed into for an estimate,
+   * if they were decomposed the same way the query would decompose them.
+   *
+   * @param typeName the data type to query
+   * @param index the index to query
+   * @param constraints the constraints of the query on the index
+   * @param maxRangeDecomposition the maximum number of ranges the query decomposes into
+   * @param targetResolutionPerDimensionForHierarchicalIndex the target resolution of the query
+   * @return the query ranges, or {@code null} if the constraints have to be decomposed again
+   */
+  public @Nullable QueryRanges getQueryRanges(
+      final String typeName,
+      final Index index,
+      final List<MultiDimensionalNumericData> constraints,
+      final int maxRangeDecomposition,
+      final @Nullable double[] targetResolutionPerDimensionForHierarchicalIndex) {
+    if ((maxRangeDecomposition != this.maxRangeDecomposition)
+        || !Arrays.equals(
+            targetResolutionPerDimensionForHierarchicalIndex,
+            this.targetResolutionPerDimensionForHierarchicalIndex)) {
+      return null;
+    }
+    final Pair<List<MultiDimensionalNumericData>, QueryRanges> cached =
+        queryRangesCache.get(Pair.of(typeName, index.getName()));
+    if ((cached == null) || !cached.getLeft().equals(constraints)) {
+      return null;
+    }
+    return cached.getRight();
+  }
+
+  /**
+   * Estimate the cost of querying a data type with the given query ranges.
+   *
+   * @param typeName the data type to query
+   * @param index the index to query
+   * @param queryRanges the decomposed query ranges
+   * @return the estimate
+   */
+  public IndexCostEstimate estimate(
+      final String typeName,
+      final Index index,
+      final QueryRanges queryRanges) {
+    final IndexTypeStatistics statistics = getStatistics(typeName, index);
+    boolean estimated = statistics.histogramStatistic != null;
+    int rangeCount = 0;
+    double rows = 0;
+    for (final SinglePartitionQueryRanges partitionRanges : queryRanges.getPartitionQueryRanges()) {
+      final Collection<ByteArrayRange> sortKeyRanges = partitionRanges.getSortKeyRanges();
+      final boolean wholePartition = (sortKeyRanges == null) || sortKeyRanges.isEmpty();
+      rangeCount += wholePartition ? 1 : sortKeyRanges.size();
+      if (!estimated) {
+        continue;
+      }
+      final ByteArray partitionKey =
+          PartitionBinningStrategy.getBin(partitionRanges.getPartitionKey());
+      if ((statistics.partitions != null) && !statistics.partitions.contains(partitionKey)) {
+        // nothing of this type has been written to the partition
+        continue;
+      }
+      final RowRangeHistogramValue histogram = statistics.getHistogram(partitionKey);
+      if (histogram == null) {
+        estimated = false;
+      } else if (wholePartition) {
+        rows += histogram.getTotalCount();
+      } else {
+        for (final ByteArrayRange range : sortKeyRanges) {
+          rows += histogram.cardinality(range.getStart(), range.getEnd());
+        }
+      }
+    }
+    return createEstimate(
+        typeName,
+        index,
+        false,
+        rangeCount,
+        estimated ? Math.round(rows) : -1,
+        statistics);
+  }
+
+  /**
+   * Estimate the cost of scanning every row of a data type in the given index.
+   *
+   * @param typeName the data type to query
+   * @param index the index to query
+   * @return the estimate
+   */
+  public IndexCostEstimate estimateFullScan(final String typeName, final Index index) {
+    final IndexTypeStatistics statistics = getStatistics(typeName, index);
+    final int rangeCount =
+        statistics.partitions == null ? 1 : Math.max(1, statistics.partitions.size());
+    return createEstimate(typeName, index, true, rangeCount, statistics.getTotalRows(), statistics);
+  }
+
+  /**
+   * Estimate the number of rows of a data type in a range of a partition.
+   *
+   * @param typeName the data type
+   * @param index the index
+   * @param partitionKey the partition key
+   * @param range the sort key range, or {@code null} for the whole partition
+   * @return the estimated number of rows, or -1 if the statistics of the index are not sufficient
+   *         to estimate it
+   */
+  double estimateRows(
+      final String typeName,
+      final Index index,
+      final byte[] partitionKey,
+      final @Nullable ByteArrayRange range) {
+    final IndexTypeStatistics statistics = getStatistics(typeName, index);
+    if (statistics.histogramStatistic == null) {
+      return -1;
+    }
+    final ByteArray partition = PartitionBinningStrategy.getBin(partitionKey);
+    if ((statistics.partitions != null) && !statistics.partitions.contains(partition)) {
+      return 0;
+    }
+    final RowRangeHistogramValue histogram = statistics.getHistogram(partition);
+    if (histogram == null) {
+      return -1;
+    }
+    if (range == null) {
+      return histogram.getTotalCount();
+    }
+    return histogram.cardinality(range.getStart(), range.getEnd());
+  }
+
+  private IndexCostEstimate createEstimate(
+      final String typeName,
+      final Index index,
+      final boolean fullScan,
+      final int rangeCount,
+      final long rows,
+      final IndexTypeStatistics statistics) {
+    long duplicates = 0;
+    if ((rows > 0) && (statistics.duplicateEntries > 0)) {
+      // every entry with duplicates has at least one row that is a duplicate
+      final long totalRows = statistics.getTotalRows();
+      if (totalRows > 0) {
+        duplicates =
+            Math.min(rows, Math.round(((double) rows * statistics.duplicateEntries) / totalRows));
+      }
+    }
+    return new IndexCostEstimate(typeName, index.getName(), fullScan, rangeCount, rows, duplicates);
+  }
+
+  private IndexTypeStatistics getStatistics(final String typeName, final Index index) {
+    final Pair<String, String> key = Pair.of(typeName, index.getName());
+    IndexTypeStatistics statistics = statisticsCache.get(key);
+    if (statistics == null) {
+      statistics = new IndexTypeStatistics(typeName, index.getName());
+      statisticsCache.put(key, statistics);
+    }
+    return statistics;
+  }
+
+  /**
+   * Choose the cheapest of the given estimates.
+   *
+   * @param estimates the estimates to choose from
+   * @param preferredIndexName the index to choose when multiple estimates have the same cost
+   * @return the cheapest estimate, or {@code null} if there are no estimates or any of them could
+   *         not be estimated
+   */
+  public static IndexCostEstimate cheapest(
+      final List<IndexCostEstimate> estimates,
+      final @Nullable String preferredIndexName) {
+    IndexCostEstimate cheapest = null;
+    for (final IndexCostEstimate estimate : estimates) {
+      if (!estimate.isEstimated()) {
+        return null;
+      }
+      if ((cheapest == null)
+          || (estimate.getCost() < cheapest.getCost())
+          || ((estimate.getCost() == cheapest.getCost())
+              && estimate.getIndexName().equals(preferredIndexName))) {
+        cheapest = estimate;
+      }
+    }
+    return cheapest;
+  }
+
+  private class IndexTypeStatistics {
+    private final String typeName;
+    private final String indexName;
+    private final Statistic<RowRangeHistogramValue> histogramStatistic;
+    // null if the index has no partitions statistic
+    private final Set<ByteArray> partitions;
+    private final long duplicateEntries;
+    private Map<ByteArray, RowRangeHistogramValue> histograms = null;
+    private IndexMetaData[] indexMetaData = null;
+    private Long totalRows = null;
+
+    private IndexTypeStatistics(final String typeName, final String indexName) {
+      this.typeName = typeName;
+      this.indexName = indexName;
+      final Statistic<RowRangeHistogramValue> histogram =
+          statisticsStore.getStatisticById(
+              IndexStatistic.generateStatisticId(
+                  indexName,
+                  RowRangeHistogramStatistic.STATS_TYPE,
+                  Statistic.INTERNAL_TAG));
+      if ((histogram != null)
+          && (histogram.getBinningStrategy() instanceof CompositeBinningStrategy)
+          && ((CompositeBinningStrategy) histogram.getBinningStrategy()).isOfType(
+              DataTypeBinningStrategy.class,
+              PartitionBinningStrategy.class)) {
+        histogramStatistic = histogram;
+      } else {
+        histogramStatistic = null;
+      }
+      if (statisticsStore.getStatisticById(
+          IndexStatistic.generateStatisticId(
+              indexName,
+              PartitionsStatistic.STATS_TYPE,
+              Statistic.INTERNAL_TAG)) != null) {
+        final PartitionsValue value =
+            InternalStatisticsHelper.getIndexStatistic(
+                statisticsStore,
+                PartitionsStatistic.STATS_TYPE,
+                indexName,
+                typeName,
+                null,
+                authorizations);
+        partitions = Sets.newHashSet();
+        if (value != null) {
+          for (final ByteArray partition : value.getValue()) {
+            partitions.add(partition == null ? new ByteArray() : partition);
+          }
+        }
+        if (partitions.isEmpty()) {
+          // rows without a partition key are not distinguishable from no rows once the statistic
+          // has been serialized, so assume the single partition of an unpartitioned index
+          partitions.add(new ByteArray());
+        }
+      } else {
+        partitions = null;
+      }
+      final DuplicateEntryCountValue duplicates =
+          InternalStatisticsHelper.getIndexStatistic(
+              statisticsStore,
+              DuplicateEntryCountStatistic.STATS_TYPE,
+              indexName,
+              typeName,
+              null,
+              authorizations);
+      duplicateEntries = duplicates == null ? 0 : duplicates.getValue();
+    }
+
+    private RowRangeHistogramValue getHistogram(final ByteArray partitionKey) {
+      if (histograms == null) {
+        // read the histograms of every partition of the type in a single scan
+        histograms = Maps.newHashMap();
+        final ByteArray typeBin = DataTypeBinningStrategy.getBin(typeName);
+        final CompositeBinningStrategy binningStrategy =
+            (CompositeBinningStrategy) histogramStatistic.getBinningStrategy();
+        try (CloseableIterator<RowRangeHistogramValue> values =
+            statisticsStore.getStatisticValues(histogramStatistic, typeBin, authorizations)) {
+          while (values.hasNext()) {
+            final RowRangeHistogramValue value = values.next();
+            final Pair<StatisticBinningStrategy, ByteArray>[] subBins =
+                binningStrategy.getSubBins(value.getBin());
+            // the prefix also matches the bins of types whose name starts with this one
+            if (subBins[0].getRight().equals(typeBin)) {
+              histograms.put(subBins[1].getRight(), value);
+            }
+          }
+        }
+      }
+      return histograms.get(partitionKey);
+    }
+
+    private IndexMetaData[] getIndexMetaData() {
+      if (indexMetaData == null) {
+        final IndexMetaDataSetValue value =
+            InternalStatisticsHelper.getIndexStatistic(
+                statisticsStore,
+                IndexMetaDataSetStatistic.STATS_TYPE,
+                indexName,
+                typeName,
+                null,
+                authorizations);
+        indexMetaData = value == null ? new IndexMetaData[0] : value.toArray();
+      }
+      return indexMetaData;
+    }
+
+    private long getTotalRows() {
+      if (totalRows == null) {
+        long rows = 0;
+        if ((histogramStatistic == null) || (partitions == null)) {
+          rows = -1;
+        } else {
+          for (final ByteArray partitionKey : partitions) {
+            final RowRangeHistogramValue histogram = getHistogram(partitionKey);
+            if (histogram == null) {
+              rows = -1;
+              break;
+            }
+            rows += histogram.getTotalCount();
+          }
+        }
+        totalRows = rows;
+      }
+      return totalRows;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.plan;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Describes how a query will be executed. For each data type that is queried, the plan contains the
+ * index that was selected, how it was selected, and the cost estimate of each index that was
+ * considered.
+ */
+public class QueryPlan {
+  /**
+   * How the index of a data type was selected.
+   */
+  public enum Selection {
+    /** The index with the lowest estimated cost was selected. */
+    COST,
+    /**
+     * The index was selected by a heuristic, such as the dimensions of the query it constrains,
+     * either because it is the only index that constrains the query or because the statistics of
+     * some of the indices were not sufficient to estimate their cost.
+     */
+    HEURISTIC,
+    /** The index was the only candidate. */
+    SINGLE_CANDIDATE,
+    /** The data index is queried directly. */
+    DATA_INDEX
+  }
+
+  private final Set<String> typeNames = Sets.newLinkedHashSet();
+  private final Map<String, List<IndexCostEstimate>> estimates = Maps.newHashMap();
+  private final Map<String, Pair<String, Selection>> selections = Maps.newHashMap();
+
+  /**
+   * Add the estimate of an index that was considered for a data type.
+   *
+   * @param estimate the estimate
+   */
+  public void addEstimate(final IndexCostEstimate estimate) {
+    typeNames.add(estimate.getTypeName());
+    List<IndexCostEstimate> typeEstimates = estimates.get(estimate.getTypeName());
+    if (typeEstimates == null) {
+      typeEstimates = Lists.newArrayList();
+      estimates.put(estimate.getTypeName(), typeEstimates);
+    }
+    typeEstimates.add(estimate);
+  }
+
+  /**
+   * Set the index that was selected for a data type.
+   *
+   * @param typeName the data type
+   * @param indexName the selected index
+   * @param selection how the index was selected
+   */
+  public void select(final String typeName, final String indexName, final Selection selection) {
+    typeNames.add(typeName);
+    selections.put(typeName, Pair.of(indexName, selection));
+  }
+
+  /**
+   * @return the data types in the plan
+   */
+  public List<String> getTypeNames() {
+    return Lists.newArrayList(typeNames);
+  }
+
+  /**
+   * @param typeName the data type
+   * @return the estimates of every index that was considered for the data type
+   */
+  public List<IndexCostEstimate> getEstimates(final String typeName) {
+    final List<IndexCostEstimate> typeEstimates = estimates.get(typeName);
+    return typeEstimates == null ? Collections.emptyList() : typeEstimates;
+  }
+
+  /**
+   * @param typeName the data type
+   * @return the index that was selected for the data type, or {@code null} if the data type will
+   *         not be queried
+   */
+  public String getSelectedIndex(final String typeName) {
+    final Pair<String, Selection> selection = selections.get(typeName);
+    return selection == null ? null : selection.getLeft();
+  }
+
+  /**
+   * @param typeName the data type
+   * @return how the index of the data type was selected, or {@code null} if the data type will not
+   *         be queried
+   */
+  public Selection getSelection(final String typeName) {
+    final Pair<String, Selection> selection = selections.get(typeName);
+    return selection == null ? null : selection.getRight();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder str = new StringBuilder();
+    for (final String typeName : typeNames) {
+      final String selectedIndex = getSelectedIndex(typeName);
+      str.append(typeName).append(": ");
+      if (selectedIndex == null) {
+        str.append("not queried");
+      } else {
+        str.append(selectedIndex).append(" (").append(getSelection(typeName)).append(")");
+      }
+      str.append('\n');
+      for (final IndexCostEstimate estimate : getEstimates(typeName)) {
+        str.append(estimate.getIndexName().equals(selectedIndex) ? "  * " : "    ");
+        str.append(estimate).append('\n');
+      }
+    }
+    return str.toString();
+  }
+}
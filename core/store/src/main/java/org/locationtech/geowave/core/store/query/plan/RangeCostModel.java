@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.plan;
+
+import java.util.Collection;
+import java.util.function.LongSupplier;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.store.operations.RowReader;
+
+/**
+ * Measures the cost of seeking to a range in a data store, expressed in rows. Every tracked scan
+ * records the number of ranges it was decomposed into, the number of rows the ranges cover and how
+ * long the reader of the scan took to read them. Only the time spent inside the reader counts, so
+ * the work of the consumer of the rows does not affect the measured cost. The cost of a range is
+ * the ratio of the per range and per row coefficients of a least squares fit of the scan times.
+ * Older scans are weighted down exponentially, so the model follows changes in the load of the
+ * backend.
+ *
+ * <p> Until enough scans have been tracked to fit the model, or when the fit is not meaningful, the
+ * default cost is used.
+ */
+public class RangeCostModel {
+  private static final double DECAY = 0.95;
+  private static final int MIN_SCANS = 10;
+
+  private final double defaultRangeCost;
+  private final LongSupplier clock;
+  private int scans = 0;
+  private double weight = 0;
+  private double sumRanges = 0;
+  private double sumRows = 0;
+  private double sumNanos = 0;
+  private double sumRangesSquared = 0;
+  private double sumRowsSquared = 0;
+  private double sumRangesRows = 0;
+  private double sumRangesNanos = 0;
+  private double sumRowsNanos = 0;
+
+  /**
+   * @param defaultRangeCost the cost of a range, in rows, to use until it has been measured
+   */
+  public RangeCostModel(final double defaultRangeCost) {
+    this(defaultRangeCost, System::nanoTime);
+  }
+
+  RangeCostModel(final double defaultRangeCost, final LongSupplier clock) {
+    this.defaultRangeCost = defaultRangeCost;
+    this.clock = clock;
+  }
+
+  /**
+   * Record a completed scan.
+   *
+   * @param ranges the number of ranges that were scanned
+   * @param rows the number of rows that were scanned
+   * @param nanos how long the scan took in nanoseconds
+   */
+  public synchronized void record(final int ranges, final long rows, final long nanos) {
+    weight = (weight * DECAY) + 1;
+    sumRanges = (sumRanges * DECAY) + ranges;
+    sumRows = (sumRows * DECAY) + rows;
+    sumNanos = (sumNanos * DECAY) + nanos;
+    sumRangesSquared = (sumRangesSquared * DECAY) + ((double) ranges * ranges);
+    sumRowsSquared = (sumRowsSquared * DECAY) + ((double) rows * rows);
+    sumRangesRows = (sumRangesRows * DECAY) + ((double) ranges * rows);
+    sumRangesNanos = (sumRangesNanos * DECAY) + ((double) ranges * nanos);
+    sumRowsNanos = (sumRowsNanos * DECAY) + ((double) rows * nanos);
+    scans++;
+  }
+
+  /**
+   * @return the measured cost of a range in rows, or the default cost if it could not be measured
+   */
+  public synchronized double getRangeCost() {
+    if (scans < MIN_SCANS) {
+      return defaultRangeCost;
+    }
+    final double meanRanges = sumRanges / weight;
+    final double meanRows = sumRows / weight;
+    final double meanNanos = sumNanos / weight;
+    final double rangesVariance = (sumRangesSquared / weight) - (meanRanges * meanRanges);
+    final double rowsVariance = (sumRowsSquared / weight) - (meanRows * meanRows);
+    final double rangesRowsCovariance = (sumRangesRows / weight) - (meanRanges * meanRows);
+    final double rangesNanosCovariance = (sumRangesNanos / weight) - (meanRanges * meanNanos);
+    final double rowsNanosCovariance = (sumRowsNanos / weight) - (meanRows * meanNanos);
+    final double determinant =
+        (rangesVariance * rowsVariance) - (rangesRowsCovariance * rangesRowsCovariance);
+    // relative to the second moments, so rounding errors of identical scans are not a fit
+    if (determinant <= (1e-9 * (sumRangesSquared / weight) * (sumRowsSquared / weight))) {
+      // the scans did not vary enough to tell the cost of ranges and rows apart
+      return defaultRangeCost;
+    }
+    final double nanosPerRange =
+        ((rowsVariance * rangesNanosCovariance) - (rangesRowsCovariance * rowsNanosCovariance))
+            / determinant;
+    final double nanosPerRow =
+        ((rangesVariance * rowsNanosCovariance) - (rangesRowsCovariance * rangesNanosCovariance))
+            / determinant;
+    if ((nanosPerRange <= 0) || (nanosPerRow <= 0)) {
+      return defaultRangeCost;
+    }
+    return nanosPerRange / nanosPerRow;
+  }
+
+  /**
+   * Track the scan of a reader. The scan is recorded when the reader has been read to the end,
+   * scans that are closed early are not recorded because they did not necessarily seek to every
+   * range.
+   *
+   * @param reader the reader to track
+   * @param queryRanges the ranges the reader scans
+   * @param scannedRows the number of rows the ranges cover, which can be more than the reader
+   *        returns if rows are filtered on the server
+   * @return the tracked reader
+   */
+  public <T> RowReader<T> track(
+      final RowReader<T> reader,
+      final QueryRanges queryRanges,
+      final long scannedRows) {
+    return new TrackedRowReader<>(reader, getRangeCount(queryRanges), scannedRows);
+  }
+
+  /**
+   * @param queryRanges the query ranges
+   * @return the number of ranges that are scanned for the query ranges, counting a partition
+   *         without sort key ranges as a single range
+   */
+  public static int getRangeCount(final QueryRanges queryRanges) {
+    int rangeCount = 0;
+    for (final SinglePartitionQueryRanges partitionRanges : queryRanges.getPartitionQueryRanges()) {
+      final Collection<ByteArrayRange> sortKeyRanges = partitionRanges.getSortKeyRanges();
+      rangeCount += (sortKeyRanges == null) || sortKeyRanges.isEmpty() ? 1 : sortKeyRanges.size();
+    }
+    return rangeCount;
+  }
+
+  private class TrackedRowReader<T> implements RowReader<T> {
+    private final RowReader<T> reader;
+    private final int ranges;
+    private final long rows;
+    private long nanos = 0;
+    private boolean recorded = false;
+
+    private TrackedRowReader(final RowReader<T> reader, final int ranges, final long rows) {
+      this.reader = reader;
+      this.ranges = ranges;
+      this.rows = rows;
+    }
+
+    @Override
+    public boolean hasNext() {
+      final long start = clock.getAsLong();
+      final boolean hasNext = reader.hasNext();
+      nanos += clock.getAsLong() - start;
+      if (!hasNext && !recorded) {
+        recorded = true;
+        record(ranges, rows, nanos);
+      }
+      return hasNext;
+    }
+
+    @Override
+    public T next() {
+      final long start = clock.getAsLong();
+      try {
+        return reader.next();
+      } finally {
+        nanos += clock.getAsLong() - start;
+      }
+    }
+
+    @Override
+    public void close() {
+      reader.close();
+    }
+  }
+}
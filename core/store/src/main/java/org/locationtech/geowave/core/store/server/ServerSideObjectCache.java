@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.server;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+/**
+ * A JVM-wide cache of objects deserialized by server-side iterators, filters and coprocessors,
+ * keyed by the expected type, the context classloader and a hash of their serialized form.
+ * Iterators are initialized again on every seek, so without a cache the same index mappings, models
+ * and filters would be deserialized for every scan, which can dominate the cost of short scans.
+ *
+ * <p> Cached objects are shared by every scan that uses the same serialized bytes, so only objects
+ * that declare they are safe to share are cached: filters that report
+ * {@link QueryFilter#isStateless()}, objects implementing {@link ServerSideShareable} and
+ * collections of either. Internal adapters are only cached when the type adapter they wrap is
+ * shareable too. Anything else is deserialized every time. The type and classloader are part of the
+ * key so that bytes deserialized for another type or by another classloader, such as a reloaded
+ * iterator context, are never returned. Entries that have not been used for an hour expire so that
+ * they do not keep unloaded classloaders alive.
+ *
+ * <p> The cache is bounded by the total size of the serialized objects it holds, which can be set
+ * in bytes with the {@value #MAX_BYTES_PROPERTY} system property.
+ */
+public class ServerSideObjectCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ServerSideObjectCache.class);
+  public static final String MAX_BYTES_PROPERTY = "geowave.server.objectCache.maxBytes";
+  private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+  private static final long EXPIRE_AFTER_ACCESS_MINUTES = 60;
+  private static final ServerSideObjectCache INSTANCE =
+      new ServerSideObjectCache(Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES));
+
+  private final Cache<CacheKey, CachedObject> cache;
+
+  protected ServerSideObjectCache(final long maxBytes) {
+    cache =
+        Caffeine.newBuilder().maximumWeight(maxBytes).weigher(
+            (final CacheKey key, final CachedObject value) -> value.bytes.length).expireAfterAccess(
+                EXPIRE_AFTER_ACCESS_MINUTES,
+                TimeUnit.MINUTES).recordStats().build();
+  }
+
+  public static ServerSideObjectCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the deserialized form of the given bytes, deserializing them only if they aren't cached.
+   * The deserialized object is only cached if it is {@link #isShareable(Object) shareable}.
+   *
+   * @param bytes the serialized object
+   * @param type the type the bytes are expected to deserialize to, objects of another type are
+   *        returned but not cached
+   * @param deserializer the function to deserialize the bytes with
+   * @return the deserialized object
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(
+      final byte[] bytes,
+      final Class<? super T> type,
+      final Function<byte[], T> deserializer) {
+    if ((bytes == null) || (bytes.length == 0)) {
+      return deserializer.apply(bytes);
+    }
+    final CacheKey key =
+        new CacheKey(
+            type,
+            Thread.currentThread().getContextClassLoader(),
+            Hashing.murmur3_128().hashBytes(bytes));
+    final Object[] uncached = new Object[1];
+    final CachedObject cached = cache.get(key, k -> {
+      final T value = deserializer.apply(bytes);
+      if (!type.isInstance(value) || !isShareable(value)) {
+        uncached[0] = value;
+        return null;
+      }
+      return new CachedObject(bytes.clone(), value);
+    });
+    if (cached == null) {
+      return (T) uncached[0];
+    }
+    if (!Arrays.equals(bytes, cached.bytes)) {
+      // a hash collision, which is astronomically unlikely but must not return the wrong object
+      LOGGER.warn("Server-side object cache hash collision");
+      return deserializer.apply(bytes);
+    }
+    return (T) cached.value;
+  }
+
+  /**
+   * @param value a deserialized object
+   * @return whether the object declares that a single instance can be shared by concurrent scans
+   */
+  public static boolean isShareable(final Object value) {
+    if (value instanceof QueryFilter) {
+      return ((QueryFilter) value).isStateless();
+    }
+    if (value instanceof Collection) {
+      return ((Collection<?>) value).stream().allMatch(ServerSideObjectCache::isShareable);
+    }
+    if (value instanceof InternalDataAdapter) {
+      // an internal adapter is only as shareable as the type adapter it wraps
+      return (value instanceof ServerSideShareable)
+          && isShareable(((InternalDataAdapter<?>) value).getAdapter());
+    }
+    return value instanceof ServerSideShareable;
+  }
+
+  /**
+   * @return the hit, miss and eviction counts of the cache
+   */
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  private static class CacheKey {
+    private final Class<?> type;
+    private final ClassLoader classLoader;
+    private final HashCode hash;
+
+    private CacheKey(final Class<?> type, final ClassLoader classLoader, final HashCode hash) {
+      this.type = type;
+      this.classLoader = classLoader;
+      this.hash = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return (31 * ((31 * hash.hashCode()) + type.hashCode()))
+          + System.identityHashCode(classLoader);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if ((obj == null) || (getClass() != obj.getClass())) {
+        return false;
+      }
+      final CacheKey other = (CacheKey) obj;
+      return (type == other.type) && (classLoader == other.classLoader) && hash.equals(other.hash);
+    }
+  }
+
+  private static class CachedObject {
+    private final byte[] bytes;
+    private final Object value;
+
+    private CachedObject(final byte[] bytes, final Object value) {
+      this.bytes = bytes;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.server;
+
+/**
+ * Marks a type whose instances are not modified once they have been deserialized, other than by
+ * idempotent lazy initialization, and can be used by concurrent threads. The
+ * {@link ServerSideObjectCache} only shares a single deserialized instance between scans for types
+ * that declare this. Subclasses inherit this contract and must not add mutable state.
+ */
+public interface ServerSideShareable {
+}
@@ -11,6 +11,11 @@ package org.locationtech.geowave.core.store.statistics;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.locationtech.geowave.core.store.AdapterToIndexMapping;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.api.Index;
@@ -20,12 +25,20 @@ import org.locationtech.geowave.core.store.callback.DeleteCallback;
 import org.locationtech.geowave.core.store.callback.IngestCallback;
 import org.locationtech.geowave.core.store.callback.ScanCallback;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.google.common.collect.Lists;
 
 /**
  * This class is responsible for managing updates to a set of statistics for a given type and index.
  * It serves as an ingest, scan, and delete callback that will write all statistic updates to the
  * statistics store.
+ *
+ * <p> When concurrent updates are enabled, each statistic accumulates partial values in multiple
+ * stripes so that many threads can update statistics through the same callback without serializing
+ * on a single lock, and statistics are periodically flushed to the statistics store on a background
+ * thread. All updates are flushed synchronously when the callback is closed, and any update that
+ * arrives after the callback was closed is written to the statistics store right away.
  */
 public class StatisticUpdateCallback<T> implements
     IngestCallback<T>,
@@ -35,6 +48,7 @@ public class StatisticUpdateCallback<T> implements
     Closeable,
     Flushable {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(StatisticUpdateCallback.class);
   private static final int FLUSH_STATS_THRESHOLD = 1000000;
 
   private final List<StatisticUpdateHandler<T, ?, ?>> statisticUpdateHandlers;
@@ -43,7 +57,12 @@ public class StatisticUpdateCallback<T> implements
   private final boolean skipFlush;
   private boolean overwrite;
 
-  private int updateCount = 0;
+  private final boolean concurrent;
+  private final AtomicInteger updateCount = new AtomicInteger(0);
+  private final AtomicBoolean flushPending = new AtomicBoolean(false);
+  private ExecutorService flushExecutor = null;
+  private volatile boolean closed = false;
+  private final AtomicBoolean updatedAfterClose = new AtomicBoolean(false);
 
   /**
    * Create an update callback for the given set of statistics.
@@ -60,11 +79,35 @@ public class StatisticUpdateCallback<T> implements
       final Index index,
       final AdapterToIndexMapping indexMapping,
       final InternalDataAdapter<T> type) {
+    this(statistics, statisticsStore, index, indexMapping, type, false);
+  }
+
+  /**
+   * Create an update callback for the given set of statistics.
+   * 
+   * @param statistics the statistics to update
+   * @param statisticsStore the statistics store
+   * @param index the index used in the operation
+   * @param type the type used in the operation
+   * @param concurrent if {@code true}, statistic values will be accumulated in multiple stripes so
+   *        that multiple threads can update them concurrently, and statistics will be periodically
+   *        flushed in the background
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public StatisticUpdateCallback(
+      final List<Statistic<? extends StatisticValue<?>>> statistics,
+      final DataStatisticsStore statisticsStore,
+      final Index index,
+      final AdapterToIndexMapping indexMapping,
+      final InternalDataAdapter<T> type,
+      final boolean concurrent) {
     this.statisticsStore = statisticsStore;
+    this.concurrent = concurrent;
+    final int numStripes = concurrent ? Runtime.getRuntime().availableProcessors() : 1;
     statisticUpdateHandlers = Lists.newArrayListWithCapacity(statistics.size());
     for (Statistic<?> statistic : statistics) {
       StatisticUpdateHandler handler =
-          new StatisticUpdateHandler(statistic, index, indexMapping, type);
+          new StatisticUpdateHandler(statistic, index, indexMapping, type, numStripes);
       statisticUpdateHandlers.add(handler);
     }
 
@@ -74,32 +117,84 @@ public class StatisticUpdateCallback<T> implements
 
   @Override
   public void entryDeleted(T entry, GeoWaveRow... rows) {
-    synchronized (MUTEX) {
-      for (StatisticUpdateHandler<T, ?, ?> handler : statisticUpdateHandlers) {
-        handler.entryDeleted(entry, rows);
-      }
-      updateCount++;
-      checkStats();
+    for (StatisticUpdateHandler<T, ?, ?> handler : statisticUpdateHandlers) {
+      handler.entryDeleted(entry, rows);
     }
+    checkStats();
+    flushIfClosed();
   }
 
   @Override
   public void entryIngested(T entry, GeoWaveRow... rows) {
     statisticUpdateHandlers.forEach(v -> v.entryIngested(entry, rows));
+    if (concurrent) {
+      checkStats();
+    }
+    flushIfClosed();
   }
 
   @Override
   public void entryScanned(T entry, GeoWaveRow row) {
     statisticUpdateHandlers.forEach(v -> v.entryScanned(entry, row));
+    flushIfClosed();
   }
 
-  private void checkStats() {
-    if (!skipFlush && (updateCount >= FLUSH_STATS_THRESHOLD)) {
-      updateCount = 0;
+  /**
+   * The final flush of a closed callback has already happened, so an update that arrives after it
+   * would otherwise never be written.
+   */
+  private void flushIfClosed() {
+    if (closed) {
+      if (updatedAfterClose.compareAndSet(false, true)) {
+        LOGGER.warn("Statistics were updated after the update callback was closed");
+      }
       flush();
     }
   }
 
+  private void checkStats() {
+    if (!skipFlush && (updateCount.incrementAndGet() >= FLUSH_STATS_THRESHOLD)) {
+      updateCount.set(0);
+      if (concurrent) {
+        flushInBackground();
+      } else {
+        flush();
+      }
+    }
+  }
+
+  private void flushInBackground() {
+    // only a single background flush is queued at a time, any updates that arrive while it is
+    // running will be picked up by the next flush
+    if (flushPending.compareAndSet(false, true)) {
+      synchronized (this) {
+        if (!closed) {
+          getFlushExecutor().execute(() -> {
+            try {
+              flush();
+            } finally {
+              flushPending.set(false);
+            }
+          });
+          return;
+        }
+      }
+      // the updates of a closed callback are flushed synchronously
+      flushPending.set(false);
+    }
+  }
+
+  private ExecutorService getFlushExecutor() {
+    if (flushExecutor == null) {
+      flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "statistics-flush");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return flushExecutor;
+  }
+
   @Override
   public void flush() {
     synchronized (MUTEX) {
@@ -113,6 +208,20 @@ public class StatisticUpdateCallback<T> implements
 
   @Override
   public void close() {
+    synchronized (this) {
+      // no background flush can be queued after this
+      closed = true;
+      if (flushExecutor != null) {
+        flushExecutor.shutdown();
+        try {
+          flushExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+          LOGGER.warn("Interrupted while waiting for statistics to flush", e);
+          Thread.currentThread().interrupt();
+        }
+        flushExecutor = null;
+      }
+    }
     flush();
   }
 
@@ -8,6 +8,7 @@
  */
 package org.locationtech.geowave.core.store.statistics;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -37,7 +38,10 @@ import com.google.common.collect.Sets;
 
 /**
  * This class handles updates for a single statistic. It is responsible for creating separate
- * statistic values for each visibility and bin combination.
+ * statistic values for each visibility and bin combination. Updates are accumulated in one or more
+ * stripes, each calling thread always updates the same stripe so that multiple threads can update
+ * the statistic without contending for the same lock. The partial values of each stripe are merged
+ * when the statistic is written.
  */
 public class StatisticUpdateHandler<T, V extends StatisticValue<R>, R> implements
     IngestCallback<T>,
@@ -45,7 +49,7 @@ public class StatisticUpdateHandler<T, V extends StatisticValue<R>, R> implement
     ScanCallback<T, GeoWaveRow> {
   private static final Logger LOGGER = LoggerFactory.getLogger(StatisticUpdateHandler.class);
   private final Statistic<V> statistic;
-  private final Map<ByteArray, Map<ByteArray, V>> statisticsMap = new HashMap<>();
+  private final Stripe<V>[] stripes;
   private final EntryVisibilityHandler<T> visibilityHandler;
   private final InternalDataAdapter<T> adapter;
   private final IngestHandler<T, V, R> ingestHandler;
@@ -61,7 +65,28 @@ public class StatisticUpdateHandler<T, V extends StatisticValue<R>, R> implement
       final Index index,
       final AdapterToIndexMapping indexMapping,
       final InternalDataAdapter<T> adapter) {
+    this(statistic, index, indexMapping, adapter, 1);
+  }
+
+  /**
+   * @param statistic the statistic to update
+   * @param index the index used in the operation
+   * @param indexMapping the index mapping of the type
+   * @param adapter the type used in the operation
+   * @param numStripes the number of stripes to accumulate partial statistic values in
+   */
+  @SuppressWarnings("unchecked")
+  public StatisticUpdateHandler(
+      final Statistic<V> statistic,
+      final Index index,
+      final AdapterToIndexMapping indexMapping,
+      final InternalDataAdapter<T> adapter,
+      final int numStripes) {
     this.statistic = statistic;
+    stripes = new Stripe[Math.max(1, numStripes)];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe<>();
+    }
     this.adapter = adapter;
     this.visibilityHandler = getVisibilityHandler(indexMapping, index);
     this.ingestHandler = new IngestHandler<>();
@@ -90,24 +115,34 @@ public class StatisticUpdateHandler<T, V extends StatisticValue<R>, R> implement
       return;
     }
     final ByteArray visibility = new ByteArray(visibilityHandler.getVisibility(entry, rows));
-    Map<ByteArray, V> binnedValues = statisticsMap.get(visibility);
-    if (binnedValues == null) {
-      binnedValues = Maps.newHashMap();
-      statisticsMap.put(visibility, binnedValues);
-    }
-    if (statistic.getBinningStrategy() != null) {
-      if (filterByPartition) {
-        for (final GeoWaveRow row : rows) {
-          handleBinnedRows(handler, binnedValues, entry, row);
+    final Stripe<V> stripe = getStripe();
+    synchronized (stripe) {
+      Map<ByteArray, V> binnedValues = stripe.statisticsMap.get(visibility);
+      if (binnedValues == null) {
+        binnedValues = Maps.newHashMap();
+        stripe.statisticsMap.put(visibility, binnedValues);
+      }
+      if (statistic.getBinningStrategy() != null) {
+        if (filterByPartition) {
+          for (final GeoWaveRow row : rows) {
+            handleBinnedRows(handler, binnedValues, entry, row);
+          }
+        } else {
+          handleBinnedRows(handler, binnedValues, entry, rows);
         }
       } else {
-        handleBinnedRows(handler, binnedValues, entry, rows);
+        handleBin(handler, binnedValues, NO_BIN, entry, rows);
       }
-    } else {
-      handleBin(handler, binnedValues, NO_BIN, entry, rows);
     }
   }
 
+  private Stripe<V> getStripe() {
+    if (stripes.length == 1) {
+      return stripes[0];
+    }
+    return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+  }
+
   protected void handleBinnedRows(
       final Handler<T, V, R> handler,
       final Map<ByteArray, V> binnedValues,
@@ -163,30 +198,72 @@ public class StatisticUpdateHandler<T, V extends StatisticValue<R>, R> implement
   }
 
   @Override
-  public synchronized void entryIngested(final T entry, final GeoWaveRow... rows) {
+  public void entryIngested(final T entry, final GeoWaveRow... rows) {
     if (supportsIngestCallback) {
       handleEntry(ingestHandler, entry, rows);
     }
   }
 
   @Override
-  public synchronized void entryDeleted(final T entry, final GeoWaveRow... rows) {
+  public void entryDeleted(final T entry, final GeoWaveRow... rows) {
     if (supportsDeleteCallback) {
       handleEntry(deleteHandler, entry, rows);
     }
   }
 
   @Override
-  public synchronized void entryScanned(final T entry, final GeoWaveRow row) {
+  public void entryScanned(final T entry, final GeoWaveRow row) {
     if (supportsIngestCallback) {
       handleEntry(ingestHandler, entry, row);
     }
   }
 
+  /**
+   * Merge the partial values of each stripe. The accumulated values are swapped out of each stripe
+   * so that updates are only blocked for the duration of the swap.
+   */
+  private Map<ByteArray, Map<ByteArray, V>> drainStripes() {
+    Map<ByteArray, Map<ByteArray, V>> merged = null;
+    for (final Stripe<V> stripe : stripes) {
+      final Map<ByteArray, Map<ByteArray, V>> partial;
+      synchronized (stripe) {
+        if (stripe.statisticsMap.isEmpty()) {
+          continue;
+        }
+        partial = stripe.statisticsMap;
+        stripe.statisticsMap = new HashMap<>();
+      }
+      if (merged == null) {
+        merged = partial;
+        continue;
+      }
+      for (final Entry<ByteArray, Map<ByteArray, V>> visibilityStatistic : partial.entrySet()) {
+        final Map<ByteArray, V> mergedBins = merged.get(visibilityStatistic.getKey());
+        if (mergedBins == null) {
+          merged.put(visibilityStatistic.getKey(), visibilityStatistic.getValue());
+          continue;
+        }
+        for (final Entry<ByteArray, V> binValue : visibilityStatistic.getValue().entrySet()) {
+          final V mergedValue = mergedBins.get(binValue.getKey());
+          if (mergedValue == null) {
+            mergedBins.put(binValue.getKey(), binValue.getValue());
+          } else {
+            mergedValue.merge(binValue.getValue());
+          }
+        }
+      }
+    }
+    return merged == null ? Collections.emptyMap() : merged;
+  }
+
   public void writeStatistics(final DataStatisticsStore statisticsStore, final boolean overwrite) {
     if (overwrite) {
       statisticsStore.removeStatisticValues(statistic);
     }
+    final Map<ByteArray, Map<ByteArray, V>> statisticsMap = drainStripes();
+    if (statisticsMap.isEmpty() && !overwrite) {
+      return;
+    }
     try (StatisticValueWriter<V> statWriter =
         statisticsStore.createStatisticValueWriter(statistic)) {
       for (final Entry<ByteArray, Map<ByteArray, V>> visibilityStatistic : statisticsMap.entrySet()) {
@@ -198,12 +275,15 @@ public class StatisticUpdateHandler<T, V extends StatisticValue<R>, R> implement
               binValue.getValue());
         }
       }
-      statisticsMap.clear();
     } catch (final Exception e) {
       LOGGER.error("Unable to write statistic value.", e);
     }
   }
 
+  private static class Stripe<V> {
+    private Map<ByteArray, Map<ByteArray, V>> statisticsMap = new HashMap<>();
+  }
+
   private static interface Handler<T, V extends StatisticValue<R>, R> {
     public void handle(
         V value,
@@ -152,8 +152,7 @@ public class DataStoreUtils {
         final String commonIndexFieldName = commonIndexFieldIds.get(ordinal);
         final FieldReader<?> reader = model.getReader(commonIndexFieldName);
         if (reader != null) {
-          final Object fieldValue = reader.readField(fieldInfo.getValue());
-          commonData.addValue(commonIndexFieldName, fieldValue);
+          commonData.addValue(commonIndexFieldName, fieldInfo.getValue(), reader);
         } else {
           LOGGER.error("Could not find reader for common index field: " + commonIndexFieldName);
         }
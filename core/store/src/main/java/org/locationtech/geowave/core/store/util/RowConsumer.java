@@ -19,9 +19,31 @@ public class RowConsumer<T> implements Iterator<T> {
   public static final Object POISON = new Object();
   private Object nextRow = null;
   private final BlockingQueue<Object> blockingQueue;
+  private final Runnable onTake;
 
   public RowConsumer(final BlockingQueue<Object> blockingQueue) {
+    this(blockingQueue, null);
+  }
+
+  /**
+   * @param blockingQueue the queue to consume rows from
+   * @param onTake called whenever an entry has been taken from the queue, producers that stop
+   *        producing on a full queue can use this to be resumed
+   */
+  public RowConsumer(final BlockingQueue<Object> blockingQueue, final Runnable onTake) {
     this.blockingQueue = blockingQueue;
+    this.onTake = onTake;
+  }
+
+  /**
+   * Create an entry that ends the rows with a failure, the consumer rethrows the cause instead of
+   * reporting that there are no more rows.
+   *
+   * @param cause the failure of the producer
+   * @return the entry to put in the queue
+   */
+  public static Object failure(final Throwable cause) {
+    return new Failure(cause);
   }
 
   @Override
@@ -31,11 +53,21 @@ public class RowConsumer<T> implements Iterator<T> {
     } else {
       try {
         nextRow = blockingQueue.take();
+        if (onTake != null) {
+          onTake.run();
+        }
       } catch (final InterruptedException e) {
         LOGGER.warn("Interrupted while waiting on hasNext", e);
         return false;
       }
     }
+    if (nextRow instanceof Failure) {
+      final Failure failure = (Failure) nextRow;
+      nextRow = null;
+      // leave the failure for any further calls
+      blockingQueue.offer(failure);
+      throw failure.toException();
+    }
     if (!nextRow.equals(POISON)) {
       return true;
     } else {
@@ -60,4 +92,19 @@ public class RowConsumer<T> implements Iterator<T> {
     nextRow = null;
     return retVal;
   }
+
+  private static class Failure {
+    private final Throwable cause;
+
+    private Failure(final Throwable cause) {
+      this.cause = cause;
+    }
+
+    private RuntimeException toException() {
+      if (cause instanceof RuntimeException) {
+        return (RuntimeException) cause;
+      }
+      return new RuntimeException("Unable to read rows", cause);
+    }
+  }
 }
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import java.util.List;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.numeric.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.store.BaseDataStoreOptions;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.AdapterIndexMappingStore;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.PersistentAdapterStore;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+import org.locationtech.geowave.core.store.memory.MemoryFactoryHelper;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.metadata.AdapterIndexMappingStoreImpl;
+import org.locationtech.geowave.core.store.metadata.AdapterStoreImpl;
+import org.locationtech.geowave.core.store.metadata.DataStatisticsStoreImpl;
+import org.locationtech.geowave.core.store.metadata.IndexStoreImpl;
+import org.locationtech.geowave.core.store.metadata.InternalAdapterStoreImpl;
+import org.locationtech.geowave.core.store.metadata.PropertyStoreImpl;
+import org.locationtech.geowave.core.store.operations.DataStoreOperations;
+import org.locationtech.geowave.core.store.query.constraints.QueryConstraints;
+import org.locationtech.geowave.core.store.query.filter.DedupeFilter;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimator;
+
+public class BaseDataStoreCostEstimatorTest {
+  private static final int ENTRIES = 1000;
+
+  @Test
+  public void testQueryReusesRangesOfChosenIndex() {
+    final RecordingDataStore dataStore = createDataStore(true);
+    query(dataStore, 900, 1, 9);
+    assertEquals("wideIdx", dataStore.index.getName());
+    assertNotNull(dataStore.costEstimator);
+    // the query was given the estimator that chose the index, so the ranges it decomposed for the
+    // estimate of the chosen index are there for the query to reuse
+    assertNotNull(
+        dataStore.costEstimator.getQueryRanges(
+            "costType",
+            dataStore.index,
+            dataStore.constraints,
+            dataStore.baseOptions.getMaxRangeDecomposition(),
+            null));
+
+    query(dataStore, 10, 5, 5);
+    assertEquals("narrowIdx", dataStore.index.getName());
+    assertNotNull(
+        dataStore.costEstimator.getQueryRanges(
+            "costType",
+            dataStore.index,
+            dataStore.constraints,
+            dataStore.baseOptions.getMaxRangeDecomposition(),
+            null));
+  }
+
+  @Test
+  public void testNoEstimatorWithoutCostBasedIndexSelection() {
+    final RecordingDataStore dataStore = createDataStore(false);
+    query(dataStore, 900, 1, 9);
+    assertNotNull(dataStore.index);
+    assertNull(dataStore.costEstimator);
+  }
+
+  private static void query(
+      final RecordingDataStore dataStore,
+      final long narrow,
+      final long wide,
+      final int expectedCount) {
+    int count = 0;
+    try (CloseableIterator<CostType> results =
+        dataStore.query(
+            QueryBuilder.newBuilder(CostType.class).addTypeName("costType").filter(
+                NumericFieldValue.of("narrow").isLessThan(narrow).and(
+                    NumericFieldValue.of("wide").isLessThan(wide))).build())) {
+      while (results.hasNext()) {
+        results.next();
+        count++;
+      }
+    }
+    assertEquals(expectedCount, count);
+  }
+
+  private RecordingDataStore createDataStore(final boolean costBasedIndexSelection) {
+    final MemoryRequiredOptions opts = new MemoryRequiredOptions();
+    opts.setGeoWaveNamespace("test_" + getClass().getName() + "_" + costBasedIndexSelection);
+    final BaseDataStoreOptions options = (BaseDataStoreOptions) opts.getStoreOptions();
+    options.setCostBasedIndexSelection(costBasedIndexSelection);
+    final DataStoreOperations operations = new MemoryFactoryHelper().createOperations(opts);
+    final RecordingDataStore dataStore = new RecordingDataStore(operations, options);
+    final DataTypeAdapter<CostType> adapter =
+        BasicDataTypeAdapter.newAdapter("costType", CostType.class, "id");
+    dataStore.addType(
+        adapter,
+        AttributeDimensionalityTypeProvider.createIndexForDescriptor(
+            adapter,
+            adapter.getFieldDescriptor("narrow"),
+            "narrowIdx"),
+        AttributeDimensionalityTypeProvider.createIndexForDescriptor(
+            adapter,
+            adapter.getFieldDescriptor("wide"),
+            "wideIdx"));
+    try (Writer<CostType> writer = dataStore.createWriter("costType")) {
+      for (int i = 0; i < ENTRIES; i++) {
+        // narrow has a distinct value per entry, wide has 10 entries per value
+        writer.write(new CostType("id" + i, (long) i, (long) (i % 100)));
+      }
+    }
+    return dataStore;
+  }
+
+  /**
+   * Records the index, constraints and cost estimator that the constraints query is given.
+   */
+  private static class RecordingDataStore extends BaseDataStore {
+    private Index index;
+    private List<MultiDimensionalNumericData> constraints;
+    private IndexCostEstimator costEstimator;
+
+    private RecordingDataStore(
+        final DataStoreOperations operations,
+        final BaseDataStoreOptions options) {
+      super(
+          new IndexStoreImpl(operations, options),
+          new AdapterStoreImpl(operations, options),
+          new DataStatisticsStoreImpl(operations, options),
+          new AdapterIndexMappingStoreImpl(operations, options),
+          operations,
+          options,
+          new InternalAdapterStoreImpl(operations),
+          new PropertyStoreImpl(operations, options));
+    }
+
+    @Override
+    protected CloseableIterator<Object> queryConstraints(
+        final List<Short> adapterIdsToQuery,
+        final Index index,
+        final QueryConstraints sanitizedQuery,
+        final DedupeFilter filter,
+        final BaseQueryOptions sanitizedQueryOptions,
+        final PersistentAdapterStore tempAdapterStore,
+        final AdapterIndexMappingStore mappingStore,
+        final boolean delete,
+        final IndexCostEstimator costEstimator) {
+      this.index = index;
+      constraints = sanitizedQuery.getIndexConstraints(index);
+      this.costEstimator = costEstimator;
+      return super.queryConstraints(
+          adapterIdsToQuery,
+          index,
+          sanitizedQuery,
+          filter,
+          sanitizedQueryOptions,
+          tempAdapterStore,
+          mappingStore,
+          delete,
+          costEstimator);
+    }
+  }
+
+  @GeoWaveDataType
+  protected static class CostType {
+    @GeoWaveField
+    private String id;
+
+    @GeoWaveField
+    private Long narrow;
+
+    @GeoWaveField
+    private Long wide;
+
+    public CostType() {}
+
+    public CostType(final String id, final Long narrow, final Long wide) {
+      this.id = id;
+      this.narrow = narrow;
+      this.wide = wide;
+    }
+  }
+}
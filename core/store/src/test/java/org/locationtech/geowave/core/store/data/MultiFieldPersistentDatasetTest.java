@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.store.data.field.FieldReader;
+
+public class MultiFieldPersistentDatasetTest {
+
+  @Test
+  public void testDeferredValue() {
+    final AtomicInteger reads = new AtomicInteger(0);
+    final FieldReader<Object> reader = new FieldReader<Object>() {
+      @Override
+      public Object readField(final byte[] fieldData) {
+        reads.incrementAndGet();
+        return StringUtils.stringFromBinary(fieldData);
+      }
+
+      @Override
+      public boolean isDeferrable(final byte[] fieldData) {
+        return fieldData.length > 1;
+      }
+    };
+    final MultiFieldPersistentDataset<Object> dataset = new MultiFieldPersistentDataset<>();
+    final byte[] deferredBinary = StringUtils.stringToBinary("deferred");
+    dataset.addValue("deferred", deferredBinary, reader);
+    dataset.addValue("eager", StringUtils.stringToBinary("e"), reader);
+    assertEquals(1, reads.get());
+    assertArrayEquals(deferredBinary, dataset.getUnreadValue("deferred"));
+    assertNull(dataset.getUnreadValue("eager"));
+
+    assertEquals("deferred", dataset.getValue("deferred"));
+    assertEquals(2, reads.get());
+    assertNull(dataset.getUnreadValue("deferred"));
+    assertEquals("deferred", dataset.getValue("deferred"));
+    assertEquals(2, reads.get());
+
+    dataset.addValue("other", StringUtils.stringToBinary("other"), reader);
+    assertEquals(3, dataset.getValues().size());
+    assertEquals("other", dataset.getValues().get("other"));
+    assertEquals(3, reads.get());
+  }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.memory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.core.store.memory.MemoryDataStoreOperations.MemoryStoreEntry;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.Ints;
+
+public class MemoryIndexTableTest {
+
+  private static GeoWaveRow row(final int key, final int value) {
+    return new GeoWaveRowImpl(
+        new GeoWaveKeyImpl(Ints.toByteArray(key), (short) 1, new byte[0], Ints.toByteArray(key), 0),
+        new GeoWaveValue[] {
+            new GeoWaveValueImpl(new byte[0], new byte[0], Ints.toByteArray(value))});
+  }
+
+  private static int value(final GeoWaveRow row) {
+    return Ints.fromByteArray(row.getFieldValues()[0].getValue());
+  }
+
+  @Test
+  public void testSnapshotIsolation() {
+    final MemoryIndexTable table = new MemoryIndexTable();
+    for (int i = 0; i < 100; i++) {
+      table.put(row(i, i));
+    }
+    try (MemoryIndexTable.Snapshot snapshot = table.snapshot()) {
+      final Iterator<GeoWaveRow> it = snapshot.rows();
+      // partially consume the snapshot, then change rows on both sides of the position
+      for (int i = 0; i < 50; i++) {
+        assertEquals(i, value(it.next()));
+      }
+      for (int i = 0; i < 100; i++) {
+        table.put(row(i, -i));
+      }
+      for (int i = 0; i < 100; i += 2) {
+        assertTrue(table.delete(row(i, 0)));
+      }
+      table.put(row(1000, 1000));
+      for (int i = 50; i < 100; i++) {
+        assertEquals(i, value(it.next()));
+      }
+      assertFalse(it.hasNext());
+
+      // a range of the same snapshot still sees the old rows
+      final List<GeoWaveRow> range = new ArrayList<>();
+      snapshot.rows(
+          new MemoryStoreEntry(new byte[0], Ints.toByteArray(10)),
+          new MemoryStoreEntry(new byte[0], Ints.toByteArray(20))).forEachRemaining(range::add);
+      assertEquals(10, range.size());
+      assertArrayEquals(Ints.toByteArray(10), range.get(0).getSortKey());
+    }
+    try (MemoryIndexTable.Snapshot snapshot = table.snapshot()) {
+      final List<GeoWaveRow> rows = new ArrayList<>();
+      snapshot.rows().forEachRemaining(rows::add);
+      assertEquals(51, rows.size());
+      assertEquals(-1, value(rows.get(0)));
+      assertEquals(1000, value(rows.get(50)));
+    }
+    assertFalse(table.delete(row(0, 0)));
+  }
+
+  @Test
+  public void testConcurrentWriters() throws Exception {
+    final MemoryIndexTable table = new MemoryIndexTable();
+    final int threads = 8;
+    final int rowsPerThread = 2000;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < rowsPerThread; i++) {
+            final int key = (i * threads) + thread;
+            table.put(row(key, 0));
+            table.put(row(key, key));
+          }
+        }));
+      }
+      // readers running alongside the writers always see rows in order
+      futures.add(executor.submit(() -> {
+        for (int r = 0; r < 20; r++) {
+          try (MemoryIndexTable.Snapshot snapshot = table.snapshot()) {
+            int previous = -1;
+            final Iterator<GeoWaveRow> it = snapshot.rows();
+            while (it.hasNext()) {
+              final int key = Ints.fromByteArray(it.next().getSortKey());
+              assertTrue(key > previous);
+              previous = key;
+            }
+          }
+        }
+      }));
+      for (final Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    try (MemoryIndexTable.Snapshot snapshot = table.snapshot()) {
+      final List<GeoWaveRow> rows = new ArrayList<>();
+      snapshot.rows().forEachRemaining(rows::add);
+      assertEquals(threads * rowsPerThread, rows.size());
+      for (int i = 0; i < rows.size(); i++) {
+        assertEquals(i, value(rows.get(i)));
+      }
+    }
+    // deletes with no open snapshots
+    for (int i = 0; i < (threads * rowsPerThread); i++) {
+      table.delete(row(i, 0));
+    }
+    try (MemoryIndexTable.Snapshot snapshot = table.snapshot()) {
+      assertEquals(0, Iterators.size(snapshot.rows()));
+    }
+  }
+
+  @Test
+  public void testRepeatableSnapshots() throws Exception {
+    final MemoryIndexTable table = new MemoryIndexTable();
+    final int threads = 8;
+    final int keys = 200;
+    final AtomicBoolean done = new AtomicBoolean(false);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; !done.get(); i++) {
+            final int key = ((i * threads) + thread) % keys;
+            if ((i % 3) == 0) {
+              table.delete(row(key, 0));
+            } else {
+              table.put(row(key, i));
+            }
+          }
+        }));
+      }
+      // a snapshot reads the same rows every time, even while writes are still being applied
+      for (int r = 0; r < 200; r++) {
+        try (MemoryIndexTable.Snapshot snapshot = table.snapshot()) {
+          final List<Integer> first = new ArrayList<>();
+          snapshot.rows().forEachRemaining(row -> first.add(value(row)));
+          final List<Integer> second = new ArrayList<>();
+          snapshot.rows().forEachRemaining(row -> second.add(value(row)));
+          assertEquals(first, second);
+        }
+      }
+      done.set(true);
+      for (final Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      done.set(true);
+      executor.shutdownNow();
+    }
+    assertEquals(0, table.getOpenSnapshotCount());
+  }
+
+  @Test
+  public void testWritesWhileSnapshotIsRegistered() {
+    final AtomicBoolean interleave = new AtomicBoolean(false);
+    final MemoryIndexTable table = new MemoryIndexTable() {
+      @Override
+      long getCommittedVersion() {
+        final long committed = super.getCommittedVersion();
+        if (interleave.compareAndSet(true, false)) {
+          // two writes to the row between the snapshot reading the committed version and
+          // registering it, the second of which prunes the version the first read would see
+          put(row(0, 1));
+          put(row(0, 2));
+        }
+        return committed;
+      }
+    };
+    table.put(row(0, 0));
+    interleave.set(true);
+    try (MemoryIndexTable.Snapshot snapshot = table.snapshot()) {
+      assertFalse(interleave.get());
+      final List<GeoWaveRow> rows = new ArrayList<>();
+      snapshot.rows().forEachRemaining(rows::add);
+      assertEquals(1, rows.size());
+      assertEquals(2, value(rows.get(0)));
+      table.put(row(0, 3));
+      assertEquals(2, value(snapshot.rows().next()));
+    }
+    assertEquals(0, table.getOpenSnapshotCount());
+  }
+
+  @Test
+  public void testAbandonedSnapshot() throws Exception {
+    final MemoryIndexTable table = new MemoryIndexTable();
+    table.put(row(0, 0));
+    // a snapshot that is never closed
+    Iterator<GeoWaveRow> it = table.snapshot().rows();
+    assertEquals(0, value(it.next()));
+    assertEquals(1, table.getOpenSnapshotCount());
+    it = null;
+    for (int i = 1; (i < 100) && (table.getOpenSnapshotCount() > 0); i++) {
+      System.gc();
+      Thread.sleep(10);
+      table.put(row(0, i));
+    }
+    assertEquals(0, table.getOpenSnapshotCount());
+  }
+}
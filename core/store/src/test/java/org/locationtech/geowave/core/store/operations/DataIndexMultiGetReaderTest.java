@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.operations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.core.store.memory.MemoryDataStoreOperations;
+import com.google.common.primitives.Ints;
+
+public class DataIndexMultiGetReaderTest {
+  private static final short ADAPTER_ID = 1;
+
+  @Test
+  public void testRowsAreReturnedInRequestedOrder() throws Exception {
+    final MemoryDataStoreOperations operations = new MemoryDataStoreOperations();
+    try (RowWriter writer = operations.createDataIndexWriter(null)) {
+      // only even data IDs exist
+      for (int i = 0; i < 100; i += 2) {
+        writer.write(
+            new GeoWaveRow[] {
+                new GeoWaveRowImpl(
+                    new GeoWaveKeyImpl(Ints.toByteArray(i), ADAPTER_ID, new byte[0], null, 0),
+                    new GeoWaveValue[] {
+                        new GeoWaveValueImpl(new byte[0], new byte[0], Ints.toByteArray(i))})});
+      }
+    }
+    final byte[][] dataIds =
+        new byte[][] {
+            Ints.toByteArray(42),
+            Ints.toByteArray(3),
+            Ints.toByteArray(0),
+            Ints.toByteArray(98),
+            Ints.toByteArray(42),
+            Ints.toByteArray(1000),
+            Ints.toByteArray(10),
+            Ints.toByteArray(8)};
+    final DataIndexReaderParams params =
+        new DataIndexReaderParamsBuilder<>(null, null, null).adapterId(ADAPTER_ID).dataIds(
+            dataIds).build();
+    // a batch size that splits the data IDs unevenly
+    final List<GeoWaveRow> rows = new ArrayList<>();
+    try (RowReader<GeoWaveRow> reader = new DataIndexMultiGetReader(operations, params, 3)) {
+      reader.forEachRemaining(rows::add);
+    }
+    final int[] expected = new int[] {42, 0, 98, 42, 10, 8};
+    assertEquals(expected.length, rows.size());
+    for (int i = 0; i < expected.length; i++) {
+      assertArrayEquals(Ints.toByteArray(expected[i]), rows.get(i).getDataId());
+      assertEquals(expected[i], Ints.fromByteArray(rows.get(i).getFieldValues()[0].getValue()));
+    }
+    // the default data index reader returns the same rows
+    final List<GeoWaveRow> defaultRows = new ArrayList<>();
+    try (RowReader<GeoWaveRow> reader = operations.createReader(params)) {
+      reader.forEachRemaining(defaultRows::add);
+    }
+    assertEquals(rows.size(), defaultRows.size());
+  }
+}
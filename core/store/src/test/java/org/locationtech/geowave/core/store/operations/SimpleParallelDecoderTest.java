@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class SimpleParallelDecoderTest {
+  private static final int ROW_COUNT = 25000;
+
+  @Test
+  public void testDecodeAllRows() throws Exception {
+    final Iterator<GeoWaveRow> rows =
+        Iterators.transform(
+            Arrays.asList(range(ROW_COUNT)).iterator(),
+            SimpleParallelDecoderTest::createRow);
+    final Set<Integer> decoded = Sets.newHashSet();
+    try (SimpleParallelDecoder<Integer> decoder =
+        new SimpleParallelDecoder<>(new RowIdTransformer(), rows)) {
+      decoder.startDecode();
+      while (decoder.hasNext()) {
+        assertTrue(decoded.add(decoder.next()));
+      }
+      assertEquals(ROW_COUNT, decoder.getDecodedEntries());
+      assertEquals(0, decoder.getBufferedEntries());
+    }
+    assertEquals(ROW_COUNT, decoded.size());
+  }
+
+  @Test
+  public void testDecodeException() throws Exception {
+    final List<GeoWaveRow> rows = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      rows.add(createRow(i));
+    }
+    try (SimpleParallelDecoder<Integer> decoder =
+        new SimpleParallelDecoder<>(new GeoWaveRowIteratorTransformer<Integer>() {
+          @Override
+          public Iterator<Integer> apply(final Iterator<GeoWaveRow> input) {
+            return Iterators.transform(input, row -> {
+              throw new IllegalStateException("decode failure");
+            });
+          }
+        }, rows.iterator())) {
+      decoder.startDecode();
+      while (decoder.hasNext()) {
+        decoder.next();
+      }
+      fail("The decode exception should have been thrown");
+    } catch (final RuntimeException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void testCloseBeforeConsumed() throws Exception {
+    final Iterator<GeoWaveRow> rows =
+        Iterators.transform(
+            Arrays.asList(range(ROW_COUNT)).iterator(),
+            SimpleParallelDecoderTest::createRow);
+    final SimpleParallelDecoder<Integer> decoder =
+        new SimpleParallelDecoder<>(new RowIdTransformer(), rows);
+    decoder.startDecode();
+    assertTrue(decoder.hasNext());
+    decoder.next();
+    // decode tasks are parked on the full buffer, closing should release them
+    decoder.close();
+    assertEquals(0, decoder.getBufferedEntries());
+  }
+
+  @Test(timeout = 60000)
+  public void testSharedExecutorIsNotBlocked() throws Exception {
+    // a single decode thread is shared by both decoders, so the outer decoder must not hold on to
+    // it while its buffer is full
+    final DecodeExecutor executor = new DecodeExecutor(1);
+    try (ListDecoder outer = new ListDecoder(ROW_COUNT, executor)) {
+      outer.startDecode();
+      assertTrue(outer.hasNext());
+      outer.next();
+      int innerCount = 0;
+      try (ListDecoder inner = new ListDecoder(500, executor)) {
+        inner.startDecode();
+        while (inner.hasNext()) {
+          inner.next();
+          innerCount++;
+        }
+      }
+      assertEquals(500, innerCount);
+      int outerCount = 1;
+      while (outer.hasNext()) {
+        outer.next();
+        outerCount++;
+      }
+      assertEquals(ROW_COUNT, outerCount);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testWaitingForRowsDoesNotBlockExecutor() throws Exception {
+    // the source stalls after its first batch, which must not hold on to the single decode thread
+    final DecodeExecutor executor = new DecodeExecutor(1);
+    final CountDownLatch stalled = new CountDownLatch(1);
+    final Iterator<GeoWaveRow> rows =
+        Iterators.transform(Arrays.asList(range(200)).iterator(), value -> {
+          if (value == 100) {
+            try {
+              stalled.await();
+            } catch (final InterruptedException e) {
+              throw new IllegalStateException(e);
+            }
+          }
+          return createRow(value);
+        });
+    try (SimpleParallelDecoder<Integer> slow =
+        new SimpleParallelDecoder<>(new RowIdTransformer(), rows, executor)) {
+      slow.startDecode();
+      int slowCount = 0;
+      for (; slowCount < 100; slowCount++) {
+        assertTrue(slow.hasNext());
+        slow.next();
+      }
+      int otherCount = 0;
+      try (ListDecoder other = new ListDecoder(500, executor)) {
+        other.startDecode();
+        while (other.hasNext()) {
+          other.next();
+          otherCount++;
+        }
+      }
+      assertEquals(500, otherCount);
+      stalled.countDown();
+      while (slow.hasNext()) {
+        slow.next();
+        slowCount++;
+      }
+      assertEquals(200, slowCount);
+    }
+  }
+
+  private static Integer[] range(final int count) {
+    final Integer[] values = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = i;
+    }
+    return values;
+  }
+
+  private static GeoWaveRow createRow(final int value) {
+    return new GeoWaveRowImpl(
+        new GeoWaveKeyImpl(
+            Integer.toString(value).getBytes(),
+            (short) 0,
+            new byte[0],
+            new byte[0],
+            0),
+        new GeoWaveValue[] {new GeoWaveValueImpl(new byte[0], new byte[0], new byte[0])});
+  }
+
+  private static class ListDecoder extends ParallelDecoder<Integer> {
+    private final int rowCount;
+
+    public ListDecoder(final int rowCount, final DecodeExecutor executor) {
+      super(new RowIdTransformer(), 1, executor);
+      this.rowCount = rowCount;
+    }
+
+    @Override
+    protected List<RowProvider> getRowProviders() throws Exception {
+      final Iterator<GeoWaveRow> rows =
+          Iterators.transform(
+              Arrays.asList(range(rowCount)).iterator(),
+              SimpleParallelDecoderTest::createRow);
+      return Collections.<RowProvider>singletonList(new RowProvider() {
+        @Override
+        public void init() {}
+
+        @Override
+        public void close() {}
+
+        @Override
+        public boolean hasNext() {
+          return rows.hasNext();
+        }
+
+        @Override
+        public GeoWaveRow next() {
+          return rows.next();
+        }
+      });
+    }
+  }
+
+  private static class RowIdTransformer implements GeoWaveRowIteratorTransformer<Integer> {
+    @Override
+    public Iterator<Integer> apply(final Iterator<GeoWaveRow> input) {
+      return Iterators.transform(input, row -> Integer.parseInt(new String(row.getDataId())));
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.query.filter.expression.Expression;
+import org.locationtech.geowave.core.store.query.filter.expression.GenericFieldValue;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class TopKAggregationTest extends AbstractAggregationTest {
+
+  private final DataTypeAdapter<TestType> adapter =
+      BasicDataTypeAdapter.newAdapter("test", TestType.class, "id");
+
+  private final List<TestType> entries =
+      Lists.newArrayList(
+          new TestType("a", 5L, "x"),
+          new TestType("b", 3L, "y"),
+          new TestType("c", 9L, "x"),
+          new TestType("d", null, "y"),
+          new TestType("e", 1L, "x"),
+          new TestType("f", 7L, "y"),
+          new TestType("g", 3L, "x"));
+
+  private List<String> aggregateIds(
+      final String[] fields,
+      final Expression<?>[] sortExpressions,
+      final boolean[] ascending,
+      final int k) {
+    final List<TestType> result =
+        aggregateObjects(
+            adapter,
+            new TopKAggregation<>(adapter, fields, sortExpressions, ascending, k),
+            entries);
+    return result.stream().map(e -> e.id).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testAscending() {
+    final List<String> ids =
+        aggregateIds(
+            new String[] {"id", "value"},
+            new Expression<?>[] {NumericFieldValue.of("value")},
+            new boolean[] {true},
+            3);
+    assertEquals(3, ids.size());
+    assertEquals("e", ids.get(0));
+    // b and g have the same value, so they can be in either order
+    assertEquals(Sets.newHashSet("b", "g"), Sets.newHashSet(ids.subList(1, 3)));
+  }
+
+  @Test
+  public void testDescending() {
+    assertEquals(
+        Lists.newArrayList("c", "f", "a"),
+        aggregateIds(
+            new String[] {"id", "value"},
+            new Expression<?>[] {NumericFieldValue.of("value")},
+            new boolean[] {false},
+            3));
+  }
+
+  @Test
+  public void testMultipleSortKeys() {
+    assertEquals(
+        Lists.newArrayList("e", "g", "a", "c", "b", "f", "d"),
+        aggregateIds(
+            new String[] {"id", "value", "category"},
+            new Expression<?>[] {GenericFieldValue.of("category"), NumericFieldValue.of("value")},
+            new boolean[] {true, true},
+            -1));
+  }
+
+  @Test
+  public void testNullsLast() {
+    final List<String> ids =
+        aggregateIds(
+            new String[] {"id", "value"},
+            new Expression<?>[] {NumericFieldValue.of("value")},
+            new boolean[] {true},
+            -1);
+    assertEquals(entries.size(), ids.size());
+    assertEquals("d", ids.get(ids.size() - 1));
+  }
+
+  @Test
+  public void testFieldSubset() {
+    final List<TestType> result =
+        aggregateObjects(
+            adapter,
+            new TopKAggregation<>(
+                adapter,
+                new String[] {"id", "value"},
+                new Expression<?>[] {NumericFieldValue.of("value")},
+                new boolean[] {false},
+                1),
+            entries);
+    assertEquals(1, result.size());
+    assertEquals("c", result.get(0).id);
+    assertEquals(9L, result.get(0).value.longValue());
+    // fields that aren't requested are not returned from the aggregation
+    assertNull(result.get(0).category);
+  }
+
+  @GeoWaveDataType
+  protected static class TestType {
+    @GeoWaveField
+    private String id;
+
+    @GeoWaveField
+    private Long value;
+
+    @GeoWaveField
+    private String category;
+
+    public TestType() {}
+
+    public TestType(final String id, final Long value, final String category) {
+      this.id = id;
+      this.value = value;
+      this.category = category;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.filter;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.AdapterToIndexMapping;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.base.BaseDataStoreUtils;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+import org.locationtech.geowave.core.store.query.filter.expression.Filter;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+
+public class ExpressionQueryFilterTest {
+
+  @Test
+  public void testBinaryRoundTrip() {
+    final DataTypeAdapter<TestType> adapter =
+        BasicDataTypeAdapter.newAdapter("testType", TestType.class, "id");
+    final Index index =
+        AttributeDimensionalityTypeProvider.createIndexForDescriptor(
+            adapter,
+            adapter.getFieldDescriptor("a"),
+            "aIdx");
+    final InternalDataAdapter<TestType> internalAdapter = adapter.asInternalAdapter((short) 0);
+    final AdapterToIndexMapping indexMapping =
+        BaseDataStoreUtils.mapAdapterToIndex(internalAdapter, index);
+    final TestType pass = new TestType("pass", 1L, 2L, 3L);
+    final TestType fail = new TestType("fail", 1L, 2L, -3L);
+
+    final ExpressionQueryFilter<TestType> queryFilter =
+        new ExpressionQueryFilter<>(
+            NumericFieldValue.of("b").isLessThan(5),
+            internalAdapter,
+            indexMapping);
+    assertTrue(accept(queryFilter, internalAdapter, indexMapping, index, pass));
+    assertTrue(accept(queryFilter, internalAdapter, indexMapping, index, fail));
+
+    // a filter that references more fields replaces the one this thread has already evaluated
+    final Filter filter =
+        NumericFieldValue.of("a").isLessThan(5).and(
+            NumericFieldValue.of("b").isLessThan(5),
+            NumericFieldValue.of("c").isGreaterThan(0));
+    final byte[] binary =
+        new ExpressionQueryFilter<>(filter, internalAdapter, indexMapping).toBinary();
+    queryFilter.fromBinary(binary);
+    assertTrue(accept(queryFilter, internalAdapter, indexMapping, index, pass));
+    assertFalse(accept(queryFilter, internalAdapter, indexMapping, index, fail));
+
+    final ExpressionQueryFilter<TestType> deserialized = new ExpressionQueryFilter<>();
+    deserialized.fromBinary(binary);
+    assertTrue(accept(deserialized, internalAdapter, indexMapping, index, pass));
+    assertFalse(accept(deserialized, internalAdapter, indexMapping, index, fail));
+  }
+
+  private static boolean accept(
+      final ExpressionQueryFilter<TestType> queryFilter,
+      final InternalDataAdapter<TestType> adapter,
+      final AdapterToIndexMapping indexMapping,
+      final Index index,
+      final TestType entry) {
+    return queryFilter.accept(index.getIndexModel(), adapter.encode(entry, indexMapping, index));
+  }
+
+  @GeoWaveDataType
+  protected static class TestType {
+    @GeoWaveField
+    private String id;
+
+    @GeoWaveField
+    private Long a;
+
+    @GeoWaveField
+    private Long b;
+
+    @GeoWaveField
+    private Long c;
+
+    public TestType() {}
+
+    public TestType(final String id, final Long a, final Long b, final Long c) {
+      this.id = id;
+      this.a = a;
+      this.b = b;
+      this.c = c;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.StringUtils;
+import com.google.common.collect.Lists;
+
+public class FingerprintDedupeSetTest {
+  private static final int ENTRIES = 20000;
+
+  @Test
+  public void testDedupe() {
+    try (FingerprintDedupeSet set = new FingerprintDedupeSet()) {
+      for (int i = 0; i < ENTRIES; i++) {
+        assertTrue(set.add((short) 0, dataId(i)));
+      }
+      for (int i = 0; i < ENTRIES; i++) {
+        assertFalse(set.add((short) 0, dataId(i)));
+        // the same data ID of another adapter is distinct
+        assertTrue(set.add((short) 1, dataId(i)));
+      }
+      assertEquals(ENTRIES * 2, set.size());
+      assertEquals(0, set.getSpilledBytes());
+    }
+  }
+
+  @Test
+  public void testFingerprintCollisions() {
+    // every entry has the same fingerprint so only the exact comparison can tell them apart
+    try (FingerprintDedupeSet set = new FingerprintDedupeSet() {
+      @Override
+      protected long fingerprint(final short adapterId, final byte[] dataId) {
+        return 42;
+      }
+    }) {
+      for (int i = 0; i < 100; i++) {
+        assertTrue(set.add((short) 0, dataId(i)));
+      }
+      for (int i = 0; i < 100; i++) {
+        assertFalse(set.add((short) 0, dataId(i)));
+      }
+      assertTrue(set.add((short) 0, new byte[0]));
+      assertFalse(set.add((short) 0, new byte[0]));
+      assertEquals(101, set.size());
+    }
+  }
+
+  @Test
+  public void testSpill() {
+    try (FingerprintDedupeSet set = new FingerprintDedupeSet(64 * 1024)) {
+      for (int i = 0; i < ENTRIES; i++) {
+        assertTrue(set.add((short) 0, dataId(i)));
+      }
+      assertTrue(set.getSpilledBytes() > 0);
+      for (int i = 0; i < ENTRIES; i++) {
+        assertFalse(set.add((short) 0, dataId(i)));
+      }
+      assertTrue(set.add((short) 0, dataId(ENTRIES)));
+      assertEquals(ENTRIES + 1, set.size());
+    }
+  }
+
+  @Test
+  public void testTablesCountAgainstBudget() {
+    final long budget = 192 * 1024;
+    // about 300 entries per stripe, so the fingerprint tables fit in the budget but the arenas
+    // don't
+    final int entries = 4800;
+    try (FingerprintDedupeSet set = new FingerprintDedupeSet(budget)) {
+      for (int i = 0; i < entries; i++) {
+        assertTrue(set.add((short) 0, dataId(i)));
+        // the arenas shrink as the fingerprint tables grow, so the set stays within its budget
+        assertTrue(set.getMemoryUsage() <= budget);
+      }
+      assertTrue(set.getSpilledBytes() > 0);
+      for (int i = 0; i < entries; i++) {
+        assertFalse(set.add((short) 0, dataId(i)));
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentAdds() throws Exception {
+    final int threads = 8;
+    final AtomicInteger added = new AtomicInteger(0);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (FingerprintDedupeSet set = new FingerprintDedupeSet(64 * 1024)) {
+      final List<Future<?>> futures = Lists.newArrayList();
+      for (int t = 0; t < threads; t++) {
+        // every thread adds the same data IDs, so each should only be added once overall
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < ENTRIES; i++) {
+            if (set.add((short) 0, dataId(i))) {
+              added.incrementAndGet();
+            }
+          }
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+      assertEquals(ENTRIES, added.get());
+      assertEquals(ENTRIES, set.size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static byte[] dataId(final int i) {
+    return StringUtils.stringToBinary("data-id-" + i);
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.filter.expression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericLiteral;
+import org.locationtech.geowave.core.store.query.filter.expression.text.TextFieldValue;
+
+public class CompiledFilterTest {
+
+  @Test
+  public void testMatchesUncompiledEvaluation() {
+    final NumericFieldValue a = NumericFieldValue.of("a");
+    final NumericFieldValue b = NumericFieldValue.of("b");
+    final TextFieldValue name = TextFieldValue.of("name");
+    final List<Filter> filters =
+        Arrays.asList(
+            a.isLessThan(5),
+            a.isLessThanOrEqualTo(b),
+            a.isGreaterThan(b.add(1)),
+            a.isGreaterThanOrEqualTo(2),
+            a.isEqualTo(b),
+            a.isNotEqualTo(b),
+            a.isEqualTo(NumericLiteral.of(null)),
+            a.isNotEqualTo(NumericLiteral.of(null)),
+            a.multiplyBy(2).subtract(b).abs().isLessThan(3),
+            a.divideBy(b).isGreaterThan(0.5),
+            a.isBetween(1, b),
+            a.isNull(),
+            b.isNotNull(),
+            a.isLessThan(5).and(name.startsWith("x")),
+            a.isLessThan(5).or(name.isNull()),
+            Filter.not(a.isBetween(0, 4).or(b.isEqualTo(3))),
+            Filter.include().and(Filter.exclude().or(a.isGreaterThan(0))));
+    final List<Map<String, Object>> rows =
+        Arrays.asList(
+            fields(1, 2, "xyz"),
+            fields(4, 4, "abc"),
+            fields(7.5, 2, null),
+            fields(-3, 0.5f, "x"),
+            fields(null, 3, "xa"),
+            fields(3L, null, null),
+            fields(null, null, null));
+    for (final Filter filter : filters) {
+      final CompiledFilter compiled = CompiledFilter.compile(filter);
+      // the same row is reused for every entry
+      final CompiledFilter.Row row = compiled.newRow();
+      for (final Map<String, Object> values : rows) {
+        row.clear();
+        values.forEach(row::setValue);
+        assertEquals(
+            filter.toString() + " " + values,
+            filter.evaluate(values),
+            compiled.evaluate(row));
+      }
+    }
+  }
+
+  @Test
+  public void testFieldPositions() {
+    final CompiledFilter compiled =
+        CompiledFilter.compile(
+            NumericFieldValue.of("a").isLessThan(NumericFieldValue.of("b")).and(
+                NumericFieldValue.of("a").isGreaterThan(0)));
+    assertArrayEquals(new String[] {"a", "b"}, compiled.getFields());
+    assertEquals(1, compiled.getFieldIndex("b"));
+    assertEquals(-1, compiled.getFieldIndex("c"));
+    final CompiledFilter.Row row = compiled.newRow();
+    row.setValue("c", 1);
+    row.setValue(0, 1);
+    row.setValue(1, 2);
+    assertEquals(true, compiled.evaluate(row));
+    row.clear();
+    assertEquals(false, compiled.evaluate(row));
+  }
+
+  private static Map<String, Object> fields(final Number a, final Number b, final String name) {
+    final Map<String, Object> values = new HashMap<>();
+    values.put("a", a);
+    values.put("b", b);
+    values.put("name", name);
+    return values;
+  }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.gwql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.util.Map;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.BaseDataStoreOptions;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.StoreFactoryFamilySpi;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Query;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.core.store.query.gwql.parse.GWQLParser;
+import org.locationtech.geowave.core.store.query.gwql.statement.ExplainStatement;
+import org.locationtech.geowave.core.store.query.gwql.statement.Statement;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimate;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan.Selection;
+import com.google.common.collect.Maps;
+
+public class ExplainStatementTest extends AbstractGWQLTest {
+  private static final int ENTRIES = 1000;
+
+  @Test
+  public void testInvalidStatements() {
+    final DataStore dataStore = createDataStore();
+    // Only select statements can be explained
+    assertInvalidStatement(dataStore, "EXPLAIN DELETE FROM type", "expecting SELECT");
+    // Missing statement
+    assertInvalidStatement(dataStore, "EXPLAIN", "expecting SELECT");
+  }
+
+  @Test
+  public void testValidStatements() {
+    final DataStore dataStore = createDataStore();
+    Statement statement = GWQLParser.parseStatement(dataStore, "EXPLAIN SELECT * FROM type");
+    assertTrue(statement instanceof ExplainStatement);
+    assertEquals("type", ((ExplainStatement) statement).getStatement().getAdapter().getTypeName());
+    statement =
+        GWQLParser.parseStatement(dataStore, "explain SELECT COUNT(*) FROM type WHERE pop < 1");
+    assertTrue(statement instanceof ExplainStatement);
+    assertTrue(((ExplainStatement) statement).getStatement().isAggregation());
+    assertNotNull(((ExplainStatement) statement).getStatement().getFilter());
+  }
+
+  @Test
+  public void testCostBasedIndexSelection() {
+    final DataStore dataStore = createCostDataStore(true);
+
+    // both indices fully constrain the filter, so only the estimates can tell them apart
+    QueryPlan plan =
+        dataStore.explain(
+            QueryBuilder.newBuilder().addTypeName("costType").filter(
+                NumericFieldValue.of("narrow").isLessThan(10).and(
+                    NumericFieldValue.of("wide").isLessThan(5))).build());
+    assertEquals("narrowIdx", plan.getSelectedIndex("costType"));
+    assertEquals(Selection.COST, plan.getSelection("costType"));
+    Map<String, IndexCostEstimate> estimates = estimatesByIndex(plan);
+    assertEquals(2, estimates.size());
+    assertTrue(estimates.get("narrowIdx").isEstimated());
+    assertTrue(estimates.get("wideIdx").isEstimated());
+    assertTrue(
+        estimates.get("narrowIdx").getEstimatedRows() < estimates.get(
+            "wideIdx").getEstimatedRows());
+
+    // swapping the selectivity of the constraints swaps the selected index
+    plan =
+        dataStore.explain(
+            QueryBuilder.newBuilder().addTypeName("costType").filter(
+                NumericFieldValue.of("narrow").isLessThan(900).and(
+                    NumericFieldValue.of("wide").isLessThan(1))).build());
+    assertEquals("wideIdx", plan.getSelectedIndex("costType"));
+    assertEquals(Selection.COST, plan.getSelection("costType"));
+    estimates = estimatesByIndex(plan);
+    assertTrue(
+        estimates.get("wideIdx").getEstimatedRows() < estimates.get(
+            "narrowIdx").getEstimatedRows());
+
+    // the query uses the selected index and still returns the right results
+    int count = 0;
+    try (CloseableIterator<CostType> results =
+        dataStore.query(
+            QueryBuilder.newBuilder(CostType.class).addTypeName("costType").filter(
+                NumericFieldValue.of("narrow").isLessThan(900).and(
+                    NumericFieldValue.of("wide").isLessThan(1))).build())) {
+      while (results.hasNext()) {
+        final CostType result = results.next();
+        assertTrue(result.narrow < 900);
+        assertTrue(result.wide < 1);
+        count++;
+      }
+    }
+    assertEquals(9, count);
+  }
+
+  @Test
+  public void testCostBasedIndexSelectionDisabled() {
+    final Query<?> query = QueryBuilder.newBuilder().addTypeName("costType").build();
+    QueryPlan plan = createCostDataStore(false).explain(query);
+    assertEquals(Selection.HEURISTIC, plan.getSelection("costType"));
+    assertTrue(plan.getEstimates("costType").isEmpty());
+
+    plan = createCostDataStore(true).explain(query);
+    assertEquals(Selection.COST, plan.getSelection("costType"));
+    assertEquals(2, plan.getEstimates("costType").size());
+  }
+
+  @Test
+  public void testExplainResultSet() {
+    final DataStore dataStore = createCostDataStore(true);
+    final ResultSet results =
+        dataStore.query("EXPLAIN SELECT * FROM costType WHERE narrow < 10 AND wide < 5");
+    assertEquals(9, results.columnCount());
+    final int indexColumn = results.columnIndex("INDEX");
+    final int selectedColumn = results.columnIndex("SELECTED");
+    final int selectionColumn = results.columnIndex("SELECTION");
+    final int rowsColumn = results.columnIndex("ESTIMATED_ROWS");
+    final int costColumn = results.columnIndex("COST");
+    int rows = 0;
+    while (results.hasNext()) {
+      final Result result = results.next();
+      assertEquals("costType", result.columnValue(results.columnIndex("TYPE")));
+      assertFalse((Boolean) result.columnValue(results.columnIndex("FULL_SCAN")));
+      assertNotNull(result.columnValue(rowsColumn));
+      assertNotNull(result.columnValue(costColumn));
+      if ("narrowIdx".equals(result.columnValue(indexColumn))) {
+        assertTrue((Boolean) result.columnValue(selectedColumn));
+        assertEquals(Selection.COST.name(), result.columnValue(selectionColumn));
+      } else {
+        assertEquals("wideIdx", result.columnValue(indexColumn));
+        assertFalse((Boolean) result.columnValue(selectedColumn));
+      }
+      rows++;
+    }
+    results.close();
+    assertEquals(2, rows);
+  }
+
+  private static Map<String, IndexCostEstimate> estimatesByIndex(final QueryPlan plan) {
+    final Map<String, IndexCostEstimate> estimates = Maps.newHashMap();
+    for (final IndexCostEstimate estimate : plan.getEstimates("costType")) {
+      estimates.put(estimate.getIndexName(), estimate);
+    }
+    return estimates;
+  }
+
+  private DataStore createCostDataStore(final boolean costBasedIndexSelection) {
+    final StoreFactoryFamilySpi storeFamily = new MemoryStoreFactoryFamily();
+    final MemoryRequiredOptions opts = new MemoryRequiredOptions();
+    opts.setGeoWaveNamespace("test_" + getClass().getName() + "_" + costBasedIndexSelection);
+    ((BaseDataStoreOptions) opts.getStoreOptions()).setCostBasedIndexSelection(
+        costBasedIndexSelection);
+    final DataStore dataStore = storeFamily.getDataStoreFactory().createStore(opts);
+    final DataTypeAdapter<CostType> adapter =
+        BasicDataTypeAdapter.newAdapter("costType", CostType.class, "id");
+    dataStore.addType(
+        adapter,
+        AttributeDimensionalityTypeProvider.createIndexForDescriptor(
+            adapter,
+            adapter.getFieldDescriptor("narrow"),
+            "narrowIdx"),
+        AttributeDimensionalityTypeProvider.createIndexForDescriptor(
+            adapter,
+            adapter.getFieldDescriptor("wide"),
+            "wideIdx"));
+    try (Writer<CostType> writer = dataStore.createWriter("costType")) {
+      for (int i = 0; i < ENTRIES; i++) {
+        // narrow has a distinct value per entry, wide has 10 entries per value
+        writer.write(new CostType("id" + i, (long) i, (long) (i % 100)));
+      }
+    }
+    return dataStore;
+  }
+
+  @GeoWaveDataType
+  protected static class CostType {
+    @GeoWaveField
+    private String id;
+
+    @GeoWaveField
+    private Long narrow;
+
+    @GeoWaveField
+    private Long wide;
+
+    public CostType() {}
+
+    public CostType(final String id, final Long narrow, final Long wide) {
+      this.id = id;
+      this.narrow = narrow;
+      this.wide = wide;
+    }
+  }
+}
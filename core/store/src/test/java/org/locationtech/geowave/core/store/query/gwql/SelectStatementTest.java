@@ -13,13 +13,16 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.List;
 import org.junit.Test;
 import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
 import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
 import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
 import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.Writer;
 import org.locationtech.geowave.core.store.query.filter.expression.And;
 import org.locationtech.geowave.core.store.query.filter.expression.Filter;
 import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericBetween;
@@ -27,6 +30,7 @@ import org.locationtech.geowave.core.store.query.filter.expression.text.TextComp
 import org.locationtech.geowave.core.store.query.gwql.parse.GWQLParser;
 import org.locationtech.geowave.core.store.query.gwql.statement.SelectStatement;
 import org.locationtech.geowave.core.store.query.gwql.statement.Statement;
+import com.google.common.collect.Lists;
 
 public class SelectStatementTest extends AbstractGWQLTest {
   @Test
@@ -56,6 +60,15 @@ public class SelectStatementTest extends AbstractGWQLTest {
     assertInvalidStatement(dataStore, "SELECT * FROM type LIMIT 1.5", "expecting INTEGER");
     // Missing column alias
     assertInvalidStatement(dataStore, "SELECT pop AS FROM type", "expecting IDENTIFIER");
+    // Missing group by columns
+    assertInvalidStatement(dataStore, "SELECT COUNT(*) FROM type GROUP BY", "mismatched input");
+    // Missing order by keys
+    assertInvalidStatement(dataStore, "SELECT * FROM type ORDER BY LIMIT 1", "LIMIT");
+    // Order by before group by
+    assertInvalidStatement(
+        dataStore,
+        "SELECT COUNT(*) FROM type ORDER BY pid GROUP BY pid",
+        "mismatched input 'GROUP'");
   }
 
   @Test
@@ -89,6 +102,25 @@ public class SelectStatementTest extends AbstractGWQLTest {
     GWQLParser.parseStatement(dataStore, "SELECT SUM(a), COUNT(*) FROM type LIMIT 1");
     GWQLParser.parseStatement(dataStore, "SELECT SUM(a), COUNT(*) FROM type WHERE pop < 1");
     GWQLParser.parseStatement(dataStore, "SELECT SUM(a), COUNT(*) FROM type WHERE pop > 1 LIMIT 4");
+    GWQLParser.parseStatement(dataStore, "SELECT COUNT(*) FROM type GROUP BY pid");
+    GWQLParser.parseStatement(dataStore, "SELECT COUNT(*) FROM type GROUP BY pid AS p, comment");
+    GWQLParser.parseStatement(dataStore, "SELECT COUNT(*) FROM type GROUP BY fn(a, 5)");
+    GWQLParser.parseStatement(
+        dataStore,
+        "SELECT COUNT(*) AS c FROM type WHERE pop > 1 GROUP BY pid ORDER BY c DESC LIMIT 2");
+    GWQLParser.parseStatement(dataStore, "SELECT * FROM type ORDER BY pop");
+    GWQLParser.parseStatement(dataStore, "SELECT * FROM type ORDER BY pop DESC, pid ASC LIMIT 1");
+    GWQLParser.parseStatement(dataStore, "SELECT * FROM type ORDER BY pop * 2 LIMIT 1");
+    GWQLParser.parseStatement(dataStore, "SELECT * FROM type ORDER BY abs(pop) DESC");
+    GWQLParser.parseStatement(
+        dataStore,
+        "SELECT COUNT(*), SUM(pop) FROM type GROUP BY pid ORDER BY COUNT(*) DESC, sum(pop)");
+    // clause keywords can still be used as identifiers
+    GWQLParser.parseStatement(dataStore, "SELECT order, group AS by FROM type");
+    GWQLParser.parseStatement(dataStore, "SELECT asc FROM type ORDER BY desc DESC, asc");
+    GWQLParser.parseStatement(
+        dataStore,
+        "SELECT COUNT(*) AS order FROM type GROUP BY group AS by ORDER BY order, by ASC");
   }
 
 
@@ -273,6 +305,195 @@ public class SelectStatementTest extends AbstractGWQLTest {
     assertNull(selectStatement.getFilter());
   }
 
+  @Test
+  public void testGroupBy() {
+    final DataStore dataStore = createDataStore();
+    writeTestData(dataStore);
+    final Statement gwStatement =
+        GWQLParser.parseStatement(
+            dataStore,
+            "SELECT COUNT(*) AS total, SUM(pop) FROM type "
+                + "GROUP BY comment AS c ORDER BY total DESC");
+    assertTrue(gwStatement instanceof SelectStatement);
+    final SelectStatement<?> selectStatement = (SelectStatement<?>) gwStatement;
+    assertTrue(selectStatement.isAggregation());
+    assertTrue(selectStatement.isGrouped());
+    assertEquals(1, selectStatement.getGroupBy().size());
+    assertTrue(selectStatement.getGroupBy().get(0) instanceof ColumnSelector);
+    assertEquals("c", selectStatement.getGroupBy().get(0).name());
+    assertEquals(1, selectStatement.getOrderBy().size());
+    assertEquals("total", selectStatement.getOrderBy().get(0).columnName());
+    assertFalse(selectStatement.getOrderBy().get(0).isAscending());
+
+    final ResultSet results = selectStatement.execute();
+    assertEquals(3, results.columnCount());
+    assertEquals("c", results.columnName(0));
+    assertEquals(String.class, results.columnType(0));
+    assertEquals("total", results.columnName(1));
+    assertEquals("SUM(pop)", results.columnName(2));
+    Result result = results.next();
+    assertEquals("x", result.columnValue(0));
+    assertEquals(3L, result.columnValue(1));
+    assertEquals(15L, ((Number) result.columnValue(2)).longValue());
+    result = results.next();
+    assertEquals("y", result.columnValue(0));
+    assertEquals(2L, result.columnValue(1));
+    assertEquals(30L, ((Number) result.columnValue(2)).longValue());
+    result = results.next();
+    assertNull(result.columnValue(0));
+    assertEquals(1L, result.columnValue(1));
+    assertFalse(results.hasNext());
+  }
+
+  @Test
+  public void testGroupByLimit() {
+    final DataStore dataStore = createDataStore();
+    writeTestData(dataStore);
+    final ResultSet results =
+        ((SelectStatement<?>) GWQLParser.parseStatement(
+            dataStore,
+            "SELECT COUNT(*) FROM type GROUP BY comment, pop ORDER BY pop DESC LIMIT 2")).execute();
+    assertEquals(3, results.columnCount());
+    assertEquals(Long.class, results.columnType(1));
+    Result result = results.next();
+    assertEquals("y", result.columnValue(0));
+    assertEquals(20L, result.columnValue(1));
+    assertEquals(1L, result.columnValue(2));
+    result = results.next();
+    assertNull(result.columnValue(0));
+    assertEquals(12L, result.columnValue(1));
+    assertFalse(results.hasNext());
+  }
+
+  @Test
+  public void testInvalidGroupBy() {
+    final DataStore dataStore = createDataStore();
+    try {
+      ((SelectStatement<?>) GWQLParser.parseStatement(
+          dataStore,
+          "SELECT COUNT(*) FROM type GROUP BY nonexistent(pop, 5)")).execute();
+      fail();
+    } catch (final RuntimeException e) {
+      assertTrue(e.getMessage().contains("No binning function called 'nonexistent'"));
+    }
+    try {
+      ((SelectStatement<?>) GWQLParser.parseStatement(
+          dataStore,
+          "SELECT pid FROM type GROUP BY pid")).execute();
+      fail();
+    } catch (final RuntimeException e) {
+      assertTrue(e.getMessage().contains("GROUP BY can only be used with aggregation selectors"));
+    }
+    try {
+      ((SelectStatement<?>) GWQLParser.parseStatement(
+          dataStore,
+          "SELECT COUNT(*) FROM type ORDER BY pop")).execute();
+      fail();
+    } catch (final RuntimeException e) {
+      assertTrue(
+          e.getMessage().contains("ORDER BY can only be used on aggregations with GROUP BY"));
+    }
+    try {
+      ((SelectStatement<?>) GWQLParser.parseStatement(
+          dataStore,
+          "SELECT * FROM type ORDER BY COUNT(*)")).execute();
+      fail();
+    } catch (final RuntimeException e) {
+      assertTrue(
+          e.getMessage().contains("Only grouped aggregations can be ordered by an aggregation"));
+    }
+    try {
+      ((SelectStatement<?>) GWQLParser.parseStatement(
+          dataStore,
+          "SELECT COUNT(*) FROM type GROUP BY comment ORDER BY SUM(pop)")).execute();
+      fail();
+    } catch (final RuntimeException e) {
+      assertTrue(e.getMessage().contains("'SUM(pop)' is not a column"));
+    }
+  }
+
+  @Test
+  public void testGroupByOrderedByAggregation() {
+    final DataStore dataStore = createDataStore();
+    writeTestData(dataStore);
+    ResultSet results =
+        ((SelectStatement<?>) GWQLParser.parseStatement(
+            dataStore,
+            "SELECT COUNT(*), SUM(pop) AS total FROM type GROUP BY comment "
+                + "ORDER BY COUNT(*)")).execute();
+    assertEquals("COUNT(*)", results.columnName(1));
+    Result result = results.next();
+    assertNull(result.columnValue(0));
+    assertEquals(1L, result.columnValue(1));
+    result = results.next();
+    assertEquals("y", result.columnValue(0));
+    assertEquals(2L, result.columnValue(1));
+    result = results.next();
+    assertEquals("x", result.columnValue(0));
+    assertEquals(3L, result.columnValue(1));
+    assertFalse(results.hasNext());
+
+    // the aggregation is matched even though the select list gave it an alias
+    results =
+        ((SelectStatement<?>) GWQLParser.parseStatement(
+            dataStore,
+            "SELECT COUNT(*), SUM(pop) AS total FROM type GROUP BY comment "
+                + "ORDER BY SUM(pop) DESC LIMIT 2")).execute();
+    result = results.next();
+    assertEquals("y", result.columnValue(0));
+    assertEquals(30L, ((Number) result.columnValue(2)).longValue());
+    result = results.next();
+    assertEquals("x", result.columnValue(0));
+    assertEquals(15L, ((Number) result.columnValue(2)).longValue());
+    assertFalse(results.hasNext());
+  }
+
+  @Test
+  public void testOrderBy() {
+    final DataStore dataStore = createDataStore();
+    writeTestData(dataStore);
+    final Statement gwStatement =
+        GWQLParser.parseStatement(
+            dataStore,
+            "SELECT pid, pop AS population FROM type WHERE pop > 1 "
+                + "ORDER BY population DESC LIMIT 2");
+    final SelectStatement<?> selectStatement = (SelectStatement<?>) gwStatement;
+    assertFalse(selectStatement.isAggregation());
+    final ResultSet results = selectStatement.execute();
+    assertEquals(2, results.columnCount());
+    assertEquals("population", results.columnName(1));
+    assertEquals("e", results.next().columnValue(0));
+    assertEquals("f", results.next().columnValue(0));
+    assertFalse(results.hasNext());
+  }
+
+  @Test
+  public void testOrderByExpression() {
+    final DataStore dataStore = createDataStore();
+    writeTestData(dataStore);
+    final ResultSet results =
+        ((SelectStatement<?>) GWQLParser.parseStatement(
+            dataStore,
+            "SELECT * FROM type ORDER BY abs(pop - 10), pid DESC")).execute();
+    assertEquals(3, results.columnCount());
+    final List<Object> pids = Lists.newArrayList();
+    while (results.hasNext()) {
+      pids.add(results.next().columnValue(results.columnIndex("pid")));
+    }
+    assertEquals(Lists.newArrayList("d", "c", "f", "b", "a", "e"), pids);
+  }
+
+  private void writeTestData(final DataStore dataStore) {
+    try (Writer<DefaultGWQLTestType> writer = dataStore.createWriter("type")) {
+      writer.write(new DefaultGWQLTestType("a", 1L, "x"));
+      writer.write(new DefaultGWQLTestType("b", 4L, "x"));
+      writer.write(new DefaultGWQLTestType("c", 10L, "x"));
+      writer.write(new DefaultGWQLTestType("d", 10L, "y"));
+      writer.write(new DefaultGWQLTestType("e", 20L, "y"));
+      writer.write(new DefaultGWQLTestType("f", 12L, null));
+    }
+  }
+
   @GeoWaveDataType
   protected static class UnconventionalNameType {
     @GeoWaveField(name = "pid")
@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.plan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang3.Range;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
+import org.locationtech.geowave.core.index.numeric.BasicNumericDataset;
+import org.locationtech.geowave.core.index.numeric.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.numeric.NumericData;
+import org.locationtech.geowave.core.index.numeric.NumericRange;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import org.locationtech.geowave.core.store.BaseDataStoreOptions;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.StoreFactoryFamilySpi;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.dimension.BasicNumericDimensionField;
+import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+import org.locationtech.geowave.core.store.index.BasicIndexModel;
+import org.locationtech.geowave.core.store.index.CustomNameIndex;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
+import org.locationtech.geowave.core.store.query.filter.expression.Filter;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.core.store.statistics.DataStatisticsStore;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
+import com.google.common.collect.Lists;
+
+public class AdaptiveRangeDecomposerTest {
+  private static final int ENTRIES = 1000;
+  private static final int INTERVALS = 50;
+  private static final int CLUSTERED_ENTRIES = 10000;
+
+  @Test
+  public void testExactRangesAreKept() {
+    final MemoryRequiredOptions opts = createOptions("testExactRangesAreKept");
+    final Index index = createDataStore(opts);
+    final DataStatisticsStore statisticsStore =
+        new MemoryStoreFactoryFamily().getDataStatisticsStoreFactory().createStore(opts);
+    final List<MultiDimensionalNumericData> constraints = createConstraints();
+    final QueryRanges fixed =
+        DataStoreUtils.constraintsToQueryRanges(constraints, index, null, 2000);
+    assertEquals(INTERVALS, RangeCostModel.getRangeCount(fixed));
+
+    // attribute ranges are exact, so no range cost can make them coarser
+    for (final double rangeCost : new double[] {1, 100, 10000}) {
+      final QueryRanges ranges =
+          new AdaptiveRangeDecomposer(
+              statisticsStore,
+              Collections.singletonList("adaptiveType"),
+              rangeCost).decompose(constraints, index, null, 2000);
+      assertEquals(fixed.getCompositeQueryRanges(), ranges.getCompositeQueryRanges());
+    }
+  }
+
+  @Test
+  public void testMissingStatistics() {
+    final MemoryRequiredOptions opts = createOptions("testMissingStatistics");
+    final Index index = createDataStore(opts);
+    final DataStatisticsStore statisticsStore =
+        new MemoryStoreFactoryFamily().getDataStatisticsStoreFactory().createStore(opts);
+    final List<MultiDimensionalNumericData> constraints = createConstraints();
+    // without statistics for the type the maximum range decomposition is used
+    final QueryRanges ranges =
+        new AdaptiveRangeDecomposer(
+            statisticsStore,
+            Collections.singletonList("unknownType"),
+            100).decompose(constraints, index, null, 2000);
+    assertEquals(INTERVALS, RangeCostModel.getRangeCount(ranges));
+  }
+
+  @Test
+  public void testAdaptiveQuery() {
+    final MemoryRequiredOptions opts = createOptions("testAdaptiveQuery");
+    ((BaseDataStoreOptions) opts.getStoreOptions()).setAdaptiveRangeDecomposition(true);
+    ((BaseDataStoreOptions) opts.getStoreOptions()).setRangeCost(100);
+    createDataStore(opts);
+    final DataStore dataStore =
+        new MemoryStoreFactoryFamily().getDataStoreFactory().createStore(opts);
+    Filter filter = null;
+    for (int i = 0; i < INTERVALS; i++) {
+      final Filter interval = NumericFieldValue.of("value").isBetween(i * 20, (i * 20) + 4);
+      filter = filter == null ? interval : filter.or(interval);
+    }
+    int count = 0;
+    try (CloseableIterator<AdaptiveType> results =
+        dataStore.query(
+            QueryBuilder.newBuilder(AdaptiveType.class).addTypeName("adaptiveType").filter(
+                filter).build())) {
+      while (results.hasNext()) {
+        assertTrue((results.next().value % 20) <= 4);
+        count++;
+      }
+    }
+    assertEquals(INTERVALS * 5, count);
+  }
+
+  @Test
+  public void testRefinementFollowsRangeCost() {
+    final MemoryRequiredOptions opts = createOptions("testRefinementFollowsRangeCost");
+    final Index index = createClusteredDataStore(opts);
+    final DataStatisticsStore statisticsStore =
+        new MemoryStoreFactoryFamily().getDataStatisticsStoreFactory().createStore(opts);
+    // the query ends just before the corner of the dense cluster, which the coarse ranges cover
+    final List<MultiDimensionalNumericData> constraints =
+        Collections.singletonList(
+            new BasicNumericDataset(
+                new NumericData[] {new NumericRange(0, 480), new NumericRange(0, 480)}));
+    final QueryRanges coarse =
+        DataStoreUtils.constraintsToQueryRanges(constraints, index, null, 16);
+
+    final int coarseCount = RangeCostModel.getRangeCount(coarse);
+    final int maxCount =
+        RangeCostModel.getRangeCount(
+            DataStoreUtils.constraintsToQueryRanges(constraints, index, null, 2000));
+
+    // ranges are expensive, so isolating the cluster does not pay for the ranges it takes
+    final AdaptiveRangeDecomposer expensive =
+        new AdaptiveRangeDecomposer(
+            statisticsStore,
+            Collections.singletonList("clusteredType"),
+            1000);
+    final QueryRanges expensiveRanges = expensive.decompose(constraints, index, null, 2000);
+    assertEquals(coarseCount, RangeCostModel.getRangeCount(expensiveRanges));
+    assertTrue(expensive.getEstimatedRows() > (CLUSTERED_ENTRIES / 2));
+
+    // ranges are cheap, so the parts along the cluster are refined until it is skipped
+    for (final double rangeCost : new double[] {1, 100}) {
+      final AdaptiveRangeDecomposer cheap =
+          new AdaptiveRangeDecomposer(
+              statisticsStore,
+              Collections.singletonList("clusteredType"),
+              rangeCost);
+      final QueryRanges cheapRanges = cheap.decompose(constraints, index, null, 2000);
+      final int cheapCount = RangeCostModel.getRangeCount(cheapRanges);
+      assertTrue(cheapCount > coarseCount);
+      assertTrue(cheapCount < maxCount);
+      assertTrue(cheap.getEstimatedRows() < (CLUSTERED_ENTRIES / 10));
+    }
+  }
+
+  private static List<MultiDimensionalNumericData> createConstraints() {
+    final List<MultiDimensionalNumericData> constraints = Lists.newArrayList();
+    for (int i = 0; i < INTERVALS; i++) {
+      // 5 values in every 20
+      constraints.add(
+          new BasicNumericDataset(new NumericData[] {new NumericRange(i * 20, (i * 20) + 4)}));
+    }
+    return constraints;
+  }
+
+  private static MemoryRequiredOptions createOptions(final String name) {
+    final MemoryRequiredOptions opts = new MemoryRequiredOptions();
+    opts.setGeoWaveNamespace("test_" + AdaptiveRangeDecomposerTest.class.getName() + "_" + name);
+    return opts;
+  }
+
+  private static Index createDataStore(final MemoryRequiredOptions opts) {
+    final StoreFactoryFamilySpi storeFamily = new MemoryStoreFactoryFamily();
+    final DataStore dataStore = storeFamily.getDataStoreFactory().createStore(opts);
+    final DataTypeAdapter<AdaptiveType> adapter =
+        BasicDataTypeAdapter.newAdapter("adaptiveType", AdaptiveType.class, "id");
+    final Index index =
+        AttributeDimensionalityTypeProvider.createIndexForDescriptor(
+            adapter,
+            adapter.getFieldDescriptor("value"),
+            "valueIdx");
+    dataStore.addType(adapter, index);
+    try (Writer<AdaptiveType> writer = dataStore.createWriter("adaptiveType")) {
+      for (int i = 0; i < ENTRIES; i++) {
+        writer.write(new AdaptiveType("id" + i, (long) i));
+      }
+    }
+    return index;
+  }
+
+  private static Index createClusteredDataStore(final MemoryRequiredOptions opts) {
+    final StoreFactoryFamilySpi storeFamily = new MemoryStoreFactoryFamily();
+    final DataStore dataStore = storeFamily.getDataStoreFactory().createStore(opts);
+    final DataTypeAdapter<ClusteredType> adapter =
+        BasicDataTypeAdapter.newAdapter("clusteredType", ClusteredType.class, "id");
+    final Index index =
+        new CustomNameIndex(
+            TieredSFCIndexFactory.createSingleTierStrategy(
+                new NumericDimensionDefinition[] {
+                    new BasicDimensionDefinition(0, 1000),
+                    new BasicDimensionDefinition(0, 1000)},
+                new int[] {16, 16},
+                SFCType.HILBERT),
+            new BasicIndexModel(
+                new NumericDimensionField[] {
+                    new BasicNumericDimensionField<>("x", Double.class, Range.between(0.0, 1000.0)),
+                    new BasicNumericDimensionField<>(
+                        "y",
+                        Double.class,
+                        Range.between(0.0, 1000.0))}),
+            "xyIdx");
+    dataStore.addType(adapter, index);
+    final Random random = new Random(0);
+    try (Writer<ClusteredType> writer = dataStore.createWriter("clusteredType")) {
+      for (int i = 0; i < CLUSTERED_ENTRIES; i++) {
+        if ((i % 10) == 0) {
+          // sparse points across the whole index
+          writer.write(
+              new ClusteredType("id" + i, random.nextDouble() * 1000, random.nextDouble() * 1000));
+        } else {
+          // a dense cluster next to the corner of the query
+          writer.write(
+              new ClusteredType(
+                  "id" + i,
+                  481 + (random.nextDouble() * 2),
+                  481 + (random.nextDouble() * 2)));
+        }
+      }
+    }
+    return index;
+  }
+
+  @GeoWaveDataType
+  protected static class ClusteredType {
+    @GeoWaveField
+    private String id;
+
+    @GeoWaveField
+    private Double x;
+
+    @GeoWaveField
+    private Double y;
+
+    public ClusteredType() {}
+
+    public ClusteredType(final String id, final Double x, final Double y) {
+      this.id = id;
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  @GeoWaveDataType
+  protected static class AdaptiveType {
+    @GeoWaveField
+    private String id;
+
+    @GeoWaveField
+    private Long value;
+
+    public AdaptiveType() {}
+
+    public AdaptiveType(final String id, final Long value) {
+      this.id = id;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.plan;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.operations.RowReader;
+import org.locationtech.geowave.core.store.operations.RowReaderWrapper;
+
+public class RangeCostModelTest {
+
+  @Test
+  public void testMeasuredRangeCost() {
+    final RangeCostModel model = new RangeCostModel(10);
+    for (int i = 0; i < 50; i++) {
+      final int ranges = 1 + ((i * 7) % 13);
+      final long rows = 100 + ((i * 31) % 1000);
+      if (i == 5) {
+        // not enough scans to measure yet
+        assertEquals(10, model.getRangeCost(), 0);
+      }
+      // 50 rows per range on top of a fixed overhead
+      model.record(ranges, rows, 1000000 + (ranges * 5000L) + (rows * 100L));
+    }
+    assertEquals(50, model.getRangeCost(), 0.001);
+  }
+
+  @Test
+  public void testUnmeasurableRangeCost() {
+    final RangeCostModel model = new RangeCostModel(10);
+    for (int i = 0; i < 50; i++) {
+      // every scan has the same number of ranges
+      model.record(5, i * 100, 1000 + (i * 10000));
+    }
+    assertEquals(10, model.getRangeCost(), 0);
+  }
+
+  @Test
+  public void testTrackedReader() {
+    final RangeCostModel model = new RangeCostModel(10);
+    final QueryRanges ranges = new QueryRanges(new ByteArrayRange(new byte[] {0}, new byte[] {1}));
+    for (int i = 0; i < 20; i++) {
+      final RowReader<Integer> reader =
+          model.track(
+              new RowReaderWrapper<>(
+                  new CloseableIterator.Wrapper<>(Arrays.asList(1, 2, 3).iterator())),
+              ranges,
+              3);
+      int count = 0;
+      while (reader.hasNext()) {
+        reader.next();
+        count++;
+      }
+      reader.close();
+      assertEquals(3, count);
+    }
+    // every tracked scan had the same shape, so the cost cannot be measured
+    assertEquals(10, model.getRangeCost(), 0);
+  }
+
+  @Test
+  public void testSlowConsumer() {
+    final AtomicLong clock = new AtomicLong();
+    final RangeCostModel model = new RangeCostModel(10, clock::get);
+    for (int i = 0; i < 50; i++) {
+      final int ranges = 1 + ((i * 7) % 13);
+      final long scannedRows = 100 + ((i * 31) % 1000);
+      final List<ByteArrayRange> sortKeyRanges = new ArrayList<>();
+      for (int r = 0; r < ranges; r++) {
+        sortKeyRanges.add(
+            new ByteArrayRange(new byte[] {(byte) (r * 2)}, new byte[] {(byte) ((r * 2) + 1)}));
+      }
+      final RowReader<Long> reader =
+          model.track(
+              new SimulatedRowReader(clock, ranges, scannedRows),
+              new QueryRanges(
+                  Collections.singletonList(new SinglePartitionQueryRanges(sortKeyRanges))),
+              scannedRows);
+      while (reader.hasNext()) {
+        reader.next();
+        // the consumer takes far longer than the scan, and longer for the larger scans
+        clock.addAndGet(1000000L * ranges);
+      }
+      reader.close();
+    }
+    // 50 rows per range, as if the consumer were not there
+    assertEquals(50, model.getRangeCost(), 0.001);
+  }
+
+  /**
+   * Reads every tenth of the scanned rows, advancing the clock by a fixed overhead, 5000ns per
+   * range and 100ns per scanned row.
+   */
+  private static class SimulatedRowReader implements RowReader<Long> {
+    private final AtomicLong clock;
+    private final int ranges;
+    private final long scannedRows;
+    private long row = -1;
+
+    private SimulatedRowReader(final AtomicLong clock, final int ranges, final long scannedRows) {
+      this.clock = clock;
+      this.ranges = ranges;
+      this.scannedRows = scannedRows;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (row < 0) {
+        // seek to the ranges
+        clock.addAndGet(1000000 + (ranges * 5000L));
+        row = 0;
+      }
+      // skip the rows that are filtered on the server
+      while ((row < scannedRows) && ((row % 10) != 0)) {
+        row++;
+        clock.addAndGet(100);
+      }
+      return row < scannedRows;
+    }
+
+    @Override
+    public Long next() {
+      clock.addAndGet(100);
+      return row++;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
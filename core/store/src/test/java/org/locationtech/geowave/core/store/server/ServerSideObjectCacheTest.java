@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.adapter.AbstractDataTypeAdapterTest.TestTypeBasicDataAdapter;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapterImpl;
+import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
+import org.locationtech.geowave.core.store.index.BasicIndexModel;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.query.filter.DataIdQueryFilter;
+import org.locationtech.geowave.core.store.query.filter.DedupeFilter;
+import org.locationtech.geowave.core.store.query.filter.FilterList;
+import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+
+public class ServerSideObjectCacheTest {
+
+  @Test
+  public void testCache() {
+    final ServerSideObjectCache cache = new ServerSideObjectCache(1024 * 1024);
+    final byte[] filterBytes =
+        PersistenceUtils.toBinary(
+            new DataIdQueryFilter(new byte[][] {StringUtils.stringToBinary("id")}));
+    final QueryFilter first =
+        cache.get(filterBytes, QueryFilter.class, ServerSideObjectCacheTest::filter);
+    // equal content in a different array is a hit
+    final QueryFilter second =
+        cache.get(
+            Arrays.copyOf(filterBytes, filterBytes.length),
+            QueryFilter.class,
+            ServerSideObjectCacheTest::filter);
+    assertSame(first, second);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    final byte[] otherBytes =
+        PersistenceUtils.toBinary(
+            new DataIdQueryFilter(new byte[][] {StringUtils.stringToBinary("other")}));
+    assertNotSame(
+        first,
+        cache.get(otherBytes, QueryFilter.class, ServerSideObjectCacheTest::filter));
+    assertEquals(2, cache.getMissCount());
+
+    cache.clear();
+    assertNotSame(
+        first,
+        cache.get(filterBytes, QueryFilter.class, ServerSideObjectCacheTest::filter));
+  }
+
+  @Test
+  public void testStatefulFiltersAreNotShared() {
+    final ServerSideObjectCache cache = new ServerSideObjectCache(1024 * 1024);
+    final byte[] filterBytes =
+        PersistenceUtils.toBinary(
+            new FilterList(
+                Arrays.asList(
+                    new DataIdQueryFilter(new byte[][] {StringUtils.stringToBinary("id")}),
+                    new DedupeFilter())));
+    final QueryFilter first =
+        cache.get(filterBytes, QueryFilter.class, ServerSideObjectCacheTest::filter);
+    final QueryFilter second =
+        cache.get(filterBytes, QueryFilter.class, ServerSideObjectCacheTest::filter);
+    assertNotSame(first, second);
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void testOnlyShareableObjectsAreCached() {
+    final ServerSideObjectCache cache = new ServerSideObjectCache(1024 * 1024);
+    // an index model declares that it can be shared
+    final byte[] modelBytes =
+        PersistenceUtils.toBinary(new BasicIndexModel(new NumericDimensionField[0]));
+    assertSame(
+        cache.get(
+            modelBytes,
+            CommonIndexModel.class,
+            b -> (CommonIndexModel) PersistenceUtils.fromBinary(b)),
+        cache.get(
+            modelBytes,
+            CommonIndexModel.class,
+            b -> (CommonIndexModel) PersistenceUtils.fromBinary(b)));
+    // a filter that doesn't declare itself stateless is deserialized every time
+    final byte[] dedupeBytes = PersistenceUtils.toBinary(new DedupeFilter());
+    assertNotSame(
+        cache.get(dedupeBytes, QueryFilter.class, ServerSideObjectCacheTest::filter),
+        cache.get(dedupeBytes, QueryFilter.class, ServerSideObjectCacheTest::filter));
+  }
+
+  @Test
+  public void testAdaptersAreSharedWhenTheirTypeAdapterIs() {
+    final ServerSideObjectCache cache = new ServerSideObjectCache(1024 * 1024);
+    // the deserializer stands in for parsing the adapter, it is only called on a miss
+    final byte[] shareableBytes = StringUtils.stringToBinary("shareable");
+    final InternalDataAdapter<?> adapter =
+        cache.get(
+            shareableBytes,
+            InternalDataAdapter.class,
+            b -> new InternalDataAdapterImpl<>(new ShareableTestAdapter(), (short) 1));
+    assertSame(
+        adapter,
+        cache.get(
+            shareableBytes,
+            InternalDataAdapter.class,
+            b -> new InternalDataAdapterImpl<>(new ShareableTestAdapter(), (short) 1)));
+    assertEquals(1, cache.getHitCount());
+
+    // an adapter that doesn't declare it can be shared is deserialized every time
+    final byte[] otherBytes = StringUtils.stringToBinary("other");
+    assertNotSame(
+        cache.get(
+            otherBytes,
+            InternalDataAdapter.class,
+            b -> new InternalDataAdapterImpl<>(new TestTypeBasicDataAdapter("other"), (short) 2)),
+        cache.get(
+            otherBytes,
+            InternalDataAdapter.class,
+            b -> new InternalDataAdapterImpl<>(new TestTypeBasicDataAdapter("other"), (short) 2)));
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void testKeyIncludesTypeAndClassLoader() {
+    final ServerSideObjectCache cache = new ServerSideObjectCache(1024 * 1024);
+    final byte[] filterBytes =
+        PersistenceUtils.toBinary(
+            new DataIdQueryFilter(new byte[][] {StringUtils.stringToBinary("id")}));
+    final QueryFilter filter =
+        cache.get(filterBytes, QueryFilter.class, ServerSideObjectCacheTest::filter);
+    // the same bytes read as another type are not served from the filter's entry
+    final Persistable persistable =
+        cache.get(filterBytes, Persistable.class, PersistenceUtils::fromBinary);
+    assertNotSame(filter, persistable);
+    assertEquals(0, cache.getHitCount());
+
+    final Thread thread = Thread.currentThread();
+    final ClassLoader original = thread.getContextClassLoader();
+    try (URLClassLoader other = new URLClassLoader(new URL[0], original)) {
+      thread.setContextClassLoader(other);
+      assertNotSame(
+          filter,
+          cache.get(filterBytes, QueryFilter.class, ServerSideObjectCacheTest::filter));
+      assertEquals(0, cache.getHitCount());
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      thread.setContextClassLoader(original);
+    }
+    assertSame(
+        filter,
+        cache.get(filterBytes, QueryFilter.class, ServerSideObjectCacheTest::filter));
+  }
+
+  private static QueryFilter filter(final byte[] bytes) {
+    return (QueryFilter) PersistenceUtils.fromBinary(bytes);
+  }
+
+  public static class ShareableTestAdapter extends TestTypeBasicDataAdapter implements
+      ServerSideShareable {
+    public ShareableTestAdapter() {
+      super("shareable");
+    }
+  }
+}
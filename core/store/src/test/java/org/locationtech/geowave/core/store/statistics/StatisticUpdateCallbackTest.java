@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.statistics;
+
+import static org.junit.Assert.assertEquals;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.StoreFactoryFamilySpi;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.adapter.MockComponents;
+import org.locationtech.geowave.core.store.adapter.MockComponents.MockAbstractDataAdapter;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.Statistic;
+import org.locationtech.geowave.core.store.api.StatisticValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.core.store.index.IndexImpl;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
+import org.locationtech.geowave.core.store.statistics.adapter.CountStatistic;
+import org.locationtech.geowave.core.store.statistics.field.NumericRangeStatistic;
+import org.locationtech.geowave.core.store.statistics.field.NumericRangeStatistic.NumericRangeValue;
+import com.google.common.collect.Lists;
+
+public class StatisticUpdateCallbackTest {
+  private static final int THREADS = 8;
+  private static final int ENTRIES_PER_THREAD = 5000;
+
+  @Test
+  public void testConcurrentUpdates() throws Exception {
+    final Index index =
+        new IndexImpl(new MockComponents.MockIndexStrategy(), new MockComponents.TestIndexModel());
+    final StoreFactoryFamilySpi storeFamily = new MemoryStoreFactoryFamily();
+    final MemoryRequiredOptions reqOptions = new MemoryRequiredOptions();
+    reqOptions.setGeoWaveNamespace("test_" + getClass().getName());
+    final DataStore dataStore = storeFamily.getDataStoreFactory().createStore(reqOptions);
+    final DataStatisticsStore statsStore =
+        storeFamily.getDataStatisticsStoreFactory().createStore(reqOptions);
+    final MockAbstractDataAdapter adapter = new MockAbstractDataAdapter();
+    final CountStatistic count = new CountStatistic(adapter.getTypeName());
+    final NumericRangeStatistic range =
+        new NumericRangeStatistic(adapter.getTypeName(), MockAbstractDataAdapter.INTEGER);
+    dataStore.addType(adapter, Lists.newArrayList(count, range), index);
+
+    final List<Statistic<? extends StatisticValue<?>>> statistics =
+        Lists.newArrayList(count, range);
+    final InternalDataAdapter<Integer> internalAdapter = adapter.asInternalAdapter((short) 0);
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try (StatisticUpdateCallback<Integer> callback =
+        new StatisticUpdateCallback<>(statistics, statsStore, index, null, internalAdapter, true)) {
+      final List<Future<?>> futures = Lists.newArrayList();
+      for (int t = 0; t < THREADS; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < ENTRIES_PER_THREAD; i++) {
+            final int value = (thread * ENTRIES_PER_THREAD) + i;
+            callback.entryIngested(value, createRow(value));
+          }
+        }));
+        if (t == (THREADS / 2)) {
+          // flushing while other threads are updating should not lose any updates
+          callback.flush();
+        }
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(
+        THREADS * ENTRIES_PER_THREAD,
+        statsStore.getStatisticValue(count).getValue().longValue());
+    final NumericRangeValue rangeValue = statsStore.getStatisticValue(range);
+    assertEquals(0, rangeValue.getMin(), 0);
+    assertEquals((THREADS * ENTRIES_PER_THREAD) - 1, rangeValue.getMax(), 0);
+  }
+
+  @Test
+  public void testUpdatesAfterClose() {
+    final Index index =
+        new IndexImpl(new MockComponents.MockIndexStrategy(), new MockComponents.TestIndexModel());
+    final StoreFactoryFamilySpi storeFamily = new MemoryStoreFactoryFamily();
+    final MemoryRequiredOptions reqOptions = new MemoryRequiredOptions();
+    reqOptions.setGeoWaveNamespace("test_" + getClass().getName() + "_afterClose");
+    final DataStore dataStore = storeFamily.getDataStoreFactory().createStore(reqOptions);
+    final DataStatisticsStore statsStore =
+        storeFamily.getDataStatisticsStoreFactory().createStore(reqOptions);
+    final MockAbstractDataAdapter adapter = new MockAbstractDataAdapter();
+    final CountStatistic count = new CountStatistic(adapter.getTypeName());
+    dataStore.addType(adapter, Lists.newArrayList(count), index);
+
+    final List<Statistic<? extends StatisticValue<?>>> statistics = Lists.newArrayList(count);
+    final StatisticUpdateCallback<Integer> callback =
+        new StatisticUpdateCallback<>(
+            statistics,
+            statsStore,
+            index,
+            null,
+            adapter.asInternalAdapter((short) 0),
+            true);
+    callback.entryIngested(0, createRow(0));
+    callback.close();
+    assertEquals(1, statsStore.getStatisticValue(count).getValue().longValue());
+
+    // updates after the final flush are written right away rather than lost
+    callback.entryIngested(1, createRow(1));
+    callback.entryDeleted(0, createRow(0));
+    callback.entryIngested(2, createRow(2));
+    assertEquals(2, statsStore.getStatisticValue(count).getValue().longValue());
+  }
+
+  private static GeoWaveRow createRow(final int value) {
+    return new GeoWaveRowImpl(
+        new GeoWaveKeyImpl(
+            Integer.toString(value).getBytes(),
+            (short) 0,
+            new byte[0],
+            new byte[0],
+            0),
+        new GeoWaveValue[] {new GeoWaveValueImpl(new byte[] {1}, new byte[0], new byte[0])});
+  }
+}
@@ -81,6 +81,7 @@ import org.locationtech.geowave.adapter.raster.stats.HistogramConfig;
 import org.locationtech.geowave.adapter.raster.stats.RasterBoundingBoxStatistic;
 import org.locationtech.geowave.adapter.raster.stats.RasterHistogramStatistic;
 import org.locationtech.geowave.adapter.raster.stats.RasterOverviewStatistic;
+import org.locationtech.geowave.adapter.raster.util.DataBufferEncoding;
 import org.locationtech.geowave.adapter.raster.util.SampleModelPersistenceUtils;
 import org.locationtech.geowave.core.geotime.index.dimension.LatitudeDefinition;
 import org.locationtech.geowave.core.geotime.index.dimension.LongitudeDefinition;
@@ -152,6 +153,7 @@ public class RasterDataAdapter implements
   public static final int DEFAULT_TILE_SIZE = 256;
   public static final boolean DEFAULT_BUILD_PYRAMID = false;
   public static final boolean DEFAULT_BUILD_HISTOGRAM = true;
+  public static final DataBufferEncoding DEFAULT_TILE_ENCODING = DataBufferEncoding.COMPRESSED;
 
   private static final FieldDescriptor<RasterTile> IMAGE_FIELD =
       new FieldDescriptorBuilder<>(RasterTile.class).fieldName(DATA_FIELD_ID).build();
@@ -175,6 +177,7 @@ public class RasterDataAdapter implements
   private RasterTileMergeStrategy<?> mergeStrategy;
   private boolean equalizeHistogram;
   private Interpolation interpolation;
+  private DataBufferEncoding tileEncoding = DEFAULT_TILE_ENCODING;
 
   public RasterDataAdapter() {}
 
@@ -323,6 +326,7 @@ public class RasterDataAdapter implements
         interpolationToByte(adapter.interpolation),
         adapter.buildPyramid,
         adapter.mergeStrategy == null ? null : adapter.mergeStrategy);
+    tileEncoding = adapter.tileEncoding;
   }
 
   public RasterDataAdapter(
@@ -345,6 +349,7 @@ public class RasterDataAdapter implements
         interpolationToByte(adapter.interpolation),
         adapter.buildPyramid,
         mergeStrategy);
+    tileEncoding = adapter.tileEncoding;
   }
 
   public RasterDataAdapter(
@@ -1060,11 +1065,14 @@ public class RasterDataAdapter implements
   }
 
   public ClientMergeableRasterTile<?> getRasterTileFromCoverage(final GridCoverage entry) {
-    return new ClientMergeableRasterTile(
-        mergeStrategy,
-        sampleModel,
-        getRaster(entry).getDataBuffer(),
-        mergeStrategy == null ? null : mergeStrategy.getMetadata(entry, this));
+    final ClientMergeableRasterTile<?> tile =
+        new ClientMergeableRasterTile(
+            mergeStrategy,
+            sampleModel,
+            getRaster(entry).getDataBuffer(),
+            mergeStrategy == null ? null : mergeStrategy.getMetadata(entry, this));
+    tile.setDataBufferEncoding(tileEncoding);
+    return tile;
   }
 
   public Raster getRaster(final GridCoverage entry) {
@@ -1200,7 +1208,7 @@ public class RasterDataAdapter implements
                 + VarintUtils.unsignedIntByteLength(namesLength)
                 + VarintUtils.unsignedIntByteLength(backgroundBinary.length)
                 + VarintUtils.unsignedIntByteLength(mergeStrategyBinary.length)
-                + 3);
+                + 4);
     VarintUtils.writeUnsignedInt(tileSize, buf);
     VarintUtils.writeUnsignedInt(coverageNameBytes.length, buf);
     buf.put(coverageNameBytes);
@@ -1230,6 +1238,7 @@ public class RasterDataAdapter implements
     buf.put(buildPyramid ? (byte) 1 : (byte) 0);
     buf.put(equalizeHistogram ? (byte) 1 : (byte) 0);
     buf.put(interpolationToByte(interpolation));
+    buf.put((byte) tileEncoding.ordinal());
     return buf.array();
   }
 
@@ -1422,6 +1431,12 @@ public class RasterDataAdapter implements
     buildPyramid = (buf.get() != 0);
     equalizeHistogram = (buf.get() != 0);
     interpolation = Interpolation.getInstance(buf.get());
+    if (buf.hasRemaining()) {
+      tileEncoding = DataBufferEncoding.values()[buf.get()];
+    } else {
+      // adapters persisted before the tile encoding was configurable use the original encoding
+      tileEncoding = DataBufferEncoding.PROTOBUF;
+    }
   }
 
   @Override
@@ -1621,8 +1636,10 @@ public class RasterDataAdapter implements
             metadata = (Persistable) metadataObj;
           }
         }
+        final RasterTile<?> tile = new RasterTile(dataBuffer, metadata);
+        tile.setDataBufferEncoding(tileEncoding);
         return new GridCoverageWritable(
-            new RasterTile(dataBuffer, metadata),
+            tile,
             env.getMinimum(0),
             env.getMaximum(0),
             env.getMinimum(1),
@@ -1657,6 +1674,24 @@ public class RasterDataAdapter implements
     return interpolation;
   }
 
+  /**
+   * @return the encoding used to persist the data buffers of the tiles written by this adapter
+   */
+  public DataBufferEncoding getTileEncoding() {
+    return tileEncoding;
+  }
+
+  /**
+   * Set the encoding used to persist the data buffers of the tiles written by this adapter. Tiles
+   * are always readable regardless of the encoding they were written with, so changing the encoding
+   * of an existing adapter only affects tiles that are written afterwards.
+   *
+   * @param tileEncoding the data buffer encoding
+   */
+  public void setTileEncoding(final DataBufferEncoding tileEncoding) {
+    this.tileEncoding = tileEncoding;
+  }
+
   @Override
   public Map<String, String> getOptions(
       final short internalAdapterId,
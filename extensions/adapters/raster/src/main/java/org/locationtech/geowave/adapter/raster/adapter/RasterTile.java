@@ -10,6 +10,7 @@ package org.locationtech.geowave.adapter.raster.adapter;
 
 import java.awt.image.DataBuffer;
 import java.nio.ByteBuffer;
+import org.locationtech.geowave.adapter.raster.util.DataBufferEncoding;
 import org.locationtech.geowave.adapter.raster.util.DataBufferPersistenceUtils;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.index.Mergeable;
@@ -23,6 +24,7 @@ public class RasterTile<T extends Persistable> implements Mergeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(RasterTile.class);
   private DataBuffer dataBuffer;
   private T metadata;
+  private DataBufferEncoding dataBufferEncoding = DataBufferEncoding.PROTOBUF;
 
   public RasterTile() {
     super();
@@ -41,9 +43,18 @@ public class RasterTile<T extends Persistable> implements Mergeable {
     return metadata;
   }
 
+  /**
+   * @return the encoding used to persist the data buffer, tiles that are read keep the encoding
+   *         they were persisted with so that merged tiles are written back in the same encoding
+   */
+  public DataBufferEncoding getDataBufferEncoding() {
+    return dataBufferEncoding;
+  }
+
   @Override
   public byte[] toBinary() {
-    final byte[] dataBufferBinary = DataBufferPersistenceUtils.getDataBufferBinary(dataBuffer);
+    final byte[] dataBufferBinary =
+        DataBufferPersistenceUtils.getDataBufferBinary(dataBuffer, dataBufferEncoding);
     byte[] metadataBytes;
     if (metadata != null) {
       metadataBytes = PersistenceUtils.toBinary(metadata);
@@ -72,6 +83,7 @@ public class RasterTile<T extends Persistable> implements Mergeable {
       }
       final byte[] dataBufferBytes = new byte[buf.remaining()];
       buf.get(dataBufferBytes);
+      dataBufferEncoding = DataBufferPersistenceUtils.getDataBufferEncoding(dataBufferBytes);
       dataBuffer = DataBufferPersistenceUtils.getDataBuffer(dataBufferBytes);
     } catch (final Exception e) {
       LOGGER.warn("Unable to deserialize data buffer", e);
@@ -86,6 +98,10 @@ public class RasterTile<T extends Persistable> implements Mergeable {
     this.metadata = metadata;
   }
 
+  public void setDataBufferEncoding(final DataBufferEncoding dataBufferEncoding) {
+    this.dataBufferEncoding = dataBufferEncoding;
+  }
+
   @Override
   public void merge(final Mergeable merge) {
     // This will get wrapped as a MergeableRasterTile by the combiner to
@@ -33,11 +33,14 @@ public class RasterTileRowTransform<T extends Persistable> implements RowTransfo
   public Mergeable transform(final short internalAdapterId, final Mergeable mergeable) {
     if ((mergeable != null) && (mergeable instanceof RasterTile)) {
       final RasterTile<T> rasterTile = (RasterTile) mergeable;
-      return new ServerMergeableRasterTile<>(
-          rasterTile.getDataBuffer(),
-          rasterTile.getMetadata(),
-          mergeStrategy,
-          internalAdapterId);
+      final ServerMergeableRasterTile<T> mergeableTile =
+          new ServerMergeableRasterTile<>(
+              rasterTile.getDataBuffer(),
+              rasterTile.getMetadata(),
+              mergeStrategy,
+              internalAdapterId);
+      mergeableTile.setDataBufferEncoding(rasterTile.getDataBufferEncoding());
+      return mergeableTile;
     }
     return mergeable;
   }
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.raster.util;
+
+import java.util.Arrays;
+
+/**
+ * The binary encoding used to persist the data buffer of a raster tile. The encoding of a persisted
+ * tile is detected when it is read, so tiles of either encoding can be read regardless of the
+ * encoding that is configured for writing.
+ */
+public enum DataBufferEncoding {
+  /**
+   * The original protobuf encoding. Integer samples are compressed with an integrated integer
+   * compressor and floating point samples are written uncompressed.
+   */
+  PROTOBUF,
+  /**
+   * A lossless compressed encoding for all sample types. Each bank is delta encoded (XOR of the
+   * sample bits for floating point samples), byte shuffled so that the bytes of equal significance
+   * are stored together, and deflated.
+   */
+  COMPRESSED;
+
+  public static DataBufferEncoding fromString(final String encoding) {
+    for (final DataBufferEncoding value : values()) {
+      if (value.name().equalsIgnoreCase(encoding)) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Unknown data buffer encoding '"
+            + encoding
+            + "', valid values are "
+            + Arrays.toString(values()));
+  }
+}
@@ -15,10 +15,15 @@ import java.awt.image.DataBufferFloat;
 import java.awt.image.DataBufferInt;
 import java.awt.image.DataBufferShort;
 import java.awt.image.DataBufferUShort;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import org.apache.commons.lang3.ArrayUtils;
 import org.locationtech.geowave.adapter.raster.protobuf.DataBufferProtos;
 import org.locationtech.geowave.adapter.raster.protobuf.DataBufferProtos.ByteDataBuffer;
@@ -28,6 +33,8 @@ import org.locationtech.geowave.adapter.raster.protobuf.DataBufferProtos.FloatAr
 import org.locationtech.geowave.adapter.raster.protobuf.DataBufferProtos.FloatDataBuffer;
 import org.locationtech.geowave.adapter.raster.protobuf.DataBufferProtos.SignedIntArray;
 import org.locationtech.geowave.adapter.raster.protobuf.DataBufferProtos.SignedIntDataBuffer;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.VarintUtils;
 import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Floats;
 import com.google.common.primitives.Ints;
@@ -35,7 +42,39 @@ import com.google.protobuf.ByteString;
 import me.lemire.integercompression.differential.IntegratedIntCompressor;
 
 public class DataBufferPersistenceUtils {
+  // a protobuf message can never start with a 0 byte because 0 is not a valid field number, so this
+  // marker distinguishes compressed data buffers from data buffers in the original protobuf
+  // encoding
+  private static final byte COMPRESSED_ENCODING_MARKER = 0;
+  private static final int DEFLATE_CHUNK_SIZE = 8192;
+
   public static byte[] getDataBufferBinary(final DataBuffer dataBuffer) {
+    return getDataBufferBinary(dataBuffer, DataBufferEncoding.PROTOBUF);
+  }
+
+  public static byte[] getDataBufferBinary(
+      final DataBuffer dataBuffer,
+      final DataBufferEncoding encoding) {
+    if (DataBufferEncoding.COMPRESSED.equals(encoding)) {
+      return getCompressedDataBufferBinary(dataBuffer);
+    }
+    return getProtobufDataBufferBinary(dataBuffer);
+  }
+
+  /**
+   * Determine the encoding of a persisted data buffer.
+   *
+   * @param binary the data buffer binary
+   * @return the encoding of the data buffer
+   */
+  public static DataBufferEncoding getDataBufferEncoding(final byte[] binary) {
+    if ((binary.length > 0) && (binary[0] == COMPRESSED_ENCODING_MARKER)) {
+      return DataBufferEncoding.COMPRESSED;
+    }
+    return DataBufferEncoding.PROTOBUF;
+  }
+
+  private static byte[] getProtobufDataBufferBinary(final DataBuffer dataBuffer) {
     final DataBufferProtos.DataBuffer.Builder bldr = DataBufferProtos.DataBuffer.newBuilder();
     bldr.setType(dataBuffer.getDataType());
     bldr.addAllOffsets(Ints.asList(dataBuffer.getOffsets()));
@@ -143,6 +182,9 @@ public class DataBufferPersistenceUtils {
 
   public static DataBuffer getDataBuffer(final byte[] binary)
       throws IOException, ClassNotFoundException {
+    if (DataBufferEncoding.COMPRESSED.equals(getDataBufferEncoding(binary))) {
+      return getCompressedDataBuffer(binary);
+    }
     // // Read serialized form from the stream.
     final DataBufferProtos.DataBuffer buffer = DataBufferProtos.DataBuffer.parseFrom(binary);
 
@@ -185,6 +227,295 @@ public class DataBufferPersistenceUtils {
     }
   }
 
+  private static byte[] getCompressedDataBufferBinary(final DataBuffer dataBuffer) {
+    final int type = dataBuffer.getDataType();
+    final int[] offsets = dataBuffer.getOffsets();
+    final int[] sampleCounts = new int[dataBuffer.getNumBanks()];
+    final byte[][] compressedBanks = new byte[sampleCounts.length][];
+    int length =
+        1
+            + VarintUtils.unsignedIntByteLength(type)
+            + VarintUtils.unsignedIntByteLength(dataBuffer.getSize())
+            + VarintUtils.unsignedIntByteLength(offsets.length)
+            + VarintUtils.unsignedIntByteLength(compressedBanks.length);
+    for (final int offset : offsets) {
+      length += VarintUtils.unsignedIntByteLength(offset);
+    }
+    for (int b = 0; b < compressedBanks.length; b++) {
+      final byte[] shuffled = shuffleBank(dataBuffer, b);
+      sampleCounts[b] = shuffled.length / (DataBuffer.getDataTypeSize(type) / 8);
+      compressedBanks[b] = deflate(shuffled);
+      length +=
+          VarintUtils.unsignedIntByteLength(sampleCounts[b])
+              + VarintUtils.unsignedIntByteLength(compressedBanks[b].length)
+              + compressedBanks[b].length;
+    }
+    final ByteBuffer buf = ByteBuffer.allocate(length);
+    buf.put(COMPRESSED_ENCODING_MARKER);
+    VarintUtils.writeUnsignedInt(type, buf);
+    VarintUtils.writeUnsignedInt(dataBuffer.getSize(), buf);
+    VarintUtils.writeUnsignedInt(offsets.length, buf);
+    for (final int offset : offsets) {
+      VarintUtils.writeUnsignedInt(offset, buf);
+    }
+    VarintUtils.writeUnsignedInt(compressedBanks.length, buf);
+    for (int b = 0; b < compressedBanks.length; b++) {
+      VarintUtils.writeUnsignedInt(sampleCounts[b], buf);
+      VarintUtils.writeUnsignedInt(compressedBanks[b].length, buf);
+      buf.put(compressedBanks[b]);
+    }
+    return buf.array();
+  }
+
+  /**
+   * Delta encode the samples of a bank and shuffle the bytes of the deltas so that all of the most
+   * significant bytes are stored first, followed by the next most significant bytes and so on.
+   * Floating point samples are XOR'd with the bits of the previous sample rather than subtracted so
+   * that the encoding is lossless. Neighboring samples tend to be similar, so the high order bytes
+   * are mostly zero and compress well.
+   */
+  private static byte[] shuffleBank(final DataBuffer dataBuffer, final int bank) {
+    switch (dataBuffer.getDataType()) {
+      case DataBuffer.TYPE_BYTE: {
+        final byte[] samples = ((DataBufferByte) dataBuffer).getData(bank);
+        final byte[] shuffled = new byte[samples.length];
+        byte previous = 0;
+        for (int i = 0; i < samples.length; i++) {
+          shuffled[i] = (byte) (samples[i] - previous);
+          previous = samples[i];
+        }
+        return shuffled;
+      }
+      case DataBuffer.TYPE_SHORT:
+        return shuffleShorts(((DataBufferShort) dataBuffer).getData(bank));
+      case DataBuffer.TYPE_USHORT:
+        return shuffleShorts(((DataBufferUShort) dataBuffer).getData(bank));
+      case DataBuffer.TYPE_INT: {
+        final int[] samples = ((DataBufferInt) dataBuffer).getData(bank);
+        final byte[] shuffled = new byte[samples.length * 4];
+        int previous = 0;
+        for (int i = 0; i < samples.length; i++) {
+          shuffleInt(shuffled, samples.length, i, samples[i] - previous);
+          previous = samples[i];
+        }
+        return shuffled;
+      }
+      case DataBuffer.TYPE_FLOAT: {
+        final float[] samples = ((DataBufferFloat) dataBuffer).getData(bank);
+        final byte[] shuffled = new byte[samples.length * 4];
+        int previous = 0;
+        for (int i = 0; i < samples.length; i++) {
+          final int bits = Float.floatToRawIntBits(samples[i]);
+          shuffleInt(shuffled, samples.length, i, bits ^ previous);
+          previous = bits;
+        }
+        return shuffled;
+      }
+      case DataBuffer.TYPE_DOUBLE: {
+        final double[] samples = ((DataBufferDouble) dataBuffer).getData(bank);
+        final byte[] shuffled = new byte[samples.length * 8];
+        long previous = 0;
+        for (int i = 0; i < samples.length; i++) {
+          final long bits = Double.doubleToRawLongBits(samples[i]);
+          shuffleLong(shuffled, samples.length, i, bits ^ previous);
+          previous = bits;
+        }
+        return shuffled;
+      }
+      default:
+        throw new RuntimeException(
+            "Unsupported DataBuffer type for serialization " + dataBuffer.getDataType());
+    }
+  }
+
+  private static byte[] shuffleShorts(final short[] samples) {
+    final byte[] shuffled = new byte[samples.length * 2];
+    short previous = 0;
+    for (int i = 0; i < samples.length; i++) {
+      final int delta = samples[i] - previous;
+      shuffled[i] = (byte) (delta >>> 8);
+      shuffled[samples.length + i] = (byte) delta;
+      previous = samples[i];
+    }
+    return shuffled;
+  }
+
+  private static short[] unshuffleShorts(final byte[] shuffled, final int count) {
+    final short[] samples = new short[count];
+    short previous = 0;
+    for (int i = 0; i < count; i++) {
+      final int delta = ((shuffled[i] & 0xFF) << 8) | (shuffled[count + i] & 0xFF);
+      previous = (short) (previous + delta);
+      samples[i] = previous;
+    }
+    return samples;
+  }
+
+  private static void shuffleInt(
+      final byte[] shuffled,
+      final int count,
+      final int index,
+      final int value) {
+    for (int b = 0; b < 4; b++) {
+      shuffled[(b * count) + index] = (byte) (value >>> (24 - (b * 8)));
+    }
+  }
+
+  private static int unshuffleInt(final byte[] shuffled, final int count, final int index) {
+    int value = 0;
+    for (int b = 0; b < 4; b++) {
+      value = (value << 8) | (shuffled[(b * count) + index] & 0xFF);
+    }
+    return value;
+  }
+
+  private static void shuffleLong(
+      final byte[] shuffled,
+      final int count,
+      final int index,
+      final long value) {
+    for (int b = 0; b < 8; b++) {
+      shuffled[(b * count) + index] = (byte) (value >>> (56 - (b * 8)));
+    }
+  }
+
+  private static long unshuffleLong(final byte[] shuffled, final int count, final int index) {
+    long value = 0;
+    for (int b = 0; b < 8; b++) {
+      value = (value << 8) | (shuffled[(b * count) + index] & 0xFF);
+    }
+    return value;
+  }
+
+  private static DataBuffer getCompressedDataBuffer(final byte[] binary) throws IOException {
+    final ByteBuffer buf = ByteBuffer.wrap(binary);
+    // skip the encoding marker
+    buf.get();
+    final int type = VarintUtils.readUnsignedInt(buf);
+    final int size = VarintUtils.readUnsignedInt(buf);
+    final int[] offsets = new int[VarintUtils.readUnsignedInt(buf)];
+    for (int i = 0; i < offsets.length; i++) {
+      offsets[i] = VarintUtils.readUnsignedInt(buf);
+    }
+    final int numBanks = VarintUtils.readUnsignedInt(buf);
+    switch (type) {
+      case DataBuffer.TYPE_BYTE: {
+        final byte[][] banks = new byte[numBanks][];
+        for (int b = 0; b < numBanks; b++) {
+          final int count = VarintUtils.readUnsignedInt(buf);
+          banks[b] = inflate(buf, count);
+          byte previous = 0;
+          for (int i = 0; i < count; i++) {
+            previous = (byte) (previous + banks[b][i]);
+            banks[b][i] = previous;
+          }
+        }
+        return new DataBufferByte(banks, size, offsets);
+      }
+      case DataBuffer.TYPE_SHORT: {
+        final short[][] banks = new short[numBanks][];
+        for (int b = 0; b < numBanks; b++) {
+          final int count = VarintUtils.readUnsignedInt(buf);
+          banks[b] = unshuffleShorts(inflate(buf, count * 2), count);
+        }
+        return new DataBufferShort(banks, size, offsets);
+      }
+      case DataBuffer.TYPE_USHORT: {
+        final short[][] banks = new short[numBanks][];
+        for (int b = 0; b < numBanks; b++) {
+          final int count = VarintUtils.readUnsignedInt(buf);
+          banks[b] = unshuffleShorts(inflate(buf, count * 2), count);
+        }
+        return new DataBufferUShort(banks, size, offsets);
+      }
+      case DataBuffer.TYPE_INT: {
+        final int[][] banks = new int[numBanks][];
+        for (int b = 0; b < numBanks; b++) {
+          final int count = VarintUtils.readUnsignedInt(buf);
+          final byte[] shuffled = inflate(buf, count * 4);
+          banks[b] = new int[count];
+          int previous = 0;
+          for (int i = 0; i < count; i++) {
+            previous += unshuffleInt(shuffled, count, i);
+            banks[b][i] = previous;
+          }
+        }
+        return new DataBufferInt(banks, size, offsets);
+      }
+      case DataBuffer.TYPE_FLOAT: {
+        final float[][] banks = new float[numBanks][];
+        for (int b = 0; b < numBanks; b++) {
+          final int count = VarintUtils.readUnsignedInt(buf);
+          final byte[] shuffled = inflate(buf, count * 4);
+          banks[b] = new float[count];
+          int previous = 0;
+          for (int i = 0; i < count; i++) {
+            previous ^= unshuffleInt(shuffled, count, i);
+            banks[b][i] = Float.intBitsToFloat(previous);
+          }
+        }
+        return new DataBufferFloat(banks, size, offsets);
+      }
+      case DataBuffer.TYPE_DOUBLE: {
+        final double[][] banks = new double[numBanks][];
+        for (int b = 0; b < numBanks; b++) {
+          final int count = VarintUtils.readUnsignedInt(buf);
+          final byte[] shuffled = inflate(buf, count * 8);
+          banks[b] = new double[count];
+          long previous = 0;
+          for (int i = 0; i < count; i++) {
+            previous ^= unshuffleLong(shuffled, count, i);
+            banks[b][i] = Double.longBitsToDouble(previous);
+          }
+        }
+        return new DataBufferDouble(banks, size, offsets);
+      }
+      default:
+        throw new RuntimeException("Unsupported data buffer type for deserialization" + type);
+    }
+  }
+
+  private static byte[] deflate(final byte[] bytes) {
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+      final byte[] chunk = new byte[DEFLATE_CHUNK_SIZE];
+      while (!deflater.finished()) {
+        out.write(chunk, 0, deflater.deflate(chunk));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(final ByteBuffer buf, final int uncompressedLength)
+      throws IOException {
+    final int compressedLength = VarintUtils.readUnsignedInt(buf);
+    ByteArrayUtils.verifyBufferSize(buf, compressedLength);
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(buf.array(), buf.arrayOffset() + buf.position(), compressedLength);
+      buf.position(buf.position() + compressedLength);
+      final byte[] uncompressed = new byte[uncompressedLength];
+      int length = 0;
+      while (length < uncompressedLength) {
+        final int inflated = inflater.inflate(uncompressed, length, uncompressedLength - length);
+        if ((inflated == 0) && (inflater.finished() || inflater.needsInput())) {
+          throw new IOException("Compressed data buffer is truncated");
+        }
+        length += inflated;
+      }
+      return uncompressed;
+    } catch (final DataFormatException e) {
+      throw new IOException("Unable to inflate compressed data buffer", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
   private static byte[][] listToByte(final List<ByteString> list) {
     final byte[][] retVal = new byte[list.size()][];
     for (int i = 0; i < list.size(); i++) {
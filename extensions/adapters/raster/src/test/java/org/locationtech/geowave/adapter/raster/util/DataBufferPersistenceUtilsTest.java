@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.raster.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+
+public class DataBufferPersistenceUtilsTest {
+  private static final int SIZE = 64 * 64;
+
+  private final Random random = new Random(7);
+
+  @Test
+  public void testFloatRoundTrip() throws IOException, ClassNotFoundException {
+    final float[][] banks = new float[2][SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      banks[0][i] = (float) (1500 + (Math.sin(i / 100.0) * 25) + (random.nextGaussian() * 0.01));
+      banks[1][i] = (i % 11) == 0 ? Float.NaN : -i;
+    }
+    final DataBufferFloat original = new DataBufferFloat(banks, SIZE, new int[] {0, 0});
+    final DataBufferFloat decoded = (DataBufferFloat) roundTrip(original);
+    for (int b = 0; b < banks.length; b++) {
+      for (int i = 0; i < SIZE; i++) {
+        // the encoding is lossless, so even NaN payloads must be preserved
+        assertEquals(
+            Float.floatToRawIntBits(banks[b][i]),
+            Float.floatToRawIntBits(decoded.getData(b)[i]));
+      }
+    }
+  }
+
+  @Test
+  public void testDoubleRoundTrip() throws IOException, ClassNotFoundException {
+    final double[] bank = new double[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      bank[i] = random.nextDouble() * 1e6;
+    }
+    final DataBufferDouble decoded = (DataBufferDouble) roundTrip(new DataBufferDouble(bank, SIZE));
+    assertArrayEquals(bank, decoded.getData(), 0);
+  }
+
+  @Test
+  public void testIntegerRoundTrip() throws IOException, ClassNotFoundException {
+    final byte[][] bytes = new byte[3][SIZE];
+    final short[] shorts = new short[SIZE];
+    final int[] ints = new int[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      bytes[i % 3][i] = (byte) random.nextInt();
+      shorts[i] = (short) random.nextInt(65536);
+      ints[i] = random.nextInt();
+    }
+    final DataBufferByte byteBuffer = new DataBufferByte(bytes, SIZE, new int[] {1, 2, 3});
+    final DataBufferByte decodedBytes = (DataBufferByte) roundTrip(byteBuffer);
+    for (int b = 0; b < bytes.length; b++) {
+      assertArrayEquals(bytes[b], decodedBytes.getData(b));
+    }
+    assertArrayEquals(
+        shorts,
+        ((DataBufferShort) roundTrip(new DataBufferShort(shorts, SIZE))).getData());
+    assertArrayEquals(
+        shorts,
+        ((DataBufferUShort) roundTrip(new DataBufferUShort(shorts, SIZE))).getData());
+    assertArrayEquals(ints, ((DataBufferInt) roundTrip(new DataBufferInt(ints, SIZE))).getData());
+  }
+
+  @Test
+  public void testProtobufEncodingIsReadable() throws IOException, ClassNotFoundException {
+    final float[] bank = new float[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      bank[i] = random.nextFloat();
+    }
+    final byte[] binary =
+        DataBufferPersistenceUtils.getDataBufferBinary(
+            new DataBufferFloat(bank, SIZE),
+            DataBufferEncoding.PROTOBUF);
+    assertEquals(
+        DataBufferEncoding.PROTOBUF,
+        DataBufferPersistenceUtils.getDataBufferEncoding(binary));
+    assertArrayEquals(
+        bank,
+        ((DataBufferFloat) DataBufferPersistenceUtils.getDataBuffer(binary)).getData(),
+        0);
+  }
+
+  @Test
+  public void testCompressedEncodingIsSmaller() {
+    final float[] bank = new float[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      bank[i] = (float) (1500 + (Math.sin(i / 100.0) * 25));
+    }
+    final DataBufferFloat buffer = new DataBufferFloat(bank, SIZE);
+    final byte[] compressed =
+        DataBufferPersistenceUtils.getDataBufferBinary(buffer, DataBufferEncoding.COMPRESSED);
+    final byte[] protobuf =
+        DataBufferPersistenceUtils.getDataBufferBinary(buffer, DataBufferEncoding.PROTOBUF);
+    assertTrue(compressed.length < protobuf.length);
+  }
+
+  private static DataBuffer roundTrip(final DataBuffer dataBuffer)
+      throws IOException, ClassNotFoundException {
+    final byte[] binary =
+        DataBufferPersistenceUtils.getDataBufferBinary(dataBuffer, DataBufferEncoding.COMPRESSED);
+    assertEquals(
+        DataBufferEncoding.COMPRESSED,
+        DataBufferPersistenceUtils.getDataBufferEncoding(binary));
+    final DataBuffer decoded = DataBufferPersistenceUtils.getDataBuffer(binary);
+    assertEquals(dataBuffer.getClass(), decoded.getClass());
+    assertEquals(dataBuffer.getSize(), decoded.getSize());
+    assertEquals(dataBuffer.getNumBanks(), decoded.getNumBanks());
+    assertArrayEquals(dataBuffer.getOffsets(), decoded.getOffsets());
+    return decoded;
+  }
+}
@@ -22,6 +22,9 @@ import org.locationtech.geowave.adapter.vector.render.DistributedRenderResult;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderResult.CompositeGroupResult;
 import org.locationtech.geowave.adapter.vector.render.PersistableComposite;
 import org.locationtech.geowave.adapter.vector.render.PersistableRenderedImage;
+import org.locationtech.geowave.adapter.vector.tile.VectorTileAggregation;
+import org.locationtech.geowave.adapter.vector.tile.VectorTileLayer;
+import org.locationtech.geowave.adapter.vector.tile.VectorTileOptions;
 import org.locationtech.geowave.adapter.vector.util.SimpleFeatureUserDataConfigurationSet;
 import org.locationtech.geowave.core.index.persist.InternalPersistableRegistry;
 import org.locationtech.geowave.core.index.persist.PersistableRegistrySpi;
@@ -40,13 +43,15 @@ public class FeatureAdapterPersistableRegistry implements
         new PersistableIdAndConstructor((short) 504, DataSchemaOptionProvider::new),
         new PersistableIdAndConstructor((short) 505, FeatureSerializationOptionProvider::new),
         new PersistableIdAndConstructor((short) 506, TypeNameOptionProvider::new),
-        // 507-508 are available
+        new PersistableIdAndConstructor((short) 507, VectorTileOptions::new),
+        new PersistableIdAndConstructor((short) 508, VectorTileLayer::new),
         new PersistableIdAndConstructor((short) 509, DistributedRenderOptions::new),
         new PersistableIdAndConstructor((short) 510, CompositeGroupResult::new),
         new PersistableIdAndConstructor((short) 511, DistributedRenderResult::new),
         new PersistableIdAndConstructor((short) 512, PersistableComposite::new),
         new PersistableIdAndConstructor((short) 513, PersistableRenderedImage::new),
-        // 514-520 is available
+        new PersistableIdAndConstructor((short) 514, VectorTileAggregation::new),
+        // 515-520 is available
         new PersistableIdAndConstructor((short) 521, DistributedRenderAggregation::new),
         new PersistableIdAndConstructor((short) 522, SimpleFeatureUserDataConfigurationSet::new),
         // 523 is used by core-geotime
@@ -10,9 +10,9 @@ package org.locationtech.geowave.adapter.vector;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.geotools.data.DataUtilities;
 import org.geotools.feature.SchemaException;
@@ -41,6 +41,7 @@ import org.locationtech.geowave.core.store.api.RowBuilder;
 import org.locationtech.geowave.core.store.data.field.FieldReader;
 import org.locationtech.geowave.core.store.data.field.FieldUtils;
 import org.locationtech.geowave.core.store.data.field.FieldWriter;
+import org.locationtech.geowave.core.store.server.ServerSideShareable;
 import org.locationtech.geowave.core.store.statistics.DefaultStatisticsProvider;
 import org.locationtech.geowave.core.store.statistics.adapter.CountStatistic;
 import org.locationtech.geowave.mapreduce.HadoopDataAdapter;
@@ -66,12 +67,16 @@ import com.beust.jcommander.internal.Lists;
  * feature type contains UserData properties 'start' and 'end' for two different time attributes
  * with value Boolean.TRUE, then the attributes are used for a range index.<br> <br> If the feature
  * type contains a UserData property 'time' for *all* time attributes with Boolean.FALSE, then a
- * temporal index is not used.
+ * temporal index is not used.<br> <br> Once deserialized the adapter is only lazily initialized,
+ * so server-side scans share a single instance rather than parsing the feature type for every
+ * scan. {@link #setNamespace(String)} is only used by the GeoTools data store on its own
+ * instances.
  */
 public class FeatureDataAdapter implements
     GeotoolsFeatureDataAdapter<SimpleFeature>,
     HadoopDataAdapter<SimpleFeature, FeatureWritable>,
-    DefaultStatisticsProvider {
+    DefaultStatisticsProvider,
+    ServerSideShareable {
   private static final Logger LOGGER = LoggerFactory.getLogger(FeatureDataAdapter.class);
   // the original coordinate system will always be represented internally by
   // the persisted type
@@ -176,7 +181,8 @@ public class FeatureDataAdapter implements
 
   // ----------------------------------------------------------------------------------
   /** Map of Field Readers associated with a Field ID */
-  private final Map<String, FieldReader<Object>> mapOfFieldNameToReaders = new HashMap<>();
+  private final Map<String, FieldReader<Object>> mapOfFieldNameToReaders =
+      new ConcurrentHashMap<>();
 
   /**
    * {@inheritDoc}
@@ -185,28 +191,19 @@ public class FeatureDataAdapter implements
    */
   @Override
   public FieldReader<Object> getReader(final String fieldName) {
-    // Go to the map to get a reader for given fieldId
-
-    FieldReader<Object> reader = mapOfFieldNameToReaders.get(fieldName);
-
-    // Check the map to see if a reader has already been found.
-    if (reader == null) {
-      // Reader not in Map, go to the reprojected feature type and get the
-      // default reader
-      final AttributeDescriptor descriptor = featureType.getDescriptor(fieldName);
+    // Go to the map to get a reader for given fieldId, if it isn't there go to the reprojected
+    // feature type and get the default reader
+    return mapOfFieldNameToReaders.computeIfAbsent(fieldName, f -> {
+      final AttributeDescriptor descriptor = featureType.getDescriptor(f);
       final Class<?> bindingClass = descriptor.getType().getBinding();
-      reader = (FieldReader<Object>) FieldUtils.getDefaultReaderForClass(bindingClass);
-
-      // Add it to map for the next time
-      mapOfFieldNameToReaders.put(fieldName, reader);
-    }
-
-    return reader;
+      return (FieldReader<Object>) FieldUtils.getDefaultReaderForClass(bindingClass);
+    });
   }
 
   // ----------------------------------------------------------------------------------
   /** Map of Field Writers associated with a Field ID */
-  private final Map<String, FieldWriter<Object>> mapOfFieldNameToWriters = new HashMap<>();
+  private final Map<String, FieldWriter<Object>> mapOfFieldNameToWriters =
+      new ConcurrentHashMap<>();
 
   /**
    * {@inheritDoc}
@@ -216,22 +213,18 @@ public class FeatureDataAdapter implements
   @Override
   public FieldWriter<Object> getWriter(final String fieldName) {
     // Go to the map to get a writer for given fieldId
-
-    FieldWriter<Object> writer = mapOfFieldNameToWriters.get(fieldName);
-
-    // Check the map to see if a writer has already been found.
-    if (writer == null) {
-      final AttributeDescriptor descriptor = featureType.getDescriptor(fieldName);
+    return mapOfFieldNameToWriters.computeIfAbsent(fieldName, f -> {
+      final AttributeDescriptor descriptor = featureType.getDescriptor(f);
 
       final Class<?> bindingClass = descriptor.getType().getBinding();
-      writer = (FieldWriter<Object>) FieldUtils.getDefaultWriterForClass(bindingClass);
+      final FieldWriter<Object> writer =
+          (FieldWriter<Object>) FieldUtils.getDefaultWriterForClass(bindingClass);
       if (writer == null) {
-        LOGGER.error("BasicWriter not found for binding type:" + bindingClass.getName().toString());
+        LOGGER.error(
+            "BasicWriter not found for binding type:" + bindingClass.getName().toString());
       }
-
-      mapOfFieldNameToWriters.put(fieldName, writer);
-    }
-    return writer;
+      return writer;
+    });
   }
 
   @Override
@@ -11,6 +11,7 @@ package org.locationtech.geowave.adapter.vector.cli;
 import org.locationtech.geowave.adapter.vector.delete.CQLDelete;
 import org.locationtech.geowave.adapter.vector.export.VectorLocalExportCommand;
 import org.locationtech.geowave.adapter.vector.export.VectorMRExportCommand;
+import org.locationtech.geowave.adapter.vector.tile.VectorTileCommand;
 import org.locationtech.geowave.core.cli.spi.CLIOperationProviderSpi;
 
 public class VectorCLIProvider implements CLIOperationProviderSpi {
@@ -19,7 +20,8 @@ public class VectorCLIProvider implements CLIOperationProviderSpi {
           VectorSection.class,
           VectorLocalExportCommand.class,
           VectorMRExportCommand.class,
-          CQLDelete.class};
+          CQLDelete.class,
+          VectorTileCommand.class};
 
   @Override
   public Class<?>[] getOperations() {
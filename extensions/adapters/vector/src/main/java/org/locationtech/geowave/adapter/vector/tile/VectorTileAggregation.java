@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.tile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.geotools.referencing.CRS;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.geowave.core.store.api.Aggregation;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes simple features into a Mapbox Vector Tile layer. Each feature's default geometry is
+ * projected into the tile, clipped, simplified and quantized as it is aggregated so that only the
+ * encoded tile is returned from the scan. Partial layers from separate scans are merged into a
+ * single layer.
+ */
+public class VectorTileAggregation implements
+    Aggregation<VectorTileOptions, VectorTileLayer, SimpleFeature> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(VectorTileAggregation.class);
+  private VectorTileOptions options;
+  private VectorTileGeometryEncoder encoder = null;
+  private VectorTileLayer layer = null;
+  private SimpleFeatureType transformType = null;
+  private MathTransform transform = null;
+
+  public VectorTileAggregation() {}
+
+  public VectorTileAggregation(final VectorTileOptions options) {
+    this.options = options;
+  }
+
+  @Override
+  public VectorTileOptions getParameters() {
+    return options;
+  }
+
+  @Override
+  public void setParameters(final VectorTileOptions options) {
+    this.options = options;
+    encoder = null;
+  }
+
+  @Override
+  public VectorTileLayer getResult() {
+    if (layer == null) {
+      return new VectorTileLayer(options.getLayerName(), options.getExtent());
+    }
+    return layer;
+  }
+
+  @Override
+  public byte[] resultToBinary(final VectorTileLayer result) {
+    return result.toBinary();
+  }
+
+  @Override
+  public VectorTileLayer resultFromBinary(final byte[] binary) {
+    final VectorTileLayer result = new VectorTileLayer();
+    result.fromBinary(binary);
+    return result;
+  }
+
+  @Override
+  public void clearResult() {
+    layer = null;
+  }
+
+  @Override
+  public void aggregate(final DataTypeAdapter<SimpleFeature> adapter, final SimpleFeature entry) {
+    Geometry geometry = (Geometry) entry.getDefaultGeometry();
+    if (geometry == null) {
+      return;
+    }
+    if (encoder == null) {
+      encoder = new VectorTileGeometryEncoder(options);
+    }
+    final MathTransform featureTransform = getTransform(entry.getFeatureType());
+    if (featureTransform != null) {
+      geometry = GeometryUtils.crsTransform(geometry, featureTransform);
+      if (geometry == null) {
+        return;
+      }
+    }
+    final Geometry tileGeometry = encoder.toTileGeometry(geometry);
+    if (tileGeometry == null) {
+      return;
+    }
+    final int geometryType = VectorTileGeometryEncoder.getGeometryType(tileGeometry);
+    final int[] commands = encoder.encode(tileGeometry);
+    if ((geometryType == 0) || (commands == null)) {
+      return;
+    }
+    if (layer == null) {
+      layer =
+          new VectorTileLayer(
+              options.getLayerName() == null ? adapter.getTypeName() : options.getLayerName(),
+              options.getExtent());
+    }
+    layer.addFeature(getId(entry), getProperties(entry), geometryType, commands);
+  }
+
+  private Map<String, Object> getProperties(final SimpleFeature entry) {
+    final Map<String, Object> properties = new LinkedHashMap<>();
+    if (options.getAttributes() != null) {
+      for (final String attribute : options.getAttributes()) {
+        properties.put(attribute, entry.getAttribute(attribute));
+      }
+    } else {
+      for (final AttributeDescriptor descriptor : entry.getFeatureType().getAttributeDescriptors()) {
+        if (!(descriptor instanceof GeometryDescriptor)) {
+          properties.put(descriptor.getLocalName(), entry.getAttribute(descriptor.getName()));
+        }
+      }
+    }
+    return properties;
+  }
+
+  private static Long getId(final SimpleFeature entry) {
+    // vector tile feature IDs are unsigned integers so only numeric feature IDs are kept
+    final String id = entry.getID();
+    if ((id != null) && !id.isEmpty() && id.chars().allMatch(Character::isDigit)) {
+      try {
+        return Long.parseLong(id);
+      } catch (final NumberFormatException e) {
+        LOGGER.trace("Feature ID is out of range", e);
+      }
+    }
+    return null;
+  }
+
+  private MathTransform getTransform(final SimpleFeatureType type) {
+    if (type != transformType) {
+      transformType = type;
+      transform = null;
+      final CoordinateReferenceSystem crs = type.getCoordinateReferenceSystem();
+      if ((crs != null) && !GeometryUtils.isDefaultCrs(crs)) {
+        try {
+          transform = CRS.findMathTransform(crs, GeometryUtils.getDefaultCRS(), true);
+        } catch (final FactoryException e) {
+          LOGGER.warn("Unable to transform features to EPSG:4326 for vector tile encoding", e);
+        }
+      }
+    }
+    return transform;
+  }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.tile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.locationtech.geowave.adapter.vector.cli.VectorSection;
+import org.locationtech.geowave.core.cli.annotations.GeowaveOperation;
+import org.locationtech.geowave.core.cli.api.OperationParams;
+import org.locationtech.geowave.core.cli.api.ServiceEnabledCommand;
+import org.locationtech.geowave.core.store.cli.CLIUtils;
+import org.locationtech.geowave.core.store.cli.store.DataStorePluginOptions;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+
+@GeowaveOperation(name = "tile", parentOperation = VectorSection.class)
+@Parameters(commandDescription = "Generate a Mapbox Vector Tile from a vector type")
+public class VectorTileCommand extends ServiceEnabledCommand<String> {
+  @Parameter(description = "<store name>")
+  private List<String> parameters = new ArrayList<>();
+
+  @Parameter(
+      names = "--typeName",
+      required = true,
+      description = "The type to generate the tile from")
+  private String typeName;
+
+  @Parameter(names = {"-z", "--zoom"}, required = true, description = "The zoom level of the tile")
+  private int zoom;
+
+  @Parameter(names = {"-x", "--x"}, required = true, description = "The column of the tile")
+  private int x;
+
+  @Parameter(
+      names = {"-y", "--y"},
+      required = true,
+      description = "The row of the tile, counted from the top")
+  private int y;
+
+  @Parameter(names = "--extent", description = "The number of tile units along each side")
+  private int extent = VectorTileOptions.DEFAULT_EXTENT;
+
+  @Parameter(names = "--buffer", description = "The tile units outside of the tile to include")
+  private int buffer = VectorTileOptions.DEFAULT_BUFFER;
+
+  @Parameter(
+      names = "--tolerance",
+      description = "The simplification tolerance in tile units, 0 disables simplification")
+  private double tolerance = VectorTileOptions.DEFAULT_SIMPLIFICATION_TOLERANCE;
+
+  @Parameter(names = "--layerName", description = "The layer name, defaults to the type name")
+  private String layerName;
+
+  @Parameter(
+      names = "--attributes",
+      description = "Comma separated list of attributes to include, defaults to all attributes")
+  private List<String> attributes;
+
+  @Parameter(names = "--indexName", description = "The index to query")
+  private String indexName;
+
+  @Parameter(names = "--cql", description = "Filter the features of the tile with a CQL filter")
+  private String cql;
+
+  @Parameter(
+      names = {"-o", "--outputFile"},
+      description = "The file to write the tile to, if not specified the tile is output as base64")
+  private File outputFile;
+
+  @Override
+  public void execute(final OperationParams params) throws Exception {
+    final String result = computeResults(params);
+    if (outputFile == null) {
+      params.getConsole().println(result);
+    } else {
+      params.getConsole().println("Wrote tile to '" + outputFile.getAbsolutePath() + "'");
+    }
+  }
+
+  /** @return the tile as a base64 string */
+  @Override
+  public String computeResults(final OperationParams params) throws IOException {
+    if (parameters.size() != 1) {
+      throw new ParameterException("Requires arguments: <store name>");
+    }
+    final DataStorePluginOptions storeOptions =
+        CLIUtils.loadStore(parameters.get(0), getGeoWaveConfigFile(params), params.getConsole());
+    final VectorTileQuery query =
+        new VectorTileQuery(typeName, zoom, x, y).extent(extent).buffer(
+            buffer).simplificationTolerance(tolerance).layerName(layerName).indexName(
+                indexName).cql(cql);
+    if ((attributes != null) && !attributes.isEmpty()) {
+      query.attributes(attributes.toArray(new String[attributes.size()]));
+    }
+    final byte[] tile = query.execute(storeOptions.createDataStore());
+    if (outputFile != null) {
+      Files.write(outputFile.toPath(), tile);
+    }
+    return Base64.getEncoder().encodeToString(tile);
+  }
+
+  public void setParameters(final String storeName) {
+    parameters = new ArrayList<>();
+    parameters.add(storeName);
+  }
+
+  public void setTypeName(final String typeName) {
+    this.typeName = typeName;
+  }
+
+  public void setZoom(final int zoom) {
+    this.zoom = zoom;
+  }
+
+  public void setX(final int x) {
+    this.x = x;
+  }
+
+  public void setY(final int y) {
+    this.y = y;
+  }
+
+  public void setCql(final String cql) {
+    this.cql = cql;
+  }
+
+  public void setOutputFile(final File outputFile) {
+    this.outputFile = outputFile;
+  }
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.tile;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.TopologyException;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Projects EPSG:4326 geometries into the coordinate space of a single vector tile, clips them to
+ * the buffered tile, simplifies them and encodes them as quantized MVT geometry commands.
+ */
+public class VectorTileGeometryEncoder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(VectorTileGeometryEncoder.class);
+  private static final int MOVE_TO = 1;
+  private static final int LINE_TO = 2;
+  private static final int CLOSE_PATH = 7;
+
+  private final VectorTileOptions options;
+  private final Envelope clipEnvelope;
+
+  public VectorTileGeometryEncoder(final VectorTileOptions options) {
+    this.options = options;
+    clipEnvelope =
+        new Envelope(
+            -options.getBuffer(),
+            options.getExtent() + options.getBuffer(),
+            -options.getBuffer(),
+            options.getExtent() + options.getBuffer());
+  }
+
+  /**
+   * @param geometry a geometry
+   * @return the MVT geometry type of the geometry, or 0 if it can't be encoded as a single type
+   */
+  public static int getGeometryType(final Geometry geometry) {
+    switch (geometry.getDimension()) {
+      case 0:
+        return VectorTileLayer.GEOMETRY_TYPE_POINT;
+      case 1:
+        return VectorTileLayer.GEOMETRY_TYPE_LINESTRING;
+      case 2:
+        return VectorTileLayer.GEOMETRY_TYPE_POLYGON;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Project a geometry into tile coordinates, clip it to the buffered tile and simplify it.
+   *
+   * @param geometry the geometry in EPSG:4326
+   * @return the geometry in tile coordinates or null if nothing of it is within the tile
+   */
+  public Geometry toTileGeometry(final Geometry geometry) {
+    if ((geometry == null) || geometry.isEmpty()) {
+      return null;
+    }
+    final Geometry tileGeometry = geometry.copy();
+    tileGeometry.apply(new CoordinateSequenceFilter() {
+      @Override
+      public void filter(final CoordinateSequence seq, final int i) {
+        seq.setOrdinate(i, 0, options.longitudeToTile(seq.getX(i)));
+        seq.setOrdinate(i, 1, options.latitudeToTile(seq.getY(i)));
+      }
+
+      @Override
+      public boolean isDone() {
+        return false;
+      }
+
+      @Override
+      public boolean isGeometryChanged() {
+        return true;
+      }
+    });
+    // a tile feature has a single geometry type so mixed collections keep their highest dimension
+    final Geometry homogeneous = extract(tileGeometry, tileGeometry.getDimension());
+    Geometry clipped = homogeneous == null ? null : clip(homogeneous);
+    if ((clipped == null) || clipped.isEmpty()) {
+      return null;
+    }
+    if ((options.getSimplificationTolerance() > 0) && (clipped.getDimension() > 0)) {
+      clipped = DouglasPeuckerSimplifier.simplify(clipped, options.getSimplificationTolerance());
+    }
+    return clipped.isEmpty() ? null : clipped;
+  }
+
+  private Geometry clip(final Geometry geometry) {
+    final Envelope envelope = geometry.getEnvelopeInternal();
+    if (clipEnvelope.contains(envelope)) {
+      return geometry;
+    } else if (!clipEnvelope.intersects(envelope)) {
+      return null;
+    }
+    final Geometry clipGeometry = geometry.getFactory().toGeometry(clipEnvelope);
+    try {
+      return extract(geometry.intersection(clipGeometry), geometry.getDimension());
+    } catch (final TopologyException e) {
+      LOGGER.debug("Unable to clip geometry, attempting to clip its buffer", e);
+      try {
+        // a zero width buffer repairs most invalid polygons
+        return extract(geometry.buffer(0).intersection(clipGeometry), geometry.getDimension());
+      } catch (final TopologyException e2) {
+        LOGGER.warn("Unable to clip geometry to vector tile", e2);
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Clipping can produce lower dimension parts where a geometry touches the clip boundary, only the
+   * parts with the dimension of the original geometry are kept.
+   */
+  private static Geometry extract(final Geometry geometry, final int dimension) {
+    if (!GeometryCollection.class.equals(geometry.getClass())) {
+      return geometry.getDimension() == dimension ? geometry : null;
+    }
+    final List<Geometry> parts = new ArrayList<>();
+    addParts(geometry, dimension, parts);
+    return parts.isEmpty() ? null : geometry.getFactory().buildGeometry(parts);
+  }
+
+  private static void addParts(
+      final Geometry geometry,
+      final int dimension,
+      final List<Geometry> parts) {
+    for (int i = 0; i < geometry.getNumGeometries(); i++) {
+      final Geometry part = geometry.getGeometryN(i);
+      if (part instanceof GeometryCollection) {
+        addParts(part, dimension, parts);
+      } else if (!part.isEmpty() && (part.getDimension() == dimension)) {
+        parts.add(part);
+      }
+    }
+  }
+
+  /**
+   * Quantize a geometry in tile coordinates to integers and encode it as MVT geometry commands.
+   *
+   * @param tileGeometry the geometry in tile coordinates
+   * @return the geometry commands or null if nothing remains of the geometry after quantization
+   */
+  public int[] encode(final Geometry tileGeometry) {
+    final CommandWriter writer = new CommandWriter();
+    for (int i = 0; i < tileGeometry.getNumGeometries(); i++) {
+      final Geometry part = tileGeometry.getGeometryN(i);
+      if (part instanceof Point) {
+        writer.addPoint(part.getCoordinate());
+      } else if (part instanceof LineString) {
+        writer.addLine(quantize(part.getCoordinates(), false));
+      } else if (part instanceof Polygon) {
+        final Polygon polygon = (Polygon) part;
+        final List<int[]> exterior = quantize(polygon.getExteriorRing().getCoordinates(), true);
+        // a polygon whose shell collapses is dropped along with its holes
+        if (writer.addRing(exterior, true)) {
+          for (int r = 0; r < polygon.getNumInteriorRing(); r++) {
+            writer.addRing(quantize(polygon.getInteriorRingN(r).getCoordinates(), true), false);
+          }
+        }
+      }
+    }
+    return writer.toCommands();
+  }
+
+  private static List<int[]> quantize(final Coordinate[] coordinates, final boolean ring) {
+    final List<int[]> points = new ArrayList<>(coordinates.length);
+    int[] previous = null;
+    for (final Coordinate coordinate : coordinates) {
+      final int[] point =
+          new int[] {(int) Math.round(coordinate.x), (int) Math.round(coordinate.y)};
+      if ((previous == null) || (previous[0] != point[0]) || (previous[1] != point[1])) {
+        points.add(point);
+        previous = point;
+      }
+    }
+    if (ring && (points.size() > 1)) {
+      // the closing point is implied by the close path command
+      final int[] first = points.get(0);
+      final int[] last = points.get(points.size() - 1);
+      if ((first[0] == last[0]) && (first[1] == last[1])) {
+        points.remove(points.size() - 1);
+      }
+    }
+    return points;
+  }
+
+  /** Writes commands with parameters relative to a cursor that carries across parts. */
+  private static class CommandWriter {
+    private final List<Integer> commands = new ArrayList<>();
+    private final List<int[]> points = new ArrayList<>();
+    private int cursorX = 0;
+    private int cursorY = 0;
+
+    private void addPoint(final Coordinate coordinate) {
+      points.add(new int[] {(int) Math.round(coordinate.x), (int) Math.round(coordinate.y)});
+    }
+
+    private void addLine(final List<int[]> line) {
+      if (line.size() < 2) {
+        return;
+      }
+      writeCommand(MOVE_TO, 1);
+      writePoint(line.get(0));
+      writeCommand(LINE_TO, line.size() - 1);
+      for (int i = 1; i < line.size(); i++) {
+        writePoint(line.get(i));
+      }
+    }
+
+    private boolean addRing(final List<int[]> ring, final boolean exterior) {
+      if (ring.size() < 3) {
+        return false;
+      }
+      final long area = area(ring);
+      if (area == 0) {
+        return false;
+      }
+      // in tile coordinates, with y pointing down, exterior rings have a positive area and
+      // interior rings have a negative area
+      if ((area > 0) != exterior) {
+        final List<int[]> reversed = new ArrayList<>(ring.size());
+        for (int i = ring.size() - 1; i >= 0; i--) {
+          reversed.add(ring.get(i));
+        }
+        return addRing(reversed, exterior);
+      }
+      writeCommand(MOVE_TO, 1);
+      writePoint(ring.get(0));
+      writeCommand(LINE_TO, ring.size() - 1);
+      for (int i = 1; i < ring.size(); i++) {
+        writePoint(ring.get(i));
+      }
+      writeCommand(CLOSE_PATH, 1);
+      return true;
+    }
+
+    private static long area(final List<int[]> ring) {
+      long area = 0;
+      for (int i = 0; i < ring.size(); i++) {
+        final int[] p1 = ring.get(i);
+        final int[] p2 = ring.get((i + 1) % ring.size());
+        area += ((long) p1[0] * p2[1]) - ((long) p2[0] * p1[1]);
+      }
+      return area;
+    }
+
+    private void writeCommand(final int id, final int count) {
+      commands.add((id & 0x7) | (count << 3));
+    }
+
+    private void writePoint(final int[] point) {
+      final int dx = point[0] - cursorX;
+      final int dy = point[1] - cursorY;
+      commands.add((dx << 1) ^ (dx >> 31));
+      commands.add((dy << 1) ^ (dy >> 31));
+      cursorX = point[0];
+      cursorY = point[1];
+    }
+
+    private int[] toCommands() {
+      if (!points.isEmpty()) {
+        // all points of a multi-point share a single move to command
+        writeCommand(MOVE_TO, points.size());
+        for (final int[] point : points) {
+          writePoint(point);
+        }
+      }
+      return commands.isEmpty() ? null : commands.stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+}
@@ -0,0 +1,468 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.tile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.VarintUtils;
+
+/**
+ * A single layer of a Mapbox Vector Tile. Features are kept with their geometry commands already
+ * encoded in tile coordinates, so merging partial layers only has to remap the shared key and value
+ * tables. The binary form of a layer is a complete MVT (version 2) protobuf containing only this
+ * layer.
+ */
+public class VectorTileLayer implements Mergeable {
+  public static final int GEOMETRY_TYPE_POINT = 1;
+  public static final int GEOMETRY_TYPE_LINESTRING = 2;
+  public static final int GEOMETRY_TYPE_POLYGON = 3;
+
+  private static final int VERSION = 2;
+  // protobuf field numbers from the vector tile specification
+  private static final int TILE_LAYERS = 3;
+  private static final int LAYER_VERSION = 15;
+  private static final int LAYER_NAME = 1;
+  private static final int LAYER_FEATURES = 2;
+  private static final int LAYER_KEYS = 3;
+  private static final int LAYER_VALUES = 4;
+  private static final int LAYER_EXTENT = 5;
+  private static final int FEATURE_ID = 1;
+  private static final int FEATURE_TAGS = 2;
+  private static final int FEATURE_TYPE = 3;
+  private static final int FEATURE_GEOMETRY = 4;
+  private static final int VALUE_STRING = 1;
+  private static final int VALUE_FLOAT = 2;
+  private static final int VALUE_DOUBLE = 3;
+  private static final int VALUE_INT = 4;
+  private static final int VALUE_UINT = 5;
+  private static final int VALUE_SINT = 6;
+  private static final int VALUE_BOOL = 7;
+  // protobuf wire types
+  private static final int WIRE_VARINT = 0;
+  private static final int WIRE_FIXED64 = 1;
+  private static final int WIRE_LENGTH_DELIMITED = 2;
+  private static final int WIRE_FIXED32 = 5;
+
+  private String name;
+  private int extent;
+  private final List<String> keys = new ArrayList<>();
+  private final Map<String, Integer> keyIndices = new HashMap<>();
+  private final List<Object> values = new ArrayList<>();
+  private final Map<Object, Integer> valueIndices = new HashMap<>();
+  private final List<Feature> features = new ArrayList<>();
+
+  public VectorTileLayer() {
+    this(null, VectorTileOptions.DEFAULT_EXTENT);
+  }
+
+  public VectorTileLayer(final String name, final int extent) {
+    this.name = name;
+    this.extent = extent;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getExtent() {
+    return extent;
+  }
+
+  public List<Feature> getFeatures() {
+    return Collections.unmodifiableList(features);
+  }
+
+  public boolean isEmpty() {
+    return features.isEmpty();
+  }
+
+  /**
+   * Add a feature to the layer.
+   *
+   * @param id the feature ID or null if the feature has no numeric ID
+   * @param properties the feature properties, null values are skipped
+   * @param geometryType the MVT geometry type
+   * @param geometry the MVT geometry commands
+   */
+  public void addFeature(
+      final Long id,
+      final Map<String, Object> properties,
+      final int geometryType,
+      final int[] geometry) {
+    final List<Integer> tags = new ArrayList<>(properties.size() * 2);
+    for (final Entry<String, Object> property : properties.entrySet()) {
+      final Object value = toTileValue(property.getValue());
+      if ((property.getKey() != null) && (value != null)) {
+        tags.add(getKeyIndex(property.getKey()));
+        tags.add(getValueIndex(value));
+      }
+    }
+    features.add(
+        new Feature(
+            id,
+            tags.stream().mapToInt(Integer::intValue).toArray(),
+            geometryType,
+            geometry));
+  }
+
+  /**
+   * Get the properties of a feature in this layer.
+   *
+   * @param feature a feature of this layer
+   * @return the properties of the feature
+   */
+  public Map<String, Object> getProperties(final Feature feature) {
+    final Map<String, Object> properties = new HashMap<>();
+    for (int i = 0; (i + 1) < feature.tags.length; i += 2) {
+      properties.put(keys.get(feature.tags[i]), values.get(feature.tags[i + 1]));
+    }
+    return properties;
+  }
+
+  @Override
+  public void merge(final Mergeable merge) {
+    if (merge instanceof VectorTileLayer) {
+      final VectorTileLayer other = (VectorTileLayer) merge;
+      if (name == null) {
+        name = other.name;
+        extent = other.extent;
+      }
+      for (final Feature feature : other.features) {
+        final int[] tags = new int[feature.tags.length];
+        for (int i = 0; (i + 1) < tags.length; i += 2) {
+          tags[i] = getKeyIndex(other.keys.get(feature.tags[i]));
+          tags[i + 1] = getValueIndex(other.values.get(feature.tags[i + 1]));
+        }
+        features.add(new Feature(feature.id, tags, feature.type, feature.geometry));
+      }
+    }
+  }
+
+  private int getKeyIndex(final String key) {
+    return keyIndices.computeIfAbsent(key, k -> {
+      keys.add(k);
+      return keys.size() - 1;
+    });
+  }
+
+  private int getValueIndex(final Object value) {
+    return valueIndices.computeIfAbsent(value, v -> {
+      values.add(v);
+      return values.size() - 1;
+    });
+  }
+
+  /**
+   * Normalize a property value to one of the types a vector tile value can hold so that equal
+   * values share an entry in the value table.
+   */
+  private static Object toTileValue(final Object value) {
+    if ((value == null)
+        || (value instanceof String)
+        || (value instanceof Boolean)
+        || (value instanceof Double)
+        || (value instanceof Float)
+        || (value instanceof Long)) {
+      return value;
+    } else if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+      return ((Number) value).longValue();
+    } else if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    } else if (value instanceof Date) {
+      return ((Date) value).getTime();
+    }
+    return value.toString();
+  }
+
+  @Override
+  public byte[] toBinary() {
+    if (features.isEmpty()) {
+      // a tile with no layers
+      return new byte[0];
+    }
+    final ProtobufWriter layer = new ProtobufWriter();
+    layer.writeVarint(LAYER_VERSION, VERSION);
+    layer.writeString(LAYER_NAME, name == null ? "" : name);
+    for (final Feature feature : features) {
+      final ProtobufWriter featureWriter = new ProtobufWriter();
+      if (feature.id != null) {
+        featureWriter.writeVarint(FEATURE_ID, feature.id);
+      }
+      featureWriter.writePacked(FEATURE_TAGS, feature.tags);
+      featureWriter.writeVarint(FEATURE_TYPE, feature.type);
+      featureWriter.writePacked(FEATURE_GEOMETRY, feature.geometry);
+      layer.writeBytes(LAYER_FEATURES, featureWriter.toByteArray());
+    }
+    for (final String key : keys) {
+      layer.writeString(LAYER_KEYS, key);
+    }
+    for (final Object value : values) {
+      final ProtobufWriter valueWriter = new ProtobufWriter();
+      if (value instanceof String) {
+        valueWriter.writeString(VALUE_STRING, (String) value);
+      } else if (value instanceof Float) {
+        valueWriter.writeFixed32(VALUE_FLOAT, Float.floatToIntBits((Float) value));
+      } else if (value instanceof Double) {
+        valueWriter.writeFixed64(VALUE_DOUBLE, Double.doubleToLongBits((Double) value));
+      } else if (value instanceof Long) {
+        final long l = (Long) value;
+        valueWriter.writeVarint(VALUE_SINT, (l << 1) ^ (l >> 63));
+      } else if (value instanceof Boolean) {
+        valueWriter.writeVarint(VALUE_BOOL, ((Boolean) value) ? 1 : 0);
+      }
+      layer.writeBytes(LAYER_VALUES, valueWriter.toByteArray());
+    }
+    layer.writeVarint(LAYER_EXTENT, extent);
+    final ProtobufWriter tile = new ProtobufWriter();
+    tile.writeBytes(TILE_LAYERS, layer.toByteArray());
+    return tile.toByteArray();
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    name = null;
+    extent = VectorTileOptions.DEFAULT_EXTENT;
+    keys.clear();
+    keyIndices.clear();
+    values.clear();
+    valueIndices.clear();
+    features.clear();
+    final ByteBuffer tile = ByteBuffer.wrap(bytes);
+    while (tile.hasRemaining()) {
+      final int tag = VarintUtils.readUnsignedInt(tile);
+      if (((tag >>> 3) == TILE_LAYERS) && ((tag & 0x7) == WIRE_LENGTH_DELIMITED)) {
+        // a result only ever holds a single layer
+        readLayer(readLengthDelimited(tile));
+        return;
+      }
+      skip(tile, tag & 0x7);
+    }
+  }
+
+  private void readLayer(final ByteBuffer layer) {
+    while (layer.hasRemaining()) {
+      final int tag = VarintUtils.readUnsignedInt(layer);
+      switch (tag >>> 3) {
+        case LAYER_NAME:
+          name = StringUtils.stringFromBinary(readBytes(layer));
+          break;
+        case LAYER_FEATURES:
+          features.add(readFeature(readLengthDelimited(layer)));
+          break;
+        case LAYER_KEYS:
+          // tags reference the position in the table so duplicates must be kept
+          final String key = StringUtils.stringFromBinary(readBytes(layer));
+          keyIndices.putIfAbsent(key, keys.size());
+          keys.add(key);
+          break;
+        case LAYER_VALUES:
+          final Object value = readValue(readLengthDelimited(layer));
+          valueIndices.putIfAbsent(value, values.size());
+          values.add(value);
+          break;
+        case LAYER_EXTENT:
+          extent = (int) VarintUtils.readUnsignedLong(layer);
+          break;
+        default:
+          skip(layer, tag & 0x7);
+      }
+    }
+  }
+
+  private static Feature readFeature(final ByteBuffer feature) {
+    Long id = null;
+    int[] tags = new int[0];
+    int type = 0;
+    int[] geometry = new int[0];
+    while (feature.hasRemaining()) {
+      final int tag = VarintUtils.readUnsignedInt(feature);
+      switch (tag >>> 3) {
+        case FEATURE_ID:
+          id = VarintUtils.readUnsignedLong(feature);
+          break;
+        case FEATURE_TAGS:
+          tags = readPacked(readLengthDelimited(feature));
+          break;
+        case FEATURE_TYPE:
+          type = (int) VarintUtils.readUnsignedLong(feature);
+          break;
+        case FEATURE_GEOMETRY:
+          geometry = readPacked(readLengthDelimited(feature));
+          break;
+        default:
+          skip(feature, tag & 0x7);
+      }
+    }
+    return new Feature(id, tags, type, geometry);
+  }
+
+  private static Object readValue(final ByteBuffer value) {
+    Object retVal = null;
+    while (value.hasRemaining()) {
+      final int tag = VarintUtils.readUnsignedInt(value);
+      switch (tag >>> 3) {
+        case VALUE_STRING:
+          retVal = StringUtils.stringFromBinary(readBytes(value));
+          break;
+        case VALUE_FLOAT:
+          retVal = value.order(ByteOrder.LITTLE_ENDIAN).getFloat();
+          break;
+        case VALUE_DOUBLE:
+          retVal = value.order(ByteOrder.LITTLE_ENDIAN).getDouble();
+          break;
+        case VALUE_INT:
+        case VALUE_UINT:
+          retVal = VarintUtils.readUnsignedLong(value);
+          break;
+        case VALUE_SINT:
+          final long l = VarintUtils.readUnsignedLong(value);
+          retVal = (l >>> 1) ^ -(l & 1);
+          break;
+        case VALUE_BOOL:
+          retVal = VarintUtils.readUnsignedLong(value) != 0;
+          break;
+        default:
+          skip(value, tag & 0x7);
+      }
+    }
+    return retVal;
+  }
+
+  private static int[] readPacked(final ByteBuffer packed) {
+    final List<Integer> values = new ArrayList<>();
+    while (packed.hasRemaining()) {
+      values.add((int) VarintUtils.readUnsignedLong(packed));
+    }
+    return values.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static byte[] readBytes(final ByteBuffer buf) {
+    return ByteArrayUtils.safeRead(buf, VarintUtils.readUnsignedInt(buf));
+  }
+
+  private static ByteBuffer readLengthDelimited(final ByteBuffer buf) {
+    return ByteBuffer.wrap(readBytes(buf));
+  }
+
+  private static void skip(final ByteBuffer buf, final int wireType) {
+    switch (wireType) {
+      case WIRE_VARINT:
+        VarintUtils.readUnsignedLong(buf);
+        break;
+      case WIRE_FIXED64:
+        buf.position(buf.position() + 8);
+        break;
+      case WIRE_LENGTH_DELIMITED:
+        final int length = VarintUtils.readUnsignedInt(buf);
+        buf.position(buf.position() + length);
+        break;
+      case WIRE_FIXED32:
+        buf.position(buf.position() + 4);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported protobuf wire type " + wireType);
+    }
+  }
+
+  /** A feature of the layer with its tags referencing the layer's key and value tables. */
+  public static class Feature {
+    private final Long id;
+    private final int[] tags;
+    private final int type;
+    private final int[] geometry;
+
+    private Feature(final Long id, final int[] tags, final int type, final int[] geometry) {
+      this.id = id;
+      this.tags = tags;
+      this.type = type;
+      this.geometry = geometry;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public int getType() {
+      return type;
+    }
+
+    public int[] getGeometry() {
+      return geometry;
+    }
+  }
+
+  /** The subset of the protobuf wire format needed to write a vector tile. */
+  private static class ProtobufWriter {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private void writeTag(final int field, final int wireType) {
+      writeRawVarint((field << 3) | wireType);
+    }
+
+    private void writeRawVarint(final long value) {
+      final byte[] bytes = VarintUtils.writeUnsignedLong(value);
+      out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeVarint(final int field, final long value) {
+      writeTag(field, WIRE_VARINT);
+      writeRawVarint(value);
+    }
+
+    private void writeFixed32(final int field, final int value) {
+      writeTag(field, WIRE_FIXED32);
+      final byte[] bytes =
+          ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+      out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeFixed64(final int field, final long value) {
+      writeTag(field, WIRE_FIXED64);
+      final byte[] bytes =
+          ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array();
+      out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeBytes(final int field, final byte[] bytes) {
+      writeTag(field, WIRE_LENGTH_DELIMITED);
+      writeRawVarint(bytes.length);
+      out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeString(final int field, final String value) {
+      writeBytes(field, StringUtils.stringToBinary(value));
+    }
+
+    private void writePacked(final int field, final int[] values) {
+      if (values.length > 0) {
+        final ProtobufWriter packed = new ProtobufWriter();
+        for (final int value : values) {
+          // geometry commands and tags are uint32
+          packed.writeRawVarint(value & 0xFFFFFFFFL);
+        }
+        writeBytes(field, packed.toByteArray());
+      }
+    }
+
+    private byte[] toByteArray() {
+      return out.toByteArray();
+    }
+  }
+}
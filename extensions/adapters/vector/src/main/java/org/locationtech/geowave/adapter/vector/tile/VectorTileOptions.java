@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.tile;
+
+import java.nio.ByteBuffer;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * The parameters of a vector tile aggregation. Tiles are addressed by zoom level and column and row
+ * in the web mercator tiling scheme with the origin at the top left.
+ */
+public class VectorTileOptions implements Persistable {
+  public static final int DEFAULT_EXTENT = 4096;
+  public static final int DEFAULT_BUFFER = 64;
+  public static final double DEFAULT_SIMPLIFICATION_TOLERANCE = 1.0;
+  // the latitude at which the web mercator projection is square
+  private static final double MAX_LATITUDE = 85.0511287798066;
+
+  private int zoom;
+  private int x;
+  private int y;
+  private int extent = DEFAULT_EXTENT;
+  private int buffer = DEFAULT_BUFFER;
+  private double simplificationTolerance = DEFAULT_SIMPLIFICATION_TOLERANCE;
+  private String layerName = null;
+  private String[] attributes = null;
+
+  public VectorTileOptions() {}
+
+  public VectorTileOptions(final int zoom, final int x, final int y) {
+    this.zoom = zoom;
+    this.x = x;
+    this.y = y;
+  }
+
+  public int getZoom() {
+    return zoom;
+  }
+
+  public void setZoom(final int zoom) {
+    this.zoom = zoom;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public void setX(final int x) {
+    this.x = x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  public void setY(final int y) {
+    this.y = y;
+  }
+
+  /** @return the number of tile units along each side of the tile */
+  public int getExtent() {
+    return extent;
+  }
+
+  public void setExtent(final int extent) {
+    this.extent = extent;
+  }
+
+  /** @return the number of tile units outside of the tile that geometries are clipped to */
+  public int getBuffer() {
+    return buffer;
+  }
+
+  public void setBuffer(final int buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * @return the Douglas-Peucker tolerance in tile units, a tolerance of 0 disables simplification
+   */
+  public double getSimplificationTolerance() {
+    return simplificationTolerance;
+  }
+
+  public void setSimplificationTolerance(final double simplificationTolerance) {
+    this.simplificationTolerance = simplificationTolerance;
+  }
+
+  /** @return the name of the tile layer, or null to use the type name */
+  public String getLayerName() {
+    return layerName;
+  }
+
+  public void setLayerName(final String layerName) {
+    this.layerName = layerName;
+  }
+
+  /** @return the attributes to encode as feature properties, or null to encode all attributes */
+  public String[] getAttributes() {
+    return attributes;
+  }
+
+  public void setAttributes(final String[] attributes) {
+    this.attributes = attributes;
+  }
+
+  /**
+   * Get the longitude and latitude bounds of the tile, including the buffer.
+   *
+   * @return the bounds of the tile in EPSG:4326
+   */
+  public Envelope getBufferedEnvelope() {
+    final double bufferTiles = (double) buffer / extent;
+    return new Envelope(
+        tileToLongitude(x - bufferTiles),
+        tileToLongitude(x + 1 + bufferTiles),
+        tileToLatitude(y + 1 + bufferTiles),
+        tileToLatitude(y - bufferTiles));
+  }
+
+  /**
+   * @param longitude the longitude in degrees
+   * @return the horizontal position in tile units relative to the left edge of the tile
+   */
+  public double longitudeToTile(final double longitude) {
+    return ((((longitude + 180.0) / 360.0) * (1L << zoom)) - x) * extent;
+  }
+
+  /**
+   * @param latitude the latitude in degrees
+   * @return the vertical position in tile units relative to the top edge of the tile
+   */
+  public double latitudeToTile(final double latitude) {
+    final double lat = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+    final double mercator = Math.log(Math.tan(lat) + (1.0 / Math.cos(lat)));
+    return ((((1.0 - (mercator / Math.PI)) / 2.0) * (1L << zoom)) - y) * extent;
+  }
+
+  private double tileToLongitude(final double tileX) {
+    return Math.max(-180.0, Math.min(180.0, ((tileX / (1L << zoom)) * 360.0) - 180.0));
+  }
+
+  private double tileToLatitude(final double tileY) {
+    final double n = Math.PI - ((2.0 * Math.PI * tileY) / (1L << zoom));
+    return Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, Math.toDegrees(Math.atan(Math.sinh(n)))));
+  }
+
+  @Override
+  public byte[] toBinary() {
+    final byte[] layerNameBinary =
+        layerName == null ? new byte[0] : StringUtils.stringToBinary(layerName);
+    final byte[] attributesBinary =
+        attributes == null ? new byte[0] : StringUtils.stringsToBinary(attributes);
+    final ByteBuffer buf =
+        ByteBuffer.allocate(
+            VarintUtils.unsignedIntByteLength(zoom)
+                + VarintUtils.unsignedIntByteLength(x)
+                + VarintUtils.unsignedIntByteLength(y)
+                + VarintUtils.unsignedIntByteLength(extent)
+                + VarintUtils.unsignedIntByteLength(buffer)
+                + 8
+                + 2
+                + VarintUtils.unsignedIntByteLength(layerNameBinary.length)
+                + layerNameBinary.length
+                + VarintUtils.unsignedIntByteLength(attributesBinary.length)
+                + attributesBinary.length);
+    VarintUtils.writeUnsignedInt(zoom, buf);
+    VarintUtils.writeUnsignedInt(x, buf);
+    VarintUtils.writeUnsignedInt(y, buf);
+    VarintUtils.writeUnsignedInt(extent, buf);
+    VarintUtils.writeUnsignedInt(buffer, buf);
+    buf.putDouble(simplificationTolerance);
+    buf.put((byte) (layerName == null ? 0 : 1));
+    buf.put((byte) (attributes == null ? 0 : 1));
+    VarintUtils.writeUnsignedInt(layerNameBinary.length, buf);
+    buf.put(layerNameBinary);
+    VarintUtils.writeUnsignedInt(attributesBinary.length, buf);
+    buf.put(attributesBinary);
+    return buf.array();
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    final ByteBuffer buf = ByteBuffer.wrap(bytes);
+    zoom = VarintUtils.readUnsignedInt(buf);
+    x = VarintUtils.readUnsignedInt(buf);
+    y = VarintUtils.readUnsignedInt(buf);
+    extent = VarintUtils.readUnsignedInt(buf);
+    buffer = VarintUtils.readUnsignedInt(buf);
+    simplificationTolerance = buf.getDouble();
+    final boolean layerNameStored = buf.get() != 0;
+    final boolean attributesStored = buf.get() != 0;
+    final byte[] layerNameBinary = ByteArrayUtils.safeRead(buf, VarintUtils.readUnsignedInt(buf));
+    final byte[] attributesBinary = ByteArrayUtils.safeRead(buf, VarintUtils.readUnsignedInt(buf));
+    layerName = layerNameStored ? StringUtils.stringFromBinary(layerNameBinary) : null;
+    attributes = attributesStored ? StringUtils.stringsFromBinary(attributesBinary) : null;
+  }
+}
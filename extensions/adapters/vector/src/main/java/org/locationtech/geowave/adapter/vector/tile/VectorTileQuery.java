@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.tile;
+
+import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
+import org.locationtech.geowave.core.geotime.store.query.api.VectorAggregationQueryBuilder;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.geowave.core.store.api.AggregationQuery;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.jts.geom.Envelope;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Builds and executes the aggregation query for a single vector tile of a GeoWave vector type, for
+ * example:
+ *
+ * <pre>
+ * byte[] mvt = new VectorTileQuery("gdeltevent", 5, 9, 12).cql("eventType = 'A'").execute(store);
+ * </pre>
+ *
+ * <p> The query is constrained to the buffered bounds of the tile and the features are encoded into
+ * the tile within the scan, so only the encoded tile is returned.
+ */
+public class VectorTileQuery {
+  private final String typeName;
+  private final VectorTileOptions options;
+  private String indexName = null;
+  private String cql = null;
+  private String[] authorizations = new String[0];
+
+  public VectorTileQuery(final String typeName, final int zoom, final int x, final int y) {
+    this.typeName = typeName;
+    options = new VectorTileOptions(zoom, x, y);
+  }
+
+  public VectorTileQuery extent(final int extent) {
+    options.setExtent(extent);
+    return this;
+  }
+
+  public VectorTileQuery buffer(final int buffer) {
+    options.setBuffer(buffer);
+    return this;
+  }
+
+  public VectorTileQuery simplificationTolerance(final double simplificationTolerance) {
+    options.setSimplificationTolerance(simplificationTolerance);
+    return this;
+  }
+
+  public VectorTileQuery layerName(final String layerName) {
+    options.setLayerName(layerName);
+    return this;
+  }
+
+  public VectorTileQuery attributes(final String... attributes) {
+    options.setAttributes(attributes);
+    return this;
+  }
+
+  public VectorTileQuery indexName(final String indexName) {
+    this.indexName = indexName;
+    return this;
+  }
+
+  public VectorTileQuery cql(final String cql) {
+    this.cql = cql;
+    return this;
+  }
+
+  public VectorTileQuery authorizations(final String... authorizations) {
+    this.authorizations = authorizations;
+    return this;
+  }
+
+  public VectorTileOptions getOptions() {
+    return options;
+  }
+
+  /**
+   * Build the aggregation query for the tile.
+   *
+   * @param dataStore the data store, used to look up the geometry attribute when a CQL filter is
+   *        combined with the tile bounds
+   * @return the aggregation query
+   */
+  public AggregationQuery<VectorTileOptions, VectorTileLayer, SimpleFeature> buildQuery(
+      final DataStore dataStore) {
+    final VectorAggregationQueryBuilder<VectorTileOptions, VectorTileLayer> bldr =
+        VectorAggregationQueryBuilder.newBuilder();
+    bldr.setAuthorizations(authorizations);
+    if (indexName != null) {
+      bldr.indexName(indexName);
+    }
+    bldr.aggregate(typeName, new VectorTileAggregation(options));
+    final Envelope envelope = options.getBufferedEnvelope();
+    if ((cql == null) || cql.trim().isEmpty()) {
+      bldr.constraints(
+          bldr.constraintsFactory().spatialTemporalConstraints().spatialConstraints(
+              GeometryUtils.GEOMETRY_FACTORY.toGeometry(envelope)).build());
+    } else {
+      bldr.constraints(
+          bldr.constraintsFactory().cqlConstraints(
+              "BBOX(\""
+                  + getGeometryAttribute(dataStore)
+                  + "\", "
+                  + envelope.getMinX()
+                  + ", "
+                  + envelope.getMinY()
+                  + ", "
+                  + envelope.getMaxX()
+                  + ", "
+                  + envelope.getMaxY()
+                  + ") AND ("
+                  + cql
+                  + ")"));
+    }
+    return bldr.build();
+  }
+
+  /**
+   * Execute the query and encode the result.
+   *
+   * @param dataStore the data store to query
+   * @return the Mapbox Vector Tile protobuf, which has no layers if no features are in the tile
+   */
+  public byte[] execute(final DataStore dataStore) {
+    final VectorTileLayer layer = dataStore.aggregate(buildQuery(dataStore));
+    return layer == null ? new byte[0] : layer.toBinary();
+  }
+
+  private String getGeometryAttribute(final DataStore dataStore) {
+    final DataTypeAdapter<?> adapter = dataStore.getType(typeName);
+    if (!(adapter instanceof GeotoolsFeatureDataAdapter)) {
+      throw new IllegalArgumentException("'" + typeName + "' is not a vector type");
+    }
+    return ((GeotoolsFeatureDataAdapter<?>) adapter).getFeatureType().getGeometryDescriptor()
+        .getLocalName();
+  }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.tile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.Map;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.adapter.vector.FeatureDataAdapter;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class VectorTileAggregationTest {
+  private final GeometryFactory factory = new GeometryFactory();
+  private SimpleFeatureType type;
+  private FeatureDataAdapter adapter;
+
+  @Before
+  public void setup() {
+    final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName("test");
+    typeBuilder.setCRS(GeometryUtils.getDefaultCRS());
+    typeBuilder.add("geom", Geometry.class);
+    typeBuilder.add("name", String.class);
+    typeBuilder.add("count", Integer.class);
+    type = typeBuilder.buildFeatureType();
+    adapter = new FeatureDataAdapter(type);
+  }
+
+  private SimpleFeature feature(
+      final String id,
+      final Geometry geometry,
+      final String name,
+      final Integer count) {
+    return SimpleFeatureBuilder.build(type, new Object[] {geometry, name, count}, id);
+  }
+
+  @Test
+  public void testPoint() {
+    final VectorTileAggregation aggregation =
+        new VectorTileAggregation(new VectorTileOptions(0, 0, 0));
+    aggregation.aggregate(
+        adapter,
+        feature("12", factory.createPoint(new Coordinate(0, 0)), "center", 3));
+
+    final VectorTileLayer layer = aggregation.getResult();
+    assertEquals("test", layer.getName());
+    assertEquals(1, layer.getFeatures().size());
+    final VectorTileLayer.Feature feature = layer.getFeatures().get(0);
+    assertEquals(Long.valueOf(12), feature.getId());
+    assertEquals(VectorTileLayer.GEOMETRY_TYPE_POINT, feature.getType());
+    // a single move to the center of the tile, with zig-zag encoded parameters
+    assertArrayEquals(new int[] {9, 4096, 4096}, feature.getGeometry());
+    final Map<String, Object> properties = layer.getProperties(feature);
+    assertEquals("center", properties.get("name"));
+    assertEquals(3L, properties.get("count"));
+  }
+
+  @Test
+  public void testFeaturesOutsideOfTileAreDropped() {
+    final VectorTileAggregation aggregation =
+        new VectorTileAggregation(new VectorTileOptions(1, 0, 0));
+    aggregation.aggregate(
+        adapter,
+        feature("a", factory.createPoint(new Coordinate(90, -45)), "outside", 1));
+    assertTrue(aggregation.getResult().isEmpty());
+    assertEquals(0, aggregation.resultToBinary(aggregation.getResult()).length);
+  }
+
+  @Test
+  public void testPolygonIsClipped() {
+    final VectorTileOptions options = new VectorTileOptions(2, 1, 1);
+    final VectorTileAggregation aggregation = new VectorTileAggregation(options);
+    aggregation.aggregate(
+        adapter,
+        feature("a", factory.toGeometry(new Envelope(-170, 170, -80, 80)), "world", null));
+
+    final VectorTileLayer.Feature feature = aggregation.getResult().getFeatures().get(0);
+    assertNull(feature.getId());
+    assertEquals(VectorTileLayer.GEOMETRY_TYPE_POLYGON, feature.getType());
+    assertEquals(1, aggregation.getResult().getProperties(feature).size());
+    final int[] geometry = feature.getGeometry();
+    // move to, line to for the remaining 3 corners and close path
+    assertEquals(11, geometry.length);
+    assertEquals(9, geometry[0]);
+    assertEquals((3 << 3) | 2, geometry[3]);
+    assertEquals(15, geometry[10]);
+    // the polygon covers the tile so every corner is clipped to the buffer
+    final int[] xs = new int[4];
+    final int[] ys = new int[4];
+    int x = 0;
+    int y = 0;
+    int corner = 0;
+    for (final int i : new int[] {1, 4, 6, 8}) {
+      x += (geometry[i] >>> 1) ^ -(geometry[i] & 1);
+      y += (geometry[i + 1] >>> 1) ^ -(geometry[i + 1] & 1);
+      assertTrue((x == -options.getBuffer()) || (x == (options.getExtent() + options.getBuffer())));
+      assertTrue((y == -options.getBuffer()) || (y == (options.getExtent() + options.getBuffer())));
+      xs[corner] = x;
+      ys[corner++] = y;
+    }
+    // the exterior ring must have a positive area in tile coordinates
+    long area = 0;
+    for (int i = 0; i < 4; i++) {
+      area += ((long) xs[i] * ys[(i + 1) % 4]) - ((long) xs[(i + 1) % 4] * ys[i]);
+    }
+    assertTrue(area > 0);
+  }
+
+  @Test
+  public void testMergeAndBinary() {
+    final VectorTileOptions options = new VectorTileOptions(2, 1, 1);
+    options.setLayerName("layer");
+    final VectorTileAggregation aggregation1 = new VectorTileAggregation(options);
+    final VectorTileAggregation aggregation2 = new VectorTileAggregation(options);
+    aggregation1.aggregate(
+        adapter,
+        feature(
+            "1",
+            factory.createLineString(
+                new Coordinate[] {new Coordinate(-80, 10), new Coordinate(-10, 60)}),
+            "line",
+            1));
+    aggregation2.aggregate(
+        adapter,
+        feature("2", factory.createPoint(new Coordinate(-45, 45)), "point", 1));
+    aggregation2.aggregate(
+        adapter,
+        feature("3", factory.createPoint(new Coordinate(-50, 40)), "line", 2));
+
+    final VectorTileLayer merged =
+        aggregation1.merge(
+            aggregation1.resultFromBinary(aggregation1.resultToBinary(aggregation1.getResult())),
+            aggregation2.resultFromBinary(aggregation2.resultToBinary(aggregation2.getResult())));
+    final VectorTileLayer result = aggregation1.resultFromBinary(merged.toBinary());
+    assertEquals("layer", result.getName());
+    assertEquals(options.getExtent(), result.getExtent());
+    assertEquals(3, result.getFeatures().size());
+    assertEquals(VectorTileLayer.GEOMETRY_TYPE_LINESTRING, result.getFeatures().get(0).getType());
+    assertEquals(Long.valueOf(1), result.getFeatures().get(0).getId());
+    assertEquals("line", result.getProperties(result.getFeatures().get(0)).get("name"));
+    assertEquals(1L, result.getProperties(result.getFeatures().get(0)).get("count"));
+    assertEquals("point", result.getProperties(result.getFeatures().get(1)).get("name"));
+    assertEquals(1L, result.getProperties(result.getFeatures().get(1)).get("count"));
+    assertEquals("line", result.getProperties(result.getFeatures().get(2)).get("name"));
+    assertEquals(2L, result.getProperties(result.getFeatures().get(2)).get("count"));
+    assertArrayEquals(
+        merged.getFeatures().get(2).getGeometry(),
+        result.getFeatures().get(2).getGeometry());
+  }
+
+  @Test
+  public void testOptionsBinary() {
+    final VectorTileOptions options = new VectorTileOptions(10, 300, 400);
+    options.setExtent(512);
+    options.setBuffer(8);
+    options.setSimplificationTolerance(0.5);
+    options.setAttributes(new String[] {"name"});
+    final VectorTileOptions result = new VectorTileOptions();
+    result.fromBinary(options.toBinary());
+    assertEquals(10, result.getZoom());
+    assertEquals(300, result.getX());
+    assertEquals(400, result.getY());
+    assertEquals(512, result.getExtent());
+    assertEquals(8, result.getBuffer());
+    assertEquals(0.5, result.getSimplificationTolerance(), 0.0);
+    assertNull(result.getLayerName());
+    assertArrayEquals(new String[] {"name"}, result.getAttributes());
+  }
+}
@@ -33,6 +33,7 @@ import org.locationtech.geowave.core.store.data.PersistentDataset;
 import org.locationtech.geowave.core.store.flatten.FlattenedUnreadData;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
 import org.locationtech.geowave.core.store.index.IndexImpl;
+import org.locationtech.geowave.core.store.server.ServerSideObjectCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -183,16 +184,25 @@ public class AggregationIterator extends ExceptionHandlingFilter {
       final String parameterStr = options.get(PARAMETER_OPTION_NAME);
       if ((parameterStr != null) && !parameterStr.isEmpty()) {
         final byte[] parameterBytes = ByteArrayUtils.byteArrayFromString(parameterStr);
+        // aggregation parameters are not known to be safe to share between scans
         final Persistable aggregationParams = PersistenceUtils.fromBinary(parameterBytes);
         aggregationFunction.setParameters(aggregationParams);
       }
       if (options.containsKey(ADAPTER_OPTION_NAME)) {
         final String adapterStr = options.get(ADAPTER_OPTION_NAME);
         final byte[] adapterBytes = ByteArrayUtils.byteArrayFromString(adapterStr);
-        adapter = (InternalDataAdapter) PersistenceUtils.fromBinary(adapterBytes);
+        adapter =
+            ServerSideObjectCache.getInstance().get(
+                adapterBytes,
+                InternalDataAdapter.class,
+                b -> (InternalDataAdapter) PersistenceUtils.fromBinary(b));
         final String mappingStr = options.get(ADAPTER_INDEX_MAPPING_OPTION_NAME);
         final byte[] mappingBytes = ByteArrayUtils.byteArrayFromString(mappingStr);
-        indexMapping = (AdapterToIndexMapping) PersistenceUtils.fromBinary(mappingBytes);
+        indexMapping =
+            ServerSideObjectCache.getInstance().get(
+                mappingBytes,
+                AdapterToIndexMapping.class,
+                b -> (AdapterToIndexMapping) PersistenceUtils.fromBinary(b));
       }
     } catch (final Exception e) {
       throw new IllegalArgumentException(e);
@@ -33,6 +33,7 @@ import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
 import org.locationtech.geowave.core.store.flatten.FlattenedUnreadData;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
 import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+import org.locationtech.geowave.core.store.server.ServerSideObjectCache;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.locationtech.geowave.mapreduce.URLClassloaderUtils;
 import org.slf4j.Logger;
@@ -218,12 +219,20 @@ public class QueryFilterIterator extends ExceptionHandlingFilter {
       if (options.containsKey(FILTER)) {
         final String filterStr = options.get(FILTER);
         final byte[] filterBytes = ByteArrayUtils.byteArrayFromString(filterStr);
-        filter = (QueryFilter) URLClassloaderUtils.fromBinary(filterBytes);
+        filter =
+            ServerSideObjectCache.getInstance().get(
+                filterBytes,
+                QueryFilter.class,
+                b -> (QueryFilter) URLClassloaderUtils.fromBinary(b));
       }
       if (options.containsKey(MODEL)) {
         final String modelStr = options.get(MODEL);
         final byte[] modelBytes = ByteArrayUtils.byteArrayFromString(modelStr);
-        model = (CommonIndexModel) URLClassloaderUtils.fromBinary(modelBytes);
+        model =
+            ServerSideObjectCache.getInstance().get(
+                modelBytes,
+                CommonIndexModel.class,
+                b -> (CommonIndexModel) URLClassloaderUtils.fromBinary(b));
         commonIndexFieldNames = DataStoreUtils.getUniqueDimensionFields(model);
       }
       if (options.containsKey(PARTITION_KEY_LENGTH)) {
@@ -35,6 +35,12 @@ public class FileSystemOptions extends StoreFactoryOptions {
           + "\" which is a compact geowave serialization.  Use `geowave util filesystem listformats` to see available formats.")
   private String format = "binary";
 
+  @Parameter(
+      names = "--segments",
+      arity = 1,
+      description = "Whether to store index and data index rows in sorted, immutable segment files rather than one file per row.  Rows are buffered in memory and written as a segment when the buffer fills or the writer is flushed, and small segments are merged in the background.  The file names and contents of the rows are still produced by the format.  Defaults to false.")
+  private boolean segments = false;
+
   @ParametersDelegate
   protected BaseDataStoreOptions baseOptions = new BaseDataStoreOptions() {
     @Override
@@ -66,6 +72,14 @@ public class FileSystemOptions extends StoreFactoryOptions {
     this.format = format;
   }
 
+  public boolean isSegments() {
+    return segments;
+  }
+
+  public void setSegments(final boolean segments) {
+    this.segments = segments;
+  }
+
   @Override
   public void validatePluginOptions(final Console console) throws ParameterException {
     // Set the directory to be absolute
@@ -52,6 +52,7 @@ public class FileSystemOperations implements MapReduceDataStoreOperations, Close
   private final String directory;
   private final boolean visibilityEnabled;
   private final String format;
+  private final boolean useSegments;
 
   public FileSystemOperations(final FileSystemOptions options) {
     if ((options.getGeoWaveNamespace() == null)
@@ -64,8 +65,14 @@ public class FileSystemOperations implements MapReduceDataStoreOperations, Close
 
     visibilityEnabled = options.getStoreOptions().isVisibilityEnabled();
     format = options.getFormat();
+    useSegments = options.isSegments();
     // a factory method for accessing filesystem directories
-    client = FileSystemClientCache.getInstance().getClient(directory, format, visibilityEnabled);
+    client =
+        FileSystemClientCache.getInstance().getClient(
+            directory,
+            format,
+            visibilityEnabled,
+            useSegments);
   }
 
   @Override
@@ -225,6 +232,7 @@ public class FileSystemOperations implements MapReduceDataStoreOperations, Close
     final FileSystemDataIndexTable table =
         FileSystemUtils.getDataIndexTable(client, adapterId, typeName);
     Arrays.stream(dataIds).forEach(d -> table.deleteDataId(d));
+    table.flush();
   }
 
   @Override
@@ -243,6 +251,6 @@ public class FileSystemOperations implements MapReduceDataStoreOperations, Close
 
   @Override
   public void close() {
-    FileSystemClientCache.getInstance().close(directory, format, visibilityEnabled);
+    FileSystemClientCache.getInstance().close(directory, format, visibilityEnabled, useSegments);
   }
 }
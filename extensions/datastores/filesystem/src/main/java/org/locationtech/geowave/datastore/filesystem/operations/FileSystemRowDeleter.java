@@ -66,6 +66,7 @@ public class FileSystemRowDeleter implements RowDeleter {
 
   @Override
   public void close() {
+    flush();
     tableCache.invalidateAll();
   }
 
@@ -112,5 +113,7 @@ public class FileSystemRowDeleter implements RowDeleter {
   }
 
   @Override
-  public void flush() {}
+  public void flush() {
+    tableCache.asMap().values().forEach(FileSystemIndexTable::flush);
+  }
 }
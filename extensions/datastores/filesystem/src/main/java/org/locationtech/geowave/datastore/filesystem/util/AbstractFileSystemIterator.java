@@ -18,8 +18,10 @@ import java.util.function.Function;
 import org.apache.commons.lang3.tuple.Pair;
 import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.datastore.filesystem.util.FileSystemSegment.SegmentRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.google.common.collect.Iterators;
 import com.google.common.primitives.UnsignedBytes;
 
 public abstract class AbstractFileSystemIterator<T> implements CloseableIterator<T> {
@@ -27,6 +29,8 @@ public abstract class AbstractFileSystemIterator<T> implements CloseableIterator
   // this is a memoized supplier to support lazy evaluation because readRow actually relies on
   // member variables set in child constructors
   final Iterator<Pair<FileSystemKey, Path>> iterator;
+  // the rows when the table is stored in segments rather than one file per row
+  final Iterator<Pair<FileSystemKey, byte[]>> segmentIterator;
   boolean closed = false;
 
   public AbstractFileSystemIterator(
@@ -51,6 +55,7 @@ public abstract class AbstractFileSystemIterator<T> implements CloseableIterator
             endKey,
             endKeyInclusive,
             fileNameToKey).iterator();
+    segmentIterator = null;
   }
 
   public AbstractFileSystemIterator(
@@ -61,6 +66,18 @@ public abstract class AbstractFileSystemIterator<T> implements CloseableIterator
     iterator =
         FileSystemUtils.getSortedSet(subDirectory, fileNameToKey).stream().filter(
             p -> inRanges(ranges, p.getKey().getSortOrderKey())).iterator();
+    segmentIterator = null;
+  }
+
+  public AbstractFileSystemIterator(
+      final Iterator<SegmentRow> rows,
+      final Function<String, FileSystemKey> fileNameToKey) {
+    super();
+    iterator = null;
+    segmentIterator =
+        Iterators.transform(
+            rows,
+            r -> Pair.of(fileNameToKey.apply(r.getFileName()), r.getContents()));
   }
 
   private static boolean inRanges(final Collection<ByteArrayRange> ranges, final byte[] key) {
@@ -87,6 +104,9 @@ public abstract class AbstractFileSystemIterator<T> implements CloseableIterator
 
   @Override
   public boolean hasNext() {
+    if (segmentIterator != null) {
+      return !closed && segmentIterator.hasNext();
+    }
     return !closed && iterator.hasNext();
   }
 
@@ -95,6 +115,10 @@ public abstract class AbstractFileSystemIterator<T> implements CloseableIterator
     if (closed) {
       throw new NoSuchElementException();
     }
+    if (segmentIterator != null) {
+      final Pair<FileSystemKey, byte[]> row = segmentIterator.next();
+      return readRow(row.getLeft(), row.getRight());
+    }
     Pair<FileSystemKey, Path> next = iterator.next();
     while (!Files.exists(next.getRight())) {
       if (!iterator.hasNext()) {
@@ -24,24 +24,42 @@ abstract public class AbstractFileSystemTable {
   protected final String typeName;
   protected boolean visibilityEnabled;
   protected FileSystemDataFormatter formatter;
+  private final boolean useSegments;
+  // rows are stored in segment files rather than one file per row if this is set
+  protected FileSystemSegmentStore segments = null;
 
   public AbstractFileSystemTable(
       final short adapterId,
       final String typeName,
       final String format,
-      final boolean visibilityEnabled) throws IOException {
+      final boolean visibilityEnabled,
+      final boolean useSegments) throws IOException {
     super();
     this.adapterId = adapterId;
     this.typeName = typeName;
     this.visibilityEnabled = visibilityEnabled;
+    this.useSegments = useSegments;
     formatter = DataFormatterCache.getInstance().getFormatter(format, visibilityEnabled);
   }
 
   protected void setTableDirectory(final Path tableDirectory) throws IOException {
     this.tableDirectory = Files.createDirectories(tableDirectory);
+    if (useSegments) {
+      segments = new FileSystemSegmentStore(this.tableDirectory);
+    }
   }
 
+  /**
+   * @param fileName the file name of a row
+   * @return the sort order key of the row with this file name
+   */
+  protected abstract byte[] getSortOrderKey(String fileName);
+
   public void deleteFile(final String fileName) {
+    if (segments != null) {
+      segments.delete(getSortOrderKey(fileName), fileName);
+      return;
+    }
     try {
       Files.delete(tableDirectory.resolve(fileName));
     } catch (final IOException e) {
@@ -49,7 +67,20 @@ abstract public class AbstractFileSystemTable {
     }
   }
 
-  protected void writeFile(final String fileName, final byte[] value) {
+  /**
+   * Write any rows that are buffered in memory, this only applies when rows are stored in segments.
+   */
+  public void flush() {
+    if (segments != null) {
+      segments.flush();
+    }
+  }
+
+  protected void writeFile(final byte[] sortOrderKey, final String fileName, final byte[] value) {
+    if (segments != null) {
+      segments.put(sortOrderKey, fileName, value);
+      return;
+    }
     try {
       Files.write(
           tableDirectory.resolve(fileName),
@@ -9,11 +9,14 @@
 package org.locationtech.geowave.datastore.filesystem.util;
 
 import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.function.Function;
 import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
 import org.locationtech.geowave.core.store.entities.GeoWaveValue;
 import org.locationtech.geowave.datastore.filesystem.FileSystemDataFormatter.DataIndexFormatter;
+import org.locationtech.geowave.datastore.filesystem.util.FileSystemSegment.SegmentRow;
 
 public class DataIndexRowIterator extends AbstractFileSystemIterator<GeoWaveRow> {
   private final short adapterId;
@@ -27,17 +30,29 @@ public class DataIndexRowIterator extends AbstractFileSystemIterator<GeoWaveRow>
       final short adapterId,
       final String typeName,
       final DataIndexFormatter formatter) {
-    super(
-        subDirectory,
-        startKey,
-        endKey,
-        true,
-        fileName -> new BasicFileSystemKey(formatter.getDataId(fileName, typeName), fileName));
+    super(subDirectory, startKey, endKey, true, keyFunction(typeName, formatter));
     this.adapterId = adapterId;
     this.typeName = typeName;
     this.formatter = formatter;
   }
 
+  public DataIndexRowIterator(
+      final Iterator<SegmentRow> rows,
+      final short adapterId,
+      final String typeName,
+      final DataIndexFormatter formatter) {
+    super(rows, keyFunction(typeName, formatter));
+    this.adapterId = adapterId;
+    this.typeName = typeName;
+    this.formatter = formatter;
+  }
+
+  private static Function<String, FileSystemKey> keyFunction(
+      final String typeName,
+      final DataIndexFormatter formatter) {
+    return fileName -> new BasicFileSystemKey(formatter.getDataId(fileName, typeName), fileName);
+  }
+
   @Override
   protected GeoWaveRow readRow(final FileSystemKey key, final byte[] value) {
     return new GeoWaveRowImpl(
@@ -202,14 +202,17 @@ public class FileSystemClient {
   private final String subDirectory;
   private final boolean visibilityEnabled;
   private final String format;
+  private final boolean useSegments;
 
   public FileSystemClient(
       final String subDirectory,
       final String format,
-      final boolean visibilityEnabled) {
+      final boolean visibilityEnabled,
+      final boolean useSegments) {
     this.subDirectory = subDirectory;
     this.visibilityEnabled = visibilityEnabled;
     this.format = format;
+    this.useSegments = useSegments;
   }
 
   private FileSystemMetadataTable loadMetadataTable(final MetadataCacheKey key) throws IOException {
@@ -230,7 +233,8 @@ public class FileSystemClient {
         key.partition,
         format,
         key.requiresTimestamp,
-        visibilityEnabled);
+        visibilityEnabled,
+        useSegments);
   }
 
   private FileSystemDataIndexTable loadDataIndexTable(final DataIndexCacheKey key)
@@ -240,7 +244,8 @@ public class FileSystemClient {
         key.adapterId,
         key.typeName,
         format,
-        visibilityEnabled);
+        visibilityEnabled,
+        useSegments);
   }
 
   public String getSubDirectory() {
@@ -293,4 +298,23 @@ public class FileSystemClient {
   public String getFormat() {
     return format;
   }
+
+  public boolean isUseSegments() {
+    return useSegments;
+  }
+
+  /**
+   * Write any rows buffered by the index and data index tables.
+   */
+  public void flush() {
+    indexTableCache.asMap().values().forEach(AbstractFileSystemTable::flush);
+    dataIndexTableCache.asMap().values().forEach(AbstractFileSystemTable::flush);
+  }
+
+  public void close() {
+    flush();
+    indexTableCache.invalidateAll();
+    dataIndexTableCache.invalidateAll();
+    metadataTableCache.invalidateAll();
+  }
 }
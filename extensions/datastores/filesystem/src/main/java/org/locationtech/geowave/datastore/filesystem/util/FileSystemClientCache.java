@@ -26,7 +26,8 @@ public class FileSystemClientCache {
         return new FileSystemClient(
             clientInfo.directory,
             clientInfo.format,
-            clientInfo.visibilityEnabled);
+            clientInfo.visibilityEnabled,
+            clientInfo.useSegments);
       });
 
   protected FileSystemClientCache() {}
@@ -34,22 +35,26 @@ public class FileSystemClientCache {
   public FileSystemClient getClient(
       final String directory,
       final String format,
-      final boolean visibilityEnabled) {
-    return clientCache.get(new ClientKey(directory, format, visibilityEnabled));
+      final boolean visibilityEnabled,
+      final boolean useSegments) {
+    return clientCache.get(new ClientKey(directory, format, visibilityEnabled, useSegments));
   }
 
   public synchronized void close(
       final String directory,
       final String format,
-      final boolean visibilityEnabled) {
-    final ClientKey key = new ClientKey(directory, format, visibilityEnabled);
+      final boolean visibilityEnabled,
+      final boolean useSegments) {
+    final ClientKey key = new ClientKey(directory, format, visibilityEnabled, useSegments);
     final FileSystemClient client = clientCache.getIfPresent(key);
     if (client != null) {
       clientCache.invalidate(key);
+      client.close();
     }
   }
 
   public synchronized void closeAll() {
+    clientCache.asMap().values().forEach(FileSystemClient::close);
     clientCache.invalidateAll();
   }
 
@@ -57,12 +62,18 @@ public class FileSystemClientCache {
     private final String directory;
     private final String format;
     private final boolean visibilityEnabled;
+    private final boolean useSegments;
 
-    public ClientKey(final String directory, final String format, final boolean visibilityEnabled) {
+    public ClientKey(
+        final String directory,
+        final String format,
+        final boolean visibilityEnabled,
+        final boolean useSegments) {
       super();
       this.directory = directory;
       this.format = format;
       this.visibilityEnabled = visibilityEnabled;
+      this.useSegments = useSegments;
     }
 
     @Override
@@ -72,6 +83,7 @@ public class FileSystemClientCache {
       result = (prime * result) + ((directory == null) ? 0 : directory.hashCode());
       result = (prime * result) + ((format == null) ? 0 : format.hashCode());
       result = (prime * result) + (visibilityEnabled ? 1231 : 1237);
+      result = (prime * result) + (useSegments ? 1231 : 1237);
       return result;
     }
 
@@ -104,6 +116,9 @@ public class FileSystemClientCache {
       if (visibilityEnabled != other.visibilityEnabled) {
         return false;
       }
+      if (useSegments != other.useSegments) {
+        return false;
+      }
       return true;
     }
 
@@ -21,6 +21,7 @@ import org.locationtech.geowave.core.store.entities.GeoWaveValue;
 import org.locationtech.geowave.datastore.filesystem.FileSystemDataFormatter.DataIndexFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.google.common.primitives.Bytes;
 
 public class FileSystemDataIndexTable extends AbstractFileSystemTable {
   private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemDataIndexTable.class);
@@ -30,22 +31,41 @@ public class FileSystemDataIndexTable extends AbstractFileSystemTable {
       final short adapterId,
       final String typeName,
       final String format,
-      final boolean visibilityEnabled) throws IOException {
-    super(adapterId, typeName, format, visibilityEnabled);
+      final boolean visibilityEnabled,
+      final boolean useSegments) throws IOException {
+    super(adapterId, typeName, format, visibilityEnabled, useSegments);
     setTableDirectory(
         FileSystemUtils.getSubdirectory(
             subDirectory,
             formatter.getDataIndexFormatter().getDirectoryName(typeName)));
   }
 
+  @Override
+  protected byte[] getSortOrderKey(final String fileName) {
+    return formatter.getDataIndexFormatter().getDataId(fileName, typeName);
+  }
+
   public synchronized void add(final byte[] dataId, final GeoWaveValue value) {
     writeFile(
+        dataId,
         formatter.getDataIndexFormatter().getFileName(typeName, dataId),
         formatter.getDataIndexFormatter().getFileContents(typeName, dataId, value));
   }
 
   public CloseableIterator<GeoWaveRow> dataIndexIterator(final byte[][] dataIds) {
     final DataIndexFormatter dataIndexFormatter = formatter.getDataIndexFormatter();
+    if (segments != null) {
+      return new CloseableIterator.Wrapper<>(Arrays.stream(dataIds).map(dataId -> {
+        final String fileName = dataIndexFormatter.getFileName(typeName, dataId);
+        final byte[] contents = segments.get(dataId, fileName);
+        if (contents == null) {
+          return null;
+        }
+        return (GeoWaveRow) new GeoWaveRowImpl(
+            new GeoWaveKeyImpl(dataId, adapterId, new byte[0], new byte[0], 0),
+            new GeoWaveValue[] {dataIndexFormatter.getValue(fileName, typeName, dataId, contents)});
+      }).filter(Objects::nonNull).iterator());
+    }
     return new CloseableIterator.Wrapper(
         Arrays.stream(dataIds).map(
             // convert to pair with path so the path is only instantiated once (depending on
@@ -80,6 +100,16 @@ public class FileSystemDataIndexTable extends AbstractFileSystemTable {
   public CloseableIterator<GeoWaveRow> dataIndexIterator(
       final byte[] startDataId,
       final byte[] endDataId) {
+    if (segments != null) {
+      // the end data ID is inclusive, and the smallest key after it is the ID with a zero appended
+      return new DataIndexRowIterator(
+          segments.iterator(
+              startDataId,
+              endDataId == null ? null : Bytes.concat(endDataId, new byte[] {0})),
+          adapterId,
+          typeName,
+          formatter.getDataIndexFormatter());
+    }
     return new DataIndexRowIterator(
         tableDirectory,
         startDataId,
@@ -10,7 +10,9 @@ package org.locationtech.geowave.datastore.filesystem.util;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 import org.locationtech.geowave.core.index.ByteArrayRange;
@@ -21,6 +23,7 @@ import org.locationtech.geowave.core.store.entities.GeoWaveValue;
 import org.locationtech.geowave.datastore.filesystem.FileSystemDataFormatter.FileSystemIndexKey;
 import org.locationtech.geowave.datastore.filesystem.FileSystemDataFormatter.FormattedFileInfo;
 import org.locationtech.geowave.datastore.filesystem.FileSystemDataFormatter.IndexFormatter;
+import org.locationtech.geowave.datastore.filesystem.util.FileSystemSegment.SegmentRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.common.primitives.Bytes;
@@ -39,8 +42,9 @@ public class FileSystemIndexTable extends AbstractFileSystemTable {
       final byte[] partitionKey,
       final String format,
       final boolean requiresTimestamp,
-      final boolean visibilityEnabled) throws IOException {
-    super(adapterId, typeName, format, visibilityEnabled);
+      final boolean visibilityEnabled,
+      final boolean useSegments) throws IOException {
+    super(adapterId, typeName, format, visibilityEnabled, useSegments);
     this.requiresTimestamp = requiresTimestamp;
     this.indexName = indexName;
     this.partitionKey = partitionKey;
@@ -55,6 +59,13 @@ public class FileSystemIndexTable extends AbstractFileSystemTable {
 
   public void delete(final byte[] sortKey, final byte[] dataId) {
     final byte[] prefix = Bytes.concat(sortKey, dataId);
+    if (segments != null) {
+      // there can be several rows for a data ID, with different duplicate counts or timestamps
+      final List<SegmentRow> rows = new ArrayList<>();
+      segments.iterator(prefix, ByteArrayUtils.getNextPrefix(prefix)).forEachRemaining(rows::add);
+      rows.forEach(r -> segments.delete(r.getSortOrderKey(), r.getFileName()));
+      return;
+    }
     FileSystemUtils.visit(tableDirectory, prefix, ByteArrayUtils.getNextPrefix(prefix), p -> {
       try {
         Files.delete(p);
@@ -70,26 +81,39 @@ public class FileSystemIndexTable extends AbstractFileSystemTable {
         fileName);
   }
 
+  @Override
+  protected byte[] getSortOrderKey(final String fileName) {
+    return fileNameToKey().apply(fileName).getSortOrderKey();
+  }
+
   public synchronized void add(
       final byte[] sortKey,
       final byte[] dataId,
       final short numDuplicates,
       final GeoWaveValue value) {
+    final FileSystemIndexKey key =
+        new FileSystemIndexKey(
+            sortKey,
+            dataId,
+            requiresTimestamp ? Optional.of(System.currentTimeMillis()) : Optional.empty(),
+            numDuplicates);
     final FormattedFileInfo fileInfo =
-        formatter.getIndexFormatter().format(
-            typeName,
-            indexName,
-            new FileSystemIndexKey(
-                sortKey,
-                dataId,
-                requiresTimestamp ? Optional.of(System.currentTimeMillis()) : Optional.empty(),
-                numDuplicates),
-            value);
-    writeFile(fileInfo.getFileName(), fileInfo.getFileContents());
+        formatter.getIndexFormatter().format(typeName, indexName, key, value);
+    writeFile(key.getSortOrderKey(), fileInfo.getFileName(), fileInfo.getFileContents());
   }
 
 
   public CloseableIterator<GeoWaveRow> iterator() {
+    if (segments != null) {
+      return new FileSystemRowIterator(
+          segments.iterator(null, null),
+          adapterId,
+          typeName,
+          indexName,
+          partitionKey,
+          formatter.getIndexFormatter(),
+          fileNameToKey());
+    }
     return new FileSystemRowIterator(
         tableDirectory,
         null,
@@ -103,6 +127,16 @@ public class FileSystemIndexTable extends AbstractFileSystemTable {
   }
 
   public CloseableIterator<GeoWaveRow> iterator(final Collection<ByteArrayRange> ranges) {
+    if (segments != null) {
+      return new FileSystemRowIterator(
+          segments.iterator(ranges),
+          adapterId,
+          typeName,
+          indexName,
+          partitionKey,
+          formatter.getIndexFormatter(),
+          fileNameToKey());
+    }
     return new FileSystemRowIterator(
         tableDirectory,
         ranges,
@@ -10,12 +10,14 @@ package org.locationtech.geowave.datastore.filesystem.util;
 
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.function.Function;
 import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.datastore.filesystem.FileSystemDataFormatter.FileSystemIndexKey;
 import org.locationtech.geowave.datastore.filesystem.FileSystemDataFormatter.FormattedFileInfo;
 import org.locationtech.geowave.datastore.filesystem.FileSystemDataFormatter.IndexFormatter;
+import org.locationtech.geowave.datastore.filesystem.util.FileSystemSegment.SegmentRow;
 
 public class FileSystemRowIterator extends AbstractFileSystemIterator<GeoWaveRow> {
   private final short adapterId;
@@ -59,6 +61,22 @@ public class FileSystemRowIterator extends AbstractFileSystemIterator<GeoWaveRow
     this.formatter = formatter;
   }
 
+  public FileSystemRowIterator(
+      final Iterator<SegmentRow> rows,
+      final short adapterId,
+      final String typeName,
+      final String indexName,
+      final byte[] partition,
+      final IndexFormatter formatter,
+      final Function<String, FileSystemKey> fileNameToKey) {
+    super(rows, fileNameToKey);
+    this.adapterId = adapterId;
+    this.typeName = typeName;
+    this.indexName = indexName;
+    this.partition = partition;
+    this.formatter = formatter;
+  }
+
   @Override
   protected GeoWaveRow readRow(final FileSystemKey key, final byte[] value) {
     final FileSystemIndexKey indexKey = ((FileSystemIndexKeyWrapper) key).getOriginalKey();
@@ -0,0 +1,368 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.filesystem.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import com.google.common.primitives.UnsignedBytes;
+
+/**
+ * An immutable, sorted file of rows. Each row is stored as its sort order key, the file name it
+ * would have in the one file per row layout, and the file contents, or no contents if the row is a
+ * deletion marker. Every {@link #INDEX_INTERVAL} rows the offset of the row is recorded in a sparse
+ * index at the end of the file, which is held in memory so that a seek only has to scan one
+ * interval of the memory-mapped file.
+ *
+ * <pre>
+ * header: magic (int), version (byte)
+ * row:    key length (int), key, file name length (int), file name (UTF-8), deleted (byte),
+ *         [contents length (int), contents]
+ * index:  key length (int), key, row offset (int)
+ * footer: index offset (int), index count (int), row count (int), magic (int)
+ * </pre>
+ */
+public class FileSystemSegment {
+  public static final String SEGMENT_SUFFIX = ".seg";
+  public static final String TEMP_SUFFIX = ".tmp";
+  private static final int MAGIC = 0x47575347;
+  private static final byte VERSION = 1;
+  private static final int HEADER_LENGTH = 5;
+  private static final int FOOTER_LENGTH = 16;
+  private static final int INDEX_INTERVAL = 64;
+
+  private final Path path;
+  private final long sequence;
+  private final int generation;
+  private final MappedByteBuffer buffer;
+  private final byte[][] indexKeys;
+  private final int[] indexOffsets;
+  private final int rowCount;
+  private final int dataEnd;
+
+  private FileSystemSegment(final Path path, final long sequence, final int generation)
+      throws IOException {
+    this.path = path;
+    this.sequence = sequence;
+    this.generation = generation;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if ((buffer.capacity() < (HEADER_LENGTH + FOOTER_LENGTH))
+        || (buffer.getInt(0) != MAGIC)
+        || (buffer.getInt(buffer.capacity() - 4) != MAGIC)) {
+      throw new IOException("'" + path + "' is not a segment file");
+    }
+    if (buffer.get(4) != VERSION) {
+      throw new IOException("Unsupported segment version " + buffer.get(4) + " in '" + path + "'");
+    }
+    final ByteBuffer footer = buffer.duplicate();
+    footer.position(buffer.capacity() - FOOTER_LENGTH);
+    dataEnd = footer.getInt();
+    final int indexCount = footer.getInt();
+    rowCount = footer.getInt();
+    indexKeys = new byte[indexCount][];
+    indexOffsets = new int[indexCount];
+    final ByteBuffer index = buffer.duplicate();
+    index.position(dataEnd);
+    for (int i = 0; i < indexCount; i++) {
+      indexKeys[i] = new byte[index.getInt()];
+      index.get(indexKeys[i]);
+      indexOffsets[i] = index.getInt();
+    }
+  }
+
+  /**
+   * Open an existing segment file, its sequence and generation are parsed from the file name.
+   *
+   * @param path the segment file
+   * @return the segment
+   * @throws IOException if the file can't be read or is not a segment
+   */
+  public static FileSystemSegment open(final Path path) throws IOException {
+    final String fileName = path.getFileName().toString();
+    final String[] parts =
+        fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()).split("-");
+    try {
+      return new FileSystemSegment(path, Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    } catch (final NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      throw new IOException("'" + path + "' is not a segment file name", e);
+    }
+  }
+
+  /**
+   * @param sequence the sequence of the segment, segments with a higher sequence are newer
+   * @param generation the number of times the rows of the segment have been merged
+   * @return the file name for a segment
+   */
+  public static String getFileName(final long sequence, final int generation) {
+    return String.format("%019d-%d%s", sequence, generation, SEGMENT_SUFFIX);
+  }
+
+  /**
+   * Write rows to a new segment file and open it. The rows are written to a temporary file which is
+   * moved into place once complete, so readers never see a partially written segment.
+   *
+   * @param path the segment file to write, which must not exist
+   * @param sequence the sequence of the segment
+   * @param generation the generation of the segment
+   * @param rows the rows in sort order, a row with null contents is a deletion marker
+   * @return the segment, or null if there were no rows in which case no file is written
+   * @throws IOException if the file could not be written
+   */
+  public static FileSystemSegment write(
+      final Path path,
+      final long sequence,
+      final int generation,
+      final Iterator<SegmentRow> rows) throws IOException {
+    if (!rows.hasNext()) {
+      return null;
+    }
+    final List<byte[]> indexKeys = new ArrayList<>();
+    final List<Integer> indexOffsets = new ArrayList<>();
+    int rowCount = 0;
+    final Path tempPath = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+    try (FileOutputStream fileOut = new FileOutputStream(tempPath.toFile());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 65536))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      while (rows.hasNext()) {
+        final SegmentRow row = rows.next();
+        if ((rowCount++ % INDEX_INTERVAL) == 0) {
+          indexKeys.add(row.getSortOrderKey());
+          indexOffsets.add(out.size());
+        }
+        out.writeInt(row.getSortOrderKey().length);
+        out.write(row.getSortOrderKey());
+        final byte[] fileName = row.getFileName().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(fileName.length);
+        out.write(fileName);
+        if (row.isDeleted()) {
+          out.writeByte(1);
+        } else {
+          out.writeByte(0);
+          out.writeInt(row.getContents().length);
+          out.write(row.getContents());
+        }
+      }
+      final int dataEnd = out.size();
+      for (int i = 0; i < indexKeys.size(); i++) {
+        out.writeInt(indexKeys.get(i).length);
+        out.write(indexKeys.get(i));
+        out.writeInt(indexOffsets.get(i));
+      }
+      out.writeInt(dataEnd);
+      out.writeInt(indexKeys.size());
+      out.writeInt(rowCount);
+      out.writeInt(MAGIC);
+      out.flush();
+      fileOut.getChannel().force(true);
+    }
+    Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+    return new FileSystemSegment(path, sequence, generation);
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public int getGeneration() {
+    return generation;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public long getSize() {
+    return buffer.capacity();
+  }
+
+  /**
+   * @param startKey the sort order key to start at, or null to start at the first row
+   * @return a cursor positioned at the first row with a sort order key at or after the start key
+   */
+  public Cursor seek(final byte[] startKey) {
+    return new Cursor(startKey);
+  }
+
+  /**
+   * Find a row by its sort order key and file name.
+   *
+   * @param sortOrderKey the sort order key
+   * @param fileName the file name
+   * @return the row, which may be a deletion marker, or null if the segment doesn't have the row
+   */
+  public SegmentRow get(final byte[] sortOrderKey, final String fileName) {
+    final Cursor cursor = seek(sortOrderKey);
+    while (cursor.isValid()) {
+      final SegmentRow row = cursor.getRow();
+      final int comp = row.compareTo(sortOrderKey, fileName);
+      if (comp == 0) {
+        return row;
+      } else if (comp > 0) {
+        return null;
+      }
+      cursor.next();
+    }
+    return null;
+  }
+
+  private int findIntervalStart(final byte[] startKey) {
+    if (startKey == null) {
+      return HEADER_LENGTH;
+    }
+    // the last interval that starts strictly before the key, rows with an equal key may start in
+    // the preceding interval
+    int low = 0;
+    int high = indexKeys.length - 1;
+    int result = -1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      if (UnsignedBytes.lexicographicalComparator().compare(indexKeys[mid], startKey) < 0) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return result < 0 ? HEADER_LENGTH : indexOffsets[result];
+  }
+
+  public class Cursor {
+    private final ByteBuffer data;
+    private SegmentRow row;
+
+    private Cursor(final byte[] startKey) {
+      data = buffer.duplicate();
+      data.position(findIntervalStart(startKey));
+      next();
+      if (startKey != null) {
+        while ((row != null)
+            && (UnsignedBytes.lexicographicalComparator().compare(
+                row.getSortOrderKey(),
+                startKey) < 0)) {
+          next();
+        }
+      }
+    }
+
+    public boolean isValid() {
+      return row != null;
+    }
+
+    public SegmentRow getRow() {
+      return row;
+    }
+
+    public void next() {
+      if (data.position() >= dataEnd) {
+        row = null;
+        return;
+      }
+      final byte[] key = new byte[data.getInt()];
+      data.get(key);
+      final byte[] fileName = new byte[data.getInt()];
+      data.get(fileName);
+      byte[] contents = null;
+      if (data.get() == 0) {
+        contents = new byte[data.getInt()];
+        data.get(contents);
+      }
+      row = new SegmentRow(key, new String(fileName, StandardCharsets.UTF_8), contents);
+    }
+  }
+
+  /**
+   * A row of a segment, rows are ordered by sort order key and then file name.
+   */
+  public static class SegmentRow implements Comparable<SegmentRow> {
+    private final byte[] sortOrderKey;
+    private final String fileName;
+    private final byte[] contents;
+
+    public SegmentRow(final byte[] sortOrderKey, final String fileName, final byte[] contents) {
+      this.sortOrderKey = sortOrderKey;
+      this.fileName = fileName;
+      this.contents = contents;
+    }
+
+    public byte[] getSortOrderKey() {
+      return sortOrderKey;
+    }
+
+    public String getFileName() {
+      return fileName;
+    }
+
+    public byte[] getContents() {
+      return contents;
+    }
+
+    public boolean isDeleted() {
+      return contents == null;
+    }
+
+    private int compareTo(final byte[] otherSortOrderKey, final String otherFileName) {
+      final int comp =
+          UnsignedBytes.lexicographicalComparator().compare(sortOrderKey, otherSortOrderKey);
+      if (comp != 0) {
+        return comp;
+      }
+      return fileName.compareTo(otherFileName);
+    }
+
+    @Override
+    public int compareTo(final SegmentRow o) {
+      return compareTo(o.sortOrderKey, o.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = (prime * result) + ((fileName == null) ? 0 : fileName.hashCode());
+      result = (prime * result) + Arrays.hashCode(sortOrderKey);
+      return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null) {
+        return false;
+      }
+      if (getClass() != obj.getClass()) {
+        return false;
+      }
+      final SegmentRow other = (SegmentRow) obj;
+      // contents are intentionally not compared, rows are identified by key and file name
+      return fileName.equals(other.fileName) && Arrays.equals(sortOrderKey, other.sortOrderKey);
+    }
+  }
+}
@@ -0,0 +1,455 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.filesystem.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.ByteArrayRange.MergeOperation;
+import org.locationtech.geowave.datastore.filesystem.util.FileSystemSegment.Cursor;
+import org.locationtech.geowave.datastore.filesystem.util.FileSystemSegment.SegmentRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Stores the rows of a table in sorted, immutable segment files rather than one file per row.
+ * Writes go to an in-memory sorted buffer which is written out as a new segment whenever it fills
+ * or the table is flushed, and deletes are written as deletion markers. Reads merge the buffer with
+ * all segments, with the newest version of a row taking precedence. Once enough small segments
+ * accumulate they are merged in the background into one larger segment.
+ *
+ * <p> A table directory in this layout is only expected to be written by one process at a time.
+ */
+public class FileSystemSegmentStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemSegmentStore.class);
+  public static final long DEFAULT_BUFFER_SIZE = 16L * 1024 * 1024;
+  public static final long DEFAULT_SMALL_SEGMENT_SIZE = 64L * 1024 * 1024;
+  // segment offsets are ints, so merged segments have to stay well under 2GB
+  private static final long MAX_MERGE_SIZE = 512L * 1024 * 1024;
+  private static final int MIN_MERGE_SEGMENTS = 4;
+  private static final ExecutorService MERGE_THREAD =
+      MoreExecutors.getExitingExecutorService((ThreadPoolExecutor) Executors.newFixedThreadPool(1));
+  // newest first, so that for equal rows the newest version is the first polled
+  private static final Comparator<FileSystemSegment> NEWEST_FIRST =
+      Comparator.comparingLong(FileSystemSegment::getSequence).thenComparingInt(
+          FileSystemSegment::getGeneration).reversed();
+
+  private final Path directory;
+  private final long bufferSize;
+  private final long smallSegmentSize;
+  private final Map<Path, FileSystemSegment> segments = new HashMap<>();
+  private ConcurrentSkipListMap<SegmentRow, SegmentRow> buffer = new ConcurrentSkipListMap<>();
+  private long bufferedBytes = 0;
+  private long nextSequence = 0;
+  private FileTime lastListed = null;
+  private final AtomicBoolean mergeScheduled = new AtomicBoolean(false);
+  private final Object mergeMutex = new Object();
+
+  public FileSystemSegmentStore(final Path directory) {
+    this(directory, DEFAULT_BUFFER_SIZE, DEFAULT_SMALL_SEGMENT_SIZE);
+  }
+
+  /**
+   * @param directory the table directory
+   * @param bufferSize the number of bytes of rows to buffer in memory before writing a segment
+   * @param smallSegmentSize segments smaller than this are merged with each other
+   */
+  public FileSystemSegmentStore(
+      final Path directory,
+      final long bufferSize,
+      final long smallSegmentSize) {
+    this.directory = directory;
+    this.bufferSize = bufferSize;
+    this.smallSegmentSize = smallSegmentSize;
+    refresh();
+  }
+
+  public synchronized void put(
+      final byte[] sortOrderKey,
+      final String fileName,
+      final byte[] contents) {
+    put(new SegmentRow(sortOrderKey, fileName, contents));
+  }
+
+  public synchronized void delete(final byte[] sortOrderKey, final String fileName) {
+    put(new SegmentRow(sortOrderKey, fileName, null));
+  }
+
+  private void put(final SegmentRow row) {
+    final SegmentRow previous = buffer.put(row, row);
+    bufferedBytes += size(row) - (previous == null ? 0 : size(previous));
+    if (bufferedBytes >= bufferSize) {
+      flush();
+    }
+  }
+
+  private static long size(final SegmentRow row) {
+    return row.getSortOrderKey().length
+        + row.getFileName().length()
+        + (row.isDeleted() ? 0 : row.getContents().length);
+  }
+
+  /**
+   * Write any buffered rows to a new segment.
+   */
+  public synchronized void flush() {
+    if (buffer.isEmpty()) {
+      return;
+    }
+    try {
+      refresh();
+      Path path = directory.resolve(FileSystemSegment.getFileName(nextSequence, 0));
+      while (Files.exists(path)) {
+        path = directory.resolve(FileSystemSegment.getFileName(++nextSequence, 0));
+      }
+      final FileSystemSegment segment =
+          FileSystemSegment.write(path, nextSequence++, 0, buffer.values().iterator());
+      segments.put(segment.getPath(), segment);
+      // readers may still be iterating the previous buffer so it is replaced rather than cleared
+      buffer = new ConcurrentSkipListMap<>();
+      bufferedBytes = 0;
+      scheduleMerge();
+    } catch (final IOException e) {
+      LOGGER.error("Unable to write segment to '" + directory + "'", e);
+    }
+  }
+
+  private void scheduleMerge() {
+    if ((selectMerge(sortedSegments()).size() >= MIN_MERGE_SEGMENTS)
+        && mergeScheduled.compareAndSet(false, true)) {
+      MERGE_THREAD.submit(() -> {
+        try {
+          mergeSegments();
+        } finally {
+          mergeScheduled.set(false);
+        }
+      });
+    }
+  }
+
+  /**
+   * Merge the newest run of small segments into one segment, if there are enough of them. Only a
+   * contiguous run of the newest segments is merged so that the merged segment can take the place
+   * of the run in the order of segments. Deletion markers are dropped if the run includes the
+   * oldest segment because there is no older version of the row left for them to hide.
+   *
+   * @return whether segments were merged
+   */
+  public boolean mergeSegments() {
+    synchronized (mergeMutex) {
+      return mergeNewestSmallSegments();
+    }
+  }
+
+  private boolean mergeNewestSmallSegments() {
+    final List<FileSystemSegment> inputs;
+    final boolean includesOldest;
+    synchronized (this) {
+      refresh();
+      final List<FileSystemSegment> sorted = sortedSegments();
+      inputs = selectMerge(sorted);
+      if (inputs.size() < MIN_MERGE_SEGMENTS) {
+        return false;
+      }
+      includesOldest = inputs.size() == sorted.size();
+    }
+    final FileSystemSegment newest = inputs.get(0);
+    final int generation =
+        inputs.stream().mapToInt(FileSystemSegment::getGeneration).max().getAsInt() + 1;
+    final FileSystemSegment merged;
+    try {
+      merged =
+          FileSystemSegment.write(
+              directory.resolve(FileSystemSegment.getFileName(newest.getSequence(), generation)),
+              newest.getSequence(),
+              generation,
+              new MergedRows(
+                  inputs.stream().map(s -> rows(s, null)).collect(Collectors.toList()),
+                  null,
+                  !includesOldest));
+    } catch (final IOException e) {
+      LOGGER.warn("Unable to merge segments in '" + directory + "'", e);
+      return false;
+    }
+    synchronized (this) {
+      inputs.forEach(s -> segments.remove(s.getPath()));
+      if (merged != null) {
+        segments.put(merged.getPath(), merged);
+      }
+    }
+    // the files are memory-mapped so readers that are still using them are unaffected
+    for (final FileSystemSegment input : inputs) {
+      try {
+        Files.deleteIfExists(input.getPath());
+      } catch (final IOException e) {
+        LOGGER.warn("Unable to delete merged segment '" + input.getPath() + "'", e);
+      }
+    }
+    return true;
+  }
+
+  private List<FileSystemSegment> selectMerge(final List<FileSystemSegment> sorted) {
+    final List<FileSystemSegment> run = new ArrayList<>();
+    long totalSize = 0;
+    for (final FileSystemSegment segment : sorted) {
+      if ((segment.getSize() >= smallSegmentSize)
+          || ((totalSize + segment.getSize()) > MAX_MERGE_SIZE)) {
+        break;
+      }
+      run.add(segment);
+      totalSize += segment.getSize();
+    }
+    return run;
+  }
+
+  /**
+   * Pick up segments that were written or merged by another store on the same directory. The
+   * directory is only listed if its modification time has changed since the last listing.
+   */
+  private void refresh() {
+    try {
+      final FileTime modified = Files.getLastModifiedTime(directory);
+      if (modified.equals(lastListed)) {
+        return;
+      }
+      final List<Path> paths;
+      try (Stream<Path> files = Files.list(directory)) {
+        paths =
+            files.filter(
+                p -> p.getFileName().toString().endsWith(FileSystemSegment.SEGMENT_SUFFIX)).collect(
+                    Collectors.toList());
+      }
+      segments.keySet().retainAll(paths);
+      for (final Path path : paths) {
+        if (!segments.containsKey(path)) {
+          try {
+            segments.put(path, FileSystemSegment.open(path));
+          } catch (final NoSuchFileException e) {
+            // it was merged in the meantime
+          } catch (final IOException e) {
+            LOGGER.warn("Unable to open segment '" + path + "'", e);
+          }
+        }
+      }
+      for (final FileSystemSegment segment : segments.values()) {
+        nextSequence = Math.max(nextSequence, segment.getSequence() + 1);
+      }
+      lastListed = modified;
+    } catch (final NoSuchFileException e) {
+      // the table has been deleted
+      segments.clear();
+      lastListed = null;
+    } catch (final IOException e) {
+      LOGGER.warn("Unable to list segments in '" + directory + "'", e);
+    }
+  }
+
+  private List<FileSystemSegment> sortedSegments() {
+    return segments.values().stream().sorted(NEWEST_FIRST).collect(Collectors.toList());
+  }
+
+  public synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * Get the contents of a single row.
+   *
+   * @param sortOrderKey the sort order key of the row
+   * @param fileName the file name of the row
+   * @return the contents or null if the row does not exist
+   */
+  public byte[] get(final byte[] sortOrderKey, final String fileName) {
+    final NavigableMap<SegmentRow, SegmentRow> snapshotBuffer;
+    final List<FileSystemSegment> snapshotSegments;
+    synchronized (this) {
+      refresh();
+      snapshotBuffer = buffer;
+      snapshotSegments = sortedSegments();
+    }
+    SegmentRow row = snapshotBuffer.get(new SegmentRow(sortOrderKey, fileName, null));
+    if (row == null) {
+      for (final FileSystemSegment segment : snapshotSegments) {
+        row = segment.get(sortOrderKey, fileName);
+        if (row != null) {
+          break;
+        }
+      }
+    }
+    return (row == null) || row.isDeleted() ? null : row.getContents();
+  }
+
+  /**
+   * @param startKey the inclusive start sort order key, or null to start with the first row
+   * @param endKey the exclusive end sort order key, or null to end with the last row
+   * @return the rows between the keys in sort order
+   */
+  public Iterator<SegmentRow> iterator(final byte[] startKey, final byte[] endKey) {
+    final NavigableMap<SegmentRow, SegmentRow> snapshotBuffer;
+    final List<FileSystemSegment> snapshotSegments;
+    synchronized (this) {
+      refresh();
+      snapshotBuffer = buffer;
+      snapshotSegments = sortedSegments();
+    }
+    return iterator(snapshotBuffer, snapshotSegments, startKey, endKey);
+  }
+
+  /**
+   * @param ranges the sort order key ranges, or null or empty for all rows
+   * @return the rows within any of the ranges in sort order
+   */
+  public Iterator<SegmentRow> iterator(final Collection<ByteArrayRange> ranges) {
+    if ((ranges == null) || ranges.isEmpty()) {
+      return iterator(null, null);
+    }
+    final NavigableMap<SegmentRow, SegmentRow> snapshotBuffer;
+    final List<FileSystemSegment> snapshotSegments;
+    synchronized (this) {
+      refresh();
+      snapshotBuffer = buffer;
+      snapshotSegments = sortedSegments();
+    }
+    // overlapping ranges would otherwise return rows more than once
+    return Iterators.concat(
+        ByteArrayRange.mergeIntersections(ranges, MergeOperation.UNION).stream().map(
+            r -> iterator(
+                snapshotBuffer,
+                snapshotSegments,
+                r.getStart(),
+                r.getEndAsNextPrefix())).iterator());
+  }
+
+  private static Iterator<SegmentRow> iterator(
+      final NavigableMap<SegmentRow, SegmentRow> buffer,
+      final List<FileSystemSegment> segments,
+      final byte[] startKey,
+      final byte[] endKey) {
+    final List<Iterator<SegmentRow>> sources = new ArrayList<>(segments.size() + 1);
+    NavigableMap<SegmentRow, SegmentRow> bufferRange = buffer;
+    if (startKey != null) {
+      // the empty file name sorts before any other file name with the same key
+      bufferRange = bufferRange.tailMap(new SegmentRow(startKey, "", null), true);
+    }
+    sources.add(bufferRange.values().iterator());
+    segments.forEach(s -> sources.add(rows(s, startKey)));
+    return new MergedRows(sources, endKey, false);
+  }
+
+  private static Iterator<SegmentRow> rows(final FileSystemSegment segment, final byte[] startKey) {
+    final Cursor cursor = segment.seek(startKey);
+    return new AbstractIterator<SegmentRow>() {
+      @Override
+      protected SegmentRow computeNext() {
+        if (!cursor.isValid()) {
+          return endOfData();
+        }
+        final SegmentRow row = cursor.getRow();
+        cursor.next();
+        return row;
+      }
+    };
+  }
+
+  /**
+   * Merges sorted sources of rows, where earlier sources are newer. Of several equal rows only the
+   * newest is returned.
+   */
+  private static class MergedRows extends AbstractIterator<SegmentRow> {
+    private final PriorityQueue<Source> queue;
+    private final byte[] endKey;
+    private final boolean includeDeleted;
+    private SegmentRow previous = null;
+
+    private MergedRows(
+        final List<Iterator<SegmentRow>> sources,
+        final byte[] endKey,
+        final boolean includeDeleted) {
+      this.endKey = endKey;
+      this.includeDeleted = includeDeleted;
+      queue = new PriorityQueue<>(Math.max(1, sources.size()));
+      for (int i = 0; i < sources.size(); i++) {
+        final PeekingIterator<SegmentRow> it = Iterators.peekingIterator(sources.get(i));
+        if (it.hasNext()) {
+          queue.add(new Source(i, it));
+        }
+      }
+    }
+
+    @Override
+    protected SegmentRow computeNext() {
+      while (!queue.isEmpty()) {
+        final Source source = queue.poll();
+        final SegmentRow row = source.rows.next();
+        if (source.rows.hasNext()) {
+          queue.add(source);
+        }
+        if ((endKey != null)
+            && (UnsignedBytes.lexicographicalComparator().compare(
+                row.getSortOrderKey(),
+                endKey) >= 0)) {
+          queue.clear();
+          break;
+        }
+        if ((previous != null) && (previous.compareTo(row) == 0)) {
+          // an older version of the row that was just returned or skipped
+          continue;
+        }
+        previous = row;
+        if (includeDeleted || !row.isDeleted()) {
+          return row;
+        }
+      }
+      return endOfData();
+    }
+
+    private static class Source implements Comparable<Source> {
+      private final int age;
+      private final PeekingIterator<SegmentRow> rows;
+
+      private Source(final int age, final PeekingIterator<SegmentRow> rows) {
+        this.age = age;
+        this.rows = rows;
+      }
+
+      @Override
+      public int compareTo(final Source o) {
+        final int comp = rows.peek().compareTo(o.rows.peek());
+        if (comp != 0) {
+          return comp;
+        }
+        return Integer.compare(age, o.age);
+      }
+    }
+  }
+}
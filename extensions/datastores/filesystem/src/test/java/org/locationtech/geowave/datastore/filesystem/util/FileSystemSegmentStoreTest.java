@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.filesystem.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+import org.locationtech.geowave.core.store.index.AttributeIndexOptions;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.datastore.filesystem.FileSystemStoreFactoryFamily;
+import org.locationtech.geowave.datastore.filesystem.config.FileSystemOptions;
+import org.locationtech.geowave.datastore.filesystem.util.FileSystemSegment.SegmentRow;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.Ints;
+
+public class FileSystemSegmentStoreTest {
+  private static final String DEFAULT_DIRECTORY = "./target/filesystem_segments";
+  private static final String TYPE_NAME = "Measurement";
+  private Path directory;
+
+  @Before
+  public void setup() throws IOException {
+    FileSystemClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(new File(DEFAULT_DIRECTORY));
+    directory = Files.createDirectories(new File(DEFAULT_DIRECTORY, "table").toPath());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileSystemClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(new File(DEFAULT_DIRECTORY));
+  }
+
+  @Test
+  public void testReadWrite() throws IOException {
+    // a small buffer so that every few hundred rows are written as a segment
+    final FileSystemSegmentStore store = new FileSystemSegmentStore(directory, 4096, 1024 * 1024);
+    for (int i = 0; i < 1000; i++) {
+      store.put(Ints.toByteArray(i), "row" + i, Ints.toByteArray(i));
+    }
+    // overwrite and delete some rows across the existing segments
+    for (int i = 0; i < 1000; i += 10) {
+      store.put(Ints.toByteArray(i), "row" + i, Ints.toByteArray(-i));
+    }
+    for (int i = 5; i < 1000; i += 10) {
+      store.delete(Ints.toByteArray(i), "row" + i);
+    }
+    // a second row with the same key
+    store.put(Ints.toByteArray(1), "row1b", Ints.toByteArray(1));
+    Assert.assertTrue(store.getSegmentCount() > 1);
+    verify(store);
+
+    store.flush();
+    while (store.mergeSegments()) {
+    }
+    verify(store);
+
+    // everything can be read back from the segment files alone
+    verify(new FileSystemSegmentStore(directory));
+  }
+
+  @Test
+  public void testMerge() throws IOException {
+    final FileSystemSegmentStore store = new FileSystemSegmentStore(directory, 1024 * 1024, 4096);
+    for (int s = 0; s < 6; s++) {
+      for (int i = 0; i < 10; i++) {
+        store.put(Ints.toByteArray((i * 10) + s), "row", new byte[] {(byte) s});
+      }
+      store.delete(Ints.toByteArray(s), "row");
+      store.flush();
+    }
+    // merges may already have been started in the background
+    while (store.mergeSegments()) {
+    }
+    Assert.assertTrue(store.getSegmentCount() < 4);
+    try (Stream<Path> files = Files.list(directory)) {
+      Assert.assertEquals(store.getSegmentCount(), files.count());
+    }
+    Assert.assertEquals(54, Iterators.size(store.iterator(null, null)));
+    Assert.assertNull(store.get(Ints.toByteArray(3), "row"));
+    Assert.assertArrayEquals(new byte[] {3}, store.get(Ints.toByteArray(13), "row"));
+  }
+
+  private static void verify(final FileSystemSegmentStore store) {
+    final List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      if ((i % 10) != 5) {
+        expected.add(i);
+      }
+    }
+    final List<SegmentRow> rows = new ArrayList<>();
+    store.iterator(null, null).forEachRemaining(rows::add);
+    Assert.assertEquals(expected.size() + 1, rows.size());
+    Assert.assertEquals(
+        expected,
+        rows.stream().filter(r -> !r.getFileName().endsWith("b")).map(
+            r -> Ints.fromByteArray(r.getSortOrderKey())).collect(Collectors.toList()));
+    Assert.assertEquals("row1b", rows.get(2).getFileName());
+
+    Assert.assertArrayEquals(Ints.toByteArray(-20), store.get(Ints.toByteArray(20), "row20"));
+    Assert.assertArrayEquals(Ints.toByteArray(21), store.get(Ints.toByteArray(21), "row21"));
+    Assert.assertNull(store.get(Ints.toByteArray(25), "row25"));
+    Assert.assertNull(store.get(Ints.toByteArray(21), "row22"));
+
+    // 100 to 199 except the deleted rows, and the overlapping ranges don't duplicate rows
+    final Collection<ByteArrayRange> ranges =
+        Arrays.asList(
+            new ByteArrayRange(Ints.toByteArray(100), Ints.toByteArray(150)),
+            new ByteArrayRange(Ints.toByteArray(140), Ints.toByteArray(199)));
+    Assert.assertEquals(90, Iterators.size(store.iterator(ranges)));
+    Assert.assertEquals(
+        0,
+        Iterators.size(store.iterator(Ints.toByteArray(5000), Ints.toByteArray(6000))));
+  }
+
+  @Test
+  public void testDataStore() throws IOException {
+    final FileSystemOptions options = new FileSystemOptions();
+    options.setDirectory(DEFAULT_DIRECTORY);
+    options.setSegments(true);
+    final DataStore store =
+        new FileSystemStoreFactoryFamily().getDataStoreFactory().createStore(options);
+    store.addType(BasicDataTypeAdapter.newAdapter(TYPE_NAME, Measurement.class, "name"));
+    store.addIndex(
+        TYPE_NAME,
+        AttributeDimensionalityTypeProvider.createIndexFromOptions(
+            store,
+            new AttributeIndexOptions(TYPE_NAME, "value")));
+    try (Writer<Measurement> w = store.createWriter(TYPE_NAME)) {
+      for (int i = 0; i < 1000; i++) {
+        w.write(new Measurement("name" + i, i));
+      }
+    }
+    // only segment files are written for the index tables
+    try (Stream<Path> files = Files.walk(new File(DEFAULT_DIRECTORY).toPath())) {
+      Assert.assertFalse(
+          files.filter(Files::isRegularFile).anyMatch(
+              p -> p.toString().contains(TYPE_NAME + "_")
+                  && !p.toString().endsWith(FileSystemSegment.SEGMENT_SUFFIX)));
+    }
+    try (CloseableIterator<Measurement> it =
+        store.query(QueryBuilder.newBuilder(Measurement.class).build())) {
+      Assert.assertEquals(1000, Iterators.size(it));
+    }
+    try (CloseableIterator<Measurement> it =
+        store.query(
+            QueryBuilder.newBuilder(Measurement.class).filter(
+                NumericFieldValue.of("value").isLessThan(100)).build())) {
+      Assert.assertEquals(100, Iterators.size(it));
+    }
+    store.delete(
+        QueryBuilder.newBuilder(Measurement.class).filter(
+            NumericFieldValue.of("value").isLessThan(100)).build());
+    try (CloseableIterator<Measurement> it =
+        store.query(QueryBuilder.newBuilder(Measurement.class).build())) {
+      Assert.assertEquals(900, Iterators.size(it));
+    }
+  }
+
+  @GeoWaveDataType
+  private static class Measurement {
+    @GeoWaveField
+    private final String name;
+    @GeoWaveField
+    private final Integer value;
+
+    protected Measurement() {
+      name = null;
+      value = null;
+    }
+
+    public Measurement(final String name, final Integer value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+}
@@ -31,6 +31,7 @@ import org.locationtech.geowave.core.index.persist.Persistable;
 import org.locationtech.geowave.core.store.AdapterToIndexMapping;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.api.Aggregation;
+import org.locationtech.geowave.core.store.server.ServerSideObjectCache;
 import org.locationtech.geowave.datastore.hbase.coprocessors.protobuf.AggregationProtosServer;
 import org.locationtech.geowave.datastore.hbase.filters.HBaseDistributableFilter;
 import org.locationtech.geowave.datastore.hbase.filters.HBaseNumericIndexStrategyFilter;
@@ -87,6 +88,7 @@ public class AggregationEndpoint extends AggregationProtosServer.AggregationServ
     // Handle aggregation params
     if (request.getAggregation().hasParams()) {
       final byte[] parameterBytes = request.getAggregation().getParams().toByteArray();
+      // aggregation parameters are not known to be safe to share between scans
       final Persistable aggregationParams = URLClassloaderUtils.fromBinary(parameterBytes);
       aggregation.setParameters(aggregationParams);
     }
@@ -161,7 +163,11 @@ public class AggregationEndpoint extends AggregationProtosServer.AggregationServ
 
       if (request.hasAdapter()) {
         final byte[] adapterBytes = request.getAdapter().toByteArray();
-        dataAdapter = (InternalDataAdapter<?>) URLClassloaderUtils.fromBinary(adapterBytes);
+        dataAdapter =
+            ServerSideObjectCache.getInstance().get(
+                adapterBytes,
+                InternalDataAdapter.class,
+                b -> (InternalDataAdapter<?>) URLClassloaderUtils.fromBinary(b));
       }
       if (request.hasInternalAdapterId()) {
         final byte[] adapterIdBytes = request.getInternalAdapterId().toByteArray();
@@ -169,7 +175,11 @@ public class AggregationEndpoint extends AggregationProtosServer.AggregationServ
       }
       if (request.hasIndexMapping()) {
         final byte[] mappingBytes = request.getIndexMapping().toByteArray();
-        indexMapping = (AdapterToIndexMapping) URLClassloaderUtils.fromBinary(mappingBytes);
+        indexMapping =
+            ServerSideObjectCache.getInstance().get(
+                mappingBytes,
+                AdapterToIndexMapping.class,
+                b -> (AdapterToIndexMapping) URLClassloaderUtils.fromBinary(b));
       }
       final String[] authorizations;
       if (request.hasVisLabels()) {
@@ -35,6 +35,7 @@ import org.locationtech.geowave.core.store.flatten.FlattenedUnreadData;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
 import org.locationtech.geowave.core.store.index.IndexImpl;
 import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+import org.locationtech.geowave.core.store.server.ServerSideObjectCache;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.locationtech.geowave.mapreduce.URLClassloaderUtils;
 import org.slf4j.Logger;
@@ -113,7 +114,11 @@ public class HBaseDistributableFilter extends FilterBase {
   public boolean init(final byte[] filterBytes, final byte[] modelBytes) {
     filterList.clear();
     if ((filterBytes != null) && (filterBytes.length > 0)) {
-      final List<Persistable> decodedFilterList = URLClassloaderUtils.fromBinaryAsList(filterBytes);
+      final List<Persistable> decodedFilterList =
+          ServerSideObjectCache.getInstance().get(
+              filterBytes,
+              List.class,
+              URLClassloaderUtils::fromBinaryAsList);
 
       if (decodedFilterList == null) {
         LOGGER.error("Failed to decode filter list");
@@ -129,7 +134,11 @@ public class HBaseDistributableFilter extends FilterBase {
       }
     }
 
-    model = (CommonIndexModel) URLClassloaderUtils.fromBinary(modelBytes);
+    model =
+        ServerSideObjectCache.getInstance().get(
+            modelBytes,
+            CommonIndexModel.class,
+            b -> (CommonIndexModel) URLClassloaderUtils.fromBinary(b));
 
     if (model == null) {
       LOGGER.error("Failed to decode index model");
@@ -15,6 +15,7 @@ import org.locationtech.geowave.core.store.DataStoreOptions;
 import org.locationtech.geowave.core.store.StoreFactoryFamilySpi;
 import org.locationtech.geowave.core.store.StoreFactoryOptions;
 import org.locationtech.geowave.datastore.rocksdb.RocksDBStoreFactoryFamily;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBTableOptions;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBUtils;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
@@ -39,6 +40,49 @@ public class RocksDBOptions extends StoreFactoryOptions {
       names = "--walOnBatchWrite",
       description = "Whether to enable write-ahead-log on batched writes.")
   private boolean walOnBatchWrite = true;
+  @Parameter(
+      names = "--columnFamilies",
+      description = "Whether to store all tables in a single RocksDB instance with a column family per index, partition and metadata type, sharing a block cache, write buffer manager and compaction threads. An existing store that uses a RocksDB instance per table can only be opened with this option if it is migrated with --migrateToColumnFamilies. Defaults to false.",
+      arity = 1)
+  private boolean columnFamilies = false;
+  @Parameter(
+      names = "--migrateToColumnFamilies",
+      description = "Whether to migrate the tables of an existing store that uses a RocksDB instance per table into column families when it is opened with --columnFamilies. Each table is deleted once its data has been copied and durably flushed. Defaults to false.",
+      arity = 1)
+  private boolean migrateToColumnFamilies = false;
+  @Parameter(
+      names = "--bulkLoad",
+      description = "Whether to write index and data index tables as sorted SST files that are ingested when the writer is flushed or closed, bypassing the write-ahead log, memtable and compaction. Rows are not visible to queries until then. Intended for large initial loads. Defaults to false.",
+      arity = 1)
+  private boolean bulkLoad = false;
+  @Parameter(
+      names = "--bulkLoadBufferSize",
+      description = "The size in MB of the rows that all tables of the store together sort in memory during a bulk load. When it is exceeded the largest buffers are spilled as sorted runs to disk. Defaults to 64.")
+  private long bulkLoadBufferSize = 64;
+  @Parameter(
+      names = "--blockCacheSize",
+      description = "The size in MB of the block cache shared by all tables of the store. Defaults to "
+          + RocksDBTableOptions.DEFAULT_BLOCK_CACHE_SIZE_MB
+          + ".")
+  private long blockCacheSize = RocksDBTableOptions.DEFAULT_BLOCK_CACHE_SIZE_MB;
+  @Parameter(
+      names = "--bloomBitsPerKey",
+      description = "The bits per key of the bloom filters on index and data index tables, 0 disables bloom filters. Defaults to "
+          + RocksDBTableOptions.DEFAULT_BLOOM_BITS_PER_KEY
+          + ".")
+  private int bloomBitsPerKey = RocksDBTableOptions.DEFAULT_BLOOM_BITS_PER_KEY;
+  @Parameter(
+      names = "--indexPrefixLength",
+      description = "The number of leading sort key bytes used for the prefix bloom filter of index tables, range scans within a single prefix skip files that do not contain it. 0 disables the prefix filter. Defaults to "
+          + RocksDBTableOptions.DEFAULT_INDEX_PREFIX_LENGTH
+          + ".")
+  private int indexPrefixLength = RocksDBTableOptions.DEFAULT_INDEX_PREFIX_LENGTH;
+  @Parameter(
+      names = "--compressionPerLevel",
+      description = "A comma-separated list of the compression used for each level of index and data index tables, one of none, snappy, zlib, bzip2, lz4, lz4hc or zstd. The last entry applies to any further levels. Defaults to "
+          + RocksDBTableOptions.DEFAULT_COMPRESSION_PER_LEVEL
+          + ".")
+  private String compressionPerLevel = RocksDBTableOptions.DEFAULT_COMPRESSION_PER_LEVEL;
 
   @ParametersDelegate
   protected BaseDataStoreOptions baseOptions = new BaseDataStoreOptions() {
@@ -67,6 +111,7 @@ public class RocksDBOptions extends StoreFactoryOptions {
   public void validatePluginOptions(final Console console) throws ParameterException {
     // Set the directory to be absolute
     dir = new File(dir).getAbsolutePath();
+    validateTableOptions();
     super.validatePluginOptions(console);
   }
 
@@ -75,9 +120,28 @@ public class RocksDBOptions extends StoreFactoryOptions {
       throws ParameterException {
     // Set the directory to be absolute
     dir = new File(dir).getAbsolutePath();
+    validateTableOptions();
     super.validatePluginOptions(properties, console);
   }
 
+  private void validateTableOptions() throws ParameterException {
+    if (bulkLoadBufferSize <= 0) {
+      throw new ParameterException("The bulk load buffer size must be positive");
+    }
+    if (blockCacheSize <= 0) {
+      throw new ParameterException("The block cache size must be positive");
+    }
+    if ((bloomBitsPerKey < 0) || (indexPrefixLength < 0)) {
+      throw new ParameterException(
+          "The bloom bits per key and index prefix length must not be negative");
+    }
+    try {
+      RocksDBTableOptions.parseCompressionPerLevel(compressionPerLevel);
+    } catch (final IllegalArgumentException e) {
+      throw new ParameterException(e.getMessage());
+    }
+  }
+
   public RocksDBOptions() {
     super();
   }
@@ -127,4 +191,79 @@ public class RocksDBOptions extends StoreFactoryOptions {
   public void setWalOnBatchWrite(final boolean walOnBatchWrite) {
     this.walOnBatchWrite = walOnBatchWrite;
   }
+
+  public boolean isBulkLoad() {
+    return bulkLoad;
+  }
+
+  public void setBulkLoad(final boolean bulkLoad) {
+    this.bulkLoad = bulkLoad;
+  }
+
+  public long getBulkLoadBufferSize() {
+    return bulkLoadBufferSize;
+  }
+
+  public void setBulkLoadBufferSize(final long bulkLoadBufferSize) {
+    this.bulkLoadBufferSize = bulkLoadBufferSize;
+  }
+
+  public long getBlockCacheSize() {
+    return blockCacheSize;
+  }
+
+  public void setBlockCacheSize(final long blockCacheSize) {
+    this.blockCacheSize = blockCacheSize;
+  }
+
+  public int getBloomBitsPerKey() {
+    return bloomBitsPerKey;
+  }
+
+  public void setBloomBitsPerKey(final int bloomBitsPerKey) {
+    this.bloomBitsPerKey = bloomBitsPerKey;
+  }
+
+  public int getIndexPrefixLength() {
+    return indexPrefixLength;
+  }
+
+  public void setIndexPrefixLength(final int indexPrefixLength) {
+    this.indexPrefixLength = indexPrefixLength;
+  }
+
+  public String getCompressionPerLevel() {
+    return compressionPerLevel;
+  }
+
+  public void setCompressionPerLevel(final String compressionPerLevel) {
+    this.compressionPerLevel = compressionPerLevel;
+  }
+
+  /**
+   * @return the table configuration described by these options
+   */
+  public RocksDBTableOptions getTableOptions() {
+    return new RocksDBTableOptions(
+        blockCacheSize * 1024 * 1024,
+        bloomBitsPerKey,
+        indexPrefixLength,
+        RocksDBTableOptions.parseCompressionPerLevel(compressionPerLevel));
+  }
+
+  public boolean isColumnFamilies() {
+    return columnFamilies;
+  }
+
+  public void setColumnFamilies(final boolean columnFamilies) {
+    this.columnFamilies = columnFamilies;
+  }
+
+  public boolean isMigrateToColumnFamilies() {
+    return migrateToColumnFamilies;
+  }
+
+  public void setMigrateToColumnFamilies(final boolean migrateToColumnFamilies) {
+    this.migrateToColumnFamilies = migrateToColumnFamilies;
+  }
 }
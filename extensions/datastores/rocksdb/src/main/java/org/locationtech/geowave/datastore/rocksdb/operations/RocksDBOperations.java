@@ -35,6 +35,7 @@ import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClient;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClientCache;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBDataIndexTable;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBTableOptions;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBUtils;
 import org.locationtech.geowave.mapreduce.MapReduceDataStoreOperations;
 import org.locationtech.geowave.mapreduce.splits.RecordReaderParams;
@@ -52,6 +53,10 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
   private final boolean compactOnWrite;
   private final boolean walOnBatchWrite;
   private final int batchWriteSize;
+  private final boolean columnFamilies;
+  private final RocksDBTableOptions tableOptions;
+  private final long bulkLoadBufferSize;
+  private final boolean migrateToColumnFamilies;
 
   public RocksDBOperations(final RocksDBOptions options) {
     // attempt to make the directory string as unique for a given file system as possible by using
@@ -81,6 +86,10 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
     compactOnWrite = options.isCompactOnWrite();
     batchWriteSize = options.getBatchWriteSize();
     walOnBatchWrite = options.isWalOnBatchWrite();
+    columnFamilies = options.isColumnFamilies();
+    tableOptions = options.getTableOptions();
+    bulkLoadBufferSize = options.isBulkLoad() ? options.getBulkLoadBufferSize() * 1024 * 1024 : 0;
+    migrateToColumnFamilies = options.isMigrateToColumnFamilies();
     // a factory method that returns a RocksDB instance
     client =
         RocksDBClientCache.getInstance().getClient(
@@ -88,7 +97,11 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
             visibilityEnabled,
             compactOnWrite,
             batchWriteSize,
-            walOnBatchWrite);
+            walOnBatchWrite,
+            columnFamilies,
+            tableOptions,
+            bulkLoadBufferSize,
+            migrateToColumnFamilies);
   }
 
   @Override
@@ -148,14 +161,7 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
       final String... additionalAuthorizations) {
     final String prefix = RocksDBUtils.getTablePrefix(typeName, indexName);
     getClient().close(indexName, typeName);
-    Arrays.stream(new File(directory).listFiles((dir, name) -> name.startsWith(prefix))).forEach(
-        f -> {
-          try {
-            FileUtils.deleteDirectory(f);
-          } catch (final IOException e) {
-            LOGGER.warn("Unable to delete directory '" + f.getAbsolutePath() + "'", e);
-          }
-        });
+    getClient().deleteTables(prefix);
     return true;
   }
 
@@ -254,6 +260,9 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
         compactOnWrite,
         batchWriteSize,
         walOnBatchWrite,
+        columnFamilies,
+        tableOptions,
+        bulkLoadBufferSize,
         invalidateCache);
     if (invalidateCache) {
       client = null;
@@ -283,7 +292,11 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
                   visibilityEnabled,
                   compactOnWrite,
                   batchWriteSize,
-                  walOnBatchWrite);
+                  walOnBatchWrite,
+                  columnFamilies,
+                  tableOptions,
+                  bulkLoadBufferSize,
+                  migrateToColumnFamilies);
         }
         return client;
       }
@@ -13,9 +13,19 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
@@ -27,6 +37,7 @@ import org.locationtech.geowave.core.store.CloseableIteratorWrapper;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowMergingIterator;
+import org.locationtech.geowave.core.store.util.RowConsumer;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClient;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBIndexTable;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBUtils;
@@ -37,6 +48,7 @@ import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Streams;
 import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class RocksDBQueryExecution<T> {
   private static final Logger LOGGER = LoggerFactory.getLogger(RocksDBQueryExecution.class);
@@ -78,6 +90,18 @@ public class RocksDBQueryExecution<T> {
     }
   }
 
+  private static final int READ_THREAD_SIZE = 16;
+  // the read pool is shared by all queries, each query is additionally limited in how many of its
+  // ranges may be read concurrently so that one large query can't monopolize the pool
+  private static final ExecutorService READ_THREADS =
+      MoreExecutors.getExitingExecutorService(
+          (ThreadPoolExecutor) Executors.newFixedThreadPool(READ_THREAD_SIZE));
+  private static final int MAX_CONCURRENT_READ = 8;
+  private static final int MAX_BOUNDED_READS_ENQUEUED = 10000;
+  // the number of rows each range reads ahead when merging ranges by sort key
+  private static final int READ_AHEAD_BATCH_SIZE = 256;
+  // how much room the consumer has to make in the result queue before a parked read is resumed
+  private static final int RESUME_CAPACITY = MAX_BOUNDED_READS_ENQUEUED / 4;
   private static ByteArray EMPTY_PARTITION_KEY = new ByteArray();
   private final LoadingCache<ByteArray, RocksDBIndexTable> setCache =
       Caffeine.newBuilder().build(partitionKey -> getTable(partitionKey.getBytes()));
@@ -88,6 +112,7 @@ public class RocksDBQueryExecution<T> {
   private final GeoWaveRowIteratorTransformer<T> rowTransformer;
   private final Predicate<GeoWaveRow> filter;
   private final boolean rowMerging;
+  private final boolean async;
 
   private final Pair<Boolean, Boolean> groupByRowAndSortByTimePair;
   private final boolean isSortFinalResultsBySortKey;
@@ -110,6 +135,7 @@ public class RocksDBQueryExecution<T> {
     this.ranges = ranges;
     this.filter = filter;
     this.rowMerging = rowMerging;
+    this.async = async;
     this.groupByRowAndSortByTimePair = groupByRowAndSortByTimePair;
     this.isSortFinalResultsBySortKey = isSortFinalResultsBySortKey;
   }
@@ -130,47 +156,352 @@ public class RocksDBQueryExecution<T> {
         reads.add(new RangeReadInfo(r.getPartitionKey(), range));
       }
     }
-    return executeQuery(reads);
-  }
-
-  public CloseableIterator<T> executeQuery(final List<RangeReadInfo> reads) {
     if (isSortFinalResultsBySortKey) {
       // order the reads by sort keys
       reads.sort(ScoreOrderComparator.SINGLETON);
+      return executeSortedQuery(reads);
+    }
+    // there is nothing to gain from a background read of a single range
+    if (async && (reads.size() > 1)) {
+      return executeQueryAsync(reads);
+    }
+    return executeQuery(reads);
+  }
+
+  private RocksDBIndexTable getTable(final RangeReadInfo r) {
+    ByteArray partitionKey;
+    if ((r.partitionKey == null) || (r.partitionKey.length == 0)) {
+      partitionKey = EMPTY_PARTITION_KEY;
+    } else {
+      partitionKey = new ByteArray(r.partitionKey);
     }
+    return setCache.get(partitionKey);
+  }
+
+  public CloseableIterator<T> executeQuery(final List<RangeReadInfo> reads) {
+    final List<CloseableIterator<GeoWaveRow>> iterators =
+        reads.stream().map(r -> getTable(r).iterator(r.sortKeyRange)).collect(Collectors.toList());
+    return transformAndFilter(new CloseableIteratorWrapper<>(new Closeable() {
+      @Override
+      public void close() throws IOException {
+        iterators.forEach(i -> i.close());
+      }
+    }, Iterators.concat(iterators.iterator())));
+  }
+
+  /**
+   * Each range is already in sort key order so rather than sorting the full result the ranges are
+   * merged as they are read, which keeps only the head of each range in memory. When async is
+   * requested each range is read ahead in batches on the shared read pool.
+   */
+  private CloseableIterator<T> executeSortedQuery(final List<RangeReadInfo> reads) {
+    final boolean readAhead = async && (reads.size() > 1);
     final List<CloseableIterator<GeoWaveRow>> iterators = reads.stream().map(r -> {
-      ByteArray partitionKey;
-      if ((r.partitionKey == null) || (r.partitionKey.length == 0)) {
-        partitionKey = EMPTY_PARTITION_KEY;
-      } else {
-        partitionKey = new ByteArray(r.partitionKey);
+      if (readAhead) {
+        return new ReadAheadRange(r);
       }
-      return setCache.get(partitionKey).iterator(r.sortKeyRange);
+      final CloseableIterator<GeoWaveRow> it = getTable(r).iterator(r.sortKeyRange);
+      return new CloseableIteratorWrapper<>(it, filterAndMerge(it));
     }).collect(Collectors.toList());
-    return transformAndFilter(new CloseableIteratorWrapper<>(new Closeable() {
+    return new CloseableIteratorWrapper<>(new Closeable() {
       @Override
       public void close() throws IOException {
         iterators.forEach(i -> i.close());
       }
-    }, Iterators.concat(iterators.iterator())));
+    }, rowTransformer.apply(RocksDBUtils.sortBySortKey(iterators)));
+  }
+
+  /**
+   * Reads the ranges concurrently on the shared read pool. Each range is scanned, filtered and
+   * merged on a read thread and the resulting rows are handed off through a bounded queue. A read
+   * never blocks a pool thread on a slow consumer: when the queue is full the read is parked with
+   * its progress and resumed once the consumer has drained the queue, so a consumer may pause for
+   * as long as it likes without holding any read threads. Rows are consumed in whatever order the
+   * ranges produce them. If a read fails the consumer rethrows the failure.
+   */
+  private CloseableIterator<T> executeQueryAsync(final List<RangeReadInfo> reads) {
+    final AsyncQuery query = new AsyncQuery(reads);
+    query.start();
+    return new CloseableIteratorWrapper<>(
+        query::close,
+        rowTransformer.apply(new RowConsumer<>(query.results, query::resumeParkedRead)));
+  }
+
+  private class AsyncQuery {
+    private final BlockingQueue<Object> results =
+        new LinkedBlockingQueue<>(MAX_BOUNDED_READS_ENQUEUED);
+    private final Queue<RangeReadInfo> pendingReads;
+    private final Queue<AsyncRangeRead> parkedReads = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger remainingReads;
+    private volatile boolean closed = false;
+
+    private AsyncQuery(final List<RangeReadInfo> reads) {
+      pendingReads = new ConcurrentLinkedQueue<>(reads);
+      remainingReads = new AtomicInteger(reads.size());
+    }
+
+    private void start() {
+      // only allow so many open reads for this query, the next one is started as one finishes
+      for (int i = 0; i < MAX_CONCURRENT_READ; i++) {
+        submitNextRead();
+      }
+    }
+
+    private void submitNextRead() {
+      if (closed) {
+        return;
+      }
+      final RangeReadInfo read = pendingReads.poll();
+      if (read != null) {
+        READ_THREADS.execute(new AsyncRangeRead(read));
+      }
+    }
+
+    /**
+     * Park a read that could not add its next entry because the queue is full, it is resumed when
+     * the consumer has taken enough of the queue.
+     */
+    private void park(final AsyncRangeRead read) {
+      parkedReads.add(read);
+      if (closed) {
+        closeParkedReads();
+      } else {
+        // the consumer may have drained the queue after the read found it full
+        resumeParkedRead();
+      }
+    }
+
+    private void resumeParkedRead() {
+      if (!parkedReads.isEmpty() && (results.remainingCapacity() >= RESUME_CAPACITY)) {
+        final AsyncRangeRead read = parkedReads.poll();
+        if (read != null) {
+          READ_THREADS.execute(read);
+        }
+      }
+    }
+
+    private void closeParkedReads() {
+      AsyncRangeRead read;
+      while ((read = parkedReads.poll()) != null) {
+        read.closeRange();
+      }
+    }
+
+    /**
+     * Stops the remaining reads of the query and replaces its buffered rows with the failure, so
+     * the consumer rethrows it rather than seeing a truncated result.
+     */
+    private void fail(final Throwable cause) {
+      // reads stop enqueueing once closed, so the cleared queue has room for the failure
+      closed = true;
+      results.clear();
+      results.offer(RowConsumer.failure(cause));
+      closeParkedReads();
+    }
+
+    private void close() {
+      closed = true;
+      results.clear();
+      closeParkedReads();
+    }
+
+    /**
+     * Reads a single range of the query. The read keeps its progress, so that it can give up its
+     * thread when the queue is full and continue where it left off when it is resumed.
+     */
+    private class AsyncRangeRead implements Runnable {
+      private final RangeReadInfo read;
+      private CloseableIterator<GeoWaveRow> rangeIt;
+      private Iterator<GeoWaveRow> rows;
+      // the entry that did not fit in the queue when the read was parked
+      private Object pending = null;
+      private boolean rangeDone = false;
+
+      private AsyncRangeRead(final RangeReadInfo read) {
+        this.read = read;
+      }
+
+      @Override
+      public void run() {
+        try {
+          if (rows == null) {
+            rangeIt = getTable(read).iterator(read.sortKeyRange);
+            rows = filterAndMerge(rangeIt);
+          }
+          while (!closed) {
+            if (pending == null) {
+              if (rangeDone) {
+                // the end of the results has been enqueued
+                return;
+              } else if (rows.hasNext()) {
+                pending = rows.next();
+              } else {
+                rangeDone = true;
+                closeRange();
+                if (remainingReads.decrementAndGet() > 0) {
+                  submitNextRead();
+                  return;
+                }
+                // the last read to finish ends the results
+                pending = RowConsumer.POISON;
+              }
+            }
+            if (!results.offer(pending)) {
+              // give up the thread so that other reads can make progress
+              park(this);
+              return;
+            }
+            pending = null;
+          }
+        } catch (final Exception e) {
+          LOGGER.error("Async RocksDB range read failed", e);
+          fail(e);
+        }
+        closeRange();
+      }
+
+      private void closeRange() {
+        if (rangeIt != null) {
+          rangeIt.close();
+          rangeIt = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Rows for a data ID are only guaranteed to be adjacent within a range, so when ranges are not
+   * simply concatenated filtering and merging is applied per range.
+   */
+  private Iterator<GeoWaveRow> filterAndMerge(final Iterator<GeoWaveRow> rangeIt) {
+    final Iterator<GeoWaveRow> it = Iterators.filter(rangeIt, filter::test);
+    return rowMerging ? new GeoWaveRowMergingIterator(it) : it;
   }
 
   private CloseableIterator<T> transformAndFilter(final CloseableIterator<GeoWaveRow> result) {
     final Iterator<GeoWaveRow> iterator = Streams.stream(result).filter(filter).iterator();
     return new CloseableIteratorWrapper<>(
         result,
-        rowTransformer.apply(
-            sortByKeyIfRequired(
-                isSortFinalResultsBySortKey,
-                rowMerging ? new GeoWaveRowMergingIterator(iterator) : iterator)));
+        rowTransformer.apply(rowMerging ? new GeoWaveRowMergingIterator(iterator) : iterator));
+  }
+
+  private static class ReadAheadBatch {
+    private final List<GeoWaveRow> rows;
+    private final boolean last;
+    private final Exception failure;
+
+    private ReadAheadBatch(final List<GeoWaveRow> rows, final boolean last) {
+      this(rows, last, null);
+    }
+
+    private ReadAheadBatch(
+        final List<GeoWaveRow> rows,
+        final boolean last,
+        final Exception failure) {
+      this.rows = rows;
+      this.last = last;
+      this.failure = failure;
+    }
   }
 
-  private static Iterator<GeoWaveRow> sortByKeyIfRequired(
-      final boolean isRequired,
-      final Iterator<GeoWaveRow> it) {
-    if (isRequired) {
-      return RocksDBUtils.sortBySortKey(it);
+  /**
+   * Reads a single range in batches on the shared read pool, with at most one batch read ahead of
+   * the one being consumed. A read never blocks a pool thread waiting on the consumer, so any
+   * number of ranges can be open at once as a sorted merge requires.
+   */
+  private class ReadAheadRange implements CloseableIterator<GeoWaveRow>, Runnable {
+    private final RangeReadInfo read;
+    private final BlockingQueue<ReadAheadBatch> batches = new LinkedBlockingQueue<>();
+    private Iterator<GeoWaveRow> currentBatch = Collections.emptyIterator();
+    private boolean exhausted = false;
+    private volatile boolean closed = false;
+    // only accessed by the read in progress, of which there is at most one
+    private CloseableIterator<GeoWaveRow> rangeIt;
+    private Iterator<GeoWaveRow> rows;
+
+    private ReadAheadRange(final RangeReadInfo read) {
+      this.read = read;
+      READ_THREADS.execute(this);
+    }
+
+    @Override
+    public synchronized void run() {
+      final List<GeoWaveRow> batch = new ArrayList<>(READ_AHEAD_BATCH_SIZE);
+      boolean last = true;
+      Exception failure = null;
+      try {
+        if (!closed) {
+          if (rangeIt == null) {
+            rangeIt = getTable(read).iterator(read.sortKeyRange);
+            rows = filterAndMerge(rangeIt);
+          }
+          while ((batch.size() < READ_AHEAD_BATCH_SIZE) && rows.hasNext()) {
+            batch.add(rows.next());
+          }
+          last = closed || !rows.hasNext();
+        }
+      } catch (final Exception e) {
+        LOGGER.error("Async RocksDB range read failed", e);
+        failure = e;
+        last = true;
+      }
+      if (last) {
+        closeRange();
+      }
+      batches.add(new ReadAheadBatch(batch, last, failure));
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!currentBatch.hasNext()) {
+        if (exhausted) {
+          return false;
+        }
+        final ReadAheadBatch batch;
+        try {
+          batch = batches.take();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while waiting on RocksDB range read", e);
+        }
+        if (batch.failure != null) {
+          exhausted = true;
+          currentBatch = Collections.emptyIterator();
+          throw new RuntimeException("Unable to read RocksDB range", batch.failure);
+        }
+        if (batch.last) {
+          exhausted = true;
+        } else {
+          // start reading the next batch while this one is consumed
+          READ_THREADS.execute(this);
+        }
+        currentBatch = batch.rows.iterator();
+      }
+      return true;
+    }
+
+    @Override
+    public GeoWaveRow next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return currentBatch.next();
+    }
+
+    private void closeRange() {
+      if (rangeIt != null) {
+        rangeIt.close();
+        rangeIt = null;
+      }
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      // waits for a read in progress to finish with the range iterator
+      synchronized (this) {
+        closeRange();
+      }
     }
-    return it;
   }
 }
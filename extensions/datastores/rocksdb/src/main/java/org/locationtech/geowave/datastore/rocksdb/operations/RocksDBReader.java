@@ -52,7 +52,7 @@ public class RocksDBReader<T> implements RowReader<T> {
       final ReaderParams<T> readerParams,
       final boolean async) {
     this.iterator =
-        createIteratorForReader(client, readerParams, readerParams.getRowTransformer(), false);
+        createIteratorForReader(client, readerParams, readerParams.getRowTransformer(), async);
   }
 
   public RocksDBReader(final RocksDBClient client, final RecordReaderParams recordReaderParams) {
@@ -92,7 +92,7 @@ public class RocksDBReader<T> implements RowReader<T> {
                 readerParams.getInternalAdapterStore().getTypeName(adapterId),
                 readerParams.getIndex().getName());
         final Stream<CloseableIterator<GeoWaveRow>> streamIt =
-            RocksDBUtils.getPartitions(client.getSubDirectory(), indexNamePrefix).stream().map(
+            RocksDBUtils.getPartitions(client, indexNamePrefix).stream().map(
                 p -> RocksDBUtils.getIndexTableFromPrefix(
                     client,
                     indexNamePrefix,
@@ -110,12 +110,7 @@ public class RocksDBReader<T> implements RowReader<T> {
             iterators.forEach(it -> it.close());
           }
         }
-      },
-          Iterators.concat(iterators.iterator()),
-          readerParams,
-          rowTransformer,
-          authorizations,
-          client.isVisibilityEnabled());
+      }, iterators, readerParams, rowTransformer, authorizations, client.isVisibilityEnabled());
     }
   }
 
@@ -211,33 +206,47 @@ public class RocksDBReader<T> implements RowReader<T> {
   @SuppressWarnings("unchecked")
   private CloseableIterator<T> wrapResults(
       final Closeable closeable,
-      final Iterator<GeoWaveRow> results,
+      final List<CloseableIterator<GeoWaveRow>> results,
       final RangeReaderParams<T> params,
       final GeoWaveRowIteratorTransformer<T> rowTransformer,
       final Set<String> authorizations,
       final boolean visibilityEnabled) {
+    final boolean mergingRequired =
+        DataStoreUtils.isMergingIteratorRequired(params, visibilityEnabled);
+    Iterator<GeoWaveRow> iterator;
+    if (RocksDBUtils.isSortByKeyRequired(params)) {
+      // each partition is already sorted so they can be merged rather than fully sorted, which
+      // requires filtering and merging rows within each partition
+      iterator =
+          RocksDBUtils.sortBySortKey(
+              results.stream().map(
+                  it -> filterAndMerge(
+                      it,
+                      authorizations,
+                      visibilityEnabled,
+                      mergingRequired)).collect(Collectors.toList()));
+    } else {
+      iterator =
+          filterAndMerge(
+              Iterators.concat(results.iterator()),
+              authorizations,
+              visibilityEnabled,
+              mergingRequired);
+    }
+    return new CloseableIteratorWrapper<>(closeable, rowTransformer.apply(iterator));
+  }
+
+  private static Iterator<GeoWaveRow> filterAndMerge(
+      final Iterator<GeoWaveRow> results,
+      final Set<String> authorizations,
+      final boolean visibilityEnabled,
+      final boolean mergingRequired) {
     Stream<GeoWaveRow> stream = Streams.stream(results);
     if (visibilityEnabled) {
       stream = stream.filter(new ClientVisibilityFilter(authorizations));
     }
     final Iterator<GeoWaveRow> iterator = stream.iterator();
-    return new CloseableIteratorWrapper<>(
-        closeable,
-        rowTransformer.apply(
-            sortBySortKeyIfRequired(
-                params,
-                DataStoreUtils.isMergingIteratorRequired(params, visibilityEnabled)
-                    ? new GeoWaveRowMergingIterator(iterator)
-                    : iterator)));
-  }
-
-  private static Iterator<GeoWaveRow> sortBySortKeyIfRequired(
-      final RangeReaderParams<?> params,
-      final Iterator<GeoWaveRow> it) {
-    if (RocksDBUtils.isSortByKeyRequired(params)) {
-      return RocksDBUtils.sortBySortKey(it);
-    }
-    return it;
+    return mergingRequired ? new GeoWaveRowMergingIterator(iterator) : iterator;
   }
 
   @Override
@@ -14,6 +14,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
@@ -31,6 +32,7 @@ abstract public class AbstractRocksDBTable {
       MoreExecutors.getExitingExecutorService(
           (ThreadPoolExecutor) Executors.newFixedThreadPool(BATCH_WRITE_THREAD_SIZE));
   private static final int MAX_CONCURRENT_WRITE = 100;
+  private static final String BULK_LOAD_DIRECTORY = ".bulk";
   // only allow so many outstanding async reads or writes, use this semaphore
   // to control it
   private final Object BATCH_WRITE_MUTEX = new Object();
@@ -39,7 +41,10 @@ abstract public class AbstractRocksDBTable {
   private WriteBatch currentBatch;
   private final int batchSize;
   private RocksDB writeDb;
+  private ColumnFamilyHandle columnFamily;
   private final Options writeOptions;
+  // when set this table is a column family of a shared instance rather than its own RocksDB
+  private final RocksDBSharedDB sharedDb;
   private final WriteOptions batchWriteOptions;
   protected final String subDirectory;
   private boolean exists;
@@ -47,6 +52,8 @@ abstract public class AbstractRocksDBTable {
   protected boolean visibilityEnabled;
   protected boolean compactOnWrite;
   private final boolean batchWrite;
+  // null unless rows are written as SST files that are ingested on flush
+  private final RocksDBBulkLoader bulkLoader;
 
   public AbstractRocksDBTable(
       final Options writeOptions,
@@ -55,27 +62,43 @@ abstract public class AbstractRocksDBTable {
       final short adapterId,
       final boolean visibilityEnabled,
       final boolean compactOnWrite,
-      final int batchSize) {
+      final int batchSize,
+      final RocksDBSharedDB sharedDb,
+      final RocksDBBulkLoader.MemoryBudget bulkLoadBudget) {
     super();
     this.writeOptions = writeOptions;
     this.batchWriteOptions = batchWriteOptions;
     this.subDirectory = subDirectory;
     this.adapterId = adapterId;
-    exists = new File(subDirectory).exists();
+    this.sharedDb = sharedDb;
+    if (sharedDb == null) {
+      exists = new File(subDirectory).exists();
+    } else {
+      exists = sharedDb.getColumnFamily(getTableName(), false) != null;
+    }
     this.visibilityEnabled = visibilityEnabled;
     this.compactOnWrite = compactOnWrite;
     this.batchSize = batchSize;
     batchWrite = batchSize > 1;
+    if (bulkLoadBudget != null) {
+      final File stagingDirectory =
+          sharedDb == null ? new File(subDirectory, BULK_LOAD_DIRECTORY)
+              : new File(new File(sharedDb.getDirectory(), BULK_LOAD_DIRECTORY), getTableName());
+      bulkLoader = new RocksDBBulkLoader(stagingDirectory, bulkLoadBudget);
+    } else {
+      bulkLoader = null;
+    }
   }
 
   public void delete(final byte[] key) {
+    flushBulkLoadBeforeDelete();
     final RocksDB db = getDb(true);
     if (db == null) {
       LOGGER.warn("Unable to delete key because directory '" + subDirectory + "' doesn't exist");
       return;
     }
     try {
-      db.singleDelete(key);
+      db.singleDelete(columnFamily, key);
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to delete key", e);
     }
@@ -84,7 +107,17 @@ abstract public class AbstractRocksDBTable {
   @SuppressFBWarnings(
       justification = "The null check outside of the synchronized block is intentional to minimize the need for synchronization.")
   protected void put(final byte[] key, final byte[] value) {
-    if (batchWrite) {
+    if (bulkLoader != null) {
+      // make sure the table exists before anything is staged within its directory
+      getDb(false);
+      try {
+        bulkLoader.put(key, value);
+      } catch (final RocksDBException e) {
+        throw new RuntimeException("Unable to bulk load into '" + subDirectory + "'", e);
+      }
+    } else if (batchWrite) {
+      // make sure the column family exists before it is referenced by the batch
+      getDb(false);
       WriteBatch thisBatch = currentBatch;
       if (thisBatch == null) {
         synchronized (BATCH_WRITE_MUTEX) {
@@ -95,7 +128,7 @@ abstract public class AbstractRocksDBTable {
         }
       }
       try {
-        thisBatch.put(key, value);
+        thisBatch.put(columnFamily, key, value);
       } catch (final RocksDBException e) {
         LOGGER.warn("Unable to add data to batched write", e);
       }
@@ -111,7 +144,7 @@ abstract public class AbstractRocksDBTable {
     {
       final RocksDB db = getDb(false);
       try {
-        db.put(key, value);
+        db.put(columnFamily, key, value);
       } catch (final RocksDBException e) {
         LOGGER.warn("Unable to write key-value", e);
       }
@@ -134,6 +167,11 @@ abstract public class AbstractRocksDBTable {
   @SuppressFBWarnings(
       justification = "The null check outside of the synchronized block is intentional to minimize the need for synchronization.")
   public void flush() {
+    if (bulkLoader != null) {
+      // the ingested files are already sorted and non-overlapping so there is no need to compact
+      flushBulkLoad();
+      return;
+    }
     if (batchWrite) {
       synchronized (BATCH_WRITE_MUTEX) {
         if (currentBatch != null) {
@@ -145,6 +183,42 @@ abstract public class AbstractRocksDBTable {
     internalFlush();
   }
 
+  /**
+   * Ingest any bulk loaded rows before deleting, otherwise rows that are still staged would be
+   * ingested after the delete and bring the deleted rows back.
+   */
+  protected void flushBulkLoadBeforeDelete() {
+    if (bulkLoader != null) {
+      flushBulkLoad();
+    }
+  }
+
+  private void flushBulkLoad() {
+    if (bulkLoader.isEmpty()) {
+      return;
+    }
+    final RocksDB db = getDb(false);
+    if (db == null) {
+      throw new RuntimeException(
+          "Unable to ingest bulk loaded rows because '" + subDirectory + "' could not be opened");
+    }
+    try {
+      if (sharedDb == null) {
+        bulkLoader.flush(db, columnFamily, writeOptions);
+      } else {
+        try (Options options = sharedDb.createOptions(getTableName())) {
+          bulkLoader.flush(db, columnFamily, options);
+        }
+        // this only succeeds once no other table is staging files
+        new File(sharedDb.getDirectory(), BULK_LOAD_DIRECTORY).delete();
+      }
+    } catch (final RocksDBException e) {
+      throw new RuntimeException(
+          "Unable to ingest bulk loaded rows into '" + subDirectory + "'",
+          e);
+    }
+  }
+
   protected void internalFlush() {
     if (compactOnWrite) {
       final RocksDB db = getDb(true);
@@ -152,7 +226,7 @@ abstract public class AbstractRocksDBTable {
         return;
       }
       try {
-        db.compactRange();
+        db.compactRange(columnFamily);
       } catch (final RocksDBException e) {
         LOGGER.warn("Unable to compact range", e);
       }
@@ -165,7 +239,7 @@ abstract public class AbstractRocksDBTable {
       return;
     }
     try {
-      db.compactRange();
+      db.compactRange(columnFamily);
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to force compacting range", e);
     }
@@ -186,10 +260,17 @@ abstract public class AbstractRocksDBTable {
 
   public void close() {
     waitForBatchWrite();
+    if (bulkLoader != null) {
+      flushBulkLoad();
+    }
     synchronized (this) {
       if (writeDb != null) {
-        writeDb.close();
+        // a shared instance and its column families are closed with the client
+        if (sharedDb == null) {
+          writeDb.close();
+        }
         writeDb = null;
+        columnFamily = null;
       }
     }
   }
@@ -198,6 +279,20 @@ abstract public class AbstractRocksDBTable {
     return subDirectory;
   }
 
+  /**
+   * @return the name of the table, which is also the name of its column family in a shared instance
+   */
+  public String getTableName() {
+    return new File(subDirectory).getName();
+  }
+
+  /**
+   * @return the column family of this table, only valid after a successful call to getDb
+   */
+  protected ColumnFamilyHandle getColumnFamily() {
+    return columnFamily;
+  }
+
   @SuppressFBWarnings(
       justification = "double check for null is intentional to avoid synchronized blocks when not needed.")
   public RocksDB getDb(final boolean read) {
@@ -210,10 +305,21 @@ abstract public class AbstractRocksDBTable {
           if (read && !exists) {
             return null;
           }
+          if (sharedDb != null) {
+            final ColumnFamilyHandle handle = sharedDb.getColumnFamily(getTableName(), true);
+            if (handle != null) {
+              exists = true;
+              columnFamily = handle;
+              writeDb = sharedDb.getDb(true);
+            }
+            return writeDb;
+          }
           try {
             if (exists || new File(subDirectory).mkdirs()) {
               exists = true;
-              writeDb = RocksDB.open(writeOptions, subDirectory);
+              final RocksDB db = RocksDB.open(writeOptions, subDirectory);
+              columnFamily = db.getDefaultColumnFamily();
+              writeDb = db;
             } else {
               LOGGER.error("Unable to open to create directory '" + subDirectory + "'");
             }
@@ -0,0 +1,372 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.io.FileUtils;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
+import org.rocksdb.Options;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.SstFileReader;
+import org.rocksdb.SstFileReaderIterator;
+import org.rocksdb.SstFileWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.common.primitives.UnsignedBytes;
+
+/**
+ * Loads a table by writing SST files and ingesting them rather than writing through the memtable.
+ * Rows are buffered and sorted in memory, and spilled to a sorted run file whenever the buffers of
+ * all loaders sharing a memory budget exceed it, largest buffer first. On flush the runs are merged
+ * into non-overlapping SST files in the table's format which are moved into the table with
+ * ingestExternalFile, so the write-ahead log, the memtable and nearly all compaction are skipped.
+ *
+ * <p> Rows are not visible to readers and are not durable until the loader is flushed. As with the
+ * memtable, the last value written for a key wins. If a spill or the ingest fails the exception is
+ * thrown and everything staged so far is kept, so a later flush can retry the ingest.
+ */
+public class RocksDBBulkLoader {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RocksDBBulkLoader.class);
+  private static final Comparator<byte[]> KEY_COMPARATOR =
+      UnsignedBytes.lexicographicalComparator();
+  // output files are finished once they reach this size so compaction can work on them later
+  private static final long TARGET_FILE_SIZE = 256L * 1024 * 1024;
+  private static final int FILE_SIZE_CHECK_INTERVAL = 1024;
+
+  private final File stagingDirectory;
+  private final MemoryBudget memoryBudget;
+  private final TreeMap<byte[], byte[]> buffer = new TreeMap<>(KEY_COMPARATOR);
+  // read without the lock when the memory budget looks for the largest buffer
+  private volatile long bufferedBytes = 0;
+  private final List<File> runs = new ArrayList<>();
+  private int nextFile = 0;
+
+  /**
+   * @param stagingDirectory the directory for run and output files, it should be on the same file
+   *        system as the table so output files can be moved into it rather than copied
+   * @param memoryBudget the memory that the buffers of this and the other loaders of the store may
+   *        use before they are spilled
+   */
+  public RocksDBBulkLoader(final File stagingDirectory, final MemoryBudget memoryBudget) {
+    this.stagingDirectory = stagingDirectory;
+    this.memoryBudget = memoryBudget;
+    memoryBudget.loaders.add(this);
+  }
+
+  /**
+   * Buffer a row, spilling buffers to disk if the memory budget is exceeded.
+   *
+   * @throws RocksDBException if a buffer could not be spilled, the row is buffered regardless
+   */
+  public void put(final byte[] key, final byte[] value) throws RocksDBException {
+    synchronized (this) {
+      final byte[] previous = buffer.put(key, value);
+      final long size =
+          previous == null ? key.length + value.length : value.length - previous.length;
+      bufferedBytes += size;
+      memoryBudget.used.addAndGet(size);
+    }
+    // outside of this loader's lock because the largest buffer may belong to another loader
+    memoryBudget.reclaim();
+  }
+
+  /**
+   * Write the buffer to a sorted run file.
+   *
+   * @return whether there was anything to spill
+   */
+  private synchronized boolean spillBuffer() throws RocksDBException {
+    if (buffer.isEmpty()) {
+      return false;
+    }
+    runs.add(spill());
+    clearBuffer();
+    return true;
+  }
+
+  private void clearBuffer() {
+    memoryBudget.used.addAndGet(-bufferedBytes);
+    buffer.clear();
+    bufferedBytes = 0;
+  }
+
+  /**
+   * @return whether there are rows that have not been ingested yet
+   */
+  public synchronized boolean isEmpty() {
+    return buffer.isEmpty() && runs.isEmpty();
+  }
+
+  /**
+   * Merge everything written so far into SST files and ingest them.
+   *
+   * @param db the instance to ingest into
+   * @param columnFamily the column family of the table
+   * @param options the options of the table, which determine the format of the ingested files
+   * @throws RocksDBException if the files could not be written or ingested, the buffered rows and
+   *         runs are kept so the flush can be retried
+   */
+  public synchronized void flush(
+      final RocksDB db,
+      final ColumnFamilyHandle columnFamily,
+      final Options options) throws RocksDBException {
+    if (isEmpty()) {
+      return;
+    }
+    final List<String> files = new ArrayList<>();
+    try {
+      writeSortedFiles(options, files);
+      try (IngestExternalFileOptions ingestOptions =
+          new IngestExternalFileOptions().setMoveFiles(true)) {
+        db.ingestExternalFile(columnFamily, files, ingestOptions);
+      }
+    } catch (final RocksDBException e) {
+      LOGGER.error("Unable to ingest bulk loaded files from '" + stagingDirectory + "'", e);
+      // the output files are written again from the runs when the flush is retried
+      files.forEach(f -> FileUtils.deleteQuietly(new File(f)));
+      throw e;
+    }
+    clearBuffer();
+    runs.clear();
+    FileUtils.deleteQuietly(stagingDirectory);
+  }
+
+  private File spill() throws RocksDBException {
+    final File run = newFile("run");
+    // runs are only read back once, so favor fast compression over size
+    try (EnvOptions envOptions = new EnvOptions();
+        Options runOptions = new Options().setCompressionType(CompressionType.LZ4_COMPRESSION);
+        SstFileWriter writer = new SstFileWriter(envOptions, runOptions)) {
+      writer.open(run.getAbsolutePath());
+      for (final Entry<byte[], byte[]> e : buffer.entrySet()) {
+        writer.put(e.getKey(), e.getValue());
+      }
+      writer.finish();
+    } catch (final RocksDBException e) {
+      LOGGER.error("Unable to spill bulk load buffer to '" + stagingDirectory + "'", e);
+      FileUtils.deleteQuietly(run);
+      throw e;
+    }
+    return run;
+  }
+
+  private void writeSortedFiles(final Options options, final List<String> files)
+      throws RocksDBException {
+    final List<Source> sources = new ArrayList<>(runs.size() + 1);
+    final PriorityQueue<Source> queue = new PriorityQueue<>(Source.ORDER);
+    try (Options runOptions = new Options(); EnvOptions envOptions = new EnvOptions()) {
+      for (final File run : runs) {
+        sources.add(new RunSource(sources.size(), run, runOptions));
+      }
+      sources.add(new BufferSource(sources.size(), buffer.entrySet().iterator()));
+      for (final Source source : sources) {
+        if (source.isValid()) {
+          queue.add(source);
+        }
+      }
+      SstFileWriter writer = null;
+      byte[] previousKey = null;
+      long count = 0;
+      try {
+        while (!queue.isEmpty()) {
+          final Source source = queue.poll();
+          final byte[] key = source.key();
+          // the first of several equal keys comes from the most recent source
+          if ((previousKey == null) || !Arrays.equals(previousKey, key)) {
+            if (writer == null) {
+              final File file = newFile("sst");
+              writer = new SstFileWriter(envOptions, options);
+              writer.open(file.getAbsolutePath());
+              files.add(file.getAbsolutePath());
+            }
+            writer.put(key, source.value());
+            previousKey = key;
+            if (((++count % FILE_SIZE_CHECK_INTERVAL) == 0)
+                && (writer.fileSize() >= TARGET_FILE_SIZE)) {
+              writer.finish();
+              writer.close();
+              writer = null;
+            }
+          }
+          source.next();
+          if (source.isValid()) {
+            queue.add(source);
+          }
+        }
+        if (writer != null) {
+          writer.finish();
+        }
+      } finally {
+        if (writer != null) {
+          writer.close();
+        }
+      }
+    } finally {
+      sources.forEach(Source::close);
+    }
+  }
+
+  private File newFile(final String type) {
+    if (!stagingDirectory.exists() && !stagingDirectory.mkdirs()) {
+      LOGGER.error("Unable to create bulk load directory '" + stagingDirectory + "'");
+    }
+    return new File(stagingDirectory, type + "-" + nextFile++ + ".sst");
+  }
+
+  /**
+   * The memory that the buffers of the bulk loaders of a store may use together. Whenever it is
+   * exceeded the largest buffers are spilled until it is met again, so the memory use of a bulk
+   * load does not grow with the number of tables and partitions it writes.
+   */
+  public static class MemoryBudget {
+    private final long size;
+    private final AtomicLong used = new AtomicLong(0);
+    private final Set<RocksDBBulkLoader> loaders = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param size the number of key and value bytes that may be buffered in memory
+     */
+    public MemoryBudget(final long size) {
+      this.size = size;
+    }
+
+    private void reclaim() throws RocksDBException {
+      while (used.get() > size) {
+        RocksDBBulkLoader largest = null;
+        for (final RocksDBBulkLoader loader : loaders) {
+          if ((largest == null) || (loader.bufferedBytes > largest.bufferedBytes)) {
+            largest = loader;
+          }
+        }
+        if (largest == null) {
+          return;
+        }
+        // if another thread spilled it in the meantime the next largest is picked
+        largest.spillBuffer();
+      }
+    }
+  }
+
+  private abstract static class Source implements Closeable {
+    // keys in ascending order, with equal keys from later sources first
+    private static final Comparator<Source> ORDER =
+        Comparator.<Source, byte[]>comparing(Source::key, KEY_COMPARATOR).thenComparing(
+            s -> -s.sequence);
+    private final int sequence;
+
+    private Source(final int sequence) {
+      this.sequence = sequence;
+    }
+
+    abstract boolean isValid();
+
+    abstract byte[] key();
+
+    abstract byte[] value();
+
+    abstract void next();
+
+    @Override
+    public void close() {}
+  }
+
+  private static class BufferSource extends Source {
+    private final Iterator<Entry<byte[], byte[]>> it;
+    private Entry<byte[], byte[]> current;
+
+    private BufferSource(final int sequence, final Iterator<Entry<byte[], byte[]>> it) {
+      super(sequence);
+      this.it = it;
+      next();
+    }
+
+    @Override
+    boolean isValid() {
+      return current != null;
+    }
+
+    @Override
+    byte[] key() {
+      return current.getKey();
+    }
+
+    @Override
+    byte[] value() {
+      return current.getValue();
+    }
+
+    @Override
+    void next() {
+      current = it.hasNext() ? it.next() : null;
+    }
+  }
+
+  private static class RunSource extends Source {
+    private final SstFileReader reader;
+    private final ReadOptions readOptions;
+    private final SstFileReaderIterator it;
+    private byte[] key;
+
+    private RunSource(final int sequence, final File run, final Options options)
+        throws RocksDBException {
+      super(sequence);
+      reader = new SstFileReader(options);
+      reader.open(run.getAbsolutePath());
+      readOptions = new ReadOptions().setFillCache(false);
+      it = reader.newIterator(readOptions);
+      it.seekToFirst();
+      key = it.isValid() ? it.key() : null;
+    }
+
+    @Override
+    boolean isValid() {
+      return key != null;
+    }
+
+    @Override
+    byte[] key() {
+      return key;
+    }
+
+    @Override
+    byte[] value() {
+      return it.value();
+    }
+
+    @Override
+    void next() {
+      it.next();
+      key = it.isValid() ? it.key() : null;
+    }
+
+    @Override
+    public void close() {
+      it.close();
+      readOptions.close();
+      reader.close();
+    }
+  }
+}
@@ -10,12 +10,19 @@ package org.locationtech.geowave.datastore.rocksdb.util;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
 import org.locationtech.geowave.core.store.operations.MetadataType;
+import org.rocksdb.LRUCache;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
@@ -173,10 +180,20 @@ public class RocksDBClient implements Closeable {
   private final boolean compactOnWrite;
   private final int batchWriteSize;
   private final boolean walOnBatchWrite;
+  // null unless this store uses a single RocksDB instance with a column family per table
+  private final RocksDBSharedDB sharedDb;
 
-  protected static Options indexWriteOptions = null;
+  private final RocksDBTableOptions tableOptions;
+  // null unless tables are bulk loaded, it bounds the rows that all tables buffer in memory
+  private final RocksDBBulkLoader.MemoryBudget bulkLoadBudget;
+
+  // the options of tables that are separate RocksDB instances, they share one block cache
+  protected Options indexWriteOptions = null;
+  protected Options dataIndexWriteOptions = null;
   protected WriteOptions batchWriteOptions = null;
-  protected static Options metadataOptions = null;
+  protected Options metadataOptions = null;
+  private org.rocksdb.Cache blockCache = null;
+  private final List<AutoCloseable> tableResources = new ArrayList<>();
 
   public RocksDBClient(
       final String subDirectory,
@@ -184,14 +201,82 @@ public class RocksDBClient implements Closeable {
       final boolean compactOnWrite,
       final int batchWriteSize,
       final boolean walOnBatchWrite) {
+    this(
+        subDirectory,
+        visibilityEnabled,
+        compactOnWrite,
+        batchWriteSize,
+        walOnBatchWrite,
+        false,
+        new RocksDBTableOptions(),
+        0,
+        false);
+  }
+
+  /**
+   * @param columnFamilies whether to store all tables as column families of a single RocksDB
+   *        instance, a store that already uses that layout is always opened with it
+   * @param tableOptions the block cache, bloom filter, prefix extractor and compression
+   *        configuration of index and data index tables
+   * @param bulkLoadBufferSize if positive, index and data index tables are written as SST files
+   *        that are ingested when the table is flushed, this is the number of bytes all tables
+   *        together sort in memory before the largest buffers are spilled as sorted runs to disk
+   * @param migrateToColumnFamilies whether to migrate the tables of a store that uses a RocksDB
+   *        instance per table when it is opened with the column family layout
+   * @throws IllegalStateException if the store is opened with the column family layout, contains
+   *         tables that are separate RocksDB instances and is not allowed to migrate them
+   */
+  public RocksDBClient(
+      final String subDirectory,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite,
+      final int batchWriteSize,
+      final boolean walOnBatchWrite,
+      final boolean columnFamilies,
+      final RocksDBTableOptions tableOptions,
+      final long bulkLoadBufferSize,
+      final boolean migrateToColumnFamilies) {
     this.subDirectory = subDirectory;
     this.visibilityEnabled = visibilityEnabled;
     this.compactOnWrite = compactOnWrite;
     this.batchWriteSize = batchWriteSize;
     this.walOnBatchWrite = walOnBatchWrite;
+    this.tableOptions = tableOptions;
+    bulkLoadBudget =
+        bulkLoadBufferSize > 0 ? new RocksDBBulkLoader.MemoryBudget(bulkLoadBufferSize) : null;
+    if (columnFamilies || RocksDBSharedDB.exists(subDirectory)) {
+      if (RocksDBSharedDB.getLegacyTables(subDirectory).length > 0) {
+        if (!migrateToColumnFamilies) {
+          throw new IllegalStateException(
+              "RocksDB store '"
+                  + subDirectory
+                  + "' has tables that are separate RocksDB instances, they must be migrated to column families explicitly with --migrateToColumnFamilies");
+        }
+        sharedDb = new RocksDBSharedDB(subDirectory, tableOptions);
+        // opening the shared instance migrates the existing tables
+        if (sharedDb.getDb(true) == null) {
+          throw new IllegalStateException(
+              "Unable to migrate RocksDB store '" + subDirectory + "' to column families");
+        }
+      } else {
+        sharedDb = new RocksDBSharedDB(subDirectory, tableOptions);
+      }
+    } else {
+      sharedDb = null;
+    }
   }
 
   private RocksDBMetadataTable loadMetadataTable(final CacheKey key) throws RocksDBException {
+    if (sharedDb != null) {
+      final String tableName = new File(key.directory).getName();
+      return new RocksDBMetadataTable(
+          sharedDb.getDb(true),
+          sharedDb.getColumnFamily(tableName, true),
+          false,
+          key.requiresTimestamp,
+          visibilityEnabled,
+          compactOnWrite);
+    }
     final File dir = new File(key.directory);
     if (!dir.exists() && !dir.mkdirs()) {
       LOGGER.error("Unable to create directory for rocksdb store '" + key.directory + "'");
@@ -216,7 +301,10 @@ public class RocksDBClient implements Closeable {
         key.requiresTimestamp,
         visibilityEnabled,
         compactOnWrite,
-        batchWriteSize);
+        batchWriteSize,
+        sharedDb,
+        tableOptions,
+        bulkLoadBudget);
   }
 
   @SuppressFBWarnings(
@@ -224,34 +312,102 @@ public class RocksDBClient implements Closeable {
       justification = "This is only called from the loading cache which is synchronized")
   private RocksDBDataIndexTable loadDataIndexTable(final DataIndexCacheKey key) {
     return new RocksDBDataIndexTable(
-        indexWriteOptions,
+        dataIndexWriteOptions,
         batchWriteOptions,
         key.directory,
         key.adapterId,
         visibilityEnabled,
         compactOnWrite,
-        batchWriteSize);
+        batchWriteSize,
+        sharedDb,
+        bulkLoadBudget);
   }
 
   public String getSubDirectory() {
     return subDirectory;
   }
 
-  public synchronized RocksDBIndexTable getIndexTable(
-      final String tableName,
-      final short adapterId,
-      final byte[] partition,
-      final boolean requiresTimestamp) {
+  /**
+   * @return whether all tables are column families of a single RocksDB instance
+   */
+  public boolean isColumnFamilyLayout() {
+    return sharedDb != null;
+  }
+
+  /**
+   * @return the names of all index, data index and metadata tables in this store
+   */
+  public Set<String> getTableNames() {
+    if (sharedDb != null) {
+      return sharedDb.getColumnFamilyNames();
+    }
+    final String[] listing = new File(subDirectory).list();
+    return listing == null ? Collections.emptySet() : new HashSet<>(Arrays.asList(listing));
+  }
+
+  /**
+   * Delete the tables that start with the given prefix, the tables should be closed first.
+   *
+   * @param prefix the table name prefix
+   */
+  public void deleteTables(final String prefix) {
+    if (sharedDb != null) {
+      sharedDb.dropColumnFamilies(name -> name.startsWith(prefix));
+      return;
+    }
+    final File[] tables = new File(subDirectory).listFiles((dir, name) -> name.startsWith(prefix));
+    if (tables != null) {
+      for (final File f : tables) {
+        try {
+          FileUtils.deleteDirectory(f);
+        } catch (final IOException e) {
+          LOGGER.warn("Unable to delete directory '" + f.getAbsolutePath() + "'", e);
+        }
+      }
+    }
+  }
+
+  private org.rocksdb.Cache getBlockCache() {
+    if (blockCache == null) {
+      RocksDB.loadLibrary();
+      blockCache = new LRUCache(tableOptions.getBlockCacheSize());
+    }
+    return blockCache;
+  }
+
+  private void initIndexOptions() {
     if (indexWriteOptions == null) {
       RocksDB.loadLibrary();
       final int cores = Runtime.getRuntime().availableProcessors();
       indexWriteOptions =
-          new Options().setCreateIfMissing(true).prepareForBulkLoad().setIncreaseParallelism(cores);
+          tableOptions.configureIndex(
+              new Options().setCreateIfMissing(true).prepareForBulkLoad().setIncreaseParallelism(
+                  cores),
+              getBlockCache(),
+              tableResources);
+      dataIndexWriteOptions =
+          tableOptions.configureDataIndex(
+              new Options().setCreateIfMissing(true).prepareForBulkLoad().setIncreaseParallelism(
+                  cores),
+              getBlockCache(),
+              tableResources);
     }
     if (batchWriteOptions == null) {
       batchWriteOptions =
           new WriteOptions().setDisableWAL(!walOnBatchWrite).setNoSlowdown(false).setSync(false);
     }
+  }
+
+  public RocksDBTableOptions getTableOptions() {
+    return tableOptions;
+  }
+
+  public synchronized RocksDBIndexTable getIndexTable(
+      final String tableName,
+      final short adapterId,
+      final byte[] partition,
+      final boolean requiresTimestamp) {
+    initIndexOptions();
     final String directory = subDirectory + "/" + tableName;
     return indexTableCache.get(
         (IndexCacheKey) keyCache.get(
@@ -262,16 +418,7 @@ public class RocksDBClient implements Closeable {
   public synchronized RocksDBDataIndexTable getDataIndexTable(
       final String tableName,
       final short adapterId) {
-    if (indexWriteOptions == null) {
-      RocksDB.loadLibrary();
-      final int cores = Runtime.getRuntime().availableProcessors();
-      indexWriteOptions =
-          new Options().setCreateIfMissing(true).prepareForBulkLoad().setIncreaseParallelism(cores);
-    }
-    if (batchWriteOptions == null) {
-      batchWriteOptions =
-          new WriteOptions().setDisableWAL(!walOnBatchWrite).setNoSlowdown(false).setSync(false);
-    }
+    initIndexOptions();
     final String directory = subDirectory + "/" + tableName;
     return dataIndexTableCache.get(
         (DataIndexCacheKey) keyCache.get(directory, d -> new DataIndexCacheKey(d, adapterId)));
@@ -280,7 +427,7 @@ public class RocksDBClient implements Closeable {
   public synchronized RocksDBMetadataTable getMetadataTable(final MetadataType type) {
     if (metadataOptions == null) {
       RocksDB.loadLibrary();
-      metadataOptions = new Options().setCreateIfMissing(true).optimizeForSmallDb();
+      metadataOptions = new Options().setCreateIfMissing(true).optimizeForSmallDb(getBlockCache());
     }
     final String directory = subDirectory + "/" + type.id();
     return metadataTableCache.get(
@@ -297,15 +444,19 @@ public class RocksDBClient implements Closeable {
     }
     // this could have been created by a different process so check the
     // directory listing
-    final String[] listing = new File(subDirectory).list((dir, name) -> name.contains(indexName));
-    return (listing != null) && (listing.length > 0);
+    return getTableNames().stream().anyMatch(name -> name.contains(indexName));
   }
 
   public boolean metadataTableExists(final MetadataType type) {
     // this could have been created by a different process so check the
     // directory listing
-    return (keyCache.getIfPresent(subDirectory + "/" + type.id()) != null)
-        || new File(subDirectory + "/" + type.id()).exists();
+    if (keyCache.getIfPresent(subDirectory + "/" + type.id()) != null) {
+      return true;
+    }
+    if (sharedDb != null) {
+      return sharedDb.getColumnFamily(type.id(), false) != null;
+    }
+    return new File(subDirectory + "/" + type.id()).exists();
   }
 
   public void close(final String indexName, final String typeName) {
@@ -368,11 +519,35 @@ public class RocksDBClient implements Closeable {
     dataIndexTableCache.invalidateAll();
     metadataTableCache.asMap().values().forEach(db -> db.close());
     metadataTableCache.invalidateAll();
+    if (sharedDb != null) {
+      sharedDb.close();
+    }
     synchronized (this) {
       if (batchWriteOptions != null) {
         batchWriteOptions.close();
         batchWriteOptions = null;
       }
+      for (final AutoCloseable resource : Arrays.asList(
+          indexWriteOptions,
+          dataIndexWriteOptions,
+          metadataOptions,
+          blockCache)) {
+        if (resource != null) {
+          tableResources.add(resource);
+        }
+      }
+      for (final AutoCloseable resource : tableResources) {
+        try {
+          resource.close();
+        } catch (final Exception e) {
+          LOGGER.warn("Unable to close RocksDB resource", e);
+        }
+      }
+      tableResources.clear();
+      indexWriteOptions = null;
+      dataIndexWriteOptions = null;
+      metadataOptions = null;
+      blockCache = null;
     }
   }
 }
@@ -10,11 +10,16 @@ package org.locationtech.geowave.datastore.rocksdb.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 
+/**
+ * Shares one client per store directory. RocksDB only allows a directory to be opened once per
+ * process, so opening a directory that is already open with different options is rejected rather
+ * than opening it a second time.
+ */
 public class RocksDBClientCache {
   private static Logger LOGGER = LoggerFactory.getLogger(RocksDBClientCache.class);
   private static RocksDBClientCache singletonInstance;
@@ -26,15 +31,8 @@ public class RocksDBClientCache {
     return singletonInstance;
   }
 
-  private final LoadingCache<ClientKey, RocksDBClient> clientCache =
-      Caffeine.newBuilder().build(subDirectoryVisiblityPair -> {
-        return new RocksDBClient(
-            subDirectoryVisiblityPair.directory,
-            subDirectoryVisiblityPair.visibilityEnabled,
-            subDirectoryVisiblityPair.compactOnWrite,
-            subDirectoryVisiblityPair.batchSize,
-            subDirectoryVisiblityPair.walOnBatchWrite);
-      });
+  // keyed by the canonical path of the store directory
+  private final Map<String, CachedClient> clientCache = new HashMap<>();
 
   protected RocksDBClientCache() {}
 
@@ -44,13 +42,69 @@ public class RocksDBClientCache {
       final boolean compactOnWrite,
       final int batchWriteSize,
       final boolean walOnBatchWrite) {
-    return clientCache.get(
-        new ClientKey(
-            directory,
+    return getClient(
+        directory,
+        visibilityEnabled,
+        compactOnWrite,
+        batchWriteSize,
+        walOnBatchWrite,
+        false,
+        new RocksDBTableOptions(),
+        0,
+        false);
+  }
+
+  /**
+   * Get the client for a store directory, opening it if necessary.
+   *
+   * @param migrateToColumnFamilies whether to migrate tables that are separate RocksDB instances
+   *        into column families if the store is opened with the column family layout, this only
+   *        applies when the client is opened
+   * @throws IllegalArgumentException if the directory is already open with different options
+   */
+  public synchronized RocksDBClient getClient(
+      final String directory,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite,
+      final int batchWriteSize,
+      final boolean walOnBatchWrite,
+      final boolean columnFamilies,
+      final RocksDBTableOptions tableOptions,
+      final long bulkLoadBufferSize,
+      final boolean migrateToColumnFamilies) {
+    final String path = getCanonicalPath(directory);
+    final ClientOptions options =
+        new ClientOptions(
             visibilityEnabled,
             compactOnWrite,
             batchWriteSize,
-            walOnBatchWrite));
+            walOnBatchWrite,
+            columnFamilies,
+            tableOptions,
+            bulkLoadBufferSize);
+    final CachedClient cached = clientCache.get(path);
+    if (cached != null) {
+      if (!cached.options.equals(options)) {
+        throw new IllegalArgumentException(
+            "RocksDB store '"
+                + path
+                + "' is already open with different options, it must be closed before it can be opened with other options");
+      }
+      return cached.client;
+    }
+    final RocksDBClient client =
+        new RocksDBClient(
+            path,
+            visibilityEnabled,
+            compactOnWrite,
+            batchWriteSize,
+            walOnBatchWrite,
+            columnFamilies,
+            tableOptions,
+            bulkLoadBufferSize,
+            migrateToColumnFamilies);
+    clientCache.put(path, new CachedClient(options, client));
+    return client;
   }
 
   public synchronized void close(
@@ -59,71 +113,79 @@ public class RocksDBClientCache {
       final boolean compactOnWrite,
       final int batchWriteSize,
       final boolean walOnBatchWrite,
+      final boolean columnFamilies,
+      final RocksDBTableOptions tableOptions,
+      final long bulkLoadBufferSize,
       final boolean invalidateCache) {
-    final ClientKey key =
-        new ClientKey(
-            directory,
-            visibilityEnabled,
-            compactOnWrite,
-            batchWriteSize,
-            walOnBatchWrite);
-    final RocksDBClient client = clientCache.getIfPresent(key);
-    if (client != null) {
+    final String path = getCanonicalPath(directory);
+    final CachedClient cached = clientCache.get(path);
+    // a client that was opened with other options does not belong to the caller
+    if ((cached != null)
+        && cached.options.equals(
+            new ClientOptions(
+                visibilityEnabled,
+                compactOnWrite,
+                batchWriteSize,
+                walOnBatchWrite,
+                columnFamilies,
+                tableOptions,
+                bulkLoadBufferSize))) {
       if (invalidateCache) {
-        clientCache.invalidate(key);
-      }
-      client.close();
-    }
-    if (clientCache.estimatedSize() == 0) {
-      if (RocksDBClient.metadataOptions != null) {
-        RocksDBClient.metadataOptions.close();
-        RocksDBClient.metadataOptions = null;
-      }
-      if (RocksDBClient.indexWriteOptions != null) {
-        RocksDBClient.indexWriteOptions.close();
-        RocksDBClient.indexWriteOptions = null;
+        clientCache.remove(path);
       }
+      cached.client.close();
     }
   }
 
   public synchronized void closeAll() {
-    clientCache.asMap().forEach((k, v) -> v.close());
-    clientCache.invalidateAll();
-    if (RocksDBClient.metadataOptions != null) {
-      RocksDBClient.metadataOptions.close();
-      RocksDBClient.metadataOptions = null;
+    clientCache.values().forEach(c -> c.client.close());
+    clientCache.clear();
+  }
+
+  private static String getCanonicalPath(final String directory) {
+    try {
+      return new File(directory).getCanonicalPath();
+    } catch (final IOException e) {
+      LOGGER.error("Error getting canonical path", e);
     }
-    if (RocksDBClient.indexWriteOptions != null) {
-      RocksDBClient.indexWriteOptions.close();
-      RocksDBClient.indexWriteOptions = null;
+    return directory;
+  }
+
+  private static class CachedClient {
+    private final ClientOptions options;
+    private final RocksDBClient client;
+
+    private CachedClient(final ClientOptions options, final RocksDBClient client) {
+      this.options = options;
+      this.client = client;
     }
   }
 
-  private static class ClientKey {
-    private final String directory;
+  private static class ClientOptions {
     private final boolean visibilityEnabled;
     private final boolean compactOnWrite;;
     private final int batchSize;
     private final boolean walOnBatchWrite;
+    private final boolean columnFamilies;
+    private final RocksDBTableOptions tableOptions;
+    private final long bulkLoadBufferSize;
 
-    public ClientKey(
-        final String directory,
+    public ClientOptions(
         final boolean visibilityEnabled,
         final boolean compactOnWrite,
         final int batchSize,
-        final boolean walOnBatchWrite) {
+        final boolean walOnBatchWrite,
+        final boolean columnFamilies,
+        final RocksDBTableOptions tableOptions,
+        final long bulkLoadBufferSize) {
       super();
-      String path = directory;
-      try {
-        path = new File(directory).getCanonicalPath();
-      } catch (final IOException e) {
-        LOGGER.error("Error getting canonical path", e);
-      }
-      this.directory = path;
       this.visibilityEnabled = visibilityEnabled;
       this.compactOnWrite = compactOnWrite;
       this.batchSize = batchSize;
       this.walOnBatchWrite = walOnBatchWrite;
+      this.columnFamilies = columnFamilies;
+      this.tableOptions = tableOptions;
+      this.bulkLoadBufferSize = bulkLoadBufferSize;
     }
 
     @Override
@@ -131,8 +193,10 @@ public class RocksDBClientCache {
       final int prime = 31;
       int result = 1;
       result = (prime * result) + batchSize;
+      result = (prime * result) + (int) (bulkLoadBufferSize ^ (bulkLoadBufferSize >>> 32));
+      result = (prime * result) + (columnFamilies ? 1231 : 1237);
       result = (prime * result) + (compactOnWrite ? 1231 : 1237);
-      result = (prime * result) + ((directory == null) ? 0 : directory.hashCode());
+      result = (prime * result) + ((tableOptions == null) ? 0 : tableOptions.hashCode());
       result = (prime * result) + (visibilityEnabled ? 1231 : 1237);
       result = (prime * result) + (walOnBatchWrite ? 1231 : 1237);
       return result;
@@ -149,18 +213,24 @@ public class RocksDBClientCache {
       if (getClass() != obj.getClass()) {
         return false;
       }
-      final ClientKey other = (ClientKey) obj;
+      final ClientOptions other = (ClientOptions) obj;
       if (batchSize != other.batchSize) {
         return false;
       }
+      if (bulkLoadBufferSize != other.bulkLoadBufferSize) {
+        return false;
+      }
+      if (columnFamilies != other.columnFamilies) {
+        return false;
+      }
       if (compactOnWrite != other.compactOnWrite) {
         return false;
       }
-      if (directory == null) {
-        if (other.directory != null) {
+      if (tableOptions == null) {
+        if (other.tableOptions != null) {
           return false;
         }
-      } else if (!directory.equals(other.directory)) {
+      } else if (!tableOptions.equals(other.tableOptions)) {
         return false;
       }
       if (visibilityEnabled != other.visibilityEnabled) {
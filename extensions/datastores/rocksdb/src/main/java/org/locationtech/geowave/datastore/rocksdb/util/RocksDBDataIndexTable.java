@@ -9,6 +9,7 @@
 package org.locationtech.geowave.datastore.rocksdb.util;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
@@ -37,7 +38,9 @@ public class RocksDBDataIndexTable extends AbstractRocksDBTable {
       final short adapterId,
       final boolean visibilityEnabled,
       final boolean compactOnWrite,
-      final int batchSize) {
+      final int batchSize,
+      final RocksDBSharedDB sharedDb,
+      final RocksDBBulkLoader.MemoryBudget bulkLoadBudget) {
     super(
         writeOptions,
         batchWriteOptions,
@@ -45,7 +48,9 @@ public class RocksDBDataIndexTable extends AbstractRocksDBTable {
         adapterId,
         visibilityEnabled,
         compactOnWrite,
-        batchSize);
+        batchSize,
+        sharedDb,
+        bulkLoadBudget);
   }
 
   public synchronized void add(final byte[] dataId, final GeoWaveValue value) {
@@ -63,7 +68,10 @@ public class RocksDBDataIndexTable extends AbstractRocksDBTable {
 
     try {
       final List<byte[]> dataIdsList = Arrays.asList(dataIds);
-      final List<byte[]> dataIdxResults = readDb.multiGetAsList(dataIdsList);
+      final List<byte[]> dataIdxResults =
+          readDb.multiGetAsList(
+              Collections.nCopies(dataIdsList.size(), getColumnFamily()),
+              dataIdsList);
       if (dataIdsList.size() != dataIdxResults.size()) {
         LOGGER.warn("Result size differs from original keys");
       } else {
@@ -94,7 +102,7 @@ public class RocksDBDataIndexTable extends AbstractRocksDBTable {
     }
     final RocksIterator it;
     if (reverse) {
-      it = readDb.newIterator();
+      it = readDb.newIterator(getColumnFamily());
       if (endDataId == null) {
         it.seekToLast();
       } else {
@@ -108,12 +116,12 @@ public class RocksDBDataIndexTable extends AbstractRocksDBTable {
       final ReadOptions options;
       if (endDataId == null) {
         options = null;
-        it = readDb.newIterator();
+        it = readDb.newIterator(getColumnFamily());
       } else {
         options =
             new ReadOptions().setIterateUpperBound(
                 new Slice(ByteArrayUtils.getNextPrefix(endDataId)));
-        it = readDb.newIterator(options);
+        it = readDb.newIterator(getColumnFamily(), options);
       }
       if (startDataId == null) {
         it.seekToFirst();
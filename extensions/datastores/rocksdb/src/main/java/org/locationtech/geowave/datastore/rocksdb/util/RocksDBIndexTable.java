@@ -30,6 +30,7 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
   private long prevTime = Long.MAX_VALUE;
   private final boolean requiresTimestamp;
   private final byte[] partition;
+  private final RocksDBTableOptions tableOptions;
 
   public RocksDBIndexTable(
       final Options writeOptions,
@@ -40,7 +41,10 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
       final boolean requiresTimestamp,
       final boolean visibilityEnabled,
       final boolean compactOnWrite,
-      final int batchSize) {
+      final int batchSize,
+      final RocksDBSharedDB sharedDb,
+      final RocksDBTableOptions tableOptions,
+      final RocksDBBulkLoader.MemoryBudget bulkLoadBudget) {
     super(
         writeOptions,
         batchWriteOptions,
@@ -48,12 +52,16 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
         adapterId,
         visibilityEnabled,
         compactOnWrite,
-        batchSize);
+        batchSize,
+        sharedDb,
+        bulkLoadBudget);
     this.requiresTimestamp = requiresTimestamp;
     this.partition = partition;
+    this.tableOptions = tableOptions;
   }
 
   public void delete(final byte[] sortKey, final byte[] dataId) {
+    flushBulkLoadBeforeDelete();
     final RocksDB db = getDb(false);
     if (db == null) {
       LOGGER.warn("Unable to delete key because directory '" + subDirectory + "' doesn't exist");
@@ -61,7 +69,7 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
     }
     try {
       final byte[] prefix = Bytes.concat(sortKey, dataId);
-      db.deleteRange(prefix, ByteArrayUtils.getNextPrefix(prefix));
+      db.deleteRange(getColumnFamily(), prefix, ByteArrayUtils.getNextPrefix(prefix));
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to delete by sort key and data ID", e);
     }
@@ -113,8 +121,8 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
     if (readDb == null) {
       return new CloseableIterator.Empty<>();
     }
-    final ReadOptions options = new ReadOptions().setFillCache(false);
-    final RocksIterator it = readDb.newIterator(options);
+    final ReadOptions options = new ReadOptions().setFillCache(false).setTotalOrderSeek(true);
+    final RocksIterator it = readDb.newIterator(getColumnFamily(), options);
     it.seekToFirst();
     return new RocksDBRowIterator(
         options,
@@ -130,15 +138,18 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
     if (readDb == null) {
       return new CloseableIterator.Empty<>();
     }
-    final ReadOptions options;
-    final RocksIterator it;
-    if (range.getEnd() == null) {
-      options = null;
-      it = readDb.newIterator();
+    final ReadOptions options = new ReadOptions();
+    if (range.getEnd() != null) {
+      options.setIterateUpperBound(new Slice(range.getEndAsNextPrefix()));
+    }
+    if (tableOptions.isWithinPrefix(range.getStart(), range.getEnd())) {
+      // every key in the range has the same prefix so files whose prefix bloom filter does not
+      // contain it are skipped
+      options.setPrefixSameAsStart(true);
     } else {
-      options = new ReadOptions().setIterateUpperBound(new Slice(range.getEndAsNextPrefix()));
-      it = readDb.newIterator(options);
+      options.setTotalOrderSeek(true);
     }
+    final RocksIterator it = readDb.newIterator(getColumnFamily(), options);
     if (range.getStart() == null) {
       it.seekToFirst();
     } else {
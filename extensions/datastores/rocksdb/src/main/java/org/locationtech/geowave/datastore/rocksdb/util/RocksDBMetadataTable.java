@@ -12,6 +12,7 @@ import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.entities.GeoWaveMetadata;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
@@ -25,6 +26,10 @@ import com.google.common.primitives.Longs;
 public class RocksDBMetadataTable {
   private static final Logger LOGGER = LoggerFactory.getLogger(RocksDBMetadataTable.class);
   private final RocksDB db;
+  // null when the table is the default column family of its own RocksDB instance
+  private final ColumnFamilyHandle columnFamily;
+  // a shared instance is closed with the client rather than by its tables
+  private final boolean closeDb;
   private final boolean requiresTimestamp;
   private final boolean visibilityEnabled;
   private final boolean compactOnWrite;
@@ -35,8 +40,20 @@ public class RocksDBMetadataTable {
       final boolean requiresTimestamp,
       final boolean visibilityEnabled,
       final boolean compactOnWrite) {
+    this(db, null, true, requiresTimestamp, visibilityEnabled, compactOnWrite);
+  }
+
+  public RocksDBMetadataTable(
+      final RocksDB db,
+      final ColumnFamilyHandle columnFamily,
+      final boolean closeDb,
+      final boolean requiresTimestamp,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite) {
     super();
     this.db = db;
+    this.columnFamily = columnFamily;
+    this.closeDb = closeDb;
     this.requiresTimestamp = requiresTimestamp;
     this.visibilityEnabled = visibilityEnabled;
     this.compactOnWrite = compactOnWrite;
@@ -44,7 +61,11 @@ public class RocksDBMetadataTable {
 
   public void remove(final byte[] key) {
     try {
-      db.singleDelete(key);
+      if (columnFamily == null) {
+        db.singleDelete(key);
+      } else {
+        db.singleDelete(columnFamily, key);
+      }
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to delete metadata", e);
     }
@@ -85,7 +106,7 @@ public class RocksDBMetadataTable {
 
   public void compact() {
     try {
-      db.compactRange();
+      compactRange();
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to force compacting metadata", e);
     }
@@ -96,10 +117,10 @@ public class RocksDBMetadataTable {
     final RocksIterator it;
     if (range.getEnd() == null) {
       options = null;
-      it = db.newIterator();
+      it = newIterator(null);
     } else {
       options = new ReadOptions().setIterateUpperBound(new Slice(range.getEndAsNextPrefix()));
-      it = db.newIterator(options);
+      it = newIterator(options);
     }
     if (range.getStart() == null) {
       it.seekToFirst();
@@ -122,20 +143,24 @@ public class RocksDBMetadataTable {
 
   private CloseableIterator<GeoWaveMetadata> prefixIterator(final byte[] prefix) {
     final ReadOptions options = new ReadOptions().setPrefixSameAsStart(true);
-    final RocksIterator it = db.newIterator(options);
+    final RocksIterator it = newIterator(options);
     it.seek(prefix);
     return new RocksDBMetadataIterator(options, it, requiresTimestamp, visibilityEnabled);
   }
 
   public CloseableIterator<GeoWaveMetadata> iterator() {
-    final RocksIterator it = db.newIterator();
+    final RocksIterator it = newIterator(null);
     it.seekToFirst();
     return new RocksDBMetadataIterator(it, requiresTimestamp, visibilityEnabled);
   }
 
   public void put(final byte[] key, final byte[] value) {
     try {
-      db.put(key, value);
+      if (columnFamily == null) {
+        db.put(key, value);
+      } else {
+        db.put(columnFamily, key, value);
+      }
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to add metadata", e);
     }
@@ -144,14 +169,31 @@ public class RocksDBMetadataTable {
   public void flush() {
     if (compactOnWrite) {
       try {
-        db.compactRange();
+        compactRange();
       } catch (final RocksDBException e) {
         LOGGER.warn("Unable to compact metadata", e);
       }
     }
   }
 
+  private void compactRange() throws RocksDBException {
+    if (columnFamily == null) {
+      db.compactRange();
+    } else {
+      db.compactRange(columnFamily);
+    }
+  }
+
+  private RocksIterator newIterator(final ReadOptions options) {
+    if (columnFamily == null) {
+      return options == null ? db.newIterator() : db.newIterator(options);
+    }
+    return options == null ? db.newIterator(columnFamily) : db.newIterator(columnFamily, options);
+  }
+
   public void close() {
-    db.close();
+    if (closeDb) {
+      db.close();
+    }
   }
 }
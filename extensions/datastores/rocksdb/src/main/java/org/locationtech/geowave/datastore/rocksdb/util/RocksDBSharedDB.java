@@ -0,0 +1,360 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.store.operations.MetadataType;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.FlushOptions;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteBufferManager;
+import org.rocksdb.WriteOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single RocksDB instance for a store directory in which each index table, partition and metadata
+ * type is a column family rather than a separate RocksDB instance in its own directory. The column
+ * families share one block cache, one write buffer manager (which charges memtables to the block
+ * cache) and the instance's flush and compaction threads, so open files, memory and threads no
+ * longer grow with the number of partitions.
+ *
+ * <p> When a directory still contains tables in the original layout (one RocksDB directory per
+ * table) they are migrated into column families of the same name the first time the shared instance
+ * is opened, which clients only do when the migration was requested explicitly. Each table is
+ * copied and flushed, its completion is recorded with a synced write and only then is the original
+ * table deleted, so an interrupted migration is either redone or only has to finish deleting.
+ */
+public class RocksDBSharedDB {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RocksDBSharedDB.class);
+  private static final String DEFAULT_COLUMN_FAMILY =
+      StringUtils.stringFromBinary(RocksDB.DEFAULT_COLUMN_FAMILY);
+  // RocksDB writes this file in the root of every database directory
+  private static final String CURRENT_FILE = "CURRENT";
+  private static final Set<String> METADATA_TABLES =
+      Arrays.stream(MetadataType.values()).map(MetadataType::id).collect(Collectors.toSet());
+  private static final long WRITE_BUFFER_SIZE = 256L * 1024 * 1024;
+  private static final int MIGRATION_BATCH_SIZE = 10000;
+  // prefix of the keys in the default column family that record which tables have been migrated
+  private static final String MIGRATED_PREFIX = "migrated:";
+
+  private final String directory;
+  private final RocksDBTableOptions tableOptions;
+  private final Map<String, ColumnFamilyHandle> columnFamilies = new ConcurrentHashMap<>();
+  private RocksDB db;
+  private Cache blockCache;
+  private WriteBufferManager writeBufferManager;
+  private DBOptions dbOptions;
+  private ColumnFamilyOptions indexOptions;
+  private ColumnFamilyOptions dataIndexOptions;
+  private ColumnFamilyOptions metadataOptions;
+  private final List<AutoCloseable> tableResources = new ArrayList<>();
+
+  public RocksDBSharedDB(final String directory, final RocksDBTableOptions tableOptions) {
+    this.directory = directory;
+    this.tableOptions = tableOptions;
+  }
+
+  /**
+   * @param directory the store directory
+   * @return whether the directory contains a shared RocksDB instance
+   */
+  public static boolean exists(final String directory) {
+    return new File(directory, CURRENT_FILE).exists();
+  }
+
+  /**
+   * @param directory the store directory
+   * @return the tables in the directory that are stored as separate RocksDB instances
+   */
+  public static File[] getLegacyTables(final String directory) {
+    final File[] tables =
+        new File(directory).listFiles(f -> f.isDirectory() && new File(f, CURRENT_FILE).exists());
+    return tables == null ? new File[0] : tables;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Get the shared instance, opening it if necessary.
+   *
+   * @param create whether to create the instance if it does not exist yet
+   * @return the instance, or null if it does not exist and create is false or it could not be
+   *         opened
+   */
+  public synchronized RocksDB getDb(final boolean create) {
+    if ((db == null) && (create || exists(directory))) {
+      try {
+        open();
+      } catch (final RocksDBException e) {
+        LOGGER.error("Unable to open RocksDB store '" + directory + "'", e);
+        close();
+      }
+    }
+    return db;
+  }
+
+  /**
+   * Get the column family for a table.
+   *
+   * @param name the table name
+   * @param create whether to create the column family if it does not exist yet
+   * @return the column family handle, or null if it does not exist and create is false
+   */
+  public ColumnFamilyHandle getColumnFamily(final String name, final boolean create) {
+    ColumnFamilyHandle handle = columnFamilies.get(name);
+    if ((handle != null) || !create) {
+      if ((handle == null) && (db == null)) {
+        // the instance may exist on disk but not be opened yet
+        getDb(false);
+        handle = columnFamilies.get(name);
+      }
+      return handle;
+    }
+    synchronized (this) {
+      final RocksDB db = getDb(true);
+      if (db == null) {
+        return null;
+      }
+      handle = columnFamilies.get(name);
+      if (handle == null) {
+        try {
+          handle = db.createColumnFamily(new ColumnFamilyDescriptor(key(name), getOptions(name)));
+          columnFamilies.put(name, handle);
+        } catch (final RocksDBException e) {
+          LOGGER.error("Unable to create column family '" + name + "'", e);
+        }
+      }
+      return handle;
+    }
+  }
+
+  /**
+   * @return the names of all tables in this instance
+   */
+  public Set<String> getColumnFamilyNames() {
+    getDb(false);
+    return columnFamilies.keySet().stream().filter(n -> !DEFAULT_COLUMN_FAMILY.equals(n)).collect(
+        Collectors.toSet());
+  }
+
+  /**
+   * Drop the column families for the tables matching the given filter, deleting their data.
+   *
+   * @param filter the table names to drop
+   */
+  public synchronized void dropColumnFamilies(final Predicate<String> filter) {
+    if (getDb(false) == null) {
+      return;
+    }
+    for (final String name : getColumnFamilyNames()) {
+      if (filter.test(name)) {
+        final ColumnFamilyHandle handle = columnFamilies.remove(name);
+        try {
+          db.dropColumnFamily(handle);
+        } catch (final RocksDBException e) {
+          LOGGER.warn("Unable to drop column family '" + name + "'", e);
+        }
+        handle.close();
+      }
+    }
+  }
+
+  /**
+   * Create options for writing SST files to ingest into a table, they combine the instance options
+   * with the table's column family options so the files have the table's format.
+   *
+   * @param name the table name
+   * @return the options, which must be closed by the caller
+   */
+  public synchronized Options createOptions(final String name) {
+    getDb(true);
+    return new Options(dbOptions, getOptions(name));
+  }
+
+  private ColumnFamilyOptions getOptions(final String name) {
+    if (METADATA_TABLES.contains(name)) {
+      return metadataOptions;
+    }
+    return RocksDBUtils.isDataIndexTable(name) ? dataIndexOptions : indexOptions;
+  }
+
+  private void open() throws RocksDBException {
+    RocksDB.loadLibrary();
+    final File dir = new File(directory);
+    if (!dir.exists() && !dir.mkdirs()) {
+      LOGGER.error("Unable to create directory for rocksdb store '" + directory + "'");
+    }
+    blockCache = new LRUCache(tableOptions.getBlockCacheSize());
+    writeBufferManager = new WriteBufferManager(WRITE_BUFFER_SIZE, blockCache);
+    dbOptions =
+        new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(
+            true).setIncreaseParallelism(
+                Runtime.getRuntime().availableProcessors()).setWriteBufferManager(
+                    writeBufferManager);
+    indexOptions =
+        tableOptions.configureIndex(new ColumnFamilyOptions(), blockCache, tableResources);
+    dataIndexOptions =
+        tableOptions.configureDataIndex(new ColumnFamilyOptions(), blockCache, tableResources);
+    metadataOptions = new ColumnFamilyOptions().optimizeForSmallDb(blockCache);
+
+    final List<String> names = new ArrayList<>();
+    if (exists(directory)) {
+      try (Options options = new Options()) {
+        RocksDB.listColumnFamilies(options, directory).forEach(
+            n -> names.add(StringUtils.stringFromBinary(n)));
+      }
+    }
+    if (!names.contains(DEFAULT_COLUMN_FAMILY)) {
+      names.add(0, DEFAULT_COLUMN_FAMILY);
+    }
+    final List<ColumnFamilyDescriptor> descriptors =
+        names.stream().map(n -> new ColumnFamilyDescriptor(key(n), getOptions(n))).collect(
+            Collectors.toList());
+    final List<ColumnFamilyHandle> handles = new ArrayList<>(descriptors.size());
+    db = RocksDB.open(dbOptions, directory, descriptors, handles);
+    for (int i = 0; i < names.size(); i++) {
+      columnFamilies.put(names.get(i), handles.get(i));
+    }
+    migrateLegacyTables();
+  }
+
+  private void migrateLegacyTables() throws RocksDBException {
+    final File[] legacyTables = getLegacyTables(directory);
+    if (legacyTables.length == 0) {
+      return;
+    }
+    LOGGER.info(
+        "Migrating "
+            + legacyTables.length
+            + " RocksDB tables in '"
+            + directory
+            + "' to column families");
+    try (final WriteOptions writeOptions = new WriteOptions().setDisableWAL(true);
+        final WriteOptions syncOptions = new WriteOptions().setSync(true);
+        final FlushOptions flushOptions = new FlushOptions().setWaitForFlush(true);
+        final Options legacyOptions = new Options()) {
+      for (final File table : legacyTables) {
+        final String name = table.getName();
+        final byte[] migratedKey = key(MIGRATED_PREFIX + name);
+        if (db.get(migratedKey) != null) {
+          // a previous migration copied the table but was interrupted while deleting it
+          deleteMigratedTable(table, migratedKey);
+          continue;
+        }
+        // a previous migration may have been interrupted after creating the column family
+        final ColumnFamilyHandle existing = columnFamilies.remove(name);
+        if (existing != null) {
+          db.dropColumnFamily(existing);
+          existing.close();
+        }
+        final ColumnFamilyHandle handle =
+            db.createColumnFamily(new ColumnFamilyDescriptor(key(name), getOptions(name)));
+        columnFamilies.put(name, handle);
+        try (RocksDB legacyDb = RocksDB.openReadOnly(legacyOptions, table.getAbsolutePath());
+            RocksIterator it = legacyDb.newIterator()) {
+          it.seekToFirst();
+          WriteBatch batch = new WriteBatch();
+          while (it.isValid()) {
+            batch.put(handle, it.key(), it.value());
+            if (batch.count() >= MIGRATION_BATCH_SIZE) {
+              db.write(writeOptions, batch);
+              batch.close();
+              batch = new WriteBatch();
+            }
+            it.next();
+          }
+          db.write(writeOptions, batch);
+          batch.close();
+        }
+        // the WAL is disabled so the data must be flushed before the original table is removed
+        db.flush(flushOptions, handle);
+        db.put(syncOptions, migratedKey, new byte[0]);
+        deleteMigratedTable(table, migratedKey);
+      }
+    }
+  }
+
+  private void deleteMigratedTable(final File table, final byte[] migratedKey)
+      throws RocksDBException {
+    try {
+      FileUtils.deleteDirectory(table);
+    } catch (final IOException e) {
+      // the completion record is kept so the table is not copied again from what is left of it
+      LOGGER.warn("Unable to delete migrated table '" + table.getAbsolutePath() + "'", e);
+      return;
+    }
+    db.delete(migratedKey);
+  }
+
+  private static byte[] key(final String name) {
+    return StringUtils.stringToBinary(name);
+  }
+
+  public synchronized void close() {
+    final List<ColumnFamilyHandle> handles = new ArrayList<>(columnFamilies.values());
+    columnFamilies.clear();
+    handles.forEach(ColumnFamilyHandle::close);
+    if (db != null) {
+      db.close();
+      db = null;
+    }
+    for (final AutoCloseable resource : Arrays.asList(
+        indexOptions,
+        dataIndexOptions,
+        metadataOptions,
+        dbOptions,
+        writeBufferManager,
+        blockCache)) {
+      if (resource != null) {
+        try {
+          resource.close();
+        } catch (final Exception e) {
+          LOGGER.warn("Unable to close RocksDB resource", e);
+        }
+      }
+    }
+    tableResources.forEach(resource -> {
+      try {
+        resource.close();
+      } catch (final Exception e) {
+        LOGGER.warn("Unable to close RocksDB resource", e);
+      }
+    });
+    tableResources.clear();
+    indexOptions = null;
+    dataIndexOptions = null;
+    metadataOptions = null;
+    dbOptions = null;
+    writeBufferManager = null;
+    blockCache = null;
+  }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyOptionsInterface;
+import org.rocksdb.CompressionType;
+import org.rocksdb.Filter;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The read-side table configuration applied to index and data index tables. Index tables are mostly
+ * read with short range scans over sort keys, so they get a prefix bloom filter over the leading
+ * bytes of the sort key and larger blocks. Data index tables are read with point lookups by data
+ * ID, so they get a whole key bloom filter and small blocks. All tables of a store share one LRU
+ * block cache which also holds the index and filter blocks.
+ */
+public class RocksDBTableOptions {
+  public static final long DEFAULT_BLOCK_CACHE_SIZE_MB = 256;
+  public static final int DEFAULT_BLOOM_BITS_PER_KEY = 10;
+  // the first 24 bits of the sort key, which starts every key of an index table; the tier of a
+  // tiered index is in the partition key, which picks the table, so it isn't part of the prefix
+  public static final int DEFAULT_INDEX_PREFIX_LENGTH = 3;
+  public static final String DEFAULT_COMPRESSION_PER_LEVEL = "none,none,lz4,lz4,lz4,lz4,zstd";
+
+  private static final long INDEX_BLOCK_SIZE = 16 * 1024;
+  private static final long DATA_INDEX_BLOCK_SIZE = 4 * 1024;
+  private static final ImmutableMap<String, CompressionType> COMPRESSION_TYPES =
+      ImmutableMap.<String, CompressionType>builder().put(
+          "none",
+          CompressionType.NO_COMPRESSION).put("snappy", CompressionType.SNAPPY_COMPRESSION).put(
+              "zlib",
+              CompressionType.ZLIB_COMPRESSION).put(
+                  "bzip2",
+                  CompressionType.BZLIB2_COMPRESSION).put(
+                      "lz4",
+                      CompressionType.LZ4_COMPRESSION).put(
+                          "lz4hc",
+                          CompressionType.LZ4HC_COMPRESSION).put(
+                              "zstd",
+                              CompressionType.ZSTD_COMPRESSION).build();
+
+  private final long blockCacheSize;
+  private final int bloomBitsPerKey;
+  private final int indexPrefixLength;
+  private final List<CompressionType> compressionPerLevel;
+
+  public RocksDBTableOptions() {
+    this(
+        DEFAULT_BLOCK_CACHE_SIZE_MB * 1024 * 1024,
+        DEFAULT_BLOOM_BITS_PER_KEY,
+        DEFAULT_INDEX_PREFIX_LENGTH,
+        parseCompressionPerLevel(DEFAULT_COMPRESSION_PER_LEVEL));
+  }
+
+  /**
+   * @param blockCacheSize the size in bytes of the block cache shared by the tables of a store
+   * @param bloomBitsPerKey the bits per key of the bloom filters, 0 disables the filters
+   * @param indexPrefixLength the number of leading sort key bytes in the prefix bloom filter of
+   *        index tables, 0 disables the prefix extractor
+   * @param compressionPerLevel the compression of each LSM level, the last entry is used for any
+   *        further levels
+   */
+  public RocksDBTableOptions(
+      final long blockCacheSize,
+      final int bloomBitsPerKey,
+      final int indexPrefixLength,
+      final List<CompressionType> compressionPerLevel) {
+    this.blockCacheSize = blockCacheSize;
+    this.bloomBitsPerKey = bloomBitsPerKey;
+    this.indexPrefixLength = indexPrefixLength;
+    this.compressionPerLevel = Collections.unmodifiableList(new ArrayList<>(compressionPerLevel));
+  }
+
+  /**
+   * Parse a comma-separated list of compression names, one per level.
+   *
+   * @param compressionPerLevel the compression names, one of none, snappy, zlib, bzip2, lz4, lz4hc
+   *        or zstd
+   * @return the compression types
+   * @throws IllegalArgumentException if a compression name is not recognized
+   */
+  public static List<CompressionType> parseCompressionPerLevel(final String compressionPerLevel) {
+    final List<CompressionType> types = new ArrayList<>();
+    for (final String name : compressionPerLevel.split(",")) {
+      final CompressionType type = COMPRESSION_TYPES.get(name.trim().toLowerCase(Locale.ENGLISH));
+      if (type == null) {
+        throw new IllegalArgumentException(
+            "Unknown compression '"
+                + name.trim()
+                + "', expected one of "
+                + COMPRESSION_TYPES.keySet());
+      }
+      types.add(type);
+    }
+    return types;
+  }
+
+  public long getBlockCacheSize() {
+    return blockCacheSize;
+  }
+
+  public int getBloomBitsPerKey() {
+    return bloomBitsPerKey;
+  }
+
+  public int getIndexPrefixLength() {
+    return indexPrefixLength;
+  }
+
+  public List<CompressionType> getCompressionPerLevel() {
+    return compressionPerLevel;
+  }
+
+  /**
+   * Configure the options of an index table.
+   *
+   * @param options the options to configure
+   * @param blockCache the block cache shared by the tables of the store
+   * @param resources the native resources created for the options are added to this list and must
+   *        be closed after the options are no longer used
+   * @return the options
+   */
+  public <T extends ColumnFamilyOptionsInterface<T>> T configureIndex(
+      final T options,
+      final Cache blockCache,
+      final List<AutoCloseable> resources) {
+    final BlockBasedTableConfig tableConfig =
+        tableConfig(blockCache, INDEX_BLOCK_SIZE, resources).setWholeKeyFiltering(
+            indexPrefixLength <= 0);
+    if (indexPrefixLength > 0) {
+      options.useFixedLengthPrefixExtractor(indexPrefixLength);
+    }
+    return options.setTableFormatConfig(tableConfig).setCompressionPerLevel(compressionPerLevel);
+  }
+
+  /**
+   * Configure the options of a data index table.
+   *
+   * @param options the options to configure
+   * @param blockCache the block cache shared by the tables of the store
+   * @param resources the native resources created for the options are added to this list and must
+   *        be closed after the options are no longer used
+   * @return the options
+   */
+  public <T extends ColumnFamilyOptionsInterface<T>> T configureDataIndex(
+      final T options,
+      final Cache blockCache,
+      final List<AutoCloseable> resources) {
+    return options.setTableFormatConfig(
+        tableConfig(blockCache, DATA_INDEX_BLOCK_SIZE, resources).setWholeKeyFiltering(
+            true)).setCompressionPerLevel(compressionPerLevel);
+  }
+
+  private BlockBasedTableConfig tableConfig(
+      final Cache blockCache,
+      final long blockSize,
+      final List<AutoCloseable> resources) {
+    final BlockBasedTableConfig tableConfig =
+        new BlockBasedTableConfig().setBlockCache(blockCache).setBlockSize(
+            blockSize).setCacheIndexAndFilterBlocks(true).setPinL0FilterAndIndexBlocksInCache(true);
+    if (bloomBitsPerKey > 0) {
+      final Filter filter = new BloomFilter(bloomBitsPerKey, false);
+      resources.add(filter);
+      tableConfig.setFilterPolicy(filter);
+    }
+    return tableConfig;
+  }
+
+  /**
+   * Whether a range of sort keys can be scanned using the prefix bloom filter of an index table,
+   * which is the case if the start and end of the range share the same prefix so every key in the
+   * range has that prefix too.
+   *
+   * @param start the start of the range
+   * @param end the inclusive end of the range
+   * @return whether the range lies within a single prefix
+   */
+  public boolean isWithinPrefix(final byte[] start, final byte[] end) {
+    return (indexPrefixLength > 0)
+        && (start != null)
+        && (end != null)
+        && (start.length >= indexPrefixLength)
+        && (end.length >= indexPrefixLength)
+        && Arrays.equals(
+            Arrays.copyOf(start, indexPrefixLength),
+            Arrays.copyOf(end, indexPrefixLength));
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = (prime * result) + (int) (blockCacheSize ^ (blockCacheSize >>> 32));
+    result = (prime * result) + bloomBitsPerKey;
+    result = (prime * result) + compressionPerLevel.hashCode();
+    result = (prime * result) + indexPrefixLength;
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    final RocksDBTableOptions other = (RocksDBTableOptions) obj;
+    if (blockCacheSize != other.blockCacheSize) {
+      return false;
+    }
+    if (bloomBitsPerKey != other.bloomBitsPerKey) {
+      return false;
+    }
+    if (!compressionPerLevel.equals(other.compressionPerLevel)) {
+      return false;
+    }
+    if (indexPrefixLength != other.indexPrefixLength) {
+      return false;
+    }
+    return true;
+  }
+}
@@ -24,7 +24,7 @@ import org.locationtech.geowave.core.store.base.dataidx.DataIndexUtils;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.operations.MetadataType;
 import org.locationtech.geowave.core.store.operations.RangeReaderParams;
-import com.google.common.collect.Streams;
+import com.google.common.collect.Iterators;
 import com.google.common.primitives.UnsignedBytes;
 
 public class RocksDBUtils {
@@ -46,6 +46,14 @@ public class RocksDBUtils {
     return typeName + "_" + indexName;
   }
 
+  /**
+   * @param tableName the name of a table
+   * @return whether the table is the data ID index of a type
+   */
+  public static boolean isDataIndexTable(final String tableName) {
+    return tableName.endsWith("_" + DataIndexUtils.DATA_ID_INDEX.getName());
+  }
+
   public static RocksDBDataIndexTable getDataIndexTable(
       final RocksDBClient client,
       final String typeName,
@@ -110,13 +118,14 @@ public class RocksDBUtils {
         requiresTimestamp);
   }
 
-  public static Set<ByteArray> getPartitions(final String directory, final String tableNamePrefix) {
-    return Arrays.stream(
-        new File(directory).list((dir, name) -> name.startsWith(tableNamePrefix))).map(
-            str -> str.length() > (tableNamePrefix.length() + 1)
-                ? new ByteArray(
-                    ByteArrayUtils.byteArrayFromString(str.substring(tableNamePrefix.length() + 1)))
-                : new ByteArray()).collect(Collectors.toSet());
+  public static Set<ByteArray> getPartitions(
+      final RocksDBClient client,
+      final String tableNamePrefix) {
+    return client.getTableNames().stream().filter(name -> name.startsWith(tableNamePrefix)).map(
+        str -> str.length() > (tableNamePrefix.length() + 1)
+            ? new ByteArray(
+                ByteArrayUtils.byteArrayFromString(str.substring(tableNamePrefix.length() + 1)))
+            : new ByteArray()).collect(Collectors.toSet());
   }
 
   public static boolean isSortByTime(final InternalDataAdapter<?> adapter) {
@@ -129,8 +138,17 @@ public class RocksDBUtils {
         && (params.getMaxResolutionSubsamplingPerDimension().length > 0);
   }
 
-  public static Iterator<GeoWaveRow> sortBySortKey(final Iterator<GeoWaveRow> it) {
-    return Streams.stream(it).sorted(SortKeyOrder.SINGLETON).iterator();
+  /**
+   * Merges iterators that are each already in sort key order, such as the rows of a single range or
+   * partition of an index table, into one iterator in sort key order. Rows are merged as they are
+   * consumed so only the head of each iterator is held in memory.
+   *
+   * @param iterators the sorted iterators to merge
+   * @return the merged rows
+   */
+  public static Iterator<GeoWaveRow> sortBySortKey(
+      final Iterable<? extends Iterator<? extends GeoWaveRow>> iterators) {
+    return Iterators.mergeSorted(iterators, SortKeyOrder.SINGLETON);
   }
 
   public static Pair<Boolean, Boolean> isGroupByRowAndIsSortByTime(
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.DirectoryFileFilter;
+import org.apache.commons.io.filefilter.FalseFileFilter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+import org.locationtech.geowave.core.store.index.AttributeIndexOptions;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClientCache;
+import com.google.common.collect.Iterators;
+
+public class RocksDBBulkLoadTest {
+  private static final String DEFAULT_DB_DIRECTORY = "./target/rocksdb_bulk";
+  private static final String TYPE_NAME = "Measurement";
+  // enough rows that the tables spill several sorted runs with a 1MB buffer
+  private static final int NUM_ENTRIES = 50000;
+
+  @Before
+  public void setup() throws IOException {
+    RocksDBClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(new File(DEFAULT_DB_DIRECTORY));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    RocksDBClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(new File(DEFAULT_DB_DIRECTORY));
+  }
+
+  @Test
+  public void testBulkLoad() {
+    testBulkLoad(false);
+  }
+
+  @Test
+  public void testBulkLoadColumnFamilies() {
+    testBulkLoad(true);
+  }
+
+  private void testBulkLoad(final boolean columnFamilies) {
+    final DataStore store = createStore(columnFamilies);
+    try (Writer<Measurement> w = store.createWriter(TYPE_NAME)) {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+        w.write(new Measurement("name" + i, i));
+      }
+      // rewrite the first entries, the rewritten rows must replace the originals
+      for (int i = 0; i < 100; i++) {
+        w.write(new Measurement("name" + i, i));
+      }
+    }
+    // nothing is staged once the writer is closed
+    final Collection<File> staging =
+        FileUtils.listFilesAndDirs(
+            new File(DEFAULT_DB_DIRECTORY),
+            FalseFileFilter.INSTANCE,
+            DirectoryFileFilter.INSTANCE);
+    Assert.assertFalse(staging.stream().anyMatch(f -> f.getName().equals(".bulk")));
+
+    try (CloseableIterator<Measurement> it =
+        store.query(QueryBuilder.newBuilder(Measurement.class).build())) {
+      Assert.assertEquals(NUM_ENTRIES, Iterators.size(it));
+    }
+    try (CloseableIterator<Measurement> it =
+        store.query(
+            QueryBuilder.newBuilder(Measurement.class).filter(
+                NumericFieldValue.of("value").isLessThan(1000)).build())) {
+      Assert.assertEquals(1000, Iterators.size(it));
+    }
+  }
+
+  @Test
+  public void testDeleteDuringBulkLoad() {
+    final DataStore store = createStore(false);
+    try (Writer<Measurement> w = store.createWriter(TYPE_NAME)) {
+      for (int i = 0; i < 1000; i++) {
+        w.write(new Measurement("name" + i, i));
+      }
+    }
+    try (Writer<Measurement> w = store.createWriter(TYPE_NAME)) {
+      // the rewritten rows are still staged when they are deleted
+      for (int i = 0; i < 100; i++) {
+        w.write(new Measurement("name" + i, i));
+      }
+      Assert.assertTrue(
+          store.delete(
+              QueryBuilder.newBuilder(Measurement.class).filter(
+                  NumericFieldValue.of("value").isLessThan(100)).build()));
+    }
+    // closing the writer must not bring the deleted rows back
+    try (CloseableIterator<Measurement> it =
+        store.query(QueryBuilder.newBuilder(Measurement.class).build())) {
+      Assert.assertEquals(900, Iterators.size(it));
+    }
+  }
+
+  private static DataStore createStore(final boolean columnFamilies) {
+    final RocksDBOptions options = new RocksDBOptions();
+    options.setDirectory(DEFAULT_DB_DIRECTORY);
+    options.setColumnFamilies(columnFamilies);
+    options.setBulkLoad(true);
+    options.setBulkLoadBufferSize(1);
+    final DataStore store =
+        new RocksDBStoreFactoryFamily().getDataStoreFactory().createStore(options);
+    store.addType(BasicDataTypeAdapter.newAdapter(TYPE_NAME, Measurement.class, "name"));
+    store.addIndex(
+        TYPE_NAME,
+        AttributeDimensionalityTypeProvider.createIndexFromOptions(
+            store,
+            new AttributeIndexOptions(TYPE_NAME, "value")));
+    return store;
+  }
+
+  @GeoWaveDataType
+  private static class Measurement {
+    @GeoWaveField
+    private final String name;
+    @GeoWaveField
+    private final Integer value;
+
+    protected Measurement() {
+      name = null;
+      value = null;
+    }
+
+    public Measurement(final String name, final Integer value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.CompoundIndexStrategy;
+import org.locationtech.geowave.core.index.simple.RoundRobinKeyIndexStrategy;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+import org.locationtech.geowave.core.store.index.AttributeIndexOptions;
+import org.locationtech.geowave.core.store.index.CustomNameIndex;
+import org.locationtech.geowave.core.store.query.filter.expression.numeric.NumericFieldValue;
+import org.locationtech.geowave.datastore.rocksdb.RocksDBLockfileTest.IndexWrapper;
+import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
+import org.locationtech.geowave.datastore.rocksdb.operations.RocksDBOperations;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClient;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClientCache;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBSharedDB;
+import com.google.common.collect.Iterators;
+
+public class RocksDBColumnFamilyTest {
+  private static final String DEFAULT_DB_DIRECTORY = "./target/rocksdb_cf";
+  private static final String STORE_DIRECTORY = DEFAULT_DB_DIRECTORY + "/default";
+  private static final String TYPE_NAME = "Measurement";
+  private static final int NUM_PARTITIONS = 8;
+  private static final int NUM_ENTRIES = 1000;
+  private static final String INDEX_NAME = "value_ROUND_ROBIN_" + NUM_PARTITIONS;
+
+  @Before
+  public void setup() throws IOException {
+    RocksDBClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(new File(DEFAULT_DB_DIRECTORY));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    RocksDBClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(new File(DEFAULT_DB_DIRECTORY));
+  }
+
+  @Test
+  public void testColumnFamilyLayout() {
+    final DataStore store = createStore(true);
+    ingest(store);
+    assertQueries(store);
+    // everything is in one RocksDB instance rather than a directory per table
+    Assert.assertTrue(RocksDBSharedDB.exists(STORE_DIRECTORY));
+    Assert.assertEquals(0, RocksDBSharedDB.getLegacyTables(STORE_DIRECTORY).length);
+
+    // the layout is detected when the store is reopened
+    RocksDBClientCache.getInstance().closeAll();
+    final DataStore reopened = createStore(false);
+    assertQueries(reopened);
+
+    // removing the type drops the column families of its index tables
+    final RocksDBClient client = new RocksDBOperations(options(false)).getClient();
+    Assert.assertTrue(client.isColumnFamilyLayout());
+    Assert.assertTrue(client.getTableNames().stream().anyMatch(t -> t.startsWith(TYPE_NAME)));
+    reopened.removeType(TYPE_NAME);
+    Assert.assertFalse(client.getTableNames().stream().anyMatch(t -> t.startsWith(TYPE_NAME)));
+  }
+
+  @Test
+  public void testMigration() {
+    final DataStore legacyStore = createStore(false);
+    ingest(legacyStore);
+    assertQueries(legacyStore);
+    Assert.assertFalse(RocksDBSharedDB.exists(STORE_DIRECTORY));
+    Assert.assertTrue(RocksDBSharedDB.getLegacyTables(STORE_DIRECTORY).length > NUM_PARTITIONS);
+
+    RocksDBClientCache.getInstance().closeAll();
+    try {
+      createStore(true);
+      Assert.fail("Expected the store to require an explicit migration");
+    } catch (final RuntimeException e) {
+      // the original tables are left untouched
+      Assert.assertFalse(RocksDBSharedDB.exists(STORE_DIRECTORY));
+      Assert.assertTrue(RocksDBSharedDB.getLegacyTables(STORE_DIRECTORY).length > NUM_PARTITIONS);
+    }
+
+    RocksDBClientCache.getInstance().closeAll();
+    final RocksDBOptions migrateOptions = options(true);
+    migrateOptions.setMigrateToColumnFamilies(true);
+    final DataStore migratedStore =
+        new RocksDBStoreFactoryFamily().getDataStoreFactory().createStore(migrateOptions);
+    assertQueries(migratedStore);
+    Assert.assertTrue(RocksDBSharedDB.exists(STORE_DIRECTORY));
+    Assert.assertEquals(0, RocksDBSharedDB.getLegacyTables(STORE_DIRECTORY).length);
+
+    // the migrated store is still writable
+    try (Writer<Measurement> w = migratedStore.createWriter(TYPE_NAME)) {
+      w.write(new Measurement("extra", 0.5));
+    }
+    Assert.assertEquals(
+        NUM_ENTRIES + 1,
+        Iterators.size(migratedStore.query(QueryBuilder.newBuilder(Measurement.class).build())));
+  }
+
+  @Test
+  public void testIncompatibleOptions() {
+    final DataStore store = createStore(false);
+    ingest(store);
+    try {
+      // the directory is already open, it cannot be opened again with another layout
+      new RocksDBOperations(options(true));
+      Assert.fail("Expected the store to be rejected while it is open with other options");
+    } catch (final IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage().contains("already open with different options"));
+    }
+    assertQueries(store);
+  }
+
+  private static RocksDBOptions options(final boolean columnFamilies) {
+    final RocksDBOptions options = new RocksDBOptions();
+    options.setDirectory(DEFAULT_DB_DIRECTORY);
+    options.setColumnFamilies(columnFamilies);
+    return options;
+  }
+
+  private static DataStore createStore(final boolean columnFamilies) {
+    return new RocksDBStoreFactoryFamily().getDataStoreFactory().createStore(
+        options(columnFamilies));
+  }
+
+  private static void ingest(final DataStore store) {
+    store.addType(BasicDataTypeAdapter.newAdapter(TYPE_NAME, Measurement.class, "name"));
+    final Index attributeIndex =
+        AttributeDimensionalityTypeProvider.createIndexFromOptions(
+            store,
+            new AttributeIndexOptions(TYPE_NAME, "value"));
+    store.addIndex(
+        TYPE_NAME,
+        new IndexWrapper(
+            new CustomNameIndex(
+                new CompoundIndexStrategy(
+                    new RoundRobinKeyIndexStrategy(NUM_PARTITIONS),
+                    attributeIndex.getIndexStrategy()),
+                attributeIndex.getIndexModel(),
+                INDEX_NAME)));
+    try (Writer<Measurement> w = store.createWriter(TYPE_NAME)) {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+        w.write(new Measurement("name" + i, (double) i / NUM_ENTRIES));
+      }
+    }
+  }
+
+  private static void assertQueries(final DataStore store) {
+    try (CloseableIterator<Measurement> it =
+        store.query(QueryBuilder.newBuilder(Measurement.class).build())) {
+      Assert.assertEquals(NUM_ENTRIES, Iterators.size(it));
+    }
+    try (CloseableIterator<Measurement> it =
+        store.query(
+            QueryBuilder.newBuilder(Measurement.class).indexName(INDEX_NAME).filter(
+                NumericFieldValue.of("value").isLessThan(0.25)).build())) {
+      Assert.assertEquals(NUM_ENTRIES / 4, Iterators.size(it));
+    }
+  }
+
+  @GeoWaveDataType
+  private static class Measurement {
+    @GeoWaveField
+    private final String name;
+    @GeoWaveField
+    private final Double value;
+
+    protected Measurement() {
+      name = null;
+      value = null;
+    }
+
+    public Measurement(final String name, final Double value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.operations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.CompoundIndexStrategy;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.index.numeric.BasicNumericDataset;
+import org.locationtech.geowave.core.index.numeric.NumericData;
+import org.locationtech.geowave.core.index.numeric.NumericRange;
+import org.locationtech.geowave.core.index.simple.RoundRobinKeyIndexStrategy;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.BasicDataTypeAdapter;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveDataType;
+import org.locationtech.geowave.core.store.adapter.annotation.GeoWaveField;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
+import org.locationtech.geowave.core.store.index.AttributeDimensionalityTypeProvider;
+import org.locationtech.geowave.core.store.index.AttributeIndexOptions;
+import org.locationtech.geowave.core.store.index.CustomNameIndex;
+import org.locationtech.geowave.datastore.rocksdb.RocksDBStoreFactoryFamily;
+import org.locationtech.geowave.datastore.rocksdb.RocksDBLockfileTest.IndexWrapper;
+import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClient;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.UnsignedBytes;
+
+public class RocksDBQueryExecutionTest {
+  private static final String DEFAULT_DB_DIRECTORY = "./target/rocksdb_query";
+  private static final String TYPE_NAME = "Measurement";
+  private static final int NUM_PARTITIONS = 16;
+  private static final int NUM_ENTRIES = 5000;
+
+  private DataStore store;
+  private RocksDBClient client;
+  private Index index;
+  private short adapterId;
+
+  @Before
+  public void setup() {
+    final RocksDBOptions options = new RocksDBOptions();
+    options.setDirectory(DEFAULT_DB_DIRECTORY);
+    store = new RocksDBStoreFactoryFamily().getDataStoreFactory().createStore(options);
+    store.deleteAll();
+    store.addType(BasicDataTypeAdapter.newAdapter(TYPE_NAME, Measurement.class, "name"));
+    final Index attributeIndex =
+        AttributeDimensionalityTypeProvider.createIndexFromOptions(
+            store,
+            new AttributeIndexOptions(TYPE_NAME, "value"));
+    index =
+        new IndexWrapper(
+            new CustomNameIndex(
+                new CompoundIndexStrategy(
+                    new RoundRobinKeyIndexStrategy(NUM_PARTITIONS),
+                    attributeIndex.getIndexStrategy()),
+                attributeIndex.getIndexModel(),
+                attributeIndex.getName() + "_ROUND_ROBIN_" + NUM_PARTITIONS));
+    store.addIndex(TYPE_NAME, index);
+    try (Writer<Measurement> w = store.createWriter(TYPE_NAME)) {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+        w.write(new Measurement("name" + i, (double) (i % 1000)));
+      }
+    }
+    client = new RocksDBOperations(options).getClient();
+    adapterId =
+        new RocksDBStoreFactoryFamily().getInternalAdapterStoreFactory().createStore(
+            options).getAdapterId(TYPE_NAME);
+  }
+
+  @After
+  public void tearDown() {
+    store.deleteAll();
+  }
+
+  @Test
+  public void testAsyncMatchesSequential() {
+    final List<GeoWaveRow> sequential = query(false, false, 100, 400);
+    final List<GeoWaveRow> async = query(true, false, 100, 400);
+    // 301 distinct values (the range is inclusive), each written 5 times
+    Assert.assertEquals(1505, sequential.size());
+    Assert.assertEquals(sequential.size(), async.size());
+    Assert.assertEquals(dataIds(sequential), dataIds(async));
+  }
+
+  @Test
+  public void testAsyncPreservesSortOrder() {
+    final List<GeoWaveRow> sequential = query(false, true, 0, 1000);
+    final List<GeoWaveRow> async = query(true, true, 0, 1000);
+    Assert.assertEquals(NUM_ENTRIES, async.size());
+    for (int i = 0; i < async.size(); i++) {
+      Assert.assertArrayEquals(sequential.get(i).getSortKey(), async.get(i).getSortKey());
+      Assert.assertArrayEquals(sequential.get(i).getDataId(), async.get(i).getDataId());
+      if (i > 0) {
+        Assert.assertTrue(
+            UnsignedBytes.lexicographicalComparator().compare(
+                async.get(i - 1).getSortKey(),
+                async.get(i).getSortKey()) <= 0);
+      }
+    }
+  }
+
+  @Test
+  public void testAsyncEarlyClose() {
+    for (int i = 0; i < 10; i++) {
+      try (CloseableIterator<GeoWaveRow> it = execution(true, i % 2 == 0, 0, 1000).results()) {
+        // read a few rows so the readers are blocked on a full queue when the iterator is closed
+        Assert.assertEquals(10, Iterators.size(Iterators.limit(it, 10)));
+      }
+    }
+  }
+
+  @Test
+  public void testPausedConsumersHoldNoReadThreads() throws Exception {
+    // enough rows that each query fills its result queue
+    final int numEntries = 25000;
+    try (Writer<Measurement> w = store.createWriter(TYPE_NAME)) {
+      for (int i = NUM_ENTRIES; i < numEntries; i++) {
+        w.write(new Measurement("name" + i, (double) (i % 1000)));
+      }
+    }
+    final List<CloseableIterator<GeoWaveRow>> paused = new ArrayList<>();
+    try {
+      // together these have more open reads than there are read threads
+      for (int i = 0; i < 4; i++) {
+        final CloseableIterator<GeoWaveRow> it = execution(true, false, 0, 1000).results();
+        Assert.assertEquals(10, Iterators.size(Iterators.limit(it, 10)));
+        paused.add(it);
+      }
+      final ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        final Future<Integer> count = executor.submit(() -> query(true, false, 0, 1000).size());
+        Assert.assertEquals(numEntries, count.get(30, TimeUnit.SECONDS).intValue());
+      } finally {
+        executor.shutdownNow();
+      }
+      for (final CloseableIterator<GeoWaveRow> it : paused) {
+        Assert.assertEquals(numEntries - 10, Iterators.size(it));
+      }
+    } finally {
+      paused.forEach(CloseableIterator::close);
+    }
+  }
+
+  @Test
+  public void testAsyncReadFailure() {
+    final Predicate<GeoWaveRow> failingFilter = r -> {
+      if (new String(r.getDataId()).equals("name4321")) {
+        throw new IllegalStateException("Unreadable row");
+      }
+      return true;
+    };
+    for (final boolean sortBySortKey : new boolean[] {false, true}) {
+      try (CloseableIterator<GeoWaveRow> it =
+          execution(true, sortBySortKey, 0, 1000, failingFilter).results()) {
+        // the failure must not look like the end of the results
+        Iterators.size(it);
+        Assert.fail("Expected the read failure to be rethrown");
+      } catch (final RuntimeException e) {
+        Throwable cause = e;
+        while ((cause.getCause() != null) && !(cause instanceof IllegalStateException)) {
+          cause = cause.getCause();
+        }
+        Assert.assertEquals("Unreadable row", cause.getMessage());
+      }
+    }
+  }
+
+  private List<GeoWaveRow> query(
+      final boolean async,
+      final boolean sortBySortKey,
+      final double min,
+      final double max) {
+    final List<GeoWaveRow> results = new ArrayList<>();
+    try (CloseableIterator<GeoWaveRow> it = execution(async, sortBySortKey, min, max).results()) {
+      it.forEachRemaining(results::add);
+    }
+    return results;
+  }
+
+  private RocksDBQueryExecution<GeoWaveRow> execution(
+      final boolean async,
+      final boolean sortBySortKey,
+      final double min,
+      final double max) {
+    return execution(async, sortBySortKey, min, max, r -> true);
+  }
+
+  private RocksDBQueryExecution<GeoWaveRow> execution(
+      final boolean async,
+      final boolean sortBySortKey,
+      final double min,
+      final double max,
+      final Predicate<GeoWaveRow> filter) {
+    final Collection<SinglePartitionQueryRanges> ranges =
+        index.getIndexStrategy().getQueryRanges(
+            new BasicNumericDataset(
+                new NumericData[] {new NumericRange(min, max)})).getPartitionQueryRanges();
+    Assert.assertEquals(NUM_PARTITIONS, ranges.size());
+    return new RocksDBQueryExecution<>(
+        client,
+        RocksDBUtils.getTablePrefix(TYPE_NAME, index.getName()),
+        adapterId,
+        GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER,
+        ranges,
+        filter,
+        false,
+        async,
+        Pair.of(false, false),
+        sortBySortKey);
+  }
+
+  private static List<String> dataIds(final List<GeoWaveRow> rows) {
+    return rows.stream().map(r -> new String(r.getDataId())).sorted().collect(Collectors.toList());
+  }
+
+  @GeoWaveDataType
+  private static class Measurement {
+    @GeoWaveField
+    private final String name;
+    @GeoWaveField
+    private final Double value;
+
+    protected Measurement() {
+      name = null;
+      value = null;
+    }
+
+    public Measurement(final String name, final Double value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+}
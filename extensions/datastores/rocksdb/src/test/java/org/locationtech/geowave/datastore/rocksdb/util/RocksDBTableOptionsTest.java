@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
+import org.rocksdb.CompressionType;
+import com.beust.jcommander.ParameterException;
+import com.google.common.collect.Iterators;
+
+public class RocksDBTableOptionsTest {
+  private static final String DEFAULT_DB_DIRECTORY = "./target/rocksdb_table_options";
+
+  @After
+  public void tearDown() throws IOException {
+    RocksDBClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(new File(DEFAULT_DB_DIRECTORY));
+  }
+
+  @Test
+  public void testParseCompressionPerLevel() {
+    Assert.assertEquals(
+        Arrays.asList(
+            CompressionType.NO_COMPRESSION,
+            CompressionType.LZ4_COMPRESSION,
+            CompressionType.ZSTD_COMPRESSION),
+        RocksDBTableOptions.parseCompressionPerLevel("none, LZ4,zstd"));
+    try {
+      RocksDBTableOptions.parseCompressionPerLevel("none,gzip");
+      Assert.fail("expected an unknown compression to be rejected");
+    } catch (final IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage().contains("gzip"));
+    }
+    final RocksDBOptions options = new RocksDBOptions();
+    options.setCompressionPerLevel("lz5");
+    try {
+      options.validatePluginOptions(null);
+      Assert.fail("expected an unknown compression to be rejected");
+    } catch (final ParameterException e) {
+      Assert.assertTrue(e.getMessage().contains("lz5"));
+    }
+  }
+
+  @Test
+  public void testIsWithinPrefix() {
+    final RocksDBTableOptions options = new RocksDBTableOptions();
+    Assert.assertTrue(options.isWithinPrefix(new byte[] {1, 2, 3, 4}, new byte[] {1, 2, 3, 9, 9}));
+    Assert.assertTrue(options.isWithinPrefix(new byte[] {1, 2, 3}, new byte[] {1, 2, 3}));
+    Assert.assertFalse(options.isWithinPrefix(new byte[] {1, 2, 3, 4}, new byte[] {1, 2, 4, 0}));
+    Assert.assertFalse(options.isWithinPrefix(new byte[] {1, 2}, new byte[] {1, 2, 3}));
+    Assert.assertFalse(options.isWithinPrefix(null, new byte[] {1, 2, 3}));
+    Assert.assertFalse(
+        new RocksDBTableOptions(
+            1024 * 1024,
+            10,
+            0,
+            Arrays.asList(CompressionType.NO_COMPRESSION)).isWithinPrefix(
+                new byte[] {1, 2, 3},
+                new byte[] {1, 2, 3}));
+  }
+
+  @Test
+  public void testPrefixScans() {
+    // enough rows to flush several files so the prefix bloom filters are consulted
+    final RocksDBClient client =
+        new RocksDBClient(
+            DEFAULT_DB_DIRECTORY,
+            false,
+            false,
+            1000,
+            false,
+            false,
+            new RocksDBTableOptions(
+                1024 * 1024,
+                10,
+                1,
+                RocksDBTableOptions.parseCompressionPerLevel("none,lz4,zstd")),
+            0,
+            false);
+    try {
+      final RocksDBIndexTable table = client.getIndexTable("test", (short) 0, null, false);
+      final GeoWaveValue value = new GeoWaveValueImpl(new byte[0], new byte[0], new byte[] {1});
+      for (int i = 0; i < 200; i++) {
+        for (int j = 0; j < 64; j++) {
+          table.add(new byte[] {(byte) i, (byte) j, 0}, new byte[] {(byte) j}, (short) 0, value);
+        }
+        if ((i % 50) == 49) {
+          table.flush();
+        }
+      }
+      table.flush();
+      // within a single prefix
+      Assert.assertEquals(
+          10,
+          count(table, new ByteArrayRange(new byte[] {5, 10}, new byte[] {5, 19})));
+      // spanning several prefixes
+      Assert.assertEquals(
+          64 + 10,
+          count(table, new ByteArrayRange(new byte[] {5, 54}, new byte[] {6, 63})));
+      // a prefix that does not exist
+      Assert.assertEquals(
+          0,
+          count(
+              table,
+              new ByteArrayRange(new byte[] {(byte) 250, 0}, new byte[] {(byte) 250, 63})));
+      Assert.assertEquals(200 * 64, Iterators.size(table.iterator()));
+    } finally {
+      client.close();
+    }
+  }
+
+  private static int count(final RocksDBIndexTable table, final ByteArrayRange range) {
+    try (CloseableIterator<GeoWaveRow> it = table.iterator(range)) {
+      return Iterators.size(it);
+    }
+  }
+}
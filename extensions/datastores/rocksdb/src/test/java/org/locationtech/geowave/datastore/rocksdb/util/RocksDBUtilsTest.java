@@ -8,8 +8,18 @@
  */
 package org.locationtech.geowave.datastore.rocksdb.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import org.junit.Test;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import com.google.common.collect.Iterators;
 
 public class RocksDBUtilsTest {
 
@@ -22,4 +32,30 @@ public class RocksDBUtilsTest {
     assertEquals("prefix-empty", emptyPartitionKeyName);
   }
 
+  @Test
+  public void testSortBySortKey() {
+    final List<Iterator<GeoWaveRow>> partitions =
+        Arrays.asList(
+            Arrays.asList(row("a", 1, 0), row("b", 1, 3), row("c", 1, 5)).iterator(),
+            Arrays.asList(row("d", 2, 1), row("e", 2, 3), row("f", 2, 4)).iterator(),
+            new ArrayList<GeoWaveRow>().iterator());
+    final GeoWaveRow[] sorted =
+        Iterators.toArray(RocksDBUtils.sortBySortKey(partitions), GeoWaveRow.class);
+    assertEquals(6, sorted.length);
+    final String[] expectedDataIds = new String[] {"a", "d", "b", "e", "f", "c"};
+    for (int i = 0; i < sorted.length; i++) {
+      assertArrayEquals(expectedDataIds[i].getBytes(), sorted[i].getDataId());
+    }
+  }
+
+  private static GeoWaveRow row(final String dataId, final int partition, final int sortKey) {
+    return new GeoWaveRowImpl(
+        new GeoWaveKeyImpl(
+            dataId.getBytes(),
+            (short) 0,
+            new byte[] {(byte) partition},
+            new byte[] {(byte) sortKey},
+            0),
+        new GeoWaveValue[0]);
+  }
 }
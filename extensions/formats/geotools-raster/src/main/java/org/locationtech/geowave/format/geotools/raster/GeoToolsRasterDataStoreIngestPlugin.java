@@ -182,6 +182,7 @@ public class GeoToolsRasterDataStoreIngestPlugin implements LocalFileIngestPlugi
                     optionProvider.isBuildPyramid(),
                     optionProvider.isBuildHistogram(),
                     new double[][] {nodata[b]});
+            adapter.setTileEncoding(optionProvider.getTileEncoding());
             coverages.add(new GeoWaveData<>(adapter, indexNames, coverage));
           }
         } else {
@@ -195,6 +196,7 @@ public class GeoToolsRasterDataStoreIngestPlugin implements LocalFileIngestPlugi
                   optionProvider.isBuildPyramid(),
                   optionProvider.isBuildHistogram(),
                   optionProvider.getNodata(coverage.getNumSampleDimensions()));
+          adapter.setTileEncoding(optionProvider.getTileEncoding());
           coverages.add(new GeoWaveData<>(adapter, indexNames, coverage));
         }
         return new Wrapper<GeoWaveData<GridCoverage>>(coverages.iterator()) {
@@ -16,6 +16,7 @@ import java.util.Map;
 import java.util.ServiceLoader;
 import org.locationtech.geowave.adapter.raster.adapter.RasterDataAdapter;
 import org.locationtech.geowave.adapter.raster.adapter.merge.RasterTileMergeStrategy;
+import org.locationtech.geowave.adapter.raster.util.DataBufferEncoding;
 import org.locationtech.geowave.core.store.ingest.IngestFormatOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,6 +69,11 @@ public class RasterOptionProvider implements IngestFormatOptions {
       description = "Optional parameter to choose a tile merge strategy used for mosaic.  Default behavior will be `none`.  Alternatively 'no-data' will mosaic the most recent tile over previous tiles, except where there are no data values.")
   private String mergeStrategy = NoMergeStrategyProvider.NAME;
 
+  @Parameter(
+      names = "--tileEncoding",
+      description = "Optional parameter to choose the encoding of the stored tiles. Default behavior will be `compressed`, which losslessly compresses all sample types.  Alternatively 'protobuf' will use the original encoding, which does not compress floating point samples.")
+  private String tileEncoding = RasterDataAdapter.DEFAULT_TILE_ENCODING.name().toLowerCase();
+
   public RasterOptionProvider() {}
 
   public boolean isBuildPyramid() {
@@ -118,6 +124,13 @@ public class RasterOptionProvider implements IngestFormatOptions {
     return retVal;
   }
 
+  public DataBufferEncoding getTileEncoding() {
+    if ((tileEncoding == null) || tileEncoding.trim().isEmpty()) {
+      return RasterDataAdapter.DEFAULT_TILE_ENCODING;
+    }
+    return DataBufferEncoding.fromString(tileEncoding.trim());
+  }
+
   public RasterTileMergeStrategy<?> getMergeStrategy() {
     final Map<String, RasterMergeStrategyProviderSpi> internalMergeStrategies =
         getRegisteredMergeStrategies();
@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.service.grpc.services;
+
+import java.util.Date;
+import java.util.List;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.geowave.service.grpc.protobuf.AttributeSchemaProtos;
+import org.locationtech.geowave.service.grpc.protobuf.ColumnProtos;
+import org.locationtech.geowave.service.grpc.protobuf.FeatureBatchProtos;
+import org.locationtech.geowave.service.grpc.protobuf.FeatureSchemaProtos;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import com.google.protobuf.ByteString;
+
+/**
+ * Converts between features and the columnar feature batches used by the batched RPCs of the vector
+ * service. A batch stores one column per attribute with the values of every feature in the batch,
+ * and the schema of the attributes is only sent with the first batch of a stream.
+ */
+public class GeoWaveGrpcFeatureBatchUtil {
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+  public static final String WKB_ENCODING = "WKB";
+  public static final String TWKB_ENCODING = "TWKB";
+
+  public static final String STRING_TYPE = "String";
+  public static final String BYTE_TYPE = "Byte";
+  public static final String SHORT_TYPE = "Short";
+  public static final String INTEGER_TYPE = "Integer";
+  public static final String LONG_TYPE = "Long";
+  public static final String FLOAT_TYPE = "Float";
+  public static final String DOUBLE_TYPE = "Double";
+  public static final String DATE_TYPE = "Date";
+  public static final String GEOMETRY_TYPE = "Geometry";
+
+  /**
+   * Get the schema of a feature type.
+   *
+   * @param featureType the feature type
+   * @param geometryEncoding the encoding of geometry columns, WKB or TWKB
+   * @return the schema
+   */
+  public static FeatureSchemaProtos toSchema(
+      final SimpleFeatureType featureType,
+      final String geometryEncoding) {
+    final FeatureSchemaProtos.Builder schema = FeatureSchemaProtos.newBuilder();
+    for (final AttributeDescriptor descriptor : featureType.getAttributeDescriptors()) {
+      schema.addAttributes(
+          AttributeSchemaProtos.newBuilder().setName(descriptor.getLocalName()).setClassType(
+              getClassType(descriptor.getType().getBinding())));
+    }
+    if (featureType.getCoordinateReferenceSystem() != null) {
+      schema.setCrs(GeometryUtils.getCrsCode(featureType.getCoordinateReferenceSystem()));
+    }
+    if (featureType.getGeometryDescriptor() != null) {
+      schema.setDefaultGeometry(featureType.getGeometryDescriptor().getLocalName());
+    }
+    return schema.setGeometryEncoding(
+        isTWKB(geometryEncoding) ? TWKB_ENCODING : WKB_ENCODING).build();
+  }
+
+  /**
+   * Create a feature type from a schema. The geometry attributes use the CRS of the schema, or the
+   * default CRS if the schema has none.
+   *
+   * @param typeName the name of the feature type
+   * @param schema the schema
+   * @return the feature type
+   */
+  public static SimpleFeatureType toFeatureType(
+      final String typeName,
+      final FeatureSchemaProtos schema) {
+    final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName(typeName);
+    typeBuilder.setCRS(
+        schema.getCrs().isEmpty() ? GeometryUtils.getDefaultCRS()
+            : GeometryUtils.decodeCRS(schema.getCrs()));
+    for (final AttributeSchemaProtos attribute : schema.getAttributesList()) {
+      typeBuilder.add(attribute.getName(), getBinding(attribute.getClassType()));
+    }
+    if (!schema.getDefaultGeometry().isEmpty()) {
+      typeBuilder.setDefaultGeometry(schema.getDefaultGeometry());
+    }
+    return typeBuilder.buildFeatureType();
+  }
+
+  /**
+   * Check whether batches of a schema can be read as features of a feature type. The attributes
+   * must have the same names in the same order, and be stored in the same kind of column.
+   *
+   * @param featureType the feature type
+   * @param schema the schema
+   * @return whether the schema matches the feature type
+   */
+  public static boolean matchesSchema(
+      final SimpleFeatureType featureType,
+      final FeatureSchemaProtos schema) {
+    final List<AttributeDescriptor> descriptors = featureType.getAttributeDescriptors();
+    if (descriptors.size() != schema.getAttributesCount()) {
+      return false;
+    }
+    for (int i = 0; i < descriptors.size(); i++) {
+      final AttributeSchemaProtos attribute = schema.getAttributes(i);
+      if (!descriptors.get(i).getLocalName().equals(attribute.getName())
+          || !getColumnType(getClassType(descriptors.get(i).getType().getBinding())).equals(
+              getColumnType(attribute.getClassType()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String getColumnType(final String classType) {
+    // bytes and shorts are stored in the same column as integers
+    if (BYTE_TYPE.equals(classType) || SHORT_TYPE.equals(classType)) {
+      return INTEGER_TYPE;
+    }
+    return classType;
+  }
+
+  /**
+   * Convert a batch to features.
+   *
+   * @param batch the batch of features
+   * @param featureType the feature type that matches the schema of the stream
+   * @param geometryEncoding the geometry encoding of the schema of the stream
+   * @param firstFeatureIndex used to create feature IDs when the batch has none
+   * @return the features of the batch
+   */
+  public static SimpleFeature[] toFeatures(
+      final FeatureBatchProtos batch,
+      final SimpleFeatureType featureType,
+      final String geometryEncoding,
+      final long firstFeatureIndex) {
+    final List<AttributeDescriptor> descriptors = featureType.getAttributeDescriptors();
+    if (batch.getColumnsCount() != descriptors.size()) {
+      throw new IllegalArgumentException(
+          "Expected "
+              + descriptors.size()
+              + " columns in feature batch, but found "
+              + batch.getColumnsCount());
+    }
+    final boolean twkb = isTWKB(geometryEncoding);
+    final int count = batch.getCount();
+    final SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(featureType);
+    final Object[][] values = new Object[count][descriptors.size()];
+    for (int c = 0; c < descriptors.size(); c++) {
+      final ColumnProtos column = batch.getColumns(c);
+      final String classType = getClassType(descriptors.get(c).getType().getBinding());
+      for (int i = 0; i < count; i++) {
+        if ((column.getNullsCount() > 0) && column.getNulls(i)) {
+          continue;
+        }
+        values[i][c] = readValue(column, i, classType, twkb);
+      }
+    }
+    final boolean hasIds = batch.getFeatureIdsCount() == count;
+    final SimpleFeature[] features = new SimpleFeature[count];
+    for (int i = 0; i < count; i++) {
+      features[i] =
+          featureBuilder.buildFeature(
+              hasIds ? batch.getFeatureIds(i) : String.valueOf(firstFeatureIndex + i),
+              values[i]);
+    }
+    return features;
+  }
+
+  private static Object readValue(
+      final ColumnProtos column,
+      final int index,
+      final String classType,
+      final boolean twkb) {
+    switch (classType) {
+      case BYTE_TYPE:
+        return (byte) column.getInt32Values(index);
+      case SHORT_TYPE:
+        return (short) column.getInt32Values(index);
+      case INTEGER_TYPE:
+        return column.getInt32Values(index);
+      case LONG_TYPE:
+        return column.getInt64Values(index);
+      case FLOAT_TYPE:
+        return column.getFloatValues(index);
+      case DOUBLE_TYPE:
+        return column.getDoubleValues(index);
+      case DATE_TYPE:
+        return new Date(column.getInt64Values(index));
+      case GEOMETRY_TYPE:
+        return readGeometry(column.getGeometryValues(index).toByteArray(), twkb);
+      default:
+        return column.getStringValues(index);
+    }
+  }
+
+  private static Geometry readGeometry(final byte[] binary, final boolean twkb) {
+    if (twkb) {
+      return GeometryUtils.geometryFromBinary(binary, GeometryUtils.MAX_GEOMETRY_PRECISION);
+    }
+    try {
+      return new WKBReader(GeometryUtils.GEOMETRY_FACTORY).read(binary);
+    } catch (final ParseException e) {
+      throw new IllegalArgumentException("Unable to parse WKB geometry", e);
+    }
+  }
+
+  private static boolean isTWKB(final String geometryEncoding) {
+    return TWKB_ENCODING.equalsIgnoreCase(geometryEncoding);
+  }
+
+  private static String getClassType(final Class<?> binding) {
+    if (Geometry.class.isAssignableFrom(binding)) {
+      return GEOMETRY_TYPE;
+    } else if (Date.class.isAssignableFrom(binding)) {
+      return DATE_TYPE;
+    } else if (Byte.class.equals(binding)) {
+      return BYTE_TYPE;
+    } else if (Short.class.equals(binding)) {
+      return SHORT_TYPE;
+    } else if (Integer.class.equals(binding)) {
+      return INTEGER_TYPE;
+    } else if (Long.class.equals(binding)) {
+      return LONG_TYPE;
+    } else if (Float.class.equals(binding)) {
+      return FLOAT_TYPE;
+    } else if (Double.class.equals(binding)) {
+      return DOUBLE_TYPE;
+    }
+    // any other type is sent as its string representation
+    return STRING_TYPE;
+  }
+
+  private static Class<?> getBinding(final String classType) {
+    switch (classType) {
+      case BYTE_TYPE:
+        return Byte.class;
+      case SHORT_TYPE:
+        return Short.class;
+      case INTEGER_TYPE:
+        return Integer.class;
+      case LONG_TYPE:
+        return Long.class;
+      case FLOAT_TYPE:
+        return Float.class;
+      case DOUBLE_TYPE:
+        return Double.class;
+      case DATE_TYPE:
+        return Date.class;
+      case GEOMETRY_TYPE:
+        return Geometry.class;
+      default:
+        return String.class;
+    }
+  }
+
+  /**
+   * Builds columnar batches from features. The schema is included in the first batch that is built.
+   */
+  public static class FeatureBatchBuilder {
+    private final FeatureSchemaProtos schema;
+    private final String[] classTypes;
+    private final boolean twkb;
+    private ColumnProtos.Builder[] columns;
+    private FeatureBatchProtos.Builder batch;
+    private int count = 0;
+    private boolean schemaSent = false;
+
+    public FeatureBatchBuilder(final SimpleFeatureType featureType, final String geometryEncoding) {
+      schema = toSchema(featureType, geometryEncoding);
+      twkb = isTWKB(geometryEncoding);
+      classTypes = new String[schema.getAttributesCount()];
+      for (int i = 0; i < classTypes.length; i++) {
+        classTypes[i] = schema.getAttributes(i).getClassType();
+      }
+      reset();
+    }
+
+    private void reset() {
+      batch = FeatureBatchProtos.newBuilder();
+      columns = new ColumnProtos.Builder[classTypes.length];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = ColumnProtos.newBuilder();
+      }
+      count = 0;
+    }
+
+    /**
+     * Add a feature to the batch.
+     *
+     * @param feature the feature, which must be of the feature type of this builder
+     */
+    public void add(final SimpleFeature feature) {
+      batch.addFeatureIds(feature.getID());
+      for (int c = 0; c < classTypes.length; c++) {
+        addValue(columns[c], classTypes[c], feature.getAttribute(c));
+      }
+      count++;
+    }
+
+    private void addValue(
+        final ColumnProtos.Builder column,
+        final String classType,
+        final Object value) {
+      if (value == null) {
+        if (column.getNullsCount() == 0) {
+          // the first null of the column, mark all previous values as not null
+          for (int i = 0; i < count; i++) {
+            column.addNulls(false);
+          }
+        }
+        column.addNulls(true);
+      } else if (column.getNullsCount() > 0) {
+        column.addNulls(false);
+      }
+      switch (classType) {
+        case BYTE_TYPE:
+        case SHORT_TYPE:
+        case INTEGER_TYPE:
+          column.addInt32Values(value == null ? 0 : ((Number) value).intValue());
+          break;
+        case LONG_TYPE:
+          column.addInt64Values(value == null ? 0L : ((Number) value).longValue());
+          break;
+        case FLOAT_TYPE:
+          column.addFloatValues(value == null ? 0f : ((Number) value).floatValue());
+          break;
+        case DOUBLE_TYPE:
+          column.addDoubleValues(value == null ? 0d : ((Number) value).doubleValue());
+          break;
+        case DATE_TYPE:
+          column.addInt64Values(value == null ? 0L : ((Date) value).getTime());
+          break;
+        case GEOMETRY_TYPE:
+          column.addGeometryValues(
+              value == null ? ByteString.EMPTY
+                  : ByteString.copyFrom(writeGeometry((Geometry) value)));
+          break;
+        default:
+          column.addStringValues(value == null ? "" : value.toString());
+          break;
+      }
+    }
+
+    private byte[] writeGeometry(final Geometry geometry) {
+      if (twkb) {
+        return GeometryUtils.geometryToBinary(geometry, GeometryUtils.MAX_GEOMETRY_PRECISION);
+      }
+      return new WKBWriter().write(geometry);
+    }
+
+    /**
+     * @return the number of features in the current batch
+     */
+    public int size() {
+      return count;
+    }
+
+    /**
+     * @return whether a batch with the schema has been built
+     */
+    public boolean isSchemaSent() {
+      return schemaSent;
+    }
+
+    /**
+     * Build the current batch and start a new one.
+     *
+     * @return the batch
+     */
+    public FeatureBatchProtos build() {
+      if (!schemaSent) {
+        batch.setSchema(schema);
+        schemaSent = true;
+      }
+      batch.setCount(count);
+      for (final ColumnProtos.Builder column : columns) {
+        batch.addColumns(column);
+      }
+      final FeatureBatchProtos retVal = batch.build();
+      reset();
+      return retVal;
+    }
+  }
+}
@@ -25,6 +25,7 @@ import org.locationtech.geowave.adapter.vector.FeatureDataAdapter;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWaveGTDataStore;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWavePluginConfig;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWavePluginException;
+import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
 import org.locationtech.geowave.core.geotime.store.query.api.SpatialTemporalConstraintsBuilder;
 import org.locationtech.geowave.core.geotime.store.query.api.VectorQueryBuilder;
 import org.locationtech.geowave.core.geotime.store.query.filter.SpatialQueryFilter.CompareOperation;
@@ -41,13 +42,16 @@ import org.locationtech.geowave.service.grpc.GeoWaveGrpcServiceOptions;
 import org.locationtech.geowave.service.grpc.GeoWaveGrpcServiceSpi;
 import org.locationtech.geowave.service.grpc.protobuf.CQLQueryParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.FeatureAttributeProtos;
+import org.locationtech.geowave.service.grpc.protobuf.FeatureBatchProtos;
 import org.locationtech.geowave.service.grpc.protobuf.FeatureProtos;
 import org.locationtech.geowave.service.grpc.protobuf.GeoWaveReturnTypesProtos.StringResponseProtos;
 import org.locationtech.geowave.service.grpc.protobuf.SpatialQueryParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.SpatialTemporalQueryParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.TemporalConstraintsProtos;
 import org.locationtech.geowave.service.grpc.protobuf.VectorGrpc;
+import org.locationtech.geowave.service.grpc.protobuf.VectorIngestBatchProtos;
 import org.locationtech.geowave.service.grpc.protobuf.VectorIngestParametersProtos;
+import org.locationtech.geowave.service.grpc.protobuf.VectorQueryBatchParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.VectorQueryParametersProtos;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.io.WKBReader;
@@ -62,6 +66,7 @@ import com.beust.jcommander.ParameterException;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.util.Timestamps;
 import io.grpc.BindableService;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 public class GeoWaveGrpcVectorService extends VectorGrpc.VectorImplBase implements
@@ -535,6 +540,246 @@ public class GeoWaveGrpcVectorService extends VectorGrpc.VectorImplBase implemen
     }
   }
 
+  @Override
+  public void vectorQueryBatch(
+      final VectorQueryBatchParametersProtos request,
+      final StreamObserver<FeatureBatchProtos> responseObserver) {
+    final String storeName = request.getBaseParams().getStoreName();
+    final StoreLoader storeLoader = new StoreLoader(storeName);
+    final String typeName = request.getBaseParams().getTypeName();
+    final String indexName = request.getBaseParams().getIndexName();
+
+    // first check to make sure the data store exists
+    if (!storeLoader.loadFromConfig(GeoWaveGrpcServiceOptions.geowaveConfigFile)) {
+      throw new ParameterException("Cannot find store name: " + storeLoader.getStoreName());
+    }
+
+    final DataStore dataStore = storeLoader.createDataStore();
+    final DataTypeAdapter<?> adapter = dataStore.getType(typeName);
+    if (!(adapter instanceof GeotoolsFeatureDataAdapter)) {
+      throw new ParameterException("Cannot find vector type name: " + typeName);
+    }
+    final SimpleFeatureType featureType =
+        ((GeotoolsFeatureDataAdapter<?>) adapter).getFeatureType();
+
+    VectorQueryBuilder bldr = VectorQueryBuilder.newBuilder().addTypeName(typeName);
+    if (!indexName.equalsIgnoreCase("")) {
+      bldr = bldr.indexName(indexName);
+    }
+    if (!request.getCql().equalsIgnoreCase("")) {
+      bldr = bldr.constraints(bldr.constraintsFactory().cqlConstraints(request.getCql()));
+    }
+    final int batchSize =
+        request.getBatchSize() > 0 ? request.getBatchSize()
+            : GeoWaveGrpcFeatureBatchUtil.DEFAULT_BATCH_SIZE;
+
+    // batches are only sent while the transport is ready for more data, when it isn't the
+    // streamer is resumed by the on ready handler so that the results of the query are not
+    // buffered in memory faster than the client can consume them
+    final ServerCallStreamObserver<FeatureBatchProtos> serverObserver =
+        (ServerCallStreamObserver<FeatureBatchProtos>) responseObserver;
+    final FeatureBatchStreamer streamer =
+        new FeatureBatchStreamer(
+            dataStore.query(bldr.build()),
+            new GeoWaveGrpcFeatureBatchUtil.FeatureBatchBuilder(
+                featureType,
+                request.getGeometryEncoding()),
+            batchSize,
+            serverObserver);
+    serverObserver.setOnCancelHandler(streamer::cancel);
+    serverObserver.setOnReadyHandler(streamer);
+    streamer.run();
+  }
+
+  private static class FeatureBatchStreamer implements Runnable {
+    private final CloseableIterator<SimpleFeature> iterator;
+    private final GeoWaveGrpcFeatureBatchUtil.FeatureBatchBuilder batchBuilder;
+    private final int batchSize;
+    private final ServerCallStreamObserver<FeatureBatchProtos> responseObserver;
+    private boolean done = false;
+
+    private FeatureBatchStreamer(
+        final CloseableIterator<SimpleFeature> iterator,
+        final GeoWaveGrpcFeatureBatchUtil.FeatureBatchBuilder batchBuilder,
+        final int batchSize,
+        final ServerCallStreamObserver<FeatureBatchProtos> responseObserver) {
+      this.iterator = iterator;
+      this.batchBuilder = batchBuilder;
+      this.batchSize = batchSize;
+      this.responseObserver = responseObserver;
+    }
+
+    @Override
+    public synchronized void run() {
+      if (done) {
+        return;
+      }
+      try {
+        while (responseObserver.isReady()) {
+          while (iterator.hasNext() && (batchBuilder.size() < batchSize)) {
+            batchBuilder.add(iterator.next());
+          }
+          if (batchBuilder.size() < batchSize) {
+            // the query is exhausted, the schema is always sent even if there are no results
+            if ((batchBuilder.size() > 0) || !batchBuilder.isSchemaSent()) {
+              responseObserver.onNext(batchBuilder.build());
+            }
+            finish();
+            responseObserver.onCompleted();
+            return;
+          }
+          responseObserver.onNext(batchBuilder.build());
+        }
+      } catch (final RuntimeException e) {
+        LOGGER.error("Exception encountered during vectorQueryBatch", e);
+        finish();
+        responseObserver.onError(e);
+      }
+    }
+
+    private synchronized void cancel() {
+      finish();
+    }
+
+    private void finish() {
+      if (!done) {
+        done = true;
+        iterator.close();
+      }
+    }
+  }
+
+  @Override
+  public StreamObserver<VectorIngestBatchProtos> vectorIngestBatch(
+      final StreamObserver<StringResponseProtos> responseObserver) {
+    // batches are requested from the client one at a time so that a fast client can't buffer more
+    // batches in the server than it can write
+    final ServerCallStreamObserver<StringResponseProtos> serverObserver =
+        (ServerCallStreamObserver<StringResponseProtos>) responseObserver;
+    serverObserver.disableAutoInboundFlowControl();
+    serverObserver.request(1);
+    return new StreamObserver<VectorIngestBatchProtos>() {
+      private Writer<SimpleFeature> writer = null;
+      private SimpleFeatureType featureType = null;
+      private String geometryEncoding = null;
+      private long totalCount = 0;
+      private boolean failed = false;
+
+      @Override
+      public void onNext(final VectorIngestBatchProtos batch) {
+        if (failed) {
+          return;
+        }
+        try {
+          if (writer == null) {
+            initialize(batch);
+          }
+          final SimpleFeature[] features =
+              GeoWaveGrpcFeatureBatchUtil.toFeatures(
+                  batch.getBatch(),
+                  featureType,
+                  geometryEncoding,
+                  totalCount);
+          for (final SimpleFeature feature : features) {
+            writer.write(feature);
+          }
+          totalCount += features.length;
+        } catch (final RuntimeException e) {
+          LOGGER.error("Exception encountered during vectorIngestBatch", e);
+          failed = true;
+          if (writer != null) {
+            writer.close();
+          }
+          responseObserver.onError(e);
+          return;
+        }
+        final StringResponseProtos resp =
+            StringResponseProtos.newBuilder().setResponseValue(String.valueOf(totalCount)).build();
+        responseObserver.onNext(resp);
+        serverObserver.request(1);
+      }
+
+      private void initialize(final VectorIngestBatchProtos batch) {
+        // parse top level required parameters
+        final String storeName = batch.getBaseParams().getStoreName();
+        final String typeName = batch.getBaseParams().getTypeName();
+        final String indexName = batch.getBaseParams().getIndexName();
+        final StoreLoader storeLoader = new StoreLoader(storeName);
+        if (!batch.getBatch().hasSchema()) {
+          throw new ParameterException("The first feature batch must contain a schema");
+        }
+        featureType =
+            GeoWaveGrpcFeatureBatchUtil.toFeatureType(typeName, batch.getBatch().getSchema());
+        geometryEncoding = batch.getBatch().getSchema().getGeometryEncoding();
+
+        // get a handle to the relevant stores
+        if (!storeLoader.loadFromConfig(GeoWaveGrpcServiceOptions.geowaveConfigFile)) {
+          throw new ParameterException("Cannot find store name: " + storeLoader.getStoreName());
+        }
+
+        final DataStore dataStore = storeLoader.createDataStore();
+        final PersistentAdapterStore adapterStore = storeLoader.createAdapterStore();
+        final InternalAdapterStore internalAdapterStore = storeLoader.createInternalAdapterStore();
+        final Short internalAdapterId = internalAdapterStore.getAdapterId(typeName);
+        DataTypeAdapter adapter = null;
+        if (internalAdapterId != null) {
+          adapter = adapterStore.getAdapter(internalAdapterId);
+        }
+        if (adapter == null) {
+          adapter = new FeatureDataAdapter(featureType);
+        } else if (adapter instanceof GeotoolsFeatureDataAdapter) {
+          // read the batches as features of the existing type so that the attribute bindings and
+          // the CRS match the adapter
+          final SimpleFeatureType existingType =
+              ((GeotoolsFeatureDataAdapter<?>) adapter).getFeatureType();
+          if (!GeoWaveGrpcFeatureBatchUtil.matchesSchema(
+              existingType,
+              batch.getBatch().getSchema())) {
+            throw new ParameterException(
+                "The schema of the feature batch does not match the existing type " + typeName);
+          }
+          featureType = existingType;
+        }
+
+        // Load the Indexes
+        final List<Index> indices =
+            DataStoreUtils.loadIndices(storeLoader.createIndexStore(), indexName);
+        if (indices.isEmpty() || (indices.get(0) == null)) {
+          throw new ParameterException("Failed to instantiate primary index");
+        }
+
+        // create index writer to actually write data
+        dataStore.addType(adapter, indices.get(0));
+        writer = dataStore.createWriter(adapter.getTypeName());
+      }
+
+      @Override
+      public void onError(final Throwable t) {
+        LOGGER.error("Exception encountered during vectorIngestBatch", t);
+        if ((writer != null) && !failed) {
+          writer.flush();
+          writer.close();
+        }
+      }
+
+      @Override
+      public void onCompleted() {
+        if (failed) {
+          return;
+        }
+        if (writer != null) {
+          writer.flush();
+          writer.close();
+        }
+        final StringResponseProtos resp =
+            StringResponseProtos.newBuilder().setResponseValue(
+                "Ingest completed successfully").build();
+        responseObserver.onNext(resp);
+        responseObserver.onCompleted();
+      }
+    };
+  }
+
   private void setAttributeBuilderValue(
       final Object simpleFeatureAttribute,
       final FeatureAttributeProtos.Builder attBuilder) {
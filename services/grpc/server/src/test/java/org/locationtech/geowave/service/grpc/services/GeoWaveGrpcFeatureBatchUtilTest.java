@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2013-2020 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.service.grpc.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.Date;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.CRS;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.geowave.service.grpc.protobuf.FeatureBatchProtos;
+import org.locationtech.geowave.service.grpc.protobuf.FeatureSchemaProtos;
+import org.locationtech.geowave.service.grpc.services.GeoWaveGrpcFeatureBatchUtil.FeatureBatchBuilder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class GeoWaveGrpcFeatureBatchUtilTest {
+  private static final String TYPE_NAME = "batchType";
+
+  private static SimpleFeatureType createFeatureType() throws Exception {
+    final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName(TYPE_NAME);
+    typeBuilder.setCRS(CRS.decode("EPSG:3857", true));
+    typeBuilder.add("name", String.class);
+    typeBuilder.add("byteValue", Byte.class);
+    typeBuilder.add("shortValue", Short.class);
+    typeBuilder.add("intValue", Integer.class);
+    typeBuilder.add("longValue", Long.class);
+    typeBuilder.add("floatValue", Float.class);
+    typeBuilder.add("doubleValue", Double.class);
+    typeBuilder.add("when", Date.class);
+    typeBuilder.add("start", Point.class);
+    typeBuilder.add("geom", Geometry.class);
+    typeBuilder.setDefaultGeometry("geom");
+    return typeBuilder.buildFeatureType();
+  }
+
+  private static SimpleFeature[] createFeatures(final SimpleFeatureType featureType) {
+    final SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(featureType);
+    final SimpleFeature[] features = new SimpleFeature[3];
+    for (int i = 0; i < features.length; i++) {
+      // the second feature has a null value in every column
+      final boolean nulls = i == 1;
+      featureBuilder.set("name", nulls ? null : "feature" + i);
+      featureBuilder.set("byteValue", nulls ? null : (byte) (i - 10));
+      featureBuilder.set("shortValue", nulls ? null : (short) (i * 1000));
+      featureBuilder.set("intValue", nulls ? null : i * 100000);
+      featureBuilder.set("longValue", nulls ? null : i * 10000000000L);
+      featureBuilder.set("floatValue", nulls ? null : i + 0.5f);
+      featureBuilder.set("doubleValue", nulls ? null : i + 0.25);
+      featureBuilder.set("when", nulls ? null : new Date(1600000000000L + i));
+      featureBuilder.set(
+          "start",
+          nulls ? null : GeometryUtils.GEOMETRY_FACTORY.createPoint(new Coordinate(i, -i)));
+      featureBuilder.set(
+          "geom",
+          nulls ? null
+              : GeometryUtils.GEOMETRY_FACTORY.createLineString(
+                  new Coordinate[] {new Coordinate(i, i), new Coordinate(i + 1.5, i + 2.5)}));
+      features[i] = featureBuilder.buildFeature("id" + i);
+    }
+    return features;
+  }
+
+  private static void testRoundTrip(final String geometryEncoding) throws Exception {
+    final SimpleFeatureType featureType = createFeatureType();
+    final SimpleFeature[] features = createFeatures(featureType);
+    final FeatureBatchBuilder batchBuilder =
+        new FeatureBatchBuilder(featureType, geometryEncoding);
+    for (final SimpleFeature feature : features) {
+      batchBuilder.add(feature);
+    }
+    assertEquals(features.length, batchBuilder.size());
+    final FeatureBatchProtos batch = batchBuilder.build();
+    assertTrue(batch.hasSchema());
+    assertTrue(batchBuilder.isSchemaSent());
+
+    final FeatureSchemaProtos schema = batch.getSchema();
+    final SimpleFeatureType decodedType =
+        GeoWaveGrpcFeatureBatchUtil.toFeatureType(TYPE_NAME, schema);
+    assertTrue(GeoWaveGrpcFeatureBatchUtil.matchesSchema(featureType, schema));
+    assertEquals(featureType.getAttributeCount(), decodedType.getAttributeCount());
+    for (int i = 0; i < featureType.getAttributeCount(); i++) {
+      assertEquals(
+          featureType.getDescriptor(i).getLocalName(),
+          decodedType.getDescriptor(i).getLocalName());
+      if (!Geometry.class.isAssignableFrom(featureType.getDescriptor(i).getType().getBinding())) {
+        assertEquals(
+            featureType.getDescriptor(i).getType().getBinding(),
+            decodedType.getDescriptor(i).getType().getBinding());
+      }
+    }
+    assertEquals("geom", decodedType.getGeometryDescriptor().getLocalName());
+    assertTrue(
+        CRS.equalsIgnoreMetadata(
+            featureType.getCoordinateReferenceSystem(),
+            decodedType.getCoordinateReferenceSystem()));
+
+    final SimpleFeature[] decoded =
+        GeoWaveGrpcFeatureBatchUtil.toFeatures(
+            batch,
+            decodedType,
+            schema.getGeometryEncoding(),
+            0);
+    assertEquals(features.length, decoded.length);
+    for (int i = 0; i < features.length; i++) {
+      assertEquals(features[i].getID(), decoded[i].getID());
+      for (int a = 0; a < featureType.getAttributeCount(); a++) {
+        final Object expected = features[i].getAttribute(a);
+        final Object actual = decoded[i].getAttribute(a);
+        if (expected == null) {
+          assertNull(actual);
+        } else if (expected instanceof Geometry) {
+          assertTrue(((Geometry) expected).equalsExact((Geometry) actual));
+        } else {
+          assertEquals(expected, actual);
+        }
+      }
+    }
+
+    // the schema is only sent with the first batch
+    batchBuilder.add(features[0]);
+    final FeatureBatchProtos nextBatch = batchBuilder.build();
+    assertFalse(nextBatch.hasSchema());
+    final SimpleFeature[] nextDecoded =
+        GeoWaveGrpcFeatureBatchUtil.toFeatures(
+            nextBatch,
+            decodedType,
+            schema.getGeometryEncoding(),
+            features.length);
+    assertEquals(1, nextDecoded.length);
+    assertEquals(features[0].getAttribute("when"), nextDecoded[0].getAttribute("when"));
+  }
+
+  @Test
+  public void testWKBRoundTrip() throws Exception {
+    testRoundTrip(GeoWaveGrpcFeatureBatchUtil.WKB_ENCODING);
+  }
+
+  @Test
+  public void testTWKBRoundTrip() throws Exception {
+    testRoundTrip(GeoWaveGrpcFeatureBatchUtil.TWKB_ENCODING);
+  }
+
+  @Test
+  public void testDefaultCRS() {
+    final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName(TYPE_NAME);
+    typeBuilder.add("geometry", Point.class);
+    final FeatureSchemaProtos schema =
+        GeoWaveGrpcFeatureBatchUtil.toSchema(
+            typeBuilder.buildFeatureType(),
+            GeoWaveGrpcFeatureBatchUtil.WKB_ENCODING).toBuilder().clearCrs().build();
+    final SimpleFeatureType decodedType =
+        GeoWaveGrpcFeatureBatchUtil.toFeatureType(TYPE_NAME, schema);
+    assertTrue(GeometryUtils.isDefaultCrs(decodedType.getCoordinateReferenceSystem()));
+    assertEquals("geometry", decodedType.getGeometryDescriptor().getLocalName());
+  }
+
+  @Test
+  public void testMatchesSchema() throws Exception {
+    final SimpleFeatureType featureType = createFeatureType();
+    final FeatureSchemaProtos schema =
+        GeoWaveGrpcFeatureBatchUtil.toSchema(
+            featureType,
+            GeoWaveGrpcFeatureBatchUtil.WKB_ENCODING);
+
+    // shorts and bytes sent as integers can be read into an existing type
+    final FeatureSchemaProtos.Builder widened = schema.toBuilder();
+    widened.setAttributes(
+        1,
+        widened.getAttributes(1).toBuilder().setClassType(
+            GeoWaveGrpcFeatureBatchUtil.INTEGER_TYPE));
+    widened.setAttributes(
+        2,
+        widened.getAttributes(2).toBuilder().setClassType(
+            GeoWaveGrpcFeatureBatchUtil.INTEGER_TYPE));
+    assertTrue(GeoWaveGrpcFeatureBatchUtil.matchesSchema(featureType, widened.build()));
+
+    final FeatureSchemaProtos.Builder renamed = schema.toBuilder();
+    renamed.setAttributes(0, renamed.getAttributes(0).toBuilder().setName("other"));
+    assertFalse(GeoWaveGrpcFeatureBatchUtil.matchesSchema(featureType, renamed.build()));
+
+    final FeatureSchemaProtos.Builder retyped = schema.toBuilder();
+    retyped.setAttributes(
+        4,
+        retyped.getAttributes(4).toBuilder().setClassType(
+            GeoWaveGrpcFeatureBatchUtil.DOUBLE_TYPE));
+    assertFalse(GeoWaveGrpcFeatureBatchUtil.matchesSchema(featureType, retyped.build()));
+  }
+}
@@ -15,12 +15,15 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.service.grpc.protobuf.AnalyticMapreduceGrpc;
 import org.locationtech.geowave.service.grpc.protobuf.AnalyticMapreduceGrpc.AnalyticMapreduceBlockingStub;
@@ -43,6 +46,7 @@ import org.locationtech.geowave.service.grpc.protobuf.CoreStoreGrpc.CoreStoreBlo
 import org.locationtech.geowave.service.grpc.protobuf.DBScanCommandParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.DescribeTypeCommandParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.FeatureAttributeProtos;
+import org.locationtech.geowave.service.grpc.protobuf.FeatureBatchProtos;
 import org.locationtech.geowave.service.grpc.protobuf.FeatureProtos;
 import org.locationtech.geowave.service.grpc.protobuf.GeoServerAddCoverageCommandParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.GeoServerAddCoverageStoreCommandParametersProtos;
@@ -103,14 +107,20 @@ import org.locationtech.geowave.service.grpc.protobuf.TemporalConstraintsProtos;
 import org.locationtech.geowave.service.grpc.protobuf.VectorGrpc;
 import org.locationtech.geowave.service.grpc.protobuf.VectorGrpc.VectorBlockingStub;
 import org.locationtech.geowave.service.grpc.protobuf.VectorGrpc.VectorStub;
+import org.locationtech.geowave.service.grpc.protobuf.VectorIngestBatchProtos;
 import org.locationtech.geowave.service.grpc.protobuf.VectorIngestParametersProtos;
+import org.locationtech.geowave.service.grpc.protobuf.VectorQueryBatchParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.VectorQueryParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.VectorStoreParametersProtos;
 import org.locationtech.geowave.service.grpc.protobuf.VersionCommandParametersProtos;
+import org.locationtech.geowave.service.grpc.services.GeoWaveGrpcFeatureBatchUtil;
+import org.locationtech.geowave.service.grpc.services.GeoWaveGrpcFeatureBatchUtil.FeatureBatchBuilder;
 import org.locationtech.geowave.test.TestUtils;
 import org.locationtech.geowave.test.kafka.KafkaTestEnvironment;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.io.WKBWriter;
+import org.opengis.feature.simple.SimpleFeatureType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.protobuf.ByteString;
@@ -272,6 +282,99 @@ public class GeoWaveGrpcTestClient {
     }
   }
 
+  public void vectorIngestBatch(
+      final String typeName,
+      final int minLat,
+      final int maxLat,
+      final int minLon,
+      final int maxLon,
+      final int latStepDegs,
+      final int lonStepDegs) throws InterruptedException {
+    LOGGER.info("Performing Vector Ingest Batch...");
+    numFeaturesProcessed = 0;
+    final VectorStoreParametersProtos baseParams =
+        VectorStoreParametersProtos.newBuilder().setStoreName(
+            GeoWaveGrpcTestUtils.storeName).setTypeName(typeName).setIndexName(
+                GeoWaveGrpcTestUtils.indexName).build();
+
+    final CountDownLatch finishLatch = new CountDownLatch(1);
+    final StreamObserver<StringResponseProtos> responseObserver =
+        new StreamObserver<StringResponseProtos>() {
+
+          @Override
+          public void onNext(final StringResponseProtos value) {
+            try {
+              numFeaturesProcessed = Integer.parseInt(value.getResponseValue());
+            } catch (final NumberFormatException e) {
+
+            }
+            LOGGER.info(value.getResponseValue());
+          }
+
+          @Override
+          public void onError(final Throwable t) {
+            LOGGER.error("Error: Vector Ingest Batch failed.", t);
+            finishLatch.countDown();
+          }
+
+          @Override
+          public void onCompleted() {
+            LOGGER.info("Finished Vector Ingest Batch...");
+            finishLatch.countDown();
+          }
+        };
+    final StreamObserver<VectorIngestBatchProtos> requestObserver =
+        vectorAsyncStub.vectorIngestBatch(responseObserver);
+
+    final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName(typeName);
+    typeBuilder.setCRS(GeometryUtils.getDefaultCRS());
+    typeBuilder.add("geometry", Point.class);
+    typeBuilder.add("TimeStamp", Date.class);
+    typeBuilder.add("Latitude", Short.class);
+    typeBuilder.add("Longitude", Short.class);
+    typeBuilder.add("Name", String.class);
+    final SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+    final SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(featureType);
+    final FeatureBatchBuilder batchBuilder =
+        new FeatureBatchBuilder(featureType, GeoWaveGrpcFeatureBatchUtil.TWKB_ENCODING);
+    int featureId = 0;
+    for (int longitude = minLon; longitude <= maxLon; longitude += lonStepDegs) {
+      for (int latitude = minLat; latitude <= maxLat; latitude += latStepDegs) {
+        featureBuilder.set(
+            "geometry",
+            GeometryUtils.GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude)));
+        featureBuilder.set("TimeStamp", new Date());
+        featureBuilder.set("Latitude", (short) latitude);
+        featureBuilder.set("Longitude", (short) longitude);
+        // leave every other name null to send a nulls column
+        featureBuilder.set("Name", (featureId % 2) == 0 ? null : "feature" + featureId);
+        batchBuilder.add(featureBuilder.buildFeature(typeName + featureId++));
+        if (batchBuilder.size() == 2) {
+          requestObserver.onNext(
+              VectorIngestBatchProtos.newBuilder().setBaseParams(baseParams).setBatch(
+                  batchBuilder.build()).build());
+          if (finishLatch.getCount() == 0) {
+            // RPC completed or errored before we finished sending
+            return;
+          }
+        }
+      }
+    }
+    if (batchBuilder.size() > 0) {
+      requestObserver.onNext(
+          VectorIngestBatchProtos.newBuilder().setBaseParams(baseParams).setBatch(
+              batchBuilder.build()).build());
+    }
+    // Mark the end of requests
+    requestObserver.onCompleted();
+
+    // Receiving happens asynchronously
+    if (!finishLatch.await(15, TimeUnit.MINUTES)) {
+      LOGGER.warn("Vector Ingest Batch can not finish within 15 minutes");
+    }
+  }
+
   public ArrayList<FeatureProtos> vectorQuery() throws UnsupportedEncodingException {
     LOGGER.info("Performing Vector Query...");
     final VectorQueryParametersProtos request =
@@ -290,6 +393,24 @@ public class GeoWaveGrpcTestClient {
     return feature_list;
   }
 
+  public ArrayList<FeatureBatchProtos> vectorQueryBatch() {
+    LOGGER.info("Performing Vector Query Batch...");
+    final VectorStoreParametersProtos baseParams =
+        VectorStoreParametersProtos.newBuilder().setStoreName(
+            GeoWaveGrpcTestUtils.storeName).setTypeName(GeoWaveGrpcTestUtils.typeName).build();
+    final VectorQueryBatchParametersProtos request =
+        VectorQueryBatchParametersProtos.newBuilder().setBaseParams(baseParams).setCql(
+            GeoWaveGrpcTestUtils.cqlSpatialQuery).setBatchSize(2).setGeometryEncoding(
+                "TWKB").build();
+
+    final Iterator<FeatureBatchProtos> batches = vectorBlockingStub.vectorQueryBatch(request);
+    final ArrayList<FeatureBatchProtos> batch_list = new ArrayList<>();
+    while (batches.hasNext()) {
+      batch_list.add(batches.next());
+    }
+    return batch_list;
+  }
+
   private static ByteString copyFrom(final byte[] bytes) {
     return ByteString.copyFrom(bytes);
   }
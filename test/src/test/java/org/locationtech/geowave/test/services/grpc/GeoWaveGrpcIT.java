@@ -30,6 +30,7 @@ import org.locationtech.geowave.service.grpc.GeoWaveGrpcServiceOptions;
 import org.locationtech.geowave.service.grpc.cli.StartGrpcServerCommand;
 import org.locationtech.geowave.service.grpc.cli.StartGrpcServerCommandOptions;
 import org.locationtech.geowave.service.grpc.cli.StopGrpcServerCommand;
+import org.locationtech.geowave.service.grpc.protobuf.FeatureBatchProtos;
 import org.locationtech.geowave.service.grpc.protobuf.FeatureProtos;
 import org.locationtech.geowave.test.GeoWaveITRunner;
 import org.locationtech.geowave.test.TestUtils;
@@ -278,6 +279,40 @@ public class GeoWaveGrpcIT extends AbstractGeoWaveBasicVectorIT {
     LOGGER.warn("*                                       *");
     LOGGER.warn("-----------------------------------------");
 
+    // 3x3 features sent in batches of 2, the second ingest writes to the existing type
+    client.vectorIngestBatch(GeoWaveGrpcTestUtils.typeName + "Batch", 0, 10, 0, 10, 5, 5);
+    Assert.assertEquals(9, client.numFeaturesProcessed);
+    client.vectorIngestBatch(GeoWaveGrpcTestUtils.typeName + "Batch", 0, 10, 0, 10, 5, 5);
+    Assert.assertEquals(9, client.numFeaturesProcessed);
+    LOGGER.warn("-----------------------------------------");
+    LOGGER.warn("*                                       *");
+    LOGGER.warn("*  FINISHED vectorIngestBatch           *");
+    LOGGER.warn(
+        "*         "
+            + ((System.currentTimeMillis() - startMillis) / 1000)
+            + "s elapsed.                 *");
+    LOGGER.warn("*                                       *");
+    LOGGER.warn("-----------------------------------------");
+
+    final ArrayList<FeatureBatchProtos> batches = client.vectorQueryBatch();
+    Assert.assertTrue(batches.size() > 0);
+    // the schema is only sent with the first batch
+    Assert.assertTrue(batches.get(0).hasSchema());
+    int batchedFeatures = 0;
+    for (final FeatureBatchProtos batch : batches) {
+      batchedFeatures += batch.getCount();
+    }
+    Assert.assertTrue(batchedFeatures > 0);
+    LOGGER.warn("-----------------------------------------");
+    LOGGER.warn("*                                       *");
+    LOGGER.warn("*  FINISHED vectorQueryBatch            *");
+    LOGGER.warn(
+        "*         "
+            + ((System.currentTimeMillis() - startMillis) / 1000)
+            + "s elapsed.                 *");
+    LOGGER.warn("*                                       *");
+    LOGGER.warn("-----------------------------------------");
+
     features = client.cqlQuery();
     Assert.assertTrue(features.size() > 0);
     features.clear();